@@ -386,6 +386,18 @@ namespace questdb::avx2 {
         }
     }
 
+    // vectorized x86::emit_in_set(); interval and string predicates have no vectorized version,
+    // the Java side requests the scalar mode for the filters that contain them
+    jit_value_t emit_in_set(Compiler &c, const instruction_t &instr, const Gp &cols_ptr, const Gp &vars_ptr,
+                            const Gp &input_index) {
+        auto column_idx = static_cast<int32_t>(instr.ipayload.lo);
+        auto var_idx = static_cast<int32_t>(instr.ipayload.hi);
+        auto key = read_mem(c, data_type_t::i32, column_idx, cols_ptr, input_index);
+        Gp set = c.newInt64("set_address");
+        c.mov(set, ptr(vars_ptr, 8 * var_idx, 8));
+        return {int32_in_set(c, key.ymm(), set.as<Gpq>()), data_type_t::i32, data_kind_t::kMemory};
+    }
+
     void
     emit_code(Compiler &c, const instruction_t *istream, size_t size, ZoneStack<jit_value_t> &values, bool ncheck,
               const Gp &cols_ptr, const Gp &vars_ptr, const Gp &input_index) {
@@ -417,6 +429,9 @@ namespace questdb::avx2 {
                 case opcodes::Not:
                     values.append(bin_not(c, get_argument(values)));
                     break;
+                case opcodes::InSet:
+                    values.append(emit_in_set(c, instr, cols_ptr, vars_ptr, input_index));
+                    break;
                 default:
                     emit_bin_op(c, instr, values, ncheck);
                     break;
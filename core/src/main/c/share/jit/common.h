@@ -63,8 +63,15 @@ enum class opcodes : int32_t {
     Mul,
     Div,
     Rem,
+    InSet,       // int32 column value in the symbol key set passed as a variable
+    InIntervals, // int64 column value in the sorted interval list passed as a variable
+    StrEq,       // string column value equal to the string passed as a variable
 };
 
+// version of the IR accepted by the compiler, reported to the Java side:
+// 2 - InSet, InIntervals and StrEq instructions, 3 - arithmetic projections
+static const int32_t IR_VERSION = 3;
+
 struct instruction_t {
     opcodes opcode;
     int32_t options;
@@ -54,6 +54,9 @@ using CompiledFn = int64_t (*)(int64_t *cols, int64_t cols_count, int64_t *vars,
                                int64_t rows_count,
                                int64_t rows_start_offset);
 
+using CompiledProjectionFn = int64_t (*)(int64_t *cols, int64_t cols_count, int64_t *vars, int64_t vars_count,
+                                         int64_t *rows, int64_t rows_count, int64_t *output);
+
 struct Function {
     explicit Function(x86::Compiler &cc)
             : c(cc), zone(4094 - Zone::kBlockOverhead), allocator(&zone) {
@@ -81,6 +84,13 @@ struct Function {
         }
     };
 
+    void compile_projection(const instruction_t *istream, size_t size, uint32_t options) {
+        bool null_check = (options >> 6) & 1; // 1 - with null check
+        questdb::x86::emit_projection(c, istream, size, values, null_check, cols_ptr, vars_ptr, rows_ptr, rows_size,
+                                      output_ptr, output_index);
+        c.ret(rows_size);
+    }
+
     void scalar_tail(const instruction_t *istream, size_t size, bool null_check, const x86::Gp &stop, int unroll_factor = 1) {
 
         Label l_loop = c.newLabel();
@@ -192,6 +202,30 @@ struct Function {
     void begin_fn() {
         c.addFunc(FuncSignatureT<int64_t, int64_t *, int64_t, int64_t *, int64_t, int64_t *, int64_t, int64_t>(
                 CallConv::kIdHost));
+        set_args();
+
+        rows_id_start_offset = c.newInt64("rows_id_start_offset");
+        c.setArg(6, rows_id_start_offset);
+
+        input_index = c.newInt64("input_index");
+        c.mov(input_index, 0);
+
+        output_index = c.newInt64("output_index");
+        c.mov(output_index, 0);
+    }
+
+    void begin_projection_fn() {
+        c.addFunc(FuncSignatureT<int64_t, int64_t *, int64_t, int64_t *, int64_t, int64_t *, int64_t, int64_t *>(
+                CallConv::kIdHost));
+        set_args();
+
+        output_ptr = c.newIntPtr("output_ptr");
+        c.setArg(6, output_ptr);
+
+        output_index = c.newInt64("output_index");
+    }
+
+    void set_args() {
         cols_ptr = c.newIntPtr("cols_ptr");
         cols_size = c.newInt64("cols_size");
 
@@ -209,15 +243,6 @@ struct Function {
 
         c.setArg(4, rows_ptr);
         c.setArg(5, rows_size);
-
-        rows_id_start_offset = c.newInt64("rows_id_start_offset");
-        c.setArg(6, rows_id_start_offset);
-
-        input_index = c.newInt64("input_index");
-        c.mov(input_index, 0);
-
-        output_index = c.newInt64("output_index");
-        c.mov(output_index, 0);
     }
 
     void end_fn() {
@@ -239,6 +264,7 @@ struct Function {
     x86::Gp input_index;
     x86::Gp output_index;
     x86::Gp rows_id_start_offset;
+    x86::Gp output_ptr;
 };
 
 void fillJitErrorObject(JNIEnv *e, jobject error, uint32_t code, const char *msg) {
@@ -262,17 +288,10 @@ void fillJitErrorObject(JNIEnv *e, jobject error, uint32_t code, const char *msg
     }
 }
 
-JNIEXPORT jlong JNICALL
-Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIEnv *e,
-                                                    jclass cl,
-                                                    jlong filterAddress,
-                                                    jlong filterSize,
-                                                    jint options,
-                                                    jobject error) {
 #ifndef __aarch64__
-
-    auto size = static_cast<size_t>(filterSize) / sizeof(instruction_t);
-    if (filterAddress <= 0 || size <= 0) {
+static jlong compile(JNIEnv *e, jlong irAddress, jlong irSize, jint options, jobject error, bool projection) {
+    auto size = static_cast<size_t>(irSize) / sizeof(instruction_t);
+    if (irAddress <= 0 || size <= 0) {
         fillJitErrorObject(e, error, ErrorCode::kErrorInvalidArgument, "Invalid argument passed");
         return 0;
     }
@@ -294,10 +313,16 @@ Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIEnv *e,
     x86::Compiler c(&code);
     Function function(c);
 
-    CompiledFn fn;
+    void *fn;
 
-    function.begin_fn();
-    function.compile(reinterpret_cast<const instruction_t *>(filterAddress), size, options);
+    auto istream = reinterpret_cast<const instruction_t *>(irAddress);
+    if (projection) {
+        function.begin_projection_fn();
+        function.compile_projection(istream, size, options);
+    } else {
+        function.begin_fn();
+        function.compile(istream, size, options);
+    }
     function.end_fn();
 
     Error err = errorHandler.error;
@@ -318,10 +343,35 @@ Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIEnv *e,
     }
 
     return reinterpret_cast<jlong>(fn);
+}
+#endif
+
+JNIEXPORT jlong JNICALL
+Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIEnv *e,
+                                                    jclass cl,
+                                                    jlong filterAddress,
+                                                    jlong filterSize,
+                                                    jint options,
+                                                    jobject error) {
+#ifndef __aarch64__
+    return compile(e, filterAddress, filterSize, options, error, false);
 #else
     return 0;
 #endif
+}
 
+JNIEXPORT jlong JNICALL
+Java_io_questdb_jit_FiltersCompiler_compileProjection(JNIEnv *e,
+                                                      jclass cl,
+                                                      jlong projectionAddress,
+                                                      jlong projectionSize,
+                                                      jint options,
+                                                      jobject error) {
+#ifndef __aarch64__
+    return compile(e, projectionAddress, projectionSize, options, error, true);
+#else
+    return 0;
+#endif
 }
 
 JNIEXPORT void JNICALL
@@ -332,6 +382,11 @@ Java_io_questdb_jit_FiltersCompiler_freeFunction(JNIEnv *e, jclass cl, jlong fnA
 #endif
 }
 
+JNIEXPORT jint JNICALL
+Java_io_questdb_jit_FiltersCompiler_getIRVersion(JNIEnv *e, jclass cl) {
+    return IR_VERSION;
+}
+
 JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv *e,
                                                                          jclass cl,
                                                                          jlong fnAddress,
@@ -355,3 +410,27 @@ JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv
     return 0;
 #endif
 }
+
+JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callProjection(JNIEnv *e,
+                                                                           jclass cl,
+                                                                           jlong fnAddress,
+                                                                           jlong colsAddress,
+                                                                           jlong colsSize,
+                                                                           jlong varsAddress,
+                                                                           jlong varsSize,
+                                                                           jlong rowsAddress,
+                                                                           jlong rowsSize,
+                                                                           jlong outputAddress) {
+#ifndef __aarch64__
+    auto fn = reinterpret_cast<CompiledProjectionFn>(fnAddress);
+    return fn(reinterpret_cast<int64_t *>(colsAddress),
+              colsSize,
+              reinterpret_cast<int64_t *>(varsAddress),
+              varsSize,
+              reinterpret_cast<int64_t *>(rowsAddress),
+              rowsSize,
+              reinterpret_cast<int64_t *>(outputAddress));
+#else
+    return 0;
+#endif
+}
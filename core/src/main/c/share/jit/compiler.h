@@ -36,8 +36,17 @@ JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_compileFunction(JNIE
                                                                            jint options,
                                                                            jobject error);
 
+JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_compileProjection(JNIEnv *e,
+                                                                             jclass cl,
+                                                                             jlong projectionAddress,
+                                                                             jlong projectionSize,
+                                                                             jint options,
+                                                                             jobject error);
+
 JNIEXPORT void JNICALL Java_io_questdb_jit_FiltersCompiler_freeFunction(JNIEnv *e, jclass cl, jlong fnAddress);
 
+JNIEXPORT jint JNICALL Java_io_questdb_jit_FiltersCompiler_getIRVersion(JNIEnv *e, jclass cl);
+
 JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv *e,
                                                                         jclass cl,
                                                                         jlong fnAddress,
@@ -49,6 +58,17 @@ JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callFunction(JNIEnv
                                                                         jlong rowsSize,
                                                                         jlong rowsStartOffset);
 
+JNIEXPORT jlong JNICALL Java_io_questdb_jit_FiltersCompiler_callProjection(JNIEnv *e,
+                                                                          jclass cl,
+                                                                          jlong fnAddress,
+                                                                          jlong colsAddress,
+                                                                          jlong colsSize,
+                                                                          jlong varsAddress,
+                                                                          jlong varsSize,
+                                                                          jlong rowsAddress,
+                                                                          jlong rowsSize,
+                                                                          jlong outputAddress);
+
 JNIEXPORT void JNICALL Java_io_questdb_jit_FiltersCompiler_runTests(JNIEnv *e, jclass cl);
 
 }
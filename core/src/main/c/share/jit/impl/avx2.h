@@ -771,6 +771,50 @@ namespace questdb::avx2 {
         }
         return dst;
     }
+    // vectorized x86::int32_in_set(), lanes of the returned mask are set for the keys found in the set
+    inline Ymm int32_in_set(Compiler &c, const Ymm &key, const Gpq &set) {
+        c.comment("int32_in_set");
+        int32_t one = 1;
+        int32_t bit_index_mask = 31;
+        Ymm ones = c.newYmm();
+        c.vpbroadcastd(ones, c.newConst(ConstPool::kScopeLocal, &one, 4));
+        Ymm count = c.newYmm();
+        c.vpbroadcastd(count, dword_ptr(set));
+        // key count never exceeds INT_MAX, so negative keys are the only ones to exclude besides the large ones
+        Ymm in_range = c.newYmm();
+        c.vpcmpgtd(in_range, count, key);
+        Ymm negative = c.newYmm();
+        c.vpxor(negative, negative, negative);
+        c.vpcmpgtd(negative, negative, key);
+        c.vpandn(in_range, negative, in_range);
+        // gather 32-bit words of the bitset, lanes out of range are not loaded
+        Ymm index = c.newYmm();
+        c.vpsrld(index, key, 5);
+        Ymm words = c.newYmm();
+        c.vpxor(words, words, words);
+        Ymm gather_mask = c.newYmm();
+        c.vmovdqa(gather_mask, in_range);
+        Gp bitset = c.newInt64("bitset_address");
+        c.lea(bitset, ptr(set, 8));
+        c.vpgatherdd(words, ptr(bitset, index, 2), gather_mask);
+        Ymm shift = c.newYmm();
+        c.vpbroadcastd(shift, c.newConst(ConstPool::kScopeLocal, &bit_index_mask, 4));
+        c.vpand(shift, shift, key);
+        Ymm bit = c.newYmm();
+        c.vpsllvd(bit, ones, shift);
+        c.vpand(words, words, bit);
+        c.vpcmpeqd(words, words, bit);
+        c.vpand(words, words, in_range);
+        // null keys match when the set has the null flag
+        Ymm nulls = c.newYmm();
+        c.vpcmpeqd(nulls, key, vec_int_null(c));
+        Ymm null_flag = c.newYmm();
+        c.vpbroadcastd(null_flag, dword_ptr(set, 4));
+        c.vpcmpeqd(null_flag, null_flag, ones);
+        c.vpand(nulls, nulls, null_flag);
+        c.vpor(words, words, nulls);
+        return words;
+    }
 }
 
 #endif //QUESTDB_JIT_IMPL_AVX2_H
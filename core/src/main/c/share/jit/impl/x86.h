@@ -792,6 +792,117 @@ namespace questdb::x86 {
     inline Gpd float_ne_epsilon(Compiler &c, const Xmm &xmm0, const Xmm &xmm1, float epsilon) {
         return float_cmp_epsilon(c, xmm0, xmm1, epsilon, false);
     }
+
+    // set layout: int32 key count, int32 null flag, then a bitset of 64-bit words with a bit per key
+    inline Gpd int32_in_set(Compiler &c, const Gpd &key, const Gpq &set) {
+        c.comment("int32_in_set");
+        Label l_null = c.newLabel();
+        Label l_exit = c.newLabel();
+        Gp r = c.newInt32("int32_in_set_r");
+        Gp k = c.newInt64("int32_in_set_k");
+        Gp word = c.newInt64("int32_in_set_word");
+        c.xor_(r, r);
+        c.mov(k.r32(), key); // zero-extends, so that negative keys compare as large unsigned values
+        c.cmp(k.r32(), dword_ptr(set));
+        c.jae(l_null);
+        c.mov(word, k);
+        c.shr(word, 6);
+        c.mov(word, qword_ptr(set, word, 3, 8));
+        c.bt(word, k);
+        c.setc(r.r8Lo());
+        c.jmp(l_exit);
+        c.bind(l_null);
+        c.cmp(key, INT_NULL);
+        c.jne(l_exit);
+        c.mov(r, dword_ptr(set, 4));
+        c.and_(r, 1);
+        c.bind(l_exit);
+        return r.as<Gpd>();
+    }
+
+    // intervals layout: int64 interval count, then sorted non-overlapping [lo, hi] pairs of int64
+    inline Gpd int64_in_intervals(Compiler &c, const Gpq &value, const Gpq &intervals) {
+        c.comment("int64_in_intervals");
+        Label l_loop = c.newLabel();
+        Label l_upper = c.newLabel();
+        Label l_found = c.newLabel();
+        Label l_exit = c.newLabel();
+        Gp r = c.newInt32("int64_in_intervals_r");
+        Gp lo = c.newInt64("int64_in_intervals_lo");
+        Gp hi = c.newInt64("int64_in_intervals_hi");
+        Gp mid = c.newInt64("int64_in_intervals_mid");
+        Gp offset = c.newInt64("int64_in_intervals_offset");
+        c.xor_(r, r);
+        c.xor_(lo, lo);
+        c.mov(hi, qword_ptr(intervals));
+        // binary search for the first interval with the upper bound not less than the value
+        c.bind(l_loop);
+        c.cmp(lo, hi);
+        c.jge(l_found);
+        c.lea(mid, ptr(lo, hi));
+        c.shr(mid, 1);
+        c.mov(offset, mid);
+        c.shl(offset, 4);
+        c.cmp(value, qword_ptr(intervals, offset, 0, 16));
+        c.jle(l_upper);
+        c.lea(lo, ptr(mid, 1));
+        c.jmp(l_loop);
+        c.bind(l_upper);
+        c.mov(hi, mid);
+        c.jmp(l_loop);
+        c.bind(l_found);
+        c.cmp(lo, qword_ptr(intervals));
+        c.jge(l_exit);
+        c.shl(lo, 4);
+        c.cmp(value, qword_ptr(intervals, lo, 0, 8));
+        c.setge(r.r8Lo());
+        c.bind(l_exit);
+        return r.as<Gpd>();
+    }
+
+    // both strings are laid out as in the string column data: int32 length (-1 for null) followed by UTF-16 chars
+    inline Gpd str_eq(Compiler &c, const Gpq &lhs, const Gpq &rhs) {
+        c.comment("str_eq");
+        Label l_qwords = c.newLabel();
+        Label l_chars = c.newLabel();
+        Label l_equal = c.newLabel();
+        Label l_exit = c.newLabel();
+        Gp r = c.newInt32("str_eq_r");
+        Gp size = c.newInt64("str_eq_size");
+        Gp i = c.newInt64("str_eq_i");
+        Gp next = c.newInt64("str_eq_next");
+        Gp t = c.newInt64("str_eq_t");
+        c.xor_(r, r);
+        c.movsxd(size, dword_ptr(lhs));
+        c.cmp(size.r32(), dword_ptr(rhs));
+        c.jne(l_exit);
+        // equal lengths, nulls and empty strings are equal to each other
+        c.test(size, size);
+        c.jle(l_equal);
+        c.shl(size, 1);
+        c.xor_(i, i);
+        c.bind(l_qwords);
+        c.lea(next, ptr(i, 8));
+        c.cmp(next, size);
+        c.jg(l_chars);
+        c.mov(t, qword_ptr(lhs, i, 0, 4));
+        c.cmp(t, qword_ptr(rhs, i, 0, 4));
+        c.jne(l_exit);
+        c.mov(i, next);
+        c.jmp(l_qwords);
+        c.bind(l_chars);
+        c.cmp(i, size);
+        c.jge(l_equal);
+        c.movzx(t.r32(), word_ptr(lhs, i, 0, 4));
+        c.cmp(t.r16(), word_ptr(rhs, i, 0, 4));
+        c.jne(l_exit);
+        c.add(i, 2);
+        c.jmp(l_chars);
+        c.bind(l_equal);
+        c.mov(r, 1);
+        c.bind(l_exit);
+        return r.as<Gpd>();
+    }
 }
 
 #endif //QUESTDB_JIT_IMPL_X86_H
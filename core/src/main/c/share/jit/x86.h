@@ -614,6 +614,45 @@ namespace questdb::x86 {
         }
     }
 
+    // symbol IN: instruction payload holds the column index and the index of the variable pointing to the key set
+    jit_value_t emit_in_set(Compiler &c, const instruction_t &instr, const Gp &cols_ptr, const Gp &vars_ptr,
+                            const Gp &input_index) {
+        auto column_idx = static_cast<int32_t>(instr.ipayload.lo);
+        auto var_idx = static_cast<int32_t>(instr.ipayload.hi);
+        auto key = mem2reg(c, read_mem(c, data_type_t::i32, column_idx, cols_ptr, input_index));
+        Gp set = c.newInt64("set_address");
+        c.mov(set, ptr(vars_ptr, 8 * var_idx, 8));
+        return {int32_in_set(c, key.gp().r32(), set.as<Gpq>()), data_type_t::i32, data_kind_t::kMemory};
+    }
+
+    // timestamp IN: instruction payload holds the column index and the index of the variable pointing to the intervals
+    jit_value_t emit_in_intervals(Compiler &c, const instruction_t &instr, const Gp &cols_ptr, const Gp &vars_ptr,
+                                  const Gp &input_index) {
+        auto column_idx = static_cast<int32_t>(instr.ipayload.lo);
+        auto var_idx = static_cast<int32_t>(instr.ipayload.hi);
+        auto value = mem2reg(c, read_mem(c, data_type_t::i64, column_idx, cols_ptr, input_index));
+        Gp intervals = c.newInt64("intervals_address");
+        c.mov(intervals, ptr(vars_ptr, 8 * var_idx, 8));
+        return {int64_in_intervals(c, value.gp(), intervals.as<Gpq>()), data_type_t::i32, data_kind_t::kMemory};
+    }
+
+    // string =: instruction payload holds the column index and the index of the variable pointing to the string,
+    // options hold the index of the column's aux (offsets) address in the column address list
+    jit_value_t emit_str_eq(Compiler &c, const instruction_t &instr, const Gp &cols_ptr, const Gp &vars_ptr,
+                            const Gp &input_index) {
+        auto column_idx = static_cast<int32_t>(instr.ipayload.lo);
+        auto var_idx = static_cast<int32_t>(instr.ipayload.hi);
+        auto aux_idx = instr.options;
+        Gp aux = c.newInt64("aux_address");
+        c.mov(aux, ptr(cols_ptr, 8 * aux_idx, 8));
+        Gp str = c.newInt64("str_address");
+        c.mov(str, ptr(cols_ptr, 8 * column_idx, 8));
+        c.add(str, qword_ptr(aux, input_index, 3));
+        Gp value = c.newInt64("str_value_address");
+        c.mov(value, ptr(vars_ptr, 8 * var_idx, 8));
+        return {str_eq(c, str.as<Gpq>(), value.as<Gpq>()), data_type_t::i32, data_kind_t::kMemory};
+    }
+
     void
     emit_code(Compiler &c, const instruction_t *istream, size_t size, ZoneStack<jit_value_t> &values,
               bool null_check,
@@ -649,12 +688,98 @@ namespace questdb::x86 {
                 case opcodes::Not:
                     values.append(bin_not(c, get_argument(c, values)));
                     break;
+                case opcodes::InSet:
+                    values.append(emit_in_set(c, instr, cols_ptr, vars_ptr, input_index));
+                    break;
+                case opcodes::InIntervals:
+                    values.append(emit_in_intervals(c, instr, cols_ptr, vars_ptr, input_index));
+                    break;
+                case opcodes::StrEq:
+                    values.append(emit_str_eq(c, instr, cols_ptr, vars_ptr, input_index));
+                    break;
                 default:
                     emit_bin_op(c, instr, values, null_check);
                     break;
             }
         }
     }
+
+    // projected values are widened to 64 bits: integer expressions are stored as int64, floating point ones as double
+    void store_projected_value(Compiler &c, const jit_value_t &value, bool null_check, const Mem &dst) {
+        switch (value.dtype()) {
+            case data_type_t::i8:
+            case data_type_t::i16:
+            case data_type_t::i32:
+                c.mov(dst, int32_to_int64(c, value.gp().r32(), null_check && cvt_null_check(value.dtype())));
+                break;
+            case data_type_t::i64:
+                c.mov(dst, value.gp());
+                break;
+            case data_type_t::f32:
+                c.movsd(dst, float_to_double(c, value.xmm()));
+                break;
+            case data_type_t::f64:
+                c.movsd(dst, value.xmm());
+                break;
+            default:
+                __builtin_unreachable();
+        }
+    }
+
+    void emit_projection_loop(Compiler &c, const instruction_t *istream, size_t size, ZoneStack<jit_value_t> &values,
+                              bool null_check,
+                              const Gp &cols_ptr,
+                              const Gp &vars_ptr,
+                              const Gp &rows_ptr,
+                              const Gp &rows_size,
+                              const Gp &output_ptr,
+                              const Gp &output_index,
+                              bool row_ids) {
+        Label l_loop = c.newLabel();
+        Label l_exit = c.newLabel();
+
+        c.xor_(output_index, output_index);
+        c.cmp(output_index, rows_size);
+        c.jge(l_exit);
+
+        c.bind(l_loop);
+        Gp row_index = output_index;
+        if (row_ids) {
+            row_index = c.newInt64("row_index");
+            c.mov(row_index, qword_ptr(rows_ptr, output_index, 3));
+        }
+        emit_code(c, istream, size, values, null_check, cols_ptr, vars_ptr, row_index);
+        store_projected_value(c, load_register(c, values.pop()), null_check, qword_ptr(output_ptr, output_index, 3));
+        c.inc(output_index);
+        c.cmp(output_index, rows_size);
+        c.jl(l_loop); // output_index < rows_size
+        c.bind(l_exit);
+    }
+
+    // Evaluates the arithmetic expression for each row and writes the results to the output buffer.
+    // Rows are read from the row id list or, when the list address is 0, taken from [0, rows_size) range.
+    void emit_projection(Compiler &c, const instruction_t *istream, size_t size, ZoneStack<jit_value_t> &values,
+                         bool null_check,
+                         const Gp &cols_ptr,
+                         const Gp &vars_ptr,
+                         const Gp &rows_ptr,
+                         const Gp &rows_size,
+                         const Gp &output_ptr,
+                         const Gp &output_index) {
+        Label l_row_ids = c.newLabel();
+        Label l_exit = c.newLabel();
+
+        c.test(rows_ptr, rows_ptr);
+        c.jnz(l_row_ids);
+        emit_projection_loop(c, istream, size, values, null_check, cols_ptr, vars_ptr, rows_ptr, rows_size, output_ptr,
+                             output_index, false);
+        c.jmp(l_exit);
+
+        c.bind(l_row_ids);
+        emit_projection_loop(c, istream, size, values, null_check, cols_ptr, vars_ptr, rows_ptr, rows_size, output_ptr,
+                             output_index, true);
+        c.bind(l_exit);
+    }
 }
 
 #endif //QUESTDB_JIT_X86_H
@@ -95,6 +95,18 @@ public interface MessageBus extends Closeable {
 
     MCSequence getPageFrameReduceSubSeq(int shard);
 
+    Sequence getPartitionCompressionPubSeq();
+
+    RingQueue<PartitionCompressionTask> getPartitionCompressionQueue();
+
+    Sequence getPartitionCompressionSubSeq();
+
+    Sequence getPartitionZoneMapPubSeq();
+
+    RingQueue<PartitionZoneMapTask> getPartitionZoneMapQueue();
+
+    Sequence getPartitionZoneMapSubSeq();
+
     FanOut getQueryCacheEventFanOut();
 
     MPSequence getQueryCacheEventPubSeq();
@@ -125,6 +137,12 @@ public interface MessageBus extends Closeable {
 
     Sequence getVectorAggregateSubSeq();
 
+    Sequence getWalSegmentCompressionPubSeq();
+
+    RingQueue<WalSegmentCompressionTask> getWalSegmentCompressionQueue();
+
+    Sequence getWalSegmentCompressionSubSeq();
+
     Sequence getWalTxnNotificationPubSequence();
 
     RingQueue<WalTxnNotificationTask> getWalTxnNotificationQueue();
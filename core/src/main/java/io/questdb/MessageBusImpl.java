@@ -66,6 +66,12 @@ public class MessageBusImpl implements MessageBus {
     private final RingQueue<PageFrameReduceTask>[] pageFrameReduceQueue;
     private final int pageFrameReduceShardCount;
     private final MCSequence[] pageFrameReduceSubSeq;
+    private final MPSequence partitionCompressionPubSeq;
+    private final RingQueue<PartitionCompressionTask> partitionCompressionQueue;
+    private final SCSequence partitionCompressionSubSeq;
+    private final MPSequence partitionZoneMapPubSeq;
+    private final RingQueue<PartitionZoneMapTask> partitionZoneMapQueue;
+    private final SCSequence partitionZoneMapSubSeq;
     private final MPSequence queryCacheEventPubSeq;
     private final FanOut queryCacheEventSubSeq;
     private final MPSequence tableWriterEventPubSeq;
@@ -81,6 +87,9 @@ public class MessageBusImpl implements MessageBus {
     private final MPSequence vectorAggregatePubSeq;
     private final RingQueue<VectorAggregateTask> vectorAggregateQueue;
     private final MCSequence vectorAggregateSubSeq;
+    private final MPSequence walSegmentCompressionPubSeq;
+    private final RingQueue<WalSegmentCompressionTask> walSegmentCompressionQueue;
+    private final SCSequence walSegmentCompressionSubSeq;
     private final Sequence walTxnNotificationPubSequence;
     private final RingQueue<WalTxnNotificationTask> walTxnNotificationQueue;
     private final Sequence walTxnNotificationSubSequence;
@@ -188,6 +197,21 @@ public class MessageBusImpl implements MessageBus {
         walTxnNotificationPubSequence = new MPSequence(walTxnNotificationQueue.getCycle());
         walTxnNotificationSubSequence = new MCSequence(walTxnNotificationQueue.getCycle());
         walTxnNotificationPubSequence.then(walTxnNotificationSubSequence).then(walTxnNotificationPubSequence);
+
+        this.partitionCompressionQueue = new RingQueue<>(PartitionCompressionTask::new, configuration.getPartitionCompressionQueueCapacity());
+        this.partitionCompressionPubSeq = new MPSequence(partitionCompressionQueue.getCycle());
+        this.partitionCompressionSubSeq = new SCSequence();
+        partitionCompressionPubSeq.then(partitionCompressionSubSeq).then(partitionCompressionPubSeq);
+
+        this.partitionZoneMapQueue = new RingQueue<>(PartitionZoneMapTask::new, configuration.getPartitionZoneMapQueueCapacity());
+        this.partitionZoneMapPubSeq = new MPSequence(partitionZoneMapQueue.getCycle());
+        this.partitionZoneMapSubSeq = new SCSequence();
+        partitionZoneMapPubSeq.then(partitionZoneMapSubSeq).then(partitionZoneMapPubSeq);
+
+        this.walSegmentCompressionQueue = new RingQueue<>(WalSegmentCompressionTask::new, configuration.getWalSegmentCompressionQueueCapacity());
+        this.walSegmentCompressionPubSeq = new MPSequence(walSegmentCompressionQueue.getCycle());
+        this.walSegmentCompressionSubSeq = new SCSequence();
+        walSegmentCompressionPubSeq.then(walSegmentCompressionSubSeq).then(walSegmentCompressionPubSeq);
     }
 
     @Override
@@ -347,6 +371,36 @@ public class MessageBusImpl implements MessageBus {
         return pageFrameReduceSubSeq[shard];
     }
 
+    @Override
+    public Sequence getPartitionCompressionPubSeq() {
+        return partitionCompressionPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionCompressionTask> getPartitionCompressionQueue() {
+        return partitionCompressionQueue;
+    }
+
+    @Override
+    public Sequence getPartitionCompressionSubSeq() {
+        return partitionCompressionSubSeq;
+    }
+
+    @Override
+    public Sequence getPartitionZoneMapPubSeq() {
+        return partitionZoneMapPubSeq;
+    }
+
+    @Override
+    public RingQueue<PartitionZoneMapTask> getPartitionZoneMapQueue() {
+        return partitionZoneMapQueue;
+    }
+
+    @Override
+    public Sequence getPartitionZoneMapSubSeq() {
+        return partitionZoneMapSubSeq;
+    }
+
     @Override
     public FanOut getQueryCacheEventFanOut() {
         return queryCacheEventSubSeq;
@@ -422,6 +476,21 @@ public class MessageBusImpl implements MessageBus {
         return vectorAggregateSubSeq;
     }
 
+    @Override
+    public Sequence getWalSegmentCompressionPubSeq() {
+        return walSegmentCompressionPubSeq;
+    }
+
+    @Override
+    public RingQueue<WalSegmentCompressionTask> getWalSegmentCompressionQueue() {
+        return walSegmentCompressionQueue;
+    }
+
+    @Override
+    public Sequence getWalSegmentCompressionSubSeq() {
+        return walSegmentCompressionSubSeq;
+    }
+
     @Override
     public Sequence getWalTxnNotificationPubSequence() {
         return walTxnNotificationPubSequence;
@@ -440,6 +509,9 @@ public class MessageBusImpl implements MessageBus {
     @TestOnly
     public void reset() {
         clearQueue(walTxnNotificationSubSequence);
+        clearQueue(partitionCompressionSubSeq);
+        clearQueue(partitionZoneMapSubSeq);
+        clearQueue(walSegmentCompressionSubSeq);
     }
 
     private void clearQueue(Sequence subSequence) {
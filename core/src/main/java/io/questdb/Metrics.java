@@ -24,9 +24,11 @@
 
 package io.questdb;
 
+import io.questdb.cairo.SpillFile;
 import io.questdb.cairo.TableWriterMetrics;
 import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
+import io.questdb.cutlass.line.tcp.LineTcpMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
@@ -39,6 +41,7 @@ public class Metrics implements Scrapable {
     private final GCMetrics gcMetrics;
     private final HealthMetricsImpl healthCheck;
     private final JsonQueryMetrics jsonQuery;
+    private final LineTcpMetrics lineTcp;
     private final MetricsRegistry metricsRegistry;
     private final PGWireMetrics pgWire;
     private final Runtime runtime = Runtime.getRuntime();
@@ -53,6 +56,7 @@ public class Metrics implements Scrapable {
         this.gcMetrics = new GCMetrics();
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
+        this.lineTcp = new LineTcpMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         this.walMetrics = new WalMetrics(metricsRegistry);
@@ -84,6 +88,10 @@ public class Metrics implements Scrapable {
         return jsonQuery;
     }
 
+    public LineTcpMetrics lineTcp() {
+        return lineTcp;
+    }
+
     public PGWireMetrics pgWire() {
         return pgWire;
     }
@@ -113,5 +121,6 @@ public class Metrics implements Scrapable {
         metricsRegistry.newVirtualGauge("memory_jvm_free", jvmFreeMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_total", jvmTotalMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_max", jvmMaxMemRef);
+        metricsRegistry.newVirtualCounter("query_spilled_bytes", SpillFile::getSpilledBytesTotal);
     }
 }
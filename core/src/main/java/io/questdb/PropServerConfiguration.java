@@ -133,6 +133,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean ioURingEnabled;
     private final boolean isReadOnlyInstance;
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
+    private final boolean latestByMaterializationEnabled;
     private final int latestByQueueCapacity;
     private final boolean lineTcpEnabled;
     private final WorkerPoolConfiguration lineTcpIOWorkerPoolConfiguration = new PropLineTcpIOWorkerPoolConfiguration();
@@ -146,6 +147,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int lineUdpMsgBufferSize;
     private final int lineUdpMsgCount;
     private final boolean lineUdpOwnThread;
+    private final boolean lineUdpParallelEnabled;
     private final int lineUdpOwnThreadAffinity;
     private final int lineUdpReceiveBufferSize;
     private final LineUdpReceiverConfiguration lineUdpReceiverConfiguration = new PropLineUdpReceiverConfiguration();
@@ -162,12 +164,18 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int mkdirMode;
     private final int o3CallbackQueueCapacity;
     private final int o3ColumnMemorySize;
+    private final long o3CopyPartSize;
     private final int o3CopyQueueCapacity;
     private final int o3LagCalculationWindowsSize;
     private final long o3MaxLag;
     private final long o3MinLagUs;
     private final int o3OpenColumnQueueCapacity;
     private final int o3PartitionPurgeListCapacity;
+    private final boolean partitionBloomFilterEnabled;
+    private final boolean partitionCompressionEnabled;
+    private final int partitionCompressionQueueCapacity;
+    private final boolean partitionZoneMapEnabled;
+    private final int partitionZoneMapQueueCapacity;
     private final int o3PartitionQueueCapacity;
     private final int o3PurgeDiscoveryQueueCapacity;
     private final boolean o3QuickSortEnabled;
@@ -249,8 +257,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final int sqlPageFramePrefetchBufferCount;
+    private final int sqlPageFramePrefetchBufferSize;
+    private final int sqlPageFramePrefetchFrames;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelOrderByEnabled;
     private final int sqlRenameTableModelPoolCapacity;
     private final int sqlSmallMapKeyCapacity;
     private final int sqlSmallMapPageSize;
@@ -260,6 +273,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlSortLightValuePageSize;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
+    private final String sqlSpillRoot;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
     private final int sqlWithClauseModelPoolCapacity;
@@ -274,6 +288,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final TextConfiguration textConfiguration = new PropTextConfiguration();
     private final int vectorAggregateQueueCapacity;
     private final VolumeDefinitions volumeDefinitions = new VolumeDefinitions();
+    private final long walApplyLagHardTxnCount;
+    private final long walApplyLagSoftTxnCount;
     private final int walApplyLookAheadTransactionCount;
     private final WorkerPoolConfiguration walApplyPoolConfiguration = new PropWalApplyPoolConfiguration();
     private final long walApplySleepTimeout;
@@ -286,6 +302,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean walEnabledDefault;
     private final long walPurgeInterval;
     private final int walRecreateDistressedSequencerAttempts;
+    private final boolean walSegmentCompressionEnabled;
+    private final int walSegmentCompressionQueueCapacity;
     private final long walSegmentRolloverRowCount;
     private final boolean walSupported;
     private final int walTxnNotificationQueueCapacity;
@@ -350,6 +368,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private String lineTcpAuthDbPath;
     private long lineTcpCommitIntervalDefault;
     private double lineTcpCommitIntervalFraction;
+    private int lineTcpBinaryDictionaryMaxSize;
     private int lineTcpConnectionPoolInitialCapacity;
     private int lineTcpDefaultPartitionBy;
     private boolean lineTcpDisconnectOnError;
@@ -468,8 +487,12 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.walSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, true);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
+        this.walSegmentCompressionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_COMPRESSION_ENABLED, false);
+        this.walSegmentCompressionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_COMPRESSION_QUEUE_CAPACITY, 64);
         this.walCommitSquashRowLimit = getInt(properties, env, PropertyKey.CAIRO_WAL_COMMIT_SQUASH_ROW_LIMIT, 512 * 1024);
         this.walApplyLookAheadTransactionCount = getInt(properties, env, PropertyKey.CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT, 20);
+        this.walApplyLagSoftTxnCount = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_LAG_SOFT_TXN_COUNT, 10_000);
+        this.walApplyLagHardTxnCount = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_LAG_HARD_TXN_COUNT, 100_000);
         this.tableTypeConversionEnabled = getBoolean(properties, env, PropertyKey.TABLE_TYPE_CONVERSION_ENABLED, true);
 
         this.dbDirectory = getString(properties, env, PropertyKey.CAIRO_ROOT, DB_DIRECTORY);
@@ -808,6 +831,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, false);
+            this.sqlParallelOrderByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_ORDERBY_ENABLED, false);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -833,6 +858,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, 0.5);
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlPageFramePrefetchFrames = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES, 0);
+            this.sqlPageFramePrefetchBufferCount = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_COUNT, 16);
+            this.sqlPageFramePrefetchBufferSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_SIZE, 1024 * 1024);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -880,6 +908,14 @@ public class PropServerConfiguration implements ServerConfiguration {
                 throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_COPY_WORK_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
             }
 
+            this.sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, null);
+            if (pathEquals(root, this.sqlSpillRoot) ||
+                    pathEquals(this.root, this.sqlSpillRoot) ||
+                    pathEquals(this.confRoot, this.sqlSpillRoot) ||
+                    pathEquals(this.snapshotRoot, this.sqlSpillRoot)) {
+                throw new ServerConfigurationException("Configuration value for " + PropertyKey.CAIRO_SQL_SPILL_ROOT.getPropertyPath() + " can't point to root, data, conf or snapshot dirs. ");
+            }
+
             this.cairoSqlCopyMaxIndexChunkSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_COPY_MAX_INDEX_CHUNK_SIZE, 100 * Numbers.SIZE_1MB);
             this.cairoSqlCopyMaxIndexChunkSize -= (cairoSqlCopyMaxIndexChunkSize % CsvFileIndexer.INDEX_ENTRY_SIZE);
             if (this.cairoSqlCopyMaxIndexChunkSize < 16) {
@@ -900,6 +936,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.o3PartitionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_PARTITION_QUEUE_CAPACITY, 128);
             this.o3OpenColumnQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_OPEN_COLUMN_QUEUE_CAPACITY, 128);
             this.o3CopyQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_O3_COPY_QUEUE_CAPACITY, 128);
+            this.o3CopyPartSize = getLongSize(properties, env, PropertyKey.CAIRO_O3_COPY_PART_SIZE, 16 * Numbers.SIZE_1MB);
             this.o3LagCalculationWindowsSize = getIntSize(properties, env, PropertyKey.CAIRO_O3_LAG_CALCULATION_WINDOW_SIZE, 4);
             this.o3PurgeDiscoveryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY, 128));
             this.o3ColumnMemorySize = (int) Files.ceilPageSize(getIntSize(properties, env, PropertyKey.CAIRO_O3_COLUMN_MEMORY_SIZE, 8 * Numbers.SIZE_1MB));
@@ -925,6 +962,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.telemetryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.TELEMETRY_QUEUE_CAPACITY, 512));
             this.telemetryHideTables = getBoolean(properties, env, PropertyKey.TELEMETRY_HIDE_TABLES, true);
             this.o3PartitionPurgeListCapacity = getInt(properties, env, PropertyKey.CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY, 1);
+            this.latestByMaterializationEnabled = getBoolean(properties, env, PropertyKey.CAIRO_LATEST_BY_MATERIALIZATION_ENABLED, false);
+            this.partitionBloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_BLOOM_FILTER_ENABLED, false);
+            this.partitionCompressionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_ENABLED, false);
+            this.partitionCompressionQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_QUEUE_CAPACITY, 64);
+            this.partitionZoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAP_ENABLED, false);
+            this.partitionZoneMapQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_PARTITION_ZONE_MAP_QUEUE_CAPACITY, 64);
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
 
@@ -942,6 +985,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.lineUdpOwnThreadAffinity = getInt(properties, env, PropertyKey.LINE_UDP_OWN_THREAD_AFFINITY, -1);
             this.lineUdpOwnThread = getBoolean(properties, env, PropertyKey.LINE_UDP_OWN_THREAD, false);
             this.lineUdpUnicast = getBoolean(properties, env, PropertyKey.LINE_UDP_UNICAST, false);
+            this.lineUdpParallelEnabled = getBoolean(properties, env, PropertyKey.LINE_UDP_PARALLEL_ENABLED, false);
             this.lineUdpCommitMode = getCommitMode(properties, env, PropertyKey.LINE_UDP_COMMIT_MODE);
             this.lineUdpTimestampAdapter = getLineTimestampAdaptor(properties, env, PropertyKey.LINE_UDP_TIMESTAMP);
             String defaultUdpPartitionByProperty = getString(properties, env, PropertyKey.LINE_DEFAULT_PARTITION_BY, "DAY");
@@ -982,6 +1026,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                     throw new IllegalArgumentException(
                             PropertyKey.LINE_TCP_MAX_MEASUREMENT_SIZE.getPropertyPath() + " (" + this.lineTcpMaxMeasurementSize + ") cannot be more than line.tcp.msg.buffer.size (" + this.lineTcpMsgBufferSize + ")");
                 }
+                this.lineTcpBinaryDictionaryMaxSize = getIntSize(properties, env, PropertyKey.LINE_TCP_BINARY_DICTIONARY_MAX_SIZE, LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE);
                 this.lineTcpWriterQueueCapacity = getQueueCapacity(properties, env, PropertyKey.LINE_TCP_WRITER_QUEUE_CAPACITY, 128);
                 this.lineTcpWriterWorkerCount = getInt(properties, env, PropertyKey.LINE_TCP_WRITER_WORKER_COUNT, 1);
                 cpuUsed += this.lineTcpWriterWorkerCount;
@@ -1803,6 +1848,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return o3ColumnMemorySize;
         }
 
+        @Override
+        public long getO3CopyPartSize() {
+            return o3CopyPartSize;
+        }
+
         @Override
         public int getO3CopyQueueCapacity() {
             return o3CopyQueueCapacity;
@@ -1863,11 +1913,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public int getPartitionCompressionQueueCapacity() {
+            return partitionCompressionQueueCapacity;
+        }
+
         @Override
         public int getPartitionPurgeListCapacity() {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public int getPartitionZoneMapQueueCapacity() {
+            return partitionZoneMapQueueCapacity;
+        }
+
         @Override
         public int getQueryCacheEventQueueCapacity() {
             return queryCacheEventQueueCapacity;
@@ -2143,6 +2203,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlPageFramePrefetchBufferCount() {
+            return sqlPageFramePrefetchBufferCount;
+        }
+
+        @Override
+        public int getSqlPageFramePrefetchBufferSize() {
+            return sqlPageFramePrefetchBufferSize;
+        }
+
+        @Override
+        public int getSqlPageFramePrefetchFrames() {
+            return sqlPageFramePrefetchFrames;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2183,6 +2258,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getStrFunctionMaxBufferLength() {
             return sqlStrFunctionBufferMaxSize;
@@ -2227,6 +2307,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return volumeDefinitions;
         }
 
+        @Override
+        public long getWalApplyLagHardTxnCount() {
+            return walApplyLagHardTxnCount;
+        }
+
+        @Override
+        public long getWalApplyLagSoftTxnCount() {
+            return walApplyLagSoftTxnCount;
+        }
+
         @Override
         public int getWalApplyLookAheadTransactionCount() {
             return walApplyLookAheadTransactionCount;
@@ -2252,6 +2342,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walRecreateDistressedSequencerAttempts;
         }
 
+        @Override
+        public int getWalSegmentCompressionQueueCapacity() {
+            return walSegmentCompressionQueueCapacity;
+        }
+
         @Override
         public long getWalSegmentRolloverRowCount() {
             return walSegmentRolloverRowCount;
@@ -2307,6 +2402,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return ioURingEnabled;
         }
 
+        @Override
+        public boolean isLatestByMaterializationEnabled() {
+            return latestByMaterializationEnabled;
+        }
+
         @Override
         public boolean isO3QuickSortEnabled() {
             return o3QuickSortEnabled;
@@ -2317,6 +2417,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionBloomFilterEnabled() {
+            return partitionBloomFilterEnabled;
+        }
+
+        @Override
+        public boolean isPartitionCompressionEnabled() {
+            return partitionCompressionEnabled;
+        }
+
+        @Override
+        public boolean isPartitionZoneMapEnabled() {
+            return partitionZoneMapEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
@@ -2342,11 +2457,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelFilterPreTouchEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelOrderByEnabled() {
+            return sqlParallelOrderByEnabled;
+        }
+
         @Override
         public boolean isTableTypeConversionEnabled() {
             return tableTypeConversionEnabled;
         }
 
+        @Override
+        public boolean isWalSegmentCompressionEnabled() {
+            return walSegmentCompressionEnabled;
+        }
+
         public boolean isWalSupported() {
             return walSupported;
         }
@@ -2679,6 +2809,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryProcessorConfiguration;
         }
 
+        @Override
+        public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+            return lineTcpReceiverConfiguration;
+        }
+
         @Override
         public String getPoolName() {
             return "http";
@@ -2832,6 +2967,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return ilpAutoCreateNewTables;
         }
 
+        @Override
+        public int getBinaryDictionaryMaxSize() {
+            return lineTcpBinaryDictionaryMaxSize;
+        }
+
         @Override
         public CairoSecurityContext getCairoSecurityContext() {
             return AllowAllCairoSecurityContext.INSTANCE;
@@ -3186,6 +3326,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineUdpEnabled;
         }
 
+        @Override
+        public boolean isParallelEnabled() {
+            return lineUdpParallelEnabled;
+        }
+
         @Override
         public boolean isUnicast() {
             return lineUdpUnicast;
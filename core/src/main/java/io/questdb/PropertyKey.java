@@ -76,6 +76,7 @@ public enum PropertyKey {
     CAIRO_SQL_SORT_KEY_MAX_PAGES("cairo.sql.sort.key.max.pages"),
     CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE("cairo.sql.sort.light.value.page.size"),
     CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES("cairo.sql.sort.light.value.max.pages"),
+    CAIRO_SQL_SPILL_ROOT("cairo.sql.spill.root"),
     CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE("cairo.sql.hash.join.value.page.size"),
     CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES("cairo.sql.hash.join.value.max.pages"),
     CAIRO_SQL_LATEST_BY_ROW_COUNT("cairo.sql.latest.by.row.count"),
@@ -90,6 +91,8 @@ public enum PropertyKey {
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
+    CAIRO_SQL_PARALLEL_ORDERBY_ENABLED("cairo.sql.parallel.orderby.enabled"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -117,6 +120,9 @@ public enum PropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_FRAMES("cairo.sql.page.frame.prefetch.frames"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_COUNT("cairo.sql.page.frame.prefetch.buffer.count"),
+    CAIRO_SQL_PAGE_FRAME_PREFETCH_BUFFER_SIZE("cairo.sql.page.frame.prefetch.buffer.size"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -146,6 +152,7 @@ public enum PropertyKey {
     CAIRO_O3_PARTITION_QUEUE_CAPACITY("cairo.o3.partition.queue.capacity"),
     CAIRO_O3_OPEN_COLUMN_QUEUE_CAPACITY("cairo.o3.open.column.queue.capacity"),
     CAIRO_O3_COPY_QUEUE_CAPACITY("cairo.o3.copy.queue.capacity"),
+    CAIRO_O3_COPY_PART_SIZE("cairo.o3.copy.part.size"),
     CAIRO_O3_LAG_CALCULATION_WINDOW_SIZE("cairo.o3.lag.calculation.windows.size"),
     CAIRO_O3_UPD_PARTITION_SIZE_QUEUE_CAPACITY("cairo.o3.upd.partition.size.queue.capacity"),
     CAIRO_O3_PURGE_DISCOVERY_QUEUE_CAPACITY("cairo.o3.purge.discovery.queue.capacity"),
@@ -166,7 +173,13 @@ public enum PropertyKey {
     CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES("cairo.sql.analytic.tree.max.pages"),
     CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT("cairo.o3.txn.scoreboard.entry.count"),
     CAIRO_LATESTBY_QUEUE_CAPACITY("cairo.latestby.queue.capacity"),
+    CAIRO_LATEST_BY_MATERIALIZATION_ENABLED("cairo.latest.by.materialization.enabled"),
     CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY("cairo.o3.partition.purge.list.initial.capacity"),
+    CAIRO_PARTITION_BLOOM_FILTER_ENABLED("cairo.partition.bloom.filter.enabled"),
+    CAIRO_PARTITION_COMPRESSION_ENABLED("cairo.partition.compression.enabled"),
+    CAIRO_PARTITION_COMPRESSION_QUEUE_CAPACITY("cairo.partition.compression.queue.capacity"),
+    CAIRO_PARTITION_ZONE_MAP_ENABLED("cairo.partition.zone.map.enabled"),
+    CAIRO_PARTITION_ZONE_MAP_QUEUE_CAPACITY("cairo.partition.zone.map.queue.capacity"),
     CAIRO_O3_ENABLED("cairo.o3.enabled"),
     CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY("cairo.query.cache.event.queue.capacity"),
     CAIRO_IO_URING_ENABLED("cairo.iouring.enabled"),
@@ -264,6 +277,7 @@ public enum PropertyKey {
     LINE_UDP_OWN_THREAD_AFFINITY("line.udp.own.thread.affinity"),
     LINE_UDP_OWN_THREAD("line.udp.own.thread"),
     LINE_UDP_UNICAST("line.udp.unicast"),
+    LINE_UDP_PARALLEL_ENABLED("line.udp.parallel.enabled"),
     LINE_UDP_COMMIT_MODE("line.udp.commit.mode"),
     LINE_UDP_TIMESTAMP("line.udp.timestamp"),
     LINE_TCP_ENABLED("line.tcp.enabled"),
@@ -282,6 +296,7 @@ public enum PropertyKey {
     LINE_TCP_TIMESTAMP("line.tcp.timestamp"),
     LINE_TCP_MSG_BUFFER_SIZE("line.tcp.msg.buffer.size"),
     LINE_TCP_MAX_MEASUREMENT_SIZE("line.tcp.max.measurement.size"),
+    LINE_TCP_BINARY_DICTIONARY_MAX_SIZE("line.tcp.binary.dictionary.max.size"),
     LINE_TCP_WRITER_QUEUE_CAPACITY("line.tcp.writer.queue.capacity"),
     LINE_TCP_WRITER_WORKER_COUNT("line.tcp.writer.worker.count"),
     LINE_TCP_WRITER_WORKER_AFFINITY("line.tcp.writer.worker.affinity"),
@@ -380,6 +395,8 @@ public enum PropertyKey {
     CAIRO_WAL_ENABLED_DEFAULT("cairo.wal.enabled.default"),
     CAIRO_WAL_PURGE_INTERVAL("cairo.wal.purge.interval"),
     CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT("cairo.wal.segment.rollover.row.count"),
+    CAIRO_WAL_SEGMENT_COMPRESSION_ENABLED("cairo.wal.segment.compression.enabled"),
+    CAIRO_WAL_SEGMENT_COMPRESSION_QUEUE_CAPACITY("cairo.wal.segment.compression.queue.capacity"),
     WAL_APPLY_WORKER_COUNT("wal.apply.worker.count"),
     WAL_APPLY_WORKER_AFFINITY("wal.apply.worker.affinity"),
     WAL_APPLY_WORKER_HALT_ON_ERROR("wal.apply.worker.haltOnError"),
@@ -393,6 +410,8 @@ public enum PropertyKey {
     CAIRO_WAL_INACTIVE_WRITER_TTL("cairo.wal.inactive.writer.ttl"),
     CAIRO_WAL_COMMIT_SQUASH_ROW_LIMIT("cairo.wal.commit.squash.row.limit"),
     CAIRO_WAL_APPLY_LOOK_AHEAD_TXN_COUNT("cairo.wal.apply.look.ahead.txn.count"),
+    CAIRO_WAL_APPLY_LAG_SOFT_TXN_COUNT("cairo.wal.apply.lag.soft.txn.count"),
+    CAIRO_WAL_APPLY_LAG_HARD_TXN_COUNT("cairo.wal.apply.lag.hard.txn.count"),
     READ_ONLY_INSTANCE("readonly"),
     CAIRO_TABLE_REGISTRY_AUTO_RELOAD_FREQUENCY("cairo.table.registry.auto.reload.frequency"),
     CAIRO_TABLE_REGISTRY_COMPACTION_THRESHOLD("cairo.table.registry.compaction.threshold");
@@ -28,9 +28,12 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
 import io.questdb.cairo.O3Utils;
+import io.questdb.cairo.PartitionCompressionJob;
+import io.questdb.cairo.PartitionZoneMapJob;
 import io.questdb.cairo.wal.ApplyWal2TableJob;
 import io.questdb.cairo.wal.CheckWalTransactionsJob;
 import io.questdb.cairo.wal.WalPurgeJob;
+import io.questdb.cairo.wal.WalSegmentCompressionJob;
 import io.questdb.cutlass.Services;
 import io.questdb.cutlass.text.TextImportJob;
 import io.questdb.cutlass.text.TextImportRequestJob;
@@ -111,6 +114,14 @@ public class ServerMain implements Closeable {
                                 ffCache
                         );
 
+                        if (cairoConfig.isPartitionCompressionEnabled()) {
+                            sharedPool.assign(new PartitionCompressionJob(engine));
+                        }
+
+                        if (cairoConfig.isPartitionZoneMapEnabled() || cairoConfig.isPartitionBloomFilterEnabled()) {
+                            sharedPool.assign(new PartitionZoneMapJob(engine));
+                        }
+
                         if (walSupported) {
                             sharedPool.assign(new CheckWalTransactionsJob(engine));
                             final WalPurgeJob walPurgeJob = new WalPurgeJob(engine);
@@ -119,6 +130,12 @@ public class ServerMain implements Closeable {
                             sharedPool.assign(walPurgeJob);
                             sharedPool.freeOnExit(walPurgeJob);
 
+                            if (cairoConfig.isWalSegmentCompressionEnabled()) {
+                                final WalSegmentCompressionJob walSegmentCompressionJob = new WalSegmentCompressionJob(engine);
+                                sharedPool.assign(walSegmentCompressionJob);
+                                sharedPool.freeOnExit(walSegmentCompressionJob);
+                            }
+
                             if (!config.getWalApplyPoolConfiguration().isEnabled()) {
                                 setupWalApplyJob(sharedPool, engine, getSharedWorkerCount(), ffCache);
                             }
@@ -159,6 +176,11 @@ public class ServerMain implements Closeable {
                     WorkerPoolManager.Requester.WAL_APPLY
             );
             setupWalApplyJob(walApplyWorkerPool, engine, workerPoolManager.getSharedWorkerCount(), ffCache);
+            // WAL apply of a single table runs on one worker, let the rest of the pool
+            // merge partitions and copy columns for it; the shared pool has O3 jobs already
+            if (walApplyWorkerPool != workerPoolManager.getSharedPool()) {
+                O3Utils.setupO3CopyJobs(walApplyWorkerPool, engine.getMessageBus());
+            }
         }
 
         // http
@@ -193,6 +215,7 @@ public class ServerMain implements Closeable {
             // ilp/tcp
             freeOnExit(Services.createLineTcpReceiver(
                     config.getLineTcpReceiverConfiguration(),
+                    config.getLineUdpReceiverConfiguration(),
                     engine,
                     workerPoolManager,
                     metrics
@@ -201,6 +224,7 @@ public class ServerMain implements Closeable {
             // ilp/udp
             freeOnExit(Services.createLineUdpReceiver(
                     config.getLineUdpReceiverConfiguration(),
+                    config.getLineTcpReceiverConfiguration(),
                     engine,
                     workerPoolManager
             ));
@@ -191,6 +191,15 @@ public interface CairoConfiguration {
 
     int getO3ColumnMemorySize();
 
+    /**
+     * Appends of fixed-size columns larger than this size are split into parts of this size, which are
+     * copied concurrently by O3 copy jobs. Parts let the workers share the copy of a single large commit,
+     * e.g. the apply of a batch of WAL transactions of one table.
+     *
+     * @return size of an append copy part in bytes
+     */
+    long getO3CopyPartSize();
+
     int getO3CopyQueueCapacity();
 
     default double getO3LagDecreaseFactor() {
@@ -236,8 +245,12 @@ public interface CairoConfiguration {
 
     int getParallelIndexThreshold();
 
+    int getPartitionCompressionQueueCapacity();
+
     int getPartitionPurgeListCapacity();
 
+    int getPartitionZoneMapQueueCapacity();
+
     int getQueryCacheEventQueueCapacity();
 
     default Rnd getRandom() {
@@ -376,6 +389,21 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    /**
+     * Number of buffers io_uring reads page frame column files into, when
+     * prefetch is enabled. It limits the number of reads in flight.
+     */
+    int getSqlPageFramePrefetchBufferCount();
+
+    int getSqlPageFramePrefetchBufferSize();
+
+    /**
+     * Number of page frames, ahead of the frame being processed, to read column files
+     * of via io_uring so that they are in page cache by the time workers access them.
+     * Zero disables the prefetch.
+     */
+    int getSqlPageFramePrefetchFrames();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSmallMapPageSize();
@@ -392,6 +420,14 @@ public interface CairoConfiguration {
 
     int getSqlSortValuePageSize();
 
+    /**
+     * Directory for temporary files of maps, record chains and sort trees that reach their
+     * in-memory limits. When null, such queries fail with a resource limit error instead.
+     *
+     * @return spill directory or null when spilling to disk is disabled
+     */
+    CharSequence getSqlSpillRoot();
+
     int getStrFunctionMaxBufferLength();
 
     CharSequence getSystemTableNamePrefix();
@@ -410,6 +446,20 @@ public interface CairoConfiguration {
 
     VolumeDefinitions getVolumeDefinitions();
 
+    /**
+     * Number of sequencer transactions not yet applied to the table, at or above which
+     * WAL apply stops accepting new data for the table. ILP connections stop reading and
+     * SQL inserts fail until the lag falls. Zero disables the limit.
+     */
+    long getWalApplyLagHardTxnCount();
+
+    /**
+     * Number of sequencer transactions not yet applied to the table, at or above which
+     * the apply job serves the table ahead of notification order and ILP connections
+     * writing to it slow down their reads. Zero disables lag-aware scheduling and throttling.
+     */
+    long getWalApplyLagSoftTxnCount();
+
     int getWalApplyLookAheadTransactionCount();
 
     int getWalCommitSquashRowLimit();
@@ -420,6 +470,8 @@ public interface CairoConfiguration {
 
     int getWalRecreateDistressedSequencerAttempts();
 
+    int getWalSegmentCompressionQueueCapacity();
+
     long getWalSegmentRolloverRowCount();
 
     int getWalTxnNotificationQueueCapacity();
@@ -442,10 +494,39 @@ public interface CairoConfiguration {
 
     boolean isIOURingEnabled();
 
+    /**
+     * When enabled, table writer maintains the latest row of every distinct tuple of the table's SYMBOL
+     * column values and stores it next to the table metadata. LATEST ON queries without filters, which
+     * partition by SYMBOL columns only, read the stored rows instead of scanning the table backwards.
+     *
+     * @return true when latest rows are maintained by the writer and used by queries
+     */
+    boolean isLatestByMaterializationEnabled();
+
     boolean isO3QuickSortEnabled();
 
     boolean isParallelIndexingEnabled();
 
+    /**
+     * When enabled, table writer stores a Bloom filter of the values of each LONG, UUID, LONG256 and STRING
+     * column listed in BLOOM FILTER clause of CREATE TABLE, for the partitions that are no longer active.
+     * Equality filters on such columns skip partitions whose Bloom filter proves the value absent.
+     *
+     * @return true when partition Bloom filters are written and used by queries
+     */
+    boolean isPartitionBloomFilterEnabled();
+
+    boolean isPartitionCompressionEnabled();
+
+    /**
+     * When enabled, table writer stores min/max statistics of numeric, timestamp and symbol columns
+     * of each partition that is no longer active. Filters that can be proven false by the statistics
+     * skip such partitions without reading them.
+     *
+     * @return true when partition zone maps are written and used by queries
+     */
+    boolean isPartitionZoneMapEnabled();
+
     boolean isReadOnlyInstance();
 
     /**
@@ -461,8 +542,20 @@ public interface CairoConfiguration {
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelOrderByEnabled();
+
     boolean isTableTypeConversionEnabled();
 
+    /**
+     * When enabled, WAL writers compress fixed-size columns of WAL segments once the segment is
+     * rolled over or the writer is closed. WAL apply decodes only the rows of transactions it applies.
+     *
+     * @return true when sealed WAL segments are compressed
+     */
+    boolean isWalSegmentCompressionEnabled();
+
     boolean isWalSupported();
 
     /**
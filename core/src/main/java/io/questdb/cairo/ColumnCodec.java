@@ -0,0 +1,496 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMA;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+
+/**
+ * Lightweight codecs for fixed-size column files of partitions that are no longer
+ * written to and of sealed WAL segments. Values are encoded in independent blocks of
+ * {@link #BLOCK_ROW_COUNT} rows, so that any range of rows can be decoded without
+ * decoding rows before it. Compressed file layout is:
+ * <pre>
+ * | codec (int) | column type (int) | row count (long) | block row count (long) | blocks ... | block offsets (long[]) |
+ * </pre>
+ * Each block is a little-endian bit stream:
+ * <ul>
+ *     <li>TIMESTAMP - delta-of-delta with variable length zig-zag buckets</li>
+ *     <li>SHORT, INT, SYMBOL, LONG, DATE - frame of reference bit-packing in runs of {@link #FOR_BLOCK_SIZE} values</li>
+ *     <li>DOUBLE - Gorilla-style XOR of consecutive values</li>
+ * </ul>
+ * Other column types are left as is.
+ * <p>
+ * The designated timestamp of a WAL segment is stored as (timestamp, row index) pairs. Its timestamps
+ * are delta-of-delta encoded and row indexes are restored from the position of the row in the segment.
+ */
+public final class ColumnCodec {
+    public static final int BLOCK_ROW_COUNT = 4096;
+    public static final int CODEC_DELTA_OF_DELTA = 1;
+    public static final int CODEC_FRAME_OF_REFERENCE = 2;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_TIMESTAMP_INDEX = 4;
+    public static final int CODEC_XOR = 3;
+    public static final int FOR_BLOCK_SIZE = 256;
+    public static final int HEADER_OFFSET_BLOCK_ROW_COUNT = 16;
+    public static final int HEADER_OFFSET_CODEC = 0;
+    public static final int HEADER_OFFSET_COLUMN_TYPE = 4;
+    public static final int HEADER_OFFSET_ROW_COUNT = 8;
+    public static final int HEADER_SIZE = 24;
+    // first block follows the header and delta-of-delta stream starts with the first value,
+    // which makes it cheap to read min timestamp of a compressed partition
+    public static final long DOD_FIRST_VALUE_OFFSET = HEADER_SIZE;
+
+    private ColumnCodec() {
+    }
+
+    public static int getCodec(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.TIMESTAMP:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+                return CODEC_FRAME_OF_REFERENCE;
+            case ColumnType.DOUBLE:
+                return CODEC_XOR;
+            default:
+                return CODEC_NONE;
+        }
+    }
+
+    public static long getBlockCount(long compressedAddr) {
+        final long blockRowCount = getBlockRowCount(compressedAddr);
+        return (getRowCount(compressedAddr) + blockRowCount - 1) / blockRowCount;
+    }
+
+    public static long getBlockRowCount(long compressedAddr) {
+        return Unsafe.getUnsafe().getLong(compressedAddr + HEADER_OFFSET_BLOCK_ROW_COUNT);
+    }
+
+    public static long getDecodedSize(long compressedAddr) {
+        return getRowCount(compressedAddr) * getValueSize(compressedAddr);
+    }
+
+    public static long getRowCount(long compressedAddr) {
+        return Unsafe.getUnsafe().getLong(compressedAddr + HEADER_OFFSET_ROW_COUNT);
+    }
+
+    public static int getValueSize(long compressedAddr) {
+        if (Unsafe.getUnsafe().getInt(compressedAddr + HEADER_OFFSET_CODEC) == CODEC_TIMESTAMP_INDEX) {
+            return 2 * Long.BYTES;
+        }
+        return ColumnType.sizeOf(Unsafe.getUnsafe().getInt(compressedAddr + HEADER_OFFSET_COLUMN_TYPE));
+    }
+
+    private static long readValue(long addr, int valueSize) {
+        switch (valueSize) {
+            case Short.BYTES:
+                return Unsafe.getUnsafe().getShort(addr);
+            case Integer.BYTES:
+                return Unsafe.getUnsafe().getInt(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr);
+        }
+    }
+
+    private static void writeValue(long addr, int valueSize, long value) {
+        switch (valueSize) {
+            case Short.BYTES:
+                Unsafe.getUnsafe().putShort(addr, (short) value);
+                break;
+            case Integer.BYTES:
+                Unsafe.getUnsafe().putInt(addr, (int) value);
+                break;
+            default:
+                Unsafe.getUnsafe().putLong(addr, value);
+                break;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static class Decoder {
+        private long addr;
+        private int bitPos;
+        private long lim;
+        private long word;
+
+        /**
+         * Decodes a range of blocks of a compressed column.
+         *
+         * @param srcAddr address of the compressed file content, including header
+         * @param srcSize size of the compressed file
+         * @param blockLo index of the first block to decode
+         * @param blockHi index of the last block to decode, exclusive
+         * @param dstAddr destination address, first row of blockLo is written to this address
+         */
+        public void decode(long srcAddr, long srcSize, long blockLo, long blockHi, long dstAddr) {
+            if (srcSize < HEADER_SIZE) {
+                throw CairoException.critical(0).put("compressed column is too short [size=").put(srcSize).put(']');
+            }
+            final int codec = Unsafe.getUnsafe().getInt(srcAddr + HEADER_OFFSET_CODEC);
+            final long rowCount = getRowCount(srcAddr);
+            final long blockRowCount = getBlockRowCount(srcAddr);
+            final int valueSize = getValueSize(srcAddr);
+            final long blockCount = getBlockCount(srcAddr);
+            final long blockOffsetsAddr = srcAddr + srcSize - blockCount * Long.BYTES;
+            if (blockOffsetsAddr < srcAddr + HEADER_SIZE || blockHi > blockCount) {
+                throw CairoException.critical(0).put("compressed column is truncated [size=").put(srcSize)
+                        .put(", blockCount=").put(blockCount)
+                        .put(", blockHi=").put(blockHi)
+                        .put(']');
+            }
+
+            long dst = dstAddr;
+            for (long block = blockLo; block < blockHi; block++) {
+                final long rowLo = block * blockRowCount;
+                final long blockRows = Math.min(blockRowCount, rowCount - rowLo);
+                this.addr = srcAddr + Unsafe.getUnsafe().getLong(blockOffsetsAddr + block * Long.BYTES);
+                this.lim = blockOffsetsAddr;
+                this.bitPos = 64;
+                decodeBlock(codec, dst, blockRows, valueSize);
+                if (codec == CODEC_TIMESTAMP_INDEX) {
+                    for (long i = 0; i < blockRows; i++) {
+                        Unsafe.getUnsafe().putLong(dst + i * valueSize + Long.BYTES, rowLo + i);
+                    }
+                }
+                dst += blockRows * valueSize;
+            }
+        }
+
+        private void decodeBlock(int codec, long dstAddr, long rowCount, int valueSize) {
+            switch (codec) {
+                case CODEC_DELTA_OF_DELTA:
+                case CODEC_TIMESTAMP_INDEX:
+                    decodeDeltaOfDelta(dstAddr, rowCount, valueSize);
+                    break;
+                case CODEC_FRAME_OF_REFERENCE:
+                    decodeFrameOfReference(dstAddr, rowCount, valueSize);
+                    break;
+                case CODEC_XOR:
+                    decodeXor(dstAddr, rowCount);
+                    break;
+                default:
+                    throw CairoException.critical(0).put("unsupported column codec [codec=").put(codec).put(']');
+            }
+        }
+
+        private void decodeDeltaOfDelta(long dstAddr, long rowCount, int stride) {
+            if (rowCount == 0) {
+                return;
+            }
+            long prev = readBits(64);
+            Unsafe.getUnsafe().putLong(dstAddr, prev);
+            if (rowCount == 1) {
+                return;
+            }
+            long delta = readBits(64);
+            prev += delta;
+            Unsafe.getUnsafe().putLong(dstAddr + stride, prev);
+            for (long i = 2; i < rowCount; i++) {
+                final long dod;
+                if (readBits(1) == 0) {
+                    dod = 0;
+                } else if (readBits(1) == 0) {
+                    dod = unZigZag(readBits(7));
+                } else if (readBits(1) == 0) {
+                    dod = unZigZag(readBits(12));
+                } else if (readBits(1) == 0) {
+                    dod = unZigZag(readBits(20));
+                } else {
+                    dod = unZigZag(readBits(64));
+                }
+                delta += dod;
+                prev += delta;
+                Unsafe.getUnsafe().putLong(dstAddr + i * stride, prev);
+            }
+        }
+
+        private void decodeFrameOfReference(long dstAddr, long rowCount, int valueSize) {
+            final int valueBits = valueSize * 8;
+            for (long lo = 0; lo < rowCount; lo += FOR_BLOCK_SIZE) {
+                final long hi = Math.min(lo + FOR_BLOCK_SIZE, rowCount);
+                final long min = signExtend(readBits(valueBits), valueBits);
+                final int bits = (int) readBits(7);
+                for (long i = lo; i < hi; i++) {
+                    writeValue(dstAddr + i * valueSize, valueSize, min + readBits(bits));
+                }
+            }
+        }
+
+        private void decodeXor(long dstAddr, long rowCount) {
+            if (rowCount == 0) {
+                return;
+            }
+            long prev = readBits(64);
+            Unsafe.getUnsafe().putLong(dstAddr, prev);
+            int leading = 0;
+            int trailing = 0;
+            for (long i = 1; i < rowCount; i++) {
+                if (readBits(1) != 0) {
+                    if (readBits(1) != 0) {
+                        leading = (int) readBits(6);
+                        final int significant = (int) readBits(6) + 1;
+                        trailing = 64 - leading - significant;
+                    }
+                    prev ^= readBits(64 - leading - trailing) << trailing;
+                }
+                Unsafe.getUnsafe().putLong(dstAddr + i * Long.BYTES, prev);
+            }
+        }
+
+        private long nextWord() {
+            if (addr + Long.BYTES > lim) {
+                throw CairoException.critical(0).put("compressed column is truncated");
+            }
+            final long w = Unsafe.getUnsafe().getLong(addr);
+            addr += Long.BYTES;
+            return w;
+        }
+
+        private long readBits(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            if (bitPos == 64) {
+                word = nextWord();
+                bitPos = 0;
+            }
+            final int available = 64 - bitPos;
+            long result;
+            if (n <= available) {
+                result = word >>> bitPos;
+                bitPos += n;
+            } else {
+                final long low = word >>> bitPos;
+                word = nextWord();
+                result = low | (word << available);
+                bitPos = n - available;
+            }
+            return n < 64 ? result & ((1L << n) - 1) : result;
+        }
+
+        private static long signExtend(long value, int bits) {
+            final int shift = 64 - bits;
+            return (value << shift) >> shift;
+        }
+    }
+
+    public static class Encoder implements Closeable {
+        private final LongList blockOffsets = new LongList();
+        private final MemoryMA mem = Vm.getMAInstance();
+        private long bitBuf;
+        private int bitCount;
+
+        @Override
+        public void close() {
+            mem.close(false);
+        }
+
+        /**
+         * Writes compressed copy of the column to the given path. Values are
+         * encoded in blocks of {@link #BLOCK_ROW_COUNT} rows.
+         *
+         * @param ff                  files facade
+         * @param path                path of the compressed file, the file is truncated if it exists
+         * @param pageSize            append page size used to write the file
+         * @param srcAddr             address of the raw column values
+         * @param rowCount            number of values in the column
+         * @param columnType          type of the column, must have a codec unless the column is designated timestamp
+         * @param designatedTimestamp true when the column holds (timestamp, row index) pairs of designated timestamp
+         * @param opts                file open options
+         * @return size of the compressed file
+         */
+        public long encode(FilesFacade ff, LPSZ path, long pageSize, long srcAddr, long rowCount, int columnType, boolean designatedTimestamp, long opts) {
+            final int codec = designatedTimestamp ? CODEC_TIMESTAMP_INDEX : getCodec(columnType);
+            assert codec != CODEC_NONE;
+            final int valueSize = designatedTimestamp ? 2 * Long.BYTES : ColumnType.sizeOf(columnType);
+            mem.of(ff, path, pageSize, MemoryTag.MMAP_TABLE_WRITER, opts);
+            try {
+                mem.jumpTo(0);
+                mem.putInt(codec);
+                mem.putInt(columnType);
+                mem.putLong(rowCount);
+                mem.putLong(BLOCK_ROW_COUNT);
+                blockOffsets.clear();
+                for (long lo = 0; lo < rowCount; lo += BLOCK_ROW_COUNT) {
+                    blockOffsets.add(mem.getAppendOffset());
+                    encodeBlock(codec, srcAddr + lo * valueSize, Math.min(BLOCK_ROW_COUNT, rowCount - lo), valueSize);
+                }
+                for (int i = 0, n = blockOffsets.size(); i < n; i++) {
+                    mem.putLong(blockOffsets.getQuick(i));
+                }
+                return mem.getAppendOffset();
+            } finally {
+                mem.close(true, Vm.TRUNCATE_TO_POINTER);
+            }
+        }
+
+        private void encodeBlock(int codec, long srcAddr, long rowCount, int valueSize) {
+            bitBuf = 0;
+            bitCount = 0;
+            switch (codec) {
+                case CODEC_DELTA_OF_DELTA:
+                case CODEC_TIMESTAMP_INDEX:
+                    encodeDeltaOfDelta(srcAddr, rowCount, valueSize);
+                    break;
+                case CODEC_FRAME_OF_REFERENCE:
+                    encodeFrameOfReference(srcAddr, rowCount, valueSize);
+                    break;
+                default:
+                    encodeXor(srcAddr, rowCount);
+                    break;
+            }
+            if (bitCount > 0) {
+                mem.putLong(bitBuf);
+            }
+        }
+
+        private void encodeDeltaOfDelta(long srcAddr, long rowCount, int stride) {
+            if (rowCount == 0) {
+                return;
+            }
+            long prev = Unsafe.getUnsafe().getLong(srcAddr);
+            writeBits(prev, 64);
+            if (rowCount == 1) {
+                return;
+            }
+            long value = Unsafe.getUnsafe().getLong(srcAddr + stride);
+            long delta = value - prev;
+            writeBits(delta, 64);
+            prev = value;
+            for (long i = 2; i < rowCount; i++) {
+                value = Unsafe.getUnsafe().getLong(srcAddr + i * stride);
+                final long d = value - prev;
+                // zig-zag encoded values are unsigned, large ones have the sign bit set
+                final long z = zigZag(d - delta);
+                if (z == 0) {
+                    writeBits(0, 1);
+                } else if (z >>> 7 == 0) {
+                    writeBits(0b01, 2);
+                    writeBits(z, 7);
+                } else if (z >>> 12 == 0) {
+                    writeBits(0b011, 3);
+                    writeBits(z, 12);
+                } else if (z >>> 20 == 0) {
+                    writeBits(0b0111, 4);
+                    writeBits(z, 20);
+                } else {
+                    writeBits(0b1111, 4);
+                    writeBits(z, 64);
+                }
+                delta = d;
+                prev = value;
+            }
+        }
+
+        private void encodeFrameOfReference(long srcAddr, long rowCount, int valueSize) {
+            final int valueBits = valueSize * 8;
+            for (long lo = 0; lo < rowCount; lo += FOR_BLOCK_SIZE) {
+                final long hi = Math.min(lo + FOR_BLOCK_SIZE, rowCount);
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (long i = lo; i < hi; i++) {
+                    final long v = readValue(srcAddr + i * valueSize, valueSize);
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                // range is unsigned, it overflows for long blocks that contain nulls
+                final long range = max - min;
+                final int bits = 64 - Long.numberOfLeadingZeros(range);
+                writeBits(min, valueBits);
+                writeBits(bits, 7);
+                for (long i = lo; i < hi; i++) {
+                    writeBits(readValue(srcAddr + i * valueSize, valueSize) - min, bits);
+                }
+            }
+        }
+
+        private void encodeXor(long srcAddr, long rowCount) {
+            if (rowCount == 0) {
+                return;
+            }
+            long prev = Unsafe.getUnsafe().getLong(srcAddr);
+            writeBits(prev, 64);
+            int prevLeading = -1;
+            int prevTrailing = 0;
+            for (long i = 1; i < rowCount; i++) {
+                final long value = Unsafe.getUnsafe().getLong(srcAddr + i * Long.BYTES);
+                final long xor = value ^ prev;
+                if (xor == 0) {
+                    writeBits(0, 1);
+                } else {
+                    writeBits(1, 1);
+                    final int leading = Long.numberOfLeadingZeros(xor);
+                    final int trailing = Long.numberOfTrailingZeros(xor);
+                    if (prevLeading > -1 && leading >= prevLeading && trailing >= prevTrailing) {
+                        writeBits(0, 1);
+                        writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                    } else {
+                        final int significant = 64 - leading - trailing;
+                        writeBits(1, 1);
+                        writeBits(leading, 6);
+                        writeBits(significant - 1, 6);
+                        writeBits(xor >>> trailing, significant);
+                        prevLeading = leading;
+                        prevTrailing = trailing;
+                    }
+                }
+                prev = value;
+            }
+        }
+
+        private void writeBits(long value, int n) {
+            if (n == 0) {
+                return;
+            }
+            if (n < 64) {
+                value &= (1L << n) - 1;
+            }
+            bitBuf |= value << bitCount;
+            final int free = 64 - bitCount;
+            if (n >= free) {
+                mem.putLong(bitBuf);
+                bitBuf = free == 64 ? 0 : value >>> free;
+                bitCount = n - free;
+            } else {
+                bitCount += n;
+            }
+        }
+    }
+}
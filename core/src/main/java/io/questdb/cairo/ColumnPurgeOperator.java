@@ -287,6 +287,16 @@ public class ColumnPurgeOperator implements Closeable {
                     }
                 }
 
+                if (ColumnCodec.getCodec(task.getColumnType()) != ColumnCodec.CODEC_NONE) {
+                    // fixed size column may have been compressed
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.dzFile(path, task.getColumnName(), columnVersion);
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
                 // Check if it's symbol, try remove .k and .v files in the partition
                 if (ColumnType.isSymbol(task.getColumnType())) {
                     path.trimTo(pathTrimToPartition);
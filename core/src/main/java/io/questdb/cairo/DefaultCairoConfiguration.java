@@ -358,6 +358,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8 * Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getO3CopyPartSize() {
+        return 16 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getO3CopyQueueCapacity() {
         return 1024;
@@ -419,11 +424,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100000;
     }
 
+    @Override
+    public int getPartitionCompressionQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return 64;
     }
 
+    @Override
+    public int getPartitionZoneMapQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return 4;
@@ -701,6 +716,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlPageFramePrefetchBufferCount() {
+        return 16;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferSize() {
+        return 1024 * 1024;
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return 0;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -741,6 +771,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return null;
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return 1024 * 1024;
@@ -786,6 +821,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return volumeDefinitions;
     }
 
+    @Override
+    public long getWalApplyLagHardTxnCount() {
+        return 100_000;
+    }
+
+    @Override
+    public long getWalApplyLagSoftTxnCount() {
+        return 10_000;
+    }
+
     @Override
     public int getWalApplyLookAheadTransactionCount() {
         return 20;
@@ -811,6 +856,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 3;
     }
 
+    @Override
+    public int getWalSegmentCompressionQueueCapacity() {
+        return 64;
+    }
+
     @Override
     public long getWalSegmentRolloverRowCount() {
         return 200000;
@@ -870,6 +920,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isLatestByMaterializationEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return false;
@@ -880,6 +935,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionBloomFilterEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
@@ -905,11 +975,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isWalSegmentCompressionEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
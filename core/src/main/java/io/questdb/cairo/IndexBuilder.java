@@ -41,7 +41,6 @@ import io.questdb.std.str.Path;
 public class IndexBuilder extends RebuildColumnBase {
     private static final Log LOG = LogFactory.getLog(IndexBuilder.class);
     private final MemoryMAR ddlMem = Vm.getMARInstance();
-    private final MemoryMR indexMem = Vm.getMRInstance();
     private final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
 
     public IndexBuilder() {
@@ -135,35 +134,35 @@ public class IndexBuilder extends RebuildColumnBase {
         final int plen = path.length();
 
         if (ff.exists(path.$())) {
-            try (final MemoryMR roMem = indexMem) {
-                long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, columnWriterIndex);
-                removeIndexFiles(columnName, columnNameTxn);
-                TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
+            long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, columnWriterIndex);
+            removeIndexFiles(columnName, columnNameTxn);
+            TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
 
-                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, columnWriterIndex);
-                if (columnTop > -1L) {
+            final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, columnWriterIndex);
+            if (columnTop > -1L) {
 
-                    if (partitionSize > columnTop) {
-                        LOG.info().$("indexing [path=").utf8(path).I$();
-                        createIndexFiles(columnName, indexValueBlockCapacity, plen, columnNameTxn);
-                        TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
-                        roMem.of(
-                                ff,
-                                path,
-                                0,
-                                (partitionSize - columnTop) * Integer.BYTES,
-                                MemoryTag.MMAP_TABLE_WRITER
-                        );
-                        try {
-                            indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
-                            indexer.index(roMem, columnTop, partitionSize);
-                        } finally {
-                            indexer.clear();
-                        }
+                if (partitionSize > columnTop) {
+                    LOG.info().$("indexing [path=").utf8(path).I$();
+                    createIndexFiles(columnName, indexValueBlockCapacity, plen, columnNameTxn);
+                    // column of a compressed partition may be stored in .dz file only
+                    try (
+                            MemoryMR roMem = TableUtils.openColumnRO(
+                                    ff,
+                                    path.trimTo(plen),
+                                    columnName,
+                                    columnNameTxn,
+                                    (partitionSize - columnTop) * Integer.BYTES,
+                                    MemoryTag.MMAP_TABLE_WRITER
+                            )
+                    ) {
+                        indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
+                        indexer.index(roMem, columnTop, partitionSize);
+                    } finally {
+                        indexer.clear();
                     }
-                } else {
-                    LOG.info().$("column is empty in partition [path=").$(path).I$();
                 }
+            } else {
+                LOG.info().$("column is empty in partition [path=").$(path).I$();
             }
         } else {
             LOG.info().$("partition does not exist [path=").$(path).I$();
@@ -0,0 +1,644 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Latest row of every distinct tuple of SYMBOL column values of a partitioned table. Table writer
+ * maintains the rows on commit by scanning rows added since the previous commit, or since the first
+ * partition rewritten by an out-of-order merge. Truncates, partition removals, updates, new columns
+ * and rows removed by deduplication make the writer rebuild the rows from scratch.
+ * <p>
+ * The rows are stored in the table directory as a sequence of longs: header, writer indexes of the
+ * SYMBOL columns and an entry per tuple. Each entry holds symbol keys of the tuple, timestamp of the
+ * partition and number of the row within the partition. Commits that only add rows append a record
+ * with txn, scan position and entries of the tuples they updated, later entries of a tuple supersede
+ * the earlier ones. The file is rewritten once appended records outgrow the entries before them, or
+ * when rows are rescanned. Readers use the entries up to the record of their txn.
+ */
+public class LatestByMaterialization implements Closeable, Mutable {
+    private static final int ENTRY_PARTITION_TIMESTAMP = 0;
+    private static final int ENTRY_ROW = 1;
+    private static final int HEADER_COLUMN_VERSION = 2;
+    private static final int HEADER_ENTRY_COUNT = 6;
+    private static final int HEADER_KEY_COUNT = 5;
+    private static final int HEADER_SCAN_PARTITION_TIMESTAMP = 3;
+    private static final int HEADER_SCAN_ROW = 4;
+    private static final int HEADER_SIZE = 7;
+    private static final int HEADER_TRUNCATE_VERSION = 1;
+    private static final int HEADER_TXN = 0;
+    private static final String LATEST_BY_SWAP_FILE_NAME = "_latest.swp";
+    private static final Log LOG = LogFactory.getLog(LatestByMaterialization.class);
+    private static final int RECORD_ENTRY_COUNT = 3;
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final int RECORD_SCAN_PARTITION_TIMESTAMP = 1;
+    private static final int RECORD_SCAN_ROW = 2;
+    private static final int RECORD_TXN = 0;
+    private static final int VALUE_PARTITION_TIMESTAMP = 0;
+    private static final int VALUE_ROW = 1;
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    private static final int VALUE_UPDATE_SEQ = 2;
+    private final LongList columnAddresses = new LongList();
+    private final ObjList<MemoryCMR> columnMemories = new ObjList<>();
+    private final LongList columnTops = new LongList();
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final IntList keyWriterIndexes = new IntList();
+    // pairs of index of the first entry and its offset, for the rows written in one go and every appended record
+    private final LongList segments = new LongList();
+    private final IntList tmpWriterIndexes = new IntList();
+    // symbol keys of the tuples updated by the current scan, when it is appended to the file
+    private final IntList updatedKeys = new IntList();
+    // address and size in longs of the mapped file
+    private long address;
+    // writer side size in longs of the file part written in one go, appended records follow it
+    private long baseSize;
+    // writer side state, the map holds partition timestamp and row of the latest row of each tuple
+    private boolean built;
+    private long columnVersion;
+    // writer side buffer, allocated on first write
+    private DirectLongList data;
+    private long entryCount;
+    // writer side fd of the file, records are appended to it
+    private int fd = -1;
+    private FilesFacade ff;
+    // writer side size in longs of the file, -1 when the file does not match the rows
+    private long fileSize = -1;
+    private Map map;
+    private long mappedSize;
+    private long o3MinPartitionTimestamp = Long.MAX_VALUE;
+    private boolean o3RowsRemoved;
+    // offset of the last record used by the reader and the offset after it, 0 for the rows written in one go
+    private long recordHi;
+    private long recordOffset;
+    private long scanPartitionTimestamp = Long.MIN_VALUE;
+    private long scanRow;
+    private long size;
+    private long truncateVersion;
+    private long updateSeq;
+
+    @Override
+    public void clear() {
+        if (mappedSize > 0) {
+            ff.munmap(address, mappedSize, MemoryTag.MMAP_TABLE_READER);
+            mappedSize = 0;
+        }
+        address = 0;
+        size = 0;
+        segments.clear();
+        entryCount = 0;
+        recordOffset = 0;
+        recordHi = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (fd > -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+        fileSize = -1;
+        map = Misc.free(map);
+        data = Misc.free(data);
+        built = false;
+    }
+
+    /**
+     * @return number of entries, a tuple has more than one entry unless {@link #isCompacted()}
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @param entryIndex index of the entry
+     * @param keyIndex   index of the key within the tuple, in the order of {@link #getKeyWriterIndex}
+     * @return symbol key of the tuple
+     */
+    public int getKey(long entryIndex, int keyIndex) {
+        return (int) get(entryOffset(entryIndex) + keyIndex);
+    }
+
+    public int getKeyCount() {
+        return (int) get(HEADER_KEY_COUNT);
+    }
+
+    public int getKeyWriterIndex(int keyIndex) {
+        return (int) get(HEADER_SIZE + keyIndex);
+    }
+
+    public long getPartitionTimestamp(long entryIndex) {
+        return get(entryOffset(entryIndex) + getKeyCount() + ENTRY_PARTITION_TIMESTAMP);
+    }
+
+    public long getRow(long entryIndex) {
+        return get(entryOffset(entryIndex) + getKeyCount() + ENTRY_ROW);
+    }
+
+    /**
+     * Entries of appended records only refer to rows after the rows of the earlier entries, the latest
+     * row of a tuple is the one with the greatest partition timestamp and row number.
+     *
+     * @return true when every tuple has exactly one entry
+     */
+    public boolean isCompacted() {
+        return recordOffset == 0;
+    }
+
+    /**
+     * Loads latest rows stored by the previous writer of the table. Rows are loaded only when the file
+     * is up-to-date with the table, otherwise they are rebuilt on the next commit.
+     *
+     * @param writer writer of the table
+     * @param path   path to the table directory, it is left unchanged
+     */
+    public void load(TableWriter writer, Path path) {
+        final int rootLen = path.length();
+        try {
+            if (!of(writer.getFilesFacade(), path.concat(TableUtils.LATEST_BY_FILE_NAME).$(), writer.getTxn())) {
+                return;
+            }
+            final TxWriter txWriter = writer.getTxWriter();
+            collectKeyColumns(writer.getMetadata(), tmpWriterIndexes);
+            if (get(HEADER_TRUNCATE_VERSION) != txWriter.getTruncateVersion()
+                    || get(HEADER_COLUMN_VERSION) != txWriter.getColumnVersion()
+                    || getKeyCount() != tmpWriterIndexes.size()) {
+                return;
+            }
+            for (int i = 0, n = getKeyCount(); i < n; i++) {
+                if (getKeyWriterIndex(i) != tmpWriterIndexes.getQuick(i)) {
+                    return;
+                }
+            }
+
+            reset(writer.getConfiguration());
+            final int keyCount = getKeyCount();
+            // entries are in the order they were written, the later ones overwrite values of their tuples
+            for (long i = 0, n = getEntryCount(); i < n; i++) {
+                final MapKey key = map.withKey();
+                for (int k = 0; k < keyCount; k++) {
+                    key.putInt(getKey(i, k));
+                }
+                final MapValue value = key.createValue();
+                value.putLong(VALUE_PARTITION_TIMESTAMP, getPartitionTimestamp(i));
+                value.putLong(VALUE_ROW, getRow(i));
+                value.putLong(VALUE_UPDATE_SEQ, updateSeq);
+            }
+            truncateVersion = get(HEADER_TRUNCATE_VERSION);
+            columnVersion = get(HEADER_COLUMN_VERSION);
+            if (recordOffset == 0) {
+                scanPartitionTimestamp = get(HEADER_SCAN_PARTITION_TIMESTAMP);
+                scanRow = get(HEADER_SCAN_ROW);
+            } else {
+                scanPartitionTimestamp = get(recordOffset + RECORD_SCAN_PARTITION_TIMESTAMP);
+                scanRow = get(recordOffset + RECORD_SCAN_ROW);
+            }
+            baseSize = HEADER_SIZE + keyCount + get(HEADER_ENTRY_COUNT) * (keyCount + 2);
+            // records after the one of the writer txn are leftovers of a failed update, they are overwritten
+            fileSize = recordHi;
+            built = true;
+        } catch (CairoException e) {
+            LOG.error().$("could not load latest rows [table=").utf8(writer.getTableToken().getTableName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            clear();
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Maps latest rows stored by table writer. Previously mapped rows are released.
+     *
+     * @param ff   files facade
+     * @param path path to the file
+     * @param txn  txn of the table the rows are read for
+     * @return false when the file does not exist or has no rows written for the txn
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long txn) {
+        clear();
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE * Long.BYTES || len % Long.BYTES != 0) {
+                return false;
+            }
+            address = TableUtils.mapRO(ff, fd, len, MemoryTag.MMAP_TABLE_READER);
+            this.ff = ff;
+            mappedSize = len;
+            size = len / Long.BYTES;
+        } finally {
+            ff.close(fd);
+        }
+
+        if (!ofTxn(txn)) {
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records partition rewritten by out-of-order merge, rows of this and the following partitions
+     * are scanned again on the next {@link #update}.
+     *
+     * @param partitionTimestamp timestamp of the partition
+     * @param rowsRemoved        true when merge removed duplicate rows from the partition
+     */
+    public void onPartitionMerged(long partitionTimestamp, boolean rowsRemoved) {
+        o3MinPartitionTimestamp = Math.min(o3MinPartitionTimestamp, partitionTimestamp);
+        o3RowsRemoved |= rowsRemoved;
+    }
+
+    /**
+     * Brings latest rows up-to-date with the committed state of the table and stores them in the table
+     * directory. Must be called once commit is complete, so that the stored txn is the one readers see.
+     *
+     * @param writer writer of the table
+     * @param path   path to the table directory, it is left unchanged
+     * @param other  scratch path
+     */
+    public void update(TableWriter writer, Path path, Path other) {
+        final TxWriter txWriter = writer.getTxWriter();
+        collectKeyColumns(writer.getMetadata(), tmpWriterIndexes);
+        if (tmpWriterIndexes.size() == 0) {
+            // table without SYMBOL columns has no tuples to maintain
+            built = false;
+            return;
+        }
+
+        // appended entries can only refer to rows after the stored ones, rescanned rows rewrite the file
+        boolean compact = fileSize < 0;
+        if (!built
+                || o3RowsRemoved
+                || truncateVersion != txWriter.getTruncateVersion()
+                || columnVersion != txWriter.getColumnVersion()
+                || !keyWriterIndexes.equals(tmpWriterIndexes)
+                || !isScanPositionValid(writer)) {
+            reset(writer.getConfiguration());
+            truncateVersion = txWriter.getTruncateVersion();
+            columnVersion = txWriter.getColumnVersion();
+            compact = true;
+        } else if (o3MinPartitionTimestamp <= scanPartitionTimestamp) {
+            scanPartitionTimestamp = o3MinPartitionTimestamp;
+            scanRow = 0;
+            compact = true;
+        }
+        o3MinPartitionTimestamp = Long.MAX_VALUE;
+        o3RowsRemoved = false;
+
+        built = false;
+        updateSeq++;
+        updatedKeys.clear();
+        try {
+            for (int i = 0, n = writer.getPartitionCount(); i < n; i++) {
+                final long partitionTimestamp = writer.getPartitionTimestamp(i);
+                if (partitionTimestamp < scanPartitionTimestamp) {
+                    continue;
+                }
+                final long partitionSize = writer.getPartitionSize(i);
+                final long rowLo = partitionTimestamp == scanPartitionTimestamp ? scanRow : 0;
+                if (rowLo < partitionSize) {
+                    if (txWriter.isPartitionCompressed(i)) {
+                        throw CairoException.nonCritical().put("cannot scan compressed partition [partition=").ts(partitionTimestamp).put(']');
+                    }
+                    scanPartition(writer, path, partitionTimestamp, writer.getPartitionNameTxn(i), rowLo, partitionSize, !compact);
+                }
+                scanPartitionTimestamp = partitionTimestamp;
+                scanRow = partitionSize;
+            }
+            built = true;
+
+            final int keyCount = keyWriterIndexes.size();
+            final long updatedCount = updatedKeys.size() / keyCount;
+            final long recordSize = RECORD_HEADER_SIZE + updatedCount * (keyCount + 2);
+            // file stays within twice the size of the rows written in one go
+            if (compact || fileSize - baseSize + recordSize > baseSize) {
+                write(writer, path, other);
+            } else {
+                append(writer, path, updatedCount, recordSize);
+            }
+        } catch (CairoException e) {
+            // readers fall back to scanning the table until the rows are written for their txn
+            fileSize = -1;
+            LOG.error().$("could not update latest rows [table=").utf8(writer.getTableToken().getTableName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        }
+    }
+
+    private static void collectKeyColumns(RecordMetadata metadata, IntList writerIndexes) {
+        writerIndexes.clear();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                writerIndexes.add(i);
+            }
+        }
+    }
+
+    private void append(TableWriter writer, Path path, long updatedCount, long recordSize) {
+        final int keyCount = keyWriterIndexes.size();
+        prepareData(recordSize);
+        data.add(writer.getTxn());
+        data.add(scanPartitionTimestamp);
+        data.add(scanRow);
+        data.add(updatedCount);
+        for (int i = 0, n = updatedKeys.size(); i < n; i += keyCount) {
+            final MapKey key = map.withKey();
+            for (int k = 0; k < keyCount; k++) {
+                final int symbolKey = updatedKeys.getQuick(i + k);
+                key.putInt(symbolKey);
+                data.add(symbolKey);
+            }
+            final MapValue value = key.findValue();
+            data.add(value.getLong(VALUE_PARTITION_TIMESTAMP));
+            data.add(value.getLong(VALUE_ROW));
+        }
+
+        ff = writer.getFilesFacade();
+        final int rootLen = path.length();
+        try {
+            if (fd < 0) {
+                fd = TableUtils.openRW(ff, path.concat(TableUtils.LATEST_BY_FILE_NAME).$(), LOG, writer.getConfiguration().getWriterFileOpenOpts());
+            }
+            // readers stop at the zero txn of the record until its entries are written
+            final long entriesLen = (recordSize - RECORD_HEADER_SIZE) * Long.BYTES;
+            final long offset = fileSize * Long.BYTES;
+            if ((entriesLen > 0 && ff.write(fd, data.getAddress() + RECORD_HEADER_SIZE * Long.BYTES, entriesLen, offset + RECORD_HEADER_SIZE * Long.BYTES) != entriesLen)
+                    || ff.write(fd, data.getAddress(), RECORD_HEADER_SIZE * Long.BYTES, offset) != RECORD_HEADER_SIZE * Long.BYTES) {
+                throw CairoException.critical(ff.errno()).put("could not append [file=").put(path).put(']');
+            }
+            fileSize += recordSize;
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    private long entryOffset(long entryIndex) {
+        int lo = 0;
+        int hi = segments.size() / 2 - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (segments.getQuick(2 * mid) <= entryIndex) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return segments.getQuick(2 * lo + 1) + (entryIndex - segments.getQuick(2 * lo)) * (getKeyCount() + 2);
+    }
+
+    private long get(long p) {
+        return Unsafe.getUnsafe().getLong(address + p * Long.BYTES);
+    }
+
+    private int getSymbolKey(long row, int keyIndex) {
+        final long columnTop = columnTops.getQuick(keyIndex);
+        return row < columnTop
+                ? SymbolTable.VALUE_IS_NULL
+                : Unsafe.getUnsafe().getInt(columnAddresses.getQuick(keyIndex) + ((row - columnTop) << 2));
+    }
+
+    private boolean isScanPositionValid(TableWriter writer) {
+        if (scanPartitionTimestamp == Long.MIN_VALUE) {
+            return true;
+        }
+        // rows of the partition scanned last could only be removed along with the versions checked above
+        final int partitionIndex = writer.getTxWriter().getPartitionIndex(scanPartitionTimestamp);
+        return partitionIndex > -1 && writer.getPartitionSize(partitionIndex) >= scanRow;
+    }
+
+    private boolean ofTxn(long txn) {
+        final long keyCount = get(HEADER_KEY_COUNT);
+        final long baseEntryCount = get(HEADER_ENTRY_COUNT);
+        if (keyCount < 1 || baseEntryCount < 0) {
+            return false;
+        }
+        final long entrySize = keyCount + 2;
+        long offset = HEADER_SIZE + keyCount + baseEntryCount * entrySize;
+        if (offset > size) {
+            return false;
+        }
+        segments.add(0L, HEADER_SIZE + keyCount);
+        entryCount = baseEntryCount;
+        long recordTxn = get(HEADER_TXN);
+        while (recordTxn != txn) {
+            if (offset + RECORD_HEADER_SIZE > size) {
+                return false;
+            }
+            recordTxn = get(offset + RECORD_TXN);
+            final long count = get(offset + RECORD_ENTRY_COUNT);
+            // zero txn is a record being appended, records of later txns are past the reader
+            if (recordTxn < 1 || recordTxn > txn || count < 0 || offset + RECORD_HEADER_SIZE + count * entrySize > size) {
+                return false;
+            }
+            if (count > 0) {
+                segments.add(entryCount, offset + RECORD_HEADER_SIZE);
+                entryCount += count;
+            }
+            recordOffset = offset;
+            offset += RECORD_HEADER_SIZE + count * entrySize;
+        }
+        recordHi = offset;
+        return true;
+    }
+
+    private void prepareData(long capacity) {
+        if (data == null) {
+            data = new DirectLongList(capacity, MemoryTag.NATIVE_DEFAULT);
+        } else if (data.getCapacity() < capacity) {
+            data.setCapacity(capacity);
+        }
+        data.clear();
+    }
+
+    private void reset(CairoConfiguration configuration) {
+        if (map == null || !keyWriterIndexes.equals(tmpWriterIndexes)) {
+            keyWriterIndexes.clear();
+            keyWriterIndexes.addAll(tmpWriterIndexes);
+            keyTypes.clear();
+            for (int i = 0, n = keyWriterIndexes.size(); i < n; i++) {
+                keyTypes.add(ColumnType.INT);
+            }
+            map = Misc.free(map);
+            map = new FastMap(
+                    configuration.getSqlSmallMapPageSize(),
+                    keyTypes,
+                    VALUE_TYPES,
+                    configuration.getSqlSmallMapKeyCapacity(),
+                    configuration.getSqlFastMapLoadFactor(),
+                    Integer.MAX_VALUE
+            );
+        } else {
+            map.clear();
+        }
+        scanPartitionTimestamp = Long.MIN_VALUE;
+        scanRow = 0;
+    }
+
+    private void scanPartition(
+            TableWriter writer,
+            Path path,
+            long partitionTimestamp,
+            long partitionNameTxn,
+            long rowLo,
+            long rowHi,
+            boolean trackUpdates
+    ) {
+        final FilesFacade ff = writer.getFilesFacade();
+        final RecordMetadata metadata = writer.getMetadata();
+        final ColumnVersionReader columnVersionReader = writer.getColumnVersionReader();
+        final int keyCount = keyWriterIndexes.size();
+        final int rootLen = path.length();
+        columnAddresses.setAll(keyCount, 0);
+        columnTops.setAll(keyCount, rowHi);
+        try {
+            TableUtils.setPathForPartition(path, rootLen, writer.getPartitionBy(), partitionTimestamp, partitionNameTxn);
+            final int plen = path.length();
+            for (int k = 0; k < keyCount; k++) {
+                final int writerIndex = keyWriterIndexes.getQuick(k);
+                final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, writerIndex);
+                // rows of the column top and of the partitions without the column are nulls
+                if (columnTop < 0 || columnTop >= rowHi) {
+                    continue;
+                }
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+                final MemoryCMR mem = TableUtils.openColumnRO(
+                        ff,
+                        path.trimTo(plen),
+                        metadata.getColumnName(writerIndex),
+                        columnNameTxn,
+                        (rowHi - columnTop) * Integer.BYTES,
+                        MemoryTag.MMAP_TABLE_WRITER
+                );
+                columnMemories.add(mem);
+                columnAddresses.setQuick(k, mem.getPageAddress(0));
+                columnTops.setQuick(k, columnTop);
+            }
+
+            for (long row = rowLo; row < rowHi; row++) {
+                final MapKey key = map.withKey();
+                for (int k = 0; k < keyCount; k++) {
+                    key.putInt(getSymbolKey(row, k));
+                }
+                final MapValue value = key.createValue();
+                if (trackUpdates && (value.isNew() || value.getLong(VALUE_UPDATE_SEQ) != updateSeq)) {
+                    for (int k = 0; k < keyCount; k++) {
+                        updatedKeys.add(getSymbolKey(row, k));
+                    }
+                }
+                value.putLong(VALUE_PARTITION_TIMESTAMP, partitionTimestamp);
+                value.putLong(VALUE_ROW, row);
+                value.putLong(VALUE_UPDATE_SEQ, updateSeq);
+            }
+        } finally {
+            Misc.freeObjListAndClear(columnMemories);
+            path.trimTo(rootLen);
+        }
+    }
+
+    private void write(TableWriter writer, Path path, Path other) {
+        final int keyCount = keyWriterIndexes.size();
+        final long entryCount = map.size();
+        final long totalSize = HEADER_SIZE + keyCount + entryCount * (keyCount + 2);
+        prepareData(totalSize);
+        data.add(writer.getTxn());
+        data.add(truncateVersion);
+        data.add(columnVersion);
+        data.add(scanPartitionTimestamp);
+        data.add(scanRow);
+        data.add(keyCount);
+        data.add(entryCount);
+        for (int k = 0; k < keyCount; k++) {
+            data.add(keyWriterIndexes.getQuick(k));
+        }
+        final RecordCursor cursor = map.getCursor();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            // value columns precede key columns in map record
+            for (int k = 0; k < keyCount; k++) {
+                data.add(record.getInt(VALUE_TYPES.getColumnCount() + k));
+            }
+            data.add(record.getLong(VALUE_PARTITION_TIMESTAMP));
+            data.add(record.getLong(VALUE_ROW));
+        }
+
+        ff = writer.getFilesFacade();
+        final int rootLen = path.length();
+        try {
+            other.of(path).concat(LATEST_BY_SWAP_FILE_NAME).$();
+            if (ff.exists(other) && !ff.remove(other)) {
+                throw CairoException.critical(ff.errno()).put("could not remove [file=").put(other).put(']');
+            }
+            final int swapFd = TableUtils.openRW(ff, other, LOG, writer.getConfiguration().getWriterFileOpenOpts());
+            try {
+                final long len = totalSize * Long.BYTES;
+                if (ff.write(swapFd, data.getAddress(), len, 0) != len) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(other).put(']');
+                }
+            } finally {
+                ff.close(swapFd);
+            }
+            // the replaced file is released before the rename, records are appended to the new one
+            if (fd > -1) {
+                ff.close(fd);
+                fd = -1;
+            }
+            TableUtils.renameOrFail(ff, other, path.concat(TableUtils.LATEST_BY_FILE_NAME).$());
+            baseSize = totalSize;
+            fileSize = totalSize;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.LONG);
+        VALUE_TYPES.add(ColumnType.LONG);
+        VALUE_TYPES.add(ColumnType.LONG);
+    }
+}
@@ -30,6 +30,7 @@ import io.questdb.std.ObjList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class O3Basket implements Mutable {
+    private final O3Dedup dedup = new O3Dedup();
     private final ObjList<BitmapIndexWriter> indexers = new ObjList<BitmapIndexWriter>();
     private final ObjList<AtomicInteger> partCounters = new ObjList<AtomicInteger>();
     private int columnCount;
@@ -50,6 +51,10 @@ public class O3Basket implements Mutable {
         ensureCapacity0(columnCount, indexCount);
     }
 
+    public O3Dedup getDedup() {
+        return dedup;
+    }
+
     public BitmapIndexWriter nextIndexer() {
         return indexers.getQuick(indexerPointer++);
     }
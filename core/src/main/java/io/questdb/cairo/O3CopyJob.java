@@ -126,18 +126,15 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     mergeCopy(
                             columnType,
                             timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
                             // this is a hack, when we have column top we can have only of the two:
                             // srcDataFixOffset, when we had to shift data to back-fill nulls or
                             // srcDataTopOffset - if we kept the column top
                             // when one value is present the other will be 0
                             srcDataFixAddr + srcDataFixOffset - srcDataTop,
                             srcDataVarAddr + srcDataVarOffset,
-                            srcDataLo,
-                            srcDataHi,
                             srcOooFixAddr,
                             srcOooVarAddr,
-                            srcOooLo,
-                            srcOooHi,
                             dstFixAddr + dstFixOffset,
                             dstVarAddr,
                             dstVarOffset,
@@ -186,21 +183,25 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                     break;
             }
         } catch (Throwable th) {
-            FilesFacade ff = tableWriter.getFilesFacade();
-            O3Utils.unmapAndClose(ff, srcDataFixFd, srcDataFixAddr, srcDataFixSize);
-            O3Utils.unmapAndClose(ff, srcDataVarFd, srcDataVarAddr, srcDataVarSize);
-            O3Utils.unmapAndClose(ff, dstFixFd, dstFixAddr, dstFixSize);
-            O3Utils.unmapAndClose(ff, dstVarFd, dstVarAddr, dstVarSize);
+            tableWriter.o3BumpErrorCount();
+            // parts of the column share the memory, it is released by the last part to finish
+            if (partCounter == null || partCounter.decrementAndGet() == 0) {
+                FilesFacade ff = tableWriter.getFilesFacade();
+                O3Utils.unmapAndClose(ff, srcDataFixFd, srcDataFixAddr, srcDataFixSize);
+                O3Utils.unmapAndClose(ff, srcDataVarFd, srcDataVarAddr, srcDataVarSize);
+                O3Utils.unmapAndClose(ff, dstFixFd, dstFixAddr, dstFixSize);
+                O3Utils.unmapAndClose(ff, dstVarFd, dstVarAddr, dstVarSize);
 
-            closeColumnIdle(
-                    columnCounter,
-                    timestampMergeIndexAddr,
-                    timestampMergeIndexSize,
-                    srcTimestampFd,
-                    srcTimestampAddr,
-                    srcTimestampSize,
-                    tableWriter
-            );
+                closeColumnIdle(
+                        columnCounter,
+                        timestampMergeIndexAddr,
+                        timestampMergeIndexSize,
+                        srcTimestampFd,
+                        srcTimestampAddr,
+                        srcTimestampSize,
+                        tableWriter
+                );
+            }
             throw th;
         }
 
@@ -577,20 +578,18 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     private static void mergeCopy(
             int columnType,
             long timestampMergeIndexAddr,
+            long timestampMergeIndexSize,
             long srcDataFixAddr,
             long srcDataVarAddr,
-            long srcDataLo,
-            long srcDataHi,
             long srcOooFixAddr,
             long srcOooVarAddr,
-            long srcOooLo,
-            long srcOooHi,
             long dstFixAddr,
             long dstVarAddr,
             long dstVarOffset,
             long dstVarOffsetEnd
     ) {
-        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1;
+        // merge index can be shorter than data and O3 ranges combined when duplicate rows were removed
+        final long rowCount = timestampMergeIndexSize / TIMESTAMP_MERGE_ENTRY_BYTES;
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
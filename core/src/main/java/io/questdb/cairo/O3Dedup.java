@@ -0,0 +1,306 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+
+/**
+ * Collapses rows that share the designated timestamp and all dedup key values. The input
+ * is a timestamp index of 128-bit (timestamp, row) entries sorted by timestamp. Rows with
+ * the top bit set refer to the partition data, the others refer to O3 memory. Out of each
+ * group of duplicates the row written last survives: partition data loses to any O3 row and
+ * O3 rows are ranked by their position in O3 memory. Rows appended before
+ * <code>olderRowsLo</code> are ranked after the block of <code>olderRowCount</code> rows
+ * that starts at it, which is where uncommitted rows moved out of the last partition land.
+ * <p>
+ * Survivors are compacted towards the start of the index, which preserves the order of the entries.
+ */
+public class O3Dedup implements Mutable {
+    private static final long DATA_ROW_MASK = ~(1L << 63);
+    private static final int SCAN_GROUP_SIZE = 16;
+    private final LongList chain = new LongList();
+    private final BoolList dropped = new BoolList();
+    private final LongLongHashMap heads = new LongLongHashMap();
+    private final LongList keyDataAddresses = new LongList();
+    private final IntList keyDataFds = new IntList();
+    private final LongList keyDataSizes = new LongList();
+    private final LongList keyDataTops = new LongList();
+    private final LongList keyNulls = new LongList();
+    private final LongList keyO3Addresses = new LongList();
+    private final IntList keyShls = new IntList();
+    private long olderRowCount;
+    private long olderRowsLo;
+
+    public static boolean hasDuplicateTimestamps(long indexAddr, long lo, long hi) {
+        if (hi - lo < 2) {
+            return false;
+        }
+        long prev = TableWriter.getTimestampIndexValue(indexAddr, lo);
+        for (long i = lo + 1; i < hi; i++) {
+            final long ts = TableWriter.getTimestampIndexValue(indexAddr, i);
+            if (ts == prev) {
+                return true;
+            }
+            prev = ts;
+        }
+        return false;
+    }
+
+    /**
+     * Adds a key column other than the designated timestamp.
+     *
+     * @param columnType  type of the column, must be of fixed size
+     * @param dataFd      file descriptor to close on {@link #releaseKeys(FilesFacade)}, or -1
+     * @param dataAddr    address of the mapped partition column, 0 when there are no partition rows
+     * @param dataSize    size of the partition column mapping
+     * @param dataTop     column top in the partition, rows above it are treated as null
+     * @param o3Addr      address of the O3 column
+     */
+    public void addKey(int columnType, int dataFd, long dataAddr, long dataSize, long dataTop, long o3Addr) {
+        keyShls.add(ColumnType.pow2SizeOf(columnType));
+        keyNulls.add(nullWord(columnType));
+        keyDataFds.add(dataFd);
+        keyDataAddresses.add(dataAddr);
+        keyDataSizes.add(dataSize);
+        keyDataTops.add(dataTop);
+        keyO3Addresses.add(o3Addr);
+    }
+
+    @Override
+    public void clear() {
+        keyShls.clear();
+        keyNulls.clear();
+        keyDataFds.clear();
+        keyDataAddresses.clear();
+        keyDataSizes.clear();
+        keyDataTops.clear();
+        keyO3Addresses.clear();
+        heads.clear();
+    }
+
+    /**
+     * Removes duplicate rows from the sorted timestamp index in place.
+     *
+     * @return number of index entries left
+     */
+    public long dedup(long indexAddr, long count, long olderRowsLo, long olderRowCount) {
+        this.olderRowsLo = olderRowsLo;
+        this.olderRowCount = olderRowCount;
+        long dst = 0;
+        long lo = 0;
+        while (lo < count) {
+            final long ts = TableWriter.getTimestampIndexValue(indexAddr, lo);
+            long hi = lo + 1;
+            while (hi < count && TableWriter.getTimestampIndexValue(indexAddr, hi) == ts) {
+                hi++;
+            }
+            if (hi - lo == 1) {
+                copyEntry(indexAddr, lo, dst++);
+            } else {
+                dst = dedupGroup(indexAddr, lo, hi, dst);
+            }
+            lo = hi;
+        }
+        return dst;
+    }
+
+    public void releaseKeys(FilesFacade ff) {
+        for (int i = 0, n = keyShls.size(); i < n; i++) {
+            O3Utils.unmapAndClose(ff, keyDataFds.getQuick(i), keyDataAddresses.getQuick(i), keyDataSizes.getQuick(i));
+        }
+        clear();
+    }
+
+    private static void copyEntry(long indexAddr, long src, long dst) {
+        if (src != dst) {
+            final long srcAddr = indexAddr + (src << 4);
+            final long dstAddr = indexAddr + (dst << 4);
+            Unsafe.getUnsafe().putLong(dstAddr, Unsafe.getUnsafe().getLong(srcAddr));
+            Unsafe.getUnsafe().putLong(dstAddr + Long.BYTES, Unsafe.getUnsafe().getLong(srcAddr + Long.BYTES));
+        }
+    }
+
+    private static long getRow(long indexAddr, long i) {
+        return Unsafe.getUnsafe().getLong(indexAddr + (i << 4) + Long.BYTES);
+    }
+
+    private static long nullWord(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.CHAR:
+            case ColumnType.SHORT:
+                return 0;
+            case ColumnType.GEOBYTE:
+                return GeoHashes.BYTE_NULL;
+            case ColumnType.GEOSHORT:
+                return GeoHashes.SHORT_NULL;
+            case ColumnType.INT:
+                return Numbers.INT_NaN;
+            case ColumnType.GEOINT:
+                return GeoHashes.INT_NULL;
+            case ColumnType.FLOAT:
+                return Float.floatToRawIntBits(Float.NaN);
+            case ColumnType.SYMBOL:
+                return SymbolTable.VALUE_IS_NULL;
+            case ColumnType.GEOLONG:
+                return GeoHashes.NULL;
+            case ColumnType.DOUBLE:
+                return Double.doubleToRawLongBits(Double.NaN);
+            default:
+                // LONG, DATE, TIMESTAMP and every word of LONG128, UUID and LONG256
+                return Numbers.LONG_NaN;
+        }
+    }
+
+    private static int wordCount(int shl) {
+        return shl > 3 ? 1 << (shl - 3) : 1;
+    }
+
+    private long dedupGroup(long indexAddr, long lo, long hi, long dst) {
+        final int n = (int) (hi - lo);
+        if (keyShls.size() == 0) {
+            // designated timestamp is the only key
+            int winner = 0;
+            long winnerRank = rank(getRow(indexAddr, lo));
+            for (int i = 1; i < n; i++) {
+                final long rank = rank(getRow(indexAddr, lo + i));
+                if (rank >= winnerRank) {
+                    winner = i;
+                    winnerRank = rank;
+                }
+            }
+            copyEntry(indexAddr, lo + winner, dst);
+            return dst + 1;
+        }
+
+        dropped.setAll(n, false);
+        if (n <= SCAN_GROUP_SIZE) {
+            for (int i = 0; i < n; i++) {
+                final long rowI = getRow(indexAddr, lo + i);
+                final long rankI = rank(rowI);
+                for (int j = 0; j < n; j++) {
+                    if (j != i) {
+                        final long rowJ = getRow(indexAddr, lo + j);
+                        final long rankJ = rank(rowJ);
+                        if ((rankJ > rankI || (rankJ == rankI && j > i)) && keysEqual(rowI, rowJ)) {
+                            dropped.setQuick(i, true);
+                            break;
+                        }
+                    }
+                }
+            }
+        } else {
+            heads.clear();
+            chain.setAll(n, -1);
+            for (int i = 0; i < n; i++) {
+                final long rowI = getRow(indexAddr, lo + i);
+                final long hash = keyHash(rowI);
+                final long head = heads.get(hash);
+                for (long c = head; c != -1; c = chain.getQuick((int) c)) {
+                    final int j = (int) c;
+                    if (!dropped.get(j)) {
+                        final long rowJ = getRow(indexAddr, lo + j);
+                        if (keysEqual(rowI, rowJ)) {
+                            // i comes later in the group, it wins ties
+                            if (rank(rowI) >= rank(rowJ)) {
+                                dropped.setQuick(j, true);
+                            } else {
+                                dropped.setQuick(i, true);
+                            }
+                            break;
+                        }
+                    }
+                }
+                if (!dropped.get(i)) {
+                    chain.setQuick(i, head);
+                    heads.put(hash, i);
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (!dropped.get(i)) {
+                copyEntry(indexAddr, lo + i, dst++);
+            }
+        }
+        return dst;
+    }
+
+    private long keyHash(long row) {
+        long h = 0;
+        for (int k = 0, n = keyShls.size(); k < n; k++) {
+            for (int w = 0, words = wordCount(keyShls.getQuick(k)); w < words; w++) {
+                h = (h + keyWord(k, row, w)) * 0x9E3779B97F4A7C15L;
+            }
+        }
+        return h ^ (h >>> 32);
+    }
+
+    private long keyWord(int key, long row, int word) {
+        final int shl = keyShls.getQuick(key);
+        final long addr;
+        if (row < 0) {
+            final long dataRow = row & DATA_ROW_MASK;
+            final long top = keyDataTops.getQuick(key);
+            if (dataRow < top) {
+                return keyNulls.getQuick(key);
+            }
+            addr = keyDataAddresses.getQuick(key) + ((dataRow - top) << shl);
+        } else {
+            addr = keyO3Addresses.getQuick(key) + (row << shl);
+        }
+        switch (shl) {
+            case 0:
+                return Unsafe.getUnsafe().getByte(addr);
+            case 1:
+                return Unsafe.getUnsafe().getShort(addr);
+            case 2:
+                return Unsafe.getUnsafe().getInt(addr);
+            default:
+                return Unsafe.getUnsafe().getLong(addr + ((long) word << 3));
+        }
+    }
+
+    private boolean keysEqual(long rowA, long rowB) {
+        for (int k = 0, n = keyShls.size(); k < n; k++) {
+            for (int w = 0, words = wordCount(keyShls.getQuick(k)); w < words; w++) {
+                if (keyWord(k, rowA, w) != keyWord(k, rowB, w)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private long rank(long row) {
+        if (row < 0) {
+            return -1;
+        }
+        return row >= olderRowsLo ? row - olderRowsLo : row + olderRowCount;
+    }
+}
@@ -58,6 +58,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int plen,
             CharSequence columnName,
             AtomicInteger columnCounter,
+            AtomicInteger partCounter,
             int columnType,
             long srcOooFixAddr,
             long srcOooVarAddr,
@@ -110,6 +111,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 if (designated) {
                     appendTimestampColumn(
                             columnCounter,
+                            partCounter,
                             columnType,
                             srcOooFixAddr,
                             srcOooVarAddr,
@@ -136,6 +138,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         plen,
                         columnName,
                         columnCounter,
+                        partCounter,
                         columnType,
                         srcOooFixAddr,
                         srcOooVarAddr,
@@ -312,13 +315,16 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnIndex,
             long columnNameTxn
     ) {
-        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+        // merge index is shorter than merge ranges when duplicate rows have been removed from it
+        final long mergeLen = mergeType == O3_BLOCK_MERGE
+                ? timestampMergeIndexSize / TIMESTAMP_MERGE_ENTRY_BYTES
+                : mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
         final Path pathToPartition = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(pathToPartition, tableWriter.getPartitionBy(), oooTimestampLo, false);
         final int pplen = pathToPartition.length();
         TableUtils.txnPartitionConditionally(pathToPartition, srcDataTxn);
         final int plen = pathToPartition.length();
-        // append jobs do not set value of part counter, we do it here for those
+        // append jobs set value of part counter only when they split column copy, we do it here for merge jobs
         switch (openColumnMode) {
             case OPEN_MID_PARTITION_FOR_APPEND:
                 appendMidPartition(
@@ -326,6 +332,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         plen,
                         columnName,
                         columnCounter,
+                        partCounter,
                         columnType,
                         srcOooFixAddr,
                         srcOooVarAddr,
@@ -448,6 +455,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         plen,
                         columnName,
                         columnCounter,
+                        partCounter,
                         columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
@@ -476,6 +484,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int plen,
             CharSequence columnName,
             AtomicInteger columnCounter,
+            AtomicInteger partCounter,
             int columnType,
             long srcOooFixAddr,
             long srcOooVarAddr,
@@ -552,11 +561,10 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             throw e;
         }
 
-        publishCopyTask(
+        publishAppendCopyTasks(
                 columnCounter,
-                null,
+                partCounter,
                 columnType,
-                O3_BLOCK_O3,
                 0,
                 0,
                 0,
@@ -611,6 +619,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int plen,
             CharSequence columnName,
             AtomicInteger columnCounter,
+            AtomicInteger partCounter,
             int columnType,
             long srcOooFixAddr,
             long srcOooVarAddr,
@@ -718,6 +727,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                 if (designated) {
                     appendTimestampColumn(
                             columnCounter,
+                            partCounter,
                             columnType,
                             srcOooFixAddr,
                             srcOooVarAddr,
@@ -765,6 +775,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         plen,
                         columnName,
                         columnCounter,
+                        partCounter,
                         columnType,
                         srcOooFixAddr,
                         srcOooVarAddr,
@@ -796,6 +807,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int plen,
             CharSequence columnName,
             AtomicInteger columnCounter,
+            AtomicInteger partCounter,
             int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
@@ -863,11 +875,10 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             throw e;
         }
 
-        publishCopyTask(
+        publishAppendCopyTasks(
                 columnCounter,
-                null,
+                partCounter,
                 columnType,
-                O3_BLOCK_O3,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
                 0,
@@ -920,6 +931,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
     private static void appendTimestampColumn(
             AtomicInteger columnCounter,
+            AtomicInteger partCounter,
             int columnType,
             long srcOooFixAddr,
             long srcOooVarAddr,
@@ -975,11 +987,10 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             throw e;
         }
 
-        publishCopyTask(
+        publishAppendCopyTasks(
                 columnCounter,
-                null,
+                partCounter,
                 columnType,
-                O3_BLOCK_O3,
                 0,
                 0,
                 0,
@@ -1188,6 +1199,24 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         }
     }
 
+    private static long getDedupRowCount(int mergeType, long mergeOOOLo, long mergeOOOHi, long mergeDataLo, long mergeDataHi, long mergeLen) {
+        return mergeType == O3_BLOCK_MERGE ? mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1 - mergeLen : 0;
+    }
+
+    private static long getMergedVarColumnLength(long timestampMergeIndexAddr, long mergeLen, long srcDataFixAddr, long srcOooFixAddr) {
+        long len = 0;
+        for (long i = 0; i < mergeLen; i++) {
+            final long row = Unsafe.getUnsafe().getLong(timestampMergeIndexAddr + i * TIMESTAMP_MERGE_ENTRY_BYTES + Long.BYTES);
+            if (row < 0) {
+                final long dataRow = row & ~(1L << 63);
+                len += O3Utils.getVarColumnLength(dataRow, dataRow, srcDataFixAddr);
+            } else {
+                len += O3Utils.getVarColumnLength(row, row, srcOooFixAddr);
+            }
+        }
+        return len;
+    }
+
     private static void mergeFixColumn(
             Path pathToPartition,
             int pplen,
@@ -1284,7 +1313,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
+            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop - getDedupRowCount(mergeType, mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -1942,7 +1971,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             iFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1) * Long.BYTES;
+            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1 - getDedupRowCount(mergeType, mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen)) * Long.BYTES;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -2000,7 +2029,18 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         srcDataFixAddr + srcDataFixOffset - srcDataTop * 8
                 );
                 dstFixAppendOffset2 = dstFixAppendOffset1 + (mergeLen * Long.BYTES);
-                dstVarAppendOffset2 = dstVarAppendOffset1 + oooLen + dataLen;
+                if (getDedupRowCount(mergeType, mergeOOOLo, mergeOOOHi, mergeDataLo, mergeDataHi, mergeLen) > 0) {
+                    // suffix has to start right after var data of the rows that survived deduplication,
+                    // data file keeps the slack of removed rows at its end
+                    dstVarAppendOffset2 = dstVarAppendOffset1 + getMergedVarColumnLength(
+                            timestampMergeIndexAddr,
+                            mergeLen,
+                            srcDataFixAddr + srcDataFixOffset - srcDataTop * 8,
+                            srcOooFixAddr
+                    );
+                } else {
+                    dstVarAppendOffset2 = dstVarAppendOffset1 + oooLen + dataLen;
+                }
             } else {
                 dstFixAppendOffset2 = dstFixAppendOffset1;
                 dstVarAppendOffset2 = dstVarAppendOffset1;
@@ -2101,6 +2141,210 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
         );
     }
 
+    private static void publishAppendCopyTasks(
+            AtomicInteger columnCounter,
+            @Nullable AtomicInteger partCounter,
+            int columnType,
+            long timestampMergeIndexAddr,
+            long timestampMergeIndexSize,
+            int srcDataFixFd,
+            long srcDataFixAddr,
+            long srcDataFixOffset,
+            long srcDataFixSize,
+            int srcDataVarFd,
+            long srcDataVarAddr,
+            long srcDataVarOffset,
+            long srcDataVarSize,
+            long srcDataLo,
+            long srcDataHi,
+            long srcDataTop,
+            long srcDataMax,
+            long srcOooFixAddr,
+            long srcOooVarAddr,
+            long srcOooLo,
+            long srcOooHi,
+            long srcOooMax,
+            long srcOooPartitionLo,
+            long srcOooPartitionHi,
+            long timestampMin,
+            long timestampMax,
+            long partitionTimestamp,
+            int dstFixFd,
+            long dstFixAddr,
+            long dstFixOffset,
+            long dstFixFileOffset,
+            long dstFixSize,
+            int dstVarFd,
+            long dstVarAddr,
+            long dstVarOffset,
+            long dstVarOffsetEnd,
+            long dstVarAdjust,
+            long dstVarSize,
+            int dstKFd,
+            int dstVFd,
+            long dstIndexOffset,
+            long dstIndexAdjust,
+            int indexBlockCapacity,
+            int srcTimestampFd,
+            long srcTimestampAddr,
+            long srcTimestampSize,
+            boolean partitionMutates,
+            TableWriter tableWriter,
+            BitmapIndexWriter indexWriter
+    ) {
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long partRows = tableWriter.getConfiguration().getO3CopyPartSize() >> shl;
+        final long rowCount = srcOooHi - srcOooLo + 1;
+        // large fixed-size columns are copied in parts, so that the copy of a single column can run on
+        // several threads; the parts write to disjoint ranges of the destination and the last one
+        // to finish updates the index and the partition
+        if (partCounter == null || partRows < 1 || rowCount <= partRows || ColumnType.isVariableLength(columnType)) {
+            publishCopyTask(
+                    columnCounter,
+                    null,
+                    columnType,
+                    O3_BLOCK_O3,
+                    timestampMergeIndexAddr,
+                    timestampMergeIndexSize,
+                    srcDataFixFd,
+                    srcDataFixAddr,
+                    srcDataFixOffset,
+                    srcDataFixSize,
+                    srcDataVarFd,
+                    srcDataVarAddr,
+                    srcDataVarOffset,
+                    srcDataVarSize,
+                    srcDataLo,
+                    srcDataHi,
+                    srcDataTop,
+                    srcDataMax,
+                    srcOooFixAddr,
+                    srcOooVarAddr,
+                    srcOooLo,
+                    srcOooHi,
+                    srcOooMax,
+                    srcOooPartitionLo,
+                    srcOooPartitionHi,
+                    timestampMin,
+                    timestampMax,
+                    partitionTimestamp,
+                    dstFixFd,
+                    dstFixAddr,
+                    dstFixOffset,
+                    dstFixFileOffset,
+                    dstFixSize,
+                    dstVarFd,
+                    dstVarAddr,
+                    dstVarOffset,
+                    dstVarOffsetEnd,
+                    dstVarAdjust,
+                    dstVarSize,
+                    dstKFd,
+                    dstVFd,
+                    dstIndexOffset,
+                    dstIndexAdjust,
+                    indexBlockCapacity,
+                    srcTimestampFd,
+                    srcTimestampAddr,
+                    srcTimestampSize,
+                    partitionMutates,
+                    tableWriter,
+                    indexWriter
+            );
+            return;
+        }
+
+        final int partCount = (int) ((rowCount + partRows - 1) / partRows);
+        partCounter.set(partCount);
+        int partsPublished = 0;
+        try {
+            for (long partLo = srcOooLo; partLo <= srcOooHi; partLo += partRows) {
+                final long partHi = Math.min(partLo + partRows - 1, srcOooHi);
+                final long partOffset = (partLo - srcOooLo) << shl;
+                partsPublished++;
+                publishCopyTask(
+                        columnCounter,
+                        partCounter,
+                        columnType,
+                        O3_BLOCK_O3,
+                        timestampMergeIndexAddr,
+                        timestampMergeIndexSize,
+                        srcDataFixFd,
+                        srcDataFixAddr,
+                        srcDataFixOffset,
+                        srcDataFixSize,
+                        srcDataVarFd,
+                        srcDataVarAddr,
+                        srcDataVarOffset,
+                        srcDataVarSize,
+                        srcDataLo,
+                        srcDataHi,
+                        srcDataTop,
+                        srcDataMax,
+                        srcOooFixAddr,
+                        srcOooVarAddr,
+                        partLo,
+                        partHi,
+                        srcOooMax,
+                        srcOooPartitionLo,
+                        srcOooPartitionHi,
+                        timestampMin,
+                        timestampMax,
+                        partitionTimestamp,
+                        dstFixFd,
+                        dstFixAddr,
+                        dstFixOffset + partOffset,
+                        dstFixFileOffset + partOffset,
+                        dstFixSize,
+                        dstVarFd,
+                        dstVarAddr,
+                        dstVarOffset,
+                        dstVarOffsetEnd,
+                        dstVarAdjust,
+                        dstVarSize,
+                        dstKFd,
+                        dstVFd,
+                        dstIndexOffset,
+                        dstIndexAdjust,
+                        indexBlockCapacity,
+                        srcTimestampFd,
+                        srcTimestampAddr,
+                        srcTimestampSize,
+                        partitionMutates,
+                        tableWriter,
+                        indexWriter
+                );
+            }
+        } catch (Throwable e) {
+            releaseUnpublishedParts(
+                    partCount - partsPublished,
+                    columnCounter,
+                    partCounter,
+                    timestampMergeIndexAddr,
+                    timestampMergeIndexSize,
+                    srcDataFixFd,
+                    srcDataFixAddr,
+                    srcDataFixSize,
+                    srcDataVarFd,
+                    srcDataVarAddr,
+                    srcDataVarSize,
+                    srcTimestampFd,
+                    srcTimestampAddr,
+                    srcTimestampSize,
+                    dstFixFd,
+                    dstFixAddr,
+                    dstFixSize,
+                    dstVarFd,
+                    dstVarAddr,
+                    dstVarSize,
+                    dstKFd,
+                    dstVFd,
+                    tableWriter
+            );
+            throw e;
+        }
+    }
+
     private static void publishCopyTask(
             AtomicInteger columnCounter,
             @Nullable AtomicInteger partCounter,
@@ -2596,395 +2840,490 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             BitmapIndexWriter indexWriter
     ) {
         final boolean partitionMutates = true;
-        switch (prefixType) {
-            case O3_BLOCK_O3:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        prefixType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        0,
-                        0,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        srcOooFixAddr,
-                        srcOooVarAddr,
-                        prefixLo,
-                        prefixHi,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        0,
-                        0,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        0,
-                        0,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            case O3_BLOCK_DATA:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        prefixType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        prefixLo,
-                        prefixHi,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        0,
-                        0,
-                        0,
-                        0,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        0,
-                        0,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        0,
-                        0,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            default:
-                break;
-        }
+        // nothing is published yet, so the counter holds the number of parts
+        final int partCount = partCounter.get();
+        int partsPublished = 0;
+        try {
+            switch (prefixType) {
+                case O3_BLOCK_O3:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            prefixType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            0,
+                            0,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            srcOooFixAddr,
+                            srcOooVarAddr,
+                            prefixLo,
+                            prefixHi,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            0,
+                            0,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            0,
+                            0,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                case O3_BLOCK_DATA:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            prefixType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            prefixLo,
+                            prefixHi,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            0,
+                            0,
+                            0,
+                            0,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            0,
+                            0,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            0,
+                            0,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                default:
+                    break;
+            }
 
-        switch (mergeType) {
-            case O3_BLOCK_O3:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        mergeType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        0, 0, srcDataTopOffset,
-                        srcDataMax,
-                        srcOooFixAddr,
-                        srcOooVarAddr,
-                        mergeOOOLo,
-                        mergeOOOHi,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        dstFixAppendOffset1,
-                        dstFixAppendOffset1,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        dstVarAppendOffset1,
-                        dstVarAppendOffset2,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            case O3_BLOCK_DATA:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        mergeType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        mergeDataLo,
-                        mergeDataHi,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        0,
-                        0,
-                        0,
-                        0,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        dstFixAppendOffset1,
-                        dstFixAppendOffset1,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        dstVarAppendOffset1,
-                        dstVarAppendOffset2,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            case O3_BLOCK_MERGE:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        mergeType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        mergeDataLo,
-                        mergeDataHi,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        srcOooFixAddr,
-                        srcOooVarAddr,
-                        mergeOOOLo,
-                        mergeOOOHi,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        dstFixAppendOffset1,
-                        dstFixAppendOffset1,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        dstVarAppendOffset1,
-                        dstVarAppendOffset2,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            default:
-                break;
+            switch (mergeType) {
+                case O3_BLOCK_O3:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            mergeType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            0, 0, srcDataTopOffset,
+                            srcDataMax,
+                            srcOooFixAddr,
+                            srcOooVarAddr,
+                            mergeOOOLo,
+                            mergeOOOHi,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            dstFixAppendOffset1,
+                            dstFixAppendOffset1,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            dstVarAppendOffset1,
+                            dstVarAppendOffset2,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                case O3_BLOCK_DATA:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            mergeType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            mergeDataLo,
+                            mergeDataHi,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            0,
+                            0,
+                            0,
+                            0,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            dstFixAppendOffset1,
+                            dstFixAppendOffset1,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            dstVarAppendOffset1,
+                            dstVarAppendOffset2,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                case O3_BLOCK_MERGE:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            mergeType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            mergeDataLo,
+                            mergeDataHi,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            srcOooFixAddr,
+                            srcOooVarAddr,
+                            mergeOOOLo,
+                            mergeOOOHi,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            dstFixAppendOffset1,
+                            dstFixAppendOffset1,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            dstVarAppendOffset1,
+                            dstVarAppendOffset2,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                default:
+                    break;
+            }
+
+            switch (suffixType) {
+                case O3_BLOCK_O3:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            suffixType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            0,
+                            0,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            srcOooFixAddr,
+                            srcOooVarAddr,
+                            suffixLo,
+                            suffixHi,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            dstFixAppendOffset2,
+                            dstFixAppendOffset2,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            dstVarAppendOffset2,
+                            0,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                case O3_BLOCK_DATA:
+                    partsPublished++;
+                    publishCopyTask(
+                            columnCounter,
+                            partCounter,
+                            columnType,
+                            suffixType,
+                            timestampMergeIndexAddr,
+                            timestampMergeIndexSize,
+                            srcDataFixFd,
+                            srcDataFixAddr,
+                            srcDataFixOffset,
+                            srcDataFixSize,
+                            srcDataVarFd,
+                            srcDataVarAddr,
+                            srcDataVarOffset,
+                            srcDataVarSize,
+                            suffixLo,
+                            suffixHi,
+                            srcDataTopOffset,
+                            srcDataMax,
+                            0,
+                            0,
+                            0,
+                            0,
+                            srcOooMax,
+                            srcOooLo,
+                            srcOooHi,
+                            timestampMin,
+                            timestampMax,
+                            partitionTimestamp,
+                            dstFixFd,
+                            dstFixAddr,
+                            dstFixAppendOffset2,
+                            dstFixAppendOffset2,
+                            dstFixSize,
+                            dstVarFd,
+                            dstVarAddr,
+                            dstVarAppendOffset2,
+                            0,
+                            0,
+                            dstVarSize,
+                            dstKFd,
+                            dstVFd,
+                            0,
+                            srcDataTopOffset >> 2,
+                            indexBlockCapacity,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            partitionMutates,
+                            tableWriter,
+                            indexWriter
+                    );
+                    break;
+                default:
+                    break;
+            }
+        } catch (Throwable th) {
+            releaseUnpublishedParts(
+                    partCount - partsPublished,
+                    columnCounter,
+                    partCounter,
+                    timestampMergeIndexAddr,
+                    timestampMergeIndexSize,
+                    srcDataFixFd,
+                    srcDataFixAddr,
+                    srcDataFixSize,
+                    srcDataVarFd,
+                    srcDataVarAddr,
+                    srcDataVarSize,
+                    srcTimestampFd,
+                    srcTimestampAddr,
+                    srcTimestampSize,
+                    dstFixFd,
+                    dstFixAddr,
+                    dstFixSize,
+                    dstVarFd,
+                    dstVarAddr,
+                    dstVarSize,
+                    dstKFd,
+                    dstVFd,
+                    tableWriter
+            );
+            throw th;
         }
+    }
 
-        switch (suffixType) {
-            case O3_BLOCK_O3:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        suffixType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        0,
-                        0,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        srcOooFixAddr,
-                        srcOooVarAddr,
-                        suffixLo,
-                        suffixHi,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        dstFixAppendOffset2,
-                        dstFixAppendOffset2,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        dstVarAppendOffset2,
-                        0,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            case O3_BLOCK_DATA:
-                publishCopyTask(
-                        columnCounter,
-                        partCounter,
-                        columnType,
-                        suffixType,
-                        timestampMergeIndexAddr,
-                        timestampMergeIndexSize,
-                        srcDataFixFd,
-                        srcDataFixAddr,
-                        srcDataFixOffset,
-                        srcDataFixSize,
-                        srcDataVarFd,
-                        srcDataVarAddr,
-                        srcDataVarOffset,
-                        srcDataVarSize,
-                        suffixLo,
-                        suffixHi,
-                        srcDataTopOffset,
-                        srcDataMax,
-                        0,
-                        0,
-                        0,
-                        0,
-                        srcOooMax,
-                        srcOooLo,
-                        srcOooHi,
-                        timestampMin,
-                        timestampMax,
-                        partitionTimestamp,
-                        dstFixFd,
-                        dstFixAddr,
-                        dstFixAppendOffset2,
-                        dstFixAppendOffset2,
-                        dstFixSize,
-                        dstVarFd,
-                        dstVarAddr,
-                        dstVarAppendOffset2,
-                        0,
-                        0,
-                        dstVarSize,
-                        dstKFd,
-                        dstVFd,
-                        0,
-                        srcDataTopOffset >> 2,
-                        indexBlockCapacity,
-                        srcTimestampFd,
-                        srcTimestampAddr,
-                        srcTimestampSize,
-                        partitionMutates,
-                        tableWriter,
-                        indexWriter
-                );
-                break;
-            default:
-                break;
+
+    // Parts of a column share the memory, which is released by the last part to finish. Parts that have
+    // not been published, e.g. because a part copied on the publishing thread failed, never count down,
+    // so the column is released here if they were the last ones.
+    private static void releaseUnpublishedParts(
+            int partsRemaining,
+            AtomicInteger columnCounter,
+            AtomicInteger partCounter,
+            long timestampMergeIndexAddr,
+            long timestampMergeIndexSize,
+            int srcDataFixFd,
+            long srcDataFixAddr,
+            long srcDataFixSize,
+            int srcDataVarFd,
+            long srcDataVarAddr,
+            long srcDataVarSize,
+            int srcTimestampFd,
+            long srcTimestampAddr,
+            long srcTimestampSize,
+            int dstFixFd,
+            long dstFixAddr,
+            long dstFixSize,
+            int dstVarFd,
+            long dstVarAddr,
+            long dstVarSize,
+            int dstKFd,
+            int dstVFd,
+            TableWriter tableWriter
+    ) {
+        if (partsRemaining > 0 && partCounter.addAndGet(-partsRemaining) == 0) {
+            O3CopyJob.copyIdleQuick(
+                    columnCounter,
+                    timestampMergeIndexAddr,
+                    timestampMergeIndexSize,
+                    srcDataFixFd,
+                    srcDataFixAddr,
+                    srcDataFixSize,
+                    srcDataVarFd,
+                    srcDataVarAddr,
+                    srcDataVarSize,
+                    srcTimestampFd,
+                    srcTimestampAddr,
+                    srcTimestampSize,
+                    dstFixFd,
+                    dstFixAddr,
+                    dstFixSize,
+                    dstVarFd,
+                    dstVarAddr,
+                    dstVarSize,
+                    dstKFd,
+                    dstVFd,
+                    tableWriter
+            );
         }
     }
 
@@ -88,6 +88,8 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         long dataTimestampLo;
         long dataTimestampHi;
         final FilesFacade ff = tableWriter.getFilesFacade();
+        // with deduplication rows on equal timestamps must all end up in the merge block
+        final boolean dedup = tableWriter.isDedupEnabled();
 
         if (srcDataMax < 1) {
 
@@ -223,7 +225,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     //   |      |  | OOO |
                     //   |      |  |     |
 
-                    if (o3TimestampLo >= dataTimestampHi) {
+                    if (o3TimestampLo > dataTimestampHi || (o3TimestampLo == dataTimestampHi && !dedup)) {
 
                         // +------+
                         // | data |
@@ -251,7 +253,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         prefixLo = 0;
                         prefixHi = Vect.boundedBinarySearch64Bit(
                                 srcTimestampAddr,
-                                o3TimestampLo,
+                                dedup ? o3TimestampLo - 1 : o3TimestampLo,
                                 0,
                                 srcDataMax - 1,
                                 BinarySearch.SCAN_DOWN
@@ -271,7 +273,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeO3Hi = srcOooHi;
                             mergeDataHi = Vect.boundedBinarySearch64Bit(
                                     srcTimestampAddr,
-                                    o3TimestampMax - 1,
+                                    dedup ? o3TimestampMax : o3TimestampMax - 1,
                                     mergeDataLo,
                                     srcDataMax - 1,
                                     BinarySearch.SCAN_DOWN
@@ -308,7 +310,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                                     dataTimestampHi,
                                     srcOooLo,
                                     srcOooHi,
-                                    BinarySearch.SCAN_UP
+                                    dedup ? BinarySearch.SCAN_DOWN : BinarySearch.SCAN_UP
                             );
 
                             mergeDataHi = srcDataMax - 1;
@@ -343,7 +345,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
 
                     prefixType = O3_BLOCK_O3;
                     prefixLo = srcOooLo;
-                    if (dataTimestampLo < o3TimestampMax) {
+                    if (dataTimestampLo < o3TimestampMax || (dataTimestampLo == o3TimestampMax && dedup)) {
 
                         //
                         //  +------+  | OOO |
@@ -351,9 +353,10 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         //  |      |
 
                         mergeDataLo = 0;
+                        // O3 prefix can be empty when deduplicating
                         prefixHi = Vect.boundedBinarySearchIndexT(
                                 sortedTimestampsAddr,
-                                dataTimestampLo,
+                                dedup ? dataTimestampLo - 1 : dataTimestampLo,
                                 srcOooLo,
                                 srcOooHi,
                                 BinarySearch.SCAN_DOWN
@@ -395,7 +398,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                             mergeDataHi = srcDataMax - 1;
                             mergeO3Hi = Vect.boundedBinarySearchIndexT(
                                     sortedTimestampsAddr,
-                                    dataTimestampHi - 1,
+                                    dedup ? dataTimestampHi : dataTimestampHi - 1,
                                     mergeO3Lo,
                                     srcOooHi,
                                     BinarySearch.SCAN_DOWN
@@ -593,11 +596,11 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
             long mergeDataLo,
             long mergeDataHi,
             long mergeOOOLo,
-            long mergeOOOHi,
-            long indexSize
+            long mergeOOOHi
     ) {
         // Create "index" for existing timestamp column. When we reshuffle timestamps during merge we will
         // have to go back and find data rows we need to move accordingly
+        final long indexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
         final long index = Unsafe.malloc(indexSize, MemoryTag.NATIVE_O3);
         try {
             Vect.makeTimestampIndex(srcDataTimestampAddr, mergeDataLo, mergeDataHi, index);
@@ -607,13 +610,71 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     sortedTimestampsAddr + mergeOOOLo * 16,
                     mergeOOOHi - mergeOOOLo + 1
             );
-            Unsafe.recordMemAlloc(indexSize, MemoryTag.NATIVE_O3);
+            Unsafe.recordMemAlloc(indexSize + (mergeOOOHi - mergeOOOLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES, MemoryTag.NATIVE_O3);
             return ptr;
         } finally {
             Unsafe.free(index, indexSize, MemoryTag.NATIVE_O3);
         }
     }
 
+    private static long dedupMergeIndex(
+            long mergeIndexAddr,
+            long mergeRowCount,
+            ObjList<MemoryMA> columns,
+            ReadOnlyObjList<? extends MemoryCR> oooColumns,
+            Path pathToTable,
+            long partitionTimestamp,
+            long srcDataMax,
+            long srcDataTxn,
+            boolean last,
+            TableWriter tableWriter,
+            O3Dedup dedup
+    ) {
+        if (!O3Dedup.hasDuplicateTimestamps(mergeIndexAddr, 0, mergeRowCount)) {
+            return mergeRowCount;
+        }
+
+        final TableRecordMetadata metadata = tableWriter.getMetadata();
+        final FilesFacade ff = tableWriter.getFilesFacade();
+        final Path path = Path.getThreadLocal2(pathToTable);
+        TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
+        TableUtils.txnPartitionConditionally(path, srcDataTxn);
+        final int plen = path.length();
+        dedup.clear();
+        try {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || i == metadata.getTimestampIndex() || !tableWriter.isDedupKey(i)) {
+                    continue;
+                }
+                final int colOffset = TableWriter.getPrimaryColumnIndex(i);
+                // key columns are read from the partition as it was before the merge
+                final long srcDataTop = last ? tableWriter.getColumnTop(i) : tableWriter.getColumnTop(partitionTimestamp, i, srcDataMax);
+                final long size = (srcDataMax - srcDataTop) << ColumnType.pow2SizeOf(columnType);
+                int fd = -1;
+                long addr = 0;
+                if (size > 0) {
+                    if (last) {
+                        addr = mapRO(ff, columns.getQuick(colOffset).getFd(), size, MemoryTag.MMAP_O3);
+                    } else {
+                        dFile(path.trimTo(plen), metadata.getColumnName(i), tableWriter.getColumnNameTxn(partitionTimestamp, i));
+                        fd = openRO(ff, path, LOG);
+                        try {
+                            addr = mapRO(ff, fd, size, MemoryTag.MMAP_O3);
+                        } catch (Throwable e) {
+                            O3Utils.close(ff, fd);
+                            throw e;
+                        }
+                    }
+                }
+                dedup.addKey(columnType, fd, addr, size, srcDataTop, oooColumns.getQuick(colOffset).addressOf(0));
+            }
+            return dedup.dedup(mergeIndexAddr, mergeRowCount, Long.MAX_VALUE, 0);
+        } finally {
+            dedup.releaseKeys(ff);
+        }
+    }
+
     private static void publishOpenColumnTaskContended(
             long cursor,
             int openColumnMode,
@@ -905,8 +966,7 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
         final long timestampMergeIndexAddr;
         final long timestampMergeIndexSize;
         if (mergeType == O3_BLOCK_MERGE) {
-            timestampMergeIndexSize = (mergeDataHi - mergeDataLo + 1) * TIMESTAMP_MERGE_ENTRY_BYTES;
-            assert timestampMergeIndexSize > 0; // avoid SIGSEGV
+            assert mergeDataHi >= mergeDataLo; // avoid SIGSEGV
 
             timestampMergeIndexAddr = createMergeIndex(
                     srcTimestampAddr,
@@ -914,9 +974,49 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     mergeDataLo,
                     mergeDataHi,
                     mergeOOOLo,
-                    mergeOOOHi,
-                    timestampMergeIndexSize
+                    mergeOOOHi
             );
+            // merge index size is also the number of rows the merge produces
+            long mergeRowCount = mergeDataHi - mergeDataLo + 1 + mergeOOOHi - mergeOOOLo + 1;
+            if (tableWriter.isDedupEnabled()) {
+                final long dedupRowCount;
+                try {
+                    dedupRowCount = dedupMergeIndex(
+                            timestampMergeIndexAddr,
+                            mergeRowCount,
+                            columns,
+                            oooColumns,
+                            pathToTable,
+                            partitionTimestamp,
+                            srcDataMax,
+                            srcDataTxn,
+                            openColumnMode == OPEN_LAST_PARTITION_FOR_MERGE,
+                            tableWriter,
+                            o3Basket.getDedup()
+                    );
+                } catch (Throwable e) {
+                    LOG.error().$("dedup error [table=").utf8(tableWriter.getTableToken().getTableName())
+                            .$(", e=").$(e)
+                            .I$();
+                    tableWriter.o3BumpErrorCount();
+                    O3CopyJob.closeColumnIdleQuick(
+                            timestampMergeIndexAddr,
+                            mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES,
+                            srcTimestampFd,
+                            srcTimestampAddr,
+                            srcTimestampSize,
+                            tableWriter
+                    );
+                    throw e;
+                }
+                if (dedupRowCount < mergeRowCount) {
+                    // merge index is freed with its reduced size
+                    Unsafe.recordMemAlloc(-(mergeRowCount - dedupRowCount) * TIMESTAMP_MERGE_ENTRY_BYTES, MemoryTag.NATIVE_O3);
+                    tableWriter.o3NotifyPartitionDedup(partitionTimestamp, mergeRowCount - dedupRowCount);
+                    mergeRowCount = dedupRowCount;
+                }
+            }
+            timestampMergeIndexSize = mergeRowCount * TIMESTAMP_MERGE_ENTRY_BYTES;
         } else {
             timestampMergeIndexAddr = 0;
             timestampMergeIndexSize = 0;
@@ -40,6 +40,19 @@ public class O3Utils {
 
     private static final Log LOG = LogFactory.getLog(O3Utils.class);
 
+    /**
+     * Assigns jobs that consume partition, column and callback tasks published by TableWriter
+     * during O3 and WAL commits. The task queues are multi-consumer, so these jobs can be assigned
+     * to more than one pool, e.g. to WAL apply pool, to let its idle workers help with the commit
+     * of a single busy table.
+     */
+    public static void setupO3CopyJobs(WorkerPool workerPool, MessageBus messageBus) {
+        workerPool.assign(new O3PartitionJob(messageBus));
+        workerPool.assign(new O3OpenColumnJob(messageBus));
+        workerPool.assign(new O3CopyJob(messageBus));
+        workerPool.assign(new O3CallbackJob(messageBus));
+    }
+
     public static void setupWorkerPool(
             WorkerPool workerPool,
             CairoEngine cairoEngine,
@@ -58,10 +71,7 @@ public class O3Utils {
             workerPool.assign(columnPurgeJob);
         }
 
-        workerPool.assign(new O3PartitionJob(messageBus));
-        workerPool.assign(new O3OpenColumnJob(messageBus));
-        workerPool.assign(new O3CopyJob(messageBus));
-        workerPool.assign(new O3CallbackJob(messageBus));
+        setupO3CopyJobs(workerPool, messageBus);
         workerPool.freeOnExit(purgeDiscoveryJob);
 
         final MicrosecondClock microsecondClock = messageBus.getConfiguration().getMicrosecondClock();
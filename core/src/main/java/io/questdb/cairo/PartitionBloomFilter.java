@@ -0,0 +1,460 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Bloom filters of the values of high-cardinality columns of a single partition. Filters are opt-in,
+ * they are built only for the columns listed in BLOOM FILTER clause of CREATE TABLE. Table writer builds
+ * the filters once the partition is no longer active and stores them in the partition directory,
+ * next to the column files. Readers map the file and probe the filters to find out whether a value
+ * is definitely absent from the partition.
+ * <p>
+ * The file is a sequence of longs: partition row count, entry count, an entry per writer column index
+ * and the bit words of all filters. Each entry holds column type, column name txn, offset and count
+ * of the column's bit words. Filters are sized at {@link #BITS_PER_KEY} bits per row and use
+ * {@link #HASH_COUNT} hash functions, which gives about 1% false positive rate. Null values are not
+ * added to the filters.
+ * <p>
+ * Like zone maps, the filters are only valid while the partition row count and column name txn
+ * match the values they were built for.
+ */
+public class PartitionBloomFilter implements Closeable, Mutable {
+    private static final int BITS_PER_KEY = 10;
+    private static final String BLOOM_FILTER_SWAP_FILE_NAME = "_bf.swp";
+    private static final int ENTRY_COLUMN_NAME_TXN = 1;
+    private static final int ENTRY_COLUMN_TYPE = 0;
+    private static final int ENTRY_SIZE = 4;
+    private static final int ENTRY_WORD_COUNT = 3;
+    private static final int ENTRY_WORD_OFFSET = 2;
+    private static final int HASH_COUNT = 7;
+    private static final int HEADER_ENTRY_COUNT = 1;
+    private static final int HEADER_ROW_COUNT = 0;
+    private static final int HEADER_SIZE = 2;
+    private static final Log LOG = LogFactory.getLog(PartitionBloomFilter.class);
+    // address and size in longs of either the built or the mapped filters
+    private long address;
+    // writer side buffer, allocated on first build
+    private DirectLongList data;
+    private FilesFacade ff;
+    private long mappedSize;
+    private long size;
+
+    public static long hash(long value) {
+        // murmur3 finalizer, bits of the result are used as two independent hashes;
+        // the offset keeps zero, which the finalizer maps to itself, from probing the same bit
+        value += 0x9e3779b97f4a7c15L;
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    public static long hash(long lo, long hi) {
+        return hash(hash(lo) + hi);
+    }
+
+    public static long hash(long l0, long l1, long l2, long l3) {
+        return hash(hash(hash(hash(l0) + l1) + l2) + l3);
+    }
+
+    public static long hash(CharSequence value) {
+        final int len = value.length();
+        long h = len;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return hash(h);
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.UUID:
+            case ColumnType.LONG256:
+            case ColumnType.STRING:
+                return columnType > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Scans column files of the partition and builds Bloom filters of the flagged columns.
+     *
+     * @param ff                  files facade
+     * @param path                path to the partition directory, it is left unchanged
+     * @param partitionTimestamp  timestamp of the partition
+     * @param partitionSize       row count of the partition
+     * @param metadata            writer metadata, column indexes are writer indexes
+     * @param columnVersionReader column tops and name txns of the table
+     */
+    public void build(
+            FilesFacade ff,
+            Path path,
+            long partitionTimestamp,
+            long partitionSize,
+            AbstractRecordMetadata metadata,
+            ColumnVersionReader columnVersionReader
+    ) {
+        clear();
+        if (data == null) {
+            data = new DirectLongList(HEADER_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        // size filters upfront, the entries point to the bit words that follow them
+        final int columnCount = metadata.getColumnCount();
+        long wordOffset = HEADER_SIZE + (long) columnCount * ENTRY_SIZE;
+        long totalSize = wordOffset;
+        for (int i = 0; i < columnCount; i++) {
+            totalSize += wordCount(metadata.getColumnMetadata(i), rowCount(partitionTimestamp, partitionSize, i, columnVersionReader));
+        }
+        if (data.getCapacity() < totalSize) {
+            data.setCapacity(totalSize);
+        }
+        data.setPos(totalSize);
+        data.zero(0);
+        data.set(HEADER_ROW_COUNT, partitionSize);
+        data.set(HEADER_ENTRY_COUNT, columnCount);
+        address = data.getAddress();
+        size = totalSize;
+
+        final int plen = path.length();
+        for (int i = 0; i < columnCount; i++) {
+            final long entryOffset = entryOffset(i);
+            final TableColumnMetadata columnMeta = metadata.getColumnMetadata(i);
+            final int columnType = columnMeta.getType();
+            final long rowCount = rowCount(partitionTimestamp, partitionSize, i, columnVersionReader);
+            final long wordCount = wordCount(columnMeta, rowCount);
+            if (wordCount == 0) {
+                data.set(entryOffset + ENTRY_COLUMN_TYPE, -1);
+                data.set(entryOffset + ENTRY_COLUMN_NAME_TXN, -1);
+                continue;
+            }
+
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+            data.set(entryOffset + ENTRY_COLUMN_TYPE, columnType);
+            data.set(entryOffset + ENTRY_COLUMN_NAME_TXN, columnNameTxn);
+            data.set(entryOffset + ENTRY_WORD_OFFSET, wordOffset);
+            data.set(entryOffset + ENTRY_WORD_COUNT, wordCount);
+            try {
+                if (ColumnType.isString(columnType)) {
+                    scanStr(ff, path, metadata.getColumnName(i), columnNameTxn, rowCount, wordOffset, wordCount);
+                } else {
+                    scanFixed(ff, path, metadata.getColumnName(i), columnNameTxn, columnType, rowCount, wordOffset, wordCount);
+                }
+            } finally {
+                path.trimTo(plen);
+            }
+            wordOffset += wordCount;
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (mappedSize > 0) {
+            ff.munmap(address, mappedSize, MemoryTag.MMAP_INDEX_READER);
+            mappedSize = 0;
+        }
+        address = 0;
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        data = Misc.free(data);
+    }
+
+    /**
+     * @param writerIndex   writer index of the column
+     * @param columnNameTxn name txn of the column in the partition
+     * @return true when there is a Bloom filter for this version of the column
+     */
+    public boolean hasColumn(int writerIndex, long columnNameTxn) {
+        return address != 0
+                && writerIndex < get(HEADER_ENTRY_COUNT)
+                && get(entryOffset(writerIndex) + ENTRY_COLUMN_TYPE) > 0
+                && get(entryOffset(writerIndex) + ENTRY_COLUMN_NAME_TXN) == columnNameTxn;
+    }
+
+    /**
+     * Probes Bloom filter of the column. Column must be checked with {@link #hasColumn} first.
+     *
+     * @param writerIndex writer index of the column
+     * @param hash        hash of the value, as returned by one of the hash methods
+     * @return false when the value is definitely not in the column
+     */
+    public boolean mayContain(int writerIndex, long hash) {
+        final long entryOffset = entryOffset(writerIndex);
+        final long wordOffset = get(entryOffset + ENTRY_WORD_OFFSET);
+        final long bitCount = get(entryOffset + ENTRY_WORD_COUNT) * Long.SIZE;
+        final long h1 = (int) hash;
+        final long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_COUNT; i++) {
+            final long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((get(wordOffset + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps Bloom filters of the partition. Previously mapped filters are released.
+     *
+     * @param ff            files facade
+     * @param path          path to the Bloom filter file
+     * @param partitionSize current row count of the partition
+     * @return false when the file does not exist or was built for different partition row count
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long partitionSize) {
+        clear();
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE * Long.BYTES || len % Long.BYTES != 0) {
+                return false;
+            }
+            address = TableUtils.mapRO(ff, fd, len, MemoryTag.MMAP_INDEX_READER);
+            this.ff = ff;
+            mappedSize = len;
+            size = len / Long.BYTES;
+        } finally {
+            ff.close(fd);
+        }
+
+        if (get(HEADER_ROW_COUNT) != partitionSize || !isValid()) {
+            clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes Bloom filters built by {@link #build} to the partition directory. The file is written
+     * under a temporary name first, so that readers never see partially written filters.
+     *
+     * @param ff    files facade
+     * @param path  path to the partition directory, it is left unchanged
+     * @param other scratch path
+     * @param opts  file open options
+     */
+    public void write(FilesFacade ff, Path path, Path other, long opts) {
+        final int plen = path.length();
+        try {
+            other.of(path).concat(BLOOM_FILTER_SWAP_FILE_NAME).$();
+            if (ff.exists(other) && !ff.remove(other)) {
+                throw CairoException.critical(ff.errno()).put("could not remove [file=").put(other).put(']');
+            }
+            final int fd = TableUtils.openRW(ff, other, LOG, opts);
+            try {
+                final long len = size * Long.BYTES;
+                if (ff.write(fd, address, len, 0) != len) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(other).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            TableUtils.renameOrFail(ff, other, path.concat(TableUtils.BLOOM_FILTER_FILE_NAME).$());
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static long entryOffset(int writerIndex) {
+        return HEADER_SIZE + (long) writerIndex * ENTRY_SIZE;
+    }
+
+    private static long hashStr(long addr, int len) {
+        // same as hash(CharSequence) over UTF-16 chars stored in the column
+        long h = len;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + Unsafe.getUnsafe().getChar(addr + ((long) i << 1));
+        }
+        return hash(h);
+    }
+
+    private static long rowCount(long partitionTimestamp, long partitionSize, int writerIndex, ColumnVersionReader columnVersionReader) {
+        final long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, writerIndex);
+        // rows of column top are nulls and are not added to the filter
+        return columnTop < 0 ? -1 : partitionSize - Math.min(columnTop, partitionSize);
+    }
+
+    private static long wordCount(TableColumnMetadata columnMeta, long rowCount) {
+        if (!columnMeta.isBloomFilter() || !isSupported(columnMeta.getType()) || rowCount < 0) {
+            return 0;
+        }
+        return Math.max(1, (rowCount * BITS_PER_KEY + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    private void add(long wordOffset, long wordCount, long hash) {
+        final long bitCount = wordCount * Long.SIZE;
+        final long h1 = (int) hash;
+        final long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_COUNT; i++) {
+            final long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            final long p = wordOffset + (bit >>> 6);
+            data.set(p, data.get(p) | (1L << bit));
+        }
+    }
+
+    private long get(long p) {
+        return Unsafe.getUnsafe().getLong(address + p * Long.BYTES);
+    }
+
+    private boolean isValid() {
+        final long entryCount = get(HEADER_ENTRY_COUNT);
+        if (entryCount < 0 || HEADER_SIZE + entryCount * ENTRY_SIZE > size) {
+            return false;
+        }
+        for (int i = 0; i < entryCount; i++) {
+            final long entryOffset = entryOffset(i);
+            if (get(entryOffset + ENTRY_COLUMN_TYPE) > 0) {
+                final long wordOffset = get(entryOffset + ENTRY_WORD_OFFSET);
+                final long wordCount = get(entryOffset + ENTRY_WORD_COUNT);
+                if (wordCount < 1 || wordOffset < HEADER_SIZE || wordOffset + wordCount > size) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void scanFixed(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long rowCount,
+            long wordOffset,
+            long wordCount
+    ) {
+        if (rowCount == 0) {
+            return;
+        }
+        final long len = rowCount << ColumnType.pow2SizeOf(columnType);
+        try (MemoryCMR mem = TableUtils.openColumnRO(ff, path, columnName, columnNameTxn, len, MemoryTag.MMAP_TABLE_WRITER)) {
+            final long addr = mem.getPageAddress(0);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.LONG:
+                    for (long i = 0; i < rowCount; i++) {
+                        final long value = Unsafe.getUnsafe().getLong(addr + (i << 3));
+                        if (value != Numbers.LONG_NaN) {
+                            add(wordOffset, wordCount, hash(value));
+                        }
+                    }
+                    break;
+                case ColumnType.UUID:
+                    for (long i = 0; i < rowCount; i++) {
+                        final long p = addr + (i << 4);
+                        final long lo = Unsafe.getUnsafe().getLong(p);
+                        final long hi = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                        if (!Uuid.isNull(lo, hi)) {
+                            add(wordOffset, wordCount, hash(lo, hi));
+                        }
+                    }
+                    break;
+                default:
+                    for (long i = 0; i < rowCount; i++) {
+                        final long p = addr + (i << 5);
+                        final long l0 = Unsafe.getUnsafe().getLong(p);
+                        final long l1 = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                        final long l2 = Unsafe.getUnsafe().getLong(p + 2 * Long.BYTES);
+                        final long l3 = Unsafe.getUnsafe().getLong(p + 3 * Long.BYTES);
+                        if (l0 != Numbers.LONG_NaN || l1 != Numbers.LONG_NaN || l2 != Numbers.LONG_NaN || l3 != Numbers.LONG_NaN) {
+                            add(wordOffset, wordCount, hash(l0, l1, l2, l3));
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void scanStr(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            long rowCount,
+            long wordOffset,
+            long wordCount
+    ) {
+        if (rowCount == 0) {
+            return;
+        }
+        final int plen = path.length();
+        final long indexLen = rowCount * Long.BYTES;
+        final int indexFd = TableUtils.openRO(ff, TableUtils.iFile(path, columnName, columnNameTxn), LOG);
+        path.trimTo(plen);
+        try {
+            final long indexAddr = TableUtils.mapRO(ff, indexFd, indexLen, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                final int dataFd = TableUtils.openRO(ff, TableUtils.dFile(path, columnName, columnNameTxn), LOG);
+                try {
+                    final long dataLen = ff.length(dataFd);
+                    final long lastOffset = Unsafe.getUnsafe().getLong(indexAddr + indexLen - Long.BYTES);
+                    if (dataLen < lastOffset + Integer.BYTES) {
+                        throw CairoException.critical(0).put("string column data is too short [file=").put(path)
+                                .put(", size=").put(dataLen)
+                                .put(", offset=").put(lastOffset)
+                                .put(']');
+                    }
+                    final long dataAddr = TableUtils.mapRO(ff, dataFd, dataLen, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        for (long i = 0; i < rowCount; i++) {
+                            final long offset = Unsafe.getUnsafe().getLong(indexAddr + i * Long.BYTES);
+                            final int len = Unsafe.getUnsafe().getInt(dataAddr + offset);
+                            if (len >= 0 && offset + Integer.BYTES + (long) len * Character.BYTES <= dataLen) {
+                                add(wordOffset, wordCount, hashStr(dataAddr + offset + Integer.BYTES, len));
+                            }
+                        }
+                    } finally {
+                        ff.munmap(dataAddr, dataLen, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                } finally {
+                    ff.close(dataFd);
+                }
+            } finally {
+                ff.munmap(indexAddr, indexLen, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(indexFd);
+        }
+    }
+}
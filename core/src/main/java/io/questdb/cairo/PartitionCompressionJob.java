@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.ObjList;
+import io.questdb.tasks.PartitionCompressionTask;
+
+/**
+ * Compresses inactive partitions of tables in the background. Table writers publish the table
+ * after a commit that leaves a partition to compress. Each run compresses a single partition of
+ * one of the tables, whose writer is borrowed from the pool. Tables whose writers are busy are
+ * retried on the next runs, until they have no partitions left to compress.
+ */
+public class PartitionCompressionJob extends SynchronizedJob {
+    private static final Log LOG = LogFactory.getLog(PartitionCompressionJob.class);
+    private static final String LOCK_REASON = "partitionCompression";
+    private final CairoEngine engine;
+    private final RingQueue<PartitionCompressionTask> queue;
+    private final Sequence subSeq;
+    private final ObjList<TableToken> tables = new ObjList<>();
+    private int tableIndex;
+
+    public PartitionCompressionJob(CairoEngine engine) {
+        this.engine = engine;
+        this.queue = engine.getMessageBus().getPartitionCompressionQueue();
+        this.subSeq = engine.getMessageBus().getPartitionCompressionSubSeq();
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            final TableToken tableToken = queue.get(cursor).getTableToken();
+            subSeq.done(cursor);
+            if (tables.indexOf(tableToken) < 0) {
+                tables.add(tableToken);
+            }
+            useful = true;
+        }
+
+        if (tables.size() == 0) {
+            return useful;
+        }
+        if (tableIndex >= tables.size()) {
+            tableIndex = 0;
+        }
+        final TableToken tableToken = tables.getQuick(tableIndex);
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableToken, LOCK_REASON)) {
+            if (writer.compressNextPartition()) {
+                return true;
+            }
+            tables.remove(tableIndex);
+        } catch (EntryUnavailableException e) {
+            // writer is busy, try the next table
+            tableIndex++;
+        } catch (CairoException e) {
+            LOG.error().$("could not compress partition [table=").utf8(tableToken.getDirName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            tables.remove(tableIndex);
+        }
+        return useful;
+    }
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Min/max statistics of the columns of a single partition. Table writer builds zone map once
+ * the partition is no longer active and stores it in the partition directory, next to the column files.
+ * <p>
+ * The file is a sequence of longs: partition row count, entry count and an entry per writer
+ * column index. Each entry holds column type, column name txn, min, max and null count.
+ * Integer values, including symbol keys, are stored as is and null sentinels take part in the range,
+ * which keeps the range conservative. Double values are stored as double bits,
+ * NaNs are counted as nulls and are excluded from the range.
+ * <p>
+ * Zone map is only valid while the partition row count and column name txn match the values
+ * it was built for, e.g. O3 append to the partition or UPDATE of the column invalidate it.
+ */
+public class PartitionZoneMap implements Closeable, Mutable {
+    private static final int ENTRY_COLUMN_NAME_TXN = 1;
+    private static final int ENTRY_COLUMN_TYPE = 0;
+    private static final int ENTRY_MAX = 3;
+    private static final int ENTRY_MIN = 2;
+    private static final int ENTRY_NULL_COUNT = 4;
+    private static final int ENTRY_SIZE = 5;
+    private static final int HEADER_ENTRY_COUNT = 1;
+    private static final int HEADER_ROW_COUNT = 0;
+    private static final int HEADER_SIZE = 2;
+    private static final Log LOG = LogFactory.getLog(PartitionZoneMap.class);
+    private static final String ZONE_MAP_SWAP_FILE_NAME = "_zm.swp";
+    private final DirectLongList data = new DirectLongList(HEADER_SIZE, MemoryTag.NATIVE_DEFAULT);
+    private long max;
+    private long min;
+    private long nullCount;
+
+    public static boolean isDouble(int columnType) {
+        return ColumnType.tagOf(columnType) == ColumnType.DOUBLE;
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.SYMBOL:
+            case ColumnType.DOUBLE:
+                return columnType > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Scans column files of the partition and collects min/max statistics of the supported columns.
+     *
+     * @param ff                  files facade
+     * @param path                path to the partition directory, it is left unchanged
+     * @param partitionTimestamp  timestamp of the partition
+     * @param partitionSize       row count of the partition
+     * @param metadata            writer metadata, column indexes are writer indexes
+     * @param columnVersionReader column tops and name txns of the table
+     */
+    public void build(
+            FilesFacade ff,
+            Path path,
+            long partitionTimestamp,
+            long partitionSize,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader
+    ) {
+        final int columnCount = metadata.getColumnCount();
+        final int plen = path.length();
+        data.clear();
+        data.add(partitionSize);
+        data.add(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            long columnTop = columnVersionReader.getColumnTop(partitionTimestamp, i);
+            if (!isSupported(columnType) || columnTop < 0) {
+                data.add(-1);
+                data.add(-1);
+                data.add(0);
+                data.add(0);
+                data.add(0);
+                continue;
+            }
+
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, i);
+            final long rowCount = partitionSize - Math.min(columnTop, partitionSize);
+            resetRange(columnType);
+            if (rowCount < partitionSize) {
+                addNulls(columnType, partitionSize - rowCount);
+            }
+            if (rowCount > 0) {
+                final long size = rowCount << ColumnType.pow2SizeOf(columnType);
+                try (MemoryCMR mem = TableUtils.openColumnRO(ff, path.trimTo(plen), metadata.getColumnName(i), columnNameTxn, size, MemoryTag.MMAP_TABLE_WRITER)) {
+                    scan(columnType, mem.getPageAddress(0), rowCount);
+                }
+            }
+            data.add(columnType);
+            data.add(columnNameTxn);
+            data.add(min);
+            data.add(max);
+            data.add(nullCount);
+        }
+    }
+
+    @Override
+    public void clear() {
+        data.clear();
+    }
+
+    @Override
+    public void close() {
+        data.close();
+    }
+
+    public int getColumnType(int writerIndex) {
+        return (int) data.get(entryOffset(writerIndex) + ENTRY_COLUMN_TYPE);
+    }
+
+    public long getMax(int writerIndex) {
+        return data.get(entryOffset(writerIndex) + ENTRY_MAX);
+    }
+
+    public long getMin(int writerIndex) {
+        return data.get(entryOffset(writerIndex) + ENTRY_MIN);
+    }
+
+    public long getNullCount(int writerIndex) {
+        return data.get(entryOffset(writerIndex) + ENTRY_NULL_COUNT);
+    }
+
+    /**
+     * @param writerIndex   writer index of the column
+     * @param columnNameTxn name txn of the column in the partition
+     * @return true when the zone map has statistics for this version of the column
+     */
+    public boolean hasColumn(int writerIndex, long columnNameTxn) {
+        return writerIndex < data.get(HEADER_ENTRY_COUNT)
+                && getColumnType(writerIndex) > 0
+                && data.get(entryOffset(writerIndex) + ENTRY_COLUMN_NAME_TXN) == columnNameTxn;
+    }
+
+    /**
+     * Reads zone map of the partition.
+     *
+     * @param ff            files facade
+     * @param path          path to the zone map file
+     * @param partitionSize current row count of the partition
+     * @return false when zone map file does not exist or was built for different partition row count
+     */
+    public boolean of(FilesFacade ff, LPSZ path, long partitionSize) {
+        data.clear();
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            final long len = ff.length(fd);
+            if (len < HEADER_SIZE * Long.BYTES || len % Long.BYTES != 0) {
+                return false;
+            }
+            final long longCount = len / Long.BYTES;
+            if (data.getCapacity() < longCount) {
+                data.setCapacity(longCount);
+            }
+            if (ff.read(fd, data.getAddress(), len, 0) != len) {
+                return false;
+            }
+            data.setPos(longCount);
+        } finally {
+            ff.close(fd);
+        }
+
+        if (data.get(HEADER_ROW_COUNT) != partitionSize
+                || HEADER_SIZE + data.get(HEADER_ENTRY_COUNT) * ENTRY_SIZE != data.size()) {
+            data.clear();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes zone map collected by {@link #build} to the partition directory. The file is written
+     * under a temporary name first, so that readers never see partially written zone map.
+     *
+     * @param ff    files facade
+     * @param path  path to the partition directory, it is left unchanged
+     * @param other scratch path
+     * @param opts  file open options
+     */
+    public void write(FilesFacade ff, Path path, Path other, long opts) {
+        final int plen = path.length();
+        try {
+            other.of(path).concat(ZONE_MAP_SWAP_FILE_NAME).$();
+            if (ff.exists(other) && !ff.remove(other)) {
+                throw CairoException.critical(ff.errno()).put("could not remove [file=").put(other).put(']');
+            }
+            final int fd = TableUtils.openRW(ff, other, LOG, opts);
+            try {
+                final long len = data.size() * Long.BYTES;
+                if (ff.write(fd, data.getAddress(), len, 0) != len) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(other).put(']');
+                }
+            } finally {
+                ff.close(fd);
+            }
+            TableUtils.renameOrFail(ff, other, path.concat(TableUtils.ZONE_MAP_FILE_NAME).$());
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
+    private static long entryOffset(int writerIndex) {
+        return HEADER_SIZE + (long) writerIndex * ENTRY_SIZE;
+    }
+
+    private void addNulls(int columnType, long count) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+                // column top of byte and short columns reads as 0
+                updateRange(0);
+                break;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                updateRange(Numbers.INT_NaN);
+                nullCount += count;
+                break;
+            case ColumnType.DOUBLE:
+                nullCount += count;
+                break;
+            default:
+                updateRange(Numbers.LONG_NaN);
+                nullCount += count;
+                break;
+        }
+    }
+
+    private void resetRange(int columnType) {
+        if (isDouble(columnType)) {
+            min = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+            max = Double.doubleToLongBits(Double.NEGATIVE_INFINITY);
+        } else {
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+        nullCount = 0;
+    }
+
+    private void scan(int columnType, long addr, long rowCount) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+                for (long i = 0; i < rowCount; i++) {
+                    updateRange(Unsafe.getUnsafe().getByte(addr + i));
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long i = 0; i < rowCount; i++) {
+                    updateRange(Unsafe.getUnsafe().getShort(addr + (i << 1)));
+                }
+                break;
+            case ColumnType.INT:
+            case ColumnType.SYMBOL:
+                for (long i = 0; i < rowCount; i++) {
+                    final int value = Unsafe.getUnsafe().getInt(addr + (i << 2));
+                    if (value == Numbers.INT_NaN) {
+                        nullCount++;
+                    }
+                    updateRange(value);
+                }
+                break;
+            case ColumnType.DOUBLE:
+                double lo = Double.longBitsToDouble(min);
+                double hi = Double.longBitsToDouble(max);
+                for (long i = 0; i < rowCount; i++) {
+                    final double value = Unsafe.getUnsafe().getDouble(addr + (i << 3));
+                    if (value != value) {
+                        nullCount++;
+                    } else {
+                        lo = Math.min(lo, value);
+                        hi = Math.max(hi, value);
+                    }
+                }
+                min = Double.doubleToLongBits(lo);
+                max = Double.doubleToLongBits(hi);
+                break;
+            default:
+                for (long i = 0; i < rowCount; i++) {
+                    final long value = Unsafe.getUnsafe().getLong(addr + (i << 3));
+                    if (value == Numbers.LONG_NaN) {
+                        nullCount++;
+                    }
+                    updateRange(value);
+                }
+                break;
+        }
+    }
+
+    private void updateRange(long value) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+}
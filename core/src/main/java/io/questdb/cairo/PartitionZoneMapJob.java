@@ -0,0 +1,96 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.ObjList;
+import io.questdb.tasks.PartitionZoneMapTask;
+
+/**
+ * Builds zone maps and Bloom filters of sealed partitions in the background, so that commits
+ * do not scan column files. Table writers publish the table after a commit that seals or changes
+ * an inactive partition. Each run processes a single partition of one of the tables, whose writer
+ * is borrowed from the pool. Tables whose writers are busy are retried on the next runs, until
+ * they have no partitions left to process. Until then queries scan such partitions in full.
+ */
+public class PartitionZoneMapJob extends SynchronizedJob {
+    private static final Log LOG = LogFactory.getLog(PartitionZoneMapJob.class);
+    private static final String LOCK_REASON = "partitionZoneMap";
+    private final CairoEngine engine;
+    private final RingQueue<PartitionZoneMapTask> queue;
+    private final Sequence subSeq;
+    private final ObjList<TableToken> tables = new ObjList<>();
+    private int tableIndex;
+
+    public PartitionZoneMapJob(CairoEngine engine) {
+        this.engine = engine;
+        this.queue = engine.getMessageBus().getPartitionZoneMapQueue();
+        this.subSeq = engine.getMessageBus().getPartitionZoneMapSubSeq();
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            final TableToken tableToken = queue.get(cursor).getTableToken();
+            subSeq.done(cursor);
+            if (tables.indexOf(tableToken) < 0) {
+                tables.add(tableToken);
+            }
+            useful = true;
+        }
+
+        if (tables.size() == 0) {
+            return useful;
+        }
+        if (tableIndex >= tables.size()) {
+            tableIndex = 0;
+        }
+        final TableToken tableToken = tables.getQuick(tableIndex);
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, tableToken, LOCK_REASON)) {
+            if (writer.buildNextZoneMap()) {
+                return true;
+            }
+            tables.remove(tableIndex);
+        } catch (EntryUnavailableException e) {
+            // writer is busy, try the next table
+            tableIndex++;
+        } catch (CairoException e) {
+            LOG.error().$("could not build zone map [table=").utf8(tableToken.getDirName())
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            tables.remove(tableIndex);
+        }
+        return useful;
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary file used by in-memory SQL data structures, such as maps, record chains and
+ * sort trees, to spill their contents to disk once they reach the configured in-memory limit.
+ * The file is mapped in read-write mode, so the structures keep addressing their data
+ * directly while the OS is free to write spilled pages out and evict them.
+ * <p>
+ * A spill file is used either as a single contiguous region, see {@link #remap(long)},
+ * or as a sequence of independently mapped pages, see {@link #mapPage(long)}, but never both.
+ * The file is created lazily on the first spill and removed when the owner is closed.
+ */
+public class SpillFile implements Closeable, Mutable {
+
+    private static final AtomicLong FILE_ID = new AtomicLong();
+    private static final Log LOG = LogFactory.getLog(SpillFile.class);
+    private static final AtomicLong SPILLED_BYTES_TOTAL = new AtomicLong();
+    private final FilesFacade ff;
+    private final int mkDirMode;
+    // Address-size pairs of the mapped pages.
+    private final LongList pages = new LongList();
+    private final CharSequence spillRoot;
+    private long address;
+    private int fd = -1;
+    private long fileSize;
+    private String fileName;
+    private long size;
+
+    public SpillFile(FilesFacade ff, CharSequence spillRoot, int mkDirMode) {
+        this.ff = ff;
+        this.spillRoot = spillRoot;
+        this.mkDirMode = mkDirMode;
+    }
+
+    /**
+     * Number of bytes currently held in spill files, across all queries.
+     */
+    public static long getSpilledBytes() {
+        return Unsafe.getMemUsedByTag(MemoryTag.MMAP_SQL_SPILL);
+    }
+
+    /**
+     * Total number of bytes written to spill files since the start, across all queries.
+     */
+    public static long getSpilledBytesTotal() {
+        return SPILLED_BYTES_TOTAL.get();
+    }
+
+    @Nullable
+    public static SpillFile newInstance(CairoConfiguration configuration) {
+        final CharSequence spillRoot = configuration.getSqlSpillRoot();
+        if (spillRoot == null) {
+            return null;
+        }
+        return new SpillFile(configuration.getFilesFacade(), spillRoot, configuration.getMkDirMode());
+    }
+
+    /**
+     * Unmaps all spilled memory and truncates the file. The file is kept open
+     * to be reused by the next spill.
+     */
+    @Override
+    public void clear() {
+        if (address != 0) {
+            ff.munmap(address, size, MemoryTag.MMAP_SQL_SPILL);
+            address = 0;
+            size = 0;
+        }
+        for (int i = 0, n = pages.size(); i < n; i += 2) {
+            ff.munmap(pages.getQuick(i), pages.getQuick(i + 1), MemoryTag.MMAP_SQL_SPILL);
+        }
+        pages.clear();
+        if (fd != -1 && fileSize > 0) {
+            ff.truncate(fd, 0);
+            fileSize = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (fd != -1) {
+            ff.close(fd);
+            fd = -1;
+            if (!ff.remove(Path.getThreadLocal(spillRoot).concat(fileName).$())) {
+                LOG.error().$("could not remove spill file [path=").$(spillRoot).$(Files.SEPARATOR).$(fileName)
+                        .$(", errno=").$(ff.errno()).I$();
+            }
+        }
+    }
+
+    public long getSize() {
+        return address != 0 ? size : fileSize;
+    }
+
+    /**
+     * Extends the file by a page and maps it independently of the previously mapped pages,
+     * so that their addresses remain stable.
+     *
+     * @param pageSize size of the page
+     * @return page address
+     */
+    public long mapPage(long pageSize) {
+        assert address == 0;
+        open();
+        final long osPageSize = ff.getPageSize();
+        final long offset = (fileSize + osPageSize - 1) / osPageSize * osPageSize;
+        final long pageAddress = TableUtils.mapRW(ff, fd, pageSize, offset, MemoryTag.MMAP_SQL_SPILL);
+        pages.add(pageAddress, pageSize);
+        SPILLED_BYTES_TOTAL.addAndGet(offset + pageSize - fileSize);
+        fileSize = offset + pageSize;
+        return pageAddress;
+    }
+
+    /**
+     * Resizes the contiguous spilled region. The region may move, the caller is responsible
+     * for copying data into the region when it spills for the first time.
+     *
+     * @param newSize new region size
+     * @return region address
+     */
+    public long remap(long newSize) {
+        assert pages.size() == 0;
+        open();
+        if (newSize > fileSize) {
+            TableUtils.allocateDiskSpace(ff, fd, newSize);
+            SPILLED_BYTES_TOTAL.addAndGet(newSize - fileSize);
+            fileSize = newSize;
+        }
+        if (address == 0) {
+            address = TableUtils.mapRW(ff, fd, newSize, MemoryTag.MMAP_SQL_SPILL);
+        } else {
+            address = TableUtils.mremap(ff, fd, address, size, newSize, Files.MAP_RW, MemoryTag.MMAP_SQL_SPILL);
+        }
+        size = newSize;
+        return address;
+    }
+
+    private void open() {
+        if (fd != -1) {
+            return;
+        }
+        final Path path = Path.getThreadLocal(spillRoot);
+        if (!ff.exists(path.slash$()) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(spillRoot).put(']');
+        }
+        fileName = "sql_spill_" + FILE_ID.incrementAndGet() + ".tmp";
+        fd = ff.openCleanRW(path.trimTo(spillRoot.length()).concat(fileName).$(), 0);
+        if (fd == -1) {
+            throw CairoException.critical(ff.errno()).put("could not open spill file [path=").put(path).put(']');
+        }
+        fileSize = 0;
+        LOG.info().$("spilling to disk [path=").$(path).I$();
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryCMRDecompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -442,6 +443,60 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    /**
+     * Maps Bloom filters of the partition. Partition must be open.
+     *
+     * @param partitionIndex index of the partition
+     * @param bloomFilter    Bloom filter to map the file into
+     * @return false when partition has no valid Bloom filters
+     */
+    public boolean readBloomFilter(int partitionIndex, PartitionBloomFilter bloomFilter) {
+        final long partitionSize = getPartitionRowCount(partitionIndex);
+        if (partitionSize < 1) {
+            return false;
+        }
+        final Path path = pathGenOpenPartition(partitionIndex);
+        try {
+            return bloomFilter.of(ff, path.concat(TableUtils.BLOOM_FILTER_FILE_NAME).$(), partitionSize);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Maps latest rows of the SYMBOL column tuples stored by table writer.
+     *
+     * @param latestBy latest rows to map the file into
+     * @return false when the stored rows were not written for the txn of this reader
+     */
+    public boolean readLatestByMaterialization(LatestByMaterialization latestBy) {
+        try {
+            return latestBy.of(ff, path.concat(TableUtils.LATEST_BY_FILE_NAME).$(), txn);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Reads zone map of the partition. Partition must be open.
+     *
+     * @param partitionIndex index of the partition
+     * @param zoneMap        zone map to read into
+     * @return false when partition has no valid zone map
+     */
+    public boolean readZoneMap(int partitionIndex, PartitionZoneMap zoneMap) {
+        final long partitionSize = getPartitionRowCount(partitionIndex);
+        if (partitionSize < 1) {
+            return false;
+        }
+        final Path path = pathGenOpenPartition(partitionIndex);
+        try {
+            return zoneMap.of(ff, path.concat(TableUtils.ZONE_MAP_FILE_NAME).$(), partitionSize);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public boolean reload() {
         if (acquireTxn()) {
             return false;
@@ -870,6 +925,12 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private Path pathGenOpenPartition(int partitionIndex) {
+        final Path path = pathGenPartitioned(partitionIndex);
+        TableUtils.txnPartitionConditionally(path, openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_NAME_TXN));
+        return path;
+    }
+
     private Path pathGenPartitioned(int partitionIndex) {
         formatPartitionDirName(partitionIndex, path.slash());
         return path;
@@ -1026,8 +1087,21 @@ public class TableReader implements Closeable, SymbolTableSource {
                     openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
-                    TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    if (txFile.isPartitionCompressed(partitionIndex) && ff.exists(TableUtils.dzFile(path.trimTo(plen), name, columnTxn))) {
+                        if (!(mem1 instanceof MemoryCMRDecompressedImpl)) {
+                            Misc.free(mem1);
+                            mem1 = new MemoryCMRDecompressedImpl();
+                            columns.setQuick(primaryIndex, mem1);
+                        }
+                        mem1.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
+                    } else {
+                        if (mem1 instanceof MemoryCMRDecompressedImpl) {
+                            // partition has been decompressed by the writer
+                            mem1 = Misc.free(mem1);
+                        }
+                        TableUtils.dFile(path.trimTo(plen), name, columnTxn);
+                        openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    }
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
@@ -1131,7 +1205,8 @@ public class TableReader implements Closeable, SymbolTableSource {
             for (int i = 0; i < columnCount; i++) {
                 final int index = getPrimaryColumnIndex(columnBase, i);
                 final MemoryMR mem1 = columns.getQuick(index);
-                if (mem1 instanceof NullMemoryMR) {
+                if (mem1 instanceof NullMemoryMR || mem1 instanceof MemoryCMRDecompressedImpl) {
+                    // decompressed columns cannot grow, they are reopened instead
                     reloadColumnAt(
                             partitionIndex,
                             path,
@@ -118,17 +118,18 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
                         || existing.isIndexed() != isIndexed
                         || existing.getIndexValueBlockCapacity() != indexBlockCapacity
                 ) {
-                    columnMetadata.setQuick(existingIndex - shiftLeft,
-                            new TableColumnMetadata(
-                                    newName,
-                                    columnType,
-                                    isIndexed,
-                                    indexBlockCapacity,
-                                    true,
-                                    null,
-                                    metaIndex
-                            )
+                    TableColumnMetadata columnMeta = new TableColumnMetadata(
+                            newName,
+                            columnType,
+                            isIndexed,
+                            indexBlockCapacity,
+                            true,
+                            null,
+                            metaIndex
                     );
+                    columnMeta.setDedupKey(TableUtils.isColumnDedupKey(metaMem, metaIndex));
+                    columnMeta.setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, metaIndex));
+                    columnMetadata.setQuick(existingIndex - shiftLeft, columnMeta);
                 } else if (shiftLeft > 0) {
                     columnMetadata.setQuick(existingIndex - shiftLeft, existing);
                 }
@@ -301,17 +302,18 @@ public class TableReaderMetadata extends AbstractRecordMetadata implements Table
                 assert name != null;
                 int columnType = TableUtils.getColumnType(metaMem, i);
                 if (columnType > -1) {
-                    columnMetadata.add(
-                            new TableColumnMetadata(
-                                    Chars.toString(name),
-                                    columnType,
-                                    TableUtils.isColumnIndexed(metaMem, i),
-                                    TableUtils.getIndexBlockCapacity(metaMem, i),
-                                    true,
-                                    null,
-                                    i
-                            )
+                    TableColumnMetadata columnMeta = new TableColumnMetadata(
+                            Chars.toString(name),
+                            columnType,
+                            TableUtils.isColumnIndexed(metaMem, i),
+                            TableUtils.getIndexBlockCapacity(metaMem, i),
+                            true,
+                            null,
+                            i
                     );
+                    columnMeta.setDedupKey(TableUtils.isColumnDedupKey(metaMem, i));
+                    columnMeta.setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, i));
+                    columnMetadata.add(columnMeta);
                     if (i == timestampIndex) {
                         this.timestampIndex = columnMetadata.size() - 1;
                     }
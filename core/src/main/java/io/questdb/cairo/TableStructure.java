@@ -40,6 +40,21 @@ public interface TableStructure extends TableDescriptor {
 
     CharSequence getTableName();
 
+    /**
+     * Table writer builds Bloom filters of sealed partitions only for the flagged columns.
+     */
+    default boolean isBloomFilter(int columnIndex) {
+        return false;
+    }
+
+    /**
+     * Columns flagged as dedup keys, together with the designated timestamp, identify a row. Rows
+     * sharing all key values are collapsed on commit and the last written row is kept.
+     */
+    default boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     boolean isIndexed(int columnIndex);
 
     boolean isSequential(int columnIndex);
@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.MemoryCMRDecompressedImpl;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.*;
 import io.questdb.griffin.AnyRecordMetadata;
@@ -55,13 +56,16 @@ public final class TableUtils {
     public static final int ANY_TABLE_ID = -1;
     public static final int ANY_TABLE_VERSION = -1;
     public static final String ATTACHABLE_DIR_MARKER = ".attachable";
+    public static final String BLOOM_FILTER_FILE_NAME = "_bf";
     public static final long COLUMN_NAME_TXN_NONE = -1L;
     public static final String COLUMN_VERSION_FILE_NAME = "_cv";
     public static final String DEFAULT_PARTITION_NAME = "default";
     public static final String DETACHED_DIR_MARKER = ".detached";
     public static final String FILE_SUFFIX_D = ".d";
+    public static final String FILE_SUFFIX_DZ = ".dz";
     public static final String FILE_SUFFIX_I = ".i";
     public static final int INITIAL_TXN = 0;
+    public static final String LATEST_BY_FILE_NAME = "_latest";
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
     public static final long META_COLUMN_DATA_SIZE = 32;
@@ -112,7 +116,10 @@ public final class TableUtils {
     public static final long TX_OFFSET_SEQ_TXN_64 = TX_OFFSET_TRUNCATE_VERSION_64 + 8;
     public static final int TX_RECORD_HEADER_SIZE = (int) TX_OFFSET_MAP_WRITER_COUNT_32 + Integer.BYTES;
     public static final String UPGRADE_FILE_NAME = "_upgrade.d";
+    public static final String ZONE_MAP_FILE_NAME = "_zm";
     static final int COLUMN_VERSION_FILE_HEADER_SIZE = 40;
+    static final int META_FLAG_BIT_BLOOM_FILTER = 1 << 3;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
@@ -433,6 +440,14 @@ public final class TableUtils {
         return dFile(path, columnName, COLUMN_NAME_TXN_NONE);
     }
 
+    public static LPSZ dzFile(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_DZ);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     public static int exists(FilesFacade ff, Path path, CharSequence root, CharSequence name) {
         return exists(ff, path.of(root).concat(name).$());
     }
@@ -827,6 +842,36 @@ public final class TableUtils {
         path.put("-x-").put(txn);
     }
 
+    /**
+     * Opens fixed-size column of a partition for reading. Compressed partitions may keep the column
+     * in a .dz file only, such column is decoded into the returned memory, see {@link ColumnCodec}.
+     *
+     * @param path partition path, it is restored on return
+     * @return column memory, the caller must close it
+     */
+    public static MemoryCMR openColumnRO(FilesFacade ff, Path path, CharSequence columnName, long columnNameTxn, long size, int memoryTag) {
+        final int plen = path.length();
+        try {
+            final MemoryCMR mem;
+            if (!ff.exists(dFile(path.trimTo(plen), columnName, columnNameTxn))
+                    && ff.exists(dzFile(path.trimTo(plen), columnName, columnNameTxn))) {
+                mem = new MemoryCMRDecompressedImpl();
+            } else {
+                dFile(path.trimTo(plen), columnName, columnNameTxn);
+                mem = Vm.getCMRInstance();
+            }
+            try {
+                mem.of(ff, path, size, size, memoryTag);
+            } catch (Throwable th) {
+                mem.close();
+                throw th;
+            }
+            return mem;
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     public static int openFileRWOrFail(FilesFacade ff, LPSZ path, long opts) {
         return openRW(ff, path, LOG, opts);
     }
@@ -1306,6 +1351,14 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isDedupKey(i)) {
+                    flags |= META_FLAG_BIT_DEDUP_KEY;
+                }
+
+                if (structure.isBloomFilter(i)) {
+                    flags |= META_FLAG_BIT_BLOOM_FILTER;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 // reserved
@@ -1397,6 +1450,14 @@ public final class TableUtils {
         return metaMem.getInt(META_OFFSET_COLUMN_TYPES + columnIndex * META_COLUMN_DATA_SIZE + 4 + 8);
     }
 
+    static boolean isColumnBloomFilter(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_BLOOM_FILTER) != 0;
+    }
+
+    static boolean isColumnDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static boolean isColumnIndexed(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.cairo.vm.MemoryCMORDecompressedImpl;
 import io.questdb.cairo.vm.NullMapWriter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.*;
@@ -78,12 +79,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     public static final int O3_BLOCK_O3 = 1;
     public static final int TIMESTAMP_MERGE_ENTRY_BYTES = Long.BYTES * 2;
     private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR = Vm::getMemoryCMOR;
+    private static final ObjectFactory<MemoryCMOR> GET_MEMORY_CMOR_DECOMPRESSED = MemoryCMORDecompressedImpl::new;
     private static final long IGNORE = -1L;
     private static final Log LOG = LogFactory.getLog(TableWriter.class);
     private static final Runnable NOOP = () -> {
     };
     private static final Row NOOP_ROW = new NoOpRow();
-    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 8;
+    private static final int PARTITION_UPDATE_SINK_ENTRY_SIZE = 9;
     private static final int ROW_ACTION_NO_PARTITION = 1;
     private static final int ROW_ACTION_NO_TIMESTAMP = 2;
     private static final int ROW_ACTION_O3 = 3;
@@ -101,6 +103,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final SCSequence commandSubSeq;
     private final CairoConfiguration configuration;
     private final MemoryMAR ddlMem;
+    private final LongList decompressedPartitions = new LongList();
     private final int defaultCommitMode;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final ObjList<MapWriter> denseSymbolMapWriters;
@@ -112,6 +115,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final LongList indexSequences = new LongList();
     private final ObjList<ColumnIndexer> indexers;
+    private final LatestByMaterialization latestByMaterialization;
     // This is the same message bus. When TableWriter instance created via CairoEngine, message bus is shared
     // and is owned by the engine. Since TableWriter would not have ownership of the bus it must not free it up.
     // On other hand when TableWrite is created outside CairoEngine, primarily in tests, the ownership of the
@@ -128,6 +132,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final ObjectPool<O3MutableAtomicInteger> o3ColumnCounters = new ObjectPool<>(O3MutableAtomicInteger::new, 64);
     private final int o3ColumnMemorySize;
     private final ObjList<MemoryCR> o3ColumnOverrides;
+    private final O3Dedup o3Dedup = new O3Dedup();
     private final SOUnboundedCountDownLatch o3DoneLatch = new SOUnboundedCountDownLatch();
     private final AtomicInteger o3ErrorCount = new AtomicInteger();
     private final long[] o3LastTimestampSpreads;
@@ -137,11 +142,16 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final Path other;
     private final MessageBus ownMessageBus;
     private final boolean parallelIndexerEnabled;
+    private final PartitionBloomFilter partitionBloomFilter;
     private final int partitionBy;
     private final PartitionBy.PartitionCeilMethod partitionCeilMethod;
+    private final ColumnCodec.Decoder partitionColumnDecoder;
+    private final ColumnCodec.Encoder partitionColumnEncoder;
+    private final boolean partitionCompressionEnabled;
     private final DateFormat partitionDirFmt;
     private final PartitionBy.PartitionFloorMethod partitionFloorMethod;
     private final LongList partitionRemoveCandidates = new LongList();
+    private final PartitionZoneMap partitionZoneMap;
     private final Path path;
     private final AtomicLong physicallyWrittenRowsSinceLastCommit = new AtomicLong();
     private final int rootLen;
@@ -159,7 +169,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final Uuid uuid = new Uuid();
     private final LowerCaseCharSequenceIntHashMap validationMap = new LowerCaseCharSequenceIntHashMap();
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
+    private final WeakClosableObjectPool<MemoryCMOR> walDecompressedColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    // timestamps of the partitions which zone maps have to be (re)built by PartitionZoneMapJob,
+    // the list is kept in memory only, partitions still pending when the writer closes are scanned in full
+    private final LongList zoneMapPartitions = new LongList();
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -214,6 +228,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final O3ColumnUpdateMethod o3MoveLagRef = this::o3MoveLag0;
     private final O3ColumnUpdateMethod o3MoveUncommittedRef = this::o3MoveUncommitted0;
     private MemoryARW o3TimestampMemCpy;
+    // partitions below this timestamp have been considered for compression already
+    // partitions before this timestamp have been compressed or could not be compressed
+    private long partitionCompressionLo = Long.MIN_VALUE;
+    private boolean partitionCompressionScheduled;
     private long partitionTimestampHi;
     private boolean performRecovery;
     private boolean removeDirOnCancelRow = true;
@@ -227,6 +245,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private final FragileCode RECOVER_FROM_SWAP_RENAME_FAILURE = this::recoverFromSwapRenameFailure;
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
+    private boolean zoneMapBuildScheduled;
+    // last partition at the time zone map build was scheduled, it is sealed once a newer partition appears
+    private long zoneMapLastPartitionTimestamp = Long.MIN_VALUE;
 
     public TableWriter(
             CairoConfiguration configuration,
@@ -252,6 +273,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
         this.tableToken = tableToken;
         this.o3QuickSortEnabled = configuration.isO3QuickSortEnabled();
+        this.partitionCompressionEnabled = configuration.isPartitionCompressionEnabled();
+        this.partitionColumnEncoder = partitionCompressionEnabled ? new ColumnCodec.Encoder() : null;
+        this.partitionColumnDecoder = new ColumnCodec.Decoder();
+        this.partitionZoneMap = configuration.isPartitionZoneMapEnabled() ? new PartitionZoneMap() : null;
+        this.partitionBloomFilter = configuration.isPartitionBloomFilterEnabled() ? new PartitionBloomFilter() : null;
+        this.latestByMaterialization = configuration.isLatestByMaterializationEnabled() ? new LatestByMaterialization() : null;
         this.o3ColumnMemorySize = configuration.getO3ColumnMemorySize();
         this.path = new Path().of(root).concat(tableToken);
         this.other = new Path().of(root).concat(tableToken);
@@ -321,6 +348,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             configureTimestampSetter();
             this.appendTimestampSetter = timestampSetter;
             configureAppendPosition();
+            if (txWriter.getPartitionCount() > 0) {
+                zoneMapLastPartitionTimestamp = txWriter.getPartitionTimestamp(txWriter.getPartitionCount() - 1);
+            }
+            if (latestByMaterialization != null && PartitionBy.isPartitioned(partitionBy)) {
+                latestByMaterialization.load(this, path.trimTo(rootLen));
+            }
             purgeUnusedPartitions();
             clearTodoLog();
             this.slaveTxReader = new TxReader(ff);
@@ -334,6 +367,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             commandPubSeq = new MPSequence(commandQueue.getCycle());
             commandPubSeq.then(commandSubSeq).then(commandPubSeq);
             walColumnMemoryPool = new WeakClosableObjectPool<>(GET_MEMORY_CMOR, columnCount);
+            walDecompressedColumnMemoryPool = new WeakClosableObjectPool<>(GET_MEMORY_CMOR_DECOMPRESSED, columnCount, true);
             o3LastTimestampSpreads = new long[configuration.getO3LagCalculationWindowsSize()];
             Arrays.fill(o3LastTimestampSpreads, 0);
         } catch (Throwable e) {
@@ -796,6 +830,41 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    /**
+     * Builds zone map and Bloom filters of a sealed partition changed since they were built last time.
+     * This is a step of {@link PartitionZoneMapJob}, which borrows the writer from the pool.
+     *
+     * @return true when a partition has been processed and there may be more to process
+     */
+    public boolean buildNextZoneMap() {
+        // partitions changed by the pending transaction are scheduled again by its commit
+        int n = inTransaction() ? 0 : zoneMapPartitions.size();
+        if (n == 0) {
+            zoneMapBuildScheduled = false;
+            return false;
+        }
+        // the list is sorted by the commit that scheduled the build, duplicates are adjacent
+        final long partitionTimestamp = zoneMapPartitions.getQuick(--n);
+        while (n > 0 && zoneMapPartitions.getQuick(n - 1) == partitionTimestamp) {
+            n--;
+        }
+        zoneMapPartitions.setPos(n);
+
+        final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+        // the last partition is still active, its zone map and Bloom filters are built once it is sealed
+        if (partitionIndex > -1
+                && partitionIndex < txWriter.getPartitionCount() - 1
+                && txWriter.getPartitionSize(partitionIndex) > 0) {
+            if (partitionZoneMap != null) {
+                buildZoneMap(partitionIndex, partitionTimestamp);
+            }
+            if (partitionBloomFilter != null && metadata.hasBloomFilter()) {
+                buildBloomFilter(partitionIndex, partitionTimestamp);
+            }
+        }
+        return true;
+    }
+
     @Override
     public void changeCacheFlag(int columnIndex, boolean cache) {
         checkDistressed();
@@ -851,6 +920,76 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
     }
 
+    /**
+     * Compresses the oldest inactive partition that has not been compressed yet and commits the
+     * new partition version. This is a step of {@link PartitionCompressionJob}, which borrows the
+     * writer from the pool.
+     *
+     * @return true when a partition has been processed and there may be more to compress
+     */
+    public boolean compressNextPartition() {
+        // compression commits _txn, which must not publish uncommitted rows
+        final int partitionIndex = inTransaction() ? -1 : findPartitionToCompress();
+        if (partitionIndex < 0) {
+            // the next commit schedules compression again if needed
+            partitionCompressionScheduled = false;
+            return false;
+        }
+        final long partitionTimestamp = txWriter.getPartitionTimestamp(partitionIndex);
+        partitionCompressionLo = partitionTimestamp + 1;
+        if (compressPartition(partitionIndex, partitionTimestamp)) {
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            processPartitionRemoveCandidates();
+            // no rows are added, readers of the new txn get the stored latest rows
+            updateLatestByMaterialization();
+        }
+        return true;
+    }
+
+    /**
+     * Restores raw column files of a compressed partition next to the compressed ones
+     * and clears partition's compressed flag. The flag is persisted by the next commit, until then
+     * readers keep using compressed files, which remain valid and are removed after the commit.
+     * Call this method before any operation that modifies or reads column files of the partition directly.
+     *
+     * @param partitionTimestamp timestamp of the partition
+     */
+    public void decompressPartition(long partitionTimestamp) {
+        if (!txWriter.isPartitionCompressedByPartitionTimestamp(partitionTimestamp)) {
+            return;
+        }
+        final long partitionSize = txWriter.getPartitionSizeByPartitionTimestamp(partitionTimestamp);
+        final long partitionNameTxn = txWriter.getPartitionNameTxnByPartitionTimestamp(partitionTimestamp);
+        try {
+            setPathForPartition(other, rootLen, partitionBy, partitionTimestamp, partitionNameTxn);
+            final int plen = other.length();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || ColumnCodec.getCodec(columnType) == ColumnCodec.CODEC_NONE) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0 || columnTop >= partitionSize) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                if (ff.exists(dzFile(other.trimTo(plen), columnName, columnNameTxn))) {
+                    decompressPartitionColumn(other, plen, columnName, columnNameTxn);
+                }
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+        txWriter.setPartitionCompressedByTimestamp(partitionTimestamp, false);
+        // compressed files are removed once the flag is committed
+        decompressedPartitions.add(partitionTimestamp, partitionNameTxn);
+        partitionCompressionLo = Math.min(partitionCompressionLo, partitionTimestamp);
+        LOG.info().$("decompressed partition [table=").utf8(tableToken.getTableName())
+                .$(", partition=").$ts(partitionTimestamp)
+                .I$();
+    }
+
     public void destroy() {
         // Closes all the files and makes this instance unusable e.g. it cannot return to the pool on close.
         LOG.info().$("closing table files [table=").utf8(tableToken.getTableName())
@@ -885,6 +1024,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
         long minTimestamp = txWriter.getMinTimestamp();
 
+        // detached partition must be attachable regardless of compression settings
+        decompressPartition(timestamp);
+
         long partitionNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
         Path detachedPath = Path.PATH.get();
 
@@ -1282,14 +1424,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
             default: // switch partition
                 bumpMasterRef();
-                if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp()) {
-                    if (timestamp < txWriter.getMaxTimestamp()) {
-                        return newRowO3(timestamp);
-                    }
+                final long maxTimestamp = txWriter.getMaxTimestamp();
+                // with deduplication, row on the max timestamp may have to replace one already appended
+                if (timestamp < maxTimestamp || (timestamp == maxTimestamp && metadata.isDedupEnabled())) {
+                    return newRowO3(timestamp);
+                }
 
-                    if (timestamp > partitionTimestampHi && PartitionBy.isPartitioned(partitionBy)) {
-                        switchPartition(timestamp);
-                    }
+                if (timestamp > partitionTimestampHi && PartitionBy.isPartitioned(partitionBy)) {
+                    switchPartition(timestamp);
                 }
                 if (lastOpenPartitionIsReadOnly) {
                     masterRef--;
@@ -1391,10 +1533,13 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 long o3Lo = rowLo;
                 long o3Hi = rowHi;
                 final boolean copiedToMemory;
-                final boolean needsOrdering = !ordered || lagRowCount > 0;
+                MemoryCR walTimestampColumn = walMappedColumns.getQuick(getPrimaryColumnIndex(timestampIndex));
+                // duplicates within ordered block can only be removed from the in-memory copy
+                final boolean needsOrdering = !ordered
+                        || lagRowCount > 0
+                        || (metadata.isDedupEnabled() && O3Dedup.hasDuplicateTimestamps(walTimestampColumn.addressOf(rowLo << 4), 0, rowHi - rowLo));
                 final long symbolRowLo = needsOrdering || commitToTimestamp < 0 ? lagRowCount : rowLo;
                 o3Columns = remapWalSymbols(mapDiffCursor, rowLo, rowHi, walPath, symbolRowLo);
-                MemoryCR walTimestampColumn = walMappedColumns.getQuick(getPrimaryColumnIndex(timestampIndex));
 
                 if (commitToTimestamp < o3TimestampMin) {
                     // Don't commit anything, move everything to memory instead.
@@ -1436,6 +1581,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     lagRowCount = 0L;
                     o3Columns = o3MemColumns;
                     copiedToMemory = true;
+                    if (metadata.isDedupEnabled()) {
+                        o3Hi = o3DedupMerged(timestampAddr, timestampIndex, o3Hi);
+                    }
                     o3TimestampMin = getTimestampIndexValue(timestampAddr, o3Lo);
                     o3TimestampMax = getTimestampIndexValue(timestampAddr, o3Hi - 1);
                 } else {
@@ -1542,6 +1690,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            scheduleZoneMapBuild();
+            schedulePartitionCompression();
+            updateLatestByMaterialization();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -1711,6 +1862,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 final int prevIndex = index - 1;
                 prevTimestamp = txWriter.getPartitionTimestamp(prevIndex);
                 newTransientRowCount = txWriter.getPartitionSize(prevIndex);
+                // previous partition becomes active, it has to have raw column files
+                decompressPartition(prevTimestamp);
                 try {
                     setPathForPartition(path.trimTo(rootLen), partitionBy, prevTimestamp, false);
                     TableUtils.txnPartitionConditionally(path, txWriter.getPartitionNameTxn(prevIndex));
@@ -2562,6 +2715,42 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void buildBloomFilter(int partitionIndex, long partitionTimestamp) {
+        try {
+            setPathForPartition(path, rootLen, partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+            partitionBloomFilter.build(ff, path, partitionTimestamp, txWriter.getPartitionSize(partitionIndex), metadata, columnVersionWriter);
+            partitionBloomFilter.write(ff, path, other, configuration.getWriterFileOpenOpts());
+        } catch (CairoException e) {
+            // Bloom filter is an optimisation, partition without it is scanned in full
+            LOG.error().$("could not build bloom filter [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
+    private void buildZoneMap(int partitionIndex, long partitionTimestamp) {
+        try {
+            setPathForPartition(path, rootLen, partitionBy, partitionTimestamp, txWriter.getPartitionNameTxn(partitionIndex));
+            partitionZoneMap.build(ff, path, partitionTimestamp, txWriter.getPartitionSize(partitionIndex), metadata, columnVersionWriter);
+            partitionZoneMap.write(ff, path, other, configuration.getWriterFileOpenOpts());
+        } catch (CairoException e) {
+            // zone map is an optimisation, partition without zone map is scanned in full
+            LOG.error().$("could not build zone map [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -2634,7 +2823,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             MemoryCMOR mappedColumnMem = walMappedColumns.getQuick(col);
             if (mappedColumnMem != null) {
                 Misc.free(mappedColumnMem);
-                walColumnMemoryPool.push(mappedColumnMem);
+                if (mappedColumnMem instanceof MemoryCMORDecompressedImpl) {
+                    walDecompressedColumnMemoryPool.push(mappedColumnMem);
+                } else {
+                    walColumnMemoryPool.push(mappedColumnMem);
+                }
             }
         }
     }
@@ -2705,6 +2898,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             // Bookmark masterRef to track how many rows is in uncommitted state
             this.committedMasterRef = masterRef;
             processPartitionRemoveCandidates();
+            scheduleZoneMapBuild();
+            schedulePartitionCompression();
+            updateLatestByMaterialization();
 
             metrics.tableWriter().incrementCommits();
             metrics.tableWriter().addCommittedRows(rowsAdded);
@@ -2719,6 +2915,114 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return TableSequencer.NO_TXN;
     }
 
+    private boolean compressPartition(int partitionIndex, long partitionTimestamp) {
+        final long partitionSize = txWriter.getPartitionSize(partitionIndex);
+        final long srcNameTxn = txWriter.getPartitionNameTxn(partitionIndex);
+        // compressed files are written to the new version of the partition,
+        // readers keep using the current one until they reload
+        final long dstNameTxn = txWriter.getTxn();
+        final long pageSize = configuration.getDataAppendPageSize();
+        final long opts = configuration.getWriterFileOpenOpts();
+        long rawSize = 0;
+        long compressedSize = 0;
+        try {
+            setPathForPartition(path, rootLen, partitionBy, partitionTimestamp, srcNameTxn);
+            final int srcLen = path.length();
+            setPathForPartition(other, rootLen, partitionBy, partitionTimestamp, dstNameTxn);
+            final int dstLen = other.length();
+
+            if (ff.exists(other.slash$())) {
+                ff.unlinkOrRemove(other.trimTo(dstLen).$(), LOG);
+            }
+            if (ff.hardLinkDirRecursive(path.trimTo(srcLen).$(), other.trimTo(dstLen).$(), mkDirMode) != 0) {
+                LOG.error().$("could not link partition for compression [errno=").$(ff.errno())
+                        .$(", from=").$(path)
+                        .$(", to=").$(other)
+                        .I$();
+                return false;
+            }
+
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0 || ColumnCodec.getCodec(columnType) == ColumnCodec.CODEC_NONE) {
+                    continue;
+                }
+                final long columnTop = columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnTop < 0 || columnTop >= partitionSize) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                final long rowCount = partitionSize - columnTop;
+                final long columnSize = rowCount * ColumnType.sizeOf(columnType);
+
+                // linked directory may carry compressed file left behind by decompression
+                removeFileAndOrLog(ff, dzFile(other.trimTo(dstLen), columnName, columnNameTxn));
+
+                final int fd = TableUtils.openRO(ff, dFile(path.trimTo(srcLen), columnName, columnNameTxn), LOG);
+                final long size;
+                try {
+                    final long addr = TableUtils.mapRO(ff, fd, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        size = partitionColumnEncoder.encode(
+                                ff,
+                                dzFile(other.trimTo(dstLen), columnName, columnNameTxn),
+                                pageSize,
+                                addr,
+                                rowCount,
+                                columnType,
+                                false,
+                                opts
+                        );
+                    } finally {
+                        ff.munmap(addr, columnSize, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+
+                if (size < columnSize) {
+                    removeFileAndOrLog(ff, dFile(other.trimTo(dstLen), columnName, columnNameTxn));
+                    rawSize += columnSize;
+                    compressedSize += size;
+                } else {
+                    removeFileAndOrLog(ff, dzFile(other.trimTo(dstLen), columnName, columnNameTxn));
+                }
+            }
+
+            if (compressedSize == 0) {
+                // nothing worth compressing, the partition keeps its raw files and is marked
+                // as processed, readers fall back to raw files when there is no compressed one
+                ff.unlinkOrRemove(other.trimTo(dstLen).$(), LOG);
+                txWriter.setPartitionCompressedByTimestamp(partitionTimestamp, true);
+                return true;
+            }
+        } catch (CairoException e) {
+            LOG.error().$("could not compress partition [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", msg=").$(e.getFlyweightMessage())
+                    .$(", errno=").$(e.getErrno())
+                    .I$();
+            setPathForPartition(other.trimTo(rootLen), rootLen, partitionBy, partitionTimestamp, dstNameTxn);
+            ff.unlinkOrRemove(other.$(), LOG);
+            return false;
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        txWriter.updatePartitionSizeAndTxnByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+        txWriter.setPartitionCompressedByTimestamp(partitionTimestamp, true);
+        txWriter.bumpPartitionTableVersion();
+        partitionRemoveCandidates.add(partitionTimestamp, srcNameTxn);
+        LOG.info().$("compressed partition [table=").utf8(tableToken.getTableName())
+                .$(", partition=").$ts(partitionTimestamp)
+                .$(", rawSize=").$(rawSize)
+                .$(", compressedSize=").$(compressedSize)
+                .I$();
+        return true;
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -2852,6 +3156,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isColumnDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
+                    if (isColumnBloomFilter(metaMem, i)) {
+                        flags |= META_FLAG_BIT_BLOOM_FILTER;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.skip(16);
@@ -3006,6 +3316,33 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return identical;
     }
 
+    private void decompressPartitionColumn(Path partitionPath, int plen, CharSequence columnName, long columnNameTxn) {
+        final int dzFd = TableUtils.openRO(ff, dzFile(partitionPath.trimTo(plen), columnName, columnNameTxn), LOG);
+        try {
+            final long dzSize = ff.length(dzFd);
+            final long dzAddr = TableUtils.mapRO(ff, dzFd, dzSize, MemoryTag.MMAP_TABLE_WRITER);
+            try {
+                final long size = ColumnCodec.getDecodedSize(dzAddr);
+                final int fd = TableUtils.openRW(ff, dFile(partitionPath.trimTo(plen), columnName, columnNameTxn), LOG, configuration.getWriterFileOpenOpts());
+                try {
+                    TableUtils.allocateDiskSpace(ff, fd, size);
+                    final long addr = TableUtils.mapRW(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+                    try {
+                        partitionColumnDecoder.decode(dzAddr, dzSize, 0, ColumnCodec.getBlockCount(dzAddr), addr);
+                    } finally {
+                        ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+            } finally {
+                ff.munmap(dzAddr, dzSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+        } finally {
+            ff.close(dzFd);
+        }
+    }
+
     private void doClose(boolean truncate) {
         // destroy() may already closed everything
         boolean tx = inTransaction();
@@ -3023,6 +3360,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         Misc.free(columnVersionWriter);
         Misc.free(o3ColumnTopSink);
         Misc.free(o3PartitionUpdateSink);
+        Misc.free(partitionZoneMap);
+        Misc.free(partitionBloomFilter);
+        Misc.free(latestByMaterialization);
+        Misc.free(partitionColumnEncoder);
         Misc.free(slaveTxReader);
         Misc.free(commandQueue);
         updateOperatorImpl = Misc.free(updateOperatorImpl);
@@ -3047,6 +3388,23 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private int findPartitionToCompress() {
+        if (!partitionCompressionEnabled || !PartitionBy.isPartitioned(partitionBy)) {
+            return -1;
+        }
+        int partitionIndex = -1;
+        // the last partition is always active, it is never compressed
+        for (int i = txWriter.getPartitionCount() - 2; i > -1; i--) {
+            if (txWriter.getPartitionTimestamp(i) < partitionCompressionLo) {
+                break;
+            }
+            if (!txWriter.isPartitionReadOnly(i) && !txWriter.isPartitionCompressed(i) && txWriter.getPartitionSize(i) > 0) {
+                partitionIndex = i;
+            }
+        }
+        return partitionIndex;
+    }
+
     private void finishMetaSwapUpdate() {
 
         // rename _meta to _meta.prev
@@ -3193,6 +3551,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
 
                     long timestamp = txWriter.getPartitionTimestamp(i);
+                    decompressPartition(timestamp);
                     path.trimTo(rootLen);
                     setStateForTimestamp(path, timestamp, false);
 
@@ -3250,6 +3609,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return true;
     }
 
+    private boolean isZoneMapBuildEnabled() {
+        // Bloom filters are opt-in per column, tables without flagged columns have none to build
+        return partitionZoneMap != null || (partitionBloomFilter != null && metadata.hasBloomFilter());
+    }
+
     private void lock() {
         try {
             path.trimTo(rootLen);
@@ -3281,19 +3645,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
 
                     if (!ColumnType.isVariableLength(type)) {
-                        MemoryCMOR primary = walColumnMemoryPool.pop();
-
-                        dFile(walPath, metadata.getColumnName(columnIndex), -1L);
-                        primary.ofOffset(
-                                configuration.getFilesFacade(),
+                        MemoryCMOR primary = mmapWalFixedColumn(
                                 walPath,
+                                metadata.getColumnName(columnIndex),
                                 rowLo << sizeBitsPow2,
-                                rowHi << sizeBitsPow2,
-                                MemoryTag.MMAP_TABLE_WRITER,
-                                CairoConfiguration.O_NONE
+                                rowHi << sizeBitsPow2
                         );
-                        walPath.trimTo(walPathLen);
-
                         walMappedColumns.add(primary);
                         walMappedColumns.add(null);
                     } else {
@@ -3340,6 +3697,36 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private MemoryCMOR mmapWalFixedColumn(@Transient Path walPath, CharSequence columnName, long lo, long hi) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int walPathLen = walPath.length();
+        final MemoryCMOR mem = walColumnMemoryPool.pop();
+        try {
+            mem.ofOffset(ff, dFile(walPath, columnName, -1L), lo, hi, MemoryTag.MMAP_TABLE_WRITER, CairoConfiguration.O_NONE);
+            return mem;
+        } catch (CairoException e) {
+            walColumnMemoryPool.push(mem);
+            // raw file is removed once WalSegmentCompressionJob compresses the segment, this can happen
+            // after the transaction was committed, the compressed file exists before the raw one is removed
+            if (!ff.exists(dzFile(walPath.trimTo(walPathLen), columnName, -1L))) {
+                throw e;
+            }
+        } finally {
+            walPath.trimTo(walPathLen);
+        }
+
+        final MemoryCMOR decompressed = walDecompressedColumnMemoryPool.pop();
+        try {
+            decompressed.ofOffset(ff, dzFile(walPath, columnName, -1L), lo, hi, MemoryTag.MMAP_TABLE_WRITER, CairoConfiguration.O_NONE);
+            return decompressed;
+        } catch (Throwable e) {
+            walDecompressedColumnMemoryPool.push(decompressed);
+            throw e;
+        } finally {
+            walPath.trimTo(walPathLen);
+        }
+    }
+
     private Row newRowO3(long timestamp) {
         LOG.info().$("switched to o3 [table=").utf8(tableToken.getTableName()).I$();
         txWriter.beginPartitionSizeUpdate();
@@ -3370,7 +3757,10 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // will have to switch partition internally
         long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
         try {
-            o3RowCount += o3MoveUncommitted(timestampIndex);
+            // uncommitted rows moved from the last partition are older than rows already in O3 memory
+            final long movedRowsLo = o3RowCount;
+            final long movedRowCount = o3MoveUncommitted(timestampIndex);
+            o3RowCount += movedRowCount;
 
             // we may need to re-use file descriptors when this partition is the "current" one
             // we cannot open file again due to sharing violation
@@ -3390,6 +3780,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
 
+            if (metadata.isDedupEnabled()) {
+                o3RowCount = o3DedupSorted(sortedTimestampsAddr, o3RowCount, movedRowsLo, movedRowCount);
+                o3TimestampMem.jumpTo(o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+            }
+
             // we have three frames:
             // partition logical "lo" and "hi" - absolute bounds (partitionLo, partitionHi)
             // partition actual data "lo" and "hi" (dataLo, dataHi)
@@ -3617,6 +4012,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 boolean partitionMutates = o3PartitionUpdateSink.get(offset + 5) != 0;
                 long srcOooMax = o3PartitionUpdateSink.get(offset + 6);
                 long srcDataMax = o3PartitionUpdateSink.get(offset + 7);
+                // the slot is left at -1 unless duplicate rows were removed on merge
+                long dedupRowCount = Math.max(0, o3PartitionUpdateSink.get(offset + 8));
 
                 o3PartitionUpdate(
                         timestampMin,
@@ -3626,7 +4023,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                         srcOooPartitionHi,
                         srcOooMax,
                         srcDataMax,
-                        partitionMutates
+                        partitionMutates,
+                        dedupRowCount
                 );
 
             }
@@ -3802,6 +4200,38 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private long o3DedupMerged(long timestampAddr, int timestampIndex, long rowCount) {
+        // rows are copied to memory in timestamp order and rows with equal timestamps keep the order
+        // they were written in, so the position is the rank
+        Vect.flattenIndex(timestampAddr, rowCount);
+        final long dedupRowCount = o3DedupSorted(timestampAddr, rowCount, Long.MAX_VALUE, 0);
+        if (dedupRowCount < rowCount) {
+            o3Sort(timestampAddr, timestampIndex, dedupRowCount);
+            o3TimestampMem.jumpTo(dedupRowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+        }
+        return dedupRowCount;
+    }
+
+    private long o3DedupSorted(long sortedTimestampsAddr, long rowCount, long olderRowsLo, long olderRowCount) {
+        o3Dedup.clear();
+        final int timestampIndex = metadata.getTimestampIndex();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            if (i != timestampIndex && columnType > 0 && metadata.isDedupKey(i)) {
+                o3Dedup.addKey(columnType, -1, 0, 0, 0, o3Columns.getQuick(getPrimaryColumnIndex(i)).addressOf(0));
+            }
+        }
+        final long dedupRowCount = o3Dedup.dedup(sortedTimestampsAddr, rowCount, olderRowsLo, olderRowCount);
+        o3Dedup.clear();
+        if (dedupRowCount < rowCount) {
+            LOG.info().$("removed duplicate rows [table=").utf8(tableToken.getTableName())
+                    .$(", rowCount=").$(rowCount)
+                    .$(", dedupRowCount=").$(dedupRowCount)
+                    .I$();
+        }
+        return dedupRowCount;
+    }
+
     private void o3MergeIntoLag(long mergedTimestamps, long countInLag, long mappedRowLo, long mappedRoHi, int timestampIndex) {
         o3PendingCallbackTasks.clear();
 
@@ -4175,12 +4605,27 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             long srcOooPartitionHi,
             long srcOooMax,
             long srcDataMax,
-            boolean partitionMutates
+            boolean partitionMutates,
+            long dedupRowCount
     ) {
         txWriter.minTimestamp = Math.min(timestampMin, txWriter.minTimestamp);
-        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
+        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1 - dedupRowCount;
+        if (dedupRowCount > 0) {
+            // row counts were set assuming merge keeps all rows
+            if (partitionTimestamp == partitionFloorMethod.floor(txWriter.getMaxTimestamp())) {
+                txWriter.transientRowCount -= dedupRowCount;
+            } else {
+                txWriter.fixedRowCount -= dedupRowCount;
+            }
+        }
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        if (isZoneMapBuildEnabled()) {
+            zoneMapPartitions.add(partitionTimestamp);
+        }
+        if (latestByMaterialization != null) {
+            latestByMaterialization.onPartitionMerged(partitionTimestamp, dedupRowCount > 0);
+        }
         if (partitionTimestamp == lastPartitionTimestamp) {
             if (partitionMutates) {
                 closeActivePartition(true);
@@ -4200,6 +4645,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                 .$(", srcOooMax=").$(srcOooMax)
                 .$(", srcDataMax=").$(srcDataMax)
                 .$(", partitionMutates=").$(partitionMutates)
+                .$(", dedupRowCount=").$(dedupRowCount)
                 .$(", lastPartitionTimestamp=").$(lastPartitionTimestamp)
                 .$(", partitionSize=").$(partitionSize)
                 .I$();
@@ -4597,6 +5043,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
 
     private void openPartition(long timestamp) {
         try {
+            // partition is going to be appended to in place
+            decompressPartition(txWriter.getPartitionTimestampLo(timestamp));
             setStateForTimestamp(path, timestamp, true);
             int plen = path.length();
             if (ff.mkdirs(path.slash$(), mkDirMode) != 0) {
@@ -4776,6 +5224,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // however we need to identify last partition before max timestamp skips to NULL for example
         final long maxTimestamp = txWriter.getMaxTimestamp();
         final long transientRowCount = txWriter.transientRowCount;
+        final boolean dedupEnabled = metadata.isDedupEnabled();
 
         o3DoneLatch.reset();
         o3PartitionUpdRemaining.set(0L);
@@ -4842,7 +5291,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                     }
 
                     // We're appending onto the last (active) partition.
-                    final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                    // with deduplication rows on the max timestamp have to be merged with the partition
+                    final boolean append = last && (srcDataMax == 0 || (dedupEnabled ? o3Timestamp > maxTimestamp : o3Timestamp >= maxTimestamp));
 
                     // Number of rows to insert from the O3 segment into this partition.
                     final long srcOooBatchRowSize = srcOooHi - srcOooLo + 1;
@@ -4889,6 +5339,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                         continue;
                     }
 
+                    if (partitionIndex > -1) {
+                        // O3 merges and appends read and write raw column files of the partition
+                        decompressPartition(partitionTimestamp);
+                    }
+
                     if (partitionTimestamp < lastPartitionTimestamp) {
                         // increment fixedRowCount by number of rows old partition incremented
                         this.txWriter.fixedRowCount += srcOooBatchRowSize;
@@ -4969,6 +5424,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
                                         plen,
                                         columnName,
                                         columnCounter,
+                                        o3Basket.nextPartCounter(),
                                         notTheTimestamp ? columnType : ColumnType.setDesignatedTimestampBit(columnType, true),
                                         srcOooFixAddr,
                                         srcOooVarAddr,
@@ -5066,6 +5522,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     private void processPartitionRemoveCandidates() {
+        removeDecompressedColumnFiles();
         try {
             final int n = partitionRemoveCandidates.size();
             if (n > 0) {
@@ -5169,12 +5626,21 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
-            dFile(other, metadata.getColumnName(metadata.getTimestampIndex()), COLUMN_NAME_TXN_NONE);
+            final CharSequence timestampColumnName = metadata.getColumnName(metadata.getTimestampIndex());
+            final int plen = other.length();
+            // the first value of compressed timestamp column is stored verbatim after the header
+            long offset = 0;
+            if (txWriter.isPartitionCompressedByPartitionTimestamp(partitionTimestamp)
+                    && ff.exists(dzFile(other, timestampColumnName, COLUMN_NAME_TXN_NONE))) {
+                offset = ColumnCodec.DOD_FIRST_VALUE_OFFSET;
+            } else {
+                dFile(other.trimTo(plen), timestampColumnName, COLUMN_NAME_TXN_NONE);
+            }
             if (ff.exists(other)) {
                 // read min timestamp value
                 final int fd = TableUtils.openRO(ff, other, LOG);
                 try {
-                    return TableUtils.readLongOrFail(ff, fd, 0, tempMem16b, other);
+                    return TableUtils.readLongOrFail(ff, fd, offset, tempMem16b, other);
                 } finally {
                     ff.close(fd);
                 }
@@ -5488,6 +5954,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             int plen = path.length();
             long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
             removeFileAndOrLog(ff, dFile(path, columnName, columnNameTxn));
+            removeFileAndOrLog(ff, dzFile(path.trimTo(plen), columnName, columnNameTxn));
             removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
             removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
             removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
@@ -5533,6 +6000,35 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void removeDecompressedColumnFiles() {
+        for (int i = 0; i < decompressedPartitions.size(); ) {
+            final long partitionTimestamp = decompressedPartitions.getQuick(i);
+            final long partitionNameTxn = decompressedPartitions.getQuick(i + 1);
+            boolean removed = true;
+            try {
+                setPathForPartition(other, rootLen, partitionBy, partitionTimestamp, partitionNameTxn);
+                final int plen = other.length();
+                for (int c = 0; c < columnCount; c++) {
+                    final int columnType = metadata.getColumnType(c);
+                    if (columnType > 0 && ColumnCodec.getCodec(columnType) != ColumnCodec.CODEC_NONE) {
+                        final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, c);
+                        dzFile(other.trimTo(plen), metadata.getColumnName(c), columnNameTxn);
+                        removed &= !ff.exists(other) || ff.remove(other);
+                    }
+                }
+            } finally {
+                other.trimTo(rootLen);
+            }
+            if (removed) {
+                decompressedPartitions.removeIndexBlock(i, 2);
+            } else {
+                // on Windows files that readers still have open cannot be removed,
+                // removal is retried after the next commit
+                i += 2;
+            }
+        }
+    }
+
     private void removeIndexFiles(CharSequence columnName, int columnIndex) {
         try {
             for (int i = txWriter.getPartitionCount() - 1; i > -1L; i--) {
@@ -5738,6 +6234,7 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         int plen = path.length();
         long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, columnIndex);
         renameFileOrLog(ff, dFile(path.trimTo(plen), columnName, columnNameTxn), dFile(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, dzFile(path.trimTo(plen), columnName, columnNameTxn), dzFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, columnNameTxn));
@@ -6009,6 +6506,64 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         processPartitionRemoveCandidates();
     }
 
+    private void schedulePartitionCompression() {
+        if (partitionCompressionScheduled || findPartitionToCompress() < 0) {
+            return;
+        }
+        final Sequence pubSeq = messageBus.getPartitionCompressionPubSeq();
+        while (true) {
+            long cursor = pubSeq.next();
+            if (cursor > -1L) {
+                messageBus.getPartitionCompressionQueue().get(cursor).of(tableToken);
+                pubSeq.done(cursor);
+                partitionCompressionScheduled = true;
+                return;
+            } else if (cursor == -1L) {
+                // queue is full, one of the next commits schedules compression
+                return;
+            }
+        }
+    }
+
+    private void scheduleZoneMapBuild() {
+        if (!isZoneMapBuildEnabled() || !PartitionBy.isPartitioned(partitionBy)) {
+            return;
+        }
+        final int lastIndex = txWriter.getPartitionCount() - 1;
+        if (lastIndex < 0) {
+            zoneMapPartitions.clear();
+            return;
+        }
+
+        // O3 commit can seal the last partition by creating partitions after it
+        final long lastPartitionTimestamp = txWriter.getPartitionTimestamp(lastIndex);
+        if (zoneMapLastPartitionTimestamp != Long.MIN_VALUE && zoneMapLastPartitionTimestamp < lastPartitionTimestamp) {
+            zoneMapPartitions.add(zoneMapLastPartitionTimestamp);
+        }
+        zoneMapLastPartitionTimestamp = lastPartitionTimestamp;
+
+        if (zoneMapPartitions.size() == 0) {
+            return;
+        }
+        zoneMapPartitions.sort();
+        if (zoneMapBuildScheduled) {
+            return;
+        }
+        final Sequence pubSeq = messageBus.getPartitionZoneMapPubSeq();
+        while (true) {
+            long cursor = pubSeq.next();
+            if (cursor > -1L) {
+                messageBus.getPartitionZoneMapQueue().get(cursor).of(tableToken);
+                pubSeq.done(cursor);
+                zoneMapBuildScheduled = true;
+                return;
+            } else if (cursor == -1L) {
+                // queue is full, one of the next commits schedules the build
+                return;
+            }
+        }
+    }
+
     private void setAppendPosition(final long position, boolean doubleAllocate) {
         for (int i = 0; i < columnCount; i++) {
             // stop calculating oversize as soon as we find first over-sized column
@@ -6150,6 +6705,9 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        if (isZoneMapBuildEnabled() && txWriter.getMaxTimestamp() != Long.MIN_VALUE) {
+            zoneMapPartitions.add(txWriter.getLastPartitionTimestamp());
+        }
         txWriter.switchPartitions(timestamp);
         openPartition(timestamp);
         setAppendPosition(0, false);
@@ -6290,6 +6848,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         }
     }
 
+    private void updateLatestByMaterialization() {
+        if (latestByMaterialization != null && PartitionBy.isPartitioned(partitionBy)) {
+            latestByMaterialization.update(this, path.trimTo(rootLen), other);
+        }
+    }
+
     private void updateMaxTimestamp(long timestamp) {
         txWriter.updateMaxTimestamp(timestamp);
         this.timestampSetter.accept(timestamp);
@@ -6359,6 +6923,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isColumnDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
+
+        if (isColumnBloomFilter(metaMem, i)) {
+            flags |= META_FLAG_BIT_BLOOM_FILTER;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.skip(16);
@@ -6462,6 +7034,14 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
 
+    boolean isDedupEnabled() {
+        return metadata.isDedupEnabled();
+    }
+
+    boolean isDedupKey(int columnIndex) {
+        return metadata.isDedupKey(columnIndex);
+    }
+
     void o3ClockDownPartitionUpdateCount() {
         o3PartitionUpdRemaining.decrementAndGet();
     }
@@ -6470,6 +7050,12 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
         o3DoneLatch.countDown();
     }
 
+    void o3NotifyPartitionDedup(long partitionTimestamp, long dedupRowCount) {
+        long basePartitionTs = o3PartitionUpdateSink.get(0);
+        int partitionSinkIndex = (int) ((partitionTimestamp - basePartitionTs) / PartitionBy.getPartitionTimeIntervalFloor(partitionBy));
+        o3PartitionUpdateSink.set(partitionSinkIndex * PARTITION_UPDATE_SINK_ENTRY_SIZE + 8, dedupRowCount);
+    }
+
     void o3NotifyPartitionUpdate(
             long timestampMin,
             long timestampMax,
@@ -6865,6 +7451,8 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
     }
 
     private class RowImpl implements Row {
+        private final StringSink utf16Sink = new StringSink();
+
         @Override
         public void append() {
             rowAppend(activeNullSetters);
@@ -7021,6 +7609,11 @@ public class TableWriter implements TableWriterAPI, MetadataService, Closeable {
             setRowValueNotNull(columnIndex);
         }
 
+        @Override
+        public void putSymUtf8(int columnIndex, DirectByteCharSequence value, boolean hasNonAsciiChars) {
+            putSym(columnIndex, Chars.utf8ToUtf16(value, utf16Sink, hasNonAsciiChars));
+        }
+
         @Override
         public void putUuid(int columnIndex, CharSequence uuidStr) {
             SqlUtil.implicitCastStrAsUuid(uuidStr, uuid);
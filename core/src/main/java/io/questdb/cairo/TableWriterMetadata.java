@@ -82,6 +82,30 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
         return version;
     }
 
+    /**
+     * Bloom filters are built only for the live columns flagged by BLOOM FILTER clause of CREATE TABLE.
+     */
+    public boolean hasBloomFilter() {
+        for (int i = 0; i < columnCount; i++) {
+            final TableColumnMetadata columnMeta = columnMetadata.getQuick(i);
+            if (columnMeta.isBloomFilter() && !columnMeta.isDeleted()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deduplication is enabled when the designated timestamp is one of the dedup keys.
+     */
+    public boolean isDedupEnabled() {
+        return timestampIndex > -1 && isDedupKey(timestampIndex);
+    }
+
+    public boolean isDedupKey(int columnIndex) {
+        return columnMetadata.getQuick(columnIndex).isDedupKey();
+    }
+
     @Override
     public boolean isWalEnabled() {
         return walEnabled;
@@ -109,17 +133,18 @@ class TableWriterMetadata extends AbstractRecordMetadata implements TableRecordM
             assert name != null;
             int type = TableUtils.getColumnType(metaMem, i);
             String nameStr = Chars.toString(name);
-            columnMetadata.add(
-                    new TableColumnMetadata(
-                            nameStr,
-                            type,
-                            TableUtils.isColumnIndexed(metaMem, i),
-                            TableUtils.getIndexBlockCapacity(metaMem, i),
-                            true,
-                            null,
-                            i
-                    )
+            TableColumnMetadata columnMeta = new TableColumnMetadata(
+                    nameStr,
+                    type,
+                    TableUtils.isColumnIndexed(metaMem, i),
+                    TableUtils.getIndexBlockCapacity(metaMem, i),
+                    true,
+                    null,
+                    i
             );
+            columnMeta.setDedupKey(TableUtils.isColumnDedupKey(metaMem, i));
+            columnMeta.setBloomFilter(TableUtils.isColumnBloomFilter(metaMem, i));
+            columnMetadata.add(columnMeta);
             columnNameIndexMap.put(nameStr, i);
             if (ColumnType.isSymbol(type)) {
                 symbolMapCount++;
@@ -298,6 +298,22 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         }
     }
 
+    public void setPartitionCompressedByTimestamp(long timestamp, boolean isCompressed) {
+        final int index = findAttachedPartitionIndex(timestamp);
+        if (index < 0) {
+            throw CairoException.nonCritical().put("bad partition index -1");
+        }
+        final int offset = index + PARTITION_MASKED_SIZE_OFFSET;
+        final long maskedSize = attachedPartitions.getQuick(offset);
+        final long newMaskedSize = isCompressed
+                ? maskedSize | (1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET)
+                : maskedSize & ~(1L << PARTITION_MASK_COMPRESSED_BIT_OFFSET);
+        if (newMaskedSize != maskedSize) {
+            attachedPartitions.setQuick(offset, newMaskedSize);
+            recordStructureVersion++;
+        }
+    }
+
     public void setPartitionReadOnly(int partitionIndex, boolean isReadOnly) {
         setPartitionReadOnlyByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, isReadOnly);
     }
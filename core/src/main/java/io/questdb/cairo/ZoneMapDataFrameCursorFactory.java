@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Skips data frames of the partitions, where zone map or Bloom filters prove the filter false.
+ * Rows of the remaining frames still have to be filtered.
+ */
+public class ZoneMapDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final ZoneMapDataFrameCursor cursor;
+    private final ZoneMapFilter filter;
+
+    public ZoneMapDataFrameCursorFactory(DataFrameCursorFactory base, ZoneMapFilter filter) {
+        this.base = base;
+        this.filter = filter;
+        this.cursor = new ZoneMapDataFrameCursor(filter);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.free(filter);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        return cursor.of(base.getCursor(executionContext, order));
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+        sink.attr("zone map filter").val(filter);
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    private static class ZoneMapDataFrameCursor implements DataFrameCursor {
+        private final ZoneMapFilter filter;
+        private DataFrameCursor base;
+
+        private ZoneMapDataFrameCursor(ZoneMapFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void close() {
+            filter.clear();
+            base = Misc.free(base);
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return base.getTableReader();
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return base.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = base.next()) != null) {
+                if (filter.mayMatch(base.getTableReader(), frame.getPartitionIndex())) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        public ZoneMapDataFrameCursor of(DataFrameCursor base) {
+            this.base = base;
+            filter.of(base.getTableReader());
+            return this;
+        }
+
+        @TestOnly
+        @Override
+        public boolean reload() {
+            final boolean moreData = base.reload();
+            filter.of(base.getTableReader());
+            return moreData;
+        }
+
+        @Override
+        public long size() {
+            // frames are skipped, the number of rows is not known upfront
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            base.toTop();
+        }
+    }
+}
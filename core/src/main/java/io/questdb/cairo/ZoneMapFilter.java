@@ -0,0 +1,280 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Conjunction of simple column-to-constant comparisons extracted from a query filter.
+ * A partition, whose zone map or Bloom filters prove any of the comparisons false, does not contain
+ * matching rows and data frames of that partition can be skipped. Comparisons that cannot be checked,
+ * e.g. because the zone map is missing or stale, never cause a partition to be skipped.
+ */
+public class ZoneMapFilter implements Plannable, Closeable, Mutable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 4;
+    public static final int OP_GT = 3;
+    public static final int OP_LE = 2;
+    public static final int OP_LT = 1;
+    private static final String[] OP_NAMES = {"=", "<", "<=", ">", ">="};
+    private static final int VALUE_DOUBLE = 1;
+    // hash of the value, only checked against Bloom filters
+    private static final int VALUE_HASH = 3;
+    private static final int VALUE_LONG = 0;
+    private static final int VALUE_SYMBOL = 2;
+    private final IntList columnIndexes = new IntList();
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
+    private final IntList ops = new IntList();
+    private final ObjList<CharSequence> valueTexts = new ObjList<>();
+    private final IntList valueTypes = new IntList();
+    private final LongList values = new LongList();
+    private final IntList writerIndexes = new IntList();
+    // bloom filter and zone map are allocated on first use, the filter may live in a factory that is never executed
+    private PartitionBloomFilter bloomFilter;
+    private int bloomFilterPredicateCount;
+    private int lastPartitionIndex = -1;
+    private boolean lastPartitionMatch;
+    private PartitionZoneMap zoneMap;
+    private int zoneMapPredicateCount;
+
+    public static int flip(int op) {
+        switch (op) {
+            case OP_LT:
+                return OP_GT;
+            case OP_LE:
+                return OP_GE;
+            case OP_GT:
+                return OP_LT;
+            case OP_GE:
+                return OP_LE;
+            default:
+                return op;
+        }
+    }
+
+    public void add(int columnIndex, int writerIndex, CharSequence columnName, int op, long value) {
+        add(columnIndex, writerIndex, columnName, op, VALUE_LONG, value, null);
+    }
+
+    public void add(int columnIndex, int writerIndex, CharSequence columnName, int op, double value) {
+        add(columnIndex, writerIndex, columnName, op, VALUE_DOUBLE, Double.doubleToLongBits(value), null);
+    }
+
+    /**
+     * Adds equality comparison that can only be checked against Bloom filters.
+     *
+     * @param columnIndex index of the column in the reader metadata
+     * @param writerIndex writer index of the column
+     * @param columnName  name of the column
+     * @param hash        hash of the value as returned by one of the {@link PartitionBloomFilter} hash methods
+     * @param text        value as it appears in the query
+     */
+    public void addHash(int columnIndex, int writerIndex, CharSequence columnName, long hash, CharSequence text) {
+        add(columnIndex, writerIndex, columnName, OP_EQ, VALUE_HASH, hash, Chars.toString(text));
+    }
+
+    public void addSymbol(int columnIndex, int writerIndex, CharSequence columnName, CharSequence value) {
+        add(columnIndex, writerIndex, columnName, OP_EQ, VALUE_SYMBOL, SymbolTable.VALUE_NOT_FOUND, Chars.toString(value));
+    }
+
+    @Override
+    public void clear() {
+        // releases Bloom filters mapped by the last checked partition
+        if (bloomFilter != null) {
+            bloomFilter.clear();
+        }
+        lastPartitionIndex = -1;
+    }
+
+    @Override
+    public void close() {
+        zoneMap = Misc.free(zoneMap);
+        bloomFilter = Misc.free(bloomFilter);
+    }
+
+    public boolean isEmpty() {
+        return ops.size() == 0;
+    }
+
+    /**
+     * Checks data frame partition against the zone map. The result is cached for the last
+     * checked partition, interval cursors can return several frames of the same partition.
+     *
+     * @param reader         table reader the data frame belongs to
+     * @param partitionIndex partition index of the data frame
+     * @return false when the partition is proven not to contain rows matching the filter
+     */
+    public boolean mayMatch(TableReader reader, int partitionIndex) {
+        if (partitionIndex != lastPartitionIndex) {
+            lastPartitionIndex = partitionIndex;
+            lastPartitionMatch = mayMatch0(reader, partitionIndex);
+        }
+        return lastPartitionMatch;
+    }
+
+    /**
+     * Resolves symbol values to keys of the reader's symbol tables and resets partition cache.
+     *
+     * @param reader table reader the cursor runs on
+     */
+    public void of(TableReader reader) {
+        if (zoneMap == null) {
+            zoneMap = new PartitionZoneMap();
+        }
+        if (bloomFilter == null) {
+            bloomFilter = new PartitionBloomFilter();
+        }
+        lastPartitionIndex = -1;
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (valueTypes.getQuick(i) == VALUE_SYMBOL) {
+                final SymbolMapReader symbolMapReader = reader.getSymbolMapReader(columnIndexes.getQuick(i));
+                values.setQuick(i, symbolMapReader.keyOf(valueTexts.getQuick(i)));
+            }
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(" and ");
+            }
+            sink.val(columnNames.getQuick(i)).val(OP_NAMES[ops.getQuick(i)]);
+            switch (valueTypes.getQuick(i)) {
+                case VALUE_DOUBLE:
+                    sink.val(Double.longBitsToDouble(values.getQuick(i)));
+                    break;
+                case VALUE_HASH:
+                    sink.val(valueTexts.getQuick(i));
+                    break;
+                case VALUE_SYMBOL:
+                    sink.val('\'').val(valueTexts.getQuick(i)).val('\'');
+                    break;
+                default:
+                    sink.val(values.getQuick(i));
+                    break;
+            }
+        }
+    }
+
+    private static boolean mayMatch(int op, double min, double max, double value) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_LT:
+                return min < value;
+            case OP_LE:
+                return min <= value;
+            case OP_GT:
+                return max > value;
+            default:
+                return max >= value;
+        }
+    }
+
+    private static boolean mayMatch(int op, long min, long max, long value) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_LT:
+                return min < value;
+            case OP_LE:
+                return min <= value;
+            case OP_GT:
+                return max > value;
+            default:
+                return max >= value;
+        }
+    }
+
+    private void add(int columnIndex, int writerIndex, CharSequence columnName, int op, int valueType, long value, CharSequence text) {
+        columnIndexes.add(columnIndex);
+        writerIndexes.add(writerIndex);
+        columnNames.add(Chars.toString(columnName));
+        ops.add(op);
+        valueTypes.add(valueType);
+        values.add(value);
+        valueTexts.add(text);
+        if (valueType != VALUE_HASH) {
+            zoneMapPredicateCount++;
+        }
+        if (op == OP_EQ && (valueType == VALUE_HASH || valueType == VALUE_LONG)) {
+            bloomFilterPredicateCount++;
+        }
+    }
+
+    private boolean mayMatch0(TableReader reader, int partitionIndex) {
+        final boolean hasZoneMap = zoneMapPredicateCount > 0 && reader.readZoneMap(partitionIndex, zoneMap);
+        final boolean hasBloomFilter = bloomFilterPredicateCount > 0 && reader.readBloomFilter(partitionIndex, bloomFilter);
+        final long partitionTimestamp = reader.getPartitionTimestampByIndex(partitionIndex);
+        final ColumnVersionReader columnVersionReader = reader.getColumnVersionReader();
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int writerIndex = writerIndexes.getQuick(i);
+            final int op = ops.getQuick(i);
+            final int valueType = valueTypes.getQuick(i);
+            final long value = values.getQuick(i);
+            final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, writerIndex);
+            if (hasBloomFilter
+                    && op == OP_EQ
+                    && (valueType == VALUE_HASH || valueType == VALUE_LONG)
+                    && bloomFilter.hasColumn(writerIndex, columnNameTxn)
+                    && !bloomFilter.mayContain(writerIndex, valueType == VALUE_HASH ? value : PartitionBloomFilter.hash(value))) {
+                return false;
+            }
+
+            if (!hasZoneMap || valueType == VALUE_HASH || !zoneMap.hasColumn(writerIndex, columnNameTxn)) {
+                continue;
+            }
+
+            if (valueType == VALUE_SYMBOL && value == SymbolTable.VALUE_NOT_FOUND) {
+                // symbol value is not in the symbol table, none of the rows can match it
+                return false;
+            }
+            final long min = zoneMap.getMin(writerIndex);
+            final long max = zoneMap.getMax(writerIndex);
+            if (PartitionZoneMap.isDouble(zoneMap.getColumnType(writerIndex))) {
+                final double dMin = Double.longBitsToDouble(min);
+                final double dMax = Double.longBitsToDouble(max);
+                // NaNs are excluded from the range, comparison of NaN to a value is always false
+                final double dValue = valueType == VALUE_DOUBLE ? Double.longBitsToDouble(value) : value;
+                if (dMin > dMax || !mayMatch(op, dMin, dMax, dValue)) {
+                    return false;
+                }
+            } else if (valueType == VALUE_DOUBLE) {
+                if (!mayMatch(op, (double) min, (double) max, Double.longBitsToDouble(value))) {
+                    return false;
+                }
+            } else if (!mayMatch(op, min, max, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
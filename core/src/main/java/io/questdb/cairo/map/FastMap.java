@@ -88,6 +88,7 @@ public class FastMap implements Map, Reopenable {
     private final int mapMemoryTag;
     private final int maxResizes;
     private final FastMapRecord record;
+    private final SpillFile spill;
     private final FastMapValue value;
     private final FastMapValue value2;
     private final FastMapValue value3;
@@ -104,6 +105,8 @@ public class FastMap implements Map, Reopenable {
     // Offsets are shifted by +1 (0 -> 1, 1 -> 2, etc.), so that we fill the memory with 0.
     private DirectLongList offsets;
     private int size = 0;
+    // Set when key memory has outgrown the resize limit and lives in the spill file.
+    private boolean spilled;
 
     public FastMap(
             int pageSize,
@@ -138,6 +141,22 @@ public class FastMap implements Map, Reopenable {
         this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes, MemoryTag.NATIVE_FAST_MAP, MemoryTag.NATIVE_FAST_MAP_LONG_LIST);
     }
 
+    /**
+     * Creates a map that keeps growing in the given spill file instead of failing
+     * once the number of key memory resizes exceeds maxResizes.
+     */
+    public FastMap(
+            int pageSize,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @Transient @Nullable ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes,
+            @Nullable SpillFile spill
+    ) {
+        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes, MemoryTag.NATIVE_FAST_MAP, MemoryTag.NATIVE_FAST_MAP_LONG_LIST, spill);
+    }
+
     @TestOnly
     FastMap(
             int pageSize,
@@ -148,10 +167,25 @@ public class FastMap implements Map, Reopenable {
             int maxResizes,
             int mapMemoryTag,
             int listMemoryTag
+    ) {
+        this(pageSize, keyTypes, valueTypes, keyCapacity, loadFactor, maxResizes, mapMemoryTag, listMemoryTag, null);
+    }
+
+    private FastMap(
+            int pageSize,
+            @NotNull @Transient ColumnTypes keyTypes,
+            @Nullable @Transient ColumnTypes valueTypes,
+            int keyCapacity,
+            double loadFactor,
+            int maxResizes,
+            int mapMemoryTag,
+            int listMemoryTag,
+            @Nullable SpillFile spill
     ) {
         assert pageSize > 3;
         assert loadFactor > 0 && loadFactor < 1d;
 
+        this.spill = spill;
         this.mapMemoryTag = mapMemoryTag;
         this.listMemoryTag = listMemoryTag;
         initialKeyCapacity = keyCapacity;
@@ -231,7 +265,11 @@ public class FastMap implements Map, Reopenable {
     public final void close() {
         Misc.free(offsets);
         if (kStart != 0) {
-            Unsafe.free(kStart, capacity, mapMemoryTag);
+            if (!spilled) {
+                Unsafe.free(kStart, capacity, mapMemoryTag);
+            }
+            spilled = false;
+            Misc.free(spill);
             kLimit = kStart = kPos = 0;
             free = 0;
             size = 0;
@@ -257,6 +295,50 @@ public class FastMap implements Map, Reopenable {
         return record;
     }
 
+    @Override
+    public void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        assert srcMap instanceof FastMap;
+        final FastMap srcFastMap = (FastMap) srcMap;
+        assert keySize == srcFastMap.keySize && valueSize == srcFastMap.valueSize;
+
+        final DirectLongList srcOffsets = srcFastMap.offsets;
+        for (int i = 0, n = (int) srcOffsets.size(); i < n; i++) {
+            final long srcPackedOffset = getPackedOffset(srcOffsets, i);
+            final long srcOffset = unpackOffset(srcPackedOffset);
+            if (srcOffset < 0) {
+                continue;
+            }
+            final long srcStartAddress = srcFastMap.kStart + srcOffset;
+            // Both maps use the same hash function, so there is no need to re-hash the key.
+            final int hashCode = unpackHashCode(srcPackedOffset);
+            final int entrySize = keySize != -1 ? keyOffset + keySize : Unsafe.getUnsafe().getInt(srcStartAddress);
+
+            int index = hashCode & mask;
+            long packedOffset;
+            long offset;
+            while ((offset = unpackOffset(packedOffset = getPackedOffset(offsets, index))) > -1) {
+                if (hashCode == unpackHashCode(packedOffset) && entryKeyEq(kStart + offset, srcStartAddress, entrySize)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if (offset > -1) {
+                mergeFunc.merge(
+                        valueOf(kStart + offset, false, value),
+                        srcFastMap.valueOf(srcStartAddress, false, srcFastMap.value)
+                );
+            } else {
+                // Copy the whole key-value pair as is.
+                final BaseKey destKey = key.init();
+                destKey.checkSize(entrySize - keyOffset);
+                Vect.memcpy(destKey.startAddress, srcStartAddress, entrySize);
+                destKey.appendAddress = destKey.startAddress + entrySize;
+                asNew(destKey, index, hashCode, value);
+            }
+        }
+    }
+
     public void reopen() {
         if (kStart == 0) {
             // handles both mem and offsets
@@ -266,7 +348,13 @@ public class FastMap implements Map, Reopenable {
 
     @Override
     public void restoreInitialCapacity() {
-        kStart = kPos = Unsafe.realloc(kStart, kLimit - kStart, capacity = initialPageSize, mapMemoryTag);
+        if (spilled) {
+            spill.clear();
+            spilled = false;
+            kStart = kPos = Unsafe.malloc(capacity = initialPageSize, mapMemoryTag);
+        } else {
+            kStart = kPos = Unsafe.realloc(kStart, kLimit - kStart, capacity = initialPageSize, mapMemoryTag);
+        }
         kLimit = kStart + initialPageSize;
         keyCapacity = (int) (initialKeyCapacity / loadFactor);
         keyCapacity = keyCapacity < MIN_INITIAL_CAPACITY ? MIN_INITIAL_CAPACITY : Numbers.ceilPow2(keyCapacity);
@@ -329,6 +417,14 @@ public class FastMap implements Map, Reopenable {
         return valueOf(keyWriter.startAddress, true, value);
     }
 
+    private boolean entryKeyEq(long destStartAddress, long srcStartAddress, int entrySize) {
+        // Check the length first in case of var-size keys.
+        if (keySize == -1 && Unsafe.getUnsafe().getInt(destStartAddress) != entrySize) {
+            return false;
+        }
+        return Vect.memeq(destStartAddress + keyOffset, srcStartAddress + keyOffset, entrySize - keyOffset);
+    }
+
     private FastMapValue probe0(BaseKey keyWriter, int index, int hashCode, FastMapValue value) {
         long packedOffset;
         long offset;
@@ -378,7 +474,7 @@ public class FastMap implements Map, Reopenable {
     }
 
     private void resize(int size) {
-        if (nResizes < maxResizes) {
+        if (nResizes < maxResizes || spill != null) {
             nResizes++;
             long kCapacity = (kLimit - kStart) << 1;
             long target = key.appendAddress + size - kStart;
@@ -388,7 +484,18 @@ public class FastMap implements Map, Reopenable {
             if (kCapacity > MAX_HEAP_SIZE) {
                 throw LimitOverflowException.instance().put("limit of ").put(MAX_HEAP_SIZE).put(" memory exceeded in FastMap");
             }
-            long kAddress = Unsafe.realloc(this.kStart, this.capacity, kCapacity, mapMemoryTag);
+            long kAddress;
+            if (spilled) {
+                kAddress = spill.remap(kCapacity);
+            } else if (nResizes > maxResizes) {
+                // Out of the in-memory budget, move key memory to the spill file.
+                kAddress = spill.remap(kCapacity);
+                Vect.memcpy(kAddress, this.kStart, key.appendAddress - this.kStart);
+                Unsafe.free(this.kStart, this.capacity, mapMemoryTag);
+                spilled = true;
+            } else {
+                kAddress = Unsafe.realloc(this.kStart, this.capacity, kCapacity, mapMemoryTag);
+            }
 
             this.capacity = kCapacity;
             long d = kAddress - this.kStart;
@@ -38,6 +38,18 @@ public interface Map extends Mutable, Closeable, Reopenable {
 
     MapRecord getRecord();
 
+    /**
+     * Copies all entries of the source map into this map. Entries with keys already present
+     * in this map are merged with the given function. The source map must have identical
+     * key and value types.
+     *
+     * @param srcMap    map to copy entries from
+     * @param mergeFunc function used to merge values of duplicate keys
+     */
+    default void merge(Map srcMap, MapValueMergeFunction mergeFunc) {
+        throw new UnsupportedOperationException();
+    }
+
     void restoreInitialCapacity();
 
     long size();
@@ -27,6 +27,7 @@ package io.questdb.cairo.map;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.SpillFile;
 import io.questdb.griffin.EmptyRecordMetadata;
 import io.questdb.std.Chars;
 import io.questdb.std.Transient;
@@ -88,9 +89,11 @@ public class MapFactory {
             return new FastMap(
                     pageSize,
                     keyTypes,
+                    null,
                     keyCapacity,
                     configuration.getSqlFastMapLoadFactor(),
-                    configuration.getSqlMapMaxResizes()
+                    configuration.getSqlMapMaxResizes(),
+                    SpillFile.newInstance(configuration)
             );
         }
 
@@ -124,7 +127,8 @@ public class MapFactory {
                     valueTypes,
                     keyCapacity,
                     configuration.getSqlFastMapLoadFactor(),
-                    configuration.getSqlMapMaxResizes()
+                    configuration.getSqlMapMaxResizes(),
+                    SpillFile.newInstance(configuration)
             );
         }
 
@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.pool;
 
+import io.questdb.MessageBus;
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
@@ -47,7 +48,7 @@ public class WalWriterPool extends AbstractMultiTenantPool<WalWriterPool.WalWrit
 
     @Override
     protected WalWriterTenant newTenant(TableToken tableToken, Entry<WalWriterTenant> entry, int index) {
-        return new WalWriterTenant(this, entry, index, tableToken, engine.getTableSequencerAPI(), engine.getMetrics());
+        return new WalWriterTenant(this, entry, index, tableToken, engine.getTableSequencerAPI(), engine.getMessageBus(), engine.getMetrics());
     }
 
     public static class WalWriterTenant extends WalWriter implements PoolTenant {
@@ -61,9 +62,10 @@ public class WalWriterPool extends AbstractMultiTenantPool<WalWriterPool.WalWrit
                 int index,
                 TableToken tableToken,
                 TableSequencerAPI tableSequencerAPI,
+                MessageBus messageBus,
                 Metrics metrics
         ) {
-            super(pool.getConfiguration(), tableToken, tableSequencerAPI, metrics);
+            super(pool.getConfiguration(), tableToken, tableSequencerAPI, messageBus, metrics);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
@@ -109,6 +109,10 @@ public class PageAddressCache implements Mutable {
         return false;
     }
 
+    public boolean isVarLenColumn(int columnIndex) {
+        return varLenColumnIndexes.getQuick(columnIndex) > -1;
+    }
+
     public void of(@Transient RecordMetadata metadata) {
         this.columnCount = metadata.getColumnCount();
         this.varLenColumnIndexes.setAll(columnCount, -1);
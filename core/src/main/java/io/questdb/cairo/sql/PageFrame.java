@@ -25,6 +25,7 @@
 package io.questdb.cairo.sql;
 
 import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.std.LongList;
 
 public interface PageFrame {
 
@@ -38,6 +39,21 @@ public interface PageFrame {
      */
     int getColumnShiftBits(int columnIndex);
 
+    /**
+     * Adds regions of column files the page frame is mapped from to the list, as
+     * (fd, offset, length, auxAddress) quads. Regions can be read ahead of time to populate
+     * OS page cache, so that access to the frame memory does not stall on page faults.
+     * Page frames that are not backed by memory-mapped files add nothing.
+     * <p>
+     * Offsets of variable-length column data are not known until the index file is read,
+     * such regions follow the region of their index file and carry address of the mapped
+     * index file with first and last row of the frame in place of offset and length.
+     *
+     * @param regions list to add file regions to
+     */
+    default void getFileRegions(LongList regions) {
+    }
+
     /**
      * Index page for variable-length column types, such as String and Binary
      *
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Reads column files of upcoming page frames via io_uring while the current frames are
+ * being processed. Columns are memory-mapped, so the first access to a cold page stalls
+ * the reading thread on a page fault, one page at a time. Large batched reads populate
+ * OS page cache instead, and by the time workers get to a frame its memory can be accessed
+ * without waiting on disk. Data is read into a bounded pool of buffers and discarded.
+ * <p>
+ * Reads are never waited for, except when the prefetcher is closed. When all buffers are
+ * busy, remaining regions are read on subsequent calls. This class is not thread-safe,
+ * it is used by the query owner thread only.
+ */
+public class PageFramePrefetcher implements QuietCloseable, Mutable {
+    private static final Log LOG = LogFactory.getLog(PageFramePrefetcher.class);
+    private final int bufferCount;
+    // read id per buffer, -1 when buffer is free
+    private final long[] bufferReadIds;
+    private final int bufferSize;
+    private final int frameCountAhead;
+    // index of the first region of each frame in the region list
+    private final IntList frameRegionIndexes = new IntList();
+    private final IOURingFacade rf;
+    // (fd, offset, length, auxAddress) quads, see PageFrame.getFileRegions()
+    private final LongList regions = new LongList();
+    private long buffersAddr;
+    private boolean disabled;
+    private int freeBufferCount;
+    private int nextRegionIndex;
+    private long nextRegionOffset;
+    // ids of the first and the last read of the last region submitted in full or in part
+    private long regionReadIdHi = -1;
+    private long regionReadIdLo;
+    private IOURing ring;
+
+    public PageFramePrefetcher(IOURingFacade rf, int frameCountAhead, int bufferCount, int bufferSize) {
+        this.rf = rf;
+        this.frameCountAhead = frameCountAhead;
+        this.bufferCount = bufferCount;
+        this.bufferSize = bufferSize;
+        this.bufferReadIds = new long[bufferCount];
+    }
+
+    /**
+     * @return prefetcher instance or null when prefetch is disabled or io_uring is not available
+     */
+    @Nullable
+    public static PageFramePrefetcher newInstance(CairoConfiguration configuration) {
+        final IOURingFacade rf = configuration.getIOURingFacade();
+        if (configuration.getSqlPageFramePrefetchFrames() > 0 && configuration.isIOURingEnabled() && rf.isAvailable()) {
+            return new PageFramePrefetcher(
+                    rf,
+                    configuration.getSqlPageFramePrefetchFrames(),
+                    configuration.getSqlPageFramePrefetchBufferCount(),
+                    configuration.getSqlPageFramePrefetchBufferSize()
+            );
+        }
+        return null;
+    }
+
+    /**
+     * Remembers file regions of the next page frame in the sequence.
+     *
+     * @param frame page frame
+     */
+    public void add(PageFrame frame) {
+        frameRegionIndexes.add(regions.size());
+        frame.getFileRegions(regions);
+    }
+
+    @Override
+    public void clear() {
+        regions.clear();
+        frameRegionIndexes.clear();
+        nextRegionIndex = 0;
+        nextRegionOffset = 0;
+        regionReadIdLo = 0;
+        regionReadIdHi = -1;
+        if (ring != null) {
+            reap();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (ring != null) {
+            // buffers can be released only when kernel is done writing to them
+            while (freeBufferCount < bufferCount) {
+                ring.submitAndWait();
+                reap();
+            }
+            ring = Misc.free(ring);
+        }
+        if (buffersAddr != 0) {
+            Unsafe.free(buffersAddr, (long) bufferCount * bufferSize, MemoryTag.NATIVE_TABLE_READER);
+            buffersAddr = 0;
+        }
+    }
+
+    public int getFreeBufferCount() {
+        return ring != null ? freeBufferCount : bufferCount;
+    }
+
+    /**
+     * Starts reading regions of the given frame and the frames that follow it,
+     * as far as free buffers allow.
+     *
+     * @param frameIndex index of the first frame that has not been processed yet
+     */
+    public void prefetch(int frameIndex) {
+        final int frameCount = frameRegionIndexes.size();
+        if (frameIndex >= frameCount || disabled) {
+            return;
+        }
+
+        // regions of frames that have been processed already are of no use
+        final int frameRegionIndex = frameRegionIndexes.getQuick(frameIndex);
+        if (nextRegionIndex < frameRegionIndex) {
+            nextRegionIndex = frameRegionIndex;
+            nextRegionOffset = 0;
+        }
+
+        final int frameIndexHi = frameIndex + frameCountAhead + 1;
+        final int regionIndexHi = frameIndexHi < frameCount ? frameRegionIndexes.getQuick(frameIndexHi) : regions.size();
+        if (nextRegionIndex >= regionIndexHi || (ring == null && !open())) {
+            return;
+        }
+
+        reap();
+        int enqueued = 0;
+        while (nextRegionIndex < regionIndexHi && freeBufferCount > 0) {
+            if (regions.getQuick(nextRegionIndex + 3) != 0 && !resolveDataRegion(nextRegionIndex)) {
+                // index file is still being read, the data region is resolved on subsequent calls
+                break;
+            }
+            final int fd = (int) regions.getQuick(nextRegionIndex);
+            final long offset = regions.getQuick(nextRegionIndex + 1);
+            final long length = regions.getQuick(nextRegionIndex + 2);
+            if (length == 0) {
+                nextRegionIndex += 4;
+                continue;
+            }
+            final int len = (int) Math.min(bufferSize, length - nextRegionOffset);
+            final int bufferIndex = nextFreeBuffer();
+            final long id = ring.enqueueRead(fd, offset + nextRegionOffset, buffersAddr + (long) bufferIndex * bufferSize, len);
+            if (id < 0) {
+                // submission queue is full
+                break;
+            }
+            bufferReadIds[bufferIndex] = id;
+            freeBufferCount--;
+            enqueued++;
+            if (nextRegionOffset == 0) {
+                regionReadIdLo = id;
+            }
+            regionReadIdHi = id;
+            nextRegionOffset += len;
+            if (nextRegionOffset == length) {
+                nextRegionIndex += 4;
+                nextRegionOffset = 0;
+            }
+        }
+
+        if (enqueued > 0) {
+            ring.submit();
+        }
+    }
+
+    private boolean isRegionRead() {
+        for (int i = 0; i < bufferCount; i++) {
+            final long id = bufferReadIds[i];
+            if (id >= regionReadIdLo && id <= regionReadIdHi) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextFreeBuffer() {
+        for (int i = 0; i < bufferCount; i++) {
+            if (bufferReadIds[i] == -1) {
+                return i;
+            }
+        }
+        throw new AssertionError("no free buffers");
+    }
+
+    private boolean open() {
+        try {
+            ring = rf.newInstance(Numbers.ceilPow2(bufferCount));
+        } catch (CairoException e) {
+            LOG.error().$("could not create io_uring, page frame prefetch is disabled [errno=").$(e.getErrno()).I$();
+            disabled = true;
+            return false;
+        }
+        buffersAddr = Unsafe.malloc((long) bufferCount * bufferSize, MemoryTag.NATIVE_TABLE_READER);
+        Arrays.fill(bufferReadIds, -1);
+        freeBufferCount = bufferCount;
+        return true;
+    }
+
+    private void reap() {
+        while (ring.nextCqe()) {
+            final long id = ring.getCqeId();
+            for (int i = 0; i < bufferCount; i++) {
+                if (bufferReadIds[i] == id) {
+                    bufferReadIds[i] = -1;
+                    freeBufferCount++;
+                    break;
+                }
+            }
+        }
+    }
+
+    // replaces row range of variable-length column data region with the file region,
+    // once the preceding region of the index file is read and its offsets are in page cache
+    private boolean resolveDataRegion(int regionIndex) {
+        reap();
+        if (!isRegionRead()) {
+            return false;
+        }
+        final long auxAddress = regions.getQuick(regionIndex + 3);
+        final long lo = Unsafe.getUnsafe().getLong(auxAddress + (regions.getQuick(regionIndex + 1) << 3));
+        final long hi = Unsafe.getUnsafe().getLong(auxAddress + (regions.getQuick(regionIndex + 2) << 3));
+        regions.setQuick(regionIndex + 1, lo);
+        regions.setQuick(regionIndex + 2, Math.max(hi - lo, 0));
+        regions.setQuick(regionIndex + 3, 0);
+        return true;
+    }
+}
@@ -37,6 +37,7 @@ import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -53,6 +54,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private final WeakClosableObjectPool<PageFrameReduceTask> localTaskPool;
     private final MessageBus messageBus;
     private final PageAddressCache pageAddressCache;
+    @Nullable
+    private final PageFramePrefetcher prefetcher;
     private final AtomicInteger reduceCounter = new AtomicInteger(0);
     private final PageFrameReducer reducer;
     private final AtomicBoolean valid = new AtomicBoolean(true);
@@ -82,6 +85,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             WeakClosableObjectPool<PageFrameReduceTask> localTaskPool
     ) {
         this.pageAddressCache = new PageAddressCache(configuration);
+        this.prefetcher = PageFramePrefetcher.newInstance(configuration);
         this.messageBus = messageBus;
         this.reducer = reducer;
         this.clock = configuration.getMillisecondClock();
@@ -157,6 +161,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         collectedFrameIndex = -1;
         readyToDispatch = false;
         pageAddressCache.clear();
+        if (prefetcher != null) {
+            prefetcher.clear();
+        }
         pageFrameCursor = Misc.freeIfCloseable(pageFrameCursor);
         // collect sequence may not be set here when
         // factory is closed without using cursor
@@ -177,6 +184,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         clear();
         Misc.freeIfCloseable(circuitBreaker);
         Misc.free(record);
+        Misc.free(prefetcher);
     }
 
     public void collect(long cursor, boolean forceCollect) {
@@ -270,6 +278,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         }
 
         assert collectedFrameIndex < frameCount - 1;
+        if (prefetcher != null) {
+            prefetcher.prefetch(collectedFrameIndex + 1);
+        }
         while (true) {
             long cursor = collectSubSeq.next();
             if (cursor > -1) {
@@ -392,6 +403,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         while ((frame = pageFrameCursor.next()) != null) {
             pageAddressCache.add(frameCount++, frame);
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
+            if (prefetcher != null) {
+                prefetcher.add(frame);
+            }
         }
 
         // dispatch tasks only if there is anything to dispatch
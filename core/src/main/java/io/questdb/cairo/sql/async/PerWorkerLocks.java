@@ -0,0 +1,82 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.std.Os;
+import io.questdb.std.Rnd;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Guards per-worker state, such as filter function copies or partial aggregation maps,
+ * used by page frame reducers. Each slot may be acquired by a single thread at a time.
+ * Worker threads of shared pools map to their own slots, while work stealing threads,
+ * e.g. query owner threads running other queries, pick random slots.
+ */
+public class PerWorkerLocks {
+
+    private final AtomicIntegerArray locks;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+    private final int workerCount;
+
+    public PerWorkerLocks(@NotNull CairoConfiguration configuration, int workerCount) {
+        assert workerCount > 0;
+        this.workerCount = workerCount;
+        this.locks = new AtomicIntegerArray(workerCount);
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+    }
+
+    /**
+     * Spins until a free slot is acquired.
+     *
+     * @param workerId       worker id, -1 for work stealing threads
+     * @param circuitBreaker circuit breaker used to abort the spin in case of query cancellation
+     * @return acquired slot id
+     */
+    public int acquireSlot(int workerId, SqlExecutionCircuitBreaker circuitBreaker) {
+        workerId = workerId == -1 ? rnd.nextInt(workerCount) : workerId;
+        while (true) {
+            for (int i = 0; i < workerCount; i++) {
+                int id = (i + workerId) % workerCount;
+                if (locks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    public void releaseSlot(int slotId) {
+        locks.set(slotId, 0);
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCodec;
+import io.questdb.cairo.TableUtils;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Decoded copies of compressed partition columns, shared by all readers that have the column open.
+ * Columns are decoded lazily, block by block, into a page-aligned native buffer, which is freed when
+ * the last reader closes the column. Compressed files are not modified in place, the writer puts new
+ * files into new partition versions, which makes the file path a stable key. File length and
+ * modification time guard against a path reused by a re-created table.
+ */
+final class DecompressedColumnCache {
+    static final DecompressedColumnCache INSTANCE = new DecompressedColumnCache();
+    private static final Log LOG = LogFactory.getLog(DecompressedColumnCache.class);
+    private final CharSequenceObjHashMap<Column> columns = new CharSequenceObjHashMap<>();
+
+    synchronized Column acquire(FilesFacade ff, LPSZ name, int memoryTag) {
+        final long lastModified = ff.getLastModified(name);
+        final int index = columns.keyIndex(name);
+        if (index < 0) {
+            final Column column = columns.valueAtQuick(index);
+            if (column.lastModified == lastModified && column.compressedSize == ff.length(name)) {
+                column.refCount++;
+                return column;
+            }
+        }
+        // stale column, if any, is freed by its last user
+        final Column column = new Column(ff, name, lastModified, memoryTag);
+        columns.putAt(index, column.name, column);
+        return column;
+    }
+
+    synchronized void release(Column column) {
+        if (--column.refCount == 0) {
+            final int index = columns.keyIndex(column.name);
+            if (index < 0 && columns.valueAtQuick(index) == column) {
+                columns.removeAt(index);
+            }
+            column.close();
+        }
+    }
+
+    static final class Column implements Closeable {
+        private final AtomicIntegerArray blocks;
+        private final long blockSize;
+        private final ColumnCodec.Decoder decoder = new ColumnCodec.Decoder();
+        private final long decodedSize;
+        private final FilesFacade ff;
+        private final long lastModified;
+        private final int memoryTag;
+        private final String name;
+        private long allocAddress;
+        private long allocSize;
+        private long compressedAddr;
+        private long compressedSize;
+        private int decodedBlockCount;
+        private int fd;
+        private long pageAddress;
+        private int refCount = 1;
+
+        private Column(FilesFacade ff, LPSZ name, long lastModified, int memoryTag) {
+            this.ff = ff;
+            this.name = Chars.toString(name);
+            this.lastModified = lastModified;
+            this.memoryTag = memoryTag;
+            this.fd = TableUtils.openRO(ff, name, LOG);
+            try {
+                compressedSize = ff.length(fd);
+                if (compressedSize < ColumnCodec.HEADER_SIZE) {
+                    throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+                }
+                compressedAddr = TableUtils.mapRO(ff, fd, compressedSize, memoryTag);
+                final int valueSize = ColumnCodec.getValueSize(compressedAddr);
+                decodedSize = ColumnCodec.getRowCount(compressedAddr) * valueSize;
+                blockSize = ColumnCodec.getBlockRowCount(compressedAddr) * valueSize;
+                blocks = new AtomicIntegerArray((int) ColumnCodec.getBlockCount(compressedAddr));
+                // pages are not touched until blocks are decoded into them
+                final long pageSize = ff.getPageSize();
+                allocSize = decodedSize + pageSize;
+                allocAddress = Unsafe.malloc(allocSize, MemoryTag.NATIVE_TABLE_READER);
+                pageAddress = (allocAddress + pageSize - 1) & -pageSize;
+            } catch (Throwable e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (allocAddress != 0) {
+                Unsafe.free(allocAddress, allocSize, MemoryTag.NATIVE_TABLE_READER);
+                allocAddress = 0;
+                pageAddress = 0;
+            }
+            if (compressedAddr != 0) {
+                ff.munmap(compressedAddr, compressedSize, memoryTag);
+                compressedAddr = 0;
+            }
+            if (fd != -1) {
+                ff.close(fd);
+                fd = -1;
+            }
+        }
+
+        /**
+         * Makes sure that the given range of the decoded column is readable.
+         *
+         * @param lo low offset of the range, inclusive
+         * @param hi high offset of the range, exclusive
+         */
+        void decode(long lo, long hi) {
+            for (int block = (int) (lo / blockSize), n = (int) ((Math.min(hi, decodedSize) + blockSize - 1) / blockSize); block < n; block++) {
+                if (blocks.get(block) == 0) {
+                    decodeBlock(block);
+                }
+            }
+        }
+
+        long getBlockSize() {
+            return blockSize;
+        }
+
+        synchronized int getDecodedBlockCount() {
+            return decodedBlockCount;
+        }
+
+        long getDecodedSize() {
+            return decodedSize;
+        }
+
+        int getFd() {
+            return fd;
+        }
+
+        long getPageAddress() {
+            return pageAddress;
+        }
+
+        private synchronized void decodeBlock(int block) {
+            if (blocks.get(block) == 0) {
+                decoder.decode(compressedAddr, compressedSize, block, block + 1, pageAddress + block * blockSize);
+                decodedBlockCount++;
+                // volatile write publishes decoded values to readers that see the flag
+                blocks.set(block, 1);
+            }
+        }
+    }
+}
@@ -70,7 +70,7 @@ public class MemoryCARWImpl extends AbstractMemoryCR implements MemoryCARW, Muta
         super.clear();
         if (pageAddress != 0) {
             long baseLength = lim - pageAddress;
-            Unsafe.free(pageAddress, baseLength, memoryTag);
+            releaseMemory(pageAddress, baseLength);
             handleMemoryReleased();
             size = 0;
         }
@@ -207,6 +207,10 @@ public class MemoryCARWImpl extends AbstractMemoryCR implements MemoryCARW, Muta
         return Unsafe.malloc(newSize, memoryTag);
     }
 
+    protected void releaseMemory(long baseAddress, long size) {
+        Unsafe.free(baseAddress, size, memoryTag);
+    }
+
     protected final void setPageSize(long size) {
         this.sizeMsb = Numbers.msb(Numbers.ceilPow2(size));
     }
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.SpillFile;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Contiguous memory that moves to a {@link SpillFile} once it grows beyond maxPages pages
+ * instead of failing with a limit overflow. The memory moves back to the heap when it
+ * shrinks below the limit or gets cleared.
+ */
+public class MemoryCARWSpillImpl extends MemoryCARWImpl {
+    private final long heapLimit;
+    private final int memoryTag;
+    private final SpillFile spill;
+    private boolean spilled;
+
+    public MemoryCARWSpillImpl(long pageSize, int maxPages, int memoryTag, SpillFile spill) {
+        super(pageSize, Integer.MAX_VALUE, memoryTag);
+        this.memoryTag = memoryTag;
+        this.spill = spill;
+        this.heapLimit = getExtendSegmentSize() * maxPages;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(spill);
+    }
+
+    @Override
+    protected long reallocateMemory(long currentBaseAddress, long currentSize, long newSize) {
+        if (newSize > heapLimit) {
+            if (spilled) {
+                return spill.remap(newSize);
+            }
+            final long address = spill.remap(newSize);
+            if (currentBaseAddress != 0) {
+                Vect.memcpy(address, currentBaseAddress, currentSize);
+                Unsafe.free(currentBaseAddress, currentSize, memoryTag);
+            }
+            spilled = true;
+            return address;
+        }
+
+        if (spilled) {
+            final long address = Unsafe.malloc(newSize, memoryTag);
+            Vect.memcpy(address, currentBaseAddress, Math.min(currentSize, newSize));
+            spill.clear();
+            spilled = false;
+            return address;
+        }
+        return super.reallocateMemory(currentBaseAddress, currentSize, newSize);
+    }
+
+    @Override
+    protected void releaseMemory(long baseAddress, long size) {
+        if (spilled) {
+            spill.clear();
+            spilled = false;
+        } else {
+            super.releaseMemory(baseAddress, size);
+        }
+    }
+}
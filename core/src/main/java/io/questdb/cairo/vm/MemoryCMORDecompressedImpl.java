@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnCodec;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.vm.api.MemoryCMOR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.LPSZ;
+
+// contiguous readable with offset, decoded from a sealed WAL segment column written by ColumnCodec.
+// Offsets are those of the raw column file, only the blocks overlapping requested range are decoded.
+public class MemoryCMORDecompressedImpl extends AbstractMemoryCR implements MemoryCMOR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMORDecompressedImpl.class);
+    private final ColumnCodec.Decoder decoder = new ColumnCodec.Decoder();
+    private long allocSize;
+    private long blockHi;
+    private long blockLo;
+    private long blockSize;
+    private long compressedAddr;
+    private long compressedSize;
+    private long decodedSize;
+    private long mapFileOffset;
+    private int memoryTag;
+    private long offset;
+
+    @Override
+    public long addressOf(long offset) {
+        assert offset - mapFileOffset <= size : "offset=" + offset + ", size=" + size + ", fd=" + fd;
+        return pageAddress + offset - mapFileOffset;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (pageAddress != 0) {
+            Unsafe.free(pageAddress, allocSize, MemoryTag.NATIVE_TABLE_WRITER);
+            pageAddress = 0;
+            allocSize = 0;
+        }
+        if (compressedAddr != 0) {
+            ff.munmap(compressedAddr, compressedSize, memoryTag);
+            compressedAddr = 0;
+            compressedSize = 0;
+        }
+        if (ff != null && ff.close(fd)) {
+            LOG.debug().$("closed [fd=").$(fd).I$();
+            fd = -1;
+        }
+        size = 0;
+        blockLo = 0;
+        blockHi = 0;
+        mapFileOffset = 0;
+        offset = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size()) {
+            decodeTo(offset + newSize);
+        }
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void growToFileSize() {
+        extend(decodedSize - offset);
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        ofOffset(ff, name, 0L, size, memoryTag, opts);
+    }
+
+    @Override
+    public void ofOffset(FilesFacade ff, LPSZ name, long lo, long hi, int memoryTag, long opts) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        fd = TableUtils.openRO(ff, name, LOG);
+        try {
+            compressedSize = ff.length(fd);
+            if (compressedSize < ColumnCodec.HEADER_SIZE) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+            }
+            compressedAddr = TableUtils.mapRO(ff, fd, compressedSize, memoryTag);
+            final int valueSize = ColumnCodec.getValueSize(compressedAddr);
+            decodedSize = ColumnCodec.getRowCount(compressedAddr) * valueSize;
+            blockSize = ColumnCodec.getBlockRowCount(compressedAddr) * valueSize;
+            if (hi < 0) {
+                hi = decodedSize;
+            }
+            assert hi >= lo : "hi : " + hi + " lo : " + lo;
+
+            this.offset = lo;
+            this.blockLo = lo / blockSize;
+            this.blockHi = blockLo;
+            this.mapFileOffset = blockLo * blockSize;
+            decodeTo(hi);
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        LOG.debug().$("decompressed [file=").$(name).$(", fd=").$(fd).$(", blockLo=").$(blockLo).$(", blockHi=").$(blockHi).I$();
+    }
+
+    @Override
+    public long size() {
+        return size + mapFileOffset - offset;
+    }
+
+    private void decodeTo(long hi) {
+        if (hi > decodedSize) {
+            throw CairoException.critical(0).put("compressed segment column is too short [fd=").put(fd)
+                    .put(", size=").put(hi)
+                    .put(", decodedSize=").put(decodedSize)
+                    .put(']');
+        }
+        final long newBlockHi = (hi + blockSize - 1) / blockSize;
+        if (newBlockHi > blockHi) {
+            final long newAllocSize = (newBlockHi - blockLo) * blockSize;
+            pageAddress = Unsafe.realloc(pageAddress, allocSize, newAllocSize, MemoryTag.NATIVE_TABLE_WRITER);
+            allocSize = newAllocSize;
+            decoder.decode(compressedAddr, compressedSize, blockHi, newBlockHi, pageAddress + (blockHi - blockLo) * blockSize);
+            blockHi = newBlockHi;
+        }
+        size = hi - mapFileOffset;
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.TestOnly;
+
+// contiguous readable, decoded from a column file written by ColumnCodec. The decoded column is
+// shared by all memories open on the same file and its blocks are decoded on first access,
+// see DecompressedColumnCache.
+public class MemoryCMRDecompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private static final Log LOG = LogFactory.getLog(MemoryCMRDecompressedImpl.class);
+    private DecompressedColumnCache.Column column;
+    // range of blocks this memory has already seen decoded
+    private long decodedHi;
+    private long decodedLo;
+
+    @Override
+    public long addressOf(long offset) {
+        assert offset <= size : "offset=" + offset + ", size=" + size;
+        if (offset < decodedLo || offset >= decodedHi) {
+            decode(offset, offset + 1);
+        }
+        return pageAddress + offset;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (column != null) {
+            DecompressedColumnCache.INSTANCE.release(column);
+            column = null;
+        }
+        pageAddress = 0;
+        size = 0;
+        decodedLo = 0;
+        decodedHi = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0).put("cannot extend decompressed column [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @TestOnly
+    public int getDecodedBlockCount() {
+        return column != null ? column.getDecodedBlockCount() : 0;
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        // caller may read any part of the column
+        return getPageAddress(pageIndex, 0, size);
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex, long lo, long hi) {
+        if (lo < decodedLo || hi > decodedHi) {
+            decode(lo, hi);
+        }
+        return pageAddress;
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        // the new column is acquired before the current one is released, so that
+        // reopening the same file keeps its decoded blocks
+        final DecompressedColumnCache.Column column = DecompressedColumnCache.INSTANCE.acquire(ff, name, memoryTag);
+        close();
+        this.ff = ff;
+        this.column = column;
+        final long decodedSize = column.getDecodedSize();
+        if (size < 0) {
+            size = decodedSize;
+        } else if (size > decodedSize) {
+            close();
+            throw CairoException.critical(0).put("compressed column is too short [file=").put(name)
+                    .put(", size=").put(size)
+                    .put(", decodedSize=").put(decodedSize)
+                    .put(']');
+        }
+        this.pageAddress = column.getPageAddress();
+        this.size = size;
+        LOG.debug().$("opened compressed column [file=").$(name).$(", size=").$(size).I$();
+    }
+
+    @Override
+    public long resize(long size) {
+        extend(size);
+        return getPageAddress(0);
+    }
+
+    private void decode(long lo, long hi) {
+        lo = Math.max(lo, 0);
+        if (column == null || hi <= lo) {
+            return;
+        }
+        column.decode(lo, hi);
+        final long blockSize = column.getBlockSize();
+        decodedLo = lo / blockSize * blockSize;
+        decodedHi = Math.min((hi + blockSize - 1) / blockSize * blockSize, column.getDecodedSize());
+    }
+}
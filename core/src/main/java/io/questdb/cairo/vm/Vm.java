@@ -24,11 +24,13 @@
 
 package io.questdb.cairo.vm;
 
+import io.questdb.cairo.SpillFile;
 import io.questdb.cairo.vm.api.*;
 import io.questdb.log.Log;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.str.LPSZ;
+import org.jetbrains.annotations.Nullable;
 
 public class Vm {
     public static final int STRING_LENGTH_BYTES = 4;
@@ -77,6 +79,10 @@ public class Vm {
         return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
     }
 
+    public static MemoryARW getARWInstance(long pageSize, int maxPages, int memoryTag, @Nullable SpillFile spill) {
+        return spill != null ? new MemoryCARWSpillImpl(pageSize, maxPages, memoryTag, spill) : new MemoryCARWImpl(pageSize, maxPages, memoryTag);
+    }
+
     public static MemoryCARW getCARWInstance(long pageSize, int maxPages, int memoryTag) {
         return new MemoryCARWImpl(pageSize, maxPages, memoryTag);
     }
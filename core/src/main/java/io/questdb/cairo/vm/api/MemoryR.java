@@ -78,6 +78,19 @@ public interface MemoryR extends Closeable {
 
     long getPageAddress(int pageIndex);
 
+    /**
+     * Same as {@link #getPageAddress(int)}, but only offsets in the given range of the page are
+     * going to be read. Memory that decodes its content on access decodes just this range.
+     *
+     * @param pageIndex index of the page
+     * @param lo        low offset of the range, inclusive
+     * @param hi        high offset of the range, exclusive
+     * @return address of the page
+     */
+    default long getPageAddress(int pageIndex, long lo, long hi) {
+        return getPageAddress(pageIndex);
+    }
+
     int getPageCount();
 
     long getPageSize();
@@ -27,6 +27,7 @@ package io.questdb.cairo.wal;
 import io.questdb.Telemetry;
 import io.questdb.TelemetryOrigin;
 import io.questdb.cairo.*;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
 import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cairo.wal.seq.TransactionLogCursor;
@@ -411,6 +412,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     }
                 }
                 totalTransactionCount += iTransaction;
+                tableSequencerAPI.getTxnTracker(tableToken).notifyOnApply(writer.getSeqTxn(), rowsAdded);
                 if (totalTransactionCount > 0) {
                     LOG.info().$("WAL apply job finished [table=").$(writer.getTableToken())
                             .$(", transactions=").$(totalTransactionCount)
@@ -426,6 +428,29 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         }
     }
 
+    private void applyWalAndTrack(TableToken tableToken, long seqTxn, RunStatus runStatus) {
+        final int tableId = tableToken.getTableId();
+        if (lastAppliedSeqTxns.get(tableId) < seqTxn) {
+            // Check, maybe we already processed this table to higher txn.
+            final long txn = applyWAL(tableToken, engine, operationCompiler, runStatus);
+            if (txn > -1L) {
+                lastAppliedSeqTxns.put(tableId, txn);
+            } else if (txn == WAL_APPLY_FAILED) {
+                // Set processed transaction marker as Long.MAX_VALUE - 1
+                // so that when the table is unsuspended it's notified with transaction Long.MAX_VALUE
+                // and got picked up for processing in this apply job.
+                lastAppliedSeqTxns.put(tableId, Long.MAX_VALUE - 1);
+                try {
+                    engine.getTableSequencerAPI().suspendTable(tableToken);
+                } catch (CairoException e) {
+                    LOG.critical().$("could not suspend table [table=").$(tableToken.getTableName()).$(", error=").$(e.getFlyweightMessage()).I$();
+                }
+            }
+        } else {
+            LOG.debug().$("Skipping WAL processing for table, already processed [table=").$(tableToken).$(", txn=").$(seqTxn).I$();
+        }
+    }
+
     private void doStoreTelemetry(short event, short origin) {
         TelemetryTask.store(telemetry, origin, event);
     }
@@ -659,26 +684,27 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
             subSeq.done(cursor);
         }
 
-        final int tableId = tableToken.getTableId();
-        if (lastAppliedSeqTxns.get(tableId) < seqTxn) {
-            // Check, maybe we already processed this table to higher txn.
-            final long txn = applyWAL(tableToken, engine, operationCompiler, runStatus);
-            if (txn > -1L) {
-                lastAppliedSeqTxns.put(tableId, txn);
-            } else if (txn == WAL_APPLY_FAILED) {
-                // Set processed transaction marker as Long.MAX_VALUE - 1
-                // so that when the table is unsuspended it's notified with transaction Long.MAX_VALUE
-                // and got picked up for processing in this apply job.
-                lastAppliedSeqTxns.put(tableId, Long.MAX_VALUE - 1);
-                try {
-                    engine.getTableSequencerAPI().suspendTable(tableToken);
-                } catch (CairoException e) {
-                    LOG.critical().$("could not suspend table [table=").$(tableToken.getTableName()).$(", error=").$(e.getFlyweightMessage()).I$();
-                }
+        // Notifications arrive in commit order, which lets busy tables fall behind
+        // while the job works through tables with little to apply.
+        // Serve the table with the largest lag first, if any is over the soft threshold.
+        final SeqTxnTracker mostLagging = tableSequencerAPI.getMostLaggingTable();
+        if (mostLagging != null) {
+            final TableToken laggingToken = mostLagging.getTableToken();
+            metrics.setApplyMaxLag(mostLagging.getLag(), mostLagging.getPendingRows());
+            if (laggingToken.getTableId() != tableToken.getTableId()) {
+                LOG.info().$("applying most lagging table first [table=").$(laggingToken)
+                        .$(", lagTxns=").$(mostLagging.getLag())
+                        .$(", pendingRows=").$(mostLagging.getPendingRows())
+                        .$(", notifiedTable=").$(tableToken)
+                        .I$();
+                applyWalAndTrack(laggingToken, mostLagging.getSeqTxn(), runStatus);
             }
         } else {
-            LOG.debug().$("Skipping WAL processing for table, already processed [table=").$(tableToken).$(", txn=").$(seqTxn).I$();
+            metrics.setApplyMaxLag(0, 0);
         }
+        metrics.setApplyLaggingTables(tableSequencerAPI.getLaggingTableCount());
+
+        applyWalAndTrack(tableToken, seqTxn, runStatus);
         return true;
     }
 
@@ -76,6 +76,7 @@ public class CheckWalTransactionsJob extends SynchronizedJob {
                 threadLocalPath.trimTo(dbRoot.length()).concat(tableToken).concat(TableUtils.TXN_FILE_NAME).$();
                 try (TxReader txReader2 = txReader.ofRO(threadLocalPath, PartitionBy.NONE)) {
                     TableUtils.safeReadTxn(txReader, millisecondClock, spinLockTimeout);
+                    engine.getTableSequencerAPI().getTxnTracker(tableToken).notifyOnStart(txReader2.getSeqTxn(), txn);
                     if (txReader2.getSeqTxn() < txn) {
                         engine.notifyWalTxnCommitted(tableToken, txn);
                     }
@@ -31,9 +31,13 @@ import io.questdb.metrics.MetricsRegistry;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class WalMetrics {
+    private final LongGauge applyLaggingTablesGauge;
+    private final LongGauge applyMaxLagPendingRowsGauge;
+    private final LongGauge applyMaxLagTxnsGauge;
     private final Counter applyPhysicallyWrittenRowsCounter;
     private final LongGauge applyRowsWriteRateGauge;
     private final Counter applyRowsWrittenCounter;
+    private final Counter backpressureCounter;
     private final Counter rowsWrittenCounter;
     private final AtomicLong totalRowsWritten = new AtomicLong();
     private final AtomicLong totalRowsWrittenTotalTime = new AtomicLong();
@@ -43,6 +47,10 @@ public class WalMetrics {
         this.applyRowsWrittenCounter = metricsRegistry.newCounter("wal_apply_written_rows");
         this.applyRowsWriteRateGauge = metricsRegistry.newLongGauge("wal_apply_rows_per_second");
         this.rowsWrittenCounter = metricsRegistry.newCounter("wal_written_rows");
+        this.applyLaggingTablesGauge = metricsRegistry.newLongGauge("wal_apply_lagging_tables");
+        this.applyMaxLagTxnsGauge = metricsRegistry.newLongGauge("wal_apply_max_lag_txns");
+        this.applyMaxLagPendingRowsGauge = metricsRegistry.newLongGauge("wal_apply_max_lag_pending_rows");
+        this.backpressureCounter = metricsRegistry.newCounter("wal_ingestion_backpressure");
     }
 
     public void addApplyRowsWritten(long rows, long physicallyWrittenRows, long timeMicros) {
@@ -57,4 +65,21 @@ public class WalMetrics {
     public void addRowsWritten(long rows) {
         rowsWrittenCounter.add(rows);
     }
+
+    public long getBackpressureCount() {
+        return backpressureCounter.getValue();
+    }
+
+    public void incrementBackpressure() {
+        backpressureCounter.inc();
+    }
+
+    public void setApplyLaggingTables(long count) {
+        applyLaggingTablesGauge.setValue(count);
+    }
+
+    public void setApplyMaxLag(long lagTxns, long pendingRows) {
+        applyMaxLagTxnsGauge.setValue(lagTxns);
+        applyMaxLagPendingRowsGauge.setValue(pendingRows);
+    }
 }
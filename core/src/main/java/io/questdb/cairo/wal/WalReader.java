@@ -25,6 +25,7 @@
 package io.questdb.cairo.wal;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.vm.MemoryCMORDecompressedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -179,8 +180,20 @@ public class WalReader implements Closeable {
                     openOrCreateMemory(path, columns, primaryIndex, primaryMem, columnSize);
                 } else {
                     long columnSize = rowCount << ColumnType.pow2SizeOf(columnType);
+                    if (columnIndex == getTimestampIndex()) {
+                        columnSize <<= 1;
+                    }
                     TableUtils.dFile(path.trimTo(pathLen), name);
-                    openOrCreateMemory(path, columns, primaryIndex, primaryMem, columnIndex == getTimestampIndex() ? columnSize << 1 : columnSize);
+                    if (ff.exists(path) || !ff.exists(TableUtils.dzFile(path.trimTo(pathLen), name, COLUMN_NAME_TXN_NONE))) {
+                        TableUtils.dFile(path.trimTo(pathLen), name);
+                        openOrCreateMemory(path, columns, primaryIndex, primaryMem, columnSize);
+                    } else {
+                        // segment is compressed by WAL writer
+                        Misc.free(primaryMem);
+                        final MemoryCMORDecompressedImpl mem = new MemoryCMORDecompressedImpl();
+                        columns.setQuick(primaryIndex, mem);
+                        mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WAL_READER);
+                    }
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
             }
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.wal.seq.SequencerMetadata;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.tasks.WalSegmentCompressionTask;
+
+import java.io.Closeable;
+
+import static io.questdb.cairo.TableUtils.*;
+
+/**
+ * Compresses fixed-size columns of sealed WAL segments. WAL writers publish a segment once they
+ * roll over to the next one or close, so that encoding does not run on the ingestion thread.
+ * Each run compresses a single segment.
+ * <p>
+ * A column is compressed to a temporary file, which is renamed to the .dz file before the raw .d
+ * file is removed. Readers open the raw file first and fall back to the compressed one, so a reader
+ * that finds neither cannot exist. WAL apply may have the raw file open or mapped while it is
+ * removed. On Windows such a file cannot be removed, in that case the raw file is kept next to the
+ * compressed one, readers keep using it and {@link WalPurgeJob} removes it with the segment.
+ */
+public class WalSegmentCompressionJob extends SynchronizedJob implements Closeable {
+    private static final Log LOG = LogFactory.getLog(WalSegmentCompressionJob.class);
+    private static final int MEM_TAG = MemoryTag.MMAP_TABLE_WAL_WRITER;
+    private final CairoConfiguration configuration;
+    private final ColumnCodec.Encoder encoder = new ColumnCodec.Encoder();
+    private final FilesFacade ff;
+    private final SequencerMetadata metadata;
+    private final Path path = new Path();
+    private final RingQueue<WalSegmentCompressionTask> queue;
+    private final Sequence subSeq;
+    private final Path tmpPath = new Path();
+
+    public WalSegmentCompressionJob(CairoEngine engine) {
+        this.configuration = engine.getConfiguration();
+        this.ff = configuration.getFilesFacade();
+        this.metadata = new SequencerMetadata(ff, true);
+        this.queue = engine.getMessageBus().getWalSegmentCompressionQueue();
+        this.subSeq = engine.getMessageBus().getWalSegmentCompressionSubSeq();
+    }
+
+    @Override
+    public void close() {
+        Misc.free(encoder);
+        Misc.free(metadata);
+        Misc.free(path);
+        Misc.free(tmpPath);
+    }
+
+    private void compressColumn(CharSequence columnName, int columnType, boolean designatedTimestamp, long rowCount, int segmentPathLen) {
+        final long rawSize = rowCount << (ColumnType.pow2SizeOf(columnType) + (designatedTimestamp ? 1 : 0));
+        final int fd = ff.openRO(dFile(path.trimTo(segmentPathLen), columnName));
+        if (fd == -1) {
+            // already compressed
+            return;
+        }
+        final long compressedSize;
+        try {
+            if (ff.length(fd) < rawSize) {
+                LOG.error().$("WAL column file is shorter than segment [path=").$(path)
+                        .$(", size=").$(ff.length(fd))
+                        .$(", expectedSize=").$(rawSize)
+                        .I$();
+                return;
+            }
+            tmpPath.of(path.trimTo(segmentPathLen)).concat(columnName).put(FILE_SUFFIX_DZ).put(".tmp").$();
+            final long rawAddr = TableUtils.mapRO(ff, fd, rawSize, MEM_TAG);
+            try {
+                compressedSize = encoder.encode(
+                        ff,
+                        tmpPath,
+                        configuration.getDataAppendPageSize(),
+                        rawAddr,
+                        rowCount,
+                        columnType,
+                        designatedTimestamp,
+                        configuration.getWriterFileOpenOpts()
+                );
+            } finally {
+                ff.munmap(rawAddr, rawSize, MEM_TAG);
+            }
+        } finally {
+            ff.close(fd);
+        }
+
+        if (compressedSize >= rawSize) {
+            // incompressible column, readers keep using the raw file
+            ff.remove(tmpPath);
+            return;
+        }
+
+        dzFile(path.trimTo(segmentPathLen), columnName, COLUMN_NAME_TXN_NONE);
+        if (ff.rename(tmpPath, path) != Files.FILES_RENAME_OK) {
+            throw CairoException.critical(ff.errno()).put("could not rename WAL column file [from=").put(tmpPath).put(", to=").put(path).put(']');
+        }
+        dFile(path.trimTo(segmentPathLen), columnName);
+        if (!ff.remove(path)) {
+            // the file is open or mapped by WAL apply on Windows, see class comment
+            LOG.info().$("could not remove raw WAL column file, it is kept until the segment is purged [path=").$(path)
+                    .$(", errno=").$(ff.errno())
+                    .I$();
+        }
+    }
+
+    private void compressSegment(TableToken tableToken, int walId, int segmentId, long rowCount) {
+        path.of(configuration.getRoot()).concat(tableToken).concat(WalUtils.WAL_NAME_BASE).put(walId).slash().put(segmentId);
+        final int segmentPathLen = path.length();
+        if (!ff.exists(path.$())) {
+            // segment is already applied and purged
+            return;
+        }
+
+        // WalPurgeJob does not remove locked segments
+        lockName(path.trimTo(segmentPathLen));
+        final int lockFd = TableUtils.lock(ff, path, false);
+        path.trimTo(segmentPathLen);
+        if (lockFd == -1) {
+            LOG.info().$("WAL segment is locked, it is left uncompressed [path=").$(path).I$();
+            return;
+        }
+
+        try {
+            metadata.open(path, segmentPathLen);
+            final int timestampIndex = metadata.getTimestampIndex();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType > 0 && (i == timestampIndex || ColumnCodec.getCodec(columnType) != ColumnCodec.CODEC_NONE)) {
+                    compressColumn(metadata.getColumnName(i), columnType, i == timestampIndex, rowCount, segmentPathLen);
+                }
+            }
+            LOG.info().$("compressed WAL segment [path=").$(path.trimTo(segmentPathLen)).$(", rowCount=").$(rowCount).I$();
+        } catch (Throwable e) {
+            // segment stays readable, columns that were not compressed keep their raw files
+            LOG.error().$("could not compress WAL segment [path=").$(path.trimTo(segmentPathLen))
+                    .$(", error=").$(e).I$();
+        } finally {
+            ff.close(lockFd);
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long cursor = subSeq.next();
+        if (cursor < 0) {
+            return false;
+        }
+        final WalSegmentCompressionTask task = queue.get(cursor);
+        final TableToken tableToken = task.getTableToken();
+        final int walId = task.getWalId();
+        final int segmentId = task.getSegmentId();
+        final long rowCount = task.getRowCount();
+        subSeq.done(cursor);
+        compressSegment(tableToken, walId, segmentId, rowCount);
+        return true;
+    }
+}
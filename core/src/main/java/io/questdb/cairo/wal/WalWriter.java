@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.wal;
 
+import io.questdb.MessageBus;
 import io.questdb.Metrics;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.SymbolTable;
@@ -35,6 +36,7 @@ import io.questdb.cairo.vm.api.MemoryMA;
 import io.questdb.cairo.vm.api.MemoryMAR;
 import io.questdb.cairo.vm.api.NullMemory;
 import io.questdb.cairo.wal.seq.MetadataServiceStub;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
 import io.questdb.cairo.wal.seq.TableMetadataChange;
 import io.questdb.cairo.wal.seq.TableMetadataChangeLog;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
@@ -44,6 +46,7 @@ import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.mp.Sequence;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -72,6 +75,7 @@ public class WalWriter implements TableWriterAPI {
     private final MetadataValidatorService metaValidatorSvc = new MetadataValidatorService();
     private final MetadataService metaWriterSvc = new MetadataWriterService();
     private final WalWriterMetadata metadata;
+    private final MessageBus messageBus;
     private final Metrics metrics;
     private final int mkDirMode;
     private final ObjList<Runnable> nullSetters;
@@ -79,11 +83,13 @@ public class WalWriter implements TableWriterAPI {
     private final int rootLen;
     private final RowImpl row = new RowImpl();
     private final LongList rowValueIsNotNull = new LongList();
+    private final boolean segmentCompressionEnabled;
     private final TableSequencerAPI sequencer;
     private final MemoryMAR symbolMapMem = Vm.getMARInstance();
     private final BoolList symbolMapNullFlags = new BoolList();
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
     private final ObjList<CharSequenceIntHashMap> symbolMaps = new ObjList<>();
+    private final SeqTxnTracker txnTracker;
     private final ObjList<ByteCharSequenceIntHashMap> utf8SymbolMaps = new ObjList<>();
     private final Uuid uuid = new Uuid();
     private final int walId;
@@ -109,6 +115,7 @@ public class WalWriter implements TableWriterAPI {
             CairoConfiguration configuration,
             TableToken tableToken,
             TableSequencerAPI tableSequencerAPI,
+            MessageBus messageBus,
             Metrics metrics
     ) {
         LOG.info().$("open '").utf8(tableToken.getDirName()).$('\'').$();
@@ -118,11 +125,14 @@ public class WalWriter implements TableWriterAPI {
         this.ff = configuration.getFilesFacade();
         this.tableToken = tableToken;
         final int walId = tableSequencerAPI.getNextWalId(tableToken);
+        this.txnTracker = tableSequencerAPI.getTxnTracker(tableToken);
         this.walName = WAL_NAME_BASE + walId;
         this.walId = walId;
         this.path = new Path().of(configuration.getRoot()).concat(tableToken).concat(walName);
         this.rootLen = path.length();
         this.metrics = metrics;
+        this.messageBus = messageBus;
+        this.segmentCompressionEnabled = configuration.isWalSegmentCompressionEnabled();
         this.open = true;
 
         try {
@@ -252,6 +262,7 @@ public class WalWriter implements TableWriterAPI {
                 final long rowsToCommit = getUncommittedRowCount();
                 lastSegmentTxn = events.appendData(currentTxnStartRowNum, segmentRowCount, txnMinTimestamp, txnMaxTimestamp, txnOutOfOrder);
                 final long seqTxn = getSequencerTxn();
+                txnTracker.notifyOnCommit(seqTxn, rowsToCommit);
                 resetDataTxnProperties();
                 mayRollSegmentOnNextRow();
                 metrics.getWalMetrics().addRowsWritten(rowsToCommit);
@@ -273,6 +284,7 @@ public class WalWriter implements TableWriterAPI {
     public void doClose(boolean truncate) {
         if (open) {
             open = false;
+            final long sealedRowCount = distressed || inTransaction() ? 0 : segmentRowCount;
             metadata.close(Vm.TRUNCATE_TO_POINTER);
             Misc.free(events);
             freeSymbolMapReaders();
@@ -280,6 +292,7 @@ public class WalWriter implements TableWriterAPI {
             freeColumns(truncate);
 
             releaseSegmentLock();
+            sealSegment(segmentId, sealedRowCount);
 
             try {
                 releaseWalLock();
@@ -1047,6 +1060,9 @@ public class WalWriter implements TableWriterAPI {
     }
 
     private void openNewSegment() {
+        // uncommitted rows are copied to the new segment, the old one is not complete
+        final int sealedSegmentId = segmentId;
+        final long sealedRowCount = inTransaction() ? 0 : segmentRowCount;
         try {
             segmentId++;
             currentTxnStartRowNum = 0;
@@ -1080,6 +1096,7 @@ public class WalWriter implements TableWriterAPI {
         } finally {
             path.trimTo(rootLen);
         }
+        sealSegment(sealedSegmentId, sealedRowCount);
     }
 
     private void releaseSegmentLock() {
@@ -1197,6 +1214,30 @@ public class WalWriter implements TableWriterAPI {
         segmentRowCount++;
     }
 
+    // Sealed segment is compressed by WalSegmentCompressionJob, so that ingestion does not pay for
+    // reading the segment back and encoding it. Column files of the segment are closed by now.
+    private void sealSegment(int segmentId, long rowCount) {
+        if (!segmentCompressionEnabled || segmentId < 0 || rowCount < 1) {
+            return;
+        }
+        final Sequence pubSeq = messageBus.getWalSegmentCompressionPubSeq();
+        while (true) {
+            long cursor = pubSeq.next();
+            if (cursor > -1L) {
+                messageBus.getWalSegmentCompressionQueue().get(cursor).of(tableToken, walId, segmentId, rowCount);
+                pubSeq.done(cursor);
+                return;
+            } else if (cursor == -1L) {
+                // segment stays uncompressed, it is readable either way
+                LOG.info().$("WAL segment compression queue is full [table=").utf8(tableToken.getDirName())
+                        .$(", walId=").$(walId)
+                        .$(", segmentId=").$(segmentId)
+                        .I$();
+                return;
+            }
+        }
+    }
+
     private void setAppendPosition(final long segmentRowCount) {
         for (int i = 0; i < columnCount; i++) {
             setColumnSize(i, segmentRowCount);
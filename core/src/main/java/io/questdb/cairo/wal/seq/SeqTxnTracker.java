@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal.seq;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.TableToken;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks how far WAL apply is behind the table sequencer. Sequencer transactions are
+ * reported on commit, writer transactions on apply. Lag is unknown, and reported as 0,
+ * until the first writer transaction is seen.
+ */
+public class SeqTxnTracker {
+    private final CairoConfiguration configuration;
+    private final AtomicInteger laggingTableCount;
+    private boolean lagging;
+    private long pendingRows;
+    private volatile long seqTxn = -1;
+    private volatile boolean suspended;
+    private volatile TableToken tableToken;
+    private volatile long writerTxn = -1;
+
+    SeqTxnTracker(TableToken tableToken, CairoConfiguration configuration, AtomicInteger laggingTableCount) {
+        this.tableToken = tableToken;
+        this.configuration = configuration;
+        this.laggingTableCount = laggingTableCount;
+    }
+
+    public long getLag() {
+        final long writerTxn = this.writerTxn;
+        return writerTxn > -1 ? Math.max(0, seqTxn - writerTxn) : 0;
+    }
+
+    public synchronized long getPendingRows() {
+        return pendingRows;
+    }
+
+    public long getSeqTxn() {
+        return seqTxn;
+    }
+
+    public TableToken getTableToken() {
+        return tableToken;
+    }
+
+    public long getWriterTxn() {
+        return writerTxn;
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    public synchronized void notifyOnApply(long writerTxn, long appliedRows) {
+        if (writerTxn > this.writerTxn) {
+            this.writerTxn = writerTxn;
+        }
+        pendingRows = writerTxn < seqTxn ? Math.max(0, pendingRows - appliedRows) : 0;
+        updateLagging();
+    }
+
+    public synchronized void notifyOnCommit(long seqTxn, long rows) {
+        if (seqTxn > this.seqTxn) {
+            this.seqTxn = seqTxn;
+        }
+        pendingRows += rows;
+        updateLagging();
+    }
+
+    public synchronized void notifyOnStart(long writerTxn, long seqTxn) {
+        if (writerTxn > this.writerTxn) {
+            this.writerTxn = writerTxn;
+        }
+        if (seqTxn > this.seqTxn) {
+            this.seqTxn = seqTxn;
+        }
+        updateLagging();
+    }
+
+    private void updateLagging() {
+        final long lagSoftTxnCount = configuration.getWalApplyLagSoftTxnCount();
+        final boolean lagging = lagSoftTxnCount > 0 && !suspended && getLag() >= lagSoftTxnCount;
+        if (lagging != this.lagging) {
+            this.lagging = lagging;
+            if (lagging) {
+                laggingTableCount.incrementAndGet();
+            } else {
+                laggingTableCount.decrementAndGet();
+            }
+        }
+    }
+
+    synchronized void close() {
+        suspended = true;
+        updateLagging();
+    }
+
+    void setSuspended(boolean suspended) {
+        if (this.suspended != suspended) {
+            synchronized (this) {
+                this.suspended = suspended;
+                updateLagging();
+            }
+        }
+    }
+
+    void setTableToken(TableToken tableToken) {
+        this.tableToken = tableToken;
+    }
+}
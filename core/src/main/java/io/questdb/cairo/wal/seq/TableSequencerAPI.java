@@ -35,29 +35,36 @@ import io.questdb.std.ObjList;
 import io.questdb.std.QuietCloseable;
 import io.questdb.std.str.Path;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import static io.questdb.cairo.wal.ApplyWal2TableJob.WAL_2_TABLE_RESUME_REASON;
 import static io.questdb.cairo.wal.WalUtils.SEQ_DIR;
 import static io.questdb.cairo.wal.WalUtils.TXNLOG_FILE_NAME;
+import static io.questdb.cairo.wal.seq.TableSequencer.NO_TXN;
 import static io.questdb.cairo.wal.seq.TableTransactionLog.MAX_TXN_OFFSET;
 
 public class TableSequencerAPI implements QuietCloseable {
     private static final Log LOG = LogFactory.getLog(TableSequencerAPI.class);
     private final CairoConfiguration configuration;
     private final CairoEngine engine;
+    private final BiFunction<CharSequence, Object, SeqTxnTracker> createTxnTrackerLambda;
     private final long inactiveTtlUs;
+    private final AtomicInteger laggingTableCount = new AtomicInteger();
     private final BiFunction<CharSequence, Object, TableSequencerEntry> openSequencerInstanceLambda;
     private final int recreateDistressedSequencerAttempts;
     private final ConcurrentHashMap<TableSequencerEntry> seqRegistry = new ConcurrentHashMap<>(false);
+    private final ConcurrentHashMap<SeqTxnTracker> txnTrackers = new ConcurrentHashMap<>(false);
     private volatile boolean closed;
 
     public TableSequencerAPI(CairoEngine engine, CairoConfiguration configuration) {
         this.configuration = configuration;
         this.engine = engine;
         this.openSequencerInstanceLambda = this::openSequencerInstance;
+        this.createTxnTrackerLambda = this::createTxnTracker;
         this.inactiveTtlUs = configuration.getInactiveWalWriterTTL() * 1000;
         this.recreateDistressedSequencerAttempts = configuration.getWalRecreateDistressedSequencerAttempts();
     }
@@ -101,6 +108,7 @@ public class TableSequencerAPI implements QuietCloseable {
                 throw e;
             }
         }
+        closeTxnTracker(txnTrackers.remove(tableToken.getDirName()));
     }
 
     public void forAllWalTables(ObjList<TableToken> tableTokenBucket, boolean includeDropped, TableSequencerCallback callback) {
@@ -178,6 +186,13 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    /**
+     * Returns number of tables whose WAL apply lag is at or above the soft threshold.
+     */
+    public int getLaggingTableCount() {
+        return laggingTableCount.get();
+    }
+
     public @NotNull TableMetadataChangeLog getMetadataChangeLog(final TableToken tableToken, long structureVersionLo) {
         try (TableSequencerImpl tableSequencer = openSequencerLocked(tableToken, SequencerLockType.READ)) {
             TableMetadataChangeLog metadataChangeLog;
@@ -190,6 +205,32 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    /**
+     * Finds the non-suspended table with the highest number of transactions waiting to be applied.
+     * Ties are broken by the number of pending rows. Returns null when no table is over
+     * the soft lag threshold, which is the common case and costs a single volatile read.
+     */
+    public @Nullable SeqTxnTracker getMostLaggingTable() {
+        if (laggingTableCount.get() == 0) {
+            return null;
+        }
+        SeqTxnTracker mostLagging = null;
+        long maxLag = configuration.getWalApplyLagSoftTxnCount() - 1;
+        long maxPendingRows = -1;
+        for (SeqTxnTracker tracker : txnTrackers.values()) {
+            if (tracker.isSuspended()) {
+                continue;
+            }
+            final long lag = tracker.getLag();
+            if (lag > maxLag || (lag == maxLag && mostLagging != null && tracker.getPendingRows() > maxPendingRows)) {
+                mostLagging = tracker;
+                maxLag = lag;
+                maxPendingRows = tracker.getPendingRows();
+            }
+        }
+        return mostLagging;
+    }
+
     public int getNextWalId(final TableToken tableToken) {
         try (TableSequencerImpl tableSequencer = openSequencerLocked(tableToken, SequencerLockType.READ)) {
             int walId;
@@ -212,6 +253,10 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    public @NotNull SeqTxnTracker getTxnTracker(final TableToken tableToken) {
+        return txnTrackers.computeIfAbsent(tableToken.getDirName(), tableToken, createTxnTrackerLambda);
+    }
+
     @TestOnly
     public boolean isSuspended(final TableToken tableToken) {
         try (TableSequencerImpl sequencer = openSequencerLocked(tableToken, SequencerLockType.READ)) {
@@ -242,6 +287,9 @@ public class TableSequencerAPI implements QuietCloseable {
             long txn;
             try {
                 txn = tableSequencer.nextStructureTxn(structureVersion, alterOp);
+                if (txn != NO_TXN) {
+                    trackCommit(tableToken, tableSequencer, txn);
+                }
             } finally {
                 tableSequencer.unlockWrite();
             }
@@ -254,6 +302,9 @@ public class TableSequencerAPI implements QuietCloseable {
             long txn;
             try {
                 txn = tableSequencer.nextTxn(expectedSchemaVersion, walId, segmentId, segmentTxn);
+                if (txn != NO_TXN) {
+                    trackCommit(tableToken, tableSequencer, txn);
+                }
             } finally {
                 tableSequencer.unlockWrite();
             }
@@ -283,9 +334,17 @@ public class TableSequencerAPI implements QuietCloseable {
         ) {
             tableSequencer.unlockWrite();
         }
+        // new table has nothing to apply, the directory name could have been used by a dropped table
+        final SeqTxnTracker tracker = createTxnTracker(tableToken.getDirName(), tableToken);
+        tracker.notifyOnStart(0, 0);
+        closeTxnTracker(txnTrackers.put(tableToken.getDirName(), tracker));
     }
 
     public boolean releaseAll() {
+        for (SeqTxnTracker tracker : txnTrackers.values()) {
+            tracker.close();
+        }
+        txnTrackers.clear();
         return releaseAll(Long.MAX_VALUE);
     }
 
@@ -318,6 +377,7 @@ public class TableSequencerAPI implements QuietCloseable {
                 sequencer.unlockWrite();
             }
         }
+        getTxnTracker(newTableToken).setTableToken(newTableToken);
         LOG.advisory().$("renamed wal table [table=")
                 .utf8(tableToken.getTableName()).$(", newName=").utf8(newTableToken.getTableName())
                 .$(", dirName=").utf8(newTableToken.getDirName()).I$();
@@ -344,6 +404,7 @@ public class TableSequencerAPI implements QuietCloseable {
                     }
                 }
                 sequencer.resumeTable();
+                getTxnTracker(tableToken).setSuspended(false);
             } finally {
                 sequencer.unlockWrite();
             }
@@ -365,12 +426,23 @@ public class TableSequencerAPI implements QuietCloseable {
         try (TableSequencerImpl sequencer = openSequencerLocked(tableToken, SequencerLockType.WRITE)) {
             try {
                 sequencer.suspendTable();
+                getTxnTracker(tableToken).setSuspended(true);
             } finally {
                 sequencer.unlockWrite();
             }
         }
     }
 
+    private static void closeTxnTracker(@Nullable SeqTxnTracker tracker) {
+        if (tracker != null) {
+            tracker.close();
+        }
+    }
+
+    private SeqTxnTracker createTxnTracker(CharSequence tableDir, Object tableToken) {
+        return new SeqTxnTracker((TableToken) tableToken, configuration, laggingTableCount);
+    }
+
     @NotNull
     private TableSequencerEntry getTableSequencerEntry(
             TableToken tableToken,
@@ -444,6 +516,12 @@ public class TableSequencerAPI implements QuietCloseable {
         }
     }
 
+    private void trackCommit(TableToken tableToken, TableSequencerImpl tableSequencer, long txn) {
+        final SeqTxnTracker tracker = getTxnTracker(tableToken);
+        tracker.setSuspended(tableSequencer.isSuspended());
+        tracker.notifyOnCommit(txn, 0);
+    }
+
     protected boolean releaseAll(long deadline) {
         return releaseEntries(deadline);
     }
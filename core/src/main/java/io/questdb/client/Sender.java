@@ -24,8 +24,11 @@
 
 package io.questdb.client;
 
+import io.questdb.cutlass.line.AbstractLineSender;
+import io.questdb.cutlass.line.AsyncLineChannel;
 import io.questdb.cutlass.line.LineChannel;
 import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.cutlass.line.LineTcpBinarySender;
 import io.questdb.cutlass.line.LineTcpSender;
 import io.questdb.cutlass.line.tcp.AuthDb;
 import io.questdb.cutlass.line.tcp.DelegatingTlsChannel;
@@ -153,6 +156,13 @@ public interface Sender extends Closeable {
      */
     Sender longColumn(CharSequence name, long value);
 
+    /**
+     * Returns counters of an asynchronous Sender, see {@link LineSenderBuilder#enableAsync()}.
+     * @return counters of this Sender, the same instance is returned on every call
+     * @throws LineSenderException when the Sender is not asynchronous
+     */
+    Metrics metrics();
+
     /**
      * Add a column with a string value.
      *
@@ -189,6 +199,53 @@ public interface Sender extends Closeable {
      */
     Sender timestampColumn(CharSequence name, long value);
 
+    /**
+     * Counters of an asynchronous Sender. Counters are updated by the producer and the I/O thread,
+     * they can be read from any thread.
+     */
+    interface Metrics {
+
+        /**
+         * @return number of times the producer waited for the I/O thread to free up space in the ring
+         */
+        long getBackPressureCount();
+
+        /**
+         * @return total time in nanoseconds the producer waited for the I/O thread
+         */
+        long getBackPressureNanos();
+
+        /**
+         * @return number of bytes handed over to the I/O thread
+         */
+        long getBytesQueued();
+
+        /**
+         * @return number of bytes written to the network, after compression
+         */
+        long getBytesSent();
+
+        /**
+         * @return maximum time in nanoseconds a single network write took
+         */
+        long getMaxWriteNanos();
+
+        /**
+         * @return number of bytes handed over to the I/O thread, but not written to the network yet
+         */
+        long getPendingBytes();
+
+        /**
+         * @return number of network writes
+         */
+        long getWriteCount();
+
+        /**
+         * @return total time in nanoseconds spent in network writes
+         */
+        long getWriteNanos();
+    }
+
     /**
      * Configure TLS mode.
      * Most users should not need to use anything but the default mode.
@@ -222,6 +279,8 @@ public interface Sender extends Closeable {
      * }</pre>
      */
     final class LineSenderBuilder {
+        // indicates that auto-flush threshold was not set explicitly
+        private static final byte AUTO_FLUSH_DEFAULT = 0;
         // indicates that buffer capacity was not set explicitly
         private static final byte BUFFER_CAPACITY_DEFAULT = 0;
         private static final int DEFAULT_BUFFER_CAPACITY = 64 * 1024;
@@ -229,7 +288,13 @@ public interface Sender extends Closeable {
         private static final int MIN_BUFFER_SIZE_FOR_AUTH = 512 + 1; // challenge size + 1;
         // indicate that port was not set explicitly
         private static final byte PORT_DEFAULT = 0;
+        private boolean asyncEnabled;
+        private int autoFlushBytes = AUTO_FLUSH_DEFAULT;
+        private long autoFlushIntervalMillis = AUTO_FLUSH_DEFAULT;
+        private int autoFlushRows = AUTO_FLUSH_DEFAULT;
+        private boolean binaryProtocolEnabled;
         private int bufferCapacity = BUFFER_CAPACITY_DEFAULT;
+        private boolean compressionEnabled;
         private String host;
         private String keyId;
         private int port = PORT_DEFAULT;
@@ -306,6 +371,64 @@ public interface Sender extends Closeable {
             return new AdvancedTlsSettings();
         }
 
+        /**
+         * Flush buffered rows automatically once they take the given number of bytes. The threshold
+         * must not exceed the buffer capacity.
+         * @param bytes number of buffered bytes to flush at
+         * @return this instance for method chaining
+         * @see Sender#flush()
+         */
+        public LineSenderBuilder autoFlushBytes(int bytes) {
+            if (this.autoFlushBytes != AUTO_FLUSH_DEFAULT) {
+                throw new LineSenderException("auto-flush bytes was already configured ")
+                        .put("[configured-bytes=").put(this.autoFlushBytes).put("]");
+            }
+            if (bytes < 1) {
+                throw new LineSenderException("auto-flush bytes must be positive ")
+                        .put("[bytes=").put(bytes).put("]");
+            }
+            this.autoFlushBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Flush buffered rows automatically when the given time has passed since the last send. The interval
+         * is checked when a row is complete, you still have to call {@link Sender#flush()} before a period of
+         * quiescence.
+         * @param millis interval in milliseconds
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushInterval(long millis) {
+            if (this.autoFlushIntervalMillis != AUTO_FLUSH_DEFAULT) {
+                throw new LineSenderException("auto-flush interval was already configured ")
+                        .put("[configured-interval=").put(this.autoFlushIntervalMillis).put("]");
+            }
+            if (millis < 1) {
+                throw new LineSenderException("auto-flush interval must be positive ")
+                        .put("[interval=").put(millis).put("]");
+            }
+            this.autoFlushIntervalMillis = millis;
+            return this;
+        }
+
+        /**
+         * Flush buffered rows automatically once there is the given number of them.
+         * @param rows number of buffered rows to flush at
+         * @return this instance for method chaining
+         */
+        public LineSenderBuilder autoFlushRows(int rows) {
+            if (this.autoFlushRows != AUTO_FLUSH_DEFAULT) {
+                throw new LineSenderException("auto-flush rows was already configured ")
+                        .put("[configured-rows=").put(this.autoFlushRows).put("]");
+            }
+            if (rows < 1) {
+                throw new LineSenderException("auto-flush rows must be positive ")
+                        .put("[rows=").put(rows).put("]");
+            }
+            this.autoFlushRows = rows;
+            return this;
+        }
+
         /**
          * Configure capacity of an internal buffer.
          * Bigger buffer increase batching effect.
@@ -334,7 +457,7 @@ public interface Sender extends Closeable {
 
             NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
             LineChannel channel = new PlainTcpLineChannel(nf, host, port, bufferCapacity * 2);
-            LineTcpSender sender;
+            AbstractLineSender sender;
             if (tlsEnabled) {
                 assert (trustStorePath == null) == (trustStorePassword == null); //either both null or both non-null
                 DelegatingTlsChannel tlsChannel;
@@ -346,12 +469,25 @@ public interface Sender extends Closeable {
                 }
                 channel = tlsChannel;
             }
+            AsyncLineChannel asyncChannel = null;
+            if (asyncEnabled) {
+                try {
+                    asyncChannel = new AsyncLineChannel(channel, bufferCapacity * 2, compressionEnabled);
+                } catch (Throwable t) {
+                    channel.close();
+                    throw rethrow(t);
+                }
+                channel = asyncChannel;
+            }
             try {
-                sender = new LineTcpSender(channel, bufferCapacity);
+                sender = binaryProtocolEnabled ? new LineTcpBinarySender(channel, bufferCapacity) : new LineTcpSender(channel, bufferCapacity);
             } catch (Throwable t) {
                 channel.close();
                 throw rethrow(t);
             }
+            if (autoFlushRows != AUTO_FLUSH_DEFAULT || autoFlushBytes != AUTO_FLUSH_DEFAULT || autoFlushIntervalMillis != AUTO_FLUSH_DEFAULT) {
+                sender.setAutoFlush(autoFlushRows, autoFlushBytes, autoFlushIntervalMillis);
+            }
             if (privateKey != null) {
                 try {
                     sender.authenticate(keyId, privateKey);
@@ -368,9 +504,33 @@ public interface Sender extends Closeable {
                     }
                 }
             }
+            if (asyncChannel != null) {
+                try {
+                    asyncChannel.start();
+                } catch (Throwable t) {
+                    sender.close();
+                    throw rethrow(t);
+                }
+            }
             return sender;
         }
 
+        /**
+         * Instruct a client to send data from a background I/O thread. Data is copied to an off-heap ring
+         * twice the size of the buffer, and the calling thread waits only when the ring is full.
+         * {@link Sender#flush()} returns once data is in the ring, {@link Sender#close()} waits for all the
+         * data to be sent. Network errors are reported by the next call to the Sender.
+         * @return this instance for method chaining.
+         * @see Sender#metrics()
+         */
+        public LineSenderBuilder enableAsync() {
+            if (asyncEnabled) {
+                throw new LineSenderException("async mode was already enabled");
+            }
+            asyncEnabled = true;
+            return this;
+        }
+
         /**
          * Configure authentication. This is needed when QuestDB server required clients to authenticate.
          *
@@ -386,6 +546,34 @@ public interface Sender extends Closeable {
             return new LineSenderBuilder.AuthBuilder();
         }
 
+        /**
+         * Instruct a client to send data in the binary encoding of the line protocol. Binary encoding
+         * sends table names, column names and symbol values once per connection and numbers in their
+         * binary form. It requires a QuestDB server supporting the binary encoding.
+         *
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableBinaryProtocol() {
+            if (binaryProtocolEnabled) {
+                throw new LineSenderException("binary protocol was already enabled");
+            }
+            binaryProtocolEnabled = true;
+            return this;
+        }
+
+        /**
+         * Instruct a client to compress data with deflate. Compression takes place on the I/O thread, so it
+         * requires {@link #enableAsync()}. It requires a QuestDB server supporting compressed ILP.
+         * @return this instance for method chaining.
+         */
+        public LineSenderBuilder enableCompression() {
+            if (compressionEnabled) {
+                throw new LineSenderException("compression was already enabled");
+            }
+            compressionEnabled = true;
+            return this;
+        }
+
         /**
          * Instruct a client to use TLS when connecting to a QuestDB server
          *
@@ -441,6 +629,15 @@ public interface Sender extends Closeable {
             if (!tlsEnabled && tlsValidationMode != TlsValidationMode.DEFAULT) {
                 throw new LineSenderException("TSL validation disabled, but TLS was not enabled");
             }
+            if (compressionEnabled && !asyncEnabled) {
+                throw new LineSenderException("compression requires async mode");
+            }
+            if (autoFlushBytes > bufferCapacity) {
+                throw new LineSenderException("auto-flush bytes exceeds buffer capacity ")
+                        .put("[bytes=").put(autoFlushBytes)
+                        .put(", capacity=").put(bufferCapacity)
+                        .put("]");
+            }
             if (keyId != null && bufferCapacity < MIN_BUFFER_SIZE_FOR_AUTH) {
                 throw new LineSenderException("Requested buffer too small ")
                         .put("[minimal-capacity=").put(MIN_BUFFER_SIZE_FOR_AUTH)
@@ -122,6 +122,7 @@ public final class Services {
     @Nullable
     public static LineTcpReceiver createLineTcpReceiver(
             LineTcpReceiverConfiguration config,
+            LineUdpReceiverConfiguration udpConfig,
             CairoEngine cairoEngine,
             WorkerPoolManager workerPoolManager,
             Metrics metrics
@@ -151,16 +152,24 @@ public final class Services {
                 metrics.health(),
                 Requester.LINE_TCP_WRITER
         );
-        return new LineTcpReceiver(config, cairoEngine, ioPool, writerPool);
+        return new LineTcpReceiver(
+                config,
+                isLineUdpParallel(udpConfig, config) ? udpConfig : null,
+                cairoEngine,
+                ioPool,
+                writerPool
+        );
     }
 
     @Nullable
     public static AbstractLineProtoUdpReceiver createLineUdpReceiver(
             LineUdpReceiverConfiguration config,
+            LineTcpReceiverConfiguration tcpConfig,
             CairoEngine cairoEngine,
             WorkerPoolManager workerPoolManager
     ) {
-        if (!config.isEnabled()) {
+        if (!config.isEnabled() || isLineUdpParallel(config, tcpConfig)) {
+            // parallel UDP ingestion is served by the TCP receiver
             return null;
         }
 
@@ -271,4 +280,8 @@ public final class Services {
                 )
         );
     }
+
+    private static boolean isLineUdpParallel(LineUdpReceiverConfiguration udpConfig, LineTcpReceiverConfiguration tcpConfig) {
+        return udpConfig.isEnabled() && udpConfig.isParallelEnabled() && tcpConfig.isEnabled();
+    }
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Resumable decoder of "Transfer-Encoding: chunked" request body. Chunk payloads are passed
+ * to the listener as they arrive, chunk extensions and trailer fields are skipped.
+ */
+public class HttpChunkedContentParser implements Mutable {
+    private static final int CHUNK_DATA = 4;
+    private static final int CHUNK_DATA_CR = 5;
+    private static final int CHUNK_DATA_LF = 6;
+    private static final int CHUNK_EXT = 2;
+    private static final int CHUNK_SIZE = 1;
+    private static final int CHUNK_SIZE_LF = 3;
+    private static final int DONE = 10;
+    private static final int MAX_SIZE_DIGITS = 15;
+    private static final int TRAILER = 7;
+    private static final int TRAILER_FIELD = 8;
+    private static final int TRAILER_LF = 9;
+    private long chunkRemaining;
+    private int sizeDigits;
+    private int state;
+
+    public HttpChunkedContentParser() {
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        state = CHUNK_SIZE;
+        chunkRemaining = 0;
+        sizeDigits = 0;
+    }
+
+    /**
+     * Decodes chunked body bytes between lo and hi.
+     *
+     * @param lo       address of first byte
+     * @param hi       address of byte after the last
+     * @param listener receives chunk payloads
+     * @return address of first byte after the end of the body or -1 when body is incomplete
+     * @throws HttpException when framing is malformed
+     */
+    public long parse(
+            long lo,
+            long hi,
+            HttpContentListener listener
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        long ptr = lo;
+        while (ptr < hi) {
+            if (state == CHUNK_DATA) {
+                final long n = Math.min(hi - ptr, chunkRemaining);
+                listener.onChunk(ptr, ptr + n);
+                ptr += n;
+                chunkRemaining -= n;
+                if (chunkRemaining == 0) {
+                    state = CHUNK_DATA_CR;
+                }
+                continue;
+            }
+
+            final byte b = Unsafe.getUnsafe().getByte(ptr++);
+            switch (state) {
+                case CHUNK_SIZE:
+                    final int digit = hexDigit(b);
+                    if (digit > -1) {
+                        if (++sizeDigits > MAX_SIZE_DIGITS) {
+                            throw HttpException.instance("chunk size is too large");
+                        }
+                        chunkRemaining = (chunkRemaining << 4) | digit;
+                    } else if (sizeDigits == 0) {
+                        throw HttpException.instance("invalid chunk size");
+                    } else if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    } else if (b == ';' || b == ' ' || b == '\t') {
+                        state = CHUNK_EXT;
+                    } else {
+                        throw HttpException.instance("invalid chunk size");
+                    }
+                    break;
+                case CHUNK_EXT:
+                    if (b == '\r') {
+                        state = CHUNK_SIZE_LF;
+                    }
+                    break;
+                case CHUNK_SIZE_LF:
+                    expect(b, '\n');
+                    sizeDigits = 0;
+                    state = chunkRemaining > 0 ? CHUNK_DATA : TRAILER;
+                    break;
+                case CHUNK_DATA_CR:
+                    expect(b, '\r');
+                    state = CHUNK_DATA_LF;
+                    break;
+                case CHUNK_DATA_LF:
+                    expect(b, '\n');
+                    state = CHUNK_SIZE;
+                    break;
+                case TRAILER:
+                    state = b == '\r' ? TRAILER_LF : TRAILER_FIELD;
+                    break;
+                case TRAILER_FIELD:
+                    if (b == '\n') {
+                        state = TRAILER;
+                    }
+                    break;
+                case TRAILER_LF:
+                    expect(b, '\n');
+                    state = DONE;
+                    return ptr;
+                default:
+                    throw HttpException.instance("chunked content is already complete");
+            }
+        }
+        return -1;
+    }
+
+    private static void expect(byte actual, char expected) {
+        if (actual != expected) {
+            throw HttpException.instance("malformed chunked content");
+        }
+    }
+
+    private static int hexDigit(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        return -1;
+    }
+}
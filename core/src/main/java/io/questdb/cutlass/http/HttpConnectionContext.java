@@ -41,6 +41,7 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
     private static final Log LOG = LogFactory.getLog(HttpConnectionContext.class);
     private final boolean allowDeflateBeforeSend;
     private final CairoSecurityContext cairoSecurityContext;
+    private final HttpChunkedContentParser chunkedContentParser = new HttpChunkedContentParser();
     private final ObjectPool<DirectByteCharSequence> csPool;
     private final boolean dumpNetworkTraffic;
     private final HttpHeaderParser headerParser;
@@ -59,8 +60,13 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         throw RetryOperationException.INSTANCE;
     };
     private final boolean serverKeepAlive;
+    private boolean contentChunked;
+    private long contentRemaining;
     private int nCompletedRequests;
     private boolean pendingRetry = false;
+    // bytes of the next request(s) received together with the body of the previous one,
+    // they are kept at the start of the receive buffer until the next header is parsed
+    private int pipelinedBytes;
     private int receivedBytes;
     private long recvBuffer;
     private HttpRequestProcessor resumeProcessor = null;
@@ -93,6 +99,9 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.headerParser.clear();
         this.multipartContentParser.clear();
         this.multipartContentHeaderParser.clear();
+        this.chunkedContentParser.clear();
+        this.contentChunked = false;
+        this.contentRemaining = 0;
         this.csPool.clear();
         this.localValueMap.clear();
         if (this.pendingRetry) {
@@ -134,6 +143,7 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         this.recvBuffer = Unsafe.free(recvBuffer, recvBufferSize, MemoryTag.NATIVE_HTTP_CONN);
         this.responseSink.close();
         this.receivedBytes = 0;
+        this.pipelinedBytes = 0;
         clearSuspendEvent();
         LOG.debug().$("closed").$();
     }
@@ -341,6 +351,93 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
         }
     }
 
+    private boolean consumeContent(
+            int fd,
+            HttpRequestProcessor processor,
+            long headerEnd,
+            int read,
+            boolean newRequest,
+            RescheduleContext rescheduleContext
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        if (newRequest) {
+            processor.onHeadersReady(this);
+            final DirectByteCharSequence transferEncoding = headerParser.getHeader("Transfer-Encoding");
+            contentChunked = transferEncoding != null && Chars.contains(transferEncoding, "chunked");
+            if (!contentChunked) {
+                final DirectByteCharSequence contentLength = headerParser.getHeader("Content-Length");
+                if (contentLength == null) {
+                    contentRemaining = 0;
+                } else {
+                    try {
+                        contentRemaining = Numbers.parseLong(contentLength);
+                    } catch (NumericException e) {
+                        throw HttpException.instance("invalid Content-Length [value=").put(contentLength).put(']');
+                    }
+                }
+            }
+        }
+
+        processor.resumeRecv(this);
+
+        final HttpContentListener contentListener = (HttpContentListener) processor;
+        final long bufferEnd = recvBuffer + read;
+        if (consumeContentBytes(headerEnd, bufferEnd, contentListener, processor, rescheduleContext)) {
+            return true;
+        }
+
+        while (true) {
+            final int n = nf.recv(fd, recvBuffer, recvBufferSize);
+            if (n < 0) {
+                dispatcher.disconnect(this, DISCONNECT_REASON_PEER_DISCONNECT_AT_RECV);
+                return false;
+            }
+
+            if (n == 0) {
+                dispatcher.registerChannel(this, IOOperation.READ);
+                return false;
+            }
+
+            LOG.debug().$("content recv [len=").$(n).$(']').$();
+            dumpBuffer(recvBuffer, n);
+
+            if (consumeContentBytes(recvBuffer, recvBuffer + n, contentListener, processor, rescheduleContext)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean consumeContentBytes(
+            long lo,
+            long hi,
+            HttpContentListener contentListener,
+            HttpRequestProcessor processor,
+            RescheduleContext rescheduleContext
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException, QueryPausedException {
+        long contentEnd;
+        if (contentChunked) {
+            contentEnd = lo < hi ? chunkedContentParser.parse(lo, hi, contentListener) : -1;
+        } else {
+            final long n = Math.min(hi - lo, contentRemaining);
+            if (n > 0) {
+                contentListener.onChunk(lo, lo + n);
+                contentRemaining -= n;
+            }
+            contentEnd = contentRemaining == 0 ? lo + n : -1;
+        }
+
+        if (contentEnd == -1) {
+            return false;
+        }
+
+        // keep pipelined bytes for the next request
+        pipelinedBytes = (int) (hi - contentEnd);
+        if (pipelinedBytes > 0) {
+            Vect.memmove(recvBuffer, contentEnd, pipelinedBytes);
+        }
+        completeRequest(processor, rescheduleContext);
+        return true;
+    }
+
     private boolean consumeMultipart(
             int fd,
             HttpRequestProcessor processor,
@@ -539,6 +636,12 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
             int read = 0;
             final boolean newRequest = headerParser.isIncomplete();
             if (newRequest) {
+                if (pipelinedBytes > 0) {
+                    // next request arrived together with the previous one
+                    read = pipelinedBytes;
+                    pipelinedBytes = 0;
+                    headerEnd = headerParser.parse(recvBuffer, recvBuffer + read, true);
+                }
                 while (headerParser.isIncomplete()) {
                     // read headers
                     read = nf.recv(fd, recvBuffer, recvBufferSize);
@@ -572,13 +675,16 @@ public class HttpConnectionContext extends IOContext<HttpConnectionContext> impl
 
             final boolean multipartRequest = Chars.equalsNc("multipart/form-data", headerParser.getContentType());
             final boolean multipartProcessor = processor instanceof HttpMultipartContentListener;
+            final boolean contentProcessor = processor instanceof HttpContentListener;
 
             if (allowDeflateBeforeSend && Chars.contains(headerParser.getHeader("Accept-Encoding"), "gzip")) {
                 responseSink.setDeflateBeforeSend(true);
             }
 
             try {
-                if (multipartRequest && !multipartProcessor) {
+                if (contentProcessor) {
+                    busyRecv = consumeContent(fd, processor, headerEnd, read, newRequest, rescheduleContext);
+                } else if (multipartRequest && !multipartProcessor) {
                     // bad request - multipart request for processor that doesn't expect multipart
                     busyRecv = rejectRequest("Bad request. non-multipart GET expected.");
                 } else if (!multipartRequest && multipartProcessor) {
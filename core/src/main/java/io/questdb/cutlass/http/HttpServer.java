@@ -184,6 +184,24 @@ public class HttpServer implements Closeable {
             }
         });
 
+        if (configuration.getLineTcpReceiverConfiguration().isEnabled()) {
+            server.bind(new HttpRequestProcessorFactory() {
+                @Override
+                public String getUrl() {
+                    return "/write";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new LineHttpProcessor(
+                            cairoEngine,
+                            configuration.getLineTcpReceiverConfiguration(),
+                            configuration.getJsonQueryProcessorConfiguration()
+                    );
+                }
+            });
+        }
+
         server.bind(new HttpRequestProcessorFactory() {
             @Override
             public String getUrl() {
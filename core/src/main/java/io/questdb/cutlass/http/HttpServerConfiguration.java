@@ -26,6 +26,7 @@ package io.questdb.cutlass.http;
 
 import io.questdb.cutlass.http.processors.JsonQueryProcessorConfiguration;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.mp.WorkerPoolConfiguration;
 
 public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMinServerConfiguration {
@@ -35,6 +36,12 @@ public interface HttpServerConfiguration extends WorkerPoolConfiguration, HttpMi
 
     JsonQueryProcessorConfiguration getJsonQueryProcessorConfiguration();
 
+    /**
+     * Line protocol settings shared by ILP over HTTP endpoint and TCP receiver. The endpoint
+     * is enabled when TCP receiver is enabled.
+     */
+    LineTcpReceiverConfiguration getLineTcpReceiverConfiguration();
+
     int getQueryCacheBlockCount();
 
     int getQueryCacheRowCount();
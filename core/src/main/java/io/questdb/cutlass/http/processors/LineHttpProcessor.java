@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.http.*;
+import io.questdb.cutlass.line.*;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToReadException;
+import io.questdb.network.ServerDisconnectException;
+import io.questdb.std.Chars;
+
+/**
+ * Accepts line protocol over HTTP. Request body, optionally chunked and gzip compressed, is
+ * appended to the tables as it arrives and all the tables written to are committed once the
+ * body is complete. Response is sent only after the commit: it carries the number of committed
+ * rows or, on the first invalid line, the error and the line number, in which case none of the
+ * rows of the request are committed. The exception are rows committed early to add new columns
+ * to a table.
+ */
+public class LineHttpProcessor implements HttpRequestProcessor, HttpContentListener {
+    private static final CharSequence CONTENT_TYPE_JSON = "application/json; charset=utf-8";
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessor.class);
+    // processor state is shared between processor instances of the same connection
+    private static final LocalValue<LineHttpProcessorState> LV = new LocalValue<>();
+    private final LineTcpReceiverConfiguration configuration;
+    private final CairoEngine engine;
+    private final String keepAliveHeader;
+    private LineHttpProcessorState transientState;
+
+    public LineHttpProcessor(CairoEngine engine, LineTcpReceiverConfiguration configuration, JsonQueryProcessorConfiguration jsonConfiguration) {
+        this.engine = engine;
+        this.configuration = configuration;
+        this.keepAliveHeader = Chars.toString(jsonConfiguration.getKeepAliveHeader());
+    }
+
+    @Override
+    public void onChunk(long lo, long hi) {
+        transientState.onChunk(lo, hi);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+        LineHttpProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new LineHttpProcessorState(engine, configuration));
+        }
+        final HttpRequestHeader header = context.getRequestHeader();
+        LineProtoTimestampAdapter timestampAdapter = getTimestampAdapter(header.getUrlParam("precision"));
+        if (timestampAdapter == null) {
+            timestampAdapter = configuration.getTimestampAdapter();
+        }
+        state.of(
+                context.getCairoSecurityContext(),
+                timestampAdapter,
+                Chars.equalsNc("gzip", header.getHeader("Content-Encoding"))
+        );
+    }
+
+    @Override
+    public void onRequestComplete(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        final LineHttpProcessorState state = LV.get(context);
+        state.onRequestComplete();
+        if (state.hasError()) {
+            LOG.info().$("could not process line protocol request [fd=").$(context.getFd())
+                    .$(", line=").$(state.errorLine)
+                    .$(", error=").$(state.errorMessage)
+                    .I$();
+        }
+        doResumeSend(state, context.getChunkedResponseSocket());
+    }
+
+    @Override
+    public void resumeRecv(HttpConnectionContext context) {
+        transientState = LV.get(context);
+    }
+
+    @Override
+    public void resumeSend(
+            HttpConnectionContext context
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
+        context.resumeResponseSend();
+        doResumeSend(LV.get(context), context.getChunkedResponseSocket());
+    }
+
+    private static LineProtoTimestampAdapter getTimestampAdapter(CharSequence precision) {
+        if (precision == null) {
+            return null;
+        }
+        if (Chars.equals(precision, "n") || Chars.equals(precision, "ns")) {
+            return LineProtoNanoTimestampAdapter.INSTANCE;
+        }
+        if (Chars.equals(precision, "u") || Chars.equals(precision, "us")) {
+            return LineProtoMicroTimestampAdapter.INSTANCE;
+        }
+        if (Chars.equals(precision, "ms")) {
+            return LineProtoMilliTimestampAdapter.INSTANCE;
+        }
+        if (Chars.equals(precision, "s")) {
+            return LineProtoSecondTimestampAdapter.INSTANCE;
+        }
+        if (Chars.equals(precision, "m")) {
+            return LineProtoMinuteTimestampAdapter.INSTANCE;
+        }
+        if (Chars.equals(precision, "h")) {
+            return LineProtoHourTimestampAdapter.INSTANCE;
+        }
+        return null;
+    }
+
+    private void doResumeSend(
+            LineHttpProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (state.responseState == LineHttpProcessorState.RESPONSE_HEADER) {
+            socket.status(state.responseCode, CONTENT_TYPE_JSON);
+            socket.headers().put(keepAliveHeader);
+            state.responseState = LineHttpProcessorState.RESPONSE_BODY;
+            socket.sendHeader();
+        }
+
+        if (state.responseState == LineHttpProcessorState.RESPONSE_BODY) {
+            state.responseState = LineHttpProcessorState.RESPONSE_DONE;
+            socket.put('{');
+            if (state.hasError()) {
+                socket.putQuoted("code").put(':').putQuoted(state.responseCode == 400 ? "invalid" : "internal error").put(',');
+                socket.putQuoted("message").put(':').encodeUtf8AndQuote(state.errorMessage).put(',');
+                if (state.errorLine > 0) {
+                    socket.putQuoted("line").put(':').put(state.errorLine).put(',');
+                }
+            }
+            socket.putQuoted("rows").put(':').put(state.committedRows).put('}');
+            socket.sendChunk(true);
+        }
+    }
+}
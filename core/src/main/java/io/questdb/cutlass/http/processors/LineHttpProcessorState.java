@@ -0,0 +1,353 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableWriterAPI;
+import io.questdb.cutlass.line.LineProtoTimestampAdapter;
+import io.questdb.cutlass.line.tcp.LineTcpParser;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
+import io.questdb.cutlass.line.tcp.LineWalAppender;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+class LineHttpProcessorState implements Mutable, Closeable {
+    static final int RESPONSE_BODY = 2;
+    static final int RESPONSE_DONE = 3;
+    static final int RESPONSE_HEADER = 1;
+    private static final int GZIP_FCOMMENT = 16;
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FHCRC = 2;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_HEADER_DONE = -1;
+    private static final Log LOG = LogFactory.getLog(LineHttpProcessorState.class);
+    final StringSink errorMessage = new StringSink();
+    private final LineWalAppender appender;
+    private final long buf;
+    private final long bufHi;
+    private final CairoEngine engine;
+    private final LineTcpParser parser;
+    private final LongList pendingRowCounts = new LongList();
+    private final StringSink tableNameUtf16 = new StringSink();
+    private final LowerCaseCharSequenceIntHashMap writerIndexes = new LowerCaseCharSequenceIntHashMap();
+    private final ObjList<TableWriterAPI> writers = new ObjList<>();
+    long committedRows;
+    int errorLine;
+    int responseCode;
+    int responseState;
+    private long bufPos;
+    private long bufStartOfMeasurement;
+    private int gzipFieldBytes;
+    private int gzipFieldLen;
+    private int gzipFlags;
+    // position within gzip member header, GZIP_HEADER_DONE when payload is being inflated
+    private int gzipHeaderPos;
+    private boolean gzipped;
+    private int lineNumber;
+    private CairoSecurityContext securityContext;
+    private LineProtoTimestampAdapter timestampAdapter;
+    private long zStream;
+
+    LineHttpProcessorState(CairoEngine engine, LineTcpReceiverConfiguration configuration) {
+        this.engine = engine;
+        this.appender = new LineWalAppender(configuration, engine.getConfiguration());
+        this.parser = new LineTcpParser(configuration.isStringAsTagSupported(), configuration.isSymbolAsFieldSupported());
+        final int bufSize = configuration.getNetMsgBufferSize();
+        this.buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_ILP_RSS);
+        this.bufHi = buf + bufSize;
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        releaseWriters();
+        parser.of(buf);
+        bufPos = bufStartOfMeasurement = buf;
+        lineNumber = 0;
+        committedRows = 0;
+        errorLine = 0;
+        errorMessage.clear();
+        responseCode = 200;
+        responseState = RESPONSE_HEADER;
+        gzipped = false;
+        securityContext = null;
+        timestampAdapter = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(parser);
+        Misc.free(appender);
+        Unsafe.free(buf, bufHi - buf, MemoryTag.NATIVE_ILP_RSS);
+        if (zStream != 0) {
+            Zip.inflateEnd(zStream);
+            zStream = 0;
+        }
+    }
+
+    boolean hasError() {
+        return errorMessage.length() > 0;
+    }
+
+    void of(CairoSecurityContext securityContext, LineProtoTimestampAdapter timestampAdapter, boolean gzipped) {
+        this.securityContext = securityContext;
+        this.timestampAdapter = timestampAdapter;
+        this.gzipped = gzipped;
+        if (gzipped) {
+            if (zStream == 0) {
+                zStream = Zip.inflateInit(true);
+            } else {
+                Zip.inflateReset(zStream);
+            }
+            gzipHeaderPos = 0;
+            gzipFlags = 0;
+            gzipFieldLen = 0;
+            gzipFieldBytes = 0;
+        }
+    }
+
+    void onChunk(long lo, long hi) {
+        if (hasError()) {
+            // drain the rest of the body
+            return;
+        }
+        if (gzipped) {
+            inflate(lo, hi);
+        } else {
+            while (lo < hi && !hasError()) {
+                final long n = Math.min(hi - lo, bufHi - bufPos);
+                Vect.memcpy(bufPos, lo, n);
+                bufPos += n;
+                lo += n;
+                parseMeasurements();
+            }
+        }
+    }
+
+    /**
+     * Parses the trailing line that was not terminated with a new line character
+     * and commits all tables written to by the request.
+     */
+    void onRequestComplete() {
+        if (!hasError() && bufPos > bufStartOfMeasurement) {
+            Unsafe.getUnsafe().putByte(bufPos++, (byte) '\n');
+            parseMeasurements();
+        }
+
+        if (hasError()) {
+            releaseWriters();
+            responseCode = 400;
+            return;
+        }
+
+        for (int i = 0, n = writers.size(); i < n; i++) {
+            try {
+                writers.getQuick(i).commit();
+            } catch (Throwable th) {
+                LOG.error().$("could not commit line protocol rows [table=").$(writers.getQuick(i).getTableToken())
+                        .$(", error=").$(th)
+                        .I$();
+                errorMessage.put("commit failed [table=").put(writers.getQuick(i).getTableToken().getTableName())
+                        .put(", error=").put(th.getMessage()).put(']');
+                releaseWriters();
+                responseCode = 500;
+                return;
+            }
+            committedRows += pendingRowCounts.getQuick(i);
+            pendingRowCounts.setQuick(i, 0);
+        }
+        releaseWriters();
+    }
+
+    private void appendMeasurement() {
+        final DirectByteCharSequence measurementName = parser.getMeasurementName();
+        tableNameUtf16.clear();
+        Chars.utf8Decode(measurementName.getLo(), measurementName.getHi(), tableNameUtf16);
+        final int keyIndex = writerIndexes.keyIndex(tableNameUtf16);
+        final int writerIndex;
+        if (keyIndex < 0) {
+            writerIndex = writerIndexes.valueAt(keyIndex);
+        } else {
+            final TableToken tableToken = appender.getOrCreateTable(engine, securityContext, parser);
+            writerIndex = writers.size();
+            writers.add(engine.getTableWriterAPI(securityContext, tableToken, "ilpHttp"));
+            pendingRowCounts.add(0);
+            writerIndexes.putAt(keyIndex, tableNameUtf16, writerIndex);
+        }
+
+        if (appender.appendToWal(writers.getQuick(writerIndex), parser, timestampAdapter)) {
+            // new columns were added, which committed rows sent earlier in the request
+            committedRows += pendingRowCounts.getQuick(writerIndex);
+            pendingRowCounts.setQuick(writerIndex, 0);
+        }
+        pendingRowCounts.increment(writerIndex);
+    }
+
+    private void error(CharSequence message) {
+        errorLine = lineNumber + 1;
+        errorMessage.put(message);
+    }
+
+    private void inflate(long lo, long hi) {
+        lo = skipGzipHeader(lo, hi);
+        if (lo == hi) {
+            return;
+        }
+        Zip.setInput(zStream, lo, (int) (hi - lo));
+        while (!hasError()) {
+            final int available = (int) (bufHi - bufPos);
+            if (available == 0) {
+                error("line is too long");
+                return;
+            }
+            final int n = Zip.inflate(zStream, bufPos, available, false);
+            if (n < 0) {
+                error("could not decompress request body");
+                return;
+            }
+            if (n == 0) {
+                // input is exhausted or the stream ended, gzip trailer is ignored
+                return;
+            }
+            bufPos += n;
+            parseMeasurements();
+        }
+    }
+
+    private void parseMeasurements() {
+        try {
+            while (true) {
+                switch (parser.parseMeasurement(bufPos)) {
+                    case MEASUREMENT_COMPLETE:
+                        appendMeasurement();
+                        lineNumber++;
+                        parser.startNextMeasurement();
+                        bufStartOfMeasurement = parser.getBufferAddress();
+                        if (bufStartOfMeasurement == bufPos) {
+                            parser.of(buf);
+                            bufPos = bufStartOfMeasurement = buf;
+                        }
+                        break;
+                    case ERROR:
+                        errorMessage.put("could not parse measurement, ").put(parser.getErrorCode().name());
+                        errorLine = lineNumber + 1;
+                        return;
+                    default:
+                        // buffer underflow, move incomplete measurement to the start of the buffer
+                        if (bufPos == bufHi) {
+                            if (bufStartOfMeasurement == buf) {
+                                error("line is too long");
+                                return;
+                            }
+                            final long len = bufPos - bufStartOfMeasurement;
+                            Vect.memmove(buf, bufStartOfMeasurement, len);
+                            parser.shl(bufStartOfMeasurement - buf);
+                            bufStartOfMeasurement = buf;
+                            bufPos = buf + len;
+                        }
+                        return;
+                }
+            }
+        } catch (CairoException e) {
+            error(e.getFlyweightMessage());
+        } catch (Throwable th) {
+            LOG.error().$("could not append line protocol measurement [table=").$(parser.getMeasurementName())
+                    .$(", error=").$(th)
+                    .I$();
+            error(th.getMessage() != null ? th.getMessage() : th.getClass().getName());
+        }
+    }
+
+    private void releaseWriters() {
+        for (int i = 0, n = writers.size(); i < n; i++) {
+            final TableWriterAPI writer = writers.getQuick(i);
+            try {
+                if (pendingRowCounts.getQuick(i) > 0) {
+                    writer.rollback();
+                }
+            } finally {
+                Misc.free(writer);
+            }
+        }
+        writers.clear();
+        pendingRowCounts.clear();
+        writerIndexes.clear();
+    }
+
+    private long skipGzipHeader(long lo, long hi) {
+        while (gzipHeaderPos != GZIP_HEADER_DONE && lo < hi) {
+            if (gzipHeaderPos < Zip.gzipHeaderLen) {
+                final int b = Unsafe.getUnsafe().getByte(lo++) & 0xff;
+                if ((gzipHeaderPos == 0 && b != 0x1f) || (gzipHeaderPos == 1 && b != 0x8b) || (gzipHeaderPos == 2 && b != 8)) {
+                    error("invalid gzip header");
+                    return hi;
+                }
+                if (gzipHeaderPos == 3) {
+                    gzipFlags = b;
+                }
+                gzipHeaderPos++;
+            } else if ((gzipFlags & GZIP_FEXTRA) != 0) {
+                // little-endian length followed by the extra field
+                final int b = Unsafe.getUnsafe().getByte(lo++) & 0xff;
+                if (gzipFieldBytes < 2) {
+                    gzipFieldLen |= b << (8 * gzipFieldBytes++);
+                    if (gzipFieldBytes == 2 && gzipFieldLen == 0) {
+                        gzipFlags &= ~GZIP_FEXTRA;
+                        gzipFieldBytes = 0;
+                    }
+                } else if (--gzipFieldLen == 0) {
+                    gzipFlags &= ~GZIP_FEXTRA;
+                    gzipFieldBytes = 0;
+                }
+            } else if ((gzipFlags & GZIP_FNAME) != 0) {
+                if (Unsafe.getUnsafe().getByte(lo++) == 0) {
+                    gzipFlags &= ~GZIP_FNAME;
+                }
+            } else if ((gzipFlags & GZIP_FCOMMENT) != 0) {
+                if (Unsafe.getUnsafe().getByte(lo++) == 0) {
+                    gzipFlags &= ~GZIP_FCOMMENT;
+                }
+            } else if ((gzipFlags & GZIP_FHCRC) != 0) {
+                lo++;
+                if (++gzipFieldBytes == 2) {
+                    gzipFlags &= ~GZIP_FHCRC;
+                }
+            } else {
+                gzipHeaderPos = GZIP_HEADER_DONE;
+            }
+        }
+        return lo;
+    }
+}
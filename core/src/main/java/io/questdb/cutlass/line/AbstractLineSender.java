@@ -28,6 +28,8 @@ import io.questdb.cairo.TableUtils;
 import io.questdb.client.Sender;
 import io.questdb.cutlass.line.tcp.AuthDb;
 import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.AbstractCharSink;
 import io.questdb.std.str.CharSink;
 
@@ -39,15 +41,21 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     protected final int capacity;
     private final long bufA;
     private final long bufB;
+    private final MillisecondClock clock = MillisecondClockImpl.INSTANCE;
     protected LineChannel lineChannel;
+    private int autoFlushBytes;
+    private long autoFlushIntervalMillis;
+    private int autoFlushRows;
     private boolean closed;
     private boolean enableValidation;
     private boolean hasColumns;
     private boolean hasSymbols;
     private boolean hasTable;
     private long hi;
+    private long lastSendMillis;
     private long lineStart;
     private long lo;
+    private int pendingRows;
     private long ptr;
     private boolean quoted = false;
 
@@ -75,13 +83,13 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     }
 
     @Override
-    public final void at(long timestamp) {
+    public void at(long timestamp) {
         put(' ').put(timestamp);
         atNow();
     }
 
     @Override
-    public final void atNow() {
+    public void atNow() {
         if (!hasColumns && !hasSymbols && enableValidation) {
             throw new LineSenderException("no symbols or columns were provided");
         }
@@ -91,6 +99,7 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         hasTable = false;
         hasColumns = false;
         hasSymbols = false;
+        onRowComplete();
     }
 
     public final void authenticate(String keyId, PrivateKey privateKey) {
@@ -121,9 +130,10 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
             flush();
         } finally {
             closed = true;
-            lineChannel = Misc.free(lineChannel);
             Unsafe.free(bufA, capacity, MemoryTag.NATIVE_ILP_RSS);
             Unsafe.free(bufB, capacity, MemoryTag.NATIVE_ILP_RSS);
+            // asynchronous channel reports data it could not send on close
+            lineChannel = Misc.free(lineChannel);
         }
     }
 
@@ -190,6 +200,14 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         return this;
     }
 
+    @Override
+    public Metrics metrics() {
+        if (lineChannel instanceof Metrics) {
+            return (Metrics) lineChannel;
+        }
+        throw new LineSenderException("metrics are available in asynchronous mode only");
+    }
+
     @Override
     public AbstractLineSender put(CharSequence cs) {
         validateNotClosed();
@@ -270,6 +288,21 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         }
     }
 
+    /**
+     * Configures automatic flush of the buffered rows. Thresholds are checked when a row is complete,
+     * so rows buffered before a period of quiescence still have to be flushed explicitly.
+     *
+     * @param rows           number of buffered rows to flush at, 0 to disable
+     * @param bytes          number of buffered bytes to flush at, 0 to disable
+     * @param intervalMillis time since the last send to flush at, 0 to disable
+     */
+    public void setAutoFlush(int rows, int bytes, long intervalMillis) {
+        this.autoFlushRows = rows;
+        this.autoFlushBytes = bytes;
+        this.autoFlushIntervalMillis = intervalMillis;
+        this.lastSendMillis = clock.getTicks();
+    }
+
     @Override
     public final AbstractLineSender stringColumn(CharSequence name, CharSequence value) {
         return field(name, value);
@@ -299,7 +332,7 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
     }
 
     @Override
-    public final AbstractLineSender timestampColumn(CharSequence name, long value) {
+    public AbstractLineSender timestampColumn(CharSequence name, long value) {
         writeFieldName(name).put(value).put('t');
         return this;
     }
@@ -342,30 +375,18 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         return challengeBytes;
     }
 
+    private void onSent() {
+        pendingRows = 0;
+        if (autoFlushIntervalMillis > 0) {
+            lastSendMillis = clock.getTicks();
+        }
+    }
+
     private void sendLine() {
         if (lo < lineStart) {
             int len = (int) (lineStart - lo);
             lineChannel.send(lo, len);
-        }
-    }
-
-    private void validateColumnName(CharSequence name) {
-        if (!enableValidation) {
-            return;
-        }
-        if (!TableUtils.isValidColumnName(name, Integer.MAX_VALUE)) {
-            throw new LineSenderException("column name contains an illegal char: '\\n', '\\r', '?', '.', ','" +
-                    ", ''', '\"', '\\', '/', ':', ')', '(', '+', '-', '*' '%%', '~', or a non-printable char: ").putAsPrintable(name);
-        }
-    }
-
-    private void validateTableName(CharSequence name) {
-        if (!enableValidation) {
-            return;
-        }
-        if (!TableUtils.isValidTableName(name, Integer.MAX_VALUE)) {
-            throw new LineSenderException("table name contains an illegal char: '\\n', '\\r', '?', ',', ''', " +
-                    "'\"', '\\', '/', ':', ')', '(', '+', '*' '%%', '~', or a non-printable char: ").putAsPrintable(name);
+            onSent();
         }
     }
 
@@ -384,6 +405,35 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         throw new LineSenderException("table expected");
     }
 
+    protected final void onRowComplete() {
+        if (
+                (autoFlushRows > 0 && ++pendingRows >= autoFlushRows)
+                        || (autoFlushBytes > 0 && ptr - lo >= autoFlushBytes)
+                        || (autoFlushIntervalMillis > 0 && clock.getTicks() - lastSendMillis >= autoFlushIntervalMillis)
+        ) {
+            flush();
+        }
+    }
+
+    /**
+     * Reserves len bytes in the buffer, buffered data is sent first when they do not fit.
+     *
+     * @param len number of bytes to reserve
+     * @return address of the reserved bytes
+     */
+    protected final long reserve(int len) {
+        validateNotClosed();
+        if (ptr + len > hi) {
+            send00();
+            if (ptr + len > hi) {
+                throw new LineSenderException("value too long. increase buffer size.");
+            }
+        }
+        final long address = ptr;
+        ptr += len;
+        return address;
+    }
+
     protected void send00() {
         validateNotClosed();
         int len = (int) (ptr - lineStart);
@@ -408,6 +458,7 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
             int len = (int) (ptr - lo);
             lineChannel.send(lo, len);
             lineStart = ptr = lo;
+            onSent();
         }
     }
 
@@ -432,9 +483,29 @@ public abstract class AbstractLineSender extends AbstractCharSink implements Clo
         return Base64.getEncoder().encode(rawSignature);
     }
 
+    protected final void validateColumnName(CharSequence name) {
+        if (!enableValidation) {
+            return;
+        }
+        if (!TableUtils.isValidColumnName(name, Integer.MAX_VALUE)) {
+            throw new LineSenderException("column name contains an illegal char: '\\n', '\\r', '?', '.', ','" +
+                    ", ''', '\"', '\\', '/', ':', ')', '(', '+', '-', '*' '%%', '~', or a non-printable char: ").putAsPrintable(name);
+        }
+    }
+
     protected final void validateNotClosed() {
         if (closed) {
             throw new LineSenderException("sender already closed");
         }
     }
+
+    protected final void validateTableName(CharSequence name) {
+        if (!enableValidation) {
+            return;
+        }
+        if (!TableUtils.isValidTableName(name, Integer.MAX_VALUE)) {
+            throw new LineSenderException("table name contains an illegal char: '\\n', '\\r', '?', ',', ''', " +
+                    "'\"', '\\', '/', ':', ')', '(', '+', '*' '%%', '~', or a non-printable char: ").putAsPrintable(name);
+        }
+    }
 }
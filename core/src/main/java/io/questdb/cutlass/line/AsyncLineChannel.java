@@ -0,0 +1,301 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.std.*;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Channel that takes the network off the producer thread. Data passed to {@link #send(long, int)} is copied
+ * into an off-heap ring and a background I/O thread writes it to the delegate channel, so the producer only
+ * waits when the ring is full. Sized at twice the sender buffer, the ring lets the sender fill one buffer
+ * while the previous one is on its way to the server.
+ * <p>
+ * The channel is synchronous until {@link #start()} is called, which lets the sender authenticate first.
+ * With compression enabled the I/O thread sends {@link LineProtoBinaryFormat#MAGIC_DEFLATE} preamble and
+ * then the data in deflate frames. Errors of the I/O thread are rethrown on the next call of the producer.
+ */
+public class AsyncLineChannel implements LineChannel, Sender.Metrics {
+    // raw chunk size that always compresses within the frame size limit
+    private static final int DEFLATE_CHUNK_SIZE = LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE / 2;
+    private static final long PARK_NANOS = 1_000_000;
+    private final LineChannel delegate;
+    private final long ring;
+    private final int ringCapacity;
+    private final long zStream;
+    private volatile long backPressureCount;
+    private volatile long backPressureNanos;
+    private volatile long bytesSent;
+    private boolean closed;
+    private volatile boolean closing;
+    private volatile Throwable error;
+    private volatile boolean ioParked;
+    private Thread ioThread;
+    private volatile long maxWriteNanos;
+    private volatile boolean producerParked;
+    private volatile Thread producerThread;
+    private volatile long readPosition;
+    private volatile long writeCount;
+    private volatile long writeNanos;
+    private volatile long writePosition;
+    private final long zBuf;
+
+    /**
+     * @param delegate       channel to write data to, the channel takes its ownership
+     * @param ringCapacity   capacity of the ring in bytes
+     * @param compression    true to compress data with deflate, requires the server to support compression
+     */
+    public AsyncLineChannel(LineChannel delegate, int ringCapacity, boolean compression) {
+        this.delegate = delegate;
+        this.ringCapacity = ringCapacity;
+        this.ring = Unsafe.malloc(ringCapacity, MemoryTag.NATIVE_ILP_RSS);
+        if (compression) {
+            zStream = Zip.deflateInit();
+            if (zStream < 0) {
+                Unsafe.free(ring, ringCapacity, MemoryTag.NATIVE_ILP_RSS);
+                throw new LineSenderException("could not initialize compression [rc=").put(zStream).put("]");
+            }
+            zBuf = Unsafe.malloc(LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE + LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE, MemoryTag.NATIVE_ILP_RSS);
+        } else {
+            zStream = 0;
+            zBuf = 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (ioThread != null) {
+                try {
+                    awaitFree(ringCapacity);
+                } finally {
+                    closing = true;
+                    LockSupport.unpark(ioThread);
+                    try {
+                        ioThread.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        } finally {
+            Unsafe.free(ring, ringCapacity, MemoryTag.NATIVE_ILP_RSS);
+            if (zStream != 0) {
+                Zip.deflateEnd(zStream);
+                Unsafe.free(zBuf, LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE + LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE, MemoryTag.NATIVE_ILP_RSS);
+            }
+            Misc.free(delegate);
+        }
+    }
+
+    @Override
+    public int errno() {
+        return delegate.errno();
+    }
+
+    @Override
+    public long getBackPressureCount() {
+        return backPressureCount;
+    }
+
+    @Override
+    public long getBackPressureNanos() {
+        return backPressureNanos;
+    }
+
+    @Override
+    public long getBytesQueued() {
+        return writePosition;
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public long getMaxWriteNanos() {
+        return maxWriteNanos;
+    }
+
+    @Override
+    public long getPendingBytes() {
+        return writePosition - readPosition;
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * Waits until the queued data is written and reads from the delegate channel.
+     */
+    @Override
+    public int receive(long ptr, int len) {
+        if (ioThread != null) {
+            awaitFree(ringCapacity);
+        }
+        return delegate.receive(ptr, len);
+    }
+
+    @Override
+    public void send(long ptr, int len) {
+        if (ioThread == null) {
+            delegate.send(ptr, len);
+            bytesSent += len;
+            return;
+        }
+        checkError();
+        while (len > 0) {
+            final long wp = writePosition;
+            final long free = ringCapacity - (wp - readPosition);
+            if (free == 0) {
+                final long start = System.nanoTime();
+                awaitFree(1);
+                backPressureCount++;
+                backPressureNanos += System.nanoTime() - start;
+                continue;
+            }
+            final int offset = (int) (wp % ringCapacity);
+            final int n = (int) Math.min(Math.min(free, len), ringCapacity - offset);
+            Vect.memcpy(ring + offset, ptr, n);
+            writePosition = wp + n;
+            if (ioParked) {
+                LockSupport.unpark(ioThread);
+            }
+            ptr += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Starts the I/O thread, data sent afterwards is written asynchronously.
+     */
+    public void start() {
+        if (ioThread != null) {
+            throw new LineSenderException("channel is already started");
+        }
+        ioThread = new Thread(this::runIO, "questdb-line-sender-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    private void awaitFree(long required) {
+        checkError();
+        producerThread = Thread.currentThread();
+        while (ringCapacity - (writePosition - readPosition) < required) {
+            producerParked = true;
+            if (ringCapacity - (writePosition - readPosition) < required) {
+                checkError();
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            producerParked = false;
+        }
+    }
+
+    private void checkError() {
+        final Throwable e = error;
+        if (e != null) {
+            throw new LineSenderException("could not send data", e);
+        }
+    }
+
+    private void runIO() {
+        try {
+            if (zStream != 0) {
+                Unsafe.getUnsafe().putInt(zBuf, LineProtoBinaryFormat.MAGIC_DEFLATE);
+                Unsafe.getUnsafe().putByte(zBuf + Integer.BYTES, LineProtoBinaryFormat.VERSION);
+                write(zBuf, LineProtoBinaryFormat.PREAMBLE_SIZE);
+            }
+            while (true) {
+                final long rp = readPosition;
+                final long wp = writePosition;
+                if (rp == wp) {
+                    if (closing) {
+                        break;
+                    }
+                    ioParked = true;
+                    if (readPosition == writePosition && !closing) {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    ioParked = false;
+                    continue;
+                }
+                final int offset = (int) (rp % ringCapacity);
+                final int len = (int) Math.min(wp - rp, ringCapacity - offset);
+                readPosition = rp + (zStream != 0 ? writeCompressed(ring + offset, len) : write(ring + offset, len));
+                if (producerParked) {
+                    LockSupport.unpark(producerThread);
+                }
+            }
+        } catch (Throwable e) {
+            error = e;
+            if (producerParked) {
+                LockSupport.unpark(producerThread);
+            }
+        }
+    }
+
+    private int write(long ptr, int len) {
+        final long start = System.nanoTime();
+        delegate.send(ptr, len);
+        final long nanos = System.nanoTime() - start;
+        writeCount++;
+        writeNanos += nanos;
+        if (nanos > maxWriteNanos) {
+            maxWriteNanos = nanos;
+        }
+        bytesSent += len;
+        return len;
+    }
+
+    private int writeCompressed(long ptr, int len) {
+        final int rawSize = Math.min(len, DEFLATE_CHUNK_SIZE);
+        Zip.setInput(zStream, ptr, rawSize);
+        final int rc = Zip.deflate(zStream, zBuf + LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE, LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE, true);
+        if (rc != Zip.Z_STREAM_END) {
+            throw new LineSenderException("could not compress data [rc=").put(rc).put("]");
+        }
+        final int size = LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE - Zip.availOut(zStream);
+        Zip.deflateReset(zStream);
+        Unsafe.getUnsafe().putInt(zBuf, size);
+        Unsafe.getUnsafe().putInt(zBuf + Integer.BYTES, rawSize);
+        write(zBuf, LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE + size);
+        return rawSize;
+    }
+}
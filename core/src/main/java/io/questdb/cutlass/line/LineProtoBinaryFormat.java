@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line;
+
+/**
+ * Constants of the binary encoding of the InfluxDB Line Protocol accepted by the TCP receiver.
+ * <p>
+ * A client selects the binary encoding by sending {@link #PREAMBLE_SIZE} bytes: {@link #MAGIC}
+ * followed by the protocol version byte. The preamble cannot be mistaken for a text ILP line because
+ * '\0' is not allowed anywhere in text ILP. Authentication, when enabled, happens before the preamble.
+ * <p>
+ * The preamble is followed by frames, all numbers are little-endian:
+ * <pre>
+ * frame      := u32 size, u8 frameType, payload             size counts the bytes after the size field
+ * DICTIONARY := (u32 length, utf8 bytes)*                   each string gets the next sequential id
+ * RESET      := empty                                       forgets all the dictionary strings
+ * ROW        := u32 tableId, i64 timestamp, u16 count, entity*
+ * entity     := u32 nameId, u8 type, value
+ * </pre>
+ * Table and column names as well as symbol values are dictionary ids, so repeated strings cross
+ * the wire once per connection. Row timestamp of {@link #NULL_TIMESTAMP} stands for the server time.
+ * <p>
+ * A client may also compress the rest of the connection data by sending {@link #MAGIC_DEFLATE} followed
+ * by the protocol version byte. Data after this preamble is a sequence of independently compressed raw
+ * deflate frames, which decompress into text or binary ILP, the binary preamble included:
+ * <pre>
+ * deflateFrame := u32 size, u32 rawSize, deflate bytes     size is at most DEFLATE_FRAME_MAX_SIZE
+ * </pre>
+ */
+public final class LineProtoBinaryFormat {
+    public static final int DEFAULT_DICTIONARY_MAX_SIZE = 1024 * 1024;
+    public static final int DEFLATE_FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    public static final int DEFLATE_FRAME_MAX_SIZE = 64 * 1024;
+    public static final byte FRAME_DICTIONARY = 1;
+    public static final byte FRAME_DICTIONARY_RESET = 2;
+    public static final int FRAME_HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+    public static final byte FRAME_ROW = 3;
+    public static final int MAGIC = 0x424c4900; // "\0ILB" read as little-endian int
+    public static final int MAGIC_DEFLATE = 0x5a4c4900; // "\0ILZ" read as little-endian int
+    public static final int MAX_ENTITY_COUNT = 0xffff;
+    public static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    public static final int PREAMBLE_SIZE = Integer.BYTES + Byte.BYTES;
+    public static final int ROW_HEADER_SIZE = FRAME_HEADER_SIZE + Integer.BYTES + Long.BYTES + Short.BYTES;
+    // value types match LineTcpParser entity types
+    public static final byte TYPE_BOOLEAN = 6;
+    public static final byte TYPE_DOUBLE = 2;
+    public static final byte TYPE_LONG = 3;
+    public static final byte TYPE_STRING = 4;
+    public static final byte TYPE_SYMBOL = 1;
+    public static final byte TYPE_TIMESTAMP = 13;
+    public static final byte VERSION = 1;
+
+    private LineProtoBinaryFormat() {
+    }
+}
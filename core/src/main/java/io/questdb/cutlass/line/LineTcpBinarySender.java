@@ -0,0 +1,270 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line;
+
+import io.questdb.client.Sender;
+import io.questdb.std.*;
+import io.questdb.std.str.DirectUnboundedByteSink;
+
+/**
+ * Sends rows to the TCP receiver using the binary encoding, see {@link LineProtoBinaryFormat}.
+ * Table names, column names and symbol values are sent once per connection and referenced by id
+ * afterwards. Numbers are sent in their binary form, so the server does not have to parse them.
+ * <br>
+ * Use {@link Sender.LineSenderBuilder#enableBinaryProtocol()} to create an instance.
+ */
+public class LineTcpBinarySender extends AbstractLineSender {
+    private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+    private final CharSequenceIntHashMap dictionary = new CharSequenceIntHashMap();
+    private final int dictionaryMaxSize;
+    private final long rowBuf;
+    private final DirectUnboundedByteSink utf8Sink = new DirectUnboundedByteSink();
+    private final long utf8Buf;
+    private int dictionarySize;
+    private int entityCount;
+    private boolean hasColumns;
+    private boolean hasSymbols;
+    private boolean hasTable;
+    private boolean preambleSent;
+    private long rowPtr;
+
+    public LineTcpBinarySender(LineChannel channel, int bufferCapacity) {
+        this(channel, bufferCapacity, LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE);
+    }
+
+    /**
+     * @param channel           channel to send data to
+     * @param bufferCapacity    capacity of an internal buffer in bytes
+     * @param dictionaryMaxSize size of the dictionary strings in bytes, after which the sender resets dictionary,
+     *                          must not exceed line.tcp.binary.dictionary.max.size of the server
+     */
+    public LineTcpBinarySender(LineChannel channel, int bufferCapacity, int dictionaryMaxSize) {
+        super(channel, bufferCapacity);
+        this.dictionaryMaxSize = dictionaryMaxSize;
+        this.rowBuf = Unsafe.malloc(bufferCapacity, MemoryTag.NATIVE_ILP_RSS);
+        this.utf8Buf = Unsafe.malloc(bufferCapacity, MemoryTag.NATIVE_ILP_RSS);
+        this.rowPtr = rowBuf + LineProtoBinaryFormat.ROW_HEADER_SIZE;
+    }
+
+    @Override
+    public void at(long timestamp) {
+        completeRow(timestamp);
+    }
+
+    @Override
+    public void atNow() {
+        completeRow(LineProtoBinaryFormat.NULL_TIMESTAMP);
+    }
+
+    @Override
+    public void close() {
+        if (rowPtr == 0) {
+            return;
+        }
+        try {
+            super.close();
+        } finally {
+            rowPtr = 0;
+            Unsafe.free(rowBuf, capacity, MemoryTag.NATIVE_ILP_RSS);
+            Unsafe.free(utf8Buf, capacity, MemoryTag.NATIVE_ILP_RSS);
+        }
+    }
+
+    @Override
+    public AbstractLineSender field(CharSequence name, long value) {
+        Unsafe.getUnsafe().putLong(putEntity(defineColumn(name), LineProtoBinaryFormat.TYPE_LONG, Long.BYTES), value);
+        return this;
+    }
+
+    @Override
+    public AbstractLineSender field(CharSequence name, CharSequence value) {
+        final int nameId = defineColumn(name);
+        final int len = toUtf8(value);
+        final long p = putEntity(nameId, LineProtoBinaryFormat.TYPE_STRING, Integer.BYTES + len);
+        Unsafe.getUnsafe().putInt(p, len);
+        Vect.memcpy(p + Integer.BYTES, utf8Buf, len);
+        return this;
+    }
+
+    @Override
+    public AbstractLineSender field(CharSequence name, double value) {
+        Unsafe.getUnsafe().putDouble(putEntity(defineColumn(name), LineProtoBinaryFormat.TYPE_DOUBLE, Double.BYTES), value);
+        return this;
+    }
+
+    @Override
+    public AbstractLineSender field(CharSequence name, boolean value) {
+        Unsafe.getUnsafe().putByte(putEntity(defineColumn(name), LineProtoBinaryFormat.TYPE_BOOLEAN, Byte.BYTES), (byte) (value ? 1 : 0));
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        validateNotClosed();
+        sendAll();
+    }
+
+    @Override
+    public AbstractLineSender metric(CharSequence metric) {
+        validateNotClosed();
+        validateTableName(metric);
+        if (hasTable) {
+            throw new LineSenderException("duplicated table. call sender.at() or sender.atNow() to finish the current row first");
+        }
+        if (metric.length() == 0) {
+            throw new LineSenderException("table name cannot be empty");
+        }
+        if (dictionarySize > dictionaryMaxSize - capacity) {
+            // strings of the row cannot take more than the buffer capacity, start over before the row
+            // to make sure it does not reference strings the server has already forgotten
+            resetDictionary();
+        }
+        Unsafe.getUnsafe().putInt(rowBuf + LineProtoBinaryFormat.FRAME_HEADER_SIZE, define(metric));
+        hasTable = true;
+        return this;
+    }
+
+    @Override
+    public AbstractLineSender tag(CharSequence tag, CharSequence value) {
+        if (!hasTable) {
+            throw new LineSenderException("table expected");
+        }
+        if (hasColumns) {
+            throw new LineSenderException("symbols must be written before any other column types");
+        }
+        validateColumnName(tag);
+        final int nameId = define(tag);
+        final int valueId = define(value);
+        Unsafe.getUnsafe().putInt(putEntity(nameId, LineProtoBinaryFormat.TYPE_SYMBOL, Integer.BYTES), valueId);
+        hasSymbols = true;
+        return this;
+    }
+
+    @Override
+    public AbstractLineSender timestampColumn(CharSequence name, long value) {
+        Unsafe.getUnsafe().putLong(putEntity(defineColumn(name), LineProtoBinaryFormat.TYPE_TIMESTAMP, Long.BYTES), value);
+        return this;
+    }
+
+    private void completeRow(long timestamp) {
+        validateNotClosed();
+        if (!hasTable) {
+            throw new LineSenderException("table expected");
+        }
+        if (!hasColumns && !hasSymbols) {
+            throw new LineSenderException("no symbols or columns were provided");
+        }
+        final int rowSize = (int) (rowPtr - rowBuf);
+        Unsafe.getUnsafe().putInt(rowBuf, rowSize - Integer.BYTES);
+        Unsafe.getUnsafe().putByte(rowBuf + Integer.BYTES, LineProtoBinaryFormat.FRAME_ROW);
+        Unsafe.getUnsafe().putLong(rowBuf + LineProtoBinaryFormat.FRAME_HEADER_SIZE + Integer.BYTES, timestamp);
+        Unsafe.getUnsafe().putShort(rowBuf + LineProtoBinaryFormat.FRAME_HEADER_SIZE + Integer.BYTES + Long.BYTES, (short) entityCount);
+        Vect.memcpy(reserveFrame(rowSize), rowBuf, rowSize);
+
+        rowPtr = rowBuf + LineProtoBinaryFormat.ROW_HEADER_SIZE;
+        entityCount = 0;
+        hasTable = false;
+        hasColumns = false;
+        hasSymbols = false;
+        onRowComplete();
+    }
+
+    private int define(CharSequence value) {
+        final int index = dictionary.keyIndex(value);
+        if (index < 0) {
+            return dictionary.valueAt(index);
+        }
+        final int len = toUtf8(value);
+        final int frameSize = LineProtoBinaryFormat.FRAME_HEADER_SIZE + Integer.BYTES + len;
+        final long p = reserveFrame(frameSize);
+        Unsafe.getUnsafe().putInt(p, frameSize - Integer.BYTES);
+        Unsafe.getUnsafe().putByte(p + Integer.BYTES, LineProtoBinaryFormat.FRAME_DICTIONARY);
+        Unsafe.getUnsafe().putInt(p + LineProtoBinaryFormat.FRAME_HEADER_SIZE, len);
+        Vect.memcpy(p + LineProtoBinaryFormat.FRAME_HEADER_SIZE + Integer.BYTES, utf8Buf, len);
+
+        final int id = dictionary.size();
+        dictionary.putAt(index, Chars.toString(value), id);
+        dictionarySize += len;
+        return id;
+    }
+
+    private int defineColumn(CharSequence name) {
+        validateNotClosed();
+        if (!hasTable) {
+            throw new LineSenderException("table expected");
+        }
+        validateColumnName(name);
+        hasColumns = true;
+        return define(name);
+    }
+
+    private long putEntity(int nameId, byte type, int valueSize) {
+        if (entityCount == LineProtoBinaryFormat.MAX_ENTITY_COUNT) {
+            throw new LineSenderException("too many columns");
+        }
+        if (rowPtr + Integer.BYTES + Byte.BYTES + valueSize > rowBuf + capacity) {
+            throw new LineSenderException("row too long. increase buffer size.");
+        }
+        Unsafe.getUnsafe().putInt(rowPtr, nameId);
+        Unsafe.getUnsafe().putByte(rowPtr + Integer.BYTES, type);
+        final long valueAddress = rowPtr + Integer.BYTES + Byte.BYTES;
+        rowPtr = valueAddress + valueSize;
+        entityCount++;
+        return valueAddress;
+    }
+
+    private long reserveFrame(int frameSize) {
+        if (!preambleSent) {
+            // sent lazily, after the authentication
+            final long p = reserve(LineProtoBinaryFormat.PREAMBLE_SIZE);
+            Unsafe.getUnsafe().putInt(p, LineProtoBinaryFormat.MAGIC);
+            Unsafe.getUnsafe().putByte(p + Integer.BYTES, LineProtoBinaryFormat.VERSION);
+            preambleSent = true;
+        }
+        return reserve(frameSize);
+    }
+
+    private void resetDictionary() {
+        final long p = reserveFrame(LineProtoBinaryFormat.FRAME_HEADER_SIZE);
+        Unsafe.getUnsafe().putInt(p, Byte.BYTES);
+        Unsafe.getUnsafe().putByte(p + Integer.BYTES, LineProtoBinaryFormat.FRAME_DICTIONARY_RESET);
+        dictionary.clear();
+        dictionarySize = 0;
+    }
+
+    private int toUtf8(CharSequence value) {
+        if ((long) value.length() * MAX_UTF8_BYTES_PER_CHAR > capacity - LineProtoBinaryFormat.ROW_HEADER_SIZE) {
+            throw new LineSenderException("value too long. increase buffer size.");
+        }
+        utf8Sink.of(utf8Buf);
+        utf8Sink.encodeUtf8(value);
+        return utf8Sink.length();
+    }
+
+    @Override
+    protected void send00() {
+        sendAll();
+    }
+}
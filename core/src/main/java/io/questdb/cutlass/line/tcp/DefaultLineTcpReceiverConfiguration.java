@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoSecurityContext;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.PartitionBy;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cutlass.line.LineProtoBinaryFormat;
 import io.questdb.cutlass.line.LineProtoNanoTimestampAdapter;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
 import io.questdb.mp.WorkerPoolConfiguration;
@@ -71,6 +72,11 @@ public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfi
         return true;
     }
 
+    @Override
+    public int getBinaryDictionaryMaxSize() {
+        return LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE;
+    }
+
     @Override
     public CairoSecurityContext getCairoSecurityContext() {
         return AllowAllCairoSecurityContext.INSTANCE;
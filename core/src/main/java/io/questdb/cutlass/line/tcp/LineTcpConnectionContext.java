@@ -26,7 +26,10 @@ package io.questdb.cutlass.line.tcp;
 
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CommitFailedException;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.cutlass.line.LineProtoBinaryFormat;
 import io.questdb.cutlass.line.tcp.LineTcpParser.ParseResult;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -40,6 +43,7 @@ import io.questdb.std.str.DirectByteCharSequence;
 class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
     private static final Log LOG = LogFactory.getLog(LineTcpConnectionContext.class);
     private static final long QUEUE_FULL_LOG_HYSTERESIS_IN_MS = 10_000;
+    private static final long WAL_LAG_MAX_READ_PAUSE_MS = 100;
     protected final NetworkFacade nf;
     private final DirectByteCharSequence byteCharSequence = new DirectByteCharSequence();
     private final long checkIdleInterval;
@@ -51,15 +55,32 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
     private final LineTcpParser parser;
     private final LineTcpMeasurementScheduler scheduler;
     private final ByteCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8 = new ByteCharSequenceObjHashMap<>();
+    private final long walApplyLagHardTxnCount;
+    private final long walApplyLagSoftTxnCount;
     protected boolean peerDisconnected;
     protected long recvBufEnd;
     protected long recvBufPos;
     protected long recvBufStart;
     protected long recvBufStartOfMeasurement;
+    // datagram parsing stopped on a full writer queue and has to be resumed
+    private boolean datagramQueueFull;
     private boolean goodMeasurement;
+    // compressed frames of a connection that negotiated deflate compression
+    private long inflateBuf;
+    private long inflateBufEnd;
+    private long inflateBufLo;
+    private long inflateBufPos;
+    // decompressed bytes left in the current deflate frame
+    private int inflateFrameRemaining;
+    private long inflateStream;
     private long lastQueueFullLogMillis = 0;
+    // WAL table written by this connection with apply lag over the soft threshold
+    private SeqTxnTracker laggingTxnTracker;
     private long nextCheckIdleTime;
     private long nextCommitTime;
+    private boolean protocolNegotiated;
+    private long readResumeMillis;
+    private boolean walApplyLagHard;
 
     LineTcpConnectionContext(LineTcpReceiverConfiguration configuration, LineTcpMeasurementScheduler scheduler, Metrics metrics) {
         nf = configuration.getNetworkFacade();
@@ -67,7 +88,11 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         this.scheduler = scheduler;
         this.metrics = metrics;
         this.milliClock = configuration.getMillisecondClock();
-        parser = new LineTcpParser(configuration.isStringAsTagSupported(), configuration.isSymbolAsFieldSupported());
+        parser = new LineTcpParser(
+                configuration.isStringAsTagSupported(),
+                configuration.isSymbolAsFieldSupported(),
+                configuration.getBinaryDictionaryMaxSize()
+        );
         recvBufStart = Unsafe.malloc(configuration.getNetMsgBufferSize(), MemoryTag.NATIVE_ILP_RSS);
         recvBufEnd = recvBufStart + configuration.getNetMsgBufferSize();
         clear();
@@ -77,6 +102,9 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         this.nextCheckIdleTime = now + checkIdleInterval;
         this.nextCommitTime = now + commitInterval;
         this.idleTimeout = configuration.getWriterIdleTimeout();
+        final CairoConfiguration cairoConfiguration = scheduler.getCairoConfiguration();
+        this.walApplyLagSoftTxnCount = cairoConfiguration.getWalApplyLagSoftTxnCount();
+        this.walApplyLagHardTxnCount = cairoConfiguration.getWalApplyLagHardTxnCount();
     }
 
     public void checkIdle(long millis) {
@@ -94,7 +122,13 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
     public void clear() {
         recvBufPos = recvBufStart;
         peerDisconnected = false;
+        protocolNegotiated = false;
+        parser.resetProtocol();
         resetParser();
+        freeInflate();
+        laggingTxnTracker = null;
+        readResumeMillis = 0;
+        walApplyLagHard = false;
         ObjList<ByteCharSequence> keys = tableUpdateDetailsUtf8.keys();
         for (int n = keys.size() - 1; n >= 0; --n) {
             final ByteCharSequence tableNameUtf8 = keys.get(n);
@@ -109,6 +143,7 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         this.fd = -1;
         recvBufStart = recvBufEnd = recvBufPos = Unsafe.free(recvBufStart, recvBufEnd - recvBufStart, MemoryTag.NATIVE_ILP_RSS);
         clear();
+        parser.close();
     }
 
     public long commitWalTables(long wallClockMillis) {
@@ -169,8 +204,17 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         return false;
     }
 
+    private boolean deflateFrameError(int size, int rawSize) {
+        LOG.error().$('[').$(fd).$("] invalid deflate frame [size=").$(size).$(", rawSize=").$(rawSize).I$();
+        // drops buffered frames, so that the connection reads as disconnected
+        peerDisconnected = true;
+        inflateBufLo = inflateBufPos;
+        inflateFrameRemaining = 0;
+        return false;
+    }
+
     private void doHandleDisconnectEvent() {
-        if (parser.getBufferAddress() == recvBufEnd) {
+        if (parser.getBufferAddress() == recvBufEnd || parser.isBinary()) {
             LOG.error().$('[').$(fd).$("] buffer overflow [line.tcp.msg.buffer.size=").$(recvBufEnd - recvBufStart).$(']').$();
             return;
         }
@@ -185,6 +229,58 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         }
     }
 
+    private void freeInflate() {
+        if (inflateStream != 0) {
+            Zip.inflateEnd(inflateStream);
+            inflateStream = 0;
+            inflateBuf = inflateBufEnd = inflateBufLo = inflateBufPos = Unsafe.free(inflateBuf, inflateBufEnd - inflateBuf, MemoryTag.NATIVE_ILP_RSS);
+            inflateFrameRemaining = 0;
+        }
+    }
+
+    /**
+     * Decompresses deflate frames into the receive buffer.
+     *
+     * @return true when bytes were added to the buffer, same as {@link #read()}
+     */
+    private boolean inflate() {
+        if (recvBufPos == recvBufEnd) {
+            return !peerDisconnected;
+        }
+        final long orig = recvBufPos;
+        while (recvBufPos < recvBufEnd && (inflateFrameRemaining > 0 || nextDeflateFrame())) {
+            final int n = Zip.inflate(inflateStream, recvBufPos, (int) Math.min(recvBufEnd - recvBufPos, inflateFrameRemaining), false);
+            if (n <= 0) {
+                deflateFrameError(n, inflateFrameRemaining);
+                break;
+            }
+            recvBufPos += n;
+            inflateFrameRemaining -= n;
+        }
+        return recvBufPos > orig;
+    }
+
+    // Slows down reads while a WAL table this connection writes to is over the soft lag threshold.
+    // Reads are paused for up to WAL_LAG_MAX_READ_PAUSE_MS, the pause grows with the lag.
+    private boolean isReadThrottled() {
+        if (laggingTxnTracker == null) {
+            return false;
+        }
+        final long lag = laggingTxnTracker.getLag();
+        if (lag < walApplyLagSoftTxnCount || laggingTxnTracker.isSuspended()) {
+            laggingTxnTracker = null;
+            return false;
+        }
+        final long millis = milliClock.getTicks();
+        if (millis < readResumeMillis) {
+            return true;
+        }
+        final long range = walApplyLagHardTxnCount > walApplyLagSoftTxnCount ? walApplyLagHardTxnCount - walApplyLagSoftTxnCount : walApplyLagSoftTxnCount;
+        readResumeMillis = millis + 1 + WAL_LAG_MAX_READ_PAUSE_MS * Math.min(lag - walApplyLagSoftTxnCount, range) / range;
+        metrics.getWalMetrics().incrementBackpressure();
+        return false;
+    }
+
     private void logParseError() {
         int position = (int) (parser.getBufferAddress() - recvBufStartOfMeasurement);
         assert position >= 0;
@@ -197,6 +293,113 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
                 .$();
     }
 
+    /**
+     * Detects binary protocol preamble at the start of the connection data. Returns null when the
+     * connection protocol is known and parsing can proceed.
+     */
+    private IOContextResult negotiateProtocol() {
+        final long available = recvBufPos - recvBufStartOfMeasurement;
+        if (available > 0 && Unsafe.getUnsafe().getByte(recvBufStartOfMeasurement) != 0) {
+            // text protocol, the binary one starts with '\0', which is invalid in text
+            protocolNegotiated = true;
+            return null;
+        }
+        if (available < LineProtoBinaryFormat.PREAMBLE_SIZE) {
+            if (peerDisconnected) {
+                return IOContextResult.NEEDS_DISCONNECT;
+            }
+            return IOContextResult.NEEDS_READ;
+        }
+        final int magic = Unsafe.getUnsafe().getInt(recvBufStartOfMeasurement);
+        final byte version = Unsafe.getUnsafe().getByte(recvBufStartOfMeasurement + Integer.BYTES);
+        if (magic == LineProtoBinaryFormat.MAGIC_DEFLATE && version == LineProtoBinaryFormat.VERSION && inflateStream == 0) {
+            LOG.info().$('[').$(fd).$("] deflate compression [version=").$(version).I$();
+            if (!startInflate(recvBufStartOfMeasurement + LineProtoBinaryFormat.PREAMBLE_SIZE)) {
+                return IOContextResult.NEEDS_DISCONNECT;
+            }
+            return negotiateProtocol();
+        }
+        if (magic != LineProtoBinaryFormat.MAGIC || version != LineProtoBinaryFormat.VERSION) {
+            LOG.error().$('[').$(fd).$("] unsupported protocol [magic=").$(magic).$(", version=").$(version).I$();
+            return IOContextResult.NEEDS_DISCONNECT;
+        }
+        LOG.info().$('[').$(fd).$("] binary protocol [version=").$(version).I$();
+        recvBufStartOfMeasurement += LineProtoBinaryFormat.PREAMBLE_SIZE;
+        parser.ofBinary(recvBufStartOfMeasurement);
+        protocolNegotiated = true;
+        return null;
+    }
+
+    /**
+     * Prepares the next deflate frame for decompression, receiving it when it is not buffered completely.
+     *
+     * @return true when the frame is ready, false when it is not received yet
+     */
+    private boolean nextDeflateFrame() {
+        final int headerSize = LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE;
+        long available = inflateBufPos - inflateBufLo;
+        if (available < headerSize || available < headerSize + Unsafe.getUnsafe().getInt(inflateBufLo)) {
+            if (inflateBufLo > inflateBuf) {
+                Vect.memmove(inflateBuf, inflateBufLo, available);
+                inflateBufLo = inflateBuf;
+                inflateBufPos = inflateBuf + available;
+            }
+            if (!peerDisconnected) {
+                final int bytesRead = nf.recv(fd, inflateBufPos, (int) (inflateBufEnd - inflateBufPos));
+                if (bytesRead > 0) {
+                    inflateBufPos += bytesRead;
+                    available += bytesRead;
+                } else {
+                    peerDisconnected = bytesRead < 0;
+                }
+            }
+            if (available < headerSize) {
+                return false;
+            }
+        }
+        final int size = Unsafe.getUnsafe().getInt(inflateBufLo);
+        final int rawSize = Unsafe.getUnsafe().getInt(inflateBufLo + Integer.BYTES);
+        if (size < 1 || size > LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE || rawSize < 1) {
+            return deflateFrameError(size, rawSize);
+        }
+        if (available < headerSize + size) {
+            return false;
+        }
+        Zip.inflateReset(inflateStream);
+        // the frame stays in place until it is decompressed completely
+        Zip.setInput(inflateStream, inflateBufLo + headerSize, size);
+        inflateBufLo += headerSize + size;
+        inflateFrameRemaining = rawSize;
+        return true;
+    }
+
+    /**
+     * Switches the connection to deflate compression. Bytes received after the preamble are compressed,
+     * they are moved to the inflate buffer and the receive buffer is refilled with decompressed data.
+     *
+     * @param lo address of the first compressed byte in the receive buffer
+     * @return false when the inflate stream could not be initialized
+     */
+    private boolean startInflate(long lo) {
+        final long len = recvBufPos - lo;
+        final long size = Math.max(LineProtoBinaryFormat.DEFLATE_FRAME_HEADER_SIZE + LineProtoBinaryFormat.DEFLATE_FRAME_MAX_SIZE, recvBufEnd - recvBufStart);
+        final long stream = Zip.inflateInit(true);
+        if (stream < 0) {
+            LOG.error().$('[').$(fd).$("] could not initialize inflate stream [rc=").$(stream).I$();
+            return false;
+        }
+        inflateStream = stream;
+        inflateBuf = Unsafe.malloc(size, MemoryTag.NATIVE_ILP_RSS);
+        inflateBufEnd = inflateBuf + size;
+        Vect.memcpy(inflateBuf, lo, len);
+        inflateBufLo = inflateBuf;
+        inflateBufPos = inflateBuf + len;
+        recvBufPos = recvBufStart;
+        resetParser();
+        inflate();
+        return true;
+    }
+
     private void startNewMeasurement() {
         parser.startNextMeasurement();
         recvBufStartOfMeasurement = parser.getBufferAddress();
@@ -212,6 +415,39 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         tableUpdateDetailsUtf8.put(tableNameUtf8, tableUpdateDetails);
     }
 
+    /**
+     * Checks how far WAL apply is behind on a table before a measurement is appended to it.
+     * Over the soft threshold the connection starts throttling its reads.
+     *
+     * @param txnTracker apply lag tracker of the table
+     * @return true when the lag is over the hard threshold and the measurement has to wait
+     */
+    boolean checkWalApplyLag(SeqTxnTracker txnTracker) {
+        if (walApplyLagSoftTxnCount < 1 && walApplyLagHardTxnCount < 1) {
+            return false;
+        }
+        final long lag = txnTracker.getLag();
+        if (lag == 0 || txnTracker.isSuspended()) {
+            walApplyLagHard = false;
+            return false;
+        }
+        if (walApplyLagSoftTxnCount > 0 && lag >= walApplyLagSoftTxnCount) {
+            laggingTxnTracker = txnTracker;
+        }
+        if (walApplyLagHardTxnCount > 0 && lag >= walApplyLagHardTxnCount) {
+            if (!walApplyLagHard) {
+                walApplyLagHard = true;
+                metrics.getWalMetrics().incrementBackpressure();
+                LOG.info().$('[').$(fd).$("] WAL apply lag is over the hard limit, reading paused [table=").$(txnTracker.getTableToken())
+                        .$(", lagTxns=").$(lag)
+                        .I$();
+            }
+            return true;
+        }
+        walApplyLagHard = false;
+        return false;
+    }
+
     /**
      * Moves incompletely received measurement to start of the receive buffer. Also updates the state of the
      * context and protocol parser such that all pointers that point to the incomplete measurement will remain
@@ -242,7 +478,9 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
     }
 
     IOContextResult handleIO(NetworkIOJob netIoJob) {
-        read();
+        if (!isReadThrottled()) {
+            read();
+        }
         try {
             return parseMeasurements(netIoJob);
         } finally {
@@ -250,7 +488,85 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
         }
     }
 
+    /**
+     * Parses a self-contained block of text measurements, such as a UDP datagram, in place and
+     * schedules them for writing. Measurement that is not terminated by the end of the block is
+     * discarded. When the writer queue is full, the method must be called again with the same
+     * block, parsing resumes from the measurement that could not be scheduled.
+     *
+     * @param netIoJob network IO job of the current thread
+     * @param lo       address of the first byte of the block
+     * @param hi       address of the first byte after the block
+     * @return true when the writer queue is full and the block is not processed completely
+     */
+    boolean parseDatagram(NetworkIOJob netIoJob, long lo, long hi) {
+        if (!datagramQueueFull) {
+            parser.of(lo);
+            goodMeasurement = true;
+            recvBufStartOfMeasurement = lo;
+        }
+        while (true) {
+            try {
+                ParseResult rc;
+                if (datagramQueueFull) {
+                    rc = ParseResult.MEASUREMENT_COMPLETE;
+                } else {
+                    rc = goodMeasurement ? parser.parseMeasurement(hi) : parser.skipMeasurement(hi);
+                }
+                switch (rc) {
+                    case MEASUREMENT_COMPLETE:
+                        if (goodMeasurement) {
+                            datagramQueueFull = scheduler.scheduleEvent(netIoJob, this, parser);
+                            if (datagramQueueFull) {
+                                if (checkQueueFullLogHysteresis()) {
+                                    LOG.debug().$('[').$(fd).$("] queue full").$();
+                                }
+                                return true;
+                            }
+                        } else {
+                            logParseError();
+                            goodMeasurement = true;
+                        }
+                        parser.startNextMeasurement();
+                        recvBufStartOfMeasurement = parser.getBufferAddress();
+                        continue;
+                    case ERROR:
+                        goodMeasurement = false;
+                        continue;
+                    default:
+                        if (parser.getBufferAddress() > recvBufStartOfMeasurement) {
+                            LOG.error().$('[').$(fd).$("] incomplete measurement at the end of datagram, ")
+                                    .$(hi - recvBufStartOfMeasurement).$(" bytes discarded").$();
+                        }
+                        return false;
+                }
+            } catch (CairoException ex) {
+                LOG.error()
+                        .$('[').$(fd).$("] could not process line data [table=").$(parser.getMeasurementName())
+                        .$(", msg=").$(ex.getFlyweightMessage())
+                        .$(", errno=").$(ex.getErrno())
+                        .I$();
+                datagramQueueFull = false;
+                goodMeasurement = false;
+            } catch (Throwable ex) {
+                LOG.critical()
+                        .$('[').$(fd).$("] could not process line data [table=").$(parser.getMeasurementName())
+                        .$(", ex=").$(ex)
+                        .I$();
+                metrics.health().incrementUnhandledErrors();
+                datagramQueueFull = false;
+                return false;
+            }
+        }
+    }
+
     protected final IOContextResult parseMeasurements(NetworkIOJob netIoJob) {
+        if (!protocolNegotiated) {
+            final IOContextResult result = negotiateProtocol();
+            if (result != null) {
+                return result;
+            }
+        }
         while (true) {
             try {
                 ParseResult rc = goodMeasurement ? parser.parseMeasurement(recvBufPos) : parser.skipMeasurement(recvBufPos);
@@ -275,7 +591,7 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
                     }
 
                     case ERROR: {
-                        if (disconnectOnError) {
+                        if (disconnectOnError || parser.getErrorCode() == LineTcpParser.ErrorCode.INVALID_BINARY_FRAME) {
                             logParseError();
                             return IOContextResult.NEEDS_DISCONNECT;
                         }
@@ -284,11 +600,19 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
                     }
 
                     case BUFFER_UNDERFLOW: {
+                        if (parser.isBinary()) {
+                            // frames before the parser position are processed, including dictionary frames
+                            recvBufStartOfMeasurement = parser.getBufferAddress();
+                        }
                         if (recvBufPos == recvBufEnd && !compactBuffer(recvBufStartOfMeasurement)) {
                             doHandleDisconnectEvent();
                             return IOContextResult.NEEDS_DISCONNECT;
                         }
 
+                        if (isReadThrottled()) {
+                            return IOContextResult.QUEUE_FULL;
+                        }
+
                         if (!read()) {
                             if (peerDisconnected) {
                                 return IOContextResult.NEEDS_DISCONNECT;
@@ -322,6 +646,9 @@ class LineTcpConnectionContext extends IOContext<LineTcpConnectionContext> {
     }
 
     protected boolean read() {
+        if (inflateStream != 0) {
+            return inflate();
+        }
         int bufferRemaining = (int) (recvBufEnd - recvBufPos);
         final int orig = bufferRemaining;
         if (bufferRemaining > 0 && !peerDisconnected) {
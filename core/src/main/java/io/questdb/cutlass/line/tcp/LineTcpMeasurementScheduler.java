@@ -33,6 +33,7 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cairo.wal.WalWriter;
 import io.questdb.cutlass.line.LineProtoTimestampAdapter;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.MPSequence;
@@ -48,6 +49,8 @@ import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 import io.questdb.tasks.TelemetryTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
 import java.util.Arrays;
@@ -59,6 +62,7 @@ import static io.questdb.cutlass.line.tcp.TableUpdateDetails.ThreadLocalDetails.
 
 class LineTcpMeasurementScheduler implements Closeable {
     private static final Log LOG = LogFactory.getLog(LineTcpMeasurementScheduler.class);
+    private static final long WRITER_METRICS_WINDOW_MILLIS = 1_000;
     private final ObjList<TableUpdateDetails>[] assignedTables;
     private final boolean autoCreateNewColumns;
     private final boolean autoCreateNewTables;
@@ -69,17 +73,23 @@ class LineTcpMeasurementScheduler implements Closeable {
     private final CairoEngine engine;
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> idleTableUpdateDetailsUtf16;
     private final long[] loadByWriterThread;
+    private final LineTcpMetrics metrics;
     private final NetworkIOJob[] netIoJobs;
     private final Path path = new Path();
     private final MPSequence[] pubSeq;
     private final RingQueue<LineTcpMeasurementEvent>[] queue;
     private final CairoSecurityContext securityContext;
+    private final SCSequence[] subSeq;
     private final StringSink[] tableNameSinks;
     private final TableStructureAdapter tableStructureAdapter;
     private final ReadWriteLock tableUpdateDetailsLock = new SimpleReadWriteLock();
     private final LowerCaseCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf16;
     private final Telemetry<TelemetryTask> telemetry;
+    private final LineUdpReceiverConfiguration udpConfiguration;
+    // events processed by each writer thread within the last metrics window, accessed by IO worker 0 only
+    private final long[] windowLoadByWriterThread;
     private final long writerIdleTimeout;
+    private long nextWriterMetricsMillis;
 
     LineTcpMeasurementScheduler(
             LineTcpReceiverConfiguration lineConfiguration,
@@ -87,8 +97,20 @@ class LineTcpMeasurementScheduler implements Closeable {
             WorkerPool ioWorkerPool,
             IODispatcher<LineTcpConnectionContext> dispatcher,
             WorkerPool writerWorkerPool
+    ) {
+        this(lineConfiguration, null, engine, ioWorkerPool, dispatcher, writerWorkerPool);
+    }
+
+    LineTcpMeasurementScheduler(
+            LineTcpReceiverConfiguration lineConfiguration,
+            @Nullable LineUdpReceiverConfiguration udpConfiguration,
+            CairoEngine engine,
+            WorkerPool ioWorkerPool,
+            IODispatcher<LineTcpConnectionContext> dispatcher,
+            WorkerPool writerWorkerPool
     ) {
         this.engine = engine;
+        this.udpConfiguration = udpConfiguration;
         this.telemetry = engine.getTelemetry();
         this.securityContext = lineConfiguration.getCairoSecurityContext();
         this.cairoConfiguration = engine.getConfiguration();
@@ -111,6 +133,8 @@ class LineTcpMeasurementScheduler implements Closeable {
         tableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         idleTableUpdateDetailsUtf16 = new LowerCaseCharSequenceObjHashMap<>();
         loadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        windowLoadByWriterThread = new long[writerWorkerPool.getWorkerCount()];
+        metrics = engine.getMetrics().lineTcp();
         autoCreateNewTables = lineConfiguration.getAutoCreateNewTables();
         autoCreateNewColumns = lineConfiguration.getAutoCreateNewColumns();
         int maxMeasurementSize = lineConfiguration.getMaxMeasurementSize();
@@ -118,6 +142,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         long commitInterval = configuration.getCommitInterval();
         int nWriterThreads = writerWorkerPool.getWorkerCount();
         pubSeq = new MPSequence[nWriterThreads];
+        subSeq = new SCSequence[nWriterThreads];
         //noinspection unchecked
         queue = new RingQueue[nWriterThreads];
         //noinspection unchecked
@@ -143,15 +168,16 @@ class LineTcpMeasurementScheduler implements Closeable {
             );
 
             queue[i] = q;
-            SCSequence subSeq = new SCSequence();
-            ps.then(subSeq).then(ps);
+            SCSequence ss = new SCSequence();
+            subSeq[i] = ss;
+            ps.then(ss).then(ps);
 
             assignedTables[i] = new ObjList<>();
 
             final LineTcpWriterJob lineTcpWriterJob = new LineTcpWriterJob(
                     i,
                     q,
-                    subSeq,
+                    ss,
                     milliClock,
                     commitInterval,
                     this,
@@ -195,6 +221,11 @@ class LineTcpMeasurementScheduler implements Closeable {
             int readerWorkerId,
             long millis
     ) {
+        // metrics are computed by a single IO worker, once per window
+        if (readerWorkerId == 0 && millis >= nextWriterMetricsMillis) {
+            updateWriterMetrics();
+            nextWriterMetricsMillis = millis + WRITER_METRICS_WINDOW_MILLIS;
+        }
         for (int n = 0, sz = tableUpdateDetailsUtf8.size(); n < sz; n++) {
             final ByteCharSequence tableNameUtf8 = tableUpdateDetailsUtf8.keys().get(n);
             final TableUpdateDetails tud = tableUpdateDetailsUtf8.get(tableNameUtf8);
@@ -335,242 +366,7 @@ class LineTcpMeasurementScheduler implements Closeable {
 
         TableWriter.Row r = ww.newRow(timestamp);
         try {
-            for (int i = 0; i < entCount; i++) {
-                final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
-
-                short entType = ent.getType();
-                int colTypeAndIndex = ld.getColumnType(i);
-                int colType = Numbers.decodeLowShort(colTypeAndIndex);
-                int columnIndex = Numbers.decodeHighShort(colTypeAndIndex);
-
-                if (columnIndex < 0) {
-                    continue;
-                }
-
-                switch (entType) {
-                    case LineTcpParser.ENTITY_TYPE_TAG: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("tag", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_INTEGER: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.INT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
-                                    r.putInt(columnIndex, (int) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putInt(columnIndex, Numbers.INT_NaN);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.INT);
-                                }
-                                break;
-                            }
-                            case ColumnType.SHORT: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
-                                    r.putShort(columnIndex, (short) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putShort(columnIndex, (short) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.SHORT);
-                                }
-                                break;
-                            }
-                            case ColumnType.BYTE: {
-                                final long entityValue = ent.getLongValue();
-                                if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
-                                    r.putByte(columnIndex, (byte) entityValue);
-                                } else if (entityValue == Numbers.LONG_NaN) {
-                                    r.putByte(columnIndex, (byte) 0);
-                                } else {
-                                    throw boundsError(entityValue, i, ColumnType.BYTE);
-                                }
-                                break;
-                            }
-                            case ColumnType.TIMESTAMP:
-                                r.putTimestamp(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DATE:
-                                r.putDate(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("integer", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_FLOAT: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getFloatValue());
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, (float) ent.getFloatValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("float", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_STRING: {
-                        final int geoHashBits = ColumnType.getGeoHashBits(colType);
-                        final DirectByteCharSequence entityValue = ent.getValue();
-                        if (geoHashBits == 0) { // not geohash
-                            switch (ColumnType.tagOf(colType)) {
-                                case ColumnType.STRING:
-                                    r.putStrUtf8AsUtf16(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-
-                                case ColumnType.CHAR:
-                                    if (entityValue.length() == 1 && entityValue.byteAt(0) > -1) {
-                                        r.putChar(columnIndex, entityValue.charAt(0));
-                                    } else if (stringToCharCastAllowed) {
-                                        int encodedResult = Chars.utf8CharDecode(entityValue.getLo(), entityValue.getHi());
-                                        if (Numbers.decodeLowShort(encodedResult) > 0) {
-                                            r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
-                                        } else {
-                                            throw castError("string", i, colType, ent.getName());
-                                        }
-                                    } else {
-                                        throw castError("string", i, colType, ent.getName());
-                                    }
-                                    break;
-
-                                case ColumnType.SYMBOL:
-                                    r.putSymUtf8(columnIndex, entityValue, parser.hasNonAsciiChars());
-                                    break;
-                                case ColumnType.UUID:
-                                    r.putUuid(columnIndex, entityValue);
-                                    break;
-                                default:
-                                    throw castError("string", i, colType, ent.getName());
-                            }
-                        } else {
-                            long geoHash;
-                            try {
-                                DirectByteCharSequence value = ent.getValue();
-                                geoHash = GeoHashes.fromStringTruncatingNl(value.getLo(), value.getHi(), geoHashBits);
-                            } catch (NumericException e) {
-                                geoHash = GeoHashes.NULL;
-                            }
-                            r.putGeoHash(columnIndex, geoHash);
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_LONG256: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.LONG256:
-                                r.putLong256(columnIndex, ent.getValue());
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("long256", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.BOOLEAN:
-                                r.putBool(columnIndex, ent.getBooleanValue());
-                                break;
-
-                            case ColumnType.BYTE:
-                                r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-
-                            case ColumnType.SHORT:
-                                r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
-                                break;
-
-                            case ColumnType.INT:
-                                r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.LONG:
-                                r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.FLOAT:
-                                r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.DOUBLE:
-                                r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("boolean", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
-                        switch (ColumnType.tagOf(colType)) {
-                            case ColumnType.TIMESTAMP:
-                                r.putTimestamp(columnIndex, ent.getLongValue());
-                                break;
-
-                            case ColumnType.DATE:
-                                r.putTimestamp(columnIndex, ent.getLongValue() / 1000);
-                                break;
-
-                            case ColumnType.SYMBOL:
-                                r.putSym(columnIndex, ent.getValue());
-                                break;
-
-                            default:
-                                throw castError("timestamp", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    // parser would reject this condition based on config
-                    case LineTcpParser.ENTITY_TYPE_SYMBOL: {
-                        if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
-                            r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
-                        } else {
-                            throw castError("symbol", i, colType, ent.getName());
-                        }
-                        break;
-                    }
-                    default:
-                        // unsupported types are ignored
-                        break;
-                }
-            }
+            LineWalAppender.putEntities(r, parser, ld.getColumnTypes(), stringToCharCastAllowed);
             r.append();
             tud.commitIfMaxUncommittedRowsCountReached();
         } catch (CommitFailedException commitFailedException) {
@@ -735,6 +531,7 @@ class LineTcpMeasurementScheduler implements Closeable {
                 tableNameUtf8
         );
         tableUpdateDetailsUtf16.putAt(tudKeyIndex, tud.getTableNameUtf16(), tud);
+        metrics.incrementTableAssignments();
         LOG.info().$("assigned ").$(tableToken).$(" to thread ").$(threadId).$();
         return tud;
     }
@@ -754,7 +551,27 @@ class LineTcpMeasurementScheduler implements Closeable {
     }
 
     protected NetworkIOJob createNetworkIOJob(IODispatcher<LineTcpConnectionContext> dispatcher, int workerId) {
-        return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId);
+        LineUdpWorkerChannel udpChannel = null;
+        // multicast datagrams are delivered to every socket in the SO_REUSEPORT group,
+        // a single socket avoids ingesting them multiple times
+        if (udpConfiguration != null && (workerId == 0 || udpConfiguration.isUnicast())) {
+            udpChannel = new LineUdpWorkerChannel(udpConfiguration, configuration, this, engine.getMetrics(), workerId);
+        }
+        return new LineTcpNetworkIOJob(configuration, this, dispatcher, workerId, udpChannel);
+    }
+
+    @TestOnly
+    TableUpdateDetails getActiveTableUpdateDetails(CharSequence tableName) {
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            return tableUpdateDetailsUtf16.get(tableName);
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
+
+    CairoConfiguration getCairoConfiguration() {
+        return cairoConfiguration;
     }
 
     long getNextPublisherEventSequence(int writerWorkerId) {
@@ -803,6 +620,10 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
 
         if (tud.isWal()) {
+            if (ctx.checkWalApplyLag(tud.getTxnTracker())) {
+                // apply is too far behind, hold the measurement until it catches up
+                return true;
+            }
             try {
                 appendToWal(netIoJob, parser, tud);
             } catch (CommitFailedException ex) {
@@ -822,4 +643,41 @@ class LineTcpMeasurementScheduler implements Closeable {
         }
         return dispatchEvent(netIoJob, parser, tud);
     }
+
+    /**
+     * Publishes writer queue depth and writer thread load. Load is the number of events
+     * dispatched since the previous call, so the gauges follow the current ingestion rate.
+     * Called by a single IO worker; the read lock only keeps the set of active tables stable.
+     */
+    void updateWriterMetrics() {
+        long totalDepth = 0;
+        long maxDepth = 0;
+        for (int i = 0, n = pubSeq.length; i < n; i++) {
+            final long depth = Math.max(0, pubSeq[i].current() - subSeq[i].current());
+            totalDepth += depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        metrics.setWriterQueueDepth(totalDepth, maxDepth);
+
+        tableUpdateDetailsLock.readLock().lock();
+        try {
+            Arrays.fill(windowLoadByWriterThread, 0);
+            ObjList<CharSequence> tableNames = tableUpdateDetailsUtf16.keys();
+            for (int n = 0, sz = tableNames.size(); n < sz; n++) {
+                final TableUpdateDetails tud = tableUpdateDetailsUtf16.get(tableNames.getQuick(n));
+                if (tud != null) {
+                    windowLoadByWriterThread[tud.getWriterThreadId()] += tud.sampleEventsInWindow();
+                }
+            }
+            long minLoad = Long.MAX_VALUE;
+            long maxLoad = 0;
+            for (int i = 0, n = windowLoadByWriterThread.length; i < n; i++) {
+                minLoad = Math.min(minLoad, windowLoadByWriterThread[i]);
+                maxLoad = Math.max(maxLoad, windowLoadByWriterThread[i]);
+            }
+            metrics.setWriterLoad(minLoad, maxLoad);
+        } finally {
+            tableUpdateDetailsLock.readLock().unlock();
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.LongGauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class LineTcpMetrics {
+    private final Counter tableAssignmentsCounter;
+    private final LongGauge writerMaxLoadGauge;
+    private final LongGauge writerMaxQueueDepthGauge;
+    private final LongGauge writerMinLoadGauge;
+    private final LongGauge writerQueueDepthGauge;
+
+    public LineTcpMetrics(MetricsRegistry metricsRegistry) {
+        this.tableAssignmentsCounter = metricsRegistry.newCounter("line_tcp_table_assignments");
+        this.writerMaxLoadGauge = metricsRegistry.newLongGauge("line_tcp_writer_max_load");
+        this.writerMaxQueueDepthGauge = metricsRegistry.newLongGauge("line_tcp_writer_max_queue_depth");
+        this.writerMinLoadGauge = metricsRegistry.newLongGauge("line_tcp_writer_min_load");
+        this.writerQueueDepthGauge = metricsRegistry.newLongGauge("line_tcp_writer_queue_depth");
+    }
+
+    public void incrementTableAssignments() {
+        tableAssignmentsCounter.inc();
+    }
+
+    public void setWriterLoad(long minLoad, long maxLoad) {
+        writerMinLoadGauge.setValue(minLoad);
+        writerMaxLoadGauge.setValue(maxLoad);
+    }
+
+    public void setWriterQueueDepth(long totalDepth, long maxDepth) {
+        writerQueueDepthGauge.setValue(totalDepth);
+        writerMaxQueueDepthGauge.setValue(maxDepth);
+    }
+}
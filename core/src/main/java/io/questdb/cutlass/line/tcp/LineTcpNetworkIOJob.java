@@ -36,6 +36,7 @@ import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.ByteCharSequence;
 import io.questdb.std.str.DirectByteCharSequence;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import static io.questdb.network.IODispatcher.DISCONNECT_REASON_RETRY_FAILED;
 import static io.questdb.network.IODispatcher.DISCONNECT_REASON_UNKNOWN_OPERATION;
@@ -47,6 +48,7 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
     private final MillisecondClock millisecondClock;
     private final LineTcpMeasurementScheduler scheduler;
     private final ByteCharSequenceObjHashMap<TableUpdateDetails> tableUpdateDetailsUtf8 = new ByteCharSequenceObjHashMap<>();
+    private final LineUdpWorkerChannel udpChannel;
     private final ObjList<SymbolCache> unusedSymbolCaches = new ObjList<>();
     private final int workerId;
     // Context blocked on LineTcpMeasurementScheduler queue
@@ -58,7 +60,8 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
             LineTcpReceiverConfiguration configuration,
             LineTcpMeasurementScheduler scheduler,
             IODispatcher<LineTcpConnectionContext> dispatcher,
-            int workerId
+            int workerId,
+            @Nullable LineUdpWorkerChannel udpChannel
     ) {
         this.millisecondClock = configuration.getMillisecondClock();
         this.maintenanceInterval = configuration.getMaintenanceInterval();
@@ -66,6 +69,7 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         this.maintenanceJobDeadline = millisecondClock.getTicks() + maintenanceInterval;
         this.dispatcher = dispatcher;
         this.workerId = workerId;
+        this.udpChannel = udpChannel;
     }
 
     @Override
@@ -80,6 +84,7 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
             busyContext.getDispatcher().disconnect(busyContext, DISCONNECT_REASON_RETRY_FAILED);
             busyContext = null;
         }
+        Misc.free(udpChannel);
         Misc.freeObjList(unusedSymbolCaches);
     }
 
@@ -133,6 +138,10 @@ class LineTcpNetworkIOJob implements NetworkIOJob {
         }
 
         final long millis = millisecondClock.getTicks();
+        if (udpChannel != null && udpChannel.handleIO(this, millis)) {
+            busy = true;
+        }
+
         if (millis > maintenanceJobDeadline) {
             busy = scheduler.doMaintenance(tableUpdateDetailsUtf8, workerId, millis);
             if (!busy) {
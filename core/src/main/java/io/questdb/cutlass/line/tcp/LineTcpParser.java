@@ -24,16 +24,17 @@
 
 package io.questdb.cutlass.line.tcp;
 
+import io.questdb.cutlass.line.LineProtoBinaryFormat;
 import io.questdb.griffin.SqlKeywords;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.Numbers;
-import io.questdb.std.NumericException;
-import io.questdb.std.ObjList;
-import io.questdb.std.Unsafe;
+import io.questdb.std.*;
 import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectUnboundedByteSink;
 
-public class LineTcpParser {
+import java.io.Closeable;
+
+public class LineTcpParser implements Closeable {
 
     public static final byte ENTITY_TYPE_BOOLEAN = 6;
     public static final byte ENTITY_TYPE_BYTE = 17;
@@ -66,14 +67,25 @@ public class LineTcpParser {
     private static final byte ENTITY_HANDLER_TIMESTAMP = 3;
     private static final byte ENTITY_HANDLER_VALUE = 2;
     private static final Log LOG = LogFactory.getLog(LineTcpParser.class);
+    private static final int VALUE_SCRATCH_SIZE = 64;
     private static final boolean[] controlChars;
+    private final int binaryDictionaryMaxSize;
     private final DirectByteCharSequence charSeq = new DirectByteCharSequence();
+    // binary protocol dictionary, offsets into dictionaryMem and lengths, negative length marks non-ASCII string
+    private final IntList dictionaryLengths = new IntList();
+    private final IntList dictionaryOffsets = new IntList();
     private final ObjList<ProtoEntity> entityCache = new ObjList<>();
     private final DirectByteCharSequence measurementName = new DirectByteCharSequence();
     private final boolean stringAsTagSupported;
     private final boolean symbolAsFieldSupported;
+    private final DirectUnboundedByteSink valueSink = new DirectUnboundedByteSink();
+    private boolean binary;
+    private long binaryFrameEnd;
     private long bufAt;
     private ProtoEntity currentEntity;
+    private long dictionaryMem;
+    private int dictionaryMemSize;
+    private int dictionarySize;
     private byte entityHandler = -1;
     private long entityLo;
     private ErrorCode errorCode;
@@ -87,10 +99,24 @@ public class LineTcpParser {
     private boolean tagStartsWithQuote;
     private boolean tagsComplete;
     private long timestamp;
+    private long valueScratch;
 
     public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported) {
+        this(stringAsTagSupported, symbolAsFieldSupported, LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE);
+    }
+
+    public LineTcpParser(boolean stringAsTagSupported, boolean symbolAsFieldSupported, int binaryDictionaryMaxSize) {
         this.stringAsTagSupported = stringAsTagSupported;
         this.symbolAsFieldSupported = symbolAsFieldSupported;
+        this.binaryDictionaryMaxSize = binaryDictionaryMaxSize;
+    }
+
+    @Override
+    public void close() {
+        resetProtocol();
+        if (valueScratch != 0) {
+            valueScratch = Unsafe.free(valueScratch, VALUE_SCRATCH_SIZE, MemoryTag.NATIVE_ILP_RSS);
+        }
     }
 
     public long getBufferAddress() {
@@ -126,14 +152,38 @@ public class LineTcpParser {
         return timestamp != NULL_TIMESTAMP;
     }
 
+    public boolean isBinary() {
+        return binary;
+    }
+
     public LineTcpParser of(long bufLo) {
         this.bufAt = bufLo - 1;
+        this.binaryFrameEnd = bufLo;
         startNextMeasurement();
         return this;
     }
 
+    /**
+     * Switches parser to the binary encoding, see {@link LineProtoBinaryFormat}. The encoding stays
+     * in effect until {@link #resetProtocol()}.
+     *
+     * @param bufLo address of the first frame, right after the preamble
+     * @return this parser
+     */
+    public LineTcpParser ofBinary(long bufLo) {
+        binary = true;
+        if (valueScratch == 0) {
+            valueScratch = Unsafe.malloc(VALUE_SCRATCH_SIZE, MemoryTag.NATIVE_ILP_RSS);
+        }
+        resetDictionary();
+        return of(bufLo);
+    }
+
     public ParseResult parseMeasurement(long bufHi) {
         assert bufAt != 0 && bufHi >= bufAt;
+        if (binary) {
+            return parseBinaryMeasurement(bufHi);
+        }
         // We can resume from random place of the line message
         // the class member variables should resume byte by byte parsing from the last place
         // processing stopped.
@@ -283,8 +333,22 @@ public class LineTcpParser {
         return ParseResult.BUFFER_UNDERFLOW;
     }
 
+    public void resetProtocol() {
+        binary = false;
+        resetDictionary();
+        if (dictionaryMem != 0) {
+            dictionaryMem = Unsafe.free(dictionaryMem, dictionaryMemSize, MemoryTag.NATIVE_ILP_RSS);
+            dictionaryMemSize = 0;
+        }
+    }
+
     public void shl(long shl) {
         bufAt -= shl;
+        binaryFrameEnd -= shl;
+        if (binary) {
+            // binary rows are parsed from complete frames only, there are no partially parsed entities to move
+            return;
+        }
         entityLo -= shl;
         measurementName.shl(shl);
         charSeq.shl(shl);
@@ -295,6 +359,10 @@ public class LineTcpParser {
 
     public ParseResult skipMeasurement(long bufHi) {
         assert bufAt != 0 && bufHi >= bufAt;
+        if (binary) {
+            // a row frame is complete before it is parsed, the next one starts at the frame end
+            return ParseResult.MEASUREMENT_COMPLETE;
+        }
         while (bufAt < bufHi) {
             byte b = Unsafe.getUnsafe().getByte(bufAt);
             if (b == (byte) '\n' || b == (byte) '\r') {
@@ -306,7 +374,7 @@ public class LineTcpParser {
     }
 
     public void startNextMeasurement() {
-        bufAt++;
+        bufAt = binary ? binaryFrameEnd : bufAt + 1;
         nEscapedChars = 0;
         isQuotedFieldValue = false;
         entityLo = bufAt;
@@ -323,6 +391,21 @@ public class LineTcpParser {
         hasNonAscii = false;
     }
 
+    private static boolean hasNonAsciiChars(long lo, long hi) {
+        for (long p = lo; p < hi; p++) {
+            if (Unsafe.getUnsafe().getByte(p) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean binaryFrameError(CharSequence message) {
+        LOG.error().$("invalid binary frame [error=").$(message).I$();
+        errorCode = ErrorCode.INVALID_BINARY_FRAME;
+        return false;
+    }
+
     private boolean completeEntity(byte endOfEntityByte, long bufHi) {
         switch (entityHandler) {
             case ENTITY_HANDLER_TABLE:
@@ -339,6 +422,33 @@ public class LineTcpParser {
         return false;
     }
 
+    private boolean defineStrings(long lo, long hi) {
+        while (lo < hi) {
+            if (hi - lo < Integer.BYTES) {
+                return binaryFrameError("truncated dictionary entry");
+            }
+            final int len = Unsafe.getUnsafe().getInt(lo);
+            lo += Integer.BYTES;
+            if (len < 0 || len > hi - lo) {
+                return binaryFrameError("invalid dictionary entry length");
+            }
+            if ((long) dictionarySize + len > binaryDictionaryMaxSize) {
+                return binaryFrameError("dictionary size exceeds line.tcp.binary.dictionary.max.size");
+            }
+            if (dictionarySize + len > dictionaryMemSize) {
+                final int newSize = (int) Math.min(binaryDictionaryMaxSize, Math.max(Math.max(2L * dictionaryMemSize, 4096), dictionarySize + len));
+                dictionaryMem = Unsafe.realloc(dictionaryMem, dictionaryMemSize, newSize, MemoryTag.NATIVE_ILP_RSS);
+                dictionaryMemSize = newSize;
+            }
+            Vect.memcpy(dictionaryMem + dictionarySize, lo, len);
+            dictionaryOffsets.add(dictionarySize);
+            dictionaryLengths.add(hasNonAsciiChars(lo, lo + len) ? -len : len);
+            dictionarySize += len;
+            lo += len;
+        }
+        return true;
+    }
+
     private boolean expectEndOfLine(byte endOfEntityByte) {
         assert endOfEntityByte == '\n';
         return true;
@@ -351,15 +461,7 @@ public class LineTcpParser {
                 return false;
             }
 
-            if (entityCache.size() <= nEntities) {
-                currentEntity = new ProtoEntity();
-                entityCache.add(currentEntity);
-            } else {
-                currentEntity = entityCache.get(nEntities);
-                currentEntity.clear();
-            }
-
-            nEntities++;
+            currentEntity = nextEntity();
             currentEntity.setName();
             entityHandler = ENTITY_HANDLER_VALUE;
             if (tagsComplete) {
@@ -485,6 +587,142 @@ public class LineTcpParser {
         return ParseResult.ERROR;
     }
 
+    private ProtoEntity nextEntity() {
+        final ProtoEntity entity;
+        if (entityCache.size() <= nEntities) {
+            entity = new ProtoEntity();
+            entityCache.add(entity);
+        } else {
+            entity = entityCache.get(nEntities);
+            entity.clear();
+        }
+        nEntities++;
+        return entity;
+    }
+
+    private ParseResult parseBinaryMeasurement(long bufHi) {
+        while (bufHi - bufAt >= LineProtoBinaryFormat.FRAME_HEADER_SIZE) {
+            final int frameSize = Unsafe.getUnsafe().getInt(bufAt);
+            if (frameSize < Byte.BYTES) {
+                binaryFrameError("invalid frame size");
+                return ParseResult.ERROR;
+            }
+            final long frameLo = bufAt + Integer.BYTES;
+            if (frameSize > bufHi - frameLo) {
+                break;
+            }
+            final long frameHi = frameLo + frameSize;
+            final byte frameType = Unsafe.getUnsafe().getByte(frameLo);
+            switch (frameType) {
+                case LineProtoBinaryFormat.FRAME_DICTIONARY:
+                    if (!defineStrings(frameLo + Byte.BYTES, frameHi)) {
+                        return ParseResult.ERROR;
+                    }
+                    break;
+                case LineProtoBinaryFormat.FRAME_DICTIONARY_RESET:
+                    resetDictionary();
+                    break;
+                case LineProtoBinaryFormat.FRAME_ROW:
+                    // keep buffer position at the frame start, the row is parsed again when
+                    // it has to be re-scheduled, next measurement starts at the frame end
+                    binaryFrameEnd = frameHi;
+                    return parseBinaryRow(frameLo + Byte.BYTES, frameHi) ? ParseResult.MEASUREMENT_COMPLETE : ParseResult.ERROR;
+                default:
+                    binaryFrameError("unknown frame type");
+                    return ParseResult.ERROR;
+            }
+            bufAt = binaryFrameEnd = frameHi;
+        }
+        return ParseResult.BUFFER_UNDERFLOW;
+    }
+
+    private boolean parseBinaryRow(long lo, long hi) {
+        nEntities = 0;
+        hasNonAscii = false;
+        if (hi - lo < LineProtoBinaryFormat.ROW_HEADER_SIZE - LineProtoBinaryFormat.FRAME_HEADER_SIZE) {
+            return binaryFrameError("truncated row header");
+        }
+        if (!setDictionaryString(measurementName, Unsafe.getUnsafe().getInt(lo))) {
+            errorCode = ErrorCode.INVALID_TABLE_NAME;
+            return false;
+        }
+        final long ts = Unsafe.getUnsafe().getLong(lo + Integer.BYTES);
+        timestamp = ts == LineProtoBinaryFormat.NULL_TIMESTAMP ? NULL_TIMESTAMP : ts;
+        final int entityCount = Unsafe.getUnsafe().getShort(lo + Integer.BYTES + Long.BYTES) & 0xffff;
+        long p = lo + Integer.BYTES + Long.BYTES + Short.BYTES;
+        for (int i = 0; i < entityCount; i++) {
+            if (hi - p < Integer.BYTES + Byte.BYTES) {
+                return binaryFrameError("truncated entity");
+            }
+            final ProtoEntity entity = nextEntity();
+            if (!setDictionaryString(entity.name, Unsafe.getUnsafe().getInt(p))) {
+                errorCode = ErrorCode.INVALID_COLUMN_NAME;
+                return false;
+            }
+            final byte type = Unsafe.getUnsafe().getByte(p + Integer.BYTES);
+            p += Integer.BYTES + Byte.BYTES;
+            final int valueSize;
+            switch (type) {
+                case LineProtoBinaryFormat.TYPE_SYMBOL:
+                    valueSize = Integer.BYTES;
+                    break;
+                case LineProtoBinaryFormat.TYPE_DOUBLE:
+                case LineProtoBinaryFormat.TYPE_LONG:
+                case LineProtoBinaryFormat.TYPE_TIMESTAMP:
+                    valueSize = Long.BYTES;
+                    break;
+                case LineProtoBinaryFormat.TYPE_BOOLEAN:
+                    valueSize = Byte.BYTES;
+                    break;
+                case LineProtoBinaryFormat.TYPE_STRING:
+                    if (hi - p < Integer.BYTES) {
+                        return binaryFrameError("truncated string");
+                    }
+                    valueSize = Integer.BYTES + Unsafe.getUnsafe().getInt(p);
+                    if (valueSize < Integer.BYTES) {
+                        return binaryFrameError("invalid string length");
+                    }
+                    break;
+                default:
+                    return binaryFrameError("unknown value type");
+            }
+            if (hi - p < valueSize) {
+                return binaryFrameError("truncated value");
+            }
+            entity.type = type;
+            switch (type) {
+                case LineProtoBinaryFormat.TYPE_SYMBOL:
+                    if (!setDictionaryString(entity.value, Unsafe.getUnsafe().getInt(p))) {
+                        errorCode = ErrorCode.INVALID_TAG_VALUE;
+                        return false;
+                    }
+                    break;
+                case LineProtoBinaryFormat.TYPE_DOUBLE:
+                    entity.floatValue = Unsafe.getUnsafe().getDouble(p);
+                    entity.formatPending = true;
+                    break;
+                case LineProtoBinaryFormat.TYPE_LONG:
+                case LineProtoBinaryFormat.TYPE_TIMESTAMP:
+                    entity.longValue = Unsafe.getUnsafe().getLong(p);
+                    entity.formatPending = true;
+                    break;
+                case LineProtoBinaryFormat.TYPE_BOOLEAN:
+                    entity.booleanValue = Unsafe.getUnsafe().getByte(p) != 0;
+                    entity.formatPending = true;
+                    break;
+                default:
+                    entity.value.of(p + Integer.BYTES, p + valueSize);
+                    hasNonAscii |= hasNonAsciiChars(p + Integer.BYTES, p + valueSize);
+                    break;
+            }
+            p += valueSize;
+        }
+        if (p != hi) {
+            return binaryFrameError("unexpected bytes after the last entity");
+        }
+        return true;
+    }
+
     private boolean prepareQuotedEntity(long openQuoteIdx, long bufHi) {
         // the byte at openQuoteIdx (bufAt + 1) is '"', from here it can only be
         // the start of a string value. Get it ready for immediate consumption by
@@ -535,6 +773,27 @@ public class LineTcpParser {
         return false; // missing tail quote as the string extends past the max allowed size
     }
 
+    private void resetDictionary() {
+        dictionaryOffsets.clear();
+        dictionaryLengths.clear();
+        dictionarySize = 0;
+    }
+
+    private boolean setDictionaryString(DirectByteCharSequence sequence, int id) {
+        if (id < 0 || id >= dictionaryOffsets.size()) {
+            return false;
+        }
+        final long lo = dictionaryMem + dictionaryOffsets.getQuick(id);
+        final int len = dictionaryLengths.getQuick(id);
+        if (len < 0) {
+            hasNonAscii = true;
+            sequence.of(lo, lo - len);
+        } else {
+            sequence.of(lo, lo + len);
+        }
+        return true;
+    }
+
     public enum ErrorCode {
         EMPTY_LINE,
         NO_FIELDS,
@@ -547,6 +806,7 @@ public class LineTcpParser {
         INVALID_FIELD_VALUE_STR_UNDERFLOW,
         INVALID_TABLE_NAME,
         INVALID_COLUMN_NAME,
+        INVALID_BINARY_FRAME,
         NONE
     }
 
@@ -559,6 +819,9 @@ public class LineTcpParser {
         private final DirectByteCharSequence value = new DirectByteCharSequence();
         private boolean booleanValue;
         private double floatValue;
+        // binary protocol values are formatted as text only when requested, e.g. number written to a symbol column,
+        // the text is kept in a scratch buffer shared by all entities, so it is valid until the next getValue() call
+        private boolean formatPending;
         private long longValue;
         private byte type = ENTITY_TYPE_NONE;
 
@@ -583,6 +846,9 @@ public class LineTcpParser {
         }
 
         public DirectByteCharSequence getValue() {
+            if (formatPending) {
+                formatValue();
+            }
             return value;
         }
 
@@ -593,6 +859,23 @@ public class LineTcpParser {
 
         private void clear() {
             type = ENTITY_TYPE_NONE;
+            formatPending = false;
+        }
+
+        private void formatValue() {
+            valueSink.of(valueScratch);
+            switch (type) {
+                case ENTITY_TYPE_FLOAT:
+                    Numbers.append(valueSink, floatValue);
+                    break;
+                case ENTITY_TYPE_BOOLEAN:
+                    valueSink.put(booleanValue ? "true" : "false");
+                    break;
+                default:
+                    Numbers.append(valueSink, longValue, false);
+                    break;
+            }
+            value.of(valueScratch, valueScratch + valueSink.length());
         }
 
         private boolean parse(byte last, int valueLen) {
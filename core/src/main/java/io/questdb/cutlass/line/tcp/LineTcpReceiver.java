@@ -26,6 +26,7 @@ package io.questdb.cutlass.line.tcp;
 
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.WorkerPool;
@@ -34,6 +35,7 @@ import io.questdb.network.IODispatcher;
 import io.questdb.network.IODispatchers;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjectFactory;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -49,6 +51,20 @@ public class LineTcpReceiver implements Closeable {
             CairoEngine engine,
             WorkerPool ioWorkerPool,
             WorkerPool writerWorkerPool
+    ) {
+        this(configuration, null, engine, ioWorkerPool, writerWorkerPool);
+    }
+
+    /**
+     * @param udpConfiguration when not null, UDP datagrams are received by the network IO workers
+     *                         alongside TCP connections, see {@link LineUdpReceiverConfiguration#isParallelEnabled()}
+     */
+    public LineTcpReceiver(
+            LineTcpReceiverConfiguration configuration,
+            @Nullable LineUdpReceiverConfiguration udpConfiguration,
+            CairoEngine engine,
+            WorkerPool ioWorkerPool,
+            WorkerPool writerWorkerPool
     ) {
         this.scheduler = null;
         this.metrics = engine.getMetrics();
@@ -71,7 +87,7 @@ public class LineTcpReceiver implements Closeable {
                 contextFactory
         );
         ioWorkerPool.assign(dispatcher);
-        this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
+        this.scheduler = new LineTcpMeasurementScheduler(configuration, udpConfiguration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
 
         for (int i = 0, n = ioWorkerPool.getWorkerCount(); i < n; i++) {
             // http context factory has thread local pools
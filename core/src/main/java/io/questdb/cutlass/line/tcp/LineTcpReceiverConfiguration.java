@@ -41,6 +41,12 @@ public interface LineTcpReceiverConfiguration {
 
     boolean getAutoCreateNewTables();
 
+    /**
+     * Maximum total size in bytes of the strings a binary protocol client can keep in
+     * the per-connection dictionary before it has to reset it.
+     */
+    int getBinaryDictionaryMaxSize();
+
     CairoSecurityContext getCairoSecurityContext();
 
     long getCommitInterval();
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.Metrics;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkError;
+import io.questdb.network.NetworkFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.QuietCloseable;
+import io.questdb.std.Unsafe;
+
+/**
+ * UDP socket owned by a single network IO job. Every IO worker binds its own socket to the UDP
+ * port with SO_REUSEPORT, so the kernel spreads datagrams across the workers. Datagrams are received
+ * in batches (recvmmsg on Linux) and parsed in place, measurements are then routed through
+ * {@link LineTcpMeasurementScheduler} exactly as if they were received over TCP.
+ */
+class LineUdpWorkerChannel implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(LineUdpWorkerChannel.class);
+    private final LineTcpConnectionContext context;
+    private final int maxDatagramsPerCall;
+    private final int msgBufferSize;
+    private final int msgCount;
+    private final NetworkFacade nf;
+    private long buf;
+    // index of the next datagram to parse and number of datagrams received by the last batch
+    private int datagramCount;
+    private int datagramIndex;
+    // length of the datagram received by plain recv()
+    private int datagramLen;
+    private int fd;
+    private long msgVec;
+
+    LineUdpWorkerChannel(
+            LineUdpReceiverConfiguration udpConfiguration,
+            LineTcpReceiverConfiguration configuration,
+            LineTcpMeasurementScheduler scheduler,
+            Metrics metrics,
+            int workerId
+    ) {
+        this.nf = udpConfiguration.getNetworkFacade();
+        this.msgBufferSize = udpConfiguration.getMsgBufferSize();
+        this.msgCount = Os.isLinux() ? udpConfiguration.getMsgCount() : 1;
+        this.maxDatagramsPerCall = udpConfiguration.getMsgCount();
+        this.fd = nf.socketUdp();
+        if (fd < 0) {
+            int errno = nf.errno();
+            LOG.error().$("cannot open UDP socket [errno=").$(errno).$(']').$();
+            throw NetworkError.instance(errno, "Cannot open UDP socket");
+        }
+        this.context = new LineTcpConnectionContext(configuration, scheduler, metrics);
+        try {
+            context.of(fd, null);
+            if (nf.setReusePort(fd) != 0) {
+                throw NetworkError.instance(nf.errno()).put("could not set SO_REUSEPORT [fd=").put(fd).put(']');
+            }
+            if (udpConfiguration.getReceiveBufferSize() != -1 && nf.setRcvBuf(fd, udpConfiguration.getReceiveBufferSize()) != 0) {
+                LOG.error()
+                        .$("could not set receive buffer size [fd=").$(fd)
+                        .$(", size=").$(udpConfiguration.getReceiveBufferSize())
+                        .$(", errno=").$(nf.errno())
+                        .I$();
+            }
+            // when listening for multicast packets bind address must be 0
+            final int bindAddress = udpConfiguration.isUnicast() ? udpConfiguration.getBindIPv4Address() : 0;
+            if (!nf.bindUdp(fd, bindAddress, udpConfiguration.getPort())) {
+                throw NetworkError.instance(nf.errno()).couldNotBindSocket("udp-line-server", udpConfiguration.getBindIPv4Address(), udpConfiguration.getPort());
+            }
+            if (!udpConfiguration.isUnicast() && !nf.join(fd, udpConfiguration.getBindIPv4Address(), udpConfiguration.getGroupIPv4Address())) {
+                throw NetworkError.instance(nf.errno())
+                        .put("cannot join group ")
+                        .put("[fd=").put(fd)
+                        .put(", bind=").ip(udpConfiguration.getBindIPv4Address())
+                        .put(", group=").ip(udpConfiguration.getGroupIPv4Address())
+                        .put(']');
+            }
+            if (msgCount > 1) {
+                msgVec = nf.msgHeaders(msgBufferSize, msgCount);
+            } else {
+                buf = Unsafe.malloc(msgBufferSize, MemoryTag.NATIVE_ILP_RSS);
+            }
+            LOG.info()
+                    .$("receiving UDP on ")
+                    .$ip(udpConfiguration.getBindIPv4Address())
+                    .$(':')
+                    .$(udpConfiguration.getPort())
+                    .$(" [fd=").$(fd)
+                    .$(", workerId=").$(workerId)
+                    .$(", unicast=").$(udpConfiguration.isUnicast())
+                    .I$();
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (fd > -1) {
+            if (nf.close(fd) != 0) {
+                LOG.error().$("could not close [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+            } else {
+                LOG.info().$("closed [fd=").$(fd).$(']').$();
+            }
+            fd = -1;
+        }
+        if (msgVec != 0) {
+            nf.freeMsgHeaders(msgVec);
+            msgVec = 0;
+        }
+        if (buf != 0) {
+            buf = Unsafe.free(buf, msgBufferSize, MemoryTag.NATIVE_ILP_RSS);
+        }
+        Misc.free(context);
+    }
+
+    /**
+     * Receives and parses available datagrams. At most one configured batch of datagrams is
+     * received per call, so that under sustained UDP traffic the job still gets to serve its
+     * TCP connections and to run maintenance in between the calls.
+     *
+     * @param netIoJob network IO job of the current thread
+     * @param millis   current time, used to commit WAL tables and release idle ones
+     * @return true if any datagram has been processed or writer queue is full
+     */
+    boolean handleIO(NetworkIOJob netIoJob, long millis) {
+        boolean busy = false;
+        try {
+            int received = 0;
+            do {
+                if (datagramIndex == datagramCount) {
+                    datagramIndex = 0;
+                    datagramCount = receive();
+                    if (datagramCount < 1) {
+                        datagramCount = 0;
+                        break;
+                    }
+                    received += datagramCount;
+                }
+                busy = true;
+                if (parseDatagrams(netIoJob)) {
+                    // writer queue is full, the rest of the batch is parsed on the next call
+                    break;
+                }
+            } while (received < maxDatagramsPerCall);
+        } finally {
+            netIoJob.releaseWalTableDetails();
+        }
+        context.doMaintenance(millis);
+        return busy;
+    }
+
+    private boolean parseDatagrams(NetworkIOJob netIoJob) {
+        while (datagramIndex < datagramCount) {
+            final long lo;
+            final int len;
+            if (msgVec != 0) {
+                final long msg = msgVec + datagramIndex * Net.MMSGHDR_SIZE;
+                lo = nf.getMMsgBuf(msg);
+                len = (int) nf.getMMsgBufLen(msg);
+            } else {
+                lo = buf;
+                len = datagramLen;
+            }
+            if (context.parseDatagram(netIoJob, lo, terminate(lo, len))) {
+                return true;
+            }
+            datagramIndex++;
+        }
+        return false;
+    }
+
+    private int receive() {
+        if (msgVec != 0) {
+            return nf.recvmmsg(fd, msgVec, msgCount);
+        }
+        final int len = nf.recv(fd, buf, msgBufferSize);
+        if (len > 0) {
+            datagramLen = len;
+            return 1;
+        }
+        return len;
+    }
+
+    // Senders are not required to end datagram with a new line, add it when there is space
+    private long terminate(long lo, int len) {
+        final long hi = lo + len;
+        if (len > 0 && len < msgBufferSize && Unsafe.getUnsafe().getByte(hi - 1) != '\n') {
+            Unsafe.getUnsafe().putByte(hi, (byte) '\n');
+            return hi + 1;
+        }
+        return hi;
+    }
+}
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cutlass.line.LineProtoTimestampAdapter;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.boundsError;
+import static io.questdb.cutlass.line.tcp.LineTcpMeasurementEvent.castError;
+
+/**
+ * Appends parsed line protocol measurements to a table writer on the calling thread. Unlike
+ * the TCP receiver, which hands measurements over to writer threads, this is meant for
+ * ingestion paths that commit synchronously, such as ILP over HTTP.
+ */
+public class LineWalAppender implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineWalAppender.class);
+    private final boolean autoCreateNewColumns;
+    private final boolean autoCreateNewTables;
+    private final CairoConfiguration cairoConfiguration;
+    private final MicrosecondClock clock;
+    private final StringSink columnNameUtf16 = new StringSink();
+    private final IntList columnTypesAndIndexes = new IntList();
+    private final MemoryMARW ddlMem = Vm.getMARWInstance();
+    private final DefaultColumnTypes defaultColumnTypes;
+    private final Path path = new Path();
+    private final IntHashSet processedColumns = new IntHashSet();
+    private final boolean stringToCharCastAllowed;
+    private final TableStructureAdapter tableStructureAdapter;
+
+    public LineWalAppender(LineTcpReceiverConfiguration configuration, CairoConfiguration cairoConfiguration) {
+        this.cairoConfiguration = cairoConfiguration;
+        this.autoCreateNewColumns = configuration.getAutoCreateNewColumns();
+        this.autoCreateNewTables = configuration.getAutoCreateNewTables();
+        this.clock = configuration.getMicrosecondClock();
+        this.stringToCharCastAllowed = configuration.isStringToCharCastAllowed();
+        this.defaultColumnTypes = new DefaultColumnTypes(configuration);
+        this.tableStructureAdapter = new TableStructureAdapter(cairoConfiguration, defaultColumnTypes, configuration.getDefaultPartitionBy());
+    }
+
+    /**
+     * Appends current measurement of the parser as a single uncommitted row. Columns missing from
+     * the table are added on the fly, which requires rows appended to the writer earlier to be
+     * committed first.
+     *
+     * @param writer           table writer, usually WAL writer
+     * @param parser           parser positioned on a complete measurement
+     * @param timestampAdapter converts designated timestamp value to micros
+     * @return true when the writer had to be committed to add new columns
+     * @throws CairoException when measurement cannot be appended, in which case the row is cancelled
+     */
+    public boolean appendToWal(TableWriterAPI writer, LineTcpParser parser, LineProtoTimestampAdapter timestampAdapter) {
+        final TableRecordMetadata metadata = writer.getMetadata();
+        final boolean hasNonAsciiChars = parser.hasNonAsciiChars();
+        boolean committed = false;
+
+        long timestamp = parser.getTimestamp();
+        if (timestamp != LineTcpParser.NULL_TIMESTAMP) {
+            timestamp = timestampAdapter.getMicros(timestamp);
+        } else {
+            timestamp = clock.getTicks();
+        }
+
+        // pass 1: resolve column indexes and create columns that do not exist
+        columnTypesAndIndexes.clear();
+        processedColumns.clear();
+        final int entCount = parser.getEntityCount();
+        for (int i = 0; i < entCount; i++) {
+            final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
+            final CharSequence columnName = Chars.utf8ToUtf16(ent.getName(), columnNameUtf16, hasNonAsciiChars);
+            int columnIndex = metadata.getColumnIndexQuiet(columnName);
+            if (columnIndex < 0) {
+                if (!autoCreateNewColumns) {
+                    throw CairoException.nonCritical()
+                            .put("column does not exist, creating new columns is disabled [table=").put(writer.getTableToken().getTableName())
+                            .put(", columnName=").put(columnName)
+                            .put(']');
+                }
+                if (!TableUtils.isValidColumnName(columnName, cairoConfiguration.getMaxFileNameLength())) {
+                    throw CairoException.nonCritical()
+                            .put("invalid column name [table=").put(writer.getTableToken().getTableName())
+                            .put(", columnName=").put(columnName)
+                            .put(']');
+                }
+                final int columnType = defaultColumnTypes.DEFAULT_COLUMN_TYPES[ent.getType()];
+                if (columnType == ColumnType.UNDEFINED) {
+                    throw CairoException.nonCritical().put("unknown column type [columnName=").put(columnName).put(']');
+                }
+                if (writer.getUncommittedRowCount() > 0) {
+                    writer.commit();
+                    committed = true;
+                }
+                writer.addColumn(columnName, columnType);
+                columnIndex = metadata.getColumnIndexQuiet(columnName);
+                if (columnIndex < 0) {
+                    throw CairoException.critical(0).put("could not add column [columnName=").put(columnName).put(']');
+                }
+            }
+
+            if (!processedColumns.add(columnIndex)) {
+                // duplicate column, the first value wins
+                columnIndex = -1;
+            } else if (columnIndex == metadata.getTimestampIndex()) {
+                timestamp = timestampAdapter.getMicros(ent.getLongValue());
+                columnIndex = -1;
+            }
+            final int columnType = columnIndex < 0 ? ColumnType.UNDEFINED : metadata.getColumnType(columnIndex);
+            columnTypesAndIndexes.add(Numbers.encodeLowHighShorts((short) columnType, (short) columnIndex));
+        }
+
+        // pass 2: write the row
+        final TableWriter.Row r = writer.newRow(timestamp);
+        try {
+            putEntities(r, parser, columnTypesAndIndexes, stringToCharCastAllowed);
+            r.append();
+        } catch (Throwable th) {
+            r.cancel();
+            throw th;
+        }
+        return committed;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ddlMem);
+        Misc.free(path);
+    }
+
+    /**
+     * Resolves table for the current measurement of the parser, creating the table when it does not exist.
+     *
+     * @param engine          the engine
+     * @param securityContext context to create the table with
+     * @param parser          parser positioned on a complete measurement
+     * @return token of the existing or newly created table
+     * @throws CairoException when table does not exist and cannot be created
+     */
+    public TableToken getOrCreateTable(CairoEngine engine, CairoSecurityContext securityContext, LineTcpParser parser) {
+        final DirectByteCharSequence tableNameUtf8 = parser.getMeasurementName();
+        columnNameUtf16.clear();
+        Chars.utf8Decode(tableNameUtf8.getLo(), tableNameUtf8.getHi(), columnNameUtf16);
+        final String tableName = columnNameUtf16.toString();
+
+        TableToken tableToken = engine.getTableTokenIfExists(tableName);
+        if (engine.getStatus(securityContext, path, tableToken) == TableUtils.TABLE_EXISTS) {
+            return tableToken;
+        }
+        if (!autoCreateNewTables) {
+            throw CairoException.nonCritical()
+                    .put("table does not exist, creating new tables is disabled [table=").put(tableName)
+                    .put(']');
+        }
+        if (!autoCreateNewColumns) {
+            throw CairoException.nonCritical()
+                    .put("table does not exist, cannot create table, creating new columns is disabled [table=").put(tableName)
+                    .put(']');
+        }
+        if (!TableUtils.isValidTableName(tableName, cairoConfiguration.getMaxFileNameLength())) {
+            throw CairoException.nonCritical()
+                    .put("invalid table name [table=").put(tableName)
+                    .put(']');
+        }
+        final TableStructureAdapter tsa = tableStructureAdapter.of(tableName, parser);
+        for (int i = 0, n = tsa.getColumnCount(); i < n; i++) {
+            if (tsa.getColumnType(i) == LineTcpParser.ENTITY_TYPE_NULL) {
+                throw CairoException.nonCritical().put("unknown column type [columnName=").put(tsa.getColumnName(i)).put(']');
+            }
+        }
+        LOG.info().$("creating table [tableName=").$(tableName).$(']').$();
+        return engine.createTable(securityContext, ddlMem, path, true, tsa, false);
+    }
+
+    static void putEntities(
+            TableWriter.Row r,
+            LineTcpParser parser,
+            IntList columnTypesAndIndexes,
+            boolean stringToCharCastAllowed
+    ) {
+        final int entCount = parser.getEntityCount();
+        for (int i = 0; i < entCount; i++) {
+            final LineTcpParser.ProtoEntity ent = parser.getEntity(i);
+
+            short entType = ent.getType();
+            int colTypeAndIndex = columnTypesAndIndexes.getQuick(i);
+            int colType = Numbers.decodeLowShort(colTypeAndIndex);
+            int columnIndex = Numbers.decodeHighShort(colTypeAndIndex);
+
+            if (columnIndex < 0) {
+                continue;
+            }
+
+            switch (entType) {
+                case LineTcpParser.ENTITY_TYPE_TAG: {
+                    if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                        r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
+                    } else {
+                        throw castError("tag", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_INTEGER: {
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.LONG:
+                            r.putLong(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.INT: {
+                            final long entityValue = ent.getLongValue();
+                            if (entityValue >= Integer.MIN_VALUE && entityValue <= Integer.MAX_VALUE) {
+                                r.putInt(columnIndex, (int) entityValue);
+                            } else if (entityValue == Numbers.LONG_NaN) {
+                                r.putInt(columnIndex, Numbers.INT_NaN);
+                            } else {
+                                throw boundsError(entityValue, i, ColumnType.INT);
+                            }
+                            break;
+                        }
+                        case ColumnType.SHORT: {
+                            final long entityValue = ent.getLongValue();
+                            if (entityValue >= Short.MIN_VALUE && entityValue <= Short.MAX_VALUE) {
+                                r.putShort(columnIndex, (short) entityValue);
+                            } else if (entityValue == Numbers.LONG_NaN) {
+                                r.putShort(columnIndex, (short) 0);
+                            } else {
+                                throw boundsError(entityValue, i, ColumnType.SHORT);
+                            }
+                            break;
+                        }
+                        case ColumnType.BYTE: {
+                            final long entityValue = ent.getLongValue();
+                            if (entityValue >= Byte.MIN_VALUE && entityValue <= Byte.MAX_VALUE) {
+                                r.putByte(columnIndex, (byte) entityValue);
+                            } else if (entityValue == Numbers.LONG_NaN) {
+                                r.putByte(columnIndex, (byte) 0);
+                            } else {
+                                throw boundsError(entityValue, i, ColumnType.BYTE);
+                            }
+                            break;
+                        }
+                        case ColumnType.TIMESTAMP:
+                            r.putTimestamp(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.DATE:
+                            r.putDate(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.DOUBLE:
+                            r.putDouble(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.FLOAT:
+                            r.putFloat(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSym(columnIndex, ent.getValue());
+                            break;
+
+                        default:
+                            throw castError("integer", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_FLOAT: {
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.DOUBLE:
+                            r.putDouble(columnIndex, ent.getFloatValue());
+                            break;
+
+                        case ColumnType.FLOAT:
+                            r.putFloat(columnIndex, (float) ent.getFloatValue());
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSym(columnIndex, ent.getValue());
+                            break;
+
+                        default:
+                            throw castError("float", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_STRING: {
+                    final int geoHashBits = ColumnType.getGeoHashBits(colType);
+                    final DirectByteCharSequence entityValue = ent.getValue();
+                    if (geoHashBits == 0) { // not geohash
+                        switch (ColumnType.tagOf(colType)) {
+                            case ColumnType.STRING:
+                                r.putStrUtf8AsUtf16(columnIndex, entityValue, parser.hasNonAsciiChars());
+                                break;
+
+                            case ColumnType.CHAR:
+                                if (entityValue.length() == 1 && entityValue.byteAt(0) > -1) {
+                                    r.putChar(columnIndex, entityValue.charAt(0));
+                                } else if (stringToCharCastAllowed) {
+                                    int encodedResult = Chars.utf8CharDecode(entityValue.getLo(), entityValue.getHi());
+                                    if (Numbers.decodeLowShort(encodedResult) > 0) {
+                                        r.putChar(columnIndex, (char) Numbers.decodeHighShort(encodedResult));
+                                    } else {
+                                        throw castError("string", i, colType, ent.getName());
+                                    }
+                                } else {
+                                    throw castError("string", i, colType, ent.getName());
+                                }
+                                break;
+
+                            case ColumnType.SYMBOL:
+                                r.putSymUtf8(columnIndex, entityValue, parser.hasNonAsciiChars());
+                                break;
+                            case ColumnType.UUID:
+                                r.putUuid(columnIndex, entityValue);
+                                break;
+                            default:
+                                throw castError("string", i, colType, ent.getName());
+                        }
+                    } else {
+                        long geoHash;
+                        try {
+                            DirectByteCharSequence value = ent.getValue();
+                            geoHash = GeoHashes.fromStringTruncatingNl(value.getLo(), value.getHi(), geoHashBits);
+                        } catch (NumericException e) {
+                            geoHash = GeoHashes.NULL;
+                        }
+                        r.putGeoHash(columnIndex, geoHash);
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_LONG256: {
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.LONG256:
+                            r.putLong256(columnIndex, ent.getValue());
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSym(columnIndex, ent.getValue());
+                            break;
+
+                        default:
+                            throw castError("long256", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_BOOLEAN: {
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.BOOLEAN:
+                            r.putBool(columnIndex, ent.getBooleanValue());
+                            break;
+
+                        case ColumnType.BYTE:
+                            r.putByte(columnIndex, (byte) (ent.getBooleanValue() ? 1 : 0));
+                            break;
+
+                        case ColumnType.SHORT:
+                            r.putShort(columnIndex, (short) (ent.getBooleanValue() ? 1 : 0));
+                            break;
+
+                        case ColumnType.INT:
+                            r.putInt(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                            break;
+
+                        case ColumnType.LONG:
+                            r.putLong(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                            break;
+
+                        case ColumnType.FLOAT:
+                            r.putFloat(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                            break;
+
+                        case ColumnType.DOUBLE:
+                            r.putDouble(columnIndex, ent.getBooleanValue() ? 1 : 0);
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSym(columnIndex, ent.getValue());
+                            break;
+
+                        default:
+                            throw castError("boolean", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                case LineTcpParser.ENTITY_TYPE_TIMESTAMP: {
+                    switch (ColumnType.tagOf(colType)) {
+                        case ColumnType.TIMESTAMP:
+                            r.putTimestamp(columnIndex, ent.getLongValue());
+                            break;
+
+                        case ColumnType.DATE:
+                            r.putTimestamp(columnIndex, ent.getLongValue() / 1000);
+                            break;
+
+                        case ColumnType.SYMBOL:
+                            r.putSym(columnIndex, ent.getValue());
+                            break;
+
+                        default:
+                            throw castError("timestamp", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                // parser would reject this condition based on config
+                case LineTcpParser.ENTITY_TYPE_SYMBOL: {
+                    if (ColumnType.tagOf(colType) == ColumnType.SYMBOL) {
+                        r.putSymUtf8(columnIndex, ent.getValue(), parser.hasNonAsciiChars());
+                    } else {
+                        throw castError("symbol", i, colType, ent.getName());
+                    }
+                    break;
+                }
+                default:
+                    // unsupported types are ignored
+                    break;
+            }
+        }
+    }
+}
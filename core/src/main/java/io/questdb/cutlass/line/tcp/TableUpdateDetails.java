@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
 import io.questdb.cairo.wal.MetadataService;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
@@ -63,10 +64,13 @@ public class TableUpdateDetails implements Closeable {
     // Number of rows processed since the last reshuffle, this is an estimate because it is incremented by
     // multiple threads without synchronisation
     private long eventsProcessedSinceReshuffle = 0;
+    // Value of eventsProcessedSinceReshuffle at the start of the current metrics window
+    private long eventsSampled;
     private long lastMeasurementMillis = Long.MAX_VALUE;
     private MetadataService metadataService;
     private int networkIOOwnerCount = 0;
     private long nextCommitTime;
+    private SeqTxnTracker txnTracker;
     private TableWriterAPI writerAPI;
     private volatile boolean writerInError;
     private int writerThreadId;
@@ -213,6 +217,13 @@ public class TableUpdateDetails implements Closeable {
         return tableToken;
     }
 
+    public SeqTxnTracker getTxnTracker() {
+        if (txnTracker == null) {
+            txnTracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+        }
+        return txnTracker;
+    }
+
     public int getWriterThreadId() {
         return writerThreadId;
     }
@@ -245,6 +256,18 @@ public class TableUpdateDetails implements Closeable {
         }
     }
 
+    /**
+     * Closes the current metrics window and starts a new one.
+     *
+     * @return number of events processed since the previous call
+     */
+    public long sampleEventsInWindow() {
+        final long events = eventsProcessedSinceReshuffle;
+        final long eventsInWindow = Math.max(0, events - eventsSampled);
+        eventsSampled = events;
+        return eventsInWindow;
+    }
+
     public void setAssignedToJob(boolean assignedToJob) {
         this.assignedToJob = assignedToJob;
     }
@@ -639,6 +662,10 @@ public class TableUpdateDetails implements Closeable {
             return columnTypeMeta.getQuick(colIndex + 1); // first val accounts for new cols, index -1
         }
 
+        IntList getColumnTypes() {
+            return columnTypes;
+        }
+
         long getStructureVersion() {
             if (latestKnownMetadata != null) {
                 return latestKnownMetadata.getStructureVersion();
@@ -127,6 +127,11 @@ public class DefaultLineUdpReceiverConfiguration implements LineUdpReceiverConfi
         return true;
     }
 
+    @Override
+    public boolean isParallelEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isUnicast() {
         return false;
@@ -66,6 +66,13 @@ public interface LineUdpReceiverConfiguration {
 
     boolean isEnabled();
 
+    /**
+     * When enabled, and ILP over TCP is enabled too, UDP datagrams are received by the TCP network IO
+     * workers, each on its own socket bound with SO_REUSEPORT, and written by the TCP writer threads.
+     * Table creation and timestamp precision then follow the TCP receiver settings.
+     */
+    boolean isParallelEnabled();
+
     boolean isUnicast();
 
     boolean ownThread();
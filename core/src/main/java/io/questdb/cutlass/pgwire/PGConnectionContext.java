@@ -75,6 +75,8 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     public static final String TAG_UPDATE = "UPDATE";
     private static final int COMMIT_TRANSACTION = 2;
     private static final int ERROR_TRANSACTION = 3;
+    // inserts of an extended query batch are appended to pending writers and committed together on Sync
+    private static final int IMPLICIT_TRANSACTION = 5;
     private static final int INIT_CANCEL_REQUEST = 80877102;
     private static final int INIT_GSS_REQUEST = 80877104;
     private static final int INIT_SSL_REQUEST = 80877103;
@@ -333,6 +335,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     public void clearWriters() {
         closePendingWriters(false);
         pendingWriters.clear();
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            transactionState = NO_TRANSACTION;
+        }
     }
 
     @Override
@@ -1159,6 +1164,9 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 return false;
             }
 
+            // batched inserts have to be visible to, and must not hold writers locked for, any other statement
+            endImplicitTransaction(true);
+
             typesAndUpdate = typesAndUpdateCache.poll(queryText);
 
             if (typesAndUpdate != null) {
@@ -1312,6 +1320,38 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
+    // commits, or rolls back, inserts batched since the last Sync
+    private void endImplicitTransaction(boolean commit) {
+        if (transactionState != IMPLICIT_TRANSACTION) {
+            return;
+        }
+        transactionState = NO_TRANSACTION;
+        CairoException error = null;
+        try {
+            Iterator<ObjObjHashMap.Entry<TableToken, TableWriterAPI>> iterator = pendingWriters.iterator();
+            while (iterator.hasNext()) {
+                final TableWriterAPI w = iterator.next().value;
+                try {
+                    if (commit && error == null) {
+                        w.commit();
+                    } else {
+                        w.rollback();
+                    }
+                } catch (CairoException e) {
+                    // the remaining writers are rolled back, same as with a failed Sync in PostgreSQL
+                    error = e;
+                } finally {
+                    Misc.free(w);
+                }
+            }
+        } finally {
+            pendingWriters.clear();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
     private void evictNamedStatementWrappersAndClear() {
         if (namedStatementMap.size() > 0) {
             ObjList<CharSequence> names = namedStatementMap.keys();
@@ -1323,22 +1363,38 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         }
     }
 
-    private void executeInsert(SqlCompiler compiler) throws SqlException {
+    private void executeInsert(SqlCompiler compiler, boolean batch) throws SqlException {
         TableWriterAPI writer;
         boolean recompileStale = true;
         for (int retries = 0; recompileStale; retries++) {
             try {
                 switch (transactionState) {
+                    case NO_TRANSACTION:
+                        if (!batch) {
+                            try (final InsertMethod m2 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
+                                recompileStale = false;
+                                rowCount = m2.execute();
+                                m2.commit();
+                            }
+                            break;
+                        }
+                        // Execute messages of the extended protocol keep appending to the same writers,
+                        // the rows are committed once, when the client sends Sync
+                        transactionState = IMPLICIT_TRANSACTION;
+                        // fall thru
                     case IN_TRANSACTION:
+                    case IMPLICIT_TRANSACTION:
                         final InsertMethod m = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this);
                         recompileStale = false;
                         try {
                             rowCount = m.execute();
+                        } finally {
+                            // the writer may already be pending, it is released
+                            // on commit or rollback rather than by the insert method
                             writer = m.popWriter();
-                            pendingWriters.put(writer.getTableToken(), writer);
-                        } catch (Throwable e) {
-                            Misc.free(m);
-                            throw e;
+                            if (writer != null) {
+                                pendingWriters.put(writer.getTableToken(), writer);
+                            }
                         }
                         break;
                     case ERROR_TRANSACTION:
@@ -1360,6 +1416,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                     if (transactionState == IN_TRANSACTION) {
                         transactionState = ERROR_TRANSACTION;
                     }
+                    endImplicitTransaction(false);
                     throw ex;
                 }
                 LOG.info().$(ex.getFlyweightMessage()).$();
@@ -1370,6 +1427,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 if (transactionState == IN_TRANSACTION) {
                     transactionState = ERROR_TRANSACTION;
                 }
+                endImplicitTransaction(false);
                 throw e;
             }
         }
@@ -1644,6 +1702,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                 break;
             case 'S': // sync
                 processSyncActions();
+                endImplicitTransaction(true);
                 prepareReadyForQuery();
                 prepareForNewQuery();
                 sendRNQ = true;
@@ -1656,6 +1715,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                     processSyncActions();
                     prepareForNewQuery();
                 }
+                // Flush only sends the pending responses, batched inserts are committed on Sync
                 sendAndReset();
                 break;
             case 'D': // describe
@@ -2176,13 +2236,16 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             int maxRows,
             SqlCompiler compiler
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, SqlException {
+        if (typesAndInsert == null) {
+            endImplicitTransaction(true);
+        }
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
             setupFactoryAndCursor(compiler);
             sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
-            executeInsert(compiler);
+            executeInsert(compiler, true);
         } else if (typesAndUpdate != null) {
             LOG.debug().$("executing update").$();
             executeUpdate(compiler);
@@ -2368,6 +2431,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
             long limit,
             @Transient SqlCompiler compiler
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, QueryPausedException, BadProtocolException {
+        endImplicitTransaction(true);
         prepareForNewQuery();
         isEmptyQuery = true; // assume SQL text contains no query until we find out otherwise
         CharacterStoreEntry e = characterStore.newEntry();
@@ -2467,6 +2531,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
     }
 
     private void reportError(CairoException ex) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareError(ex);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2474,6 +2539,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
     private void reportNonCriticalError(int position, CharSequence flyweightMessage)
             throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareNonCriticalError(position, flyweightMessage);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2481,6 +2547,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
 
     private void reportQueryCancelled(CharSequence flyweightMessage)
             throws PeerDisconnectedException, PeerIsSlowToReadException {
+        rollbackImplicitTransaction();
         prepareQueryCanceled(flyweightMessage);
         sendReadyForNewQuery();
         clearRecvBuffer();
@@ -2524,6 +2591,14 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
         sendReadyForNewQuery();
     }
 
+    private void rollbackImplicitTransaction() {
+        try {
+            endImplicitTransaction(false);
+        } catch (CairoException e) {
+            LOG.error().$("could not roll back batched inserts [fd=").$(fd).$(", msg=").$(e.getFlyweightMessage()).I$();
+        }
+    }
+
     private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
         doSend(0, (int) (sendBufferPtr - sendBuffer));
         responseAsciiSink.reset();
@@ -2881,7 +2956,7 @@ public class PGConnectionContext extends IOContext<PGConnectionContext> implemen
                     prepareRowDescription();
                     sendCursor(0, resumeCursorQueryRef, resumeQueryCompleteRef);
                 } else if (typesAndInsert != null) {
-                    executeInsert(compiler);
+                    executeInsert(compiler, false);
                 } else if (typesAndUpdate != null) {
                     executeUpdate(compiler);
                 } else if (cq.getType() == CompiledQuery.INSERT_AS_SELECT ||
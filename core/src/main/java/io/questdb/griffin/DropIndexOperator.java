@@ -35,6 +35,7 @@ import io.questdb.std.LongList;
 import io.questdb.std.str.Path;
 
 import static io.questdb.cairo.TableUtils.dFile;
+import static io.questdb.cairo.TableUtils.dzFile;
 
 public class DropIndexOperator extends PurgingOperator {
     private static final Log LOG = LogFactory.getLog(DropIndexOperator.class);
@@ -76,6 +77,11 @@ public class DropIndexOperator extends PurgingOperator {
                     partitionDFile(path, rootLen, partitionBy, pTimestamp, pVersion, columnName, columnVersion);
                     // hard link
                     partitionDFile(other, rootLen, partitionBy, pTimestamp, pVersion, columnName, columnDropIndexVersion);
+                    if (!ff.exists(path)) {
+                        // compressed partition may keep the column in .dz file only
+                        partitionDzFile(path, rootLen, partitionBy, pTimestamp, pVersion, columnName, columnVersion);
+                        partitionDzFile(other, rootLen, partitionBy, pTimestamp, pVersion, columnName, columnDropIndexVersion);
+                    }
                     if (-1 == ff.hardLink(path, other)) {
                         throw CairoException.critical(ff.errno())
                                 .put("cannot hardLink [src=").put(path)
@@ -102,6 +108,9 @@ public class DropIndexOperator extends PurgingOperator {
                     final long pTimestamp = rollbackColumnVersions.getQuick(i + 2);
                     final long partitionNameTxn = rollbackColumnVersions.getQuick(i + 3);
                     partitionDFile(other, rootLen, partitionBy, pTimestamp, partitionNameTxn, columnName, columnDropIndexVersion);
+                    if (!ff.exists(other)) {
+                        partitionDzFile(other, rootLen, partitionBy, pTimestamp, partitionNameTxn, columnName, columnDropIndexVersion);
+                    }
                     if (!ff.remove(other)) {
                         LOG.info().$("Please remove this file \"").$(other).$('"').I$();
                     }
@@ -132,4 +141,23 @@ public class DropIndexOperator extends PurgingOperator {
         );
         dFile(path, columnName, columnNameTxn);
     }
+
+    private static void partitionDzFile(
+            Path path,
+            int rootLen,
+            int partitionBy,
+            long partitionTimestamp,
+            long partitionNameTxn,
+            CharSequence columnName,
+            long columnNameTxn
+    ) {
+        TableUtils.setPathForPartition(
+                path,
+                rootLen,
+                partitionBy,
+                partitionTimestamp,
+                partitionNameTxn
+        );
+        dzFile(path, columnName, columnNameTxn);
+    }
 }
@@ -72,6 +72,15 @@ public interface FunctionFactory {
      */
     String getSignature();
 
+    /**
+     * @return true if the {@link Function} produced by the factory is only valid in the context of OVER clause. Such
+     * factories take precedence over regular factories of the same name when function is called with OVER clause and
+     * are ignored otherwise, e.g. avg() is a group-by function without OVER clause and analytic function with it.
+     */
+    default boolean isAnalytic() {
+        return false;
+    }
+
     default boolean isBoolean() {
         return false;
     }
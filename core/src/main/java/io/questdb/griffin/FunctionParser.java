@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.AbstractUnaryTimestampFunction;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -555,9 +556,21 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             }
         }
 
+        // names like avg() are shared by group-by and analytic factories, OVER clause decides which one applies
+        boolean analyticContext = false;
+        boolean filterAnalytic = false;
+        if (functionFactoryCache.isAnalytic(node.token)) {
+            final AnalyticContext context = sqlExecutionContext.getAnalyticContext();
+            analyticContext = context != null && !context.isEmpty();
+            filterAnalytic = analyticContext || functionFactoryCache.isGroupBy(node.token);
+        }
+
         for (int i = 0, n = overload.size(); i < n; i++) {
             final FunctionFactoryDescriptor descriptor = overload.getQuick(i);
             final FunctionFactory factory = descriptor.getFactory();
+            if (filterAnalytic && factory.isAnalytic() != analyticContext) {
+                continue;
+            }
             int sigArgCount = descriptor.getSigArgCount();
 
             final boolean sigVarArg;
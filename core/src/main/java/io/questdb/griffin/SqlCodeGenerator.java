@@ -34,9 +34,11 @@ import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.*;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.cast.*;
@@ -46,6 +48,7 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.AsyncSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
@@ -55,10 +58,12 @@ import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.model.*;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.jit.CompiledFilterIRSerializer;
+import io.questdb.jit.CompiledProjection;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -111,6 +116,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     // this list is used to generate record sinks
     private final ListColumnFilter listColumnFilterA = new ListColumnFilter();
     private final ListColumnFilter listColumnFilterB = new ListColumnFilter();
+    private final Long256Impl long256Sink = new Long256Impl();
     private final LongList prefixes = new LongList();
     private final RecordComparatorCompiler recordComparatorCompiler;
     private final IntList recordFunctionPositions = new IntList();
@@ -119,12 +125,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final ArrayDeque<ExpressionNode> sqlNodeStack = new ArrayDeque<>();
     private final WhereClauseSymbolEstimator symbolEstimator = new WhereClauseSymbolEstimator();
     private final IntList tempAggIndex = new IntList();
+    private final IntList tempGroupByFunctionPositions = new IntList();
     private final IntList tempKeyIndex = new IntList();
     private final IntList tempKeyIndexesInBase = new IntList();
     private final IntList tempKeyKinds = new IntList();
     private final GenericRecordMetadata tempMetadata = new GenericRecordMetadata();
     private final IntList tempSymbolSkewIndexes = new IntList();
     private final ObjList<VectorAggregateFunction> tempVaf = new ObjList<>();
+    private final ArrayColumnTypes tempValueTypes = new ArrayColumnTypes();
     private final IntList tempVecConstructorArgIndexes = new IntList();
     private final ObjList<VectorAggregateFunctionConstructor> tempVecConstructors = new ObjList<>();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
@@ -288,6 +296,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static boolean hasLinearFill(ObjList<ExpressionNode> sampleByFill) {
+        for (int i = 0, n = sampleByFill.size(); i < n; i++) {
+            if (isLinearKeyword(sampleByFill.getQuick(i).token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNumericTimezoneOffset(Function timezoneNameFunc) {
+        if (!timezoneNameFunc.isConstant()) {
+            return false;
+        }
+        final CharSequence tz = timezoneNameFunc.getStr(null);
+        // time zone names may have daylight time changes, so they are not considered here
+        return tz == null || Timestamps.parseOffset(tz) != Long.MIN_VALUE;
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -426,6 +452,105 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    /**
+     * Compiles arithmetic arguments of the group-by functions, such as price * qty, into native
+     * projections, so that parallel aggregation can evaluate them for the whole page frame.
+     *
+     * @return projections indexed by group-by function, null entries stand for the functions whose
+     * argument is not compiled; null if no argument is compiled
+     */
+    @Nullable
+    private ObjList<CompiledProjection> compileGroupByProjections(
+            QueryModel model,
+            RecordMetadata metadata,
+            ObjList<GroupByFunction> groupByFunctions,
+            SqlExecutionContext executionContext
+    ) {
+        if (executionContext.getJitMode() == SqlJitMode.JIT_MODE_DISABLED
+                || !JitUtil.isJitSupported()
+                || !JitUtil.isProjectionSupported()) {
+            return null;
+        }
+
+        ObjList<CompiledProjection> projections = null;
+        final ObjList<QueryColumn> columns = model.getColumns();
+        for (int i = 0, k = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode ast = columns.getQuick(i).getAst();
+            if (ast.type == ExpressionNode.LITERAL) {
+                continue;
+            }
+            // group-by functions are created for non-literal columns only
+            final GroupByFunction function = groupByFunctions.getQuick(k++);
+            if (!function.supportsBatchComputation() || !(function instanceof UnaryFunction) || ast.paramCount != 1) {
+                continue;
+            }
+            final ExpressionNode argAst = ast.rhs;
+            if (argAst == null || argAst.type != ExpressionNode.OPERATION) {
+                continue;
+            }
+
+            CompiledProjection projection = null;
+            try {
+                final int argType = ((UnaryFunction) function).getArg().getType();
+                jitIRSerializer.of(jitIRMem, executionContext, metadata, null, null);
+                final int jitOptions = jitIRSerializer.serializeProjection(argAst, argType, enableJitDebug, enableJitNullChecks);
+
+                projection = new CompiledProjection();
+                projection.compile(jitIRMem, jitOptions);
+                if (projections == null) {
+                    projections = new ObjList<>(groupByFunctions.size());
+                }
+                projections.extendAndSet(k - 1, projection);
+            } catch (SqlException ex) {
+                Misc.free(projection);
+                LOG.debug()
+                        .$("JIT cannot be applied to group-by argument [tableName=").utf8(model.getName())
+                        .$(", ex=").$(ex.getFlyweightMessage())
+                        .$(", fd=").$(executionContext.getRequestFd()).$(']').$();
+            } finally {
+                jitIRSerializer.clear();
+                jitIRMem.truncate();
+            }
+        }
+        return projections;
+    }
+
+    private ObjList<ObjList<GroupByFunction>> compileWorkerGroupByFunctions(
+            QueryModel model,
+            RecordMetadata metadata,
+            int workerCount,
+            boolean sampleBy,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions = new ObjList<>(workerCount);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                final ObjList<GroupByFunction> workerGroupByFunctions = new ObjList<>(model.getColumns().size());
+                perWorkerGroupByFunctions.extendAndSet(i, workerGroupByFunctions);
+                // value types and function positions are already known, so we use temporary lists here
+                tempValueTypes.clear();
+                if (sampleBy) {
+                    tempValueTypes.add(ColumnType.TIMESTAMP); // first value is always timestamp
+                }
+                GroupByUtils.prepareGroupByFunctions(
+                        model,
+                        metadata,
+                        functionParser,
+                        executionContext,
+                        workerGroupByFunctions,
+                        tempGroupByFunctionPositions,
+                        tempValueTypes
+                );
+            }
+        } catch (Throwable e) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+            throw e;
+        }
+        return perWorkerGroupByFunctions;
+    }
+
     private @Nullable ObjList<Function> compileWorkerFilterConditionally(
             boolean condition,
             int workerCount,
@@ -882,6 +1007,52 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    private void generateBloomFilterPredicate(
+            int columnIndex,
+            int writerIndex,
+            int columnType,
+            CharSequence columnName,
+            CharSequence token,
+            boolean quoted,
+            ZoneMapFilter zoneMapFilter
+    ) {
+        final int len = token.length();
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.STRING:
+                if (quoted && token.charAt(0) == '\'') {
+                    // unescape the same way string constants do
+                    final String str = Chars.toString(token, 1, len - 1, '\'');
+                    zoneMapFilter.addHash(columnIndex, writerIndex, columnName, PartitionBloomFilter.hash(str), token);
+                }
+                break;
+            case ColumnType.UUID:
+                if (quoted) {
+                    final CharSequence uuid = GenericLexer.unquote(token);
+                    try {
+                        Uuid.checkDashesAndLength(uuid);
+                        final long hash = PartitionBloomFilter.hash(Uuid.parseLo(uuid), Uuid.parseHi(uuid));
+                        zoneMapFilter.addHash(columnIndex, writerIndex, columnName, hash, token);
+                    } catch (NumericException ignore) {
+                        // not a uuid, the row filter will report the error
+                    }
+                }
+                break;
+            case ColumnType.LONG256:
+                if (!quoted && Numbers.extractLong256(token, len, long256Sink) && !Long256Impl.isNull(long256Sink)) {
+                    final long hash = PartitionBloomFilter.hash(
+                            long256Sink.getLong0(),
+                            long256Sink.getLong1(),
+                            long256Sink.getLong2(),
+                            long256Sink.getLong3()
+                    );
+                    zoneMapFilter.addHash(columnIndex, writerIndex, columnName, hash, token);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     private ObjList<Function> generateCastFunctions(
             RecordMetadata castToMetadata,
             RecordMetadata castFromMetadata,
@@ -2255,6 +2426,21 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 hiFunc,
                                 listColumnFilterA.copy()
                         );
+                    } else if (
+                            configuration.isSqlParallelOrderByEnabled()
+                                    && executionContext.getSharedWorkerCount() > 0
+                                    && recordCursorFactory.supportPageFrameCursor()
+                                    && AsyncSortedLightRecordCursorFactory.isSupported(metadata, listColumnFilterA)
+                    ) {
+                        return new AsyncSortedLightRecordCursorFactory(
+                                configuration,
+                                executionContext.getMessageBus(),
+                                orderedMetadata,
+                                recordCursorFactory,
+                                listColumnFilterA.copy(),
+                                reduceTaskPool,
+                                executionContext.getSharedWorkerCount()
+                        );
                     } else {
                         return new SortedLightRecordCursorFactory(
                                 configuration,
@@ -2529,6 +2715,64 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
+            // linear interpolation needs the neighbouring samples, so it is never parallel
+            final boolean parallelSampleBySupported = configuration.isSqlParallelGroupByEnabled()
+                    && executionContext.getSharedWorkerCount() > 0
+                    && factory.supportPageFrameCursor()
+                    && groupByMetadata.getTimestampIndex() != -1
+                    && GroupByUtils.isParallelismSupported(groupByFunctions)
+                    && GroupByUtils.isParallelismSupported(timestampSampler)
+                    && isNumericTimezoneOffset(timezoneNameFunc)
+                    && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                    && !hasLinearFill(sampleByFill);
+
+            if (parallelSampleBySupported) {
+                // sample timestamp is stored as the last key
+                keyTypes.add(ColumnType.TIMESTAMP);
+                final RecordCursorFactory sampleByFactory = new AsyncSampleByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        compileWorkerGroupByFunctions(
+                                model,
+                                metadata,
+                                executionContext.getSharedWorkerCount(),
+                                true,
+                                executionContext
+                        ),
+                        recordFunctions,
+                        recordFunctionPositions,
+                        isFillNone ? null : sampleByFill,
+                        timestampSampler,
+                        timestampIndex,
+                        timezoneNameFunc,
+                        offsetFunc,
+                        offsetFuncPos,
+                        reduceTaskPool,
+                        executionContext.getSharedWorkerCount()
+                );
+                if (!isFillNone) {
+                    // filled samples are returned in timestamp order
+                    return sampleByFactory;
+                }
+                // samples come out of the merged maps in arbitrary order
+                listColumnFilterB.clear();
+                listColumnFilterB.add(groupByMetadata.getTimestampIndex() + 1);
+                return new SortedLightRecordCursorFactory(
+                        configuration,
+                        GenericRecordMetadata.copyOf(groupByMetadata),
+                        sampleByFactory,
+                        recordComparatorCompiler.compile(groupByMetadata, listColumnFilterB),
+                        listColumnFilterB.copy()
+                );
+            }
+
             if (fillCount == 1 && Chars.equalsLowerCaseAscii(sampleByFill.getQuick(0).token, "prev")) {
                 if (keyTypes.getColumnCount() == 0) {
                     return new SampleByFillPrevNotKeyedRecordCursorFactory(
@@ -2567,7 +2811,6 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
 
             if (isFillNone) {
-
                 if (keyTypes.getColumnCount() == 0) {
                     // this sample by is not keyed
                     return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -2781,12 +3024,14 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // analytic columns recursively
 
         deferredAnalyticMetadata.clear();
+        boolean streamable = true;
         for (int i = 0; i < columnCount; i++) {
             final QueryColumn qc = columns.getQuick(i);
             if (qc instanceof AnalyticColumn) {
                 final AnalyticColumn ac = (AnalyticColumn) qc;
                 final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
+                // lag() and lead() are the only analytic functions with a second (offset) argument
+                if (ast.paramCount > (functionParser.getFunctionFactoryCache().isAnalytic(ast.token) ? 2 : 1)) {
                     Misc.free(base);
                     throw SqlException.$(ast.position, "too many arguments");
                 }
@@ -2828,16 +3073,42 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
 
                 final int osz = ac.getOrderBy().size();
+                final long frameLo = ac.getFrameLo();
+                final long frameHi = ac.getFrameHi();
+                int framingMode = ac.getFramingMode();
+                int timestampIndex = -1;
+                if (framingMode == AnalyticColumn.FRAMING_RANGE) {
+                    if (frameLo != AnalyticColumn.FRAME_UNBOUNDED_PRECEDING
+                            || (frameHi != AnalyticColumn.FRAME_CURRENT_ROW && frameHi != AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING)) {
+                        // offsets of RANGE frame are measured against the ORDER BY column
+                        timestampIndex = osz == 1 && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING
+                                ? chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token)
+                                : -1;
+                        if (timestampIndex == -1 || !ColumnType.isTimestamp(chainMetadata.getColumnType(timestampIndex))) {
+                            Misc.free(base);
+                            throw SqlException.$(ac.getFramePosition(), "RANGE frame with offset requires ORDER BY on a single ascending timestamp column");
+                        }
+                    } else {
+                        // without offsets RANGE frame is the same as ROWS frame, peer rows are not included
+                        framingMode = AnalyticColumn.FRAMING_ROWS;
+                    }
+                }
+
                 executionContext.configureAnalyticContext(
                         partitionByRecord,
                         partitionBySink,
                         keyTypes,
                         osz > 0,
-                        base.recordCursorSupportsRandomAccess()
+                        base.recordCursorSupportsRandomAccess(),
+                        framingMode,
+                        frameLo,
+                        frameHi,
+                        timestampIndex
                 );
                 final Function f;
                 try {
-                    f = functionParser.parseFunction(ast, baseMetadata, executionContext);
+                    // function arguments are resolved against chain metadata, this is the record functions will see
+                    f = functionParser.parseFunction(ast, chainMetadata, executionContext);
                     if (!(f instanceof AnalyticFunction)) {
                         Misc.free(base);
                         throw SqlException.$(ast.position, "non-analytic function called in analytic context");
@@ -2864,6 +3135,16 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
 
+                // base cursor is already ordered by its designated timestamp
+                if (!dismissOrder
+                        && osz == 1
+                        && ac.getOrderByDirection().getQuick(0) == QueryModel.ORDER_DIRECTION_ASCENDING
+                        && baseMetadata.getTimestampIndex() != -1
+                        && !base.hasDescendingOrder()) {
+                    final int orderIndex = chainMetadata.getColumnIndexQuiet(ac.getOrderBy().getQuick(0).token);
+                    dismissOrder = orderIndex != -1 && columnIndexes.getQuick(orderIndex) == baseMetadata.getTimestampIndex();
+                }
+
                 if (osz > 0 && !dismissOrder) {
                     IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
                     // init comparator if we need
@@ -2881,6 +3162,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
 
                 analyticFunction.setColumnIndex(i);
+                streamable &= analyticFunction.getPassCount() == AnalyticFunction.ZERO_PASS;
 
                 deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
                         Chars.toString(qc.getAlias()),
@@ -2904,13 +3186,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
         }
 
+        if (streamable && groupedAnalytic.size() == 0) {
+            // rows are in the order all functions need, compute them on the fly without caching rows
+            final int chainColumnCount = chainTypes.getColumnCount();
+            final ObjList<Function> functions = new ObjList<>(chainColumnCount);
+            int analyticIndex = 0;
+            for (int i = 0; i < chainColumnCount; i++) {
+                if (i < columnCount && columns.getQuick(i) instanceof AnalyticColumn) {
+                    functions.add(naturalOrderFunctions.getQuick(analyticIndex++));
+                } else {
+                    final int columnIndex = columnIndexes.getQuick(i);
+                    functions.add(FunctionParser.createColumn(0, baseMetadata.getColumnName(columnIndex), baseMetadata));
+                    if (columnIndex == baseMetadata.getTimestampIndex() && i < columnCount) {
+                        factoryMetadata.setTimestampIndex(i);
+                    }
+                }
+            }
+            return new AnalyticRecordCursorFactory(base, factoryMetadata, chainMetadata, functions, naturalOrderFunctions);
+        }
+
         final ObjList<RecordComparator> analyticComparators = new ObjList<>(groupedAnalytic.size());
         final ObjList<ObjList<AnalyticFunction>> functionGroups = new ObjList<>(groupedAnalytic.size());
         for (ObjObjHashMap.Entry<IntList, ObjList<AnalyticFunction>> e : groupedAnalytic) {
             analyticComparators.add(recordComparatorCompiler.compile(chainTypes, e.key));
             functionGroups.add(e.value);
         }
-
         final RecordSink recordSink = RecordSinkFactory.getInstance(
                 asm,
                 chainTypes,
@@ -2924,6 +3224,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 base,
                 recordSink,
                 factoryMetadata,
+                chainMetadata,
                 chainTypes,
                 analyticComparators,
                 functionGroups,
@@ -3358,7 +3659,36 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 throw e;
             }
 
+            final boolean parallelGroupByEnabled = configuration.isSqlParallelGroupByEnabled()
+                    && executionContext.getSharedWorkerCount() > 0
+                    && GroupByUtils.isParallelismSupported(groupByFunctions);
+            final boolean parallelGroupBySupported = parallelGroupByEnabled && factory.supportPageFrameCursor();
+
             if (keyTypes.getColumnCount() == 0) {
+                // non-keyed aggregation runs the compiled filter, if any, on its own workers
+                if (parallelGroupBySupported || (parallelGroupByEnabled && AsyncGroupByNotKeyedRecordCursorFactory.canFuseFilter(factory))) {
+                    final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions = compileWorkerGroupByFunctions(
+                            model,
+                            metadata,
+                            executionContext.getSharedWorkerCount(),
+                            false,
+                            executionContext
+                    );
+                    return new AsyncGroupByNotKeyedRecordCursorFactory(
+                            asm,
+                            configuration,
+                            executionContext.getMessageBus(),
+                            factory,
+                            groupByMetadata,
+                            groupByFunctions,
+                            perWorkerGroupByFunctions,
+                            recordFunctions,
+                            reduceTaskPool,
+                            compileGroupByProjections(model, metadata, groupByFunctions, executionContext),
+                            valueTypes.getColumnCount(),
+                            executionContext.getSharedWorkerCount()
+                    );
+                }
                 return new GroupByNotKeyedRecordCursorFactory(
                         asm,
                         factory,
@@ -3369,6 +3699,30 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            if (parallelGroupBySupported && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")) {
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByMetadata,
+                        groupByFunctions,
+                        compileWorkerGroupByFunctions(
+                                model,
+                                metadata,
+                                executionContext.getSharedWorkerCount(),
+                                false,
+                                executionContext
+                        ),
+                        recordFunctions,
+                        reduceTaskPool,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -4086,7 +4440,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             return new DataFrameRecordCursorFactory(
                     configuration,
                     myMeta,
-                    dfcFactory,
+                    generateZoneMapFilter(dfcFactory, intrinsicModel.filter, metadata),
                     rowFactory,
                     false,
                     null,
@@ -4167,6 +4521,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             for (int i = 0, n = listColumnFilterA.size(); i < n; i++) {
                 partitionByColumnIndexes.add(listColumnFilterA.getColumnIndexFactored(i));
             }
+            // latest rows are maintained by the writer for partitioned tables only, see LatestByMaterialization
+            if (configuration.isLatestByMaterializationEnabled() && PartitionBy.isPartitioned(reader.getPartitionedBy())) {
+                return new LatestByMaterializedRecordCursorFactory(
+                        myMeta,
+                        configuration,
+                        new FullBwdDataFrameCursorFactory(tableToken, model.getTableId(), model.getTableVersion(), dfcFactoryMeta),
+                        RecordSinkFactory.getInstance(asm, myMeta, listColumnFilterA, false),
+                        keyTypes,
+                        partitionByColumnIndexes,
+                        columnIndexes
+                );
+            }
             return new LatestByAllSymbolsFilteredRecordCursorFactory(
                     myMeta,
                     configuration,
@@ -4260,6 +4626,140 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return unionFactory;
     }
 
+    private DataFrameCursorFactory generateZoneMapFilter(
+            DataFrameCursorFactory dfcFactory,
+            @Nullable ExpressionNode filter,
+            TableRecordMetadata metadata
+    ) {
+        if (filter == null || (!configuration.isPartitionZoneMapEnabled() && !configuration.isPartitionBloomFilterEnabled())) {
+            return dfcFactory;
+        }
+        final ZoneMapFilter zoneMapFilter = new ZoneMapFilter();
+        try {
+            generateZoneMapFilter(filter, metadata, zoneMapFilter);
+        } catch (Throwable th) {
+            Misc.free(zoneMapFilter);
+            throw th;
+        }
+        if (zoneMapFilter.isEmpty()) {
+            Misc.free(zoneMapFilter);
+            return dfcFactory;
+        }
+        return new ZoneMapDataFrameCursorFactory(dfcFactory, zoneMapFilter);
+    }
+
+    // collects "column op constant" comparisons from the top-level conjunction of the filter,
+    // other parts of the filter are left to the row filter
+    private void generateZoneMapFilter(ExpressionNode node, TableRecordMetadata metadata, ZoneMapFilter zoneMapFilter) {
+        if (node.type != OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (isAndKeyword(node.token)) {
+            generateZoneMapFilter(node.lhs, metadata, zoneMapFilter);
+            generateZoneMapFilter(node.rhs, metadata, zoneMapFilter);
+            return;
+        }
+
+        int op;
+        if (Chars.equals(node.token, '=')) {
+            op = ZoneMapFilter.OP_EQ;
+        } else if (Chars.equals(node.token, '<')) {
+            op = ZoneMapFilter.OP_LT;
+        } else if (Chars.equals(node.token, "<=")) {
+            op = ZoneMapFilter.OP_LE;
+        } else if (Chars.equals(node.token, '>')) {
+            op = ZoneMapFilter.OP_GT;
+        } else if (Chars.equals(node.token, ">=")) {
+            op = ZoneMapFilter.OP_GE;
+        } else {
+            return;
+        }
+
+        ExpressionNode column = node.lhs;
+        ExpressionNode value = node.rhs;
+        if (column.type != LITERAL) {
+            column = node.rhs;
+            value = node.lhs;
+            op = ZoneMapFilter.flip(op);
+        }
+
+        if (column.type != LITERAL) {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0) {
+            return;
+        }
+
+        final int columnType = metadata.getColumnType(columnIndex);
+        if (!PartitionZoneMap.isSupported(columnType) && !PartitionBloomFilter.isSupported(columnType)) {
+            return;
+        }
+
+        boolean negative = false;
+        if (value.type == OPERATION && value.paramCount == 1 && Chars.equals(value.token, '-')) {
+            negative = true;
+            value = value.rhs;
+        }
+
+        if (value == null || value.type != CONSTANT || isNullKeyword(value.token)) {
+            return;
+        }
+
+        final int writerIndex = metadata.getWriterIndex(columnIndex);
+        final boolean quoted = Chars.isQuoted(value.token);
+        if (!PartitionZoneMap.isSupported(columnType)) {
+            // string, uuid and long256 equality can only be checked against Bloom filters, which are opt-in per column
+            if (op == ZoneMapFilter.OP_EQ && !negative && AbstractRecordMetadata.copyOf(metadata, columnIndex).isBloomFilter()) {
+                generateBloomFilterPredicate(columnIndex, writerIndex, columnType, column.token, value.token, quoted, zoneMapFilter);
+            }
+            return;
+        }
+
+        if (ColumnType.isSymbol(columnType)) {
+            if (op == ZoneMapFilter.OP_EQ && quoted && !negative) {
+                zoneMapFilter.addSymbol(columnIndex, writerIndex, column.token, GenericLexer.unquote(value.token));
+            }
+            return;
+        }
+
+        if (quoted) {
+            if (ColumnType.isTimestamp(columnType) && !negative) {
+                try {
+                    final long timestamp = SqlUtil.implicitCastStrAsTimestamp(GenericLexer.unquote(value.token));
+                    if (timestamp != Numbers.LONG_NaN) {
+                        zoneMapFilter.add(columnIndex, writerIndex, column.token, op, timestamp);
+                    }
+                } catch (ImplicitCastException ignore) {
+                    // not a timestamp, the row filter will report the error
+                }
+            }
+            return;
+        }
+
+        try {
+            final long longValue = Numbers.parseLong(value.token);
+            if (longValue != Numbers.LONG_NaN) {
+                zoneMapFilter.add(columnIndex, writerIndex, column.token, op, negative ? -longValue : longValue);
+            }
+            return;
+        } catch (NumericException ignore) {
+        }
+
+        // equality of floating point values is not exact, only ranges are checked
+        if (op != ZoneMapFilter.OP_EQ) {
+            try {
+                final double doubleValue = Numbers.parseDouble(value.token);
+                if (!Double.isNaN(doubleValue)) {
+                    zoneMapFilter.add(columnIndex, writerIndex, column.token, op, negative ? -doubleValue : doubleValue);
+                }
+            } catch (NumericException ignore) {
+            }
+        }
+    }
+
     @Nullable
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
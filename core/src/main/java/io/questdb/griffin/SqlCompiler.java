@@ -1557,6 +1557,12 @@ public class SqlCompiler implements Closeable {
                     model.cached(rdr.getSymbolMapReader(i).isCached());
                 }
                 model.setIndexFlags(rdrMetadata.isColumnIndexed(i), rdrMetadata.getIndexValueBlockCapacity(i));
+                if (rdrMetadata.getColumnMetadata(i).isDedupKey()) {
+                    model.setDedupKeyFlag(i);
+                }
+                if (rdrMetadata.getColumnMetadata(i).isBloomFilter()) {
+                    model.setBloomFilterFlag(i);
+                }
             }
             model.setPartitionBy(SqlUtil.nextLiteral(sqlNodePool, PartitionBy.toString(rdr.getPartitionedBy()), 0));
             if (rdrMetadata.getTimestampIndex() != -1) {
@@ -2650,6 +2656,26 @@ public class SqlCompiler implements Closeable {
             }
         }
 
+        // validate types of dedup keys and Bloom filter columns, types are known only now
+        for (int i = 0, n = model.getColumnCount(); i < n; i++) {
+            if (model.isDedupKey(i)) {
+                CharSequence columnName = model.getColumnName(i);
+                ColumnCastModel ccm = castModels.get(columnName);
+                int columnType = ccm != null ? ccm.getColumnType() : metadata.getColumnType(columnName);
+                if (ColumnType.isVariableLength(columnType)) {
+                    throw SqlException.$(0, "dedup key columns must be of fixed size type: ").put(columnName);
+                }
+            }
+            if (model.isBloomFilter(i)) {
+                CharSequence columnName = model.getColumnName(i);
+                ColumnCastModel ccm = castModels.get(columnName);
+                int columnType = ccm != null ? ccm.getColumnType() : metadata.getColumnType(columnName);
+                if (!PartitionBloomFilter.isSupported(columnType)) {
+                    throw SqlException.$(0, "Bloom filters are supported only for LONG, UUID, LONG256 and STRING columns: ").put(columnName);
+                }
+            }
+        }
+
         // validate type of timestamp column
         // no need to worry that column will not resolve
         ExpressionNode timestamp = model.getTimestamp();
@@ -2826,6 +2852,16 @@ public class SqlCompiler implements Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isBloomFilter(int columnIndex) {
+            return model.isBloomFilter(columnIndex);
+        }
+
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return model.isDedupKey(columnIndex);
+        }
+
         @Override
         public boolean isIndexed(int columnIndex) {
             return model.isIndexed(columnIndex);
@@ -28,6 +28,7 @@ import io.questdb.cairo.*;
 import io.questdb.cutlass.text.Atomicity;
 import io.questdb.griffin.model.*;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -108,6 +109,28 @@ public final class SqlParser {
         return SqlException.unexpectedToken(lexer.lastTokenPosition(), token);
     }
 
+    private static long frameOffsetUnitMicros(CharSequence tok) {
+        if (isMicrosecondsKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "microsecond")) {
+            return 1;
+        }
+        if (isMillisecondsKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "millisecond")) {
+            return Timestamps.MILLI_MICROS;
+        }
+        if (isSecondKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "seconds")) {
+            return Timestamps.SECOND_MICROS;
+        }
+        if (isMinuteKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "minutes")) {
+            return Timestamps.MINUTE_MICROS;
+        }
+        if (isHourKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "hours")) {
+            return Timestamps.HOUR_MICROS;
+        }
+        if (isDayKeyword(tok) || Chars.equalsLowerCaseAscii(tok, "days")) {
+            return Timestamps.DAY_MICROS;
+        }
+        return 0;
+    }
+
     private static boolean isValidSampleByPeriodLetter(CharSequence token) {
         if (token.length() != 1) return false;
         switch (token.charAt(0)) {
@@ -343,6 +366,85 @@ public final class SqlParser {
         return tok;
     }
 
+    private void parseAnalyticFrame(GenericLexer lexer, AnalyticColumn ac, int framingMode) throws SqlException {
+        final int framePosition = lexer.lastTokenPosition();
+        final boolean range = framingMode == AnalyticColumn.FRAMING_RANGE;
+        final long frameLo;
+        final long frameHi;
+        CharSequence tok = tok(lexer, "'between', 'unbounded', 'current' or offset");
+        if (isBetweenKeyword(tok)) {
+            frameLo = parseAnalyticFrameBound(lexer, range, true);
+            expectTok(lexer, "and");
+            frameHi = parseAnalyticFrameBound(lexer, range, false);
+        } else {
+            // short form, "rows 10 preceding" is the same as "rows between 10 preceding and current row"
+            lexer.unparseLast();
+            frameLo = parseAnalyticFrameBound(lexer, range, true);
+            frameHi = AnalyticColumn.FRAME_CURRENT_ROW;
+        }
+
+        if (frameHi == AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING && frameLo != AnalyticColumn.FRAME_UNBOUNDED_PRECEDING) {
+            throw SqlException.$(framePosition, "'unbounded following' frame end requires 'unbounded preceding' frame start");
+        }
+
+        if (frameLo > frameHi) {
+            throw SqlException.$(framePosition, "frame start must not be after frame end");
+        }
+        ac.setFrame(framingMode, frameLo, frameHi, framePosition);
+    }
+
+    private long parseAnalyticFrameBound(GenericLexer lexer, boolean range, boolean frameStart) throws SqlException {
+        CharSequence tok = tok(lexer, "'unbounded', 'current' or offset");
+        if (isUnboundedKeyword(tok)) {
+            tok = tok(lexer, "'preceding' or 'following'");
+            if (isPrecedingKeyword(tok) && frameStart) {
+                return AnalyticColumn.FRAME_UNBOUNDED_PRECEDING;
+            }
+            if (isFollowingKeyword(tok) && !frameStart) {
+                return AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING;
+            }
+            throw SqlException.$(lexer.lastTokenPosition(), frameStart ? "'preceding' expected" : "'following' expected");
+        }
+
+        if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            return AnalyticColumn.FRAME_CURRENT_ROW;
+        }
+
+        final int offsetPosition = lexer.lastTokenPosition();
+        long offset;
+        try {
+            offset = Numbers.parseLong(tok);
+        } catch (NumericException e) {
+            throw SqlException.$(offsetPosition, "'unbounded', 'current' or non-negative integer offset expected");
+        }
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "'unbounded', 'current' or non-negative integer offset expected");
+        }
+
+        tok = tok(lexer, "'preceding'");
+        if (range) {
+            // range offset is in units of the ORDER BY column, which is micros for timestamps;
+            // time unit after the offset is a shorthand
+            final long multiplier = frameOffsetUnitMicros(tok);
+            if (multiplier > 0) {
+                if (offset > Long.MAX_VALUE / multiplier) {
+                    throw SqlException.$(offsetPosition, "frame offset is too large");
+                }
+                offset *= multiplier;
+                tok = tok(lexer, "'preceding'");
+            }
+        }
+
+        if (isPrecedingKeyword(tok)) {
+            return -offset;
+        }
+        if (isFollowingKeyword(tok)) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'following' is only supported as 'unbounded following'");
+        }
+        throw SqlException.$(lexer.lastTokenPosition(), "'preceding' expected");
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer,
                                                             LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses,
                                                             boolean useTopLevelWithClauses)
@@ -538,6 +640,15 @@ public final class SqlParser {
                 }
             }
         }
+        if (tok != null && isDedupKeyword(tok)) {
+            parseCreateTableDedupKeys(lexer, model);
+            tok = optTok(lexer);
+        }
+        if (tok != null && isBloomKeyword(tok)) {
+            parseCreateTableBloomFilter(lexer, model);
+            tok = optTok(lexer);
+        }
+
         final boolean isWalEnabled = configuration.isWalSupported() &&
                 PartitionBy.isPartitioned(model.getPartitionBy()) &&
                 ((walSetting == WAL_NOT_SET && configuration.getWalEnabledDefault()) || walSetting == WAL_ENABLED);
@@ -614,6 +725,34 @@ public final class SqlParser {
         expectTok(lexer, ')');
     }
 
+    private void parseCreateTableBloomFilter(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        if (!PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.$(lexer.lastTokenPosition(), "Bloom filters are possible only on partitioned tables");
+        }
+        expectTok(lexer, "filter");
+        expectTok(lexer, '(');
+
+        CharSequence tok;
+        do {
+            tok = tok(lexer, "column name");
+            final int position = lexer.lastTokenPosition();
+            final int columnIndex = getCreateTableColumnIndex(model, GenericLexer.unquote(tok), position);
+            if (model.isBloomFilter(columnIndex)) {
+                throw SqlException.$(position, "duplicate Bloom filter column");
+            }
+            // column type is not known at this stage for create table as select, compiler validates it
+            final int columnType = model.getColumnType(columnIndex);
+            if (columnType != -1 && !PartitionBloomFilter.isSupported(columnType)) {
+                throw SqlException.position(position).put("Bloom filters are supported only for LONG, UUID, LONG256 and STRING columns [column=")
+                        .put(model.getColumnName(columnIndex)).put(", type=").put(ColumnType.nameOf(columnType)).put(']');
+            }
+            model.setBloomFilterFlag(columnIndex);
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        expectTok(tok, lexer.lastTokenPosition(), ')');
+    }
+
     private void parseCreateTableCastDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         if (model.getQueryModel() == null) {
             throw SqlException.$(lexer.lastTokenPosition(), "cast is only supported in 'create table as ...' context");
@@ -742,6 +881,42 @@ public final class SqlParser {
         }
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        final int dedupPosition = lexer.lastTokenPosition();
+        if (model.getTimestamp() == null || !PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.$(dedupPosition, "deduplication is possible only on partitioned tables with designated timestamps");
+        }
+        expectTok(lexer, "upsert");
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+
+        final int timestampIndex = model.getTimestampIndex();
+        boolean timestampKey = false;
+        CharSequence tok;
+        do {
+            tok = tok(lexer, "column name");
+            final int position = lexer.lastTokenPosition();
+            final int columnIndex = getCreateTableColumnIndex(model, GenericLexer.unquote(tok), position);
+            if (model.isDedupKey(columnIndex)) {
+                throw SqlException.$(position, "duplicate dedup key column");
+            }
+            // column type is not known at this stage for create table as select, compiler validates it
+            final int columnType = model.getColumnType(columnIndex);
+            if (columnType != -1 && ColumnType.isVariableLength(columnType)) {
+                throw SqlException.position(position).put("dedup key columns must be of fixed size type [column=")
+                        .put(model.getColumnName(columnIndex)).put(", type=").put(ColumnType.nameOf(columnType)).put(']');
+            }
+            model.setDedupKeyFlag(columnIndex);
+            timestampKey |= columnIndex == timestampIndex;
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        expectTok(tok, lexer.lastTokenPosition(), ')');
+        if (!timestampKey) {
+            throw SqlException.$(dedupPosition, "dedup keys must include the designated timestamp column");
+        }
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final CharSequence columnName = expectLiteral(lexer).token;
@@ -1599,7 +1774,7 @@ public final class SqlParser {
                 expectTok(lexer, '(');
 
                 col = analyticColumnPool.next().of(null, expr);
-                tok = tokIncludingLocalBrace(lexer, "'partition' or 'order' or ')'");
+                tok = tokIncludingLocalBrace(lexer, "'partition' or 'order' or 'rows' or 'range' or ')'");
 
                 if (isPartitionKeyword(tok)) {
                     expectTok(lexer, "by");
@@ -1608,7 +1783,7 @@ public final class SqlParser {
 
                     do {
                         partitionBy.add(expectExpr(lexer));
-                        tok = tok(lexer, "'order' or ')'");
+                        tok = tok(lexer, "'order' or 'rows' or 'range' or ')'");
                     } while (Chars.equals(tok, ','));
                 }
                 if (isOrderKeyword(tok)) {
@@ -1621,15 +1796,23 @@ public final class SqlParser {
 
                         if (isDescKeyword(tok)) {
                             ((AnalyticColumn) col).addOrderBy(orderByExpr, QueryModel.ORDER_DIRECTION_DESCENDING);
-                            tok = tokIncludingLocalBrace(lexer, "',' or ')'");
+                            tok = tokIncludingLocalBrace(lexer, "',' or 'rows' or 'range' or ')'");
                         } else {
                             ((AnalyticColumn) col).addOrderBy(orderByExpr, QueryModel.ORDER_DIRECTION_ASCENDING);
                             if (isAscKeyword(tok)) {
-                                tok = tokIncludingLocalBrace(lexer, "',' or ')'");
+                                tok = tokIncludingLocalBrace(lexer, "',' or 'rows' or 'range' or ')'");
                             }
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                final AnalyticColumn ac = (AnalyticColumn) col;
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    parseAnalyticFrame(lexer, ac, isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE);
+                    tok = tokIncludingLocalBrace(lexer, "')'");
+                } else if (ac.getOrderBy().size() > 0) {
+                    ac.setFrame(AnalyticColumn.FRAMING_RANGE, AnalyticColumn.FRAME_UNBOUNDED_PRECEDING, AnalyticColumn.FRAME_CURRENT_ROW, 0);
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
@@ -148,6 +148,8 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
                                     .put(", partitionTimestamp=").ts(tableWriter.getPartitionTimestamp(rowPartitionIndex))
                                     .put(']');
                         }
+                        // column files are updated in place
+                        tableWriter.decompressPartition(tableWriter.getPartitionTimestamp(rowPartitionIndex));
                         if (partitionIndex > -1) {
                             LOG.info()
                                     .$("updating partition [partitionIndex=").$(partitionIndex)
@@ -25,10 +25,12 @@
 package io.questdb.griffin.engine;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SpillFile;
 import io.questdb.std.MemoryPages;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
 
 public abstract class AbstractRedBlackTree implements Mutable, Reopenable {
     protected static final byte BLACK = 0;
@@ -45,8 +47,12 @@ public abstract class AbstractRedBlackTree implements Mutable, Reopenable {
     protected long root = -1;
 
     public AbstractRedBlackTree(long keyPageSize, int keyMaxPages) {
+        this(keyPageSize, keyMaxPages, null);
+    }
+
+    public AbstractRedBlackTree(long keyPageSize, int keyMaxPages, @Nullable SpillFile keySpill) {
         assert keyPageSize >= getBlockSize();
-        this.mem = new MemoryPages(keyPageSize, keyMaxPages);
+        this.mem = new MemoryPages(keyPageSize, keyMaxPages, keySpill);
     }
 
     @Override
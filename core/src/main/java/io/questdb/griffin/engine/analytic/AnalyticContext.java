@@ -31,12 +31,26 @@ import io.questdb.cairo.sql.VirtualRecord;
 public interface AnalyticContext {
     boolean baseSupportsRandomAccess();
 
+    long getFrameHi();
+
+    long getFrameLo();
+
+    int getFramingMode();
+
     ColumnTypes getPartitionByKeyTypes();
 
     VirtualRecord getPartitionByRecord();
 
     RecordSink getPartitionBySink();
 
+    /**
+     * Index of the timestamp column, in the analytic factory's chain metadata, that RANGE frame
+     * offsets are measured against.
+     *
+     * @return column index or -1 when frame is not a RANGE frame with offset
+     */
+    int getTimestampIndex();
+
     boolean isEmpty();
 
     boolean isOrdered();
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.analytic;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.Nullable;
@@ -34,10 +35,14 @@ import org.jetbrains.annotations.Nullable;
 public class AnalyticContextImpl implements AnalyticContext, Mutable {
     private boolean baseSupportsRandomAccess;
     private boolean empty = true;
+    private long frameHi = AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING;
+    private long frameLo = AnalyticColumn.FRAME_UNBOUNDED_PRECEDING;
+    private int framingMode = AnalyticColumn.FRAMING_RANGE;
     private boolean ordered;
     private ColumnTypes partitionByKeyTypes;
     private VirtualRecord partitionByRecord;
     private RecordSink partitionBySink;
+    private int timestampIndex = -1;
 
     @Override
     public boolean baseSupportsRandomAccess() {
@@ -52,6 +57,25 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = null;
         this.ordered = false;
         this.baseSupportsRandomAccess = false;
+        this.framingMode = AnalyticColumn.FRAMING_RANGE;
+        this.frameLo = AnalyticColumn.FRAME_UNBOUNDED_PRECEDING;
+        this.frameHi = AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING;
+        this.timestampIndex = -1;
+    }
+
+    @Override
+    public long getFrameHi() {
+        return frameHi;
+    }
+
+    @Override
+    public long getFrameLo() {
+        return frameLo;
+    }
+
+    @Override
+    public int getFramingMode() {
+        return framingMode;
     }
 
     @Override
@@ -69,6 +93,11 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         return partitionBySink;
     }
 
+    @Override
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
     @Override
     public boolean isEmpty() {
         return empty;
@@ -84,7 +113,11 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
-            boolean baseSupportsRandomAccess
+            boolean baseSupportsRandomAccess,
+            int framingMode,
+            long frameLo,
+            long frameHi,
+            int timestampIndex
     ) {
         this.empty = false;
         this.partitionByRecord = partitionByRecord;
@@ -92,5 +125,9 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionByKeyTypes = partitionByKeyTypes;
         this.ordered = ordered;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
+        this.framingMode = framingMode;
+        this.frameLo = frameLo;
+        this.frameHi = frameHi;
+        this.timestampIndex = timestampIndex;
     }
 }
@@ -28,22 +28,48 @@ import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.sql.AnalyticSPI;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
-import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.std.IntList;
 
 public interface AnalyticFunction extends Function {
-    int STREAM = 1;
-    int THREE_PASS = 3;
+    /**
+     * Function writes its values into the record chain in a single pass over the rows.
+     */
+    int ONE_PASS = 1;
+    /**
+     * Function has to see all rows of a partition before it can write the first value.
+     */
     int TWO_PASS = 2;
+    /**
+     * Function computes value of the current row from the rows it has already seen,
+     * see {@link #computeNext(Record)}, and does not need the rows to be cached.
+     */
+    int ZERO_PASS = 0;
+
+    /**
+     * Computes function value for the given record in streaming mode. Value is then available
+     * via the relevant getter until the next call. Only supported by functions that
+     * return {@link #ZERO_PASS} from {@link #getPassCount()}.
+     *
+     * @param record record of the analytic factory's chain metadata
+     */
+    default void computeNext(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    default int getPassCount() {
+        return ONE_PASS;
+    }
 
     void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order);
 
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
-    void pass2(Record record);
+    default void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+    }
 
-    void preparePass2(RecordCursor cursor);
+    default void preparePass2() {
+    }
 
     void reset();
 
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes analytic functions on the fly, as the base cursor is iterated. This is possible
+ * when all functions support streaming and the base cursor already returns rows in the order
+ * the functions require, e.g. ordered by the designated timestamp. Unlike
+ * {@link CachedAnalyticRecordCursorFactory} rows are not cached, memory use is bounded by
+ * the state functions keep for each partition.
+ */
+public class AnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ObjList<AnalyticFunction> analyticFunctions;
+    private final RecordCursorFactory base;
+    private final RecordMetadata chainMetadata;
+    private final AnalyticRecordCursor cursor;
+    private final ObjList<Function> functions;
+    private boolean closed = false;
+
+    /**
+     * @param chainMetadata     metadata of the columns analytic function arguments refer to
+     * @param functions         one function per column of chain metadata, analytic functions
+     *                          in their column slots and base column readers elsewhere
+     * @param analyticFunctions analytic functions in order of evaluation
+     */
+    public AnalyticRecordCursorFactory(
+            RecordCursorFactory base,
+            RecordMetadata metadata,
+            RecordMetadata chainMetadata,
+            ObjList<Function> functions,
+            ObjList<AnalyticFunction> analyticFunctions
+    ) {
+        super(metadata);
+        this.base = base;
+        this.chainMetadata = chainMetadata;
+        this.functions = functions;
+        this.analyticFunctions = analyticFunctions;
+        this.cursor = new AnalyticRecordCursor(functions);
+    }
+
+    @Override
+    public boolean followedOrderByAdvice() {
+        return base.followedOrderByAdvice();
+    }
+
+    @Override
+    public String getBaseColumnName(int idx) {
+        return chainMetadata.getColumnName(idx);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return base.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Analytic");
+        sink.optAttr("functions", analyticFunctions, true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        if (closed) {
+            return;
+        }
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.freeObjList(functions);
+        closed = true;
+    }
+
+    private class AnalyticRecordCursor extends AbstractVirtualFunctionRecordCursor {
+        private SqlExecutionCircuitBreaker circuitBreaker;
+        private boolean isOpen = true;
+
+        public AnalyticRecordCursor(ObjList<Function> functions) {
+            super(functions, false);
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                super.close();
+                resetFunctions();
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    analyticFunctions.getQuick(i).computeNext(recordA);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            if (!isOpen) {
+                for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                    final AnalyticFunction function = analyticFunctions.getQuick(i);
+                    if (function instanceof Reopenable) {
+                        ((Reopenable) function).reopen();
+                    }
+                }
+                isOpen = true;
+            }
+            circuitBreaker = executionContext.getCircuitBreaker();
+            Function.init(functions, baseCursor, executionContext);
+            of(baseCursor);
+        }
+
+        private void resetFunctions() {
+            for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+                analyticFunctions.getQuick(i).reset();
+            }
+        }
+    }
+}
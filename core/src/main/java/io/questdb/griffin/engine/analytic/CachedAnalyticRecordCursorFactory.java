@@ -43,6 +43,7 @@ import org.jetbrains.annotations.Nullable;
 public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
     private final ObjList<AnalyticFunction> allFunctions;
     private final RecordCursorFactory base;
+    private final RecordMetadata chainMetadata;
     private final ObjList<RecordComparator> comparators;
     private final CachedAnalyticRecordCursor cursor;
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
@@ -56,7 +57,8 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
             RecordCursorFactory base,
             RecordSink recordSink,
             GenericRecordMetadata metadata,
-            @Transient ColumnTypes chainMetadata,
+            RecordMetadata chainMetadata,
+            @Transient ColumnTypes chainTypes,
             ObjList<RecordComparator> comparators,
             ObjList<ObjList<AnalyticFunction>> orderedFunctions,
             @Nullable ObjList<AnalyticFunction> unorderedFunctions,
@@ -64,12 +66,13 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     ) {
         super(metadata);
         this.base = base;
+        this.chainMetadata = chainMetadata;
         this.orderedGroupCount = comparators.size();
         assert orderedGroupCount == orderedFunctions.size();
         this.orderedFunctions = orderedFunctions;
         this.comparators = comparators;
         RecordChain recordChain = new RecordChain(
-                chainMetadata,
+                chainTypes,
                 recordSink,
                 configuration.getSqlAnalyticStorePageSize(),
                 configuration.getSqlAnalyticStoreMaxPages()
@@ -106,6 +109,11 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         return base.followedOrderByAdvice();
     }
 
+    @Override
+    public String getBaseColumnName(int idx) {
+        return chainMetadata.getColumnName(idx);
+    }
+
     @Override
     public RecordCursorFactory getBaseFactory() {
         return base;
@@ -126,7 +134,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("CachedAnalytic");
-        sink.optAttr("functions", allFunctions);
+        sink.optAttr("functions", allFunctions, true);
         sink.child(base);
     }
 
@@ -284,6 +292,19 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 }
             }
 
+            // run pass2 for functions that need to see all rows of the partition first
+            for (int j = 0, n = allFunctions.size(); j < n; j++) {
+                final AnalyticFunction f = allFunctions.getQuick(j);
+                if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                    f.preparePass2();
+                    recordChain.toTop();
+                    while (recordChain.hasNext()) {
+                        circuitBreaker.statefulThrowExceptionIfTripped();
+                        f.pass2(chainRecord, chainRecord.getRowId(), recordChain);
+                    }
+                }
+            }
+
             recordChain.toTop();
         }
 
@@ -36,6 +36,25 @@ public interface GroupByFunction extends Function, Mutable {
     default void clear() {
     }
 
+    /**
+     * Aggregates a batch of page frame rows reading the argument values straight from memory,
+     * which saves the per-row {@link #computeNext(MapValue, Record)} calls. The map value is
+     * initialized with {@link #setEmpty(MapValue)} before the first batch. Called only when
+     * {@link #supportsBatchComputation()} returns true.
+     * <p>
+     * The values are either the argument column of the page frame or the argument expression
+     * evaluated by a compiled projection into an off-heap buffer. In the latter case the buffer
+     * holds the values of the batch rows only, so it is passed with zero rowIdsPtr.
+     *
+     * @param mapValue  the value to aggregate into
+     * @param ptr       address of the argument values, ignored by functions without argument
+     * @param rowIdsPtr address of the frame row ids to aggregate, 0 stands for all rows in [0, rowCount) range
+     * @param rowCount  number of rows in the batch
+     */
+    default void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        throw new UnsupportedOperationException();
+    }
+
     void computeFirst(MapValue mapValue, Record record);
 
     void computeNext(MapValue mapValue, Record record);
@@ -58,10 +77,27 @@ public interface GroupByFunction extends Function, Mutable {
         return false;
     }
 
+    /**
+     * Returns true if the function supports parallel execution, i.e. partial aggregates
+     * computed by different workers can be combined with {@link #merge(MapValue, MapValue)}.
+     */
+    default boolean isParallelismSupported() {
+        return false;
+    }
+
     default boolean isScalar() {
         return true;
     }
 
+    /**
+     * Merges partial aggregate held in the source map value into the destination value.
+     * Both values have the structure defined by {@link #pushValueTypes(ArrayColumnTypes)}.
+     * Called only when {@link #isParallelismSupported()} returns true.
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
@@ -93,4 +129,14 @@ public interface GroupByFunction extends Function, Mutable {
     default void setShort(MapValue mapValue, short value) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns true if the function can aggregate page frame rows with
+     * {@link #computeBatch(MapValue, long, long, long)}. Such functions have either
+     * no argument or an argument of a type stored as 8-byte values, i.e. a column
+     * read from the page frame as is or a compiled projection of the same type.
+     */
+    default boolean supportsBatchComputation() {
+        return false;
+    }
 }
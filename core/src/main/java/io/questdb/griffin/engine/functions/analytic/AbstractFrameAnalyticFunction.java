@@ -0,0 +1,394 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.*;
+
+/**
+ * Base class for analytic functions that aggregate double values over a ROWS or RANGE frame,
+ * which ends at or before the current row, e.g. moving average or running sum.
+ * <p>
+ * State of each partition is kept in a map value. Rows that are in the frame, or are yet to
+ * enter it, are kept in a per-partition ring buffer of (timestamp, value) pairs, so that memory
+ * is bounded by the frame size rather than by the partition size. When frame start is
+ * UNBOUNDED PRECEDING rows are folded into the aggregate as soon as they enter the frame
+ * and are not kept afterwards.
+ * <p>
+ * Frame that spans the whole partition needs to see all partition rows before the first value
+ * is known. Such functions run in two passes over the cached rows, all other functions can be
+ * computed on the fly.
+ */
+public abstract class AbstractFrameAnalyticFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+    // aggregate specific state: running value and count of rows in it
+    protected static final int COUNT = 6;
+    protected static final int VALUE = 5;
+    private static final int ENTRY_SIZE = 2 * Long.BYTES;
+    private static final int FRAME_SIZE = 4;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int RING_CAPACITY = 1;
+    private static final int RING_HEAD = 2;
+    private static final int RING_OFFSET = 0;
+    private static final int RING_SIZE = 3;
+    private static final ArrayColumnTypes STATE_TYPES = new ArrayColumnTypes();
+    protected final Function arg;
+    protected final boolean frameLoBounded;
+    private final long frameHi;
+    private final long frameLo;
+    private final int initialCapacity;
+    private final Map map;
+    private final String name;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final MemoryARW ring;
+    private final SimpleMapValue simpleValue;
+    private final int timestampIndex;
+    private final boolean wholePartition;
+    private int columnIndex;
+    private double value;
+
+    protected AbstractFrameAnalyticFunction(
+            String name,
+            Function arg,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            long frameLo,
+            long frameHi,
+            int timestampIndex
+    ) {
+        this.name = name;
+        this.arg = arg;
+        this.frameLo = frameLo;
+        this.frameHi = frameHi;
+        this.frameLoBounded = frameLo != AnalyticColumn.FRAME_UNBOUNDED_PRECEDING;
+        this.wholePartition = frameHi == AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING;
+        this.timestampIndex = timestampIndex;
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), STATE_TYPES);
+            this.simpleValue = null;
+        } else {
+            this.map = null;
+            this.simpleValue = new SimpleMapValue(STATE_TYPES.getColumnCount());
+            this.simpleValue.setNew(true);
+        }
+        this.ring = Vm.getARWInstance(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                MemoryTag.NATIVE_DEFAULT
+        );
+
+        // ring has to hold rows between frame start and the current row
+        if (timestampIndex == -1) {
+            final long rows = frameLoBounded ? 2 - frameLo : 2 - frameHi;
+            this.initialCapacity = (int) Math.min(INITIAL_CAPACITY, Numbers.ceilPow2(rows));
+        } else {
+            this.initialCapacity = INITIAL_CAPACITY;
+        }
+    }
+
+    public static AnalyticContext getAnalyticContext(int position, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        return analyticContext;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(arg);
+        Misc.free(map);
+        Misc.free(ring);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        final MapValue value = getPartitionValue(record);
+        final double d = arg.getDouble(record);
+        if (wholePartition) {
+            include(value, d);
+            return;
+        }
+
+        final long timestamp = timestampIndex != -1 ? record.getTimestamp(timestampIndex) : 0;
+        append(value, timestamp, d);
+
+        long size = value.getLong(RING_SIZE);
+        long frameSize = value.getLong(FRAME_SIZE);
+        // rows that have entered the frame
+        while (frameSize < size && !isAfterFrame(value, frameSize, size, timestamp)) {
+            include(value, getFrameValue(value, frameSize));
+            frameSize++;
+        }
+
+        // rows that have left the frame
+        boolean rebuild = false;
+        if (frameLoBounded) {
+            while (size > 0 && isBeforeFrame(value, size, timestamp)) {
+                if (frameSize > 0) {
+                    rebuild |= !exclude(value, getFrameValue(value, 0));
+                    frameSize--;
+                }
+                popFront(value);
+                size--;
+            }
+        } else {
+            // rows never leave frame that starts at the partition start, their values are in the aggregate already
+            while (frameSize > 0) {
+                popFront(value);
+                frameSize--;
+            }
+        }
+        value.putLong(FRAME_SIZE, frameSize);
+
+        if (rebuild) {
+            clear(value);
+            for (long i = 0; i < frameSize; i++) {
+                include(value, getFrameValue(value, i));
+            }
+        }
+        this.value = getResult(value);
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return value;
+    }
+
+    @Override
+    public int getPassCount() {
+        return wholePartition ? TWO_PASS : ZERO_PASS;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        // arguments are resolved against the analytic factory's metadata, which supplies no symbol tables
+        toTop();
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        computeNext(record);
+        if (!wholePartition) {
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), value);
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), getResult(getPartitionValue(record)));
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        } else {
+            simpleValue.setNew(true);
+        }
+    }
+
+    @Override
+    public void reset() {
+        Misc.free(map);
+        Misc.free(ring);
+        if (simpleValue != null) {
+            simpleValue.setNew(true);
+        }
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name).val('(').val(arg).val(')');
+    }
+
+    @Override
+    public void toTop() {
+        if (map != null) {
+            map.clear();
+        } else {
+            simpleValue.setNew(true);
+        }
+        ring.truncate();
+    }
+
+    private void append(MapValue value, long timestamp, double d) {
+        long capacity = value.getLong(RING_CAPACITY);
+        long head = value.getLong(RING_HEAD);
+        final long size = value.getLong(RING_SIZE);
+        long offset = value.getLong(RING_OFFSET);
+        if (size == capacity) {
+            // abandon current buffer and copy rows into one twice the size, space is reclaimed on toTop()
+            final long newOffset = allocate(capacity * 2);
+            for (long i = 0; i < size; i++) {
+                final long src = offset + ((head + i) & (capacity - 1)) * ENTRY_SIZE;
+                final long dst = newOffset + i * ENTRY_SIZE;
+                ring.putLong(dst, ring.getLong(src));
+                ring.putLong(dst + Long.BYTES, ring.getLong(src + Long.BYTES));
+            }
+            offset = newOffset;
+            capacity *= 2;
+            head = 0;
+            value.putLong(RING_OFFSET, offset);
+            value.putLong(RING_CAPACITY, capacity);
+            value.putLong(RING_HEAD, head);
+        }
+        final long dst = offset + ((head + size) & (capacity - 1)) * ENTRY_SIZE;
+        ring.putLong(dst, timestamp);
+        ring.putDouble(dst + Long.BYTES, d);
+        value.putLong(RING_SIZE, size + 1);
+    }
+
+    private long allocate(long capacity) {
+        final long offset = ring.getAppendOffset();
+        ring.skip(capacity * ENTRY_SIZE);
+        return offset;
+    }
+
+    private long getEntryOffset(MapValue value, long index) {
+        final long capacity = value.getLong(RING_CAPACITY);
+        return value.getLong(RING_OFFSET) + ((value.getLong(RING_HEAD) + index) & (capacity - 1)) * ENTRY_SIZE;
+    }
+
+    private MapValue getPartitionValue(Record record) {
+        final MapValue value;
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            value = key.createValue();
+        } else {
+            value = simpleValue;
+        }
+
+        if (value.isNew()) {
+            if (!wholePartition) {
+                value.putLong(RING_OFFSET, allocate(initialCapacity));
+                value.putLong(RING_CAPACITY, initialCapacity);
+                value.putLong(RING_HEAD, 0);
+                value.putLong(RING_SIZE, 0);
+                value.putLong(FRAME_SIZE, 0);
+            }
+            clear(value);
+            if (simpleValue != null) {
+                simpleValue.setNew(false);
+            }
+        }
+        return value;
+    }
+
+    private boolean isAfterFrame(MapValue value, long index, long size, long timestamp) {
+        if (timestampIndex == -1) {
+            return size - 1 - index < -frameHi;
+        }
+        return timestamp - ring.getLong(getEntryOffset(value, index)) < -frameHi;
+    }
+
+    private boolean isBeforeFrame(MapValue value, long size, long timestamp) {
+        if (timestampIndex == -1) {
+            return size - 1 > -frameLo;
+        }
+        return timestamp - ring.getLong(getEntryOffset(value, 0)) > -frameLo;
+    }
+
+    private void popFront(MapValue value) {
+        value.putLong(RING_HEAD, (value.getLong(RING_HEAD) + 1) & (value.getLong(RING_CAPACITY) - 1));
+        value.addLong(RING_SIZE, -1);
+    }
+
+    protected void clear(MapValue value) {
+        value.putDouble(VALUE, Double.NaN);
+        value.putLong(COUNT, 0);
+    }
+
+    /**
+     * Removes value of the row that left the frame from the aggregate.
+     *
+     * @return false when aggregate cannot be updated incrementally and has to be rebuilt from the rows in the frame
+     */
+    protected abstract boolean exclude(MapValue value, double d);
+
+    /**
+     * @param index position of the row in the frame, 0 being the earliest row
+     * @return value of the row in the frame
+     */
+    protected double getFrameValue(MapValue value, long index) {
+        return ring.getDouble(getEntryOffset(value, index) + Long.BYTES);
+    }
+
+    protected long getFrameSize(MapValue value) {
+        return value.getLong(FRAME_SIZE);
+    }
+
+    protected abstract double getResult(MapValue value);
+
+    protected abstract void include(MapValue value, double d);
+
+    static {
+        STATE_TYPES.add(ColumnType.LONG); // RING_OFFSET
+        STATE_TYPES.add(ColumnType.LONG); // RING_CAPACITY
+        STATE_TYPES.add(ColumnType.LONG); // RING_HEAD
+        STATE_TYPES.add(ColumnType.LONG); // RING_SIZE
+        STATE_TYPES.add(ColumnType.LONG); // FRAME_SIZE
+        STATE_TYPES.add(ColumnType.DOUBLE); // VALUE
+        STATE_TYPES.add(ColumnType.LONG); // COUNT
+    }
+}
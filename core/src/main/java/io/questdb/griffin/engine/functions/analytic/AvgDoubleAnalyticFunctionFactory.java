@@ -0,0 +1,111 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+public class AvgDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "avg";
+
+    @Override
+    public String getSignature() {
+        return NAME + "(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AbstractFrameAnalyticFunction.getAnalyticContext(position, sqlExecutionContext);
+        return new AvgFunction(
+                args.getQuick(0),
+                configuration,
+                analyticContext,
+                analyticContext.getFrameLo(),
+                analyticContext.getFrameHi(),
+                analyticContext.getTimestampIndex()
+        );
+    }
+
+    private static class AvgFunction extends AbstractFrameAnalyticFunction {
+
+        AvgFunction(
+                Function arg,
+                CairoConfiguration configuration,
+                AnalyticContext analyticContext,
+                long frameLo,
+                long frameHi,
+                int timestampIndex
+        ) {
+            super(NAME, arg, configuration, analyticContext, frameLo, frameHi, timestampIndex);
+        }
+
+        @Override
+        protected boolean exclude(MapValue value, double d) {
+            if (Numbers.isFinite(d)) {
+                value.addDouble(VALUE, -d);
+                value.addLong(COUNT, -1);
+            }
+            return true;
+        }
+
+        @Override
+        protected double getResult(MapValue value) {
+            final long count = value.getLong(COUNT);
+            return count > 0 ? value.getDouble(VALUE) / count : Double.NaN;
+        }
+
+        @Override
+        protected void include(MapValue value, double d) {
+            if (Numbers.isFinite(d)) {
+                if (value.getLong(COUNT) > 0) {
+                    value.addDouble(VALUE, d);
+                } else {
+                    value.putDouble(VALUE, d);
+                }
+                value.addLong(COUNT, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+
+public class LagDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lag";
+
+    static Function newInstance(
+            int position,
+            Function arg,
+            int offset,
+            int offsetPosition,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AbstractFrameAnalyticFunction.getAnalyticContext(position, sqlExecutionContext);
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "offset must be a non-negative integer");
+        }
+        // lag ignores frame clause, value of the row that is offset rows before the current one
+        // is the last value of "rows between offset preceding and offset preceding" frame
+        return new LagFunction(arg, configuration, analyticContext, offset);
+    }
+
+    @Override
+    public String getSignature() {
+        return NAME + "(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        return newInstance(position, args.getQuick(0), 1, 0, configuration, sqlExecutionContext);
+    }
+
+    private static class LagFunction extends LastValueDoubleAnalyticFunctionFactory.LastValueFunction {
+        private final int offset;
+
+        LagFunction(Function arg, CairoConfiguration configuration, AnalyticContext analyticContext, int offset) {
+            super(NAME, arg, configuration, analyticContext, -offset, -offset, -1);
+            this.offset = offset;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME).val('(').val(arg).val(',').val(offset).val(')');
+        }
+    }
+}
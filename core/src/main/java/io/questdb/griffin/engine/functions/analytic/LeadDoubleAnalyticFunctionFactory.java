@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.*;
+
+public class LeadDoubleAnalyticFunctionFactory implements FunctionFactory {
+
+    private static final String NAME = "lead";
+    private static final ArrayColumnTypes STATE_TYPES = new ArrayColumnTypes();
+
+    static Function newInstance(
+            int position,
+            Function arg,
+            int offset,
+            int offsetPosition,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = AbstractFrameAnalyticFunction.getAnalyticContext(position, sqlExecutionContext);
+        if (offset < 0) {
+            throw SqlException.$(offsetPosition, "offset must be a non-negative integer");
+        }
+        return new LeadFunction(arg, configuration, analyticContext, offset);
+    }
+
+    @Override
+    public String getSignature() {
+        return NAME + "(D)";
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        return newInstance(position, args.getQuick(0), 1, 0, configuration, sqlExecutionContext);
+    }
+
+    /**
+     * Value of the row that comes offset rows after the current one is not known until that row
+     * is seen, so lead() cannot be streamed. Instead, it writes null into the current row and
+     * keeps offsets of the last rows of each partition in a ring buffer. When a row arrives,
+     * its value is written into the row that is offset rows before it.
+     */
+    private static class LeadFunction extends DoubleFunction implements ScalarFunction, AnalyticFunction, Reopenable {
+        private static final int RING_HEAD = 1;
+        private static final int RING_OFFSET = 0;
+        private static final int RING_SIZE = 2;
+        private final Function arg;
+        private final Map map;
+        private final int offset;
+        private final VirtualRecord partitionByRecord;
+        private final RecordSink partitionBySink;
+        private final MemoryARW ring;
+        private final SimpleMapValue simpleValue;
+        private int columnIndex;
+
+        LeadFunction(Function arg, CairoConfiguration configuration, AnalyticContext analyticContext, int offset) {
+            this.arg = arg;
+            this.offset = offset;
+            this.partitionByRecord = analyticContext.getPartitionByRecord();
+            this.partitionBySink = analyticContext.getPartitionBySink();
+            if (partitionByRecord != null) {
+                this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), STATE_TYPES);
+                this.simpleValue = null;
+            } else {
+                this.map = null;
+                this.simpleValue = new SimpleMapValue(STATE_TYPES.getColumnCount());
+                this.simpleValue.setNew(true);
+            }
+            this.ring = Vm.getARWInstance(
+                    configuration.getSqlAnalyticStorePageSize(),
+                    configuration.getSqlAnalyticStoreMaxPages(),
+                    MemoryTag.NATIVE_DEFAULT
+            );
+        }
+
+        @Override
+        public void close() {
+            Misc.free(arg);
+            Misc.free(map);
+            Misc.free(ring);
+            if (partitionByRecord != null) {
+                Misc.freeObjList(partitionByRecord.getFunctions());
+            }
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            // not called
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            final double d = arg.getDouble(record);
+            if (offset == 0) {
+                Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), d);
+                return;
+            }
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), Double.NaN);
+
+            final MapValue value = getPartitionValue(record);
+            final long ringOffset = value.getLong(RING_OFFSET);
+            final long head = value.getLong(RING_HEAD);
+            final long size = value.getLong(RING_SIZE);
+            if (size == offset) {
+                // the earliest row in the ring is offset rows before the current one
+                final long slot = ringOffset + head * Long.BYTES;
+                Unsafe.getUnsafe().putDouble(spi.getAddress(ring.getLong(slot), columnIndex), d);
+                ring.putLong(slot, recordOffset);
+                value.putLong(RING_HEAD, (head + 1) % offset);
+            } else {
+                ring.putLong(ringOffset + ((head + size) % offset) * Long.BYTES, recordOffset);
+                value.putLong(RING_SIZE, size + 1);
+            }
+        }
+
+        @Override
+        public void reopen() {
+            if (map != null) {
+                map.reopen();
+            } else {
+                simpleValue.setNew(true);
+            }
+        }
+
+        @Override
+        public void reset() {
+            Misc.free(map);
+            Misc.free(ring);
+            if (simpleValue != null) {
+                simpleValue.setNew(true);
+            }
+        }
+
+        @Override
+        public void setColumnIndex(int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(NAME).val('(').val(arg).val(',').val(offset).val(')');
+        }
+
+        private MapValue getPartitionValue(Record record) {
+            final MapValue value;
+            if (map != null) {
+                partitionByRecord.of(record);
+                final MapKey key = map.withKey();
+                key.put(partitionByRecord, partitionBySink);
+                value = key.createValue();
+            } else {
+                value = simpleValue;
+            }
+
+            if (value.isNew()) {
+                final long ringOffset = ring.getAppendOffset();
+                ring.skip((long) offset * Long.BYTES);
+                value.putLong(RING_OFFSET, ringOffset);
+                value.putLong(RING_HEAD, 0);
+                value.putLong(RING_SIZE, 0);
+                if (simpleValue != null) {
+                    simpleValue.setNew(false);
+                }
+            }
+            return value;
+        }
+    }
+
+    static {
+        STATE_TYPES.add(ColumnType.LONG); // RING_OFFSET
+        STATE_TYPES.add(ColumnType.LONG); // RING_HEAD
+        STATE_TYPES.add(ColumnType.LONG); // RING_SIZE
+    }
+}
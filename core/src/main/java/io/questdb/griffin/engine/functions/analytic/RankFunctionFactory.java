@@ -134,14 +134,6 @@ public class RankFunctionFactory implements FunctionFactory {
             maxIndex++;
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
             reset();
@@ -242,14 +234,6 @@ public class RankFunctionFactory implements FunctionFactory {
             mapValue.putLong(VAL_MAX_INDEX, maxIndex + 1);
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
             map.reopen();
@@ -302,14 +286,6 @@ public class RankFunctionFactory implements FunctionFactory {
             Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), 1);
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
         }
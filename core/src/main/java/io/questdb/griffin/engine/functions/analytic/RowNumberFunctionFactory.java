@@ -116,14 +116,6 @@ public class RowNumberFunctionFactory implements FunctionFactory {
             Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), next++);
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
             reset();
@@ -194,14 +186,6 @@ public class RowNumberFunctionFactory implements FunctionFactory {
             Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), x + 1);
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
             map.reopen();
@@ -247,14 +231,6 @@ public class RowNumberFunctionFactory implements FunctionFactory {
             Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), next++);
         }
 
-        @Override
-        public void pass2(Record record) {
-        }
-
-        @Override
-        public void preparePass2(RecordCursor cursor) {
-        }
-
         @Override
         public void reopen() {
             toTop();
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.bind;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.model.IntervalOperation;
+import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.std.LongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * Timestamp IN interval string used in SQL JIT. The string, a constant or a bind variable,
+ * is parsed on init, the compiled filter receives the address of the resulting intervals.
+ * <p>
+ * Intervals layout: long interval count, followed by sorted non-overlapping [lo, hi] pairs of longs.
+ * Null and invalid strings produce no intervals, i.e. match no rows, same as the Java filter.
+ */
+public class CompiledFilterIntervalsBindVariable extends LongFunction {
+
+    private final Function intervalFunction;
+    private final LongList intervals = new LongList();
+    private final int position;
+    private long address;
+    private long size;
+
+    public CompiledFilterIntervalsBindVariable(Function intervalFunction, int position) {
+        this.intervalFunction = intervalFunction;
+        this.position = position;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(intervalFunction);
+        address = Unsafe.free(address, size, MemoryTag.NATIVE_JIT);
+        size = 0;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return address;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        intervalFunction.init(symbolTableSource, executionContext);
+        intervals.clear();
+        final CharSequence seq = intervalFunction.getStr(null);
+        if (seq != null) {
+            try {
+                IntervalUtils.parseIntervalEx(seq, 0, seq.length(), position, intervals, IntervalOperation.INTERSECT);
+                IntervalUtils.applyLastEncodedIntervalEx(intervals);
+            } catch (SqlException e) {
+                intervals.clear();
+            }
+        }
+        final int intervalCount = intervals.size() / 2;
+        final long requiredSize = Long.BYTES + (long) intervalCount * 2 * Long.BYTES;
+        if (requiredSize > size) {
+            address = address == 0
+                    ? Unsafe.malloc(requiredSize, MemoryTag.NATIVE_JIT)
+                    : Unsafe.realloc(address, size, requiredSize, MemoryTag.NATIVE_JIT);
+            size = requiredSize;
+        }
+        Unsafe.getUnsafe().putLong(address, intervalCount);
+        for (int i = 0, n = intervals.size(); i < n; i++) {
+            Unsafe.getUnsafe().putLong(address + Long.BYTES + (long) i * Long.BYTES, intervals.getQuick(i));
+        }
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(intervalFunction);
+    }
+}
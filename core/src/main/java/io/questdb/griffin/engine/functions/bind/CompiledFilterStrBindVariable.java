@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.bind;
+
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+/**
+ * String constant or bind variable compared with a string column in SQL JIT. The value is copied
+ * off-heap on init, the compiled filter receives its address.
+ * <p>
+ * The value is laid out the same way as in the string column data: int length (-1 for null)
+ * followed by UTF-16 chars.
+ */
+public class CompiledFilterStrBindVariable extends LongFunction {
+
+    private final Function strFunction;
+    private long address;
+    private long size;
+
+    public CompiledFilterStrBindVariable(Function strFunction) {
+        this.strFunction = strFunction;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(strFunction);
+        address = Unsafe.free(address, size, MemoryTag.NATIVE_JIT);
+        size = 0;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return address;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        strFunction.init(symbolTableSource, executionContext);
+        final CharSequence value = strFunction.getStr(null);
+        final int len = value != null ? value.length() : 0;
+        final long requiredSize = Integer.BYTES + (long) len * Character.BYTES;
+        if (requiredSize > size) {
+            address = address == 0
+                    ? Unsafe.malloc(requiredSize, MemoryTag.NATIVE_JIT)
+                    : Unsafe.realloc(address, size, requiredSize, MemoryTag.NATIVE_JIT);
+            size = requiredSize;
+        }
+        if (value == null) {
+            Unsafe.getUnsafe().putInt(address, TableUtils.NULL_LEN);
+            return;
+        }
+        Unsafe.getUnsafe().putInt(address, len);
+        for (int i = 0; i < len; i++) {
+            Unsafe.getUnsafe().putChar(address + Integer.BYTES + (long) i * Character.BYTES, value.charAt(i));
+        }
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(strFunction);
+    }
+}
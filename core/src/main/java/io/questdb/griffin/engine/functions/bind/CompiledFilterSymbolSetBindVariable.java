@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.bind;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.std.*;
+
+/**
+ * Symbol IN list used in SQL JIT. The listed values are resolved to symbol keys on init,
+ * the compiled filter receives the address of the resulting key set.
+ * <p>
+ * Key set layout: int key count, int null flag (1 when the list has null), followed by a bitset
+ * of longs with a bit per symbol key.
+ */
+public class CompiledFilterSymbolSetBindVariable extends LongFunction {
+
+    private final int columnIndex;
+    private final ObjList<Function> valueFunctions;
+    private long address;
+    private long size;
+
+    public CompiledFilterSymbolSetBindVariable(ObjList<Function> valueFunctions, int columnIndex) {
+        this.valueFunctions = valueFunctions;
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(valueFunctions);
+        address = Unsafe.free(address, size, MemoryTag.NATIVE_JIT);
+        size = 0;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return address;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        Function.init(valueFunctions, symbolTableSource, executionContext);
+        final StaticSymbolTable symbolTable = (StaticSymbolTable) symbolTableSource.getSymbolTable(columnIndex);
+        final int keyCount = symbolTable.getSymbolCount();
+        final long requiredSize = 2 * Integer.BYTES + (long) ((keyCount + 63) >>> 6) * Long.BYTES;
+        if (requiredSize > size) {
+            address = address == 0
+                    ? Unsafe.malloc(requiredSize, MemoryTag.NATIVE_JIT)
+                    : Unsafe.realloc(address, size, requiredSize, MemoryTag.NATIVE_JIT);
+            size = requiredSize;
+        }
+        Vect.memset(address, size, 0);
+        Unsafe.getUnsafe().putInt(address, keyCount);
+        for (int i = 0, n = valueFunctions.size(); i < n; i++) {
+            final int key = symbolTable.keyOf(valueFunctions.getQuick(i).getStr(null));
+            if (key == SymbolTable.VALUE_IS_NULL) {
+                Unsafe.getUnsafe().putInt(address + Integer.BYTES, 1);
+            } else if (key > -1 && key < keyCount) {
+                final long wordAddress = address + 2 * Integer.BYTES + (long) (key >>> 6) * Long.BYTES;
+                Unsafe.getUnsafe().putLong(wordAddress, Unsafe.getUnsafe().getLong(wordAddress) | (1L << key));
+            }
+        }
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(valueFunctions);
+    }
+}
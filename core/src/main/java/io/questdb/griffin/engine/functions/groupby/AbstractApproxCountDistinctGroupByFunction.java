@@ -0,0 +1,237 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Base class for approx_count_distinct() functions. The estimate is computed with
+ * HyperLogLog algorithm. Registers are one byte each and are packed eight per LONG
+ * column, so they live in the map value next to the other aggregates and take
+ * 2^precision bytes per group regardless of the column cardinality.
+ * <p>
+ * Value layout: BYTE null flag followed by 2^precision / 8 LONG columns with registers.
+ */
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements UnaryFunction, GroupByFunction {
+    public static final int DEFAULT_PRECISION = 12;
+    public static final int MAX_PRECISION = 16;
+    public static final int MIN_PRECISION = 4;
+    private static final double[] INV_POW2 = new double[Long.SIZE + 1];
+    protected final Function arg;
+    private final double alphaMM;
+    private final int precision;
+    private final int registerColumnCount;
+    private final int registerCount;
+    private int valueIndex;
+
+    protected AbstractApproxCountDistinctGroupByFunction(Function arg, int precision) {
+        this.arg = arg;
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.registerColumnCount = registerCount >>> 3;
+        final double alpha;
+        switch (registerCount) {
+            case 16:
+                alpha = 0.673;
+                break;
+            case 32:
+                alpha = 0.697;
+                break;
+            case 64:
+                alpha = 0.709;
+                break;
+            default:
+                alpha = 0.7213 / (1.0 + 1.079 / registerCount);
+                break;
+        }
+        this.alphaMM = alpha * registerCount * registerCount;
+    }
+
+    public static int getPrecision(ObjList<Function> args, IntList argPositions) throws SqlException {
+        final int precision = args.getQuick(1).getInt(null);
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw SqlException.$(argPositions.getQuick(1), "precision must be between ")
+                    .put(MIN_PRECISION).put(" and ").put(MAX_PRECISION);
+        }
+        return precision;
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        setEmpty(mapValue);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        if (rec.getByte(valueIndex) != 0) {
+            return Numbers.LONG_NaN;
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < registerColumnCount; i++) {
+            final long registers = rec.getLong(valueIndex + 1 + i);
+            if (registers == 0) {
+                sum += 8;
+                zeros += 8;
+                continue;
+            }
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                final int register = (int) (registers >>> shift) & 0xff;
+                sum += INV_POW2[register];
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+
+        final double estimate = alphaMM / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            // small range correction, use linear counting
+            return Math.round(registerCount * Math.log((double) registerCount / zeros));
+        }
+        // 64-bit hashes make large range correction unnecessary
+        return Math.round(estimate);
+    }
+
+    @Override
+    public String getName() {
+        return "approx_count_distinct";
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0; i < registerColumnCount; i++) {
+            final int index = valueIndex + 1 + i;
+            final long src = srcValue.getLong(index);
+            if (src == 0) {
+                continue;
+            }
+            final long dest = destValue.getLong(index);
+            long merged = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                final long mask = 0xffL << shift;
+                merged |= Math.max(dest & mask, src & mask);
+            }
+            destValue.putLong(index, merged);
+        }
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.BYTE);
+        for (int i = 0; i < registerColumnCount; i++) {
+            columnTypes.add(ColumnType.LONG);
+        }
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        mapValue.putByte(valueIndex, (byte) 0);
+        for (int i = 0; i < registerColumnCount; i++) {
+            mapValue.putLong(valueIndex + 1 + i, 0);
+        }
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putByte(valueIndex, (byte) 1);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(getName()).val('(').val(arg);
+        if (precision != DEFAULT_PRECISION) {
+            sink.val(',').val(precision);
+        }
+        sink.val(')');
+    }
+
+    /**
+     * Final step of MurmurHash3, makes sure that all bits of the hash depend on all
+     * bits of the input. HyperLogLog relies on both, the leading bits of the hash
+     * and the number of leading zeros in the remaining bits.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    protected void add(MapValue mapValue, long value) {
+        final long hash = mix(value);
+        final int registerIndex = (int) (hash >>> (Long.SIZE - precision));
+        // guard bit limits the rank when the remaining hash bits are all zeros
+        final int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        final int index = valueIndex + 1 + (registerIndex >>> 3);
+        final int shift = (registerIndex & 7) << 3;
+        final long registers = mapValue.getLong(index);
+        if (rank > ((registers >>> shift) & 0xff)) {
+            mapValue.putLong(index, (registers & ~(0xffL << shift)) | ((long) rank << shift));
+        }
+    }
+
+    protected void add(MapValue mapValue, long lo, long hi) {
+        add(mapValue, mix(lo) + hi);
+    }
+
+    static {
+        for (int i = 0; i < INV_POW2.length; i++) {
+            INV_POW2[i] = Math.pow(2, -i);
+        }
+    }
+}
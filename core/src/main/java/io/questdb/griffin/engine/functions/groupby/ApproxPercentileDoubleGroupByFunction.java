@@ -0,0 +1,324 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Approximate percentile backed by a DDSketch-style histogram. Values are counted in
+ * logarithmic buckets, so the returned percentile is within {@link #RELATIVE_ACCURACY}
+ * of an actual value. Positive and negative values have separate stores of at most
+ * {@link #MAX_BUCKET_COUNT} counters each, which covers magnitudes within a factor of
+ * about 10^35 from the largest seen one. Smaller magnitudes are collapsed into the lowest
+ * bucket, which only affects accuracy of percentiles falling into that bucket.
+ * <p>
+ * Stores are allocated off-heap on the first value of their sign and grow with the range
+ * of seen magnitudes, so the map value holds just their addresses. Collapsing depends on
+ * the largest magnitude only, hence merged partial aggregates produce exactly the same
+ * histogram as a single pass over the same rows. The stores are owned by the function
+ * instance that allocated them and are released on {@link #clear()}.
+ * <p>
+ * Value layout: LONG count, LONG zero count, LONG positive store address, LONG negative
+ * store address. Store layout: INT lowest bucket index, INT capacity, INT largest bucket
+ * index, INT store slot in the owner's list, then capacity LONG counters.
+ */
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
+    public static final int MAX_BUCKET_COUNT = 2048;
+    public static final double RELATIVE_ACCURACY = 0.02;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final int INITIAL_BUCKET_COUNT = 8;
+    private static final double LN_GAMMA = Math.log(GAMMA);
+    private static final int STORE_CAPACITY_OFFSET = 4;
+    private static final int STORE_COUNTERS_OFFSET = 16;
+    private static final int STORE_LOW_OFFSET = 0;
+    private static final int STORE_MAX_OFFSET = 8;
+    private static final int STORE_SLOT_OFFSET = 12;
+    private static final double VALUE_MULTIPLIER = 2 / (1 + GAMMA);
+    private final Function arg;
+    private final String name;
+    private final double percentile;
+    // addresses of the stores allocated by this instance
+    private final LongList stores = new LongList();
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(@NotNull Function arg, double percentile, @NotNull String name) {
+        this.arg = arg;
+        this.percentile = percentile;
+        this.name = name;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = stores.size(); i < n; i++) {
+            final long store = stores.getQuick(i);
+            Unsafe.free(store, storeSize(Unsafe.getUnsafe().getInt(store + STORE_CAPACITY_OFFSET)), MemoryTag.NATIVE_FUNC_RSS);
+        }
+        stores.clear();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        UnaryFunction.super.close();
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        setEmpty(mapValue);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        final double d = arg.getDouble(record);
+        if (Numbers.isFinite(d)) {
+            if (d > 0) {
+                addToStore(mapValue, valueIndex + 2, index(d), 1);
+            } else if (d < 0) {
+                addToStore(mapValue, valueIndex + 3, index(-d), 1);
+            } else {
+                mapValue.addLong(valueIndex + 1, 1);
+            }
+            mapValue.addLong(valueIndex, 1);
+        }
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long count = rec.getLong(valueIndex);
+        if (count <= 0) {
+            // empty or null
+            return Double.NaN;
+        }
+
+        final long rank = (long) (percentile * (count - 1));
+        long seen = 0;
+
+        // negative values go first, starting with the largest magnitude
+        final long negativeStore = rec.getLong(valueIndex + 3);
+        if (negativeStore != 0) {
+            final int low = Unsafe.getUnsafe().getInt(negativeStore + STORE_LOW_OFFSET);
+            for (int i = Unsafe.getUnsafe().getInt(negativeStore + STORE_CAPACITY_OFFSET) - 1; i > -1; i--) {
+                seen += Unsafe.getUnsafe().getLong(counterAddress(negativeStore, i));
+                if (seen > rank) {
+                    return -value(low + i);
+                }
+            }
+        }
+
+        seen += rec.getLong(valueIndex + 1);
+        if (seen > rank) {
+            return 0;
+        }
+
+        final long positiveStore = rec.getLong(valueIndex + 2);
+        final int low = Unsafe.getUnsafe().getInt(positiveStore + STORE_LOW_OFFSET);
+        final int max = Unsafe.getUnsafe().getInt(positiveStore + STORE_MAX_OFFSET);
+        for (int i = 0, n = max - low; i < n; i++) {
+            seen += Unsafe.getUnsafe().getLong(counterAddress(positiveStore, i));
+            if (seen > rank) {
+                return value(low + i);
+            }
+        }
+        return value(max);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long count = srcValue.getLong(valueIndex);
+        if (count <= 0) {
+            return;
+        }
+        destValue.addLong(valueIndex, count);
+        destValue.addLong(valueIndex + 1, srcValue.getLong(valueIndex + 1));
+        mergeStore(destValue, srcValue.getLong(valueIndex + 2), valueIndex + 2);
+        mergeStore(destValue, srcValue.getLong(valueIndex + 3), valueIndex + 3);
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG);
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        mapValue.putLong(valueIndex, 0);
+        mapValue.putLong(valueIndex + 1, 0);
+        mapValue.putLong(valueIndex + 2, 0);
+        mapValue.putLong(valueIndex + 3, 0);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        mapValue.putLong(valueIndex, Numbers.LONG_NaN);
+        mapValue.putLong(valueIndex + 2, 0);
+        mapValue.putLong(valueIndex + 3, 0);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name).val('(').val(arg);
+        if (percentile != 0.5) {
+            sink.val(',').val(percentile);
+        }
+        sink.val(')');
+    }
+
+    private static long counterAddress(long store, int counter) {
+        return store + STORE_COUNTERS_OFFSET + (long) counter * Long.BYTES;
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LN_GAMMA);
+    }
+
+    private static long storeSize(int capacity) {
+        return STORE_COUNTERS_OFFSET + (long) capacity * Long.BYTES;
+    }
+
+    private static double value(int index) {
+        return Math.exp(index * LN_GAMMA) * VALUE_MULTIPLIER;
+    }
+
+    private void addToStore(MapValue mapValue, int storeColumn, int index, long count) {
+        long store = mapValue.getLong(storeColumn);
+        if (store == 0) {
+            store = allocateStore(INITIAL_BUCKET_COUNT, index - INITIAL_BUCKET_COUNT / 2, index, stores.size());
+            mapValue.putLong(storeColumn, store);
+        }
+
+        final int low = Unsafe.getUnsafe().getInt(store + STORE_LOW_OFFSET);
+        final int capacity = Unsafe.getUnsafe().getInt(store + STORE_CAPACITY_OFFSET);
+        final int max = Math.max(Unsafe.getUnsafe().getInt(store + STORE_MAX_OFFSET), index);
+        // indexes at or below the lowest bucket are collapsed into it
+        final int lowest = max - MAX_BUCKET_COUNT + 1;
+        final int newLow = Math.max(Math.min(low, index), lowest);
+
+        if (newLow >= low && max < low + capacity) {
+            if (lowest > low) {
+                long collapsed = 0;
+                for (int i = 0, n = lowest - low; i <= n; i++) {
+                    final long counter = counterAddress(store, i);
+                    collapsed += Unsafe.getUnsafe().getLong(counter);
+                    Unsafe.getUnsafe().putLong(counter, 0);
+                }
+                Unsafe.getUnsafe().putLong(counterAddress(store, lowest - low), collapsed);
+            }
+        } else {
+            store = growStore(store, newLow, max, lowest);
+            mapValue.putLong(storeColumn, store);
+        }
+        Unsafe.getUnsafe().putInt(store + STORE_MAX_OFFSET, max);
+        final long counter = counterAddress(store, Math.max(index, lowest) - Unsafe.getUnsafe().getInt(store + STORE_LOW_OFFSET));
+        Unsafe.getUnsafe().putLong(counter, Unsafe.getUnsafe().getLong(counter) + count);
+    }
+
+    private long allocateStore(int capacity, int low, int max, int slot) {
+        final long size = storeSize(capacity);
+        final long store = Unsafe.malloc(size, MemoryTag.NATIVE_FUNC_RSS);
+        Vect.memset(store + STORE_COUNTERS_OFFSET, size - STORE_COUNTERS_OFFSET, 0);
+        Unsafe.getUnsafe().putInt(store + STORE_LOW_OFFSET, low);
+        Unsafe.getUnsafe().putInt(store + STORE_CAPACITY_OFFSET, capacity);
+        Unsafe.getUnsafe().putInt(store + STORE_MAX_OFFSET, max);
+        Unsafe.getUnsafe().putInt(store + STORE_SLOT_OFFSET, slot);
+        stores.extendAndSet(slot, store);
+        return store;
+    }
+
+    /**
+     * Moves store counters to a new store covering [low, max] bucket range. Counters below
+     * the lowest bucket are collapsed into it.
+     */
+    private long growStore(long store, int low, int max, int lowest) {
+        final int capacity = Unsafe.getUnsafe().getInt(store + STORE_CAPACITY_OFFSET);
+        final int span = max - low + 1;
+        final int newCapacity = Math.max(capacity, Numbers.ceilPow2(span));
+        // spare buckets are split evenly between both ends of the range
+        final int newLow = Math.max(low - (newCapacity - span) / 2, max - newCapacity + 1);
+        // the new store takes the slot of the old one
+        final long newStore = allocateStore(newCapacity, newLow, max, Unsafe.getUnsafe().getInt(store + STORE_SLOT_OFFSET));
+
+        final int oldLow = Unsafe.getUnsafe().getInt(store + STORE_LOW_OFFSET);
+        for (int i = 0; i < capacity; i++) {
+            final long count = Unsafe.getUnsafe().getLong(counterAddress(store, i));
+            if (count > 0) {
+                final long counter = counterAddress(newStore, Math.max(oldLow + i, lowest) - newLow);
+                Unsafe.getUnsafe().putLong(counter, Unsafe.getUnsafe().getLong(counter) + count);
+            }
+        }
+        Unsafe.free(store, storeSize(capacity), MemoryTag.NATIVE_FUNC_RSS);
+        return newStore;
+    }
+
+    private void mergeStore(MapValue destValue, long srcStore, int storeColumn) {
+        if (srcStore == 0) {
+            return;
+        }
+        final int srcLow = Unsafe.getUnsafe().getInt(srcStore + STORE_LOW_OFFSET);
+        final int srcMax = Unsafe.getUnsafe().getInt(srcStore + STORE_MAX_OFFSET);
+        // the largest bucket goes first to settle the collapsing threshold of the destination store
+        addToStore(destValue, storeColumn, srcMax, Unsafe.getUnsafe().getLong(counterAddress(srcStore, srcMax - srcLow)));
+        for (int i = srcMax - srcLow - 1; i > -1; i--) {
+            final long count = Unsafe.getUnsafe().getLong(counterAddress(srcStore, i));
+            if (count > 0) {
+                addToStore(destValue, storeColumn, srcLow + i, count);
+            }
+        }
+    }
+}
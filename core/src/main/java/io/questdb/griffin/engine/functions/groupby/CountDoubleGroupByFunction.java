@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.functions.groupby;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
@@ -35,6 +36,18 @@ public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
         super(arg);
     }
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        long count = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long row = rowIdsPtr != 0 ? Unsafe.getUnsafe().getLong(rowIdsPtr + (i << 3)) : i;
+            if (!Double.isNaN(Unsafe.getUnsafe().getDouble(ptr + (row << 3)))) {
+                count++;
+            }
+        }
+        mapValue.addLong(valueIndex, count);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         final double value = arg.getDouble(record);
@@ -52,4 +65,9 @@ public class CountDoubleGroupByFunction extends AbstractCountGroupByFunction {
             mapValue.addLong(valueIndex, 1);
         }
     }
+
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
 }
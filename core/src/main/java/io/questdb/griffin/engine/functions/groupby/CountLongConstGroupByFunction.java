@@ -36,6 +36,11 @@ import io.questdb.std.Numbers;
 public class CountLongConstGroupByFunction extends LongFunction implements GroupByFunction {
     private int valueIndex;
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        mapValue.addLong(valueIndex, rowCount);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putLong(valueIndex, 1L);
@@ -56,6 +61,16 @@ public class CountLongConstGroupByFunction extends LongFunction implements Group
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -77,6 +92,11 @@ public class CountLongConstGroupByFunction extends LongFunction implements Group
         mapValue.putLong(valueIndex, Numbers.LONG_NaN);
     }
 
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val("count(*)");
@@ -28,6 +28,7 @@ import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class CountLongGroupByFunction extends AbstractCountGroupByFunction {
@@ -36,6 +37,18 @@ public class CountLongGroupByFunction extends AbstractCountGroupByFunction {
         super(arg);
     }
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        long count = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long row = rowIdsPtr != 0 ? Unsafe.getUnsafe().getLong(rowIdsPtr + (i << 3)) : i;
+            if (Unsafe.getUnsafe().getLong(ptr + (row << 3)) != Numbers.LONG_NaN) {
+                count++;
+            }
+        }
+        mapValue.addLong(valueIndex, count);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         final long value = arg.getLong(record);
@@ -53,4 +66,9 @@ public class CountLongGroupByFunction extends AbstractCountGroupByFunction {
             mapValue.addLong(valueIndex, 1);
         }
     }
+
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
 }
@@ -90,6 +90,23 @@ public class KSumDoubleGroupByFunction extends DoubleFunction implements GroupBy
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        // Kahan compensated addition of the partial sum and its error term.
+        double sum = destValue.getDouble(valueIndex);
+        double c = destValue.getDouble(valueIndex + 1);
+        double y = srcValue.getDouble(valueIndex) - srcValue.getDouble(valueIndex + 1) - c;
+        double t = sum + y;
+        destValue.putDouble(valueIndex, t);
+        destValue.putDouble(valueIndex + 1, t - sum - y);
+        destValue.addLong(valueIndex + 2, srcValue.getLong(valueIndex + 2));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
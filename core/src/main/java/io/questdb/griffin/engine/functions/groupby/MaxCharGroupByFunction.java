@@ -71,6 +71,20 @@ public class MaxCharGroupByFunction extends CharFunction implements GroupByFunct
         return "max";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        char src = srcValue.getChar(valueIndex);
+        char dest = destValue.getChar(valueIndex);
+        if (src > dest) {
+            destValue.putChar(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
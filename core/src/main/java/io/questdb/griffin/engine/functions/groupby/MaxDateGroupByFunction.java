@@ -72,6 +72,20 @@ public class MaxDateGroupByFunction extends DateFunction implements GroupByFunct
         return "max";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long src = srcValue.getDate(valueIndex);
+        long dest = destValue.getDate(valueIndex);
+        if (src > dest) {
+            destValue.putDate(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -33,6 +33,7 @@ import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class MaxLongGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
@@ -43,6 +44,19 @@ public class MaxLongGroupByFunction extends LongFunction implements GroupByFunct
         this.arg = arg;
     }
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        long max = mapValue.getLong(valueIndex);
+        for (long i = 0; i < rowCount; i++) {
+            final long row = rowIdsPtr != 0 ? Unsafe.getUnsafe().getLong(rowIdsPtr + (i << 3)) : i;
+            final long next = Unsafe.getUnsafe().getLong(ptr + (row << 3));
+            if (next > max) {
+                max = next;
+            }
+        }
+        mapValue.putLong(valueIndex, max);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putLong(valueIndex, arg.getLong(record));
@@ -72,6 +86,20 @@ public class MaxLongGroupByFunction extends LongFunction implements GroupByFunct
         return "max";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long src = srcValue.getLong(valueIndex);
+        long dest = destValue.getLong(valueIndex);
+        if (src > dest) {
+            destValue.putLong(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -87,4 +115,9 @@ public class MaxLongGroupByFunction extends LongFunction implements GroupByFunct
     public void setNull(MapValue mapValue) {
         mapValue.putLong(valueIndex, Numbers.LONG_NaN);
     }
+
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
 }
@@ -72,6 +72,20 @@ public class MaxTimestampGroupByFunction extends TimestampFunction implements Gr
         return rec.getTimestamp(valueIndex);
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long src = srcValue.getTimestamp(valueIndex);
+        long dest = destValue.getTimestamp(valueIndex);
+        if (src > dest) {
+            destValue.putTimestamp(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class MinDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
@@ -42,6 +43,19 @@ public class MinDoubleGroupByFunction extends DoubleFunction implements GroupByF
         this.arg = arg;
     }
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        double min = mapValue.getDouble(valueIndex);
+        for (long i = 0; i < rowCount; i++) {
+            final long row = rowIdsPtr != 0 ? Unsafe.getUnsafe().getLong(rowIdsPtr + (i << 3)) : i;
+            final double next = Unsafe.getUnsafe().getDouble(ptr + (row << 3));
+            if (next < min || Double.isNaN(min)) {
+                min = next;
+            }
+        }
+        mapValue.putDouble(valueIndex, min);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putDouble(valueIndex, arg.getDouble(record));
@@ -71,6 +85,20 @@ public class MinDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return "min";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        double src = srcValue.getDouble(valueIndex);
+        double dest = destValue.getDouble(valueIndex);
+        if (src < dest || Double.isNaN(dest)) {
+            destValue.putDouble(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -86,4 +114,9 @@ public class MinDoubleGroupByFunction extends DoubleFunction implements GroupByF
     public void setNull(MapValue mapValue) {
         mapValue.putDouble(valueIndex, Double.NaN);
     }
+
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
 }
@@ -71,6 +71,20 @@ public class MinFloatGroupByFunction extends FloatFunction implements GroupByFun
         return "min";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        float src = srcValue.getFloat(valueIndex);
+        float dest = destValue.getFloat(valueIndex);
+        if (src < dest || Float.isNaN(dest)) {
+            destValue.putFloat(valueIndex, src);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
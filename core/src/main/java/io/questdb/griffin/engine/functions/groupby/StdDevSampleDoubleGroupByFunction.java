@@ -110,6 +110,37 @@ public class StdDevSampleDoubleGroupByFunction extends DoubleFunction implements
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        final long srcCount = srcValue.getLong(valueIndex + 2);
+        if (srcCount == 0) {
+            return;
+        }
+        final long destCount = destValue.getLong(valueIndex + 2);
+        if (destCount == 0) {
+            destValue.putDouble(valueIndex, srcValue.getDouble(valueIndex));
+            destValue.putDouble(valueIndex + 1, srcValue.getDouble(valueIndex + 1));
+            destValue.putLong(valueIndex + 2, srcCount);
+            return;
+        }
+        // Combine partial results as described by Chan et al.
+        final double srcMean = srcValue.getDouble(valueIndex);
+        final double destMean = destValue.getDouble(valueIndex);
+        final long count = srcCount + destCount;
+        final double delta = srcMean - destMean;
+        final double mean = destMean + delta * srcCount / count;
+        final double sum = destValue.getDouble(valueIndex + 1) + srcValue.getDouble(valueIndex + 1)
+                + delta * delta * ((double) srcCount * destCount / count);
+        destValue.putDouble(valueIndex, mean);
+        destValue.putDouble(valueIndex + 1, sum);
+        destValue.putLong(valueIndex + 2, count);
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -33,6 +33,7 @@ import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
@@ -43,6 +44,27 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
         this.arg = arg;
     }
 
+    @Override
+    public void computeBatch(MapValue mapValue, long ptr, long rowIdsPtr, long rowCount) {
+        double sum = 0;
+        long count = 0;
+        for (long i = 0; i < rowCount; i++) {
+            final long row = rowIdsPtr != 0 ? Unsafe.getUnsafe().getLong(rowIdsPtr + (i << 3)) : i;
+            final double value = Unsafe.getUnsafe().getDouble(ptr + (row << 3));
+            if (Numbers.isFinite(value)) {
+                sum += value;
+                count++;
+            }
+        }
+        if (mapValue.getLong(valueIndex + 1) == 0) {
+            mapValue.putDouble(valueIndex, sum);
+            mapValue.putLong(valueIndex + 1, count);
+        } else {
+            mapValue.addDouble(valueIndex, sum);
+            mapValue.addLong(valueIndex + 1, count);
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         final double value = arg.getDouble(record);
@@ -88,6 +110,17 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addDouble(valueIndex, srcValue.getDouble(valueIndex));
+        destValue.addLong(valueIndex + 1, srcValue.getLong(valueIndex + 1));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -106,4 +139,9 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
         mapValue.putDouble(valueIndex, Double.NaN);
         mapValue.putLong(valueIndex + 1, 0);
     }
+
+    @Override
+    public boolean supportsBatchComputation() {
+        return true;
+    }
 }
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.async.PerWorkerLocks;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Holds partial aggregation state for parallel keyed GROUP BY. Each worker aggregates
+ * page frames into its own map using its own copies of group-by functions. Once all
+ * frames are reduced, the query owner thread merges per-worker maps into the owner map.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable, Reopenable, MapValueMergeFunction {
+
+    private final RecordSink mapSink;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    private final Map ownerMap;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<Map> perWorkerMaps;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+
+    public AsyncGroupByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerFunctions
+    ) {
+        final int workerCount = perWorkerFunctions.size();
+        assert workerCount > 0;
+        this.mapSink = mapSink;
+        this.ownerFunctions = ownerFunctions;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        this.perWorkerMaps = new ObjList<>(workerCount);
+        this.perWorkerUpdaters = new ObjList<>(workerCount);
+        this.ownerMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
+        try {
+            this.ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, ownerFunctions);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerMaps.extendAndSet(i, MapFactory.createMap(configuration, keyTypes, valueTypes));
+                perWorkerUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerFunctions.getQuick(i)));
+            }
+        } catch (Throwable e) {
+            // Group-by functions are freed by the caller.
+            Misc.free(ownerMap);
+            Misc.freeObjList(perWorkerMaps);
+            throw e;
+        }
+    }
+
+    /**
+     * Acquires a slot holding map and group-by functions for the calling thread.
+     *
+     * @return slot id, -1 stands for the owner map and functions
+     */
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner map anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Clears the maps and releases memory held by the group-by functions.
+     * The maps are closed, so {@link #reopen()} must be called before the next use.
+     */
+    public void clear() {
+        Misc.free(ownerMap);
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.clearObjList(ownerFunctions);
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.clearObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    public Map getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        final boolean current = executionContext.getCloneSymbolTables();
+        executionContext.setCloneSymbolTables(true);
+        try {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+            }
+        } finally {
+            executionContext.setCloneSymbolTables(current);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        // Initialize all per-worker functions on the query owner thread to avoid
+        // DataUnavailableException thrown on worker threads when aggregating.
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Function.initCursor(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = ownerFunctions.size(); i < n; i++) {
+            ownerFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+
+    /**
+     * Merges all per-worker maps into the owner map. Must be called on the query
+     * owner thread once all page frames are reduced.
+     *
+     * @return the owner map holding the final aggregation results
+     */
+    public Map mergeWorkerMaps() {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final Map workerMap = perWorkerMaps.getQuick(i);
+            if (workerMap.size() > 0) {
+                ownerMap.merge(workerMap, this);
+                workerMap.clear();
+            }
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    @Override
+    public void reopen() {
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+    }
+}
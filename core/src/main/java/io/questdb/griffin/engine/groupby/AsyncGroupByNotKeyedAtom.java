@@ -0,0 +1,294 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.async.PerWorkerLocks;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
+import io.questdb.griffin.engine.functions.columns.LongColumn;
+import io.questdb.griffin.engine.table.AsyncJitFilterAtom;
+import io.questdb.jit.CompiledProjection;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Holds partial aggregation state for parallel non-keyed GROUP BY. Each worker aggregates
+ * page frames into its own {@link SimpleMapValue} using its own copies of group-by functions.
+ * Once all frames are reduced, the query owner thread merges per-worker values into the owner
+ * value. A value stays "new" until it sees the first row.
+ * <p>
+ * When the aggregated query has a JIT-compiled filter, the filter is fused with the aggregation:
+ * each page frame is filtered right before it is aggregated. If all group-by functions support
+ * batch computation, matching rows are aggregated straight from the column memory. Arithmetic
+ * arguments, such as {@code sum(price * qty)}, are batch computed when they are compiled into
+ * projections: the projection writes the argument values of the frame rows into a per-slot
+ * buffer and the function aggregates the buffer.
+ */
+public class AsyncGroupByNotKeyedAtom implements StatefulAtom, Closeable {
+
+    // column indexes of batch computation arguments, -1 stands for a function without argument
+    // or with a projected argument; null when one of the functions doesn't support batch computation
+    private final IntList batchColumnIndexes;
+    private final AsyncJitFilterAtom filterAtom;
+    private final ObjList<GroupByFunction> ownerFunctions;
+    // projected argument values of the owner thread, null when there are no projections
+    private final DirectLongList ownerProjectionBuffer;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    private final SimpleMapValue ownerValue;
+    private final ObjList<ObjList<GroupByFunction>> perWorkerFunctions;
+    private final PerWorkerLocks perWorkerLocks;
+    private final ObjList<DirectLongList> perWorkerProjectionBuffers;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+    private final ObjList<SimpleMapValue> perWorkerValues;
+    // compiled arguments of the group-by functions, null entries stand for functions without projection
+    private final ObjList<CompiledProjection> projections;
+
+    AsyncGroupByNotKeyedAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @Nullable AsyncJitFilterAtom filterAtom,
+            @Nullable ObjList<CompiledProjection> projections,
+            int valueCount
+    ) {
+        final int workerCount = perWorkerFunctions.size();
+        assert workerCount > 0;
+        this.filterAtom = filterAtom;
+        this.projections = projections;
+        this.batchColumnIndexes = getBatchColumnIndexes(ownerFunctions, projections);
+        this.ownerFunctions = ownerFunctions;
+        this.perWorkerFunctions = perWorkerFunctions;
+        this.perWorkerLocks = new PerWorkerLocks(configuration, workerCount);
+        this.ownerValue = new SimpleMapValue(valueCount);
+        ownerValue.setNew(true);
+        this.ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, ownerFunctions);
+        this.perWorkerValues = new ObjList<>(workerCount);
+        this.perWorkerUpdaters = new ObjList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            final SimpleMapValue workerValue = new SimpleMapValue(valueCount);
+            workerValue.setNew(true);
+            perWorkerValues.extendAndSet(i, workerValue);
+            perWorkerUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerFunctions.getQuick(i)));
+        }
+        // projected values are needed only when the functions are batch computed
+        if (projections != null && batchColumnIndexes != null) {
+            final long capacity = configuration.getPageFrameReduceRowIdListCapacity();
+            this.ownerProjectionBuffer = new DirectLongList(capacity, MemoryTag.NATIVE_OFFLOAD);
+            this.perWorkerProjectionBuffers = new ObjList<>(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                perWorkerProjectionBuffers.extendAndSet(i, new DirectLongList(capacity, MemoryTag.NATIVE_OFFLOAD));
+            }
+        } else {
+            this.ownerProjectionBuffer = null;
+            this.perWorkerProjectionBuffers = null;
+        }
+    }
+
+    /**
+     * Acquires a slot holding map value and group-by functions for the calling thread.
+     *
+     * @return slot id, -1 stands for the owner value and functions
+     */
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner value anytime.
+            return -1;
+        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
+    }
+
+    /**
+     * Resets the partial aggregation state and releases memory held by the group-by functions.
+     */
+    public void clear() {
+        ownerValue.setNew(true);
+        for (int i = 0, n = perWorkerValues.size(); i < n; i++) {
+            perWorkerValues.getQuick(i).setNew(true);
+        }
+        Misc.clearObjList(ownerFunctions);
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.clearObjList(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    @Override
+    public void close() {
+        // the filter atom is owned by the filter factory
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Misc.freeObjList(perWorkerFunctions.getQuick(i));
+        }
+        Misc.freeObjList(projections);
+        Misc.free(ownerProjectionBuffer);
+        Misc.freeObjList(perWorkerProjectionBuffers);
+    }
+
+    public IntList getBatchColumnIndexes() {
+        return batchColumnIndexes;
+    }
+
+    AsyncJitFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
+    public ObjList<GroupByFunction> getFunctions(int slotId) {
+        if (slotId == -1) {
+            return ownerFunctions;
+        }
+        return perWorkerFunctions.getQuick(slotId);
+    }
+
+    /**
+     * Returns the compiled argument of the group-by function or null if the function has none.
+     */
+    public CompiledProjection getProjection(int functionIndex) {
+        return projections != null ? projections.getQuiet(functionIndex) : null;
+    }
+
+    /**
+     * Returns the buffer for projected argument values of the given slot.
+     */
+    public DirectLongList getProjectionBuffer(int slotId) {
+        if (slotId == -1) {
+            return ownerProjectionBuffer;
+        }
+        return perWorkerProjectionBuffers.getQuick(slotId);
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    public SimpleMapValue getValue(int slotId) {
+        if (slotId == -1) {
+            return ownerValue;
+        }
+        return perWorkerValues.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filterAtom != null) {
+            filterAtom.init(symbolTableSource, executionContext);
+        }
+        final boolean current = executionContext.getCloneSymbolTables();
+        executionContext.setCloneSymbolTables(true);
+        try {
+            for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+                Function.init(perWorkerFunctions.getQuick(i), symbolTableSource, executionContext);
+            }
+        } finally {
+            executionContext.setCloneSymbolTables(current);
+        }
+    }
+
+    @Override
+    public void initCursor() {
+        if (filterAtom != null) {
+            filterAtom.initCursor();
+        }
+        // Initialize all per-worker functions on the query owner thread to avoid
+        // DataUnavailableException thrown on worker threads when aggregating.
+        for (int i = 0, n = perWorkerFunctions.size(); i < n; i++) {
+            Function.initCursor(perWorkerFunctions.getQuick(i));
+        }
+    }
+
+    /**
+     * Merges all per-worker values into the owner value. Must be called on the query
+     * owner thread once all page frames are reduced.
+     *
+     * @return the owner value holding the final aggregation results
+     */
+    public SimpleMapValue mergeWorkerValues() {
+        for (int i = 0, n = perWorkerValues.size(); i < n; i++) {
+            final SimpleMapValue workerValue = perWorkerValues.getQuick(i);
+            if (workerValue.isNew()) {
+                continue;
+            }
+            if (ownerValue.isNew()) {
+                ownerValue.copy(workerValue);
+                ownerValue.setNew(false);
+            } else {
+                for (int j = 0, m = ownerFunctions.size(); j < m; j++) {
+                    ownerFunctions.getQuick(j).merge(ownerValue, workerValue);
+                }
+            }
+            workerValue.setNew(true);
+        }
+        if (ownerValue.isNew()) {
+            // No rows at all.
+            ownerUpdater.updateEmpty(ownerValue);
+            ownerValue.setNew(false);
+        }
+        return ownerValue;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.releaseSlot(slotId);
+    }
+
+    private static IntList getBatchColumnIndexes(ObjList<GroupByFunction> functions, @Nullable ObjList<CompiledProjection> projections) {
+        final IntList columnIndexes = new IntList(functions.size());
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final GroupByFunction function = functions.getQuick(i);
+            if (!function.supportsBatchComputation()) {
+                return null;
+            }
+            if (function instanceof UnaryFunction) {
+                final Function arg = ((UnaryFunction) function).getArg();
+                if (arg instanceof DoubleColumn) {
+                    columnIndexes.add(((DoubleColumn) arg).getColumnIndex());
+                } else if (arg instanceof LongColumn) {
+                    columnIndexes.add(((LongColumn) arg).getColumnIndex());
+                } else if (projections != null && projections.getQuiet(i) != null) {
+                    columnIndexes.add(-1);
+                } else {
+                    return null;
+                }
+            } else {
+                columnIndexes.add(-1);
+            }
+        }
+        return columnIndexes;
+    }
+}
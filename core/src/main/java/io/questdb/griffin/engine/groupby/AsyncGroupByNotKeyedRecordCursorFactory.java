@@ -0,0 +1,259 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.AsyncJitFilterAtom;
+import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
+import io.questdb.jit.CompiledProjection;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Non-keyed GROUP BY executed in parallel over page frames. Unlike vectorized aggregation,
+ * it supports arbitrary aggregate arguments as long as all group-by functions support
+ * {@link GroupByFunction#merge(io.questdb.cairo.map.MapValue, io.questdb.cairo.map.MapValue)}.
+ * <p>
+ * A JIT-compiled filter of the base factory is fused with the aggregation, see
+ * {@link #canFuseFilter(RecordCursorFactory)}. In this case page frames are taken
+ * from the filter's base factory and filtered by the aggregating worker.
+ * <p>
+ * Arithmetic arguments of the group-by functions may be passed as compiled projections.
+ * Such arguments are evaluated natively for the whole page frame, or the filtered rows of it,
+ * and aggregated in a batch.
+ */
+public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByNotKeyedRecordCursorFactory::aggregate;
+
+    private final AsyncGroupByNotKeyedAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByNotKeyedRecordCursor cursor;
+    private final RecordCursorFactory frameFactory;
+    private final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByNotKeyedRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            @Nullable ObjList<CompiledProjection> projections,
+            int valueCount,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            final AsyncJitFilterAtom filterAtom;
+            if (canFuseFilter(base)) {
+                filterAtom = ((AsyncJitFilteredRecordCursorFactory) base).getFilterAtom();
+                this.frameFactory = base.getBaseFactory();
+            } else {
+                filterAtom = null;
+                this.frameFactory = base;
+            }
+            this.atom = new AsyncGroupByNotKeyedAtom(asm, configuration, groupByFunctions, perWorkerGroupByFunctions, filterAtom, projections, valueCount);
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+            this.cursor = new AsyncGroupByNotKeyedRecordCursor(groupByFunctions, recordFunctions);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.freeObjList(groupByFunctions);
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+            Misc.freeObjList(projections);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns true if the base factory is a JIT-compiled filter that can be applied
+     * to the page frames as a part of the aggregation.
+     */
+    public static boolean canFuseFilter(RecordCursorFactory base) {
+        return base instanceof AsyncJitFilteredRecordCursorFactory
+                && !base.followedLimitAdvice()
+                && base.getBaseFactory().supportPageFrameCursor();
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.of(frameSequence.of(frameFactory, executionContext, collectSubSeq, atom, ORDER_ASC));
+        try {
+            Function.init(groupByFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Group By");
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        if (frameRowCount == 0) {
+            return;
+        }
+        final AsyncGroupByNotKeyedAtom atom = task.getFrameSequence(AsyncGroupByNotKeyedAtom.class).getAtom();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final AsyncJitFilterAtom filterAtom = atom.getFilterAtom();
+        final DirectLongList rows = task.getRows();
+        final long rowCount;
+        if (filterAtom != null) {
+            filterAtom.filter(workerId, owner, record, task, circuitBreaker);
+            rowCount = rows.size();
+            if (rowCount == 0) {
+                return;
+            }
+        } else {
+            rowCount = frameRowCount;
+        }
+
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final SimpleMapValue value = atom.getValue(slotId);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        try {
+            final PageAddressCache pageAddressCache = task.getPageAddressCache();
+            final int frameIndex = task.getFrameIndex();
+            final IntList batchColumnIndexes = atom.getBatchColumnIndexes();
+            if (batchColumnIndexes != null && !pageAddressCache.hasColumnTops(frameIndex)) {
+                if (value.isNew()) {
+                    updater.updateEmpty(value);
+                    value.setNew(false);
+                }
+                final long rowIdsPtr = filterAtom != null ? rows.getAddress() : 0;
+                final ObjList<GroupByFunction> functions = atom.getFunctions(slotId);
+                boolean columnsPrepared = false;
+                for (int i = 0, n = functions.size(); i < n; i++) {
+                    final CompiledProjection projection = atom.getProjection(i);
+                    if (projection != null) {
+                        final DirectLongList columns = task.getColumns();
+                        if (!columnsPrepared) {
+                            prepareColumns(columns, pageAddressCache, frameIndex);
+                            columnsPrepared = true;
+                        }
+                        final DirectLongList buffer = atom.getProjectionBuffer(slotId);
+                        if (buffer.getCapacity() < rowCount) {
+                            buffer.setCapacity(rowCount);
+                        }
+                        projection.call(columns.getAddress(), columns.size(), 0, 0, rowIdsPtr, rowCount, buffer.getAddress());
+                        functions.getQuick(i).computeBatch(value, buffer.getAddress(), 0, rowCount);
+                        continue;
+                    }
+                    final int columnIndex = batchColumnIndexes.getQuick(i);
+                    final long ptr = columnIndex != -1 ? pageAddressCache.getPageAddress(frameIndex, columnIndex) : 0;
+                    functions.getQuick(i).computeBatch(value, ptr, rowIdsPtr, rowCount);
+                }
+                return;
+            }
+
+            long r = 0;
+            if (value.isNew()) {
+                record.setRowIndex(filterAtom != null ? rows.get(0) : 0);
+                updater.updateNew(value, record);
+                value.setNew(false);
+                r = 1;
+            }
+            for (; r < rowCount; r++) {
+                record.setRowIndex(filterAtom != null ? rows.get(r) : r);
+                updater.updateExisting(value, record);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void prepareColumns(DirectLongList columns, PageAddressCache pageAddressCache, int frameIndex) {
+        final int columnCount = pageAddressCache.getColumnCount();
+        if (columns.getCapacity() < columnCount) {
+            columns.setCapacity(columnCount);
+        }
+        columns.clear();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            columns.add(pageAddressCache.getPageAddress(frameIndex, columnIndex));
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.freeObjList(groupByFunctions);
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Partial aggregation state for parallel SAMPLE BY. In addition to the group-by state,
+ * the atom holds the sampler used to assign rows to time buckets. The sampler start
+ * and time zone offset are set on the query owner thread before frames are dispatched,
+ * so that workers only call {@link TimestampSampler#round(long)}, which has no side effects.
+ */
+public class AsyncSampleByAtom extends AsyncGroupByAtom {
+
+    private final TimestampSampler timestampSampler;
+    private final int timestampIndex;
+    private long tzOffset;
+
+    public AsyncSampleByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> ownerFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex
+    ) {
+        super(asm, configuration, keyTypes, valueTypes, mapSink, ownerFunctions, perWorkerFunctions);
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    /**
+     * @param timestamp UTC timestamp of a base record
+     * @return UTC timestamp of the sample the record belongs to
+     */
+    public long getSampleTimestamp(long timestamp) {
+        return timestampSampler.round(timestamp + tzOffset) - tzOffset;
+    }
+
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    public void of(long sampleStart, long tzOffset) {
+        timestampSampler.setStart(sampleStart);
+        this.tzOffset = tzOffset;
+    }
+}
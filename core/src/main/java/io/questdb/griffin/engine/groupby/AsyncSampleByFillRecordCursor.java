@@ -0,0 +1,284 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.TimestampFunction;
+import io.questdb.std.*;
+
+/**
+ * Fills gaps of parallel SAMPLE BY. Merged map is keyed by group-by keys and sample timestamp,
+ * so the cursor sorts its entries by the timestamp and walks the samples in order. Every sample
+ * returns all keys: keys present in the sample come from the merged map, the rest come from
+ * the placeholder functions.
+ */
+class AsyncSampleByFillRecordCursor implements NoRandomAccessRecordCursor {
+    // (sample timestamp, row id) pairs of the merged map entries
+    private final DirectLongList buckets;
+    private final AsyncGroupByRecordCursor groupByCursor;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final Map keyMap;
+    private final RecordSink keySink;
+    private final SplitVirtualRecord record;
+    private final ObjList<Function> recordFunctions;
+    private final TimestampSampler timestampSampler;
+    private final IntList valueSizes = new IntList();
+    private long bucketCount;
+    private long bucketIndex;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private boolean isBucketOpen;
+    private boolean isFillInitialized;
+    private RecordCursor keyMapCursor;
+    private MapRecord keyMapRecord;
+    private RecordCursor mapCursor;
+    private Record mapRecord;
+    private long sampleTimestamp;
+
+    public AsyncSampleByFillRecordCursor(
+            @Transient BytecodeAssembler asm,
+            CairoConfiguration configuration,
+            @Transient ArrayColumnTypes keyTypes,
+            @Transient ArrayColumnTypes valueTypes,
+            ObjList<GroupByFunction> groupByFunctions,
+            ObjList<Function> recordFunctions,
+            ObjList<Function> placeholderFunctions,
+            TimestampSampler timestampSampler
+    ) {
+        this.groupByFunctions = groupByFunctions;
+        this.recordFunctions = recordFunctions;
+        this.timestampSampler = timestampSampler;
+
+        final TimestampFunc timestampFunc = new TimestampFunc();
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            if (recordFunctions.getQuick(i) == null) {
+                recordFunctions.setQuick(i, timestampFunc);
+                placeholderFunctions.setQuick(i, timestampFunc);
+            }
+        }
+        this.record = new SplitVirtualRecord(recordFunctions, placeholderFunctions);
+
+        // merged map record has value columns followed by the keys, sample timestamp is the last key
+        final int valueCount = valueTypes.getColumnCount();
+        final int keyCount = keyTypes.getColumnCount() - 1;
+        final ArrayColumnTypes mapRecordTypes = new ArrayColumnTypes();
+        final ArrayColumnTypes fillKeyTypes = new ArrayColumnTypes();
+        final ListColumnFilter keyFilter = new ListColumnFilter();
+        for (int i = 0; i < valueCount; i++) {
+            mapRecordTypes.add(valueTypes.getColumnType(i));
+            valueSizes.add(ColumnType.sizeOf(valueTypes.getColumnType(i)));
+        }
+        for (int i = 0; i < keyCount; i++) {
+            mapRecordTypes.add(keyTypes.getColumnType(i));
+            fillKeyTypes.add(keyTypes.getColumnType(i));
+            keyFilter.add(valueCount + i + 1);
+        }
+        this.keySink = RecordSinkFactory.getInstance(asm, mapRecordTypes, keyFilter, false);
+        this.keyMap = MapFactory.createSmallMap(configuration, fillKeyTypes, valueTypes);
+        this.buckets = new DirectLongList(configuration.getSqlSortLightValuePageSize() / Long.BYTES, MemoryTag.NATIVE_SAMPLE_BY_LONG_LIST);
+        this.groupByCursor = new AsyncGroupByRecordCursor(recordFunctions);
+    }
+
+    @Override
+    public void close() {
+        groupByCursor.close();
+        Misc.free(keyMap);
+        Misc.free(buckets);
+        mapCursor = null;
+        mapRecord = null;
+        keyMapCursor = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isFillInitialized) {
+            initFill();
+        }
+        while (true) {
+            if (isBucketOpen && keyMapCursor.hasNext()) {
+                if (keyMapRecord.getTimestamp(0) == sampleTimestamp) {
+                    record.setActiveA();
+                } else {
+                    record.setActiveB();
+                }
+                return true;
+            }
+            if (!nextBucket()) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) recordFunctions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        if (isFillInitialized) {
+            // key values are updated while the samples are returned, so they are rebuilt from scratch
+            isFillInitialized = false;
+            GroupByUtils.toTop(recordFunctions);
+        }
+    }
+
+    private static void copyValue(MapValue src, MapValue dst, int index, int size) {
+        switch (size) {
+            case Byte.BYTES:
+                dst.putByte(index, src.getByte(index));
+                break;
+            case Short.BYTES:
+                dst.putShort(index, src.getShort(index));
+                break;
+            case Integer.BYTES:
+                dst.putInt(index, src.getInt(index));
+                break;
+            case Long.BYTES:
+                dst.putLong(index, src.getLong(index));
+                break;
+            case 2 * Long.BYTES:
+                dst.putLong128(index, src.getLong128Lo(index), src.getLong128Hi(index));
+                break;
+            default:
+                dst.putLong256(index, src.getLong256A(index));
+                break;
+        }
+    }
+
+    private long getBucketTimestamp(long index) {
+        return buckets.get(2 * index) ^ Long.MIN_VALUE;
+    }
+
+    private void initFill() {
+        mapCursor = groupByCursor.getMapCursor();
+        mapRecord = mapCursor.getRecordB();
+        mapCursor.toTop();
+        keyMap.clear();
+        buckets.clear();
+
+        // every sample returns all keys, so the keys are collected upfront
+        final Record mapCursorRecord = mapCursor.getRecord();
+        final int n = groupByFunctions.size();
+        while (mapCursor.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+
+            final MapKey key = keyMap.withKey();
+            keySink.copy(mapCursorRecord, key);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                // timestamp is always stored in value field 0
+                value.putLong(0, Numbers.LONG_NaN);
+                for (int i = 0; i < n; i++) {
+                    groupByFunctions.getQuick(i).setNull(value);
+                }
+            }
+            // the sort compares unsigned values, flipping the sign bit keeps timestamps before epoch in order
+            buckets.add(mapCursorRecord.getTimestamp(0) ^ Long.MIN_VALUE);
+            buckets.add(mapCursorRecord.getRowId());
+        }
+        bucketCount = buckets.size() / 2;
+        Vect.sortLongIndexAscInPlace(buckets.getAddress(), bucketCount);
+
+        keyMapCursor = keyMap.getCursor();
+        keyMapRecord = (MapRecord) keyMapCursor.getRecord();
+        record.of(keyMapRecord);
+        bucketIndex = 0;
+        isBucketOpen = false;
+        isFillInitialized = true;
+    }
+
+    private boolean nextBucket() {
+        if (bucketIndex == bucketCount) {
+            return false;
+        }
+        sampleTimestamp = isBucketOpen ? timestampSampler.nextTimestamp(sampleTimestamp) : getBucketTimestamp(bucketIndex);
+        isBucketOpen = true;
+
+        // merged map entries of the sample become the latest values of their keys
+        while (bucketIndex < bucketCount && getBucketTimestamp(bucketIndex) <= sampleTimestamp) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+
+            mapCursor.recordAt(mapRecord, buckets.get(2 * bucketIndex + 1));
+            final MapKey key = keyMap.withKey();
+            keySink.copy(mapRecord, key);
+            final MapValue value = key.findValue();
+            final MapValue mapValue = ((MapRecord) mapRecord).getValue();
+            for (int i = 0, n = valueSizes.size(); i < n; i++) {
+                copyValue(mapValue, value, i, valueSizes.getQuick(i));
+            }
+            bucketIndex++;
+        }
+        keyMapCursor.toTop();
+        return true;
+    }
+
+    void of(PageFrameSequence<AsyncGroupByAtom> frameSequence, SqlExecutionCircuitBreaker circuitBreaker) {
+        groupByCursor.of(frameSequence);
+        keyMap.reopen();
+        buckets.reopen();
+        this.circuitBreaker = circuitBreaker;
+        isFillInitialized = false;
+    }
+
+    private class TimestampFunc extends TimestampFunction implements Function {
+
+        @Override
+        public long getTimestamp(Record rec) {
+            return sampleTimestamp;
+        }
+
+        @Override
+        public boolean isReadThreadSafe() {
+            return false;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val("Timestamp");
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+import static io.questdb.griffin.SqlKeywords.isNullKeyword;
+import static io.questdb.griffin.SqlKeywords.isPrevKeyword;
+import static io.questdb.std.datetime.microtime.Timestamps.MINUTE_MICROS;
+
+/**
+ * SAMPLE BY executed in parallel over page frames. Rows are aggregated into per-worker maps
+ * keyed by the group-by keys and the sample timestamp, then the maps are merged on the query
+ * owner thread. With FILL(NONE) the cursor returns samples in no particular order, so code
+ * generator is expected to sort the output by timestamp. FILL(NULL), FILL(PREV) and FILL with
+ * values walk the merged samples in timestamp order and fill the gaps, see
+ * {@link AsyncSampleByFillRecordCursor}.
+ * <p>
+ * Only fixed-size samplers and numeric time zone offsets are supported since both allow
+ * to compute sample timestamp of a row without looking at the preceding rows.
+ */
+public class AsyncSampleByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSampleByRecordCursorFactory::aggregate;
+
+    private final AsyncSampleByAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByRecordCursor cursor;
+    private final String fill;
+    private final AsyncSampleByFillRecordCursor fillCursor;
+    private final PageFrameSequence<AsyncGroupByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final Function offsetFunc;
+    private final int offsetFuncPos;
+    private final ObjList<Function> recordFunctions;
+    private final int timestampIndex;
+    private final Function timezoneNameFunc;
+    private final int workerCount;
+
+    public AsyncSampleByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @NotNull ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @Transient @NotNull IntList recordFunctionPositions,
+            @Transient @Nullable ObjList<ExpressionNode> fillValues,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            @NotNull Function timezoneNameFunc,
+            @NotNull Function offsetFunc,
+            int offsetFuncPos,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) throws SqlException {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.timestampIndex = timestampIndex;
+            this.timezoneNameFunc = timezoneNameFunc;
+            this.offsetFunc = offsetFunc;
+            this.offsetFuncPos = offsetFuncPos;
+            if (fillValues != null) {
+                final ObjList<Function> placeholderFunctions;
+                if (fillValues.size() == 1 && isPrevKeyword(fillValues.getQuick(0).token)) {
+                    this.fill = "prev";
+                    placeholderFunctions = new ObjList<>(recordFunctions);
+                } else if (fillValues.size() == 1 && isNullKeyword(fillValues.getQuick(0).token)) {
+                    this.fill = "null";
+                    placeholderFunctions = SampleByFillNullRecordCursorFactory.createPlaceholderFunctions(recordFunctions, recordFunctionPositions);
+                } else {
+                    this.fill = "value";
+                    placeholderFunctions = SampleByFillValueRecordCursorFactory.createPlaceholderFunctions(
+                            groupByFunctions,
+                            recordFunctions,
+                            recordFunctionPositions,
+                            fillValues,
+                            false
+                    );
+                }
+                this.fillCursor = new AsyncSampleByFillRecordCursor(
+                        asm,
+                        configuration,
+                        keyTypes,
+                        valueTypes,
+                        groupByFunctions,
+                        recordFunctions,
+                        placeholderFunctions,
+                        timestampSampler
+                );
+                this.cursor = null;
+            } else {
+                // sample timestamp is always stored in the first value slot
+                for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+                    if (recordFunctions.getQuick(i) == null) {
+                        recordFunctions.setQuick(i, TimestampColumn.newInstance(0));
+                    }
+                }
+                this.cursor = new AsyncGroupByRecordCursor(recordFunctions);
+                this.fill = null;
+                this.fillCursor = null;
+            }
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            this.atom = new AsyncSampleByAtom(
+                    asm,
+                    configuration,
+                    keyTypes,
+                    valueTypes,
+                    mapSink,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    timestampSampler,
+                    timestampIndex
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        initSampler(executionContext);
+        final RecordCursor result;
+        if (fillCursor != null) {
+            fillCursor.of(frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_ASC), executionContext.getCircuitBreaker());
+            result = fillCursor;
+        } else {
+            cursor.of(frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_ASC));
+            result = cursor;
+        }
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        } catch (Throwable e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return fillCursor == null;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sample By");
+        if (fill != null) {
+            sink.attr("fill").val(fill);
+        }
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSampleByAtom atom = task.getFrameSequence(AsyncSampleByAtom.class).getAtom();
+        final RecordSink mapSink = atom.getMapSink();
+        final int timestampIndex = atom.getTimestampIndex();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(slotId);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final long sampleTimestamp = atom.getSampleTimestamp(record.getTimestamp(timestampIndex));
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                key.putTimestamp(sampleTimestamp);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    value.putTimestamp(0, sampleTimestamp);
+                    updater.updateNew(value, record);
+                } else {
+                    updater.updateExisting(value, record);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private void initSampler(SqlExecutionContext executionContext) throws SqlException {
+        long tzOffset = 0;
+        final CharSequence tz = timezoneNameFunc.getStr(null);
+        if (tz != null) {
+            // code generator makes sure that the time zone is a numeric offset
+            tzOffset = Numbers.decodeLowInt(Timestamps.parseOffset(tz)) * MINUTE_MICROS;
+        }
+
+        long fixedOffset = Long.MIN_VALUE;
+        final CharSequence offset = offsetFunc.getStr(null);
+        if (offset != null) {
+            final long val = Timestamps.parseOffset(offset);
+            if (val == Numbers.LONG_NaN) {
+                // bad value for offset
+                throw SqlException.$(offsetFuncPos, "invalid offset: ").put(offset);
+            }
+            fixedOffset = Numbers.decodeLowInt(val) * MINUTE_MICROS;
+        }
+
+        long sampleStart = 0;
+        if (tzOffset == 0 && fixedOffset == Long.MIN_VALUE) {
+            // this is the default path, we align time intervals to the first observation
+            try (RecordCursor baseCursor = base.getCursor(executionContext)) {
+                if (baseCursor.hasNext()) {
+                    sampleStart = baseCursor.getRecord().getTimestamp(timestampIndex);
+                }
+            }
+        } else if (fixedOffset != Long.MIN_VALUE) {
+            sampleStart = fixedOffset;
+        }
+        atom.of(sampleStart, tzOffset);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeObjList(recordFunctions);
+        Misc.free(timezoneNameFunc);
+        Misc.free(offsetFunc);
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.free(fillCursor);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+    }
+}
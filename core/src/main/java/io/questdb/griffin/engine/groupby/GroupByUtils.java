@@ -44,6 +44,23 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    public static boolean isParallelismSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isParallelismSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parallel SAMPLE BY computes sample timestamp of each row independently, so only
+     * samplers with fixed bucket size can be used.
+     */
+    public static boolean isParallelismSupported(TimestampSampler timestampSampler) {
+        return timestampSampler instanceof MicroTimestampSampler;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
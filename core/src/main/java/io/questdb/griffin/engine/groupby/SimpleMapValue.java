@@ -32,6 +32,7 @@ import io.questdb.std.Long256Util;
 public class SimpleMapValue implements MapValue {
     private final Long256Impl long256 = new Long256Impl();
     private final long[] values;
+    private boolean isNew;
 
     public SimpleMapValue(int columnCount) {
         this.values = new long[4 * columnCount];
@@ -179,7 +180,7 @@ public class SimpleMapValue implements MapValue {
 
     @Override
     public boolean isNew() {
-        return false;
+        return isNew;
     }
 
     @Override
@@ -252,4 +253,8 @@ public class SimpleMapValue implements MapValue {
     public void setMapRecordHere() {
         throw new UnsupportedOperationException();
     }
+
+    public void setNew(boolean isNew) {
+        this.isNew = isNew;
+    }
 }
@@ -63,7 +63,13 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         this.masterFactory = masterFactory;
         this.slaveFactory = slaveFactory;
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
-        RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
+        RecordChain slaveChain = new RecordChain(
+                slaveFactory.getMetadata(),
+                slaveChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                configuration.getSqlHashJoinValueMaxPages(),
+                SpillFile.newInstance(configuration)
+        );
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
         cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
@@ -69,7 +69,13 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
         super(metadata);
         this.masterFactory = masterFactory;
         this.slaveFactory = slaveFactory;
-        RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
+        RecordChain slaveChain = new RecordChain(
+                slaveFactory.getMetadata(),
+                slaveChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                configuration.getSqlHashJoinValueMaxPages(),
+                SpillFile.newInstance(configuration)
+        );
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
 
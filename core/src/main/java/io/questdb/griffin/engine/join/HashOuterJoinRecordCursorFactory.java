@@ -63,7 +63,13 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         super(metadata);
         this.masterFactory = masterFactory;
         this.slaveFactory = slaveFactory;
-        RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
+        RecordChain slaveChain = new RecordChain(
+                slaveFactory.getMetadata(),
+                slaveChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                configuration.getSqlHashJoinValueMaxPages(),
+                SpillFile.newInstance(configuration)
+        );
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
 
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.ops;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.TableWriterAPI;
 import io.questdb.cairo.pool.WriterSource;
@@ -32,6 +33,7 @@ import io.questdb.cairo.sql.InsertMethod;
 import io.questdb.cairo.sql.InsertOperation;
 import io.questdb.cairo.sql.OperationFuture;
 import io.questdb.cairo.sql.WriterOutOfDateException;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
 import io.questdb.griffin.InsertRowImpl;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -46,6 +48,7 @@ public class InsertOperationImpl implements InsertOperation {
     private final ObjList<InsertRowImpl> insertRows = new ObjList<>();
     private final long structureVersion;
     private final TableToken tableToken;
+    private final long walApplyLagHardTxnCount;
 
     public InsertOperationImpl(
             CairoEngine engine,
@@ -55,6 +58,7 @@ public class InsertOperationImpl implements InsertOperation {
         this.engine = engine;
         this.tableToken = tableToken;
         this.structureVersion = structureVersion;
+        this.walApplyLagHardTxnCount = engine.getConfiguration().getWalApplyLagHardTxnCount();
     }
 
     @Override
@@ -65,6 +69,7 @@ public class InsertOperationImpl implements InsertOperation {
     @Override
     public InsertMethod createMethod(SqlExecutionContext executionContext, WriterSource writerSource) throws SqlException {
         initContext(executionContext);
+        checkWalApplyLag();
         if (insertMethod.writer == null) {
             final TableWriterAPI writer = writerSource.getTableWriterAPI(executionContext.getCairoSecurityContext(), tableToken, "insert");
             if (writer.getStructureVersion() != structureVersion ||
@@ -91,6 +96,21 @@ public class InsertOperationImpl implements InsertOperation {
         }
     }
 
+    private void checkWalApplyLag() {
+        if (walApplyLagHardTxnCount > 0 && engine.isWalTable(tableToken)) {
+            final SeqTxnTracker txnTracker = engine.getTableSequencerAPI().getTxnTracker(tableToken);
+            final long lag = txnTracker.getLag();
+            if (lag >= walApplyLagHardTxnCount && !txnTracker.isSuspended()) {
+                engine.getMetrics().getWalMetrics().incrementBackpressure();
+                throw CairoException.nonCritical()
+                        .put("WAL apply lag is over the hard limit, try again later [table=").put(tableToken.getTableName())
+                        .put(", lagTxns=").put(lag)
+                        .put(", limit=").put(walApplyLagHardTxnCount)
+                        .put(']');
+            }
+        }
+    }
+
     private void initContext(SqlExecutionContext executionContext) throws SqlException {
         for (int i = 0, n = insertRows.size(); i < n; i++) {
             InsertRowImpl row = insertRows.get(i);
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+
+/**
+ * Holds sorted runs for parallel ORDER BY. Each page frame is sorted independently into
+ * its own run, a contiguous range of 16-byte (key, row index) entries in a shared buffer.
+ * Keys are transformed so that unsigned comparison of the transformed values matches
+ * the signed, and optionally descending, order of the original column values. This lets
+ * the runs be sorted by {@link Vect#radixSortLongIndexAscInPlace(long, long, long)}
+ * and merged by comparing keys as unsigned longs.
+ */
+public class AsyncSortAtom implements StatefulAtom, Closeable {
+
+    static final int ENTRY_SHIFT = 4;
+    private static final long RUNS_INITIAL_CAPACITY = 16;
+    private final long flipMask;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    // Offset of the first run entry per frame; the last element holds the total entry count.
+    private final LongList runOffsets = new LongList();
+    private final DirectLongList runs;
+
+    public AsyncSortAtom(int keyColumnIndex, int keyColumnType, boolean descending) {
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnType = keyColumnType;
+        // Flipping the sign bit maps signed order onto unsigned order,
+        // flipping the remaining bits reverses it.
+        this.flipMask = descending ? Long.MAX_VALUE : Long.MIN_VALUE;
+        // Run memory is sized per query, see ofFrames().
+        this.runs = new DirectLongList(RUNS_INITIAL_CAPACITY, MemoryTag.NATIVE_TREE_CHAIN);
+    }
+
+    public static boolean isSupportedKeyType(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public void clear() {
+        runOffsets.clear();
+        runs.resetCapacity();
+    }
+
+    @Override
+    public void close() {
+        runOffsets.clear();
+        Misc.free(runs);
+    }
+
+    public long getFlipMask() {
+        return flipMask;
+    }
+
+    public int getKeyColumnIndex() {
+        return keyColumnIndex;
+    }
+
+    public int getKeyColumnType() {
+        return keyColumnType;
+    }
+
+    public long getRunAddress(int frameIndex) {
+        return runs.getAddress() + (runOffsets.getQuick(frameIndex) << ENTRY_SHIFT);
+    }
+
+    public long getRunSize(int frameIndex) {
+        return runOffsets.getQuick(frameIndex + 1) - runOffsets.getQuick(frameIndex);
+    }
+
+    public long getTotalSize() {
+        return runOffsets.size() > 0 ? runOffsets.getLast() : 0;
+    }
+
+    /**
+     * Reserves run memory for all frames of the sequence. Must be called on the query
+     * owner thread after the sequence is prepared for dispatch and before any frame
+     * is dispatched to the workers.
+     *
+     * @param frameSequence prepared frame sequence
+     */
+    public void ofFrames(@NotNull PageFrameSequence<AsyncSortAtom> frameSequence) {
+        runOffsets.clear();
+        long offset = 0;
+        for (int i = 0, n = frameSequence.getFrameCount(); i < n; i++) {
+            runOffsets.add(offset);
+            offset += frameSequence.getFrameRowCount(i);
+        }
+        runOffsets.add(offset);
+        if (runs.getCapacity() < offset * 2) {
+            runs.setCapacity(offset * 2);
+        }
+    }
+}
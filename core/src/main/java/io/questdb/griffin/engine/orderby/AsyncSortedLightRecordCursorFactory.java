@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * ORDER BY a single fixed-width integer column executed in parallel over page frames.
+ * Workers sort each frame into a run using radix sort, while the cursor merges the runs
+ * lazily. Unlike {@link SortedLightRecordCursorFactory}, rows are never inserted into
+ * a tree, so the sort is both parallel and cache-friendly.
+ */
+public class AsyncSortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSortedLightRecordCursorFactory::sort;
+
+    private final AsyncSortAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSortedRecordCursor cursor;
+    private final PageFrameSequence<AsyncSortAtom> frameSequence;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncSortedLightRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) {
+        super(metadata);
+        assert isSupported(base.getMetadata(), sortColumnFilter);
+        this.base = base;
+        this.sortColumnFilter = sortColumnFilter;
+        final int filterIndex = sortColumnFilter.get(0);
+        final int keyColumnIndex = (filterIndex > 0 ? filterIndex : -filterIndex) - 1;
+        this.atom = new AsyncSortAtom(
+                keyColumnIndex,
+                base.getMetadata().getColumnType(keyColumnIndex),
+                filterIndex < 0
+        );
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncSortedRecordCursor();
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Checks whether the given sort keys can be sorted in parallel: there has to be
+     * a single key column of a fixed-width integer, date or timestamp type.
+     *
+     * @param metadata         base factory metadata
+     * @param sortColumnFilter sort key column indexes, sign stands for direction
+     * @return true when the keys are supported
+     */
+    public static boolean isSupported(RecordMetadata metadata, ListColumnFilter sortColumnFilter) {
+        if (sortColumnFilter.size() != 1) {
+            return false;
+        }
+        final int filterIndex = sortColumnFilter.get(0);
+        final int keyColumnIndex = (filterIndex > 0 ? filterIndex : -filterIndex) - 1;
+        return AsyncSortAtom.isSupportedKeyType(metadata.getColumnType(keyColumnIndex));
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.of(frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_ASC));
+        return cursor;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return SortedRecordCursorFactory.hasDescendingOrder(sortColumnFilter);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sort light");
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.attr("workers").val(workerCount);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void sort(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        if (frameRowCount == 0) {
+            return;
+        }
+        final AsyncSortAtom atom = task.getFrameSequence(AsyncSortAtom.class).getAtom();
+        final int keyColumnIndex = atom.getKeyColumnIndex();
+        final long flipMask = atom.getFlipMask();
+        final long runAddress = atom.getRunAddress(task.getFrameIndex());
+
+        long p = runAddress;
+        switch (ColumnType.tagOf(atom.getKeyColumnType())) {
+            case ColumnType.BYTE:
+                for (long r = frameRowCount - 1; r > -1; r--, p += 2 * Long.BYTES) {
+                    record.setRowIndex(r);
+                    putEntry(p, record.getByte(keyColumnIndex) ^ flipMask, r);
+                }
+                break;
+            case ColumnType.SHORT:
+                for (long r = frameRowCount - 1; r > -1; r--, p += 2 * Long.BYTES) {
+                    record.setRowIndex(r);
+                    putEntry(p, record.getShort(keyColumnIndex) ^ flipMask, r);
+                }
+                break;
+            case ColumnType.CHAR:
+                for (long r = frameRowCount - 1; r > -1; r--, p += 2 * Long.BYTES) {
+                    record.setRowIndex(r);
+                    putEntry(p, record.getChar(keyColumnIndex) ^ flipMask, r);
+                }
+                break;
+            case ColumnType.INT:
+                for (long r = frameRowCount - 1; r > -1; r--, p += 2 * Long.BYTES) {
+                    record.setRowIndex(r);
+                    putEntry(p, record.getInt(keyColumnIndex) ^ flipMask, r);
+                }
+                break;
+            default:
+                // LONG, DATE and TIMESTAMP columns share the same 8-byte layout.
+                for (long r = frameRowCount - 1; r > -1; r--, p += 2 * Long.BYTES) {
+                    record.setRowIndex(r);
+                    putEntry(p, record.getLong(keyColumnIndex) ^ flipMask, r);
+                }
+                break;
+        }
+
+        // Rows are written in reverse order and radix sort is stable, so rows with equal keys
+        // end up in reverse order within the run. That's the order LongTreeChain produces,
+        // so the result doesn't depend on whether the sort runs in parallel.
+        final DirectLongList sortBuffer = task.getRows();
+        sortBuffer.setCapacity(frameRowCount * 2);
+        Vect.radixSortLongIndexAscInPlace(runAddress, frameRowCount, sortBuffer.getAddress());
+    }
+
+    private static void putEntry(long p, long key, long rowIndex) {
+        Unsafe.getUnsafe().putLong(p, key);
+        Unsafe.getUnsafe().putLong(p + Long.BYTES, rowIndex);
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        cursor.freeRecords();
+        Misc.free(frameSequence);
+        Misc.free(atom);
+        Misc.free(base);
+    }
+}
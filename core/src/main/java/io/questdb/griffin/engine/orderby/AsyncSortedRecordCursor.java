@@ -0,0 +1,292 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Waits for all page frames to be sorted into runs, then k-way merges the runs lazily
+ * as the cursor is consumed. Ties are resolved in favour of the run with the higher frame
+ * index, so rows with equal keys come in reverse scan order, just like they do when
+ * sorted with {@link LongTreeChain}.
+ */
+class AsyncSortedRecordCursor implements RecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSortedRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    // Binary min-heap of frame indexes, ordered by the key of the current run entry.
+    private final IntList heap = new IntList();
+    private final PageAddressCacheRecord record;
+    // Current entry address per run.
+    private final LongList runHeads = new LongList();
+    // Address past the last entry per run.
+    private final LongList runLimits = new LongList();
+    private AsyncSortAtom atom;
+    private long cursor = -1;
+    private int frameLimit;
+    private PageFrameSequence<AsyncSortAtom> frameSequence;
+    private boolean isOpen;
+    private boolean isSorted;
+    private int lastRun = -1;
+    private PageAddressCacheRecord recordB;
+
+    public AsyncSortedRecordCursor() {
+        this.record = new PageAddressCacheRecord();
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            LOG.debug()
+                    .$("closing [shard=").$(frameSequence.getShard())
+                    .$(", frameCount=").$(frameLimit)
+                    .$(", frameId=").$(frameSequence.getId())
+                    .$(", cursor=").$(cursor)
+                    .I$();
+
+            collectCursor(true);
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+            atom.clear();
+            isOpen = false;
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isSorted) {
+            sortFrames();
+            toTop();
+            isSorted = true;
+        }
+
+        if (lastRun != -1) {
+            // Advance the run we returned the previous row from.
+            final long head = runHeads.getQuick(lastRun) + (1 << AsyncSortAtom.ENTRY_SHIFT);
+            runHeads.setQuick(lastRun, head);
+            if (head < runLimits.getQuick(lastRun)) {
+                siftDown(0);
+            } else {
+                final int last = heap.size() - 1;
+                heap.setQuick(0, heap.getQuick(last));
+                heap.setPos(last);
+                if (last > 0) {
+                    siftDown(0);
+                }
+            }
+            lastRun = -1;
+        }
+
+        if (heap.size() == 0) {
+            return false;
+        }
+
+        final int run = heap.getQuick(0);
+        record.setFrameIndex(run);
+        record.setRowIndex(Unsafe.getUnsafe().getLong(runHeads.getQuick(run) + Long.BYTES));
+        lastRun = run;
+        return true;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        prepare();
+        return atom.getTotalSize();
+    }
+
+    @Override
+    public void toTop() {
+        heap.clear();
+        runHeads.clear();
+        runLimits.clear();
+        for (int i = 0, n = frameLimit + 1; i < n; i++) {
+            final long address = atom.getRunAddress(i);
+            runHeads.add(address);
+            runLimits.add(address + (atom.getRunSize(i) << AsyncSortAtom.ENTRY_SHIFT));
+            if (atom.getRunSize(i) > 0) {
+                heap.add(i);
+                siftUp(heap.size() - 1);
+            }
+        }
+        lastRun = -1;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            // It is necessary to clear 'cursor' value
+            // because we updated frameIndex and loop can exit due to lack of frames.
+            // Non-update of 'cursor' could cause double-free.
+            cursor = -1;
+        }
+    }
+
+    private boolean less(int runA, int runB) {
+        final long keyA = Unsafe.getUnsafe().getLong(runHeads.getQuick(runA));
+        final long keyB = Unsafe.getUnsafe().getLong(runHeads.getQuick(runB));
+        final int cmp = Long.compareUnsigned(keyA, keyB);
+        return cmp < 0 || (cmp == 0 && runA > runB);
+    }
+
+    private void prepare() {
+        if (frameLimit == -1) {
+            frameSequence.prepareForDispatch();
+            atom.ofFrames(frameSequence);
+            frameLimit = frameSequence.getFrameCount() - 1;
+        }
+    }
+
+    private void siftDown(int index) {
+        final int size = heap.size();
+        final int run = heap.getQuick(index);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap.getQuick(child + 1), heap.getQuick(child))) {
+                child++;
+            }
+            final int childRun = heap.getQuick(child);
+            if (!less(childRun, run)) {
+                break;
+            }
+            heap.setQuick(index, childRun);
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void siftUp(int index) {
+        final int run = heap.getQuick(index);
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            final int parentRun = heap.getQuick(parent);
+            if (!less(run, parentRun)) {
+                break;
+            }
+            heap.setQuick(index, parentRun);
+            index = parent;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void sortFrames() {
+        prepare();
+
+        boolean allFramesActive = true;
+        int frameIndex = -1;
+        try {
+            do {
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameSequence.getFrameCount())
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    collectCursor(false);
+                } else if (cursor == -2) {
+                    break; // No frames to sort
+                } else {
+                    Os.pause();
+                }
+            } while (frameIndex < frameLimit);
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+    }
+
+    void of(PageFrameSequence<AsyncSortAtom> frameSequence) {
+        this.frameSequence = frameSequence;
+        this.atom = frameSequence.getAtom();
+        isOpen = true;
+        isSorted = false;
+        frameLimit = -1;
+        lastRun = -1;
+        heap.clear();
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+    }
+}
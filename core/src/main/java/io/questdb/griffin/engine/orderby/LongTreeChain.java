@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SpillFile;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.vm.Vm;
@@ -33,14 +34,26 @@ import io.questdb.griffin.engine.AbstractRedBlackTree;
 import io.questdb.griffin.engine.RecordComparator;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 
 public class LongTreeChain extends AbstractRedBlackTree implements Reopenable {
     private final TreeCursor cursor = new TreeCursor();
     private final MemoryARW valueChain;
 
     public LongTreeChain(long keyPageSize, int keyMaxPages, long valuePageSize, int valueMaxPages) {
-        super(keyPageSize, keyMaxPages);
-        this.valueChain = Vm.getARWInstance(valuePageSize, valueMaxPages, MemoryTag.NATIVE_TREE_CHAIN);
+        this(keyPageSize, keyMaxPages, valuePageSize, valueMaxPages, null, null);
+    }
+
+    public LongTreeChain(
+            long keyPageSize,
+            int keyMaxPages,
+            long valuePageSize,
+            int valueMaxPages,
+            @Nullable SpillFile keySpill,
+            @Nullable SpillFile valueSpill
+    ) {
+        super(keyPageSize, keyMaxPages, keySpill);
+        this.valueChain = Vm.getARWInstance(valuePageSize, valueMaxPages, MemoryTag.NATIVE_TREE_CHAIN, valueSpill);
     }
 
     @Override
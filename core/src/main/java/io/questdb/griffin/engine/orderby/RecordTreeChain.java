@@ -28,6 +28,7 @@ import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordChain;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SpillFile;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
@@ -37,6 +38,7 @@ import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -65,10 +67,24 @@ public class RecordTreeChain implements Closeable, Mutable, Reopenable {
             int keyMaxPages,
             long valuePageSize,
             int valueMaxPages
+    ) {
+        this(columnTypes, recordSink, comparator, keyPageSize, keyMaxPages, valuePageSize, valueMaxPages, null, null);
+    }
+
+    public RecordTreeChain(
+            @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull RecordComparator comparator,
+            long keyPageSize,
+            int keyMaxPages,
+            long valuePageSize,
+            int valueMaxPages,
+            @Nullable SpillFile keySpill,
+            @Nullable SpillFile valueSpill
     ) {
         this.comparator = comparator;
-        this.mem = new MemoryPages(keyPageSize, keyMaxPages);
-        this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages);
+        this.mem = new MemoryPages(keyPageSize, keyMaxPages, keySpill);
+        this.recordChain = new RecordChain(columnTypes, recordSink, valuePageSize, valueMaxPages, valueSpill);
         this.recordChainRecord = this.recordChain.getRecordB();
     }
 
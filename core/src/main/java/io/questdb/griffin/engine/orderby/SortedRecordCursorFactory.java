@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ListColumnFilter;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.SpillFile;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -59,7 +60,9 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
                 configuration.getSqlSortKeyPageSize(),
                 configuration.getSqlSortKeyMaxPages(),
                 configuration.getSqlSortValuePageSize(),
-                configuration.getSqlSortValueMaxPages()
+                configuration.getSqlSortValueMaxPages(),
+                SpillFile.newInstance(configuration),
+                SpillFile.newInstance(configuration)
         );
         this.base = base;
         this.cursor = new SortedRecordCursor(chain);
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PerWorkerLocks;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.Plannable;
 import io.questdb.griffin.SqlException;
@@ -36,7 +37,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
-import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.LongAdder;
 
 public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
@@ -45,10 +45,8 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
 
     private final Function filter;
     private final ObjList<Function> perWorkerFilters;
-    private final AtomicIntegerArray perWorkerLocks;
+    private final PerWorkerLocks perWorkerLocks;
     private final IntList preTouchColumnTypes;
-    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
-    private final Rnd rnd;
     private boolean preTouchEnabled;
 
     public AsyncFilterAtom(
@@ -57,14 +55,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
             @Nullable ObjList<Function> perWorkerFilters,
             @Nullable IntList preTouchColumnTypes
     ) {
-        this.rnd = new Rnd(
-                configuration.getNanosecondClock().getTicks(),
-                configuration.getMicrosecondClock().getTicks()
-        );
         this.filter = filter;
         this.perWorkerFilters = perWorkerFilters;
         if (perWorkerFilters != null) {
-            perWorkerLocks = new AtomicIntegerArray(perWorkerFilters.size());
+            perWorkerLocks = new PerWorkerLocks(configuration, perWorkerFilters.size());
         } else {
             perWorkerLocks = null;
         }
@@ -79,18 +73,7 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
             // Owner thread is free to use the original filter anytime.
             return -1;
         }
-        final int size = perWorkerFilters.size();
-        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
-        while (true) {
-            for (int i = 0; i < size; i++) {
-                int id = (i + workerId) % size;
-                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
-                    return id;
-                }
-            }
-            circuitBreaker.statefulThrowExceptionIfTripped();
-            Os.pause();
-        }
+        return perWorkerLocks.acquireSlot(workerId, circuitBreaker);
     }
 
     @Override
@@ -226,7 +209,7 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
         if (filterId == -1) {
             return;
         }
-        perWorkerLocks.set(filterId, 0);
+        perWorkerLocks.releaseSlot(filterId);
     }
 
     @Override
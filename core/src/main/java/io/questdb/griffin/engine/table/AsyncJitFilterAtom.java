@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageAddressCache;
+import io.questdb.cairo.sql.PageAddressCacheRecord;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
+import io.questdb.jit.CompiledFilter;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Holds JIT-compiled filter along with its bind variables. Besides the JIT filter factory,
+ * the atom is used by the factories that fuse the filter with further per-frame processing,
+ * such as parallel aggregation.
+ */
+public class AsyncJitFilterAtom extends AsyncFilterAtom {
+
+    final ObjList<Function> bindVarFunctions;
+    final MemoryCARW bindVarMemory;
+    final CompiledFilter compiledFilter;
+
+    public AsyncJitFilterAtom(
+            CairoConfiguration configuration,
+            Function filter,
+            ObjList<Function> perWorkerFilters,
+            CompiledFilter compiledFilter,
+            MemoryCARW bindVarMemory,
+            ObjList<Function> bindVarFunctions,
+            @Nullable IntList preTouchColumnTypes
+    ) {
+        super(configuration, filter, perWorkerFilters, preTouchColumnTypes);
+        this.compiledFilter = compiledFilter;
+        this.bindVarMemory = bindVarMemory;
+        this.bindVarFunctions = bindVarFunctions;
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(compiledFilter);
+        Misc.free(bindVarMemory);
+        Misc.freeObjList(bindVarFunctions);
+    }
+
+    /**
+     * Filters rows of the task's page frame. Ids of the matching rows are written
+     * to the task's row list.
+     */
+    public void filter(
+            int workerId,
+            boolean owner,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final DirectLongList rows = task.getRows();
+        final DirectLongList columns = task.getColumns();
+        final long frameRowCount = task.getFrameRowCount();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+        rows.clear();
+
+        if (pageAddressCache.hasColumnTops(task.getFrameIndex())) {
+            // Use Java-based filter in case of a page frame with column tops.
+            final int filterId = acquireFilter(workerId, owner, circuitBreaker);
+            final Function filter = getFilter(filterId);
+            try {
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    if (filter.getBool(record)) {
+                        rows.add(r);
+                    }
+                }
+                return;
+            } finally {
+                releaseFilter(filterId);
+            }
+        }
+
+        // Use JIT-compiled filter.
+
+        final int columnCount = pageAddressCache.getColumnCount();
+        if (columns.getCapacity() < 2L * columnCount) {
+            columns.setCapacity(2L * columnCount);
+        }
+        columns.clear();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
+        }
+        // aux page addresses follow the data ones, string predicates read value offsets from them
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            columns.add(
+                    pageAddressCache.isVarLenColumn(columnIndex)
+                            ? pageAddressCache.getIndexPageAddress(task.getFrameIndex(), columnIndex)
+                            : 0
+            );
+        }
+
+        if (rows.getCapacity() < frameRowCount) {
+            rows.setCapacity(frameRowCount);
+        }
+
+        long hi = compiledFilter.call(
+                columns.getAddress(),
+                columns.size(),
+                bindVarMemory.getAddress(),
+                bindVarFunctions.size(),
+                rows.getAddress(),
+                frameRowCount,
+                0
+        );
+        rows.setPos(hi);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        super.init(symbolTableSource, executionContext);
+        Function.init(bindVarFunctions, symbolTableSource, executionContext);
+        prepareBindVarMemory(symbolTableSource, executionContext);
+    }
+
+    private void prepareBindVarMemory(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        //don't trigger memory allocation if there are no variables 
+        if (bindVarFunctions.size() > 0) {
+            bindVarMemory.truncate();
+            for (int i = 0, n = bindVarFunctions.size(); i < n; i++) {
+                Function function = bindVarFunctions.getQuick(i);
+                writeBindVarFunction(function, symbolTableSource, executionContext);
+            }
+        }
+    }
+
+    private void writeBindVarFunction(
+            Function function,
+            SymbolTableSource symbolTableSource,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final int columnType = function.getType();
+        final int columnTypeTag = ColumnType.tagOf(columnType);
+        switch (columnTypeTag) {
+            case ColumnType.BOOLEAN:
+                bindVarMemory.putLong(function.getBool(null) ? 1 : 0);
+                return;
+            case ColumnType.BYTE:
+                bindVarMemory.putLong(function.getByte(null));
+                return;
+            case ColumnType.GEOBYTE:
+                bindVarMemory.putLong(function.getGeoByte(null));
+                return;
+            case ColumnType.SHORT:
+                bindVarMemory.putLong(function.getShort(null));
+                return;
+            case ColumnType.GEOSHORT:
+                bindVarMemory.putLong(function.getGeoShort(null));
+                return;
+            case ColumnType.CHAR:
+                bindVarMemory.putLong(function.getChar(null));
+                return;
+            case ColumnType.INT:
+                bindVarMemory.putLong(function.getInt(null));
+                return;
+            case ColumnType.GEOINT:
+                bindVarMemory.putLong(function.getGeoInt(null));
+                return;
+            case ColumnType.SYMBOL:
+                assert function instanceof CompiledFilterSymbolBindVariable;
+                function.init(symbolTableSource, executionContext);
+                bindVarMemory.putLong(function.getInt(null));
+                return;
+            case ColumnType.FLOAT:
+                // compiled filter function will read only the first word
+                bindVarMemory.putFloat(function.getFloat(null));
+                bindVarMemory.putFloat(Float.NaN);
+                return;
+            case ColumnType.LONG:
+                bindVarMemory.putLong(function.getLong(null));
+                return;
+            case ColumnType.GEOLONG:
+                bindVarMemory.putLong(function.getGeoLong(null));
+                return;
+            case ColumnType.DATE:
+                bindVarMemory.putLong(function.getDate(null));
+                return;
+            case ColumnType.TIMESTAMP:
+                bindVarMemory.putLong(function.getTimestamp(null));
+                return;
+            case ColumnType.DOUBLE:
+                bindVarMemory.putDouble(function.getDouble(null));
+                return;
+            default:
+                throw SqlException.position(0).put("unsupported bind variable type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+    }
+}
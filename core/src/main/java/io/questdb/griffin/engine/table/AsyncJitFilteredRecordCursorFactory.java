@@ -27,7 +27,6 @@ package io.questdb.griffin.engine.table;
 import io.questdb.MessageBus;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
-import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.TableToken;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
@@ -38,7 +37,6 @@ import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.*;
@@ -160,6 +158,10 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return cursor;
     }
 
+    public AsyncJitFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
     public boolean hasDescendingOrder() {
         return base.hasDescendingOrder();
     }
@@ -218,61 +220,12 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @NotNull SqlExecutionCircuitBreaker circuitBreaker,
             @Nullable PageFrameSequence<?> stealingFrameSequence
     ) {
-        final DirectLongList rows = task.getRows();
-        final DirectLongList columns = task.getColumns();
-        final long frameRowCount = task.getFrameRowCount();
         final AsyncJitFilterAtom atom = task.getFrameSequence(AsyncJitFilterAtom.class).getAtom();
-        final PageAddressCache pageAddressCache = task.getPageAddressCache();
-
-        rows.clear();
-
-        if (pageAddressCache.hasColumnTops(task.getFrameIndex())) {
-            // Use Java-based filter in case of a page frame with column tops.
-            final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
-            final int filterId = atom.acquireFilter(workerId, owner, circuitBreaker);
-            final Function filter = atom.getFilter(filterId);
-            try {
-                for (long r = 0; r < frameRowCount; r++) {
-                    record.setRowIndex(r);
-                    if (filter.getBool(record)) {
-                        rows.add(r);
-                    }
-                }
-                return;
-            } finally {
-                atom.releaseFilter(filterId);
-            }
-        }
-
-        // Use JIT-compiled filter.
-
-        final long columnCount = pageAddressCache.getColumnCount();
-        if (columns.getCapacity() < columnCount) {
-            columns.setCapacity(columnCount);
-        }
-        columns.clear();
-        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
-        }
-
-        final long rowCount = task.getFrameRowCount();
-        if (rows.getCapacity() < rowCount) {
-            rows.setCapacity(rowCount);
-        }
-
-        long hi = atom.compiledFilter.call(
-                columns.getAddress(),
-                columns.size(),
-                atom.bindVarMemory.getAddress(),
-                atom.bindVarFunctions.size(),
-                rows.getAddress(),
-                rowCount,
-                0
-        );
-        rows.setPos(hi);
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        atom.filter(workerId, owner, record, task, circuitBreaker);
 
         // Pre-touch fixed-size columns, if asked.
-        atom.preTouchColumns(record, rows);
+        atom.preTouchColumns(record, task.getRows());
     }
 
     @Override
@@ -284,114 +237,4 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         cursor.freeRecords();
         negativeLimitCursor.freeRecords();
     }
-
-    private static class AsyncJitFilterAtom extends AsyncFilterAtom {
-
-        final ObjList<Function> bindVarFunctions;
-        final MemoryCARW bindVarMemory;
-        final CompiledFilter compiledFilter;
-
-        public AsyncJitFilterAtom(
-                CairoConfiguration configuration,
-                Function filter,
-                ObjList<Function> perWorkerFilters,
-                CompiledFilter compiledFilter,
-                MemoryCARW bindVarMemory,
-                ObjList<Function> bindVarFunctions,
-                @Nullable IntList preTouchColumnTypes
-        ) {
-            super(configuration, filter, perWorkerFilters, preTouchColumnTypes);
-            this.compiledFilter = compiledFilter;
-            this.bindVarMemory = bindVarMemory;
-            this.bindVarFunctions = bindVarFunctions;
-        }
-
-        @Override
-        public void close() {
-            super.close();
-            Misc.free(compiledFilter);
-            Misc.free(bindVarMemory);
-            Misc.freeObjList(bindVarFunctions);
-        }
-
-        @Override
-        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
-            super.init(symbolTableSource, executionContext);
-            Function.init(bindVarFunctions, symbolTableSource, executionContext);
-            prepareBindVarMemory(symbolTableSource, executionContext);
-        }
-
-        private void prepareBindVarMemory(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
-            //don't trigger memory allocation if there are no variables 
-            if (bindVarFunctions.size() > 0) {
-                bindVarMemory.truncate();
-                for (int i = 0, n = bindVarFunctions.size(); i < n; i++) {
-                    Function function = bindVarFunctions.getQuick(i);
-                    writeBindVarFunction(function, symbolTableSource, executionContext);
-                }
-            }
-        }
-
-        private void writeBindVarFunction(
-                Function function,
-                SymbolTableSource symbolTableSource,
-                SqlExecutionContext executionContext
-        ) throws SqlException {
-            final int columnType = function.getType();
-            final int columnTypeTag = ColumnType.tagOf(columnType);
-            switch (columnTypeTag) {
-                case ColumnType.BOOLEAN:
-                    bindVarMemory.putLong(function.getBool(null) ? 1 : 0);
-                    return;
-                case ColumnType.BYTE:
-                    bindVarMemory.putLong(function.getByte(null));
-                    return;
-                case ColumnType.GEOBYTE:
-                    bindVarMemory.putLong(function.getGeoByte(null));
-                    return;
-                case ColumnType.SHORT:
-                    bindVarMemory.putLong(function.getShort(null));
-                    return;
-                case ColumnType.GEOSHORT:
-                    bindVarMemory.putLong(function.getGeoShort(null));
-                    return;
-                case ColumnType.CHAR:
-                    bindVarMemory.putLong(function.getChar(null));
-                    return;
-                case ColumnType.INT:
-                    bindVarMemory.putLong(function.getInt(null));
-                    return;
-                case ColumnType.GEOINT:
-                    bindVarMemory.putLong(function.getGeoInt(null));
-                    return;
-                case ColumnType.SYMBOL:
-                    assert function instanceof CompiledFilterSymbolBindVariable;
-                    function.init(symbolTableSource, executionContext);
-                    bindVarMemory.putLong(function.getInt(null));
-                    return;
-                case ColumnType.FLOAT:
-                    // compiled filter function will read only the first word
-                    bindVarMemory.putFloat(function.getFloat(null));
-                    bindVarMemory.putFloat(Float.NaN);
-                    return;
-                case ColumnType.LONG:
-                    bindVarMemory.putLong(function.getLong(null));
-                    return;
-                case ColumnType.GEOLONG:
-                    bindVarMemory.putLong(function.getGeoLong(null));
-                    return;
-                case ColumnType.DATE:
-                    bindVarMemory.putLong(function.getDate(null));
-                    return;
-                case ColumnType.TIMESTAMP:
-                    bindVarMemory.putLong(function.getTimestamp(null));
-                    return;
-                case ColumnType.DOUBLE:
-                    bindVarMemory.putDouble(function.getDouble(null));
-                    return;
-                default:
-                    throw SqlException.position(0).put("unsupported bind variable type: ").put(ColumnType.nameOf(columnTypeTag));
-            }
-        }
-    }
 }
@@ -160,9 +160,9 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
                 if (sh > -1) {
                     // this assumes reader uses single page to map the whole column
                     // non-negative sh means fixed length column
-                    long address = col.getPageAddress(0);
                     long addressSize = partitionHiAdjusted << sh;
                     long offset = partitionLoAdjusted << sh;
+                    long address = col.getPageAddress(0, offset, addressSize);
                     columnPageAddress.setQuick(i * 2, address + offset);
                     pageSizes.setQuick(i * 2, addressSize - offset);
                 } else {
@@ -218,6 +218,11 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             return columnSizes.getQuick(columnIndex);
         }
 
+        @Override
+        public void getFileRegions(LongList regions) {
+            FwdTableReaderPageFrameCursor.getFileRegions(reader, columnIndexes, columnSizes, partitionIndex, partitionLo, partitionHi, regions);
+        }
+
         @Override
         public long getIndexPageAddress(int columnIndex) {
             return columnPageAddress.getQuick(columnIndex * 2 + 1);
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.table;
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.MemoryCMRImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
 import io.questdb.std.*;
@@ -74,6 +75,45 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
         dataFrameCursor = Misc.free(dataFrameCursor);
     }
 
+    static void getFileRegions(
+            TableReader reader,
+            IntList columnIndexes,
+            IntList columnSizes,
+            int partitionIndex,
+            long partitionLo,
+            long partitionHi,
+            LongList regions
+    ) {
+        final int base = reader.getColumnBase(partitionIndex);
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final int readerColIndex = TableReader.getPrimaryColumnIndex(base, columnIndex);
+            final MemoryR col = reader.getColumn(readerColIndex);
+            // null columns and columns decompressed into native memory are not read from files
+            if (!(col instanceof MemoryCMRImpl)) {
+                continue;
+            }
+            final long top = reader.getColumnTop(base, columnIndex);
+            final long lo = Math.max(partitionLo - top, 0);
+            final long hi = partitionHi - top;
+            if (hi <= lo) {
+                continue;
+            }
+            final int sh = columnSizes.getQuick(i);
+            if (sh > -1) {
+                addFileRegion(regions, col, lo << sh, hi << sh);
+            } else {
+                final MemoryR fixCol = reader.getColumn(readerColIndex + 1);
+                if (fixCol instanceof MemoryCMRImpl) {
+                    // fixed part has one more offset than there are values
+                    addFileRegion(regions, fixCol, lo << 3, (hi + 1) << 3);
+                    // offsets are read by the prefetcher after the fixed part, the owner thread does not fault on them
+                    regions.add(((MemoryCMRImpl) col).getFd(), lo, hi, fixCol.getPageAddress(0));
+                }
+            }
+        }
+    }
+
     @Override
     public StaticSymbolTable getSymbolTable(int columnIndex) {
         return reader.getSymbolTable(columnIndexes.getQuick(columnIndex));
@@ -132,6 +172,12 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
         reenterDataFrame = false;
     }
 
+    private static void addFileRegion(LongList regions, MemoryR mem, long lo, long hi) {
+        if (hi > lo) {
+            regions.add(((MemoryCMRImpl) mem).getFd(), lo, hi - lo, 0);
+        }
+    }
+
     private TableReaderPageFrame computeFrame(final long partitionLo, final long partitionHi) {
         final int base = reader.getColumnBase(reenterPartitionIndex);
 
@@ -160,9 +206,9 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
                 if (sh > -1) {
                     // this assumes reader uses single page to map the whole column
                     // non-negative sh means fixed length column
-                    long address = col.getPageAddress(0);
                     long addressSize = partitionHiAdjusted << sh;
                     long offset = partitionLoAdjusted << sh;
+                    long address = col.getPageAddress(0, offset, addressSize);
                     columnPageAddress.setQuick(i * 2, address + offset);
                     pageSizes.setQuick(i * 2, addressSize - offset);
                 } else {
@@ -218,6 +264,11 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
             return columnSizes.getQuick(columnIndex);
         }
 
+        @Override
+        public void getFileRegions(LongList regions) {
+            FwdTableReaderPageFrameCursor.getFileRegions(reader, columnIndexes, columnSizes, partitionIndex, partitionLo, partitionHi, regions);
+        }
+
         @Override
         public long getIndexPageAddress(int columnIndex) {
             return columnPageAddress.getQuick(columnIndex * 2 + 1);
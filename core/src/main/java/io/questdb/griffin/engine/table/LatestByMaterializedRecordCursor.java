@@ -0,0 +1,210 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.LatestByMaterialization;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+
+class LatestByMaterializedRecordCursor extends AbstractDataFrameRecordCursor {
+    private final LatestByMaterialization latestBy = new LatestByMaterialization();
+    private final Map map;
+    private final IntList partitionByColumnIndexes;
+    private final IntList partitionByKeyIndexes = new IntList();
+    private final RecordSink recordSink;
+    private final DirectLongList rows;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private long index;
+    private boolean isOpen;
+    private boolean isRowListBuilt;
+    private long rowLo;
+
+    public LatestByMaterializedRecordCursor(
+            @NotNull Map map,
+            @NotNull DirectLongList rows,
+            @NotNull RecordSink recordSink,
+            @NotNull IntList columnIndexes,
+            @NotNull IntList partitionByColumnIndexes
+    ) {
+        super(columnIndexes);
+        this.map = map;
+        this.rows = rows;
+        this.recordSink = recordSink;
+        this.partitionByColumnIndexes = partitionByColumnIndexes;
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            latestBy.clear();
+            Misc.free(map);
+            isOpen = false;
+            super.close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!isRowListBuilt) {
+            buildRowList();
+            index = rowLo;
+            isRowListBuilt = true;
+        }
+        if (index < rows.size()) {
+            final long row = rows.get(index++);
+            recordA.jumpTo(Rows.toPartitionIndex(row), Rows.toLocalRowID(row));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Maps latest rows stored by table writer.
+     *
+     * @param reader reader of the table
+     * @return false when there are no up-to-date latest rows of the partition by columns
+     */
+    public boolean isMaterialized(TableReader reader) {
+        if (!reader.readLatestByMaterialization(latestBy)) {
+            return false;
+        }
+        partitionByKeyIndexes.clear();
+        for (int i = 0, n = partitionByColumnIndexes.size(); i < n; i++) {
+            final int writerIndex = reader.getMetadata().getWriterIndex(columnIndexes.getQuick(partitionByColumnIndexes.getQuick(i)));
+            int keyIndex = -1;
+            for (int k = 0, m = latestBy.getKeyCount(); k < m; k++) {
+                if (latestBy.getKeyWriterIndex(k) == writerIndex) {
+                    keyIndex = k;
+                    break;
+                }
+            }
+            if (keyIndex < 0) {
+                latestBy.clear();
+                return false;
+            }
+            partitionByKeyIndexes.add(keyIndex);
+        }
+        return true;
+    }
+
+    @Override
+    public void of(DataFrameCursor dataFrameCursor, SqlExecutionContext executionContext) throws SqlException {
+        map.reopen();
+        isOpen = true;
+        this.dataFrameCursor = dataFrameCursor;
+        recordA.of(dataFrameCursor.getTableReader());
+        recordB.of(dataFrameCursor.getTableReader());
+        circuitBreaker = executionContext.getCircuitBreaker();
+        rows.clear();
+        isRowListBuilt = false;
+    }
+
+    @Override
+    public long size() {
+        return isRowListBuilt ? rows.size() - rowLo : -1;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Latest rows scan");
+    }
+
+    @Override
+    public void toTop() {
+        index = rowLo;
+    }
+
+    private void buildRowList() {
+        final TableReader reader = dataFrameCursor.getTableReader();
+        for (long i = 0, n = latestBy.getEntryCount(); i < n; i++) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            rows.add(toRowId(reader, i));
+        }
+        // appended entries may hold several rows of a tuple, as do stored tuples with more columns than the query
+        final boolean unique = latestBy.isCompacted() && isFullTuple();
+        latestBy.clear();
+
+        // rows are returned in the order of the table, as in the case of the backward scan
+        final long rowCount = rows.size();
+        Vect.sortULongAscInPlace(rows.getAddress(), rowCount);
+        int partitionIndex = -1;
+        for (long i = 0; i < rowCount; i++) {
+            final int rowPartitionIndex = Rows.toPartitionIndex(rows.get(i));
+            if (rowPartitionIndex != partitionIndex) {
+                reader.openPartition(rowPartitionIndex);
+                partitionIndex = rowPartitionIndex;
+            }
+        }
+
+        rowLo = 0;
+        if (!unique) {
+            // the latest row of each query tuple is the first one met when going from the latest row backwards
+            rowLo = rowCount;
+            for (long i = rowCount - 1; i > -1; i--) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final long row = rows.get(i);
+                recordA.jumpTo(Rows.toPartitionIndex(row), Rows.toLocalRowID(row));
+                final MapKey key = map.withKey();
+                key.put(recordA, recordSink);
+                if (key.create()) {
+                    rows.set(--rowLo, row);
+                }
+            }
+            map.clear();
+        }
+    }
+
+    private boolean isFullTuple() {
+        for (int k = 0, n = latestBy.getKeyCount(); k < n; k++) {
+            if (!partitionByKeyIndexes.contains(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long toRowId(TableReader reader, long entryIndex) {
+        final long partitionTimestamp = latestBy.getPartitionTimestamp(entryIndex);
+        final int partitionIndex = reader.getPartitionIndexByTimestamp(partitionTimestamp);
+        if (partitionIndex < 0 || reader.getPartitionTimestampByIndex(partitionIndex) != partitionTimestamp) {
+            throw CairoException.critical(0).put("latest row refers to missing partition [table=")
+                    .put(reader.getTableToken().getTableName())
+                    .put(", partition=").ts(partitionTimestamp)
+                    .put(']');
+        }
+        return Rows.toRowID(partitionIndex, latestBy.getRow(entryIndex));
+    }
+}
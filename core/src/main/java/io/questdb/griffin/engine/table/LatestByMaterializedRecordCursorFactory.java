@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.sql.DataFrameCursor;
+import io.questdb.cairo.sql.DataFrameCursorFactory;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * LATEST ON query partitioned by SYMBOL columns without a filter. It reads latest rows maintained
+ * by table writer and scans the table backwards only when the stored rows are not up-to-date with
+ * the table reader.
+ */
+public class LatestByMaterializedRecordCursorFactory extends AbstractTreeSetRecordCursorFactory {
+    private final Map map;
+    private final LatestByMaterializedRecordCursor materializedCursor;
+    private final LatestByAllSymbolsFilteredRecordCursor scanCursor;
+
+    public LatestByMaterializedRecordCursorFactory(
+            @NotNull RecordMetadata metadata,
+            @NotNull CairoConfiguration configuration,
+            @NotNull DataFrameCursorFactory dataFrameCursorFactory,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes partitionByColumnTypes,
+            @NotNull IntList partitionByColumnIndexes,
+            @NotNull IntList columnIndexes
+    ) {
+        super(metadata, dataFrameCursorFactory, configuration);
+        // cursors share the map and the row list, only one of them is used at a time
+        this.map = MapFactory.createMap(configuration, partitionByColumnTypes);
+        this.materializedCursor = new LatestByMaterializedRecordCursor(
+                map,
+                rows,
+                recordSink,
+                columnIndexes,
+                partitionByColumnIndexes
+        );
+        this.scanCursor = new LatestByAllSymbolsFilteredRecordCursor(
+                map,
+                rows,
+                recordSink,
+                null,
+                columnIndexes,
+                partitionByColumnIndexes,
+                null
+        );
+        this.cursor = materializedCursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("LatestByMaterialized");
+        sink.child(materializedCursor);
+        sink.child(dataFrameCursorFactory);
+    }
+
+    @Override
+    protected void _close() {
+        materializedCursor.close();
+        scanCursor.close();
+        super._close();
+    }
+
+    @Override
+    protected RecordCursor getCursorInstance(
+            DataFrameCursor dataFrameCursor,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        // the cursor used last time may have released the shared map
+        map.reopen();
+        if (materializedCursor.isMaterialized(dataFrameCursor.getTableReader())) {
+            materializedCursor.of(dataFrameCursor, executionContext);
+            return materializedCursor;
+        }
+        // writer has not stored latest rows for this version of the table yet
+        scanCursor.of(dataFrameCursor, executionContext);
+        return scanCursor;
+    }
+}
@@ -30,9 +30,19 @@ import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final int FRAMING_RANGE = 2;
+    public static final int FRAMING_ROWS = 1;
+    // frame bounds are offsets relative to the current row, "n preceding" is stored as -n
+    public static final long FRAME_CURRENT_ROW = 0;
+    public static final long FRAME_UNBOUNDED_FOLLOWING = Long.MAX_VALUE;
+    public static final long FRAME_UNBOUNDED_PRECEDING = Long.MIN_VALUE;
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
+    private long frameHi = FRAME_UNBOUNDED_FOLLOWING;
+    private long frameLo = FRAME_UNBOUNDED_PRECEDING;
+    private int framePosition;
+    private int framingMode = FRAMING_RANGE;
 
     private AnalyticColumn() {
     }
@@ -48,6 +58,26 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_RANGE;
+        frameLo = FRAME_UNBOUNDED_PRECEDING;
+        frameHi = FRAME_UNBOUNDED_FOLLOWING;
+        framePosition = 0;
+    }
+
+    public long getFrameHi() {
+        return frameHi;
+    }
+
+    public long getFrameLo() {
+        return frameLo;
+    }
+
+    public int getFramePosition() {
+        return framePosition;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getOrderBy() {
@@ -62,8 +92,28 @@ public final class AnalyticColumn extends QueryColumn {
         return partitionBy;
     }
 
+    /**
+     * Default frame is the one implied by the SQL standard when OVER clause has no
+     * explicit frame: the whole partition without ORDER BY, and all rows up to and
+     * including the current one with ORDER BY.
+     *
+     * @return true when frame is the default for the presence of ORDER BY
+     */
+    public boolean isDefaultFrame() {
+        return framingMode == FRAMING_RANGE
+                && frameLo == FRAME_UNBOUNDED_PRECEDING
+                && frameHi == (orderBy.size() > 0 ? FRAME_CURRENT_ROW : FRAME_UNBOUNDED_FOLLOWING);
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFrame(int framingMode, long frameLo, long frameHi, int framePosition) {
+        this.framingMode = framingMode;
+        this.frameLo = frameLo;
+        this.frameHi = frameHi;
+        this.framePosition = framePosition;
+    }
 }
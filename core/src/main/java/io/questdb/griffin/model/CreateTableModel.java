@@ -33,7 +33,9 @@ import io.questdb.std.str.CharSink;
 
 public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, TableStructure {
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
+    private static final int COLUMN_FLAG_BLOOM_FILTER = 8;
     private static final int COLUMN_FLAG_CACHED = 1;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private static final int COLUMN_FLAG_INDEXED = 2;
     private final LongList columnBits = new LongList();
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
@@ -189,6 +191,16 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return volumeAlias;
     }
 
+    @Override
+    public boolean isBloomFilter(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_BLOOM_FILTER) != 0;
+    }
+
+    @Override
+    public boolean isDedupKey(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
     public boolean isIgnoreIfExists() {
         return ignoreIfExists;
     }
@@ -209,6 +221,16 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return walEnabled;
     }
 
+    public void setBloomFilterFlag(int index) {
+        final int pos = index * 2 + 1;
+        columnBits.setQuick(pos, Numbers.encodeLowHighInts(getLowAt(pos) | COLUMN_FLAG_BLOOM_FILTER, getHighAt(pos)));
+    }
+
+    public void setDedupKeyFlag(int index) {
+        final int pos = index * 2 + 1;
+        columnBits.setQuick(pos, Numbers.encodeLowHighInts(getLowAt(pos) | COLUMN_FLAG_DEDUP_KEY, getHighAt(pos)));
+    }
+
     public void setIgnoreIfExists(boolean flag) {
         this.ignoreIfExists = flag;
     }
@@ -358,6 +380,30 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
             }
         }
 
+        boolean dedup = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                sink.put(dedup ? "," : " dedup upsert keys(");
+                sink.put(getColumnName(i));
+                dedup = true;
+            }
+        }
+        if (dedup) {
+            sink.put(')');
+        }
+
+        boolean bloomFilter = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isBloomFilter(i)) {
+                sink.put(bloomFilter ? "," : " bloom filter(");
+                sink.put(getColumnName(i));
+                bloomFilter = true;
+            }
+        }
+        if (bloomFilter) {
+            sink.put(')');
+        }
+
         if (volumeAlias != null) {
             sink.put(" in volume '").put(volumeAlias).put('\'');
         }
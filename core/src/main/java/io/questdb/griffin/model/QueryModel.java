@@ -1177,6 +1177,18 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         }
     }
 
+    private static void frameBoundToSink(long bound, CharSink sink) {
+        if (bound == AnalyticColumn.FRAME_UNBOUNDED_PRECEDING) {
+            sink.put("unbounded preceding");
+        } else if (bound == AnalyticColumn.FRAME_UNBOUNDED_FOLLOWING) {
+            sink.put("unbounded following");
+        } else if (bound == AnalyticColumn.FRAME_CURRENT_ROW) {
+            sink.put("current row");
+        } else {
+            sink.put(-bound).put(" preceding");
+        }
+    }
+
     private String getSelectModelTypeText() {
         return modelTypeName.get(selectModelType);
     }
@@ -1228,6 +1240,17 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (!ac.isDefaultFrame()) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows" : "range");
+                        sink.put(" between ");
+                        frameBoundToSink(ac.getFrameLo(), sink);
+                        sink.put(" and ");
+                        frameBoundToSink(ac.getFrameHi(), sink);
+                    }
                     sink.put(')');
                 }
             } else {
@@ -25,16 +25,18 @@ package io.questdb.jit;
 
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.*;
-import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
-import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
-import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
+import io.questdb.griffin.engine.functions.bind.*;
 import io.questdb.griffin.engine.functions.constants.ConstantFunction;
+import io.questdb.griffin.engine.functions.constants.StrConstant;
 import io.questdb.griffin.engine.functions.constants.SymbolConstant;
 import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.TestOnly;
 
 import java.util.Arrays;
 
@@ -47,6 +49,21 @@ import java.util.Arrays;
  * | opcode | options | payload |
  * | int    | int     | long    |
  * </pre>
+ * <p>
+ * Symbol IN lists, timestamp IN interval strings and string column equalities are serialized
+ * as single instructions holding the column index and the index of a bind variable function
+ * that builds the symbol key set, the intervals or the off-heap string on init:
+ * <pre>
+ * | IN_SET/IN_INTERVALS | column type              | column index | bind variable index |
+ * | STR_EQ              | column aux address index | column index | bind variable index |
+ * </pre>
+ * BETWEEN and abs() predicates have no IR counterparts. Before serialization, they are rewritten
+ * into comparisons joined with AND and OR operators: BETWEEN over constants becomes a range check,
+ * comparisons of abs(column) with a non-negative constant become checks against the constant and
+ * its negation. BETWEEN bounds are parsed at compilation time.
+ * <p>
+ * The same IR describes projections: arithmetic expressions over numeric columns evaluated
+ * for each row of a page frame, see {@link #serializeProjection(ExpressionNode, int, boolean, boolean)}.
  */
 public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Visitor, Mutable {
 
@@ -67,6 +84,9 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int I8_TYPE = 4;
     // Constants
     static final int IMM = 1;
+    // Single instruction predicates
+    static final int IN_INTERVALS = 20; // timestamp_column IN 'interval'
+    static final int IN_SET = 19;       // symbol_column IN (a, b, c)
     static final int LE = 11;  // a <= b
     static final int LT = 10;  // a <  b
     // Columns
@@ -77,9 +97,14 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int NEG = 4;   // -a
     static final int NOT = 5;   // !a
     static final int OR = 7;   // a || b
+    // IR version that introduced the single instruction predicates
+    static final int PREDICATE_OPCODES_IR_VERSION = 2;
+    // IR version that introduced compiled projections
+    static final int PROJECTION_IR_VERSION = 3;
     // Opcodes:
     // Return code. Breaks the loop
     static final int RET = 0; // ret
+    static final int STR_EQ = 21;       // string_column = 'value'
     static final int SUB = 15;  // a - b
     // Stub value for opcodes and options
     static final int UNDEFINED_CODE = -1;
@@ -87,6 +112,10 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int VAR = 3;
     // contains <memory_offset, constant_node> pairs for backfilling purposes
     private final LongObjHashMap<ExpressionNode> backfillNodes = new LongObjHashMap<>();
+    // nodes of rewritten BETWEEN and abs() predicates
+    private final ObjectPool<ExpressionNode> expressionNodePool = new ObjectPool<>(ExpressionNode.FACTORY, 16);
+    // IR version accepted by the native compiler, newer instructions are left to the Java filter
+    private final int irVersion;
     private final PredicateContext predicateContext = new PredicateContext();
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private ObjList<Function> bindVarFunctions;
@@ -98,6 +127,15 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     private RecordMetadata metadata;
     private PageFrameCursor pageFrameCursor;
 
+    public CompiledFilterIRSerializer() {
+        this(FiltersCompiler.IR_VERSION);
+    }
+
+    @TestOnly
+    CompiledFilterIRSerializer(int irVersion) {
+        this.irVersion = irVersion;
+    }
+
     @Override
     public void clear() {
         memory = null;
@@ -106,6 +144,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         forceScalarMode = false;
         predicateContext.clear();
         backfillNodes.clear();
+        expressionNodePool.clear();
     }
 
     @Override
@@ -116,6 +155,17 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
                     .put(node.token);
         }
 
+        if (!predicateContext.isActive()) {
+            if (isSingleInstructionPredicate(node)) {
+                serializeSingleInstructionPredicate(node);
+                return false;
+            }
+            // negation of such predicate is applied to the instruction's result, like to the result of OR
+            if (SqlKeywords.isNotKeyword(node.token) && isSingleInstructionPredicate(node.lhs != null ? node.lhs : node.rhs)) {
+                return true;
+            }
+        }
+
         // Check if we're at the start of an arithmetic expression
         predicateContext.onNodeDescended(node);
 
@@ -170,7 +220,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
      * @throws SqlException thrown when IR serialization failed.
      */
     public int serialize(ExpressionNode node, boolean scalar, boolean debug, boolean nullChecks) throws SqlException {
-        traverseAlgo.traverse(node, this);
+        traverseAlgo.traverse(rewrite(node), this);
         putOperator(RET);
 
         TypesObserver typesObserver = predicateContext.globalTypesObserver;
@@ -191,6 +241,45 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return options;
     }
 
+    /**
+     * Writes IR of the arithmetic expression evaluated by a compiled projection to memory.
+     * The expression may consist of columns of the projected type, numeric constants and
+     * +, -, *, / operators only, so that the compiled code yields the same values as the
+     * expression's Java functions.
+     *
+     * @param node       expression tree's root node.
+     * @param columnType type of the projected values, LONG or DOUBLE.
+     * @param debug      set enable debug flag in the returned options.
+     * @param nullChecks a flag for JIT, allowing or disallowing generation of null check
+     * @return JIT compiler options, see {@link #serialize(ExpressionNode, boolean, boolean, boolean)}.
+     * @throws SqlException thrown when the expression can't be compiled.
+     */
+    public int serializeProjection(ExpressionNode node, int columnType, boolean debug, boolean nullChecks) throws SqlException {
+        if (irVersion < PROJECTION_IR_VERSION) {
+            throw SqlException.position(node.position).put("projections are not supported by the JIT library");
+        }
+        final int columnTypeTag = ColumnType.tagOf(columnType);
+        if (columnTypeTag != ColumnType.LONG && columnTypeTag != ColumnType.DOUBLE) {
+            throw SqlException.position(node.position)
+                    .put("unsupported projection type: ")
+                    .put(ColumnType.nameOf(columnTypeTag));
+        }
+        validateProjection(node, columnTypeTag);
+
+        // the whole expression is a single numeric "predicate"
+        predicateContext.reset();
+        predicateContext.rootNode = node;
+        predicateContext.type = PredicateType.NUMERIC;
+        traverseAlgo.traverse(node, this);
+        putOperator(RET);
+
+        int options = debug ? 1 : 0;
+        // projected values are 8 bytes wide
+        options = options | (3 << 1);
+        options = options | ((nullChecks ? 1 : 0) << 6);
+        return options;
+    }
+
     @Override
     public void visit(ExpressionNode node) throws SqlException {
         int argCount = node.paramCount;
@@ -298,6 +387,24 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    private static boolean isAbsComparison(ExpressionNode node) {
+        if (node.paramCount != 2) {
+            return false;
+        }
+        final CharSequence token = node.token;
+        if (!Chars.equals(token, "<") && !Chars.equals(token, "<=") && !Chars.equals(token, ">") && !Chars.equals(token, ">=")) {
+            return false;
+        }
+        return isAbsFunction(node.lhs) || isAbsFunction(node.rhs);
+    }
+
+    private static boolean isAbsFunction(ExpressionNode node) {
+        return node != null
+                && node.type == ExpressionNode.FUNCTION
+                && node.paramCount == 1
+                && Chars.equalsLowerCaseAscii(node.token, "abs");
+    }
+
     private static boolean isArithmeticOperation(ExpressionNode node) {
         final CharSequence token = node.token;
         if (node.paramCount < 2) {
@@ -341,6 +448,24 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return Chars.equals(token, ">=");
     }
 
+    private static long parseRangeBound(ExpressionNode node, int columnTypeTag) throws SqlException {
+        if (node.type != ExpressionNode.CONSTANT || SqlKeywords.isNullKeyword(node.token)) {
+            throw SqlException.position(node.position).put("unsupported BETWEEN bound: ").put(node.token);
+        }
+        try {
+            if (Chars.isQuoted(node.token)) {
+                // only date and time columns accept string literals, anything else is left to the Java filter
+                if (columnTypeTag != ColumnType.TIMESTAMP && columnTypeTag != ColumnType.DATE) {
+                    throw SqlException.position(node.position).put("unsupported BETWEEN bound: ").put(node.token);
+                }
+                return SqlUtil.implicitCastStrAsTimestamp(GenericLexer.unquote(node.token));
+            }
+            return Numbers.parseLong(node.token);
+        } catch (ImplicitCastException | NumericException e) {
+            throw SqlException.position(node.position).put("invalid BETWEEN bound: ").put(node.token);
+        }
+    }
+
     private void backfillConstant(long offset, final ExpressionNode node) throws SqlException {
         int position = node.position;
         CharSequence token = node.token;
@@ -463,6 +588,31 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return columnTypeTag == ColumnType.BOOLEAN;
     }
 
+    private boolean isSingleInstructionPredicate(ExpressionNode node) {
+        if (node == null) {
+            return false;
+        }
+        if (SqlKeywords.isInKeyword(node.token)) {
+            return node.paramCount > 1;
+        }
+        if (node.paramCount != 2) {
+            return false;
+        }
+        final CharSequence token = node.token;
+        if (!Chars.equals(token, "=") && !Chars.equals(token, "<>") && !Chars.equals(token, "!=")) {
+            return false;
+        }
+        return isStringColumn(node.lhs) || isStringColumn(node.rhs);
+    }
+
+    private boolean isStringColumn(ExpressionNode node) {
+        if (node.type != ExpressionNode.LITERAL) {
+            return false;
+        }
+        final int index = metadata.getColumnIndexQuiet(node.token);
+        return index != -1 && ColumnType.tagOf(metadata.getColumnType(index)) == ColumnType.STRING;
+    }
+
     private boolean isTopLevelBooleanColumn(ExpressionNode node) {
         if (node.type == ExpressionNode.LITERAL && isBooleanColumn(node)) {
             return true;
@@ -476,6 +626,41 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return false;
     }
 
+    private ExpressionNode nextConstant(long value, int position) {
+        return expressionNodePool.next().of(ExpressionNode.CONSTANT, Long.toString(value), 0, position);
+    }
+
+    private ExpressionNode nextOperation(CharSequence token, ExpressionNode lhs, ExpressionNode rhs, int position) {
+        final ExpressionNode node = expressionNodePool.next().of(ExpressionNode.OPERATION, token, 0, position);
+        node.paramCount = 2;
+        node.lhs = lhs;
+        node.rhs = rhs;
+        return node;
+    }
+
+    private ExpressionNode nextRange(ExpressionNode column, long lo, long hi, int position) {
+        if (lo == hi) {
+            return nextOperation("=", column, nextConstant(lo, position), position);
+        }
+        return nextOperation(
+                "and",
+                nextOperation(">=", column, nextConstant(lo, position), position),
+                nextOperation("<=", column, nextConstant(hi, position), position),
+                position
+        );
+    }
+
+    private int predicateColumnIndex(ExpressionNode column, ExpressionNode predicate) throws SqlException {
+        if (column == null || column.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(predicate.position).put("column expected in: ").put(predicate.token);
+        }
+        final int index = metadata.getColumnIndexQuiet(column.token);
+        if (index == -1) {
+            throw SqlException.invalidColumn(column.position, column.token);
+        }
+        return index;
+    }
+
     private void putDoubleOperand(long offset, int type, double payload) {
         memory.putInt(offset, CompiledFilterIRSerializer.IMM);
         memory.putInt(offset + Integer.BYTES, type);
@@ -509,6 +694,124 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         memory.putLong(0L);
     }
 
+    private void putPredicate(int opcode, int options, int columnIndex, Function bindVarFunction) {
+        bindVarFunctions.add(bindVarFunction);
+        memory.putInt(opcode);
+        memory.putInt(options);
+        memory.putLong(columnIndex);
+        memory.putLong(bindVarFunctions.size() - 1);
+    }
+
+    /**
+     * Returns the filter tree with BETWEEN and abs() predicates replaced with equivalent comparisons.
+     * Unchanged subtrees are shared with the original tree, which is never modified.
+     */
+    private ExpressionNode rewrite(ExpressionNode node) throws SqlException {
+        if (node == null || node.paramCount == 0) {
+            return node;
+        }
+        if (SqlKeywords.isBetweenKeyword(node.token) && node.paramCount == 3) {
+            return rewriteBetween(node);
+        }
+        if (isAbsComparison(node)) {
+            return rewriteAbsComparison(node);
+        }
+        if (node.paramCount > 2) {
+            // functions with more than two arguments are not supported anyway
+            return node;
+        }
+        final ExpressionNode lhs = rewrite(node.lhs);
+        final ExpressionNode rhs = rewrite(node.rhs);
+        if (lhs == node.lhs && rhs == node.rhs) {
+            return node;
+        }
+        final ExpressionNode copy = expressionNodePool.next().of(node.type, node.token, node.precedence, node.position);
+        copy.paramCount = node.paramCount;
+        copy.lhs = lhs;
+        copy.rhs = rhs;
+        return copy;
+    }
+
+    private ExpressionNode rewriteAbsComparison(ExpressionNode node) throws SqlException {
+        final boolean absOnLeft = isAbsFunction(node.lhs);
+        final ExpressionNode abs = absOnLeft ? node.lhs : node.rhs;
+        final ExpressionNode bound = absOnLeft ? node.rhs : node.lhs;
+        final ExpressionNode column = abs.rhs;
+        final int columnTypeTag = rewrittenColumnTypeTag(column, node);
+        switch (columnTypeTag) {
+            case ColumnType.BYTE:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                break;
+            default:
+                // abs() of a short overflows for its min value, which the rewrite wouldn't reproduce
+                throw SqlException.position(abs.position).put("unsupported abs() column type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+        if (bound.type != ExpressionNode.CONSTANT || SqlKeywords.isNullKeyword(bound.token) || Chars.isQuoted(bound.token)) {
+            throw SqlException.position(bound.position).put("unsupported abs() bound: ").put(bound.token);
+        }
+        final double value;
+        try {
+            value = Numbers.parseDouble(bound.token);
+        } catch (NumericException e) {
+            throw SqlException.position(bound.position).put("invalid abs() bound: ").put(bound.token);
+        }
+        if (!(value >= 0)) {
+            throw SqlException.position(bound.position).put("negative abs() bound: ").put(bound.token);
+        }
+        final ExpressionNode negatedBound = expressionNodePool.next().of(ExpressionNode.CONSTANT, "-" + bound.token, 0, bound.position);
+
+        // bring the predicate to abs(x) op c form
+        final CharSequence token = node.token;
+        final boolean inclusive = token.length() == 2;
+        final boolean greater = (token.charAt(0) == '>') == absOnLeft;
+        if (greater) {
+            // abs(x) > c  =>  x > c or x < -c
+            return nextOperation(
+                    "or",
+                    nextOperation(inclusive ? ">=" : ">", column, bound, node.position),
+                    nextOperation(inclusive ? "<=" : "<", column, negatedBound, node.position),
+                    node.position
+            );
+        }
+        // abs(x) < c  =>  x < c and x > -c
+        return nextOperation(
+                "and",
+                nextOperation(inclusive ? "<=" : "<", column, bound, node.position),
+                nextOperation(inclusive ? ">=" : ">", column, negatedBound, node.position),
+                node.position
+        );
+    }
+
+    private ExpressionNode rewriteBetween(ExpressionNode node) throws SqlException {
+        // arguments are stored in reverse order
+        final ExpressionNode column = node.args.getQuick(2);
+        final int columnTypeTag = rewrittenColumnTypeTag(column, node);
+        if (columnTypeTag != ColumnType.TIMESTAMP && columnTypeTag != ColumnType.DATE && columnTypeTag != ColumnType.LONG) {
+            throw SqlException.position(node.position).put("unsupported BETWEEN column type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+        final long from = parseRangeBound(node.args.getQuick(1), columnTypeTag);
+        final long to = parseRangeBound(node.args.getQuick(0), columnTypeTag);
+        if (from == Numbers.LONG_NaN || to == Numbers.LONG_NaN) {
+            throw SqlException.position(node.position).put("null BETWEEN bound");
+        }
+        // BETWEEN is symmetric, i.e. bounds can go in any order
+        long lo = Math.min(from, to);
+        long hi = Math.max(from, to);
+        if (columnTypeTag == ColumnType.DATE) {
+            // BETWEEN compares dates as timestamps, bounds are narrowed to the dates inside the range
+            lo = Math.floorDiv(lo, Timestamps.MILLI_MICROS) + (Math.floorMod(lo, Timestamps.MILLI_MICROS) != 0 ? 1 : 0);
+            hi = Math.floorDiv(hi, Timestamps.MILLI_MICROS);
+        }
+        return nextRange(column, lo, hi, node.position);
+    }
+
+    private int rewrittenColumnTypeTag(ExpressionNode column, ExpressionNode predicate) throws SqlException {
+        return ColumnType.tagOf(metadata.getColumnType(predicateColumnIndex(column, predicate)));
+    }
+
     private void serializeBindVariable(final ExpressionNode node) throws SqlException {
         if (!predicateContext.isActive()) {
             throw SqlException.position(node.position)
@@ -691,6 +994,36 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    private void serializeIn(ExpressionNode node) throws SqlException {
+        final int valueCount = node.paramCount - 1;
+        final ExpressionNode column = valueCount == 1 ? node.lhs : node.args.getQuick(valueCount);
+        final int columnIndex = predicateColumnIndex(column, node);
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(columnIndex));
+        switch (columnTypeTag) {
+            case ColumnType.SYMBOL:
+                final ObjList<Function> valueFunctions = new ObjList<>(valueCount);
+                for (int i = 0; i < valueCount; i++) {
+                    // arguments are stored in reverse order
+                    valueFunctions.add(stringValueFunction(valueCount == 1 ? node.rhs : node.args.getQuick(valueCount - 1 - i)));
+                }
+                putPredicate(IN_SET, I4_TYPE, columnIndex, new CompiledFilterSymbolSetBindVariable(valueFunctions, columnIndex));
+                predicateContext.globalTypesObserver.observe(I4_TYPE);
+                break;
+            case ColumnType.TIMESTAMP:
+                final ExpressionNode interval = node.rhs;
+                if (valueCount != 1 || SqlKeywords.isNullKeyword(interval.token)) {
+                    throw SqlException.position(node.position).put("unsupported timestamp IN predicate");
+                }
+                putPredicate(IN_INTERVALS, I8_TYPE, columnIndex, new CompiledFilterIntervalsBindVariable(stringValueFunction(interval), interval.position));
+                predicateContext.globalTypesObserver.observe(I8_TYPE);
+                // binary search over the intervals has no SIMD version
+                forceScalarMode = true;
+                break;
+            default:
+                throw SqlException.position(node.position).put("unsupported IN column type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+    }
+
     private void serializeNull(long offset, int position, int typeCode, boolean geoHashPredicate) throws SqlException {
         switch (typeCode) {
             case I1_TYPE:
@@ -837,6 +1170,32 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         throw SqlException.position(position).put("invalid operator: ").put(token);
     }
 
+    private void serializeSingleInstructionPredicate(ExpressionNode node) throws SqlException {
+        if (irVersion < PREDICATE_OPCODES_IR_VERSION) {
+            throw SqlException.position(node.position).put("predicate is not supported by native compiler: ").put(node.token);
+        }
+        if (SqlKeywords.isInKeyword(node.token)) {
+            serializeIn(node);
+        } else {
+            serializeStrEquality(node);
+        }
+    }
+
+    private void serializeStrEquality(ExpressionNode node) throws SqlException {
+        final boolean columnOnLeft = isStringColumn(node.lhs);
+        final ExpressionNode column = columnOnLeft ? node.lhs : node.rhs;
+        final ExpressionNode value = columnOnLeft ? node.rhs : node.lhs;
+        final int columnIndex = predicateColumnIndex(column, node);
+        // aux page addresses follow the data ones in the column address list
+        final int auxIndex = metadata.getColumnCount() + columnIndex;
+        putPredicate(STR_EQ, auxIndex, columnIndex, new CompiledFilterStrBindVariable(stringValueFunction(value)));
+        if (!Chars.equals(node.token, "=")) {
+            putOperator(NOT);
+        }
+        // string comparison has no SIMD version
+        forceScalarMode = true;
+    }
+
     private void serializeSymbolConstant(long offset, int position, final CharSequence token) throws SqlException {
         final int len = token.length();
         CharSequence symbol = token;
@@ -901,6 +1260,65 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         throw SqlException.position(position).put("unexpected non-numeric constant: ").put(token);
     }
 
+    /**
+     * Returns a function for a string constant, a null constant or a string bind variable used as a value
+     * in a single instruction predicate.
+     */
+    private Function stringValueFunction(ExpressionNode node) throws SqlException {
+        switch (node.type) {
+            case ExpressionNode.CONSTANT:
+                if (SqlKeywords.isNullKeyword(node.token)) {
+                    return StrConstant.NULL;
+                }
+                if (Chars.isQuoted(node.token)) {
+                    return new StrConstant(node.token);
+                }
+                break;
+            case ExpressionNode.BIND_VARIABLE:
+                final Function varFunction = getBindVariableFunction(node.position, node.token);
+                if (ColumnType.tagOf(varFunction.getType()) == ColumnType.STRING) {
+                    return varFunction;
+                }
+                break;
+        }
+        throw SqlException.position(node.position).put("unsupported predicate value: ").put(node.token);
+    }
+
+    private void validateProjection(ExpressionNode node, int columnTypeTag) throws SqlException {
+        switch (node.type) {
+            case ExpressionNode.LITERAL:
+                final int index = metadata.getColumnIndexQuiet(node.token);
+                if (index == -1) {
+                    throw SqlException.invalidColumn(node.position, node.token);
+                }
+                // mixed column types may be promoted differently by Java functions, e.g. int * int overflows
+                final int typeTag = ColumnType.tagOf(metadata.getColumnType(index));
+                if (typeTag != columnTypeTag) {
+                    throw SqlException.position(node.position)
+                            .put("unsupported projection column type: ")
+                            .put(ColumnType.nameOf(typeTag));
+                }
+                return;
+            case ExpressionNode.CONSTANT:
+                if (SqlKeywords.isNullKeyword(node.token) || Chars.isQuoted(node.token)) {
+                    break;
+                }
+                return;
+            case ExpressionNode.OPERATION:
+                if (node.paramCount == 2 && isArithmeticOperation(node)) {
+                    validateProjection(node.lhs, columnTypeTag);
+                    validateProjection(node.rhs, columnTypeTag);
+                    return;
+                }
+                if (node.paramCount == 1 && Chars.equals(node.token, "-")) {
+                    validateProjection(node.lhs != null ? node.lhs : node.rhs, columnTypeTag);
+                    return;
+                }
+                break;
+        }
+        throw SqlException.position(node.position).put("unsupported projection token: ").put(node.token);
+    }
+
     private enum PredicateType {
         NUMERIC, CHAR, SYMBOL, BOOLEAN, GEO_HASH, UUID
     }
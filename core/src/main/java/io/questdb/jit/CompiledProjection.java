@@ -0,0 +1,91 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.jit;
+
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.ThreadLocal;
+
+import java.io.Closeable;
+
+/**
+ * Natively compiled arithmetic expression over page frame columns. For each row, the expression
+ * value is written to the output buffer as a long or a double, see
+ * {@link CompiledFilterIRSerializer#serializeProjection(io.questdb.griffin.model.ExpressionNode, int, boolean, boolean)}.
+ * The compiled code holds no state, so a single instance may be called by multiple threads.
+ */
+public class CompiledProjection implements Closeable {
+
+    private static final ThreadLocal<FiltersCompiler.JitError> tlJitError = new ThreadLocal<>(FiltersCompiler.JitError::new);
+
+    private long fnAddress;
+
+    /**
+     * Evaluates the expression for the given rows.
+     *
+     * @param colsAddress   address of the page frame column addresses
+     * @param colsSize      number of the column addresses
+     * @param varsAddress   address of the bind variable values
+     * @param varsSize      number of the bind variable values
+     * @param rowsAddress   address of the frame row ids, 0 stands for all rows in [0, rowsSize) range
+     * @param rowsSize      number of rows
+     * @param outputAddress address of the buffer for rowsSize 8-byte values
+     * @return number of written values
+     */
+    public long call(long colsAddress, long colsSize, long varsAddress, long varsSize, long rowsAddress, long rowsSize, long outputAddress) {
+        return FiltersCompiler.callProjection(
+                fnAddress,
+                colsAddress,
+                colsSize,
+                varsAddress,
+                varsSize,
+                rowsAddress,
+                rowsSize,
+                outputAddress
+        );
+    }
+
+    @Override
+    public void close() {
+        if (fnAddress > 0) {
+            FiltersCompiler.freeFunction(fnAddress);
+            fnAddress = 0;
+        }
+    }
+
+    public void compile(MemoryCARW projection, int options) throws SqlException {
+        final long projectionSize = projection.getAppendOffset();
+        final long projectionAddress = projection.getPageAddress(0);
+
+        FiltersCompiler.JitError error = tlJitError.get();
+        error.reset();
+        fnAddress = FiltersCompiler.compileProjection(projectionAddress, projectionSize, options, error);
+        if (error.errorCode() != 0) {
+            throw SqlException.position(0)
+                    .put("JIT compilation failed [errorCode").put(error.errorCode())
+                    .put(", msg=").put(error.message()).put("]");
+        }
+    }
+}
@@ -24,10 +24,14 @@
 
 package io.questdb.jit;
 
+import io.questdb.std.Os;
 import io.questdb.std.str.StringSink;
 
 final class FiltersCompiler {
 
+    // IR version accepted by the loaded native library
+    static final int IR_VERSION;
+
     private FiltersCompiler() {
     }
 
@@ -40,10 +44,23 @@ final class FiltersCompiler {
                                            long rowsSize,
                                            long rowsStartOffset);
 
+    public static native long callProjection(long fnAddress,
+                                             long colsAddress,
+                                             long colsSize,
+                                             long varsAddress,
+                                             long varsSize,
+                                             long rowsAddress,
+                                             long rowsSize,
+                                             long outputAddress);
+
     public static native long compileFunction(long filterAddress, long filterSize, int options, JitError error);
 
+    public static native long compileProjection(long projectionAddress, long projectionSize, int options, JitError error);
+
     public static native long freeFunction(long fnAddress);
 
+    private static native int getIRVersion();
+
     static class JitError {
 
         private final StringSink message = new StringSink();
@@ -70,4 +87,15 @@ final class FiltersCompiler {
         }
     }
 
+    static {
+        Os.init();
+        int version;
+        try {
+            version = getIRVersion();
+        } catch (UnsatisfiedLinkError e) {
+            // libraries built before the IR got versioned support the first version only
+            version = 1;
+        }
+        IR_VERSION = version;
+    }
 }
@@ -35,4 +35,20 @@ public final class JitUtil {
         // TODO what about FREEBSD_ARM64?
         return Os.type != Os.LINUX_ARM64 && Os.type != Os.OSX_ARM64;
     }
+
+    /**
+     * Returns true if the loaded native library compiles symbol IN list, timestamp IN interval
+     * and string equality predicates. Filters with such predicates fall back to Java otherwise.
+     */
+    public static boolean isPredicateOpcodesSupported() {
+        return FiltersCompiler.IR_VERSION >= CompiledFilterIRSerializer.PREDICATE_OPCODES_IR_VERSION;
+    }
+
+    /**
+     * Returns true if the loaded native library compiles projections, i.e. arithmetic expressions
+     * evaluated by parallel aggregation. Such expressions are evaluated row by row otherwise.
+     */
+    public static boolean isProjectionSupported() {
+        return FiltersCompiler.IR_VERSION >= CompiledFilterIRSerializer.PROJECTION_IR_VERSION;
+    }
 }
@@ -42,5 +42,7 @@ public interface MetricsRegistry extends Scrapable {
 
     LongGauge newLongGauge(int memoryTag);
 
+    Counter newVirtualCounter(CharSequence name, VirtualLongGauge.StatProvider provider);
+
     LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider);
 }
@@ -79,6 +79,13 @@ public class MetricsRegistryImpl implements MetricsRegistry {
         return gauge;
     }
 
+    @Override
+    public Counter newVirtualCounter(CharSequence name, VirtualLongGauge.StatProvider provider) {
+        Counter counter = new VirtualLongCounter(name, provider);
+        metrics.add(counter);
+        return counter;
+    }
+
     @Override
     public LongGauge newVirtualGauge(CharSequence _name, VirtualLongGauge.StatProvider provider) {
         VirtualLongGauge gauge = new VirtualLongGauge(_name, provider);
@@ -64,6 +64,11 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullLongGauge.INSTANCE;
     }
 
+    @Override
+    public Counter newVirtualCounter(CharSequence name, VirtualLongGauge.StatProvider provider) {
+        return NullCounter.INSTANCE;
+    }
+
     @Override
     public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
         return NullLongGauge.INSTANCE;
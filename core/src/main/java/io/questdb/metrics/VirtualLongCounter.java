@@ -0,0 +1,59 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.CharSink;
+
+/**
+ * Read only counter used to expose monotonic stats maintained elsewhere.
+ */
+public class VirtualLongCounter implements Counter {
+
+    private final CharSequence name;
+    private final VirtualLongGauge.StatProvider provider;
+
+    public VirtualLongCounter(CharSequence name, VirtualLongGauge.StatProvider statProvider) {
+        this.name = name;
+        this.provider = statProvider;
+    }
+
+    @Override
+    public void add(long value) {
+        // do nothing as this counter is RO view of some stat
+    }
+
+    @Override
+    public long getValue() {
+        return provider.getValue();
+    }
+
+    @Override
+    public void scrapeIntoPrometheus(CharSink sink) {
+        PrometheusFormatUtils.appendCounterType(name, sink);
+        PrometheusFormatUtils.appendCounterNamePrefix(name, sink);
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, getValue());
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+}
@@ -25,9 +25,11 @@
 package io.questdb.std;
 
 import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.SpillFile;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -39,10 +41,17 @@ public class MemoryPages implements Closeable, Mutable, Reopenable {
     private final int maxPages;
     private final long pageSize;
     private final LongList pages = new LongList();
+    // Pages beyond maxPages are mapped from this file, when set.
+    private final SpillFile spill;
     private long cachePageHi;
     private long cachePageLo;
 
     public MemoryPages(long pageSize, int maxPages) {
+        this(pageSize, maxPages, null);
+    }
+
+    public MemoryPages(long pageSize, int maxPages, @Nullable SpillFile spill) {
+        this.spill = spill;
         this.pageSize = Numbers.ceilPow2(pageSize);
         this.bits = Numbers.msb(this.pageSize);
         this.mask = this.pageSize - 1;
@@ -73,13 +82,15 @@ public class MemoryPages implements Closeable, Mutable, Reopenable {
 
     @Override
     public void close() {
-        for (int i = 0; i < pages.size(); i++) {
+        for (int i = 0, n = pages.size(); i < n; i++) {
             long address = pages.getQuick(i);
-            if (address != 0) {
+            if (address != 0 && i <= maxPages) {
                 Unsafe.free(address, pageSize, MemoryTag.NATIVE_TREE_CHAIN);
             }
         }
         pages.clear();
+        // spilled pages are unmapped by the spill file
+        Misc.free(spill);
         cachePageLo = 0;
         cachePageHi = 0;
     }
@@ -104,12 +115,16 @@ public class MemoryPages implements Closeable, Mutable, Reopenable {
             throw new OutOfMemoryError();
         }
 
-        if (index > maxPages) {
+        if (index > maxPages && spill == null) {
             throw LimitOverflowException.instance().put("Maximum number of pages (").put(maxPages).put(") breached in MemoryPages");
         }
 
         if (index >= pages.size()) {
-            pages.extendAndSet((int) index, Unsafe.malloc(pageSize, MemoryTag.NATIVE_TREE_CHAIN));
+            if (index > maxPages) {
+                pages.extendAndSet((int) index, spill.mapPage(pageSize));
+            } else {
+                pages.extendAndSet((int) index, Unsafe.malloc(pageSize, MemoryTag.NATIVE_TREE_CHAIN));
+            }
             LOG.debug().$("new page [size=").$(pageSize).$(']').$();
         }
 
@@ -34,6 +34,7 @@ public final class MemoryTag {
     public static final int MMAP_O3 = 2;
     public static final int MMAP_PARALLEL_IMPORT = 39;
     public static final int MMAP_SEQUENCER_METADATA = 38;
+    public static final int MMAP_SQL_SPILL = 54;
     public static final int MMAP_TABLE_READER = 7;
     public static final int MMAP_TABLE_WAL_READER = 36;
     public static final int MMAP_TABLE_WAL_WRITER = 37;
@@ -79,7 +80,7 @@ public final class MemoryTag {
     public static final int NATIVE_TEXT_PARSER_RSS = 48;
     public static final int NATIVE_TLS_RSS = 47;
     public static final int NATIVE_TREE_CHAIN = 6;
-    public static final int SIZE = MMAP_TX_LOG + 1;
+    public static final int SIZE = MMAP_SQL_SPILL + 1;
     private static final ObjList<String> tagNameMap = new ObjList<>(SIZE);
 
     public static String nameOf(int tag) {
@@ -141,5 +142,6 @@ public final class MemoryTag {
         tagNameMap.extendAndSet(NATIVE_DIRECT_CHAR_SINK, "NATIVE_DIRECT_CHAR_SINK");
         tagNameMap.extendAndSet(MMAP_TX_LOG_CURSOR, "MMAP_TX_LOG_CURSOR");
         tagNameMap.extendAndSet(MMAP_TX_LOG, "MMAP_TX_LOG");
+        tagNameMap.extendAndSet(MMAP_SQL_SPILL, "MMAP_SQL_SPILL");
     }
 }
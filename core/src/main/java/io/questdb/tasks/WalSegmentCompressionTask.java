@@ -0,0 +1,57 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.tasks;
+
+import io.questdb.cairo.TableToken;
+
+public class WalSegmentCompressionTask {
+    private long rowCount;
+    private int segmentId;
+    private TableToken tableToken;
+    private int walId;
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getSegmentId() {
+        return segmentId;
+    }
+
+    public TableToken getTableToken() {
+        return tableToken;
+    }
+
+    public int getWalId() {
+        return walId;
+    }
+
+    public void of(TableToken tableToken, int walId, int segmentId, long rowCount) {
+        this.tableToken = tableToken;
+        this.walId = walId;
+        this.segmentId = segmentId;
+        this.rowCount = rowCount;
+    }
+}
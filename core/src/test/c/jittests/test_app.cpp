@@ -2052,6 +2052,349 @@ public:
     }
 };
 
+class Test_Int32InSet : public TestCase {
+public:
+    Test_Int32InSet() : TestCase("Int32InSet") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_Int32InSet());
+    }
+
+    void compile(BaseCompiler &c) override {
+        auto &cc = dynamic_cast<x86::Compiler &>(c);
+        cc.addFunc(FuncSignatureT<int32_t, int32_t, const int64_t *>(CallConv::kIdHost));
+
+        x86::Gp key = cc.newInt32("key");
+        cc.setArg(0, key);
+        x86::Gp set = cc.newInt64("set");
+        cc.setArg(1, set);
+
+        x86::Gp r = questdb::x86::int32_in_set(cc, key.as<x86::Gpd>(), set.as<x86::Gpq>());
+        cc.ret(r);
+        cc.endFunc();
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef int32_t (*Func)(int32_t, const int64_t *);
+        Func func = ptr_as_func<Func>(_func);
+
+        // 100 keys, keys 1, 64 and 99 are in the set, null key is in the set
+        int64_t set[3] = {(int64_t(1) << 32) | 100, int64_t(1) << 1, (int64_t(1) << 0) | (int64_t(1) << 35)};
+
+        int32_t keys[] = {0, 1, 2, 63, 64, 99, 100, 130, -2, INT_NULL};
+        int32_t expected[] = {0, 1, 0, 0, 1, 1, 0, 0, 0, 1};
+        for (size_t i = 0; i < sizeof(keys) / sizeof(keys[0]); ++i) {
+            int32_t resultRet = func(keys[i], set);
+            result.assignFormat("key=%d ret={%d}", keys[i], resultRet);
+            expect.assignFormat("key=%d ret={%d}", keys[i], expected[i]);
+            if (resultRet != expected[i])
+                return false;
+        }
+
+        // same set without the null flag
+        set[0] = 100;
+        int32_t resultRet = func(INT_NULL, set);
+        result.assignFormat("key=null ret={%d}", resultRet);
+        expect.assignFormat("key=null ret={%d}", 0);
+        return resultRet == 0;
+    }
+};
+
+class Test_Int64InIntervals : public TestCase {
+public:
+    Test_Int64InIntervals() : TestCase("Int64InIntervals") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_Int64InIntervals());
+    }
+
+    void compile(BaseCompiler &c) override {
+        auto &cc = dynamic_cast<x86::Compiler &>(c);
+        cc.addFunc(FuncSignatureT<int32_t, int64_t, const int64_t *>(CallConv::kIdHost));
+
+        x86::Gp value = cc.newInt64("value");
+        cc.setArg(0, value);
+        x86::Gp intervals = cc.newInt64("intervals");
+        cc.setArg(1, intervals);
+
+        x86::Gp r = questdb::x86::int64_in_intervals(cc, value.as<x86::Gpq>(), intervals.as<x86::Gpq>());
+        cc.ret(r);
+        cc.endFunc();
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef int32_t (*Func)(int64_t, const int64_t *);
+        Func func = ptr_as_func<Func>(_func);
+
+        int64_t intervals[] = {3, 10, 20, 30, 30, 40, 50};
+        int64_t values[] = {LONG_NULL, 9, 10, 15, 20, 21, 29, 30, 31, 39, 40, 45, 50, 51};
+        int32_t expected[] = {0, 0, 1, 1, 1, 0, 0, 1, 0, 0, 1, 1, 1, 0};
+        for (size_t i = 0; i < sizeof(values) / sizeof(values[0]); ++i) {
+            int32_t resultRet = func(values[i], intervals);
+            result.assignFormat("value=%lld ret={%d}", (long long) values[i], resultRet);
+            expect.assignFormat("value=%lld ret={%d}", (long long) values[i], expected[i]);
+            if (resultRet != expected[i])
+                return false;
+        }
+
+        int64_t empty[] = {0};
+        int32_t resultRet = func(10, empty);
+        result.assignFormat("empty ret={%d}", resultRet);
+        expect.assignFormat("empty ret={%d}", 0);
+        return resultRet == 0;
+    }
+};
+
+class Test_StrEq : public TestCase {
+public:
+    Test_StrEq() : TestCase("StrEq") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_StrEq());
+    }
+
+    void compile(BaseCompiler &c) override {
+        auto &cc = dynamic_cast<x86::Compiler &>(c);
+        cc.addFunc(FuncSignatureT<int32_t, const void *, const void *>(CallConv::kIdHost));
+
+        x86::Gp lhs = cc.newInt64("lhs");
+        cc.setArg(0, lhs);
+        x86::Gp rhs = cc.newInt64("rhs");
+        cc.setArg(1, rhs);
+
+        x86::Gp r = questdb::x86::str_eq(cc, lhs.as<x86::Gpq>(), rhs.as<x86::Gpq>());
+        cc.ret(r);
+        cc.endFunc();
+    }
+
+    static std::vector<uint8_t> str(const char *s) {
+        std::vector<uint8_t> buf(4);
+        if (s == nullptr) {
+            int32_t len = -1;
+            memcpy(buf.data(), &len, 4);
+            return buf;
+        }
+        auto len = static_cast<int32_t>(strlen(s));
+        memcpy(buf.data(), &len, 4);
+        for (int32_t i = 0; i < len; ++i) {
+            auto ch = static_cast<uint16_t>(s[i]);
+            buf.push_back(ch & 0xff);
+            buf.push_back(ch >> 8);
+        }
+        return buf;
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef int32_t (*Func)(const void *, const void *);
+        Func func = ptr_as_func<Func>(_func);
+
+        const char *lhs[] = {"", "a", "abcd", "abcde", "abcdefghij", "abcdefghij", "abcd", nullptr, nullptr, ""};
+        const char *rhs[] = {"", "a", "abcd", "abcdf", "abcdefghij", "abcdefghiJ", "abc", nullptr, "", nullptr};
+        int32_t expected[] = {1, 1, 1, 0, 1, 0, 0, 1, 0, 0};
+        for (size_t i = 0; i < sizeof(expected) / sizeof(expected[0]); ++i) {
+            auto l = str(lhs[i]);
+            auto r = str(rhs[i]);
+            int32_t resultRet = func(l.data(), r.data());
+            result.assignFormat("case=%zu ret={%d}", i, resultRet);
+            expect.assignFormat("case=%zu ret={%d}", i, expected[i]);
+            if (resultRet != expected[i])
+                return false;
+        }
+        return true;
+    }
+};
+
+class Test_VecInt32InSet : public TestCase {
+public:
+    Test_VecInt32InSet() : TestCase("VecInt32InSet") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_VecInt32InSet());
+    }
+
+    void compile(BaseCompiler &c) override {
+        auto &cc = dynamic_cast<x86::Compiler &>(c);
+        cc.addFunc(FuncSignatureT<int32_t, int32_t *, const int64_t *>(CallConv::kIdHost));
+
+        x86::Gp keys_ptr = cc.newInt64("keys_ptr");
+        cc.setArg(0, keys_ptr);
+        x86::Gp set = cc.newInt64("set");
+        cc.setArg(1, set);
+
+        x86::Ymm keys = cc.newYmm();
+        cc.vmovdqu(keys, ymmword_ptr(keys_ptr));
+        x86::Ymm r = questdb::avx2::int32_in_set(cc, keys, set.as<x86::Gpq>());
+        x86::Gp bits = questdb::avx2::to_bits8(cc, r);
+        cc.ret(bits.r32());
+        cc.endFunc();
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef int32_t (*Func)(int32_t *, const int64_t *);
+        Func func = ptr_as_func<Func>(_func);
+
+        // 100 keys, keys 1, 64 and 99 are in the set, null key is in the set
+        int64_t set[3] = {(int64_t(1) << 32) | 100, int64_t(1) << 1, (int64_t(1) << 0) | (int64_t(1) << 35)};
+        int32_t keys[8] = {0, 1, 63, 64, 99, 100, -2, INT_NULL};
+        int32_t expectRet = 0b10011010;
+
+        int32_t resultRet = func(keys, set);
+        result.assignFormat("ret={%d}", resultRet);
+        expect.assignFormat("ret={%d}", expectRet);
+        if (resultRet != expectRet)
+            return false;
+
+        // same set without the null flag
+        set[0] = 100;
+        expectRet = 0b00011010;
+        resultRet = func(keys, set);
+        result.assignFormat("ret={%d}", resultRet);
+        expect.assignFormat("ret={%d}", expectRet);
+        return resultRet == expectRet;
+    }
+};
+
+static instruction_t projection_instr(opcodes opcode, data_type_t type = data_type_t::i8, int64_t payload = 0) {
+    instruction_t instr{};
+    instr.opcode = opcode;
+    instr.options = static_cast<int32_t>(type);
+    instr.ipayload.lo = payload;
+    instr.ipayload.hi = 0;
+    return instr;
+}
+
+static void compile_projection(x86::Compiler &cc, const instruction_t *istream, size_t size) {
+    cc.addFunc(FuncSignatureT<void, int64_t *, int64_t *, int64_t, void *>(CallConv::kIdHost));
+
+    x86::Gp cols_ptr = cc.newIntPtr("cols_ptr");
+    cc.setArg(0, cols_ptr);
+    x86::Gp rows_ptr = cc.newIntPtr("rows_ptr");
+    cc.setArg(1, rows_ptr);
+    x86::Gp rows_size = cc.newInt64("rows_size");
+    cc.setArg(2, rows_size);
+    x86::Gp output_ptr = cc.newIntPtr("output_ptr");
+    cc.setArg(3, output_ptr);
+    x86::Gp vars_ptr = cc.newIntPtr("vars_ptr");
+    cc.xor_(vars_ptr, vars_ptr);
+    x86::Gp output_index = cc.newInt64("output_index");
+
+    Zone zone(4094 - Zone::kBlockOverhead);
+    ZoneAllocator allocator(&zone);
+    ZoneStack<jit_value_t> values;
+    values.init(&allocator);
+    questdb::x86::emit_projection(cc, istream, size, values, true, cols_ptr, vars_ptr, rows_ptr, rows_size, output_ptr,
+                                  output_index);
+    cc.ret();
+    cc.endFunc();
+}
+
+class Test_ProjectionF64 : public TestCase {
+public:
+    Test_ProjectionF64() : TestCase("ProjectionF64") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_ProjectionF64());
+    }
+
+    void compile(BaseCompiler &c) override {
+        // (ask - bid) / mid, columns: 0 - ask, 1 - bid, 2 - mid
+        instruction_t istream[] = {
+                projection_instr(opcodes::Mem, data_type_t::f64, 2),
+                projection_instr(opcodes::Mem, data_type_t::f64, 1),
+                projection_instr(opcodes::Mem, data_type_t::f64, 0),
+                projection_instr(opcodes::Sub),
+                projection_instr(opcodes::Div),
+                projection_instr(opcodes::Ret),
+        };
+        compile_projection(dynamic_cast<x86::Compiler &>(c), istream, sizeof(istream) / sizeof(istream[0]));
+    }
+
+    static bool same(double a, double b) {
+        return (std::isnan(a) && std::isnan(b)) || a == b;
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef void (*Func)(int64_t *, int64_t *, int64_t, void *);
+        Func func = ptr_as_func<Func>(_func);
+
+        double ask[] = {10, 20, 30, NAN};
+        double bid[] = {8, 10, 15, 1};
+        double mid[] = {2, 4, 0, 1};
+        int64_t cols[] = {reinterpret_cast<int64_t>(ask), reinterpret_cast<int64_t>(bid), reinterpret_cast<int64_t>(mid)};
+
+        double output[4];
+        double expected[] = {1, 2.5, INFINITY, NAN};
+        func(cols, nullptr, 4, output);
+        for (int i = 0; i < 4; ++i) {
+            result.assignFormat("row=%d value=%f", i, output[i]);
+            expect.assignFormat("row=%d value=%f", i, expected[i]);
+            if (!same(output[i], expected[i]))
+                return false;
+        }
+
+        int64_t rows[] = {3, 1};
+        func(cols, rows, 2, output);
+        for (int i = 0; i < 2; ++i) {
+            result.assignFormat("row id=%lld value=%f", (long long) rows[i], output[i]);
+            expect.assignFormat("row id=%lld value=%f", (long long) rows[i], expected[rows[i]]);
+            if (!same(output[i], expected[rows[i]]))
+                return false;
+        }
+        return true;
+    }
+};
+
+class Test_ProjectionI64 : public TestCase {
+public:
+    Test_ProjectionI64() : TestCase("ProjectionI64") {}
+
+    static void add(TestApp &app) {
+        app.add(new Test_ProjectionI64());
+    }
+
+    void compile(BaseCompiler &c) override {
+        // (a - b) * 2, columns: 0 - int64 a, 1 - int32 b
+        instruction_t istream[] = {
+                projection_instr(opcodes::Imm, data_type_t::i64, 2),
+                projection_instr(opcodes::Mem, data_type_t::i32, 1),
+                projection_instr(opcodes::Mem, data_type_t::i64, 0),
+                projection_instr(opcodes::Sub),
+                projection_instr(opcodes::Mul),
+                projection_instr(opcodes::Ret),
+        };
+        compile_projection(dynamic_cast<x86::Compiler &>(c), istream, sizeof(istream) / sizeof(istream[0]));
+    }
+
+    bool run(void *_func, String &result, String &expect) override {
+        typedef void (*Func)(int64_t *, int64_t *, int64_t, void *);
+        Func func = ptr_as_func<Func>(_func);
+
+        int64_t a[] = {10, LONG_NULL, 5};
+        int32_t b[] = {3, 1, INT_NULL};
+        int64_t cols[] = {reinterpret_cast<int64_t>(a), reinterpret_cast<int64_t>(b)};
+
+        int64_t output[3];
+        int64_t expected[] = {14, LONG_NULL, LONG_NULL};
+        func(cols, nullptr, 3, output);
+        for (int i = 0; i < 3; ++i) {
+            result.assignFormat("row=%d value=%lld", i, (long long) output[i]);
+            expect.assignFormat("row=%d value=%lld", i, (long long) expected[i]);
+            if (output[i] != expected[i])
+                return false;
+        }
+
+        int64_t rows[] = {2, 0};
+        func(cols, rows, 2, output);
+        for (int i = 0; i < 2; ++i) {
+            result.assignFormat("row id=%lld value=%lld", (long long) rows[i], (long long) output[i]);
+            expect.assignFormat("row id=%lld value=%lld", (long long) rows[i], (long long) expected[rows[i]]);
+            if (output[i] != expected[rows[i]])
+                return false;
+        }
+        return true;
+    }
+};
+
 void compiler_add_x86_tests(TestApp &app) {
     app.addT<Test_Int32Not>();
     app.addT<Test_Int32And>();
@@ -2082,6 +2425,12 @@ void compiler_add_x86_tests(TestApp &app) {
     app.addT<Test_Int32EqNull>();
     app.addT<Test_Compress256>();
     app.addT<Test_Compress256Ints>();
+    app.addT<Test_Int32InSet>();
+    app.addT<Test_Int64InIntervals>();
+    app.addT<Test_StrEq>();
+    app.addT<Test_VecInt32InSet>();
+    app.addT<Test_ProjectionF64>();
+    app.addT<Test_ProjectionI64>();
 }
 
 int main(int argc, char *argv[]) {
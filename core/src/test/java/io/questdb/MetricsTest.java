@@ -86,6 +86,7 @@ public class MetricsTest {
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_free"));
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_total"));
         MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("memory_jvm_max"));
+        MatcherAssert.assertThat(metricsRegistry.getMetricNames(), hasItem("query_spilled_bytes"));
     }
 
     @Test
@@ -104,6 +105,18 @@ public class MetricsTest {
         MatcherAssert.assertThat(scraped, containsString("jvm_unknown_gc_time"));
     }
 
+    @Test
+    public void testMetricNamesContainSpilledBytesCounter() {
+        Metrics metrics = new Metrics(true, new MetricsRegistryImpl());
+
+        CharSink sink = new StringSink();
+        metrics.scrapeIntoPrometheus(sink);
+
+        String scraped = sink.toString();
+        MatcherAssert.assertThat(scraped, containsString("# TYPE questdb_query_spilled_bytes_total counter\n"));
+        MatcherAssert.assertThat(scraped, containsString("\nquestdb_query_spilled_bytes_total "));
+    }
+
     @Test
     public void testMetricUniqueness() {
         SpyingMetricsRegistry metricsRegistry = new SpyingMetricsRegistry();
@@ -180,6 +193,12 @@ public class MetricsTest {
             return delegate.newLongGauge(memoryTag);
         }
 
+        @Override
+        public Counter newVirtualCounter(CharSequence name, VirtualLongGauge.StatProvider provider) {
+            addMetricName(name);
+            return delegate.newVirtualCounter(name, provider);
+        }
+
         @Override
         public LongGauge newVirtualGauge(CharSequence name, VirtualLongGauge.StatProvider provider) {
             addMetricName(name);
@@ -186,6 +186,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortKeyMaxPages());
         Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlSortLightValueMaxPages());
+        Assert.assertNull(configuration.getCairoConfiguration().getSqlSpillRoot());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
         Assert.assertEquals(Integer.MAX_VALUE, configuration.getCairoConfiguration().getSqlHashJoinValueMaxPages());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
@@ -212,6 +213,12 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1, configuration.getCairoConfiguration().getPartitionPurgeListCapacity());
         Assert.assertEquals(CairoConfiguration.O_NONE, configuration.getCairoConfiguration().getWriterFileOpenOpts());
         Assert.assertTrue(configuration.getCairoConfiguration().isIOURingEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isLatestByMaterializationEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionBloomFilterEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionCompressionEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getPartitionCompressionQueueCapacity());
+        Assert.assertFalse(configuration.getCairoConfiguration().isPartitionZoneMapEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getPartitionZoneMapQueueCapacity());
 
         Assert.assertEquals(0, configuration.getLineUdpReceiverConfiguration().getBindIPv4Address());
         Assert.assertEquals(9009, configuration.getLineUdpReceiverConfiguration().getPort());
@@ -225,10 +232,16 @@ public class PropServerConfigurationTest {
         Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().isEnabled());
         Assert.assertEquals(-1, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
         Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().ownThread());
+        Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().isParallelEnabled());
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelOrderByEnabled());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getSqlPageFramePrefetchFrames());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlPageFramePrefetchBufferCount());
+        Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlPageFramePrefetchBufferSize());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getPageFrameReduceQueueCapacity());
@@ -273,6 +286,7 @@ public class PropServerConfigurationTest {
         TestUtils.assertEquals("application/json", configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getMimeTypesCache().get("json"));
 
         Assert.assertEquals(500_000, configuration.getCairoConfiguration().getMaxUncommittedRows());
+        Assert.assertEquals(16 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getO3CopyPartSize());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getO3MinLag());
         Assert.assertEquals(600_000_000, configuration.getCairoConfiguration().getO3MaxLag());
 
@@ -294,6 +308,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(LineProtoNanoTimestampAdapter.INSTANCE, configuration.getLineTcpReceiverConfiguration().getTimestampAdapter());
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
         Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
+        Assert.assertEquals(1024 * 1024, configuration.getLineTcpReceiverConfiguration().getBinaryDictionaryMaxSize());
         Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
         Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
         Assert.assertEquals(10, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getYieldThreshold());
@@ -377,6 +392,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(60_000, configuration.getCairoConfiguration().getInactiveWalWriterTTL());
         Assert.assertEquals(4096, configuration.getCairoConfiguration().getWalTxnNotificationQueueCapacity());
         Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
+        Assert.assertFalse(configuration.getCairoConfiguration().isWalSegmentCompressionEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getWalSegmentCompressionQueueCapacity());
         Assert.assertFalse(configuration.getCairoConfiguration().getWalEnabledDefault());
         Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
         Assert.assertFalse(configuration.getWalApplyPoolConfiguration().haltOnError());
@@ -386,6 +403,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(10_000, configuration.getWalApplyPoolConfiguration().getSleepThreshold());
         Assert.assertEquals(10, configuration.getWalApplyPoolConfiguration().getYieldThreshold());
         Assert.assertEquals(20, configuration.getCairoConfiguration().getWalApplyLookAheadTransactionCount());
+        Assert.assertEquals(10_000, configuration.getCairoConfiguration().getWalApplyLagSoftTxnCount());
+        Assert.assertEquals(100_000, configuration.getCairoConfiguration().getWalApplyLagHardTxnCount());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getO3LagCalculationWindowsSize());
         Assert.assertTrue(configuration.getCairoConfiguration().isTableTypeConversionEnabled());
     }
@@ -1003,8 +1022,15 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(15, configuration.getCairoConfiguration().getWriterTickRowsCountMod());
             Assert.assertEquals(CairoConfiguration.O_DIRECT | CairoConfiguration.O_SYNC, configuration.getCairoConfiguration().getWriterFileOpenOpts());
             Assert.assertFalse(configuration.getCairoConfiguration().isIOURingEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isLatestByMaterializationEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionBloomFilterEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionCompressionEnabled());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getPartitionCompressionQueueCapacity());
+            Assert.assertTrue(configuration.getCairoConfiguration().isPartitionZoneMapEnabled());
+            Assert.assertEquals(16, configuration.getCairoConfiguration().getPartitionZoneMapQueueCapacity());
 
             Assert.assertEquals(100_000, configuration.getCairoConfiguration().getMaxUncommittedRows());
+            Assert.assertEquals(4 * Numbers.SIZE_1MB, configuration.getCairoConfiguration().getO3CopyPartSize());
             Assert.assertEquals(42_000_000, configuration.getCairoConfiguration().getO3MinLag());
             Assert.assertEquals(420_000_000, configuration.getCairoConfiguration().getO3MaxLag());
 
@@ -1022,10 +1048,16 @@ public class PropServerConfigurationTest {
             Assert.assertFalse(configuration.getLineUdpReceiverConfiguration().isEnabled());
             Assert.assertEquals(2, configuration.getLineUdpReceiverConfiguration().ownThreadAffinity());
             Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().ownThread());
+            Assert.assertTrue(configuration.getLineUdpReceiverConfiguration().isParallelEnabled());
 
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelGroupByEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelOrderByEnabled());
             Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+            Assert.assertEquals(4, configuration.getCairoConfiguration().getSqlPageFramePrefetchFrames());
+            Assert.assertEquals(8, configuration.getCairoConfiguration().getSqlPageFramePrefetchBufferCount());
+            Assert.assertEquals(64 * 1024, configuration.getCairoConfiguration().getSqlPageFramePrefetchBufferSize());
             Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getPageFrameReduceQueueCapacity());
@@ -1062,6 +1094,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(LineProtoMicroTimestampAdapter.INSTANCE, configuration.getLineTcpReceiverConfiguration().getTimestampAdapter());
             Assert.assertEquals(2049, configuration.getLineTcpReceiverConfiguration().getNetMsgBufferSize());
             Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getMaxMeasurementSize());
+            Assert.assertEquals(65536, configuration.getLineTcpReceiverConfiguration().getBinaryDictionaryMaxSize());
             Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
             Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerCount());
             Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWriterWorkerPoolConfiguration().getWorkerAffinity());
@@ -1137,6 +1170,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(333303, configuration.getCairoConfiguration().getInactiveWalWriterTTL());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getWalTxnNotificationQueueCapacity());
             Assert.assertTrue(configuration.getCairoConfiguration().isWalSupported());
+            Assert.assertTrue(configuration.getCairoConfiguration().isWalSegmentCompressionEnabled());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getWalSegmentCompressionQueueCapacity());
             Assert.assertTrue(configuration.getCairoConfiguration().getWalEnabledDefault());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().isEnabled());
             Assert.assertTrue(configuration.getWalApplyPoolConfiguration().haltOnError());
@@ -1147,6 +1182,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(33, configuration.getWalApplyPoolConfiguration().getSleepThreshold());
             Assert.assertEquals(33033, configuration.getWalApplyPoolConfiguration().getYieldThreshold());
             Assert.assertEquals(23, configuration.getCairoConfiguration().getWalApplyLookAheadTransactionCount());
+            Assert.assertEquals(1000, configuration.getCairoConfiguration().getWalApplyLagSoftTxnCount());
+            Assert.assertEquals(5000, configuration.getCairoConfiguration().getWalApplyLagHardTxnCount());
             Assert.assertFalse(configuration.getCairoConfiguration().isTableTypeConversionEnabled());
             Assert.assertEquals(120, configuration.getCairoConfiguration().getO3LagCalculationWindowsSize());
         }
@@ -1215,6 +1252,20 @@ public class PropServerConfigurationTest {
         }
     }
 
+    @Test
+    public void testSpillRootCantBeTheSameAsOtherInstanceDirectories() throws JsonException, ServerConfigurationException {
+        Properties properties = new Properties();
+
+        PropServerConfiguration configuration = new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
+        MatcherAssert.assertThat(configuration.getCairoConfiguration().getSqlSpillRoot(), is(nullValue()));
+
+        assertSpillRootCantBeSetTo(properties, root);
+        assertSpillRootCantBeSetTo(properties, configuration.getCairoConfiguration().getRoot().toString());
+        assertSpillRootCantBeSetTo(properties, configuration.getCairoConfiguration().getSnapshotRoot().toString());
+        assertSpillRootCantBeSetTo(properties, configuration.getCairoConfiguration().getConfRoot().toString());
+        assertSpillRootCantBeSetTo(properties, getRelativePath(root));
+    }
+
     @Test
     public void testSqlJitMode() throws ServerConfigurationException, JsonException {
         Properties properties = new Properties();
@@ -1313,6 +1364,16 @@ public class PropServerConfigurationTest {
         }
     }
 
+    private void assertSpillRootCantBeSetTo(Properties properties, String value) throws JsonException {
+        try {
+            properties.setProperty(PropertyKey.CAIRO_SQL_SPILL_ROOT.getPropertyPath(), value);
+            new PropServerConfiguration(root, properties, null, LOG, new BuildInformationHolder());
+            Assert.fail("Should fail for " + value);
+        } catch (ServerConfigurationException e) {
+            MatcherAssert.assertThat(e.getMessage(), containsString("cairo.sql.spill.root can't point to root, data, conf or snapshot dirs"));
+        }
+    }
+
     private String getRelativePath(String path) {
         return path + File.separator + ".." + File.separator + new File(path).getName();
     }
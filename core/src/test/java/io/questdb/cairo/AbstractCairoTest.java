@@ -314,10 +314,18 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setIoURingEnabled(ioURingEnabled);
     }
 
+    protected static void configOverrideIOURingFacade(IOURingFacade ioURingFacade) {
+        node1.getConfigurationOverrides().setIOURingFacade(ioURingFacade);
+    }
+
     protected static void configOverrideJitMode(int jitMode) {
         node1.getConfigurationOverrides().setJitMode(jitMode);
     }
 
+    protected static void configOverrideLatestByMaterializationEnabled(Boolean latestByMaterializationEnabled) {
+        node1.getConfigurationOverrides().setLatestByMaterializationEnabled(latestByMaterializationEnabled);
+    }
+
     protected static void configOverrideMaxUncommittedRows(int maxUncommittedRows) {
         node1.getConfigurationOverrides().setMaxUncommittedRows(maxUncommittedRows);
     }
@@ -326,6 +334,10 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setO3ColumnMemorySize(size);
     }
 
+    protected static void configOverrideO3CopyPartSize(long size) {
+        node1.getConfigurationOverrides().setO3CopyPartSize(size);
+    }
+
     protected static void configOverrideO3MaxLag(int o3MaxLag) {
         node1.getConfigurationOverrides().setO3MaxLag(o3MaxLag);
     }
@@ -335,10 +347,34 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setO3QuickSortEnabled(o3QuickSortEnabled);
     }
 
+    protected static void configOverrideParallelGroupByEnabled(Boolean parallelGroupByEnabled) {
+        node1.getConfigurationOverrides().setParallelGroupByEnabled(parallelGroupByEnabled);
+    }
+
+    protected static void configOverrideParallelOrderByEnabled(Boolean parallelOrderByEnabled) {
+        node1.getConfigurationOverrides().setParallelOrderByEnabled(parallelOrderByEnabled);
+    }
+
     protected static void configOverrideParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         node1.getConfigurationOverrides().setParallelImportStatusLogKeepNDays(parallelImportStatusLogKeepNDays);
     }
 
+    protected static void configOverridePageFramePrefetchFrames(int pageFramePrefetchFrames) {
+        node1.getConfigurationOverrides().setPageFramePrefetchFrames(pageFramePrefetchFrames);
+    }
+
+    protected static void configOverridePartitionBloomFilterEnabled(Boolean partitionBloomFilterEnabled) {
+        node1.getConfigurationOverrides().setPartitionBloomFilterEnabled(partitionBloomFilterEnabled);
+    }
+
+    protected static void configOverridePartitionCompressionEnabled(Boolean partitionCompressionEnabled) {
+        node1.getConfigurationOverrides().setPartitionCompressionEnabled(partitionCompressionEnabled);
+    }
+
+    protected static void configOverridePartitionZoneMapEnabled(Boolean partitionZoneMapEnabled) {
+        node1.getConfigurationOverrides().setPartitionZoneMapEnabled(partitionZoneMapEnabled);
+    }
+
     protected static void configOverrideRndFunctionMemoryMaxPages(int rndFunctionMemoryMaxPages) {
         node1.getConfigurationOverrides().setRndFunctionMemoryMaxPages(rndFunctionMemoryMaxPages);
     }
@@ -366,6 +402,22 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setSqlJoinMetadataPageSize(sqlJoinMetadataPageSize);
     }
 
+    protected static void configOverrideSqlSpillRoot(String spillRoot) {
+        node1.getConfigurationOverrides().setSpillRoot(spillRoot);
+    }
+
+    protected static void configOverrideWalApplyLagHardTxnCount(long walApplyLagHardTxnCount) {
+        node1.getConfigurationOverrides().setWalApplyLagHardTxnCount(walApplyLagHardTxnCount);
+    }
+
+    protected static void configOverrideWalApplyLagSoftTxnCount(long walApplyLagSoftTxnCount) {
+        node1.getConfigurationOverrides().setWalApplyLagSoftTxnCount(walApplyLagSoftTxnCount);
+    }
+
+    protected static void configOverrideWalSegmentCompressionEnabled(Boolean walSegmentCompressionEnabled) {
+        node1.getConfigurationOverrides().setWalSegmentCompressionEnabled(walSegmentCompressionEnabled);
+    }
+
     @SuppressWarnings("SameParameterValue")
     protected static void configOverrideWalSegmentRolloverRowCount(long walSegmentRolloverRowCount) {
         node1.getConfigurationOverrides().setWalSegmentRolloverRowCount(walSegmentRolloverRowCount);
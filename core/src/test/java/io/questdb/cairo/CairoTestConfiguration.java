@@ -28,6 +28,7 @@ import io.questdb.VolumeDefinitions;
 import io.questdb.TelemetryConfiguration;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.IOURingFacade;
 import io.questdb.std.NanosecondClock;
 import io.questdb.std.RostiAllocFacade;
 import io.questdb.std.datetime.DateFormat;
@@ -115,6 +116,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return -10000;
     }
 
+    @Override
+    public IOURingFacade getIOURingFacade() {
+        return overrides.getIOURingFacade() != null ? overrides.getIOURingFacade() : super.getIOURingFacade();
+    }
+
     @Override
     public int getMaxFileNameLength() {
         return overrides.getMaxFileNameLength() > 0 ? overrides.getMaxFileNameLength() : super.getMaxFileNameLength();
@@ -150,6 +156,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getO3ColumnMemorySize() < 0 ? super.getO3ColumnMemorySize() : overrides.getO3ColumnMemorySize();
     }
 
+    @Override
+    public long getO3CopyPartSize() {
+        return overrides.getO3CopyPartSize() < 0 ? super.getO3CopyPartSize() : overrides.getO3CopyPartSize();
+    }
+
     @Override
     public long getO3MaxLag() {
         return overrides.getO3MaxLag() >= 0 ? overrides.getO3MaxLag() : super.getO3MaxLag();
@@ -221,6 +232,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getInputWorkRoot();
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return overrides.getSpillRoot();
+    }
+
     @Override
     public int getSqlCopyLogRetentionDays() {
         return overrides.getParallelImportStatusLogKeepNDays() >= 0 ? overrides.getParallelImportStatusLogKeepNDays() : super.getSqlCopyLogRetentionDays();
@@ -246,6 +262,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getPageFrameMaxRows() < 0 ? super.getSqlPageFrameMaxRows() : overrides.getPageFrameMaxRows();
     }
 
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return overrides.getPageFramePrefetchFrames() < 0 ? super.getSqlPageFramePrefetchFrames() : overrides.getPageFramePrefetchFrames();
+    }
+
     @Override
     public int getTableRegistryCompactionThreshold() {
         return overrides.getTableRegistryCompactionThreshold() > 0 ? overrides.getTableRegistryCompactionThreshold() : super.getTableRegistryCompactionThreshold();
@@ -261,6 +282,16 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return volumeDefinitions;
     }
 
+    @Override
+    public long getWalApplyLagHardTxnCount() {
+        return overrides.getWalApplyLagHardTxnCount() < 0 ? super.getWalApplyLagHardTxnCount() : overrides.getWalApplyLagHardTxnCount();
+    }
+
+    @Override
+    public long getWalApplyLagSoftTxnCount() {
+        return overrides.getWalApplyLagSoftTxnCount() < 0 ? super.getWalApplyLagSoftTxnCount() : overrides.getWalApplyLagSoftTxnCount();
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return overrides.getDefaultTableWriteMode() < 0 ? super.getWalEnabledDefault() : overrides.getDefaultTableWriteMode() == 1;
@@ -311,11 +342,31 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isIoURingEnabled() != null ? overrides.isIoURingEnabled() : super.isIOURingEnabled();
     }
 
+    @Override
+    public boolean isLatestByMaterializationEnabled() {
+        return overrides.isLatestByMaterializationEnabled() != null ? overrides.isLatestByMaterializationEnabled() : super.isLatestByMaterializationEnabled();
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return overrides.isO3QuickSortEnabled();
     }
 
+    @Override
+    public boolean isPartitionBloomFilterEnabled() {
+        return overrides.isPartitionBloomFilterEnabled() != null ? overrides.isPartitionBloomFilterEnabled() : super.isPartitionBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return overrides.isPartitionCompressionEnabled() != null ? overrides.isPartitionCompressionEnabled() : super.isPartitionCompressionEnabled();
+    }
+
+    @Override
+    public boolean isPartitionZoneMapEnabled() {
+        return overrides.isPartitionZoneMapEnabled() != null ? overrides.isPartitionZoneMapEnabled() : super.isPartitionZoneMapEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return overrides.getSnapshotRecoveryEnabled() == null ? super.isSnapshotRecoveryEnabled() : overrides.getSnapshotRecoveryEnabled();
@@ -331,6 +382,21 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isColumnPreTouchEnabled() != null ? overrides.isColumnPreTouchEnabled() : super.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return overrides.isParallelGroupByEnabled() != null ? overrides.isParallelGroupByEnabled() : super.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return overrides.isParallelOrderByEnabled() != null ? overrides.isParallelOrderByEnabled() : super.isSqlParallelOrderByEnabled();
+    }
+
+    @Override
+    public boolean isWalSegmentCompressionEnabled() {
+        return overrides.isWalSegmentCompressionEnabled() != null ? overrides.isWalSegmentCompressionEnabled() : super.isWalSegmentCompressionEnabled();
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
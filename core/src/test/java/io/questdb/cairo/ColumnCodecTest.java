@@ -0,0 +1,283 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.MemoryCMORDecompressedImpl;
+import io.questdb.cairo.vm.MemoryCMRDecompressedImpl;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnCodecTest extends AbstractCairoTest {
+
+    @Test
+    public void testDecompressedColumnIsSharedAndDecodedByBlock() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long rowCount = 3 * ColumnCodec.BLOCK_ROW_COUNT - 5;
+            final long size = rowCount * Integer.BYTES;
+            final long blockSize = ColumnCodec.BLOCK_ROW_COUNT * Integer.BYTES;
+            final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try (
+                    Path path = new Path().of(root).concat("col.dz").$();
+                    ColumnCodec.Encoder encoder = new ColumnCodec.Encoder();
+                    MemoryCMRDecompressedImpl mem1 = new MemoryCMRDecompressedImpl();
+                    MemoryCMRDecompressedImpl mem2 = new MemoryCMRDecompressedImpl()
+            ) {
+                for (long i = 0; i < rowCount; i++) {
+                    Unsafe.getUnsafe().putInt(addr + i * Integer.BYTES, (int) (i * 7));
+                }
+                encoder.encode(ff, path, Files.PAGE_SIZE, addr, rowCount, ColumnType.INT, false, CairoConfiguration.O_NONE);
+
+                mem1.of(ff, path, size, size, MemoryTag.MMAP_DEFAULT);
+                mem2.of(ff, path, size, size, MemoryTag.MMAP_DEFAULT);
+                Assert.assertEquals(0, mem1.getDecodedBlockCount());
+
+                // single value decodes its block only, the block is visible to the other memory
+                Assert.assertEquals(5000 * 7, mem1.getInt(5000L * Integer.BYTES));
+                Assert.assertEquals(1, mem2.getDecodedBlockCount());
+                Assert.assertEquals(5001 * 7, mem2.getInt(5001L * Integer.BYTES));
+                Assert.assertEquals(1, mem2.getDecodedBlockCount());
+
+                // page frame over the first block
+                final long pageAddress = mem2.getPageAddress(0, 0, blockSize);
+                Assert.assertEquals(0, pageAddress & (ff.getPageSize() - 1));
+                Assert.assertEquals(2, mem1.getDecodedBlockCount());
+
+                // reopening the same file keeps decoded blocks
+                mem1.of(ff, path, size, size, MemoryTag.MMAP_DEFAULT);
+                Assert.assertEquals(2, mem1.getDecodedBlockCount());
+
+                Assert.assertEquals(pageAddress, mem1.getPageAddress(0));
+                Assert.assertEquals(3, mem2.getDecodedBlockCount());
+                for (long i = 0; i < rowCount; i++) {
+                    Assert.assertEquals(i * 7, Unsafe.getUnsafe().getInt(pageAddress + i * Integer.BYTES));
+                }
+            } finally {
+                Unsafe.free(addr, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @Test
+    public void testDeltaOfDelta() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.TIMESTAMP, 10_000, (addr, i) -> {
+            // mostly regular intervals with occasional jitter and gaps
+            long prev = i > 0 ? Unsafe.getUnsafe().getLong(addr + (i - 1) * 8L) : 1_640_995_200_000_000L;
+            long delta = 1_000_000L;
+            switch (rnd.nextInt(10)) {
+                case 0:
+                    delta += rnd.nextInt(100);
+                    break;
+                case 1:
+                    delta += rnd.nextInt(100_000);
+                    break;
+                case 2:
+                    delta = rnd.nextPositiveLong() % 100_000_000_000L;
+                    break;
+                case 3:
+                    delta = 0;
+                    break;
+                default:
+                    break;
+            }
+            Unsafe.getUnsafe().putLong(addr + i * 8L, prev + delta);
+        });
+    }
+
+    @Test
+    public void testDeltaOfDeltaExtremes() throws Exception {
+        final long[] values = {Long.MIN_VALUE, Long.MAX_VALUE, 0, Long.MIN_VALUE, -1, 1, Long.MAX_VALUE};
+        assertRoundTrip(ColumnType.TIMESTAMP, values.length, (addr, i) -> Unsafe.getUnsafe().putLong(addr + i * 8L, values[(int) i]));
+    }
+
+    @Test
+    public void testDeltaOfDeltaSingleValue() throws Exception {
+        assertRoundTrip(ColumnType.TIMESTAMP, 1, (addr, i) -> Unsafe.getUnsafe().putLong(addr, 123456789L));
+        assertRoundTrip(ColumnType.TIMESTAMP, 2, (addr, i) -> Unsafe.getUnsafe().putLong(addr + i * 8L, 123456789L * (i + 1)));
+    }
+
+    @Test
+    public void testFrameOfReferenceInt() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.INT, 1001, (addr, i) -> {
+            final int value = rnd.nextInt(20) == 0 ? Numbers.INT_NaN : 1000 + rnd.nextInt(256);
+            Unsafe.getUnsafe().putInt(addr + i * 4L, value);
+        });
+    }
+
+    @Test
+    public void testFrameOfReferenceLong() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.LONG, 777, (addr, i) -> {
+            final long value = i % 300 == 0 ? (i % 600 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE) : rnd.nextLong(1000);
+            Unsafe.getUnsafe().putLong(addr + i * 8L, value);
+        });
+    }
+
+    @Test
+    public void testFrameOfReferenceShort() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.SHORT, 513, (addr, i) -> Unsafe.getUnsafe().putShort(addr + i * 2L, rnd.nextShort()));
+    }
+
+    @Test
+    public void testFrameOfReferenceSymbol() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.SYMBOL, 4096, (addr, i) -> Unsafe.getUnsafe().putInt(addr + i * 4L, rnd.nextInt(12)));
+    }
+
+    @Test
+    public void testGetCodec() {
+        Assert.assertEquals(ColumnCodec.CODEC_DELTA_OF_DELTA, ColumnCodec.getCodec(ColumnType.TIMESTAMP));
+        Assert.assertEquals(ColumnCodec.CODEC_FRAME_OF_REFERENCE, ColumnCodec.getCodec(ColumnType.INT));
+        Assert.assertEquals(ColumnCodec.CODEC_FRAME_OF_REFERENCE, ColumnCodec.getCodec(ColumnType.SYMBOL));
+        Assert.assertEquals(ColumnCodec.CODEC_XOR, ColumnCodec.getCodec(ColumnType.DOUBLE));
+        Assert.assertEquals(ColumnCodec.CODEC_NONE, ColumnCodec.getCodec(ColumnType.STRING));
+        Assert.assertEquals(ColumnCodec.CODEC_NONE, ColumnCodec.getCodec(ColumnType.BOOLEAN));
+    }
+
+    @Test
+    public void testSegmentDouble() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertSegmentRoundTrip(ColumnType.DOUBLE, false, 9_000, (addr, i) -> Unsafe.getUnsafe().putDouble(addr + i * 8L, rnd.nextDouble()));
+    }
+
+    @Test
+    public void testSegmentInt() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertSegmentRoundTrip(ColumnType.INT, false, 4096, (addr, i) -> Unsafe.getUnsafe().putInt(addr + i * 4L, rnd.nextInt(1000)));
+    }
+
+    @Test
+    public void testSegmentTimestampIndex() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertSegmentRoundTrip(ColumnType.TIMESTAMP, true, 10_001, (addr, i) -> {
+            Unsafe.getUnsafe().putLong(addr + i * 16L, 1_640_995_200_000_000L + i * 1000L + rnd.nextInt(10));
+            Unsafe.getUnsafe().putLong(addr + i * 16L + 8L, i);
+        });
+    }
+
+    @Test
+    public void testXor() throws Exception {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnType.DOUBLE, 5000, (addr, i) -> {
+            double value;
+            switch (rnd.nextInt(8)) {
+                case 0:
+                    value = Double.NaN;
+                    break;
+                case 1:
+                    value = rnd.nextDouble();
+                    break;
+                default:
+                    value = 20.0 + (i % 7) * 0.25;
+                    break;
+            }
+            Unsafe.getUnsafe().putDouble(addr + i * 8L, value);
+        });
+    }
+
+    private static void assertBytes(long expectedAddr, MemoryCMORDecompressedImpl mem, long lo, long hi) {
+        for (long i = lo; i < hi; i++) {
+            if (Unsafe.getUnsafe().getByte(expectedAddr + i) != mem.getByte(i)) {
+                Assert.fail("mismatch at offset " + i);
+            }
+        }
+    }
+
+    private void assertRoundTrip(int columnType, long rowCount, ValueGenerator generator) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long size = rowCount * ColumnType.sizeOf(columnType);
+            final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try (
+                    Path path = new Path().of(root).concat("col.dz").$();
+                    ColumnCodec.Encoder encoder = new ColumnCodec.Encoder();
+                    MemoryCMRDecompressedImpl mem = new MemoryCMRDecompressedImpl()
+            ) {
+                for (long i = 0; i < rowCount; i++) {
+                    generator.put(addr, i);
+                }
+                final long compressedSize = encoder.encode(ff, path, Files.PAGE_SIZE, addr, rowCount, columnType, false, CairoConfiguration.O_NONE);
+                Assert.assertEquals(compressedSize, ff.length(path));
+
+                mem.of(ff, path, size, size, MemoryTag.MMAP_DEFAULT);
+                Assert.assertEquals(size, mem.size());
+                for (long i = 0; i < size; i++) {
+                    if (Unsafe.getUnsafe().getByte(addr + i) != mem.getByte(i)) {
+                        Assert.fail("mismatch at offset " + i);
+                    }
+                }
+            } finally {
+                Unsafe.free(addr, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private void assertSegmentRoundTrip(int columnType, boolean designatedTimestamp, long rowCount, ValueGenerator generator) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            final int valueSize = designatedTimestamp ? 16 : ColumnType.sizeOf(columnType);
+            final long size = rowCount * valueSize;
+            final long addr = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try (
+                    Path path = new Path().of(root).concat("col.dz").$();
+                    ColumnCodec.Encoder encoder = new ColumnCodec.Encoder();
+                    MemoryCMORDecompressedImpl mem = new MemoryCMORDecompressedImpl()
+            ) {
+                for (long i = 0; i < rowCount; i++) {
+                    generator.put(addr, i);
+                }
+                final long compressedSize = encoder.encode(ff, path, Files.PAGE_SIZE, addr, rowCount, columnType, designatedTimestamp, CairoConfiguration.O_NONE);
+                Assert.assertEquals(compressedSize, ff.length(path));
+
+                // ranges within a block, across blocks and up to the last row
+                final long[] ranges = {0, 1, 5, 4090, 4090, 4100, 100, rowCount, rowCount - 1, rowCount, rowCount, rowCount};
+                for (int r = 0; r < ranges.length; r += 2) {
+                    final long lo = Math.min(ranges[r], rowCount) * valueSize;
+                    final long hi = Math.min(ranges[r + 1], rowCount) * valueSize;
+                    mem.ofOffset(ff, path, lo, hi, MemoryTag.MMAP_DEFAULT);
+                    Assert.assertEquals(hi - lo, mem.size());
+                    assertBytes(addr, mem, lo, hi);
+
+                    mem.extend(size - lo);
+                    Assert.assertEquals(size - lo, mem.size());
+                    assertBytes(addr, mem, lo, size);
+                }
+            } finally {
+                Unsafe.free(addr, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ValueGenerator {
+        void put(long addr, long index);
+    }
+}
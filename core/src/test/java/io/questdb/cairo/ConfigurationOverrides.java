@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.IOURingFacade;
 import io.questdb.std.RostiAllocFacade;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -66,6 +67,8 @@ public interface ConfigurationOverrides {
 
     String getInputWorkRoot();
 
+    IOURingFacade getIOURingFacade();
+
     int getJitMode();
 
     int getMaxFileNameLength();
@@ -74,10 +77,14 @@ public interface ConfigurationOverrides {
 
     int getO3ColumnMemorySize();
 
+    long getO3CopyPartSize();
+
     long getO3MaxLag();
 
     int getPageFrameMaxRows();
 
+    int getPageFramePrefetchFrames();
+
     int getPageFrameReduceQueueCapacity();
 
     int getPageFrameReduceShardCount();
@@ -100,6 +107,8 @@ public interface ConfigurationOverrides {
 
     Boolean getSnapshotRecoveryEnabled();
 
+    String getSpillRoot();
+
     long getSpinLockTimeout();
 
     int getSqlCopyBufferSize();
@@ -112,6 +121,10 @@ public interface ConfigurationOverrides {
 
     MicrosecondClock getTestMicrosClock();
 
+    long getWalApplyLagHardTxnCount();
+
+    long getWalApplyLagSoftTxnCount();
+
     long getWalPurgeInterval();
 
     long getWalSegmentRolloverRowCount();
@@ -132,10 +145,24 @@ public interface ConfigurationOverrides {
 
     Boolean isIoURingEnabled();
 
+    Boolean isLatestByMaterializationEnabled();
+
     boolean isO3QuickSortEnabled();
 
     Boolean isParallelFilterEnabled();
 
+    Boolean isParallelGroupByEnabled();
+
+    Boolean isParallelOrderByEnabled();
+
+    Boolean isPartitionBloomFilterEnabled();
+
+    Boolean isPartitionCompressionEnabled();
+
+    Boolean isPartitionZoneMapEnabled();
+
+    Boolean isWalSegmentCompressionEnabled();
+
     boolean mangleTableDirNames();
 
     void reset();
@@ -178,10 +205,14 @@ public interface ConfigurationOverrides {
 
     void setInputWorkRoot(String inputWorkRoot);
 
+    void setIOURingFacade(IOURingFacade ioURingFacade);
+
     void setIoURingEnabled(Boolean ioURingEnabled);
 
     void setJitMode(int jitMode);
 
+    void setLatestByMaterializationEnabled(Boolean latestByMaterializationEnabled);
+
     void setMangleTableDirNames(boolean mangle);
 
     void setMaxFileNameLength(int maxFileNameLength);
@@ -190,18 +221,32 @@ public interface ConfigurationOverrides {
 
     void setO3ColumnMemorySize(int size);
 
+    void setO3CopyPartSize(long size);
+
     void setO3MaxLag(long configOverrideO3MaxLag);
 
     void setO3QuickSortEnabled(boolean o3QuickSortEnabled);
 
     void setPageFrameMaxRows(int pageFrameMaxRows);
 
+    void setPageFramePrefetchFrames(int pageFramePrefetchFrames);
+
     void setPageFrameReduceQueueCapacity(int pageFrameReduceQueueCapacity);
 
     void setPageFrameReduceShardCount(int pageFrameReduceShardCount);
 
     void setParallelFilterEnabled(Boolean parallelFilterEnabled);
 
+    void setParallelGroupByEnabled(Boolean parallelGroupByEnabled);
+
+    void setParallelOrderByEnabled(Boolean parallelOrderByEnabled);
+
+    void setPartitionBloomFilterEnabled(Boolean partitionBloomFilterEnabled);
+
+    void setPartitionCompressionEnabled(Boolean partitionCompressionEnabled);
+
+    void setPartitionZoneMapEnabled(Boolean partitionZoneMapEnabled);
+
     void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays);
 
     void setQueryCacheEventQueueCapacity(int queryCacheEventQueueCapacity);
@@ -222,6 +267,8 @@ public interface ConfigurationOverrides {
 
     void setSnapshotRecoveryEnabled(Boolean snapshotRecoveryEnabled);
 
+    void setSpillRoot(String spillRoot);
+
     void setSpinLockTimeout(long spinLockTimeout);
 
     void setSqlCopyBufferSize(int sqlCopyBufferSize);
@@ -232,8 +279,14 @@ public interface ConfigurationOverrides {
 
     void setTestMicrosClock(MicrosecondClock testMicrosClock);
 
+    void setWalApplyLagHardTxnCount(long walApplyLagHardTxnCount);
+
+    void setWalApplyLagSoftTxnCount(long walApplyLagSoftTxnCount);
+
     void setWalPurgeInterval(long walPurgeInterval);
 
+    void setWalSegmentCompressionEnabled(Boolean walSegmentCompressionEnabled);
+
     void setWalSegmentRolloverRowCount(long walSegmentRolloverRowCount);
 
     void setWalTxnNotificationQueueCapacity(int walTxnNotificationQueueCapacity);
@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.IOURingFacade;
 import io.questdb.std.RostiAllocFacade;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -54,17 +55,26 @@ public class Overrides implements ConfigurationOverrides {
     private String inputRoot = null;
     private String inputWorkRoot = null;
     private Boolean ioURingEnabled = null;
+    private IOURingFacade ioURingFacade = null;
     private int jitMode = SqlJitMode.JIT_MODE_ENABLED;
+    private Boolean latestByMaterializationEnabled = null;
     private boolean mangleTableDirNames = true;
     private int maxFileNameLength = -1;
     private int maxUncommittedRows = -1;
     private int o3ColumnMemorySize = -1;
+    private long o3CopyPartSize = -1;
     private long o3MaxLag = -1;
     private boolean o3QuickSortEnabled = false;
     private int pageFrameMaxRows = -1;
+    private int pageFramePrefetchFrames = -1;
     private int pageFrameReduceQueueCapacity = -1;
     private int pageFrameReduceShardCount = -1;
     private Boolean parallelFilterEnabled = null;
+    private Boolean parallelGroupByEnabled = null;
+    private Boolean parallelOrderByEnabled = null;
+    private Boolean partitionBloomFilterEnabled = null;
+    private Boolean partitionCompressionEnabled = null;
+    private Boolean partitionZoneMapEnabled = null;
     private int parallelImportStatusLogKeepNDays = -1;
     private int queryCacheEventQueueCapacity = -1;
     private int recreateDistressedSequencerAttempts = 3;
@@ -74,12 +84,16 @@ public class Overrides implements ConfigurationOverrides {
     private int sampleByIndexSearchPageSize;
     private String snapshotInstanceId = null;
     private Boolean snapshotRecoveryEnabled = null;
+    private String spillRoot = null;
     private long spinLockTimeout = -1;
     private int sqlCopyBufferSize = 1024 * 1024;
     private int sqlJoinMetadataMaxResizes = -1;
     private int sqlJoinMetadataPageSize = -1;
     private int tableRegistryCompactionThreshold;
+    private long walApplyLagHardTxnCount = -1;
+    private long walApplyLagSoftTxnCount = -1;
     private long walPurgeInterval = -1;
+    private Boolean walSegmentCompressionEnabled = null;
     private long walSegmentRolloverRowCount = -1;
     private int walTxnNotificationQueueCapacity = -1;
     private long writerAsyncCommandBusyWaitTimeout = -1;
@@ -172,6 +186,11 @@ public class Overrides implements ConfigurationOverrides {
         return inputWorkRoot;
     }
 
+    @Override
+    public IOURingFacade getIOURingFacade() {
+        return ioURingFacade;
+    }
+
     @Override
     public int getJitMode() {
         return jitMode;
@@ -192,6 +211,11 @@ public class Overrides implements ConfigurationOverrides {
         return o3ColumnMemorySize;
     }
 
+    @Override
+    public long getO3CopyPartSize() {
+        return o3CopyPartSize;
+    }
+
     @Override
     public long getO3MaxLag() {
         return o3MaxLag;
@@ -202,6 +226,11 @@ public class Overrides implements ConfigurationOverrides {
         return pageFrameMaxRows;
     }
 
+    @Override
+    public int getPageFramePrefetchFrames() {
+        return pageFramePrefetchFrames;
+    }
+
     @Override
     public int getPageFrameReduceQueueCapacity() {
         return pageFrameReduceQueueCapacity;
@@ -257,6 +286,11 @@ public class Overrides implements ConfigurationOverrides {
         return snapshotRecoveryEnabled;
     }
 
+    @Override
+    public String getSpillRoot() {
+        return spillRoot;
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return spinLockTimeout;
@@ -287,6 +321,16 @@ public class Overrides implements ConfigurationOverrides {
         return testMicrosClock;
     }
 
+    @Override
+    public long getWalApplyLagHardTxnCount() {
+        return walApplyLagHardTxnCount;
+    }
+
+    @Override
+    public long getWalApplyLagSoftTxnCount() {
+        return walApplyLagSoftTxnCount;
+    }
+
     @Override
     public long getWalPurgeInterval() {
         return walPurgeInterval;
@@ -337,6 +381,11 @@ public class Overrides implements ConfigurationOverrides {
         return ioURingEnabled;
     }
 
+    @Override
+    public Boolean isLatestByMaterializationEnabled() {
+        return latestByMaterializationEnabled;
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return o3QuickSortEnabled;
@@ -347,6 +396,36 @@ public class Overrides implements ConfigurationOverrides {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public Boolean isParallelGroupByEnabled() {
+        return parallelGroupByEnabled;
+    }
+
+    @Override
+    public Boolean isParallelOrderByEnabled() {
+        return parallelOrderByEnabled;
+    }
+
+    @Override
+    public Boolean isPartitionBloomFilterEnabled() {
+        return partitionBloomFilterEnabled;
+    }
+
+    @Override
+    public Boolean isPartitionCompressionEnabled() {
+        return partitionCompressionEnabled;
+    }
+
+    @Override
+    public Boolean isPartitionZoneMapEnabled() {
+        return partitionZoneMapEnabled;
+    }
+
+    @Override
+    public Boolean isWalSegmentCompressionEnabled() {
+        return walSegmentCompressionEnabled;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return mangleTableDirNames;
@@ -357,6 +436,7 @@ public class Overrides implements ConfigurationOverrides {
         hideTelemetryTable = false;
         maxUncommittedRows = -1;
         o3MaxLag = -1;
+        o3CopyPartSize = -1;
         currentMicros = -1;
         testMicrosClock = defaultMicrosecondClock;
         sampleByIndexSearchPageSize = -1;
@@ -364,13 +444,21 @@ public class Overrides implements ConfigurationOverrides {
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
         pageFrameMaxRows = -1;
+        pageFramePrefetchFrames = -1;
         jitMode = SqlJitMode.JIT_MODE_ENABLED;
         rndFunctionMemoryPageSize = -1;
         rndFunctionMemoryMaxPages = -1;
         spinLockTimeout = -1;
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
+        spillRoot = null;
         parallelFilterEnabled = null;
+        parallelGroupByEnabled = null;
+        parallelOrderByEnabled = null;
+        latestByMaterializationEnabled = null;
+        partitionBloomFilterEnabled = null;
+        partitionCompressionEnabled = null;
+        partitionZoneMapEnabled = null;
         columnPreTouchEnabled = null;
         writerCommandQueueCapacity = 4;
         queryCacheEventQueueCapacity = -1;
@@ -383,6 +471,7 @@ public class Overrides implements ConfigurationOverrides {
         sqlJoinMetadataPageSize = -1;
         sqlJoinMetadataMaxResizes = -1;
         ioURingEnabled = null;
+        ioURingFacade = null;
         parallelImportStatusLogKeepNDays = -1;
         defaultTableWriteMode = SqlWalMode.WAL_NOT_SET;
         copyPartitionOnAttach = null;
@@ -391,8 +480,11 @@ public class Overrides implements ConfigurationOverrides {
         dataAppendPageSize = -1;
         o3QuickSortEnabled = false;
         walSegmentRolloverRowCount = -1;
+        walSegmentCompressionEnabled = null;
         mangleTableDirNames = true;
         walPurgeInterval = -1;
+        walApplyLagSoftTxnCount = -1;
+        walApplyLagHardTxnCount = -1;
         tableRegistryCompactionThreshold = -1;
     }
 
@@ -491,6 +583,11 @@ public class Overrides implements ConfigurationOverrides {
         this.inputWorkRoot = inputWorkRoot;
     }
 
+    @Override
+    public void setIOURingFacade(IOURingFacade ioURingFacade) {
+        this.ioURingFacade = ioURingFacade;
+    }
+
     @Override
     public void setIoURingEnabled(Boolean ioURingEnabled) {
         this.ioURingEnabled = ioURingEnabled;
@@ -501,6 +598,11 @@ public class Overrides implements ConfigurationOverrides {
         this.jitMode = jitMode;
     }
 
+    @Override
+    public void setLatestByMaterializationEnabled(Boolean latestByMaterializationEnabled) {
+        this.latestByMaterializationEnabled = latestByMaterializationEnabled;
+    }
+
     @Override
     public void setMangleTableDirNames(boolean mangle) {
         this.mangleTableDirNames = mangle;
@@ -521,6 +623,11 @@ public class Overrides implements ConfigurationOverrides {
         o3ColumnMemorySize = size;
     }
 
+    @Override
+    public void setO3CopyPartSize(long size) {
+        o3CopyPartSize = size;
+    }
+
     @Override
     public void setO3MaxLag(long o3MaxLag) {
         this.o3MaxLag = o3MaxLag;
@@ -536,6 +643,11 @@ public class Overrides implements ConfigurationOverrides {
         this.pageFrameMaxRows = pageFrameMaxRows;
     }
 
+    @Override
+    public void setPageFramePrefetchFrames(int pageFramePrefetchFrames) {
+        this.pageFramePrefetchFrames = pageFramePrefetchFrames;
+    }
+
     @Override
     public void setPageFrameReduceQueueCapacity(int pageFrameReduceQueueCapacity) {
         this.pageFrameReduceQueueCapacity = pageFrameReduceQueueCapacity;
@@ -551,6 +663,31 @@ public class Overrides implements ConfigurationOverrides {
         this.parallelFilterEnabled = parallelFilterEnabled;
     }
 
+    @Override
+    public void setParallelGroupByEnabled(Boolean parallelGroupByEnabled) {
+        this.parallelGroupByEnabled = parallelGroupByEnabled;
+    }
+
+    @Override
+    public void setParallelOrderByEnabled(Boolean parallelOrderByEnabled) {
+        this.parallelOrderByEnabled = parallelOrderByEnabled;
+    }
+
+    @Override
+    public void setPartitionBloomFilterEnabled(Boolean partitionBloomFilterEnabled) {
+        this.partitionBloomFilterEnabled = partitionBloomFilterEnabled;
+    }
+
+    @Override
+    public void setPartitionCompressionEnabled(Boolean partitionCompressionEnabled) {
+        this.partitionCompressionEnabled = partitionCompressionEnabled;
+    }
+
+    @Override
+    public void setPartitionZoneMapEnabled(Boolean partitionZoneMapEnabled) {
+        this.partitionZoneMapEnabled = partitionZoneMapEnabled;
+    }
+
     @Override
     public void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         this.parallelImportStatusLogKeepNDays = parallelImportStatusLogKeepNDays;
@@ -601,6 +738,11 @@ public class Overrides implements ConfigurationOverrides {
         this.snapshotRecoveryEnabled = snapshotRecoveryEnabled;
     }
 
+    @Override
+    public void setSpillRoot(String spillRoot) {
+        this.spillRoot = spillRoot;
+    }
+
     @Override
     public void setSpinLockTimeout(long spinLockTimeout) {
         this.spinLockTimeout = spinLockTimeout;
@@ -626,11 +768,26 @@ public class Overrides implements ConfigurationOverrides {
         this.testMicrosClock = testMicrosClock;
     }
 
+    @Override
+    public void setWalApplyLagHardTxnCount(long walApplyLagHardTxnCount) {
+        this.walApplyLagHardTxnCount = walApplyLagHardTxnCount;
+    }
+
+    @Override
+    public void setWalApplyLagSoftTxnCount(long walApplyLagSoftTxnCount) {
+        this.walApplyLagSoftTxnCount = walApplyLagSoftTxnCount;
+    }
+
     @Override
     public void setWalPurgeInterval(long walPurgeInterval) {
         this.walPurgeInterval = walPurgeInterval;
     }
 
+    @Override
+    public void setWalSegmentCompressionEnabled(Boolean walSegmentCompressionEnabled) {
+        this.walSegmentCompressionEnabled = walSegmentCompressionEnabled;
+    }
+
     @Override
     public void setWalSegmentRolloverRowCount(long walSegmentRolloverRowCount) {
         this.walSegmentRolloverRowCount = walSegmentRolloverRowCount;
@@ -785,6 +785,32 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMergeFixedSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.INT);
+            keyTypes.add(ColumnType.LONG);
+            testMerge(keyTypes, (key, i) -> {
+                key.putInt(i);
+                key.putLong(-i);
+            });
+        });
+    }
+
+    @Test
+    public void testMergeVarSizeKey() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+            keyTypes.add(ColumnType.STRING);
+            keyTypes.add(ColumnType.INT);
+            testMerge(keyTypes, (key, i) -> {
+                key.putStr(i % 3 == 0 ? null : "k" + i);
+                key.putInt(i);
+            });
+        });
+    }
+
     @Test
     public void testNoValueColumns() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -1442,6 +1468,38 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    private void testMerge(ColumnTypes keyTypes, KeyWriter keyWriter) {
+        final int N = 10_000;
+        // The second map contains half of the keys from the first map and the same number of new keys.
+        try (
+                FastMap mapA = new FastMap(1024, keyTypes, new SingleColumnType(ColumnType.LONG), 16, 0.8, Integer.MAX_VALUE);
+                FastMap mapB = new FastMap(1024, keyTypes, new SingleColumnType(ColumnType.LONG), 16, 0.8, Integer.MAX_VALUE)
+        ) {
+            for (int i = 0; i < N; i++) {
+                MapKey key = mapA.withKey();
+                keyWriter.put(key, i);
+                key.createValue().putLong(0, i);
+            }
+            for (int i = N / 2; i < N + N / 2; i++) {
+                MapKey key = mapB.withKey();
+                keyWriter.put(key, i);
+                key.createValue().putLong(0, i);
+            }
+
+            mapA.merge(mapB, (destValue, srcValue) -> destValue.addLong(0, srcValue.getLong(0)));
+
+            Assert.assertEquals(N + N / 2, mapA.size());
+            for (int i = 0; i < N + N / 2; i++) {
+                MapKey key = mapA.withKey();
+                keyWriter.put(key, i);
+                MapValue value = key.findValue();
+                Assert.assertNotNull(value);
+                long expected = i < N / 2 || i >= N ? i : 2L * i;
+                Assert.assertEquals(expected, value.getLong(0));
+            }
+        }
+    }
+
     private void testAppendUnique(int maxResizes) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             Rnd rnd = new Rnd();
@@ -1490,4 +1548,9 @@ public class FastMapTest extends AbstractCairoTest {
             }
         });
     }
+
+    @FunctionalInterface
+    private interface KeyWriter {
+        void put(MapKey key, int i);
+    }
 }
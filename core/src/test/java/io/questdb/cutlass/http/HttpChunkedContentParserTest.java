@@ -0,0 +1,117 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HttpChunkedContentParserTest {
+    private final static StringSink sink = new StringSink();
+    private final static HttpContentListener LISTENER = (lo, hi) -> {
+        for (long p = lo; p < hi; p++) {
+            sink.put((char) Unsafe.getUnsafe().getByte(p));
+        }
+    };
+
+    @Test
+    public void testChunkExtensionsAndTrailer() throws Exception {
+        assertParsed(
+                "5;name=value\r\nhello\r\n1\r\n \r\n5\r\nworld\r\n0\r\nX-Checksum: 1\r\n\r\n",
+                "hello world"
+        );
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertParsed("0\r\n\r\n", "");
+    }
+
+    @Test
+    public void testInvalidChunkSize() throws Exception {
+        assertFailure("x\r\nhello\r\n0\r\n\r\n", "invalid chunk size");
+        assertFailure("\r\nhello\r\n0\r\n\r\n", "invalid chunk size");
+        assertFailure("1234567890abcdef\r\n", "chunk size is too large");
+    }
+
+    @Test
+    public void testMissingChunkTerminator() throws Exception {
+        assertFailure("5\r\nhelloX\r\n0\r\n\r\n", "malformed chunked content");
+    }
+
+    @Test
+    public void testSplitAtAnyPosition() throws Exception {
+        assertParsed(
+                "a\r\n0123456789\r\n1A\r\nabcdefghijklmnopqrstuvwxyz\r\n0\r\n\r\n",
+                "0123456789abcdefghijklmnopqrstuvwxyz"
+        );
+    }
+
+    private static void assertFailure(String content, String expectedMessage) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int len = content.length();
+            final long p = TestUtils.toMemory(content);
+            try {
+                final HttpChunkedContentParser parser = new HttpChunkedContentParser();
+                try {
+                    parser.parse(p, p + len, LISTENER);
+                    Assert.fail();
+                } catch (HttpException e) {
+                    TestUtils.assertEquals(expectedMessage, e.getFlyweightMessage());
+                }
+            } finally {
+                Unsafe.free(p, len, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
+    private static void assertParsed(String content, String expected) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // content is followed by a byte of the next pipelined request
+            final String pipelined = content + 'G';
+            final int len = pipelined.length();
+            final long p = TestUtils.toMemory(pipelined);
+            try {
+                final HttpChunkedContentParser parser = new HttpChunkedContentParser();
+                for (int i = 0; i < len; i++) {
+                    sink.clear();
+                    parser.clear();
+                    long end = parser.parse(p, p + i, LISTENER);
+                    if (end == -1) {
+                        end = parser.parse(p + i, p + len, LISTENER);
+                    }
+                    Assert.assertEquals(p + content.length(), end);
+                    TestUtils.assertEquals(expected, sink);
+                }
+            } finally {
+                Unsafe.free(p, len, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+}
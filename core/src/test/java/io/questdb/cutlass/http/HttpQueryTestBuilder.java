@@ -241,6 +241,22 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return "/write";
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new LineHttpProcessor(
+                                engine,
+                                httpConfiguration.getLineTcpReceiverConfiguration(),
+                                httpConfiguration.getJsonQueryProcessorConfiguration()
+                        );
+                    }
+                });
+
                 QueryCache.configure(httpConfiguration, metrics);
 
                 workerPool.start(LOG);
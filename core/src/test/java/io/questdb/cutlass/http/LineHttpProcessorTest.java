@@ -0,0 +1,309 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.CheckWalTransactionsJob;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.Zip;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+public class LineHttpProcessorTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+    @Rule
+    public Timeout timeout = Timeout.builder()
+            .withTimeout(10 * 60 * 1000, TimeUnit.MILLISECONDS)
+            .withLookingForStuckThread(true)
+            .build();
+
+    @Test
+    public void testChunkedBody() throws Exception {
+        testLineHttp(engine -> {
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "\r\n" +
+                            "10\r\n" +
+                            "t1,tag=a x=1i 10\r\n" +
+                            "13\r\n" +
+                            "00000000\nt1,tag=b x\r\n" +
+                            "1c\r\n" +
+                            "=2i 2000000000\nt2 y=1.5 3000\r\n" +
+                            "0\r\n" +
+                            "\r\n",
+                    200,
+                    "{\"rows\":3}"
+            );
+            assertSql(
+                    engine,
+                    "t1",
+                    "tag\tx\ttimestamp\n" +
+                            "a\t1\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\t2\t1970-01-01T00:00:02.000000Z\n"
+            );
+            assertSql(
+                    engine,
+                    "t2",
+                    "y\ttimestamp\n" +
+                            "1.5\t1970-01-01T00:00:00.000003Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testContentLength() throws Exception {
+        testLineHttp(engine -> {
+            final String body = "t1,tag=a x=1i,s=\"hello\" 1000000000\n" +
+                    "t1,tag=b x=2i 2000000000\n" +
+                    // last line does not have to be terminated
+                    "t1,tag=c x=3i,f=1.5 3000000000";
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: " + body.length() + "\r\n" +
+                            "\r\n" +
+                            body,
+                    200,
+                    "{\"rows\":3}"
+            );
+            assertSql(
+                    engine,
+                    "t1",
+                    "tag\tx\ts\ttimestamp\tf\n" +
+                            "a\t1\thello\t1970-01-01T00:00:01.000000Z\tNaN\n" +
+                            "b\t2\t\t1970-01-01T00:00:02.000000Z\tNaN\n" +
+                            "c\t3\t\t1970-01-01T00:00:03.000000Z\t1.5\n"
+            );
+        });
+    }
+
+    @Test
+    public void testGzipBody() throws Exception {
+        Zip.init();
+        testLineHttp(engine -> {
+            final String body = gzip("t1,tag=a x=1i 1000000000\nt1,tag=b x=2i 2000000000\n");
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Encoding: gzip\r\n" +
+                            "Content-Length: " + body.length() + "\r\n" +
+                            "\r\n" +
+                            body,
+                    200,
+                    "{\"rows\":2}"
+            );
+            assertSql(
+                    engine,
+                    "t1",
+                    "tag\tx\ttimestamp\n" +
+                            "a\t1\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\t2\t1970-01-01T00:00:02.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testInvalidLineRollsBackRequest() throws Exception {
+        testLineHttp(engine -> {
+            final String body = "t1,tag=a x=1i 1000000000\n" +
+                    "t1,tag=b x=\"two\" 2000000000\n" +
+                    "t1,tag=c x=3i 3000000000\n";
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: " + body.length() + "\r\n" +
+                            "\r\n" +
+                            body,
+                    400,
+                    "{\"code\":\"invalid\",\"message\":\"cast error for line protocol string [columnWriterIndex=1, columnType=LONG, name=x]\",\"line\":2,\"rows\":0}"
+            );
+            assertSql(engine, "t1", "tag\tx\ttimestamp\n");
+        });
+    }
+
+    @Test
+    public void testLineTooLong() throws Exception {
+        testLineHttp(engine -> {
+            final StringSink body = new StringSink();
+            body.put("t1 s=\"");
+            for (int i = 0; i < 4096; i++) {
+                body.put('a');
+            }
+            body.put("\"\n");
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: " + body.length() + "\r\n" +
+                            "\r\n" +
+                            body,
+                    400,
+                    "{\"code\":\"invalid\",\"message\":\"line is too long\",\"line\":1,\"rows\":0}"
+            );
+        });
+    }
+
+    @Test
+    public void testPipelinedRequests() throws Exception {
+        testLineHttp(engine -> {
+            final String body1 = "t1,tag=a x=1i 1000000000\n";
+            final String body2 = "t1,tag=b x=2i 2\nt1,tag=c x=3i 3\n";
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: " + body1.length() + "\r\n" +
+                            "\r\n" +
+                            body1 +
+                            "POST /write?precision=s HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Transfer-Encoding: chunked\r\n" +
+                            "\r\n" +
+                            Integer.toHexString(body2.length()) + "\r\n" +
+                            body2 + "\r\n" +
+                            "0\r\n" +
+                            "\r\n",
+                    response(200, "{\"rows\":1}") + response(200, "{\"rows\":2}")
+            );
+            assertSql(
+                    engine,
+                    "t1",
+                    "tag\tx\ttimestamp\n" +
+                            "a\t1\t1970-01-01T00:00:01.000000Z\n" +
+                            "b\t2\t1970-01-01T00:00:02.000000Z\n" +
+                            "c\t3\t1970-01-01T00:00:03.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testWalTable() throws Exception {
+        testLineHttp(engine -> {
+            try (
+                    SqlCompiler compiler = new SqlCompiler(engine);
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1)
+            ) {
+                compiler.compile(
+                        "create table t1 (tag symbol, x long, timestamp timestamp) timestamp(timestamp) partition by day wal",
+                        executionContext
+                );
+            }
+            final String body = "t1,tag=a x=1i 1000000000\nt1,tag=b x=2i,y=2.5 2000000000\n";
+            sendAndReceive(
+                    "POST /write HTTP/1.1\r\n" +
+                            "Host: localhost:9000\r\n" +
+                            "Content-Length: " + body.length() + "\r\n" +
+                            "\r\n" +
+                            body,
+                    200,
+                    "{\"rows\":2}"
+            );
+            drainWalQueue(engine);
+            assertSql(
+                    engine,
+                    "t1",
+                    "tag\tx\ttimestamp\ty\n" +
+                            "a\t1\t1970-01-01T00:00:01.000000Z\tNaN\n" +
+                            "b\t2\t1970-01-01T00:00:02.000000Z\t2.5\n"
+            );
+        });
+    }
+
+    private static void assertSql(CairoEngine engine, String sql, String expected) throws SqlException {
+        try (
+                SqlCompiler compiler = new SqlCompiler(engine);
+                SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1)
+        ) {
+            TestUtils.assertSql(compiler, executionContext, sql, new StringSink(), expected);
+        }
+    }
+
+    private static void drainWalQueue(CairoEngine engine) {
+        try (final ApplyWal2TableJob walApplyJob = new ApplyWal2TableJob(engine, 1, 1, null)) {
+            walApplyJob.drain(0);
+            new CheckWalTransactionsJob(engine).run(0);
+            walApplyJob.drain(0);
+        }
+    }
+
+    private static String gzip(String text) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // request is sent byte per char
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String response(int code, String json) {
+        return "HTTP/1.1 " + code + " " + (code == 200 ? "OK" : "Bad request") + "\r\n" +
+                "Server: questDB/1.0\r\n" +
+                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                "Transfer-Encoding: chunked\r\n" +
+                "Content-Type: application/json; charset=utf-8\r\n" +
+                "Keep-Alive: timeout=5, max=10000\r\n" +
+                "\r\n" +
+                String.format("%02x", json.length()) + "\r\n" +
+                json + "\r\n" +
+                "00\r\n" +
+                "\r\n";
+    }
+
+    private static void sendAndReceive(String request, int code, String json) throws InterruptedException {
+        sendAndReceive(request, response(code, json));
+    }
+
+    private static void sendAndReceive(String request, CharSequence response) throws InterruptedException {
+        new SendAndReceiveRequestBuilder()
+                .withNetworkFacade(NetworkFacadeImpl.INSTANCE)
+                .execute(request, response);
+    }
+
+    private void testLineHttp(HttpQueryTestBuilder.HttpClientCode code) throws Exception {
+        new HttpQueryTestBuilder()
+                .withWorkerCount(1)
+                .withTempFolder(temp)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder())
+                .run(code);
+    }
+}
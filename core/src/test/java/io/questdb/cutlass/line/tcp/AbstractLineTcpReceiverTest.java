@@ -28,6 +28,8 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.pool.ex.EntryLockedException;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cutlass.line.LineProtoBinaryFormat;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.SOCountDownLatch;
@@ -85,6 +87,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     private final ThreadLocal<Socket> tlSocket = new ThreadLocal<>();
     protected String authKeyId = null;
     protected boolean autoCreateNewColumns = true;
+    protected int binaryDictionaryMaxSize = LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE;
     protected long commitIntervalDefault = 2000;
     protected double commitIntervalFraction = 0.5;
     protected boolean disconnectOnError = false;
@@ -95,6 +98,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
     protected int partitionByDefault = PartitionBy.DAY;
     protected boolean symbolAsFieldSupported;
+    protected LineUdpReceiverConfiguration udpConfiguration;
     protected final LineTcpReceiverConfiguration lineConfiguration = new DefaultLineTcpReceiverConfiguration() {
         @Override
         public String getAuthDbPath() {
@@ -111,6 +115,11 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
             return autoCreateNewColumns;
         }
 
+        @Override
+        public int getBinaryDictionaryMaxSize() {
+            return binaryDictionaryMaxSize;
+        }
+
         @Override
         public long getCommitInterval() {
             return LineTcpReceiverConfigurationHelper.calcCommitInterval(
@@ -213,16 +222,18 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
 
     public static LineTcpReceiver createLineTcpReceiver(
             LineTcpReceiverConfiguration configuration,
+            LineUdpReceiverConfiguration udpConfiguration,
             CairoEngine cairoEngine,
             WorkerPool workerPool
     ) {
-        return new LineTcpReceiver(configuration, cairoEngine, workerPool, workerPool);
+        return new LineTcpReceiver(configuration, udpConfiguration, cairoEngine, workerPool, workerPool);
     }
 
     @After
     public void cleanup() {
         maxMeasurementSize = 256;
         authKeyId = null;
+        binaryDictionaryMaxSize = LineProtoBinaryFormat.DEFAULT_DICTIONARY_MAX_SIZE;
         msgBufferSize = 256 * 1024;
         minIdleMsBeforeWriterRelease = 30000;
         maintenanceInterval = 25;
@@ -232,6 +243,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
         disconnectOnError = false;
         symbolAsFieldSupported = false;
         nf = NetworkFacadeImpl.INSTANCE;
+        udpConfiguration = null;
     }
 
     protected void assertTable(CharSequence expected, CharSequence tableName) {
@@ -275,7 +287,7 @@ public class AbstractLineTcpReceiverTest extends AbstractCairoTest {
     protected void runInContext(FilesFacade ff, LineTcpServerAwareContext r, boolean needMaintenanceJob, long minIdleMsBeforeWriterRelease) throws Exception {
         this.minIdleMsBeforeWriterRelease = minIdleMsBeforeWriterRelease;
         assertMemoryLeak(ff, () -> {
-            try (LineTcpReceiver receiver = createLineTcpReceiver(lineConfiguration, engine, sharedWorkerPool)) {
+            try (LineTcpReceiver receiver = createLineTcpReceiver(lineConfiguration, udpConfiguration, engine, sharedWorkerPool)) {
                 O3Utils.setupWorkerPool(sharedWorkerPool, engine, null, null);
                 if (needMaintenanceJob) {
                     sharedWorkerPool.assign(engine.getEngineMaintenanceJob());
@@ -35,6 +35,8 @@ import io.questdb.network.*;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.datetime.millitime.MillisecondClockImpl;
 import io.questdb.std.str.ByteCharSequence;
 import io.questdb.std.str.DirectByteCharSequence;
 import org.jetbrains.annotations.NotNull;
@@ -60,6 +62,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected short integerDefaultColumnType;
     protected LineTcpReceiverConfiguration lineTcpConfiguration;
     protected long microSecondTicks;
+    protected long milliSecondTicks;
     protected int nWriterThreads;
     protected NoNetworkIOJob noNetworkIOJob = new NoNetworkIOJob();
     protected String recvBuffer;
@@ -75,6 +78,7 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
         super.setUp();
         nWriterThreads = 2;
         microSecondTicks = -1;
+        milliSecondTicks = -1;
         recvBuffer = null;
         disconnected = true;
         netMsgBufferSize.set(512);
@@ -184,6 +188,11 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
                 };
             }
 
+            @Override
+            public MillisecondClock getMillisecondClock() {
+                return () -> milliSecondTicks >= 0 ? milliSecondTicks : MillisecondClockImpl.INSTANCE.getTicks();
+            }
+
             @Override
             public int getNetMsgBufferSize() {
                 return netMsgBufferSize.get();
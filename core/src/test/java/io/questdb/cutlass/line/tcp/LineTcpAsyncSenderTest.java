@@ -0,0 +1,309 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.AsyncLineChannel;
+import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.cutlass.line.LineTcpSender;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Zip;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.questdb.test.tools.TestUtils.assertContains;
+import static org.junit.Assert.fail;
+
+public class LineTcpAsyncSenderTest extends AbstractLineTcpReceiverTest {
+
+    @BeforeClass
+    public static void initZip() {
+        Zip.init();
+    }
+
+    @Test
+    public void testAsyncEnabledTwice() {
+        try {
+            Sender.builder().enableAsync().enableAsync();
+            fail();
+        } catch (LineSenderException e) {
+            assertContains(e.getMessage(), "async mode was already enabled");
+        }
+    }
+
+    @Test
+    public void testAsyncSender() throws Exception {
+        runInContext(r -> {
+            final Sender.Metrics metrics;
+            try (Sender sender = newBuilder().bufferCapacity(1024).enableAsync().build()) {
+                metrics = sender.metrics();
+                for (int i = 0; i < 10_000; i++) {
+                    sender.table("mytable").symbol("sym", "s" + i % 7).longColumn("x", i).at(i * 1000L);
+                }
+            }
+            Assert.assertTrue(metrics.getBytesQueued() > 0);
+            Assert.assertEquals(metrics.getBytesQueued(), metrics.getBytesSent());
+            Assert.assertEquals(0, metrics.getPendingBytes());
+            Assert.assertTrue(metrics.getWriteCount() > 0);
+            assertRowsEventually("mytable", 10_000);
+        });
+    }
+
+    @Test
+    public void testAutoFlushBytesExceedsBufferCapacity() {
+        try {
+            newBuilder().bufferCapacity(1024).autoFlushBytes(2048).build();
+            fail();
+        } catch (LineSenderException e) {
+            assertContains(e.getMessage(), "auto-flush bytes exceeds buffer capacity");
+        }
+    }
+
+    @Test
+    public void testAutoFlushRows() throws Exception {
+        assertMemoryLeak(() -> {
+            final CountingLineChannel channel = new CountingLineChannel();
+            try (LineTcpSender sender = new LineTcpSender(channel, 1024)) {
+                sender.setAutoFlush(3, 0, 0);
+                for (int i = 0; i < 10; i++) {
+                    sender.metric("mytable").field("x", i).$();
+                }
+                Assert.assertEquals(3, channel.sendCount);
+            }
+            Assert.assertEquals(4, channel.sendCount);
+        });
+    }
+
+    @Test
+    public void testAutoFlushRowsNotPositive() {
+        try {
+            Sender.builder().autoFlushRows(0);
+            fail();
+        } catch (LineSenderException e) {
+            assertContains(e.getMessage(), "auto-flush rows must be positive");
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        assertMemoryLeak(() -> {
+            final CountingLineChannel delegate = new CountingLineChannel();
+            delegate.latch = new CountDownLatch(1);
+            final long buf = Unsafe.malloc(64, MemoryTag.NATIVE_DEFAULT);
+            try (AsyncLineChannel channel = new AsyncLineChannel(delegate, 256, false)) {
+                channel.start();
+                // the I/O thread is stuck on the latch, producer has to wait once the ring is full
+                final Thread unblock = new Thread(() -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(100);
+                    } catch (InterruptedException ignore) {
+                    }
+                    delegate.latch.countDown();
+                });
+                unblock.start();
+                for (int i = 0; i < 100; i++) {
+                    for (int j = 0; j < 64; j++) {
+                        Unsafe.getUnsafe().putByte(buf + j, (byte) ('0' + (i + j) % 10));
+                    }
+                    channel.send(buf, 64);
+                }
+                unblock.join();
+                Assert.assertTrue(channel.getBackPressureCount() > 0);
+                Assert.assertTrue(channel.getBackPressureNanos() > 0);
+            } finally {
+                Unsafe.free(buf, 64, MemoryTag.NATIVE_DEFAULT);
+            }
+            Assert.assertEquals(6400, delegate.sink.length());
+            for (int i = 0; i < 100; i++) {
+                for (int j = 0; j < 64; j++) {
+                    Assert.assertEquals((char) ('0' + (i + j) % 10), delegate.sink.charAt(i * 64 + j));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCompressedAuth() throws Exception {
+        authKeyId = "testUser1";
+        runInContext(r -> {
+            try (Sender sender = newBuilder()
+                    .enableAuth(authKeyId).authToken("UvuVb1USHGRRT08gEnwN2zGZrvM4MsLQ5brgF6SVkAw=")
+                    .enableAsync()
+                    .enableCompression()
+                    .build()) {
+                sender.table("mytable").symbol("sym", "a").longColumn("x", 42).at(1_000);
+            }
+
+            assertTableSizeEventually(engine, "mytable", 1);
+            assertTable("sym\tx\ttimestamp\n" +
+                    "a\t42\t1970-01-01T00:00:00.000001Z\n", "mytable");
+        });
+    }
+
+    @Test
+    public void testCompressedBinarySender() throws Exception {
+        msgBufferSize = 512;
+        runInContext(r -> {
+            try (Sender sender = newBuilder().enableBinaryProtocol().enableAsync().enableCompression().build()) {
+                for (int i = 0; i < 10_000; i++) {
+                    sender.table("mytable").symbol("sym", "s" + i % 7).longColumn("x", i).at(i * 1000L);
+                }
+            }
+            assertRowsEventually("mytable", 10_000);
+        });
+    }
+
+    @Test
+    public void testCompressedTextSender() throws Exception {
+        msgBufferSize = 512;
+        runInContext(r -> {
+            final Sender.Metrics metrics;
+            try (Sender sender = newBuilder().autoFlushRows(100).enableAsync().enableCompression().build()) {
+                metrics = sender.metrics();
+                for (int i = 0; i < 10_000; i++) {
+                    sender.table("mytable").symbol("sym", "s" + i % 7).longColumn("x", i).at(i * 1000L);
+                }
+            }
+            // repetitive rows compress well
+            Assert.assertTrue(metrics.getBytesSent() < metrics.getBytesQueued() / 2);
+            assertRowsEventually("mytable", 10_000);
+        });
+    }
+
+    @Test
+    public void testCompressionRequiresAsync() {
+        try {
+            newBuilder().enableCompression().build();
+            fail();
+        } catch (LineSenderException e) {
+            assertContains(e.getMessage(), "compression requires async mode");
+        }
+    }
+
+    @Test
+    public void testIOErrorIsReported() throws Exception {
+        assertMemoryLeak(() -> {
+            final CountingLineChannel delegate = new CountingLineChannel();
+            delegate.fail = true;
+            try (LineTcpSender sender = new LineTcpSender(new AsyncLineChannel(delegate, 2048, false), 1024)) {
+                ((AsyncLineChannel) sender.metrics()).start();
+                try {
+                    for (int i = 0; i < 1_000_000; i++) {
+                        sender.metric("mytable").field("x", i).$();
+                    }
+                    fail();
+                } catch (LineSenderException e) {
+                    assertContains(e.getMessage(), "could not send data");
+                }
+                try {
+                    sender.close();
+                    fail();
+                } catch (LineSenderException e) {
+                    assertContains(e.getMessage(), "could not send data");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMetricsRequireAsync() throws Exception {
+        assertMemoryLeak(() -> {
+            try (LineTcpSender sender = new LineTcpSender(new CountingLineChannel(), 1024)) {
+                sender.metrics();
+                fail();
+            } catch (LineSenderException e) {
+                assertContains(e.getMessage(), "metrics are available in asynchronous mode only");
+            }
+        });
+    }
+
+    private void assertRowsEventually(String tableName, int rowCount) {
+        assertTableSizeEventually(engine, tableName, rowCount);
+        try (TableReader reader = getReader(tableName)) {
+            final RecordCursor cursor = reader.getCursor();
+            final Record record = cursor.getRecord();
+            for (int i = 0; i < rowCount; i++) {
+                Assert.assertTrue(cursor.hasNext());
+                TestUtils.assertEquals("s" + i % 7, record.getSym(0));
+                Assert.assertEquals(i, record.getLong(1));
+            }
+        }
+    }
+
+    private Sender.LineSenderBuilder newBuilder() {
+        return Sender.builder().address("127.0.0.1").port(bindPort);
+    }
+
+    private static class CountingLineChannel implements LineChannel {
+        private final StringSink sink = new StringSink();
+        private volatile boolean fail;
+        private CountDownLatch latch;
+        private int sendCount;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int errno() {
+            return 0;
+        }
+
+        @Override
+        public int receive(long ptr, int len) {
+            return 0;
+        }
+
+        @Override
+        public void send(long ptr, int len) {
+            if (fail) {
+                throw new LineSenderException("send error");
+            }
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new LineSenderException(e);
+                }
+            }
+            for (int i = 0; i < len; i++) {
+                sink.put((char) Unsafe.getUnsafe().getByte(ptr + i));
+            }
+            sendCount++;
+        }
+    }
+}
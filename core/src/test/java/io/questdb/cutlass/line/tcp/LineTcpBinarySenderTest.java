@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.client.Sender;
+import io.questdb.cutlass.line.LineChannel;
+import io.questdb.cutlass.line.LineSenderException;
+import io.questdb.cutlass.line.LineTcpBinarySender;
+import io.questdb.griffin.model.IntervalUtils;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.test.tools.TestUtils.assertContains;
+import static org.junit.Assert.fail;
+
+public class LineTcpBinarySenderTest extends AbstractLineTcpReceiverTest {
+    private final static int HOST = Net.parseIPv4("127.0.0.1");
+
+    @Test
+    public void testAuthSuccess() throws Exception {
+        authKeyId = "testUser1";
+        runInContext(r -> {
+            try (Sender sender = Sender.builder()
+                    .address("127.0.0.1")
+                    .port(bindPort)
+                    .enableAuth(authKeyId).authToken("UvuVb1USHGRRT08gEnwN2zGZrvM4MsLQ5brgF6SVkAw=")
+                    .enableBinaryProtocol()
+                    .build()) {
+                sender.table("mytable").symbol("sym", "a").longColumn("x", 42).at(1_000);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 1);
+            assertTable("sym\tx\ttimestamp\n" +
+                    "a\t42\t1970-01-01T00:00:00.000001Z\n", "mytable");
+        });
+    }
+
+    @Test
+    public void testBinaryProtocolEnabledTwice() {
+        try {
+            Sender.builder().enableBinaryProtocol().enableBinaryProtocol();
+            fail();
+        } catch (LineSenderException e) {
+            assertContains(e.getMessage(), "binary protocol was already enabled");
+        }
+    }
+
+    @Test
+    public void testDictionaryReset() throws Exception {
+        binaryDictionaryMaxSize = 2048;
+        runInContext(r -> {
+            // sender starts over when its dictionary grows beyond 2048 - 512 bytes
+            try (LineTcpBinarySender sender = newSender(512, 2048)) {
+                for (int i = 0; i < 1000; i++) {
+                    sender.table("mytable").symbol("sym", "symbol_" + i).longColumn("x", i).at(i * 1000L);
+                }
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 1000);
+            try (TableReader reader = getReader("mytable")) {
+                final RecordCursor cursor = reader.getCursor();
+                final Record record = cursor.getRecord();
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertTrue(cursor.hasNext());
+                    TestUtils.assertEquals("symbol_" + i, record.getSym(0));
+                    Assert.assertEquals(i, record.getLong(1));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFramesSpanningReceiveBuffer() throws Exception {
+        msgBufferSize = 512;
+        runInContext(r -> {
+            try (LineTcpBinarySender sender = newSender(256, 1024 * 1024)) {
+                for (int i = 0; i < 300; i++) {
+                    sender.table(i % 2 == 0 ? "even" : "odd")
+                            .symbol("sym", "s" + i % 7)
+                            .stringColumn("str", "string value " + i)
+                            .doubleColumn("d", i / 2.0)
+                            .at(i * 1000L);
+                }
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "even", 150);
+            assertTableSizeEventually(engine, "odd", 150);
+            try (TableReader reader = getReader("odd")) {
+                final RecordCursor cursor = reader.getCursor();
+                final Record record = cursor.getRecord();
+                for (int i = 1; i < 300; i += 2) {
+                    Assert.assertTrue(cursor.hasNext());
+                    TestUtils.assertEquals("s" + i % 7, record.getSym(0));
+                    TestUtils.assertEquals("string value " + i, record.getStr(1));
+                    Assert.assertEquals(i / 2.0, record.getDouble(2), 0);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testNonAscii() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = newBuilder().build()) {
+                sender.table("таблица")
+                        .symbol("ключ", "значение")
+                        .stringColumn("строка", "non-ascii äöü")
+                        .at(1_000);
+                sender.table("таблица")
+                        .symbol("ключ", "значение")
+                        .stringColumn("строка", "ascii")
+                        .at(2_000);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "таблица", 2);
+            assertTable("ключ\tстрока\ttimestamp\n" +
+                    "значение\tnon-ascii äöü\t1970-01-01T00:00:00.000001Z\n" +
+                    "значение\tascii\t1970-01-01T00:00:00.000002Z\n", "таблица");
+        });
+    }
+
+    @Test
+    public void testNumbersIntoSymbolColumns() throws Exception {
+        runInContext(r -> {
+            try (TableModel model = new TableModel(configuration, "mytable", PartitionBy.NONE)
+                    .col("l", ColumnType.SYMBOL)
+                    .col("d", ColumnType.SYMBOL)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            try (Sender sender = newBuilder().build()) {
+                sender.table("mytable")
+                        .longColumn("l", 42)
+                        .doubleColumn("d", 1.5)
+                        .at(1_000);
+                sender.table("mytable")
+                        .longColumn("l", -7)
+                        .doubleColumn("d", 42.0)
+                        .at(2_000);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 2);
+            assertTable("l\td\ttimestamp\n" +
+                    "42\t1.5\t1970-01-01T00:00:00.000001Z\n" +
+                    "-7\t42.0\t1970-01-01T00:00:00.000002Z\n", "mytable");
+        });
+    }
+
+    @Test
+    public void testSymbolsCannotBeWrittenAfterColumns() {
+        try (Sender sender = new LineTcpBinarySender(new DummyLineChannel(), 1024)) {
+            sender.table("mytable").longColumn("x", 1);
+            try {
+                sender.symbol("sym", "a");
+                fail();
+            } catch (LineSenderException e) {
+                assertContains(e.getMessage(), "symbols must be written before any other column types");
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAllTypes() throws Exception {
+        runInContext(r -> {
+            try (Sender sender = newBuilder().build()) {
+                long tsMicros = IntervalUtils.parseFloorPartialTimestamp("2022-02-25");
+                sender.table("mytable")
+                        .symbol("sym", "foo")
+                        .longColumn("int_field", 42)
+                        .boolColumn("bool_field", true)
+                        .stringColumn("string_field", "foo")
+                        .doubleColumn("double_field", 42.0)
+                        .timestampColumn("ts_field", tsMicros)
+                        .at(tsMicros * 1000);
+                sender.table("mytable")
+                        .symbol("sym", "bar")
+                        .longColumn("int_field", Long.MAX_VALUE)
+                        .boolColumn("bool_field", false)
+                        .doubleColumn("double_field", -0.25)
+                        .at(tsMicros * 1000 + 1000);
+                sender.flush();
+            }
+
+            assertTableSizeEventually(engine, "mytable", 2);
+            assertTable("sym\tint_field\tbool_field\tstring_field\tdouble_field\tts_field\ttimestamp\n" +
+                    "foo\t42\ttrue\tfoo\t42.0\t2022-02-25T00:00:00.000000Z\t2022-02-25T00:00:00.000000Z\n" +
+                    "bar\t9223372036854775807\tfalse\t\t-0.25\t\t2022-02-25T00:00:00.000001Z\n", "mytable");
+        });
+    }
+
+    private LineTcpBinarySender newSender(int bufferCapacity, int dictionaryMaxSize) {
+        PlainTcpLineChannel channel = new PlainTcpLineChannel(NetworkFacadeImpl.INSTANCE, HOST, bindPort, bufferCapacity * 2);
+        try {
+            return new LineTcpBinarySender(channel, bufferCapacity, dictionaryMaxSize);
+        } catch (Throwable t) {
+            channel.close();
+            throw t;
+        }
+    }
+
+    private Sender.LineSenderBuilder newBuilder() {
+        return Sender.builder().address("127.0.0.1").port(bindPort).enableBinaryProtocol();
+    }
+
+    private static class DummyLineChannel implements LineChannel {
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public int errno() {
+            return 0;
+        }
+
+        @Override
+        public int receive(long ptr, int len) {
+            return 0;
+        }
+
+        @Override
+        public void send(long ptr, int len) {
+        }
+    }
+
+}
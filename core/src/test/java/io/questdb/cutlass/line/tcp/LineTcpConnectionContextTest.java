@@ -25,6 +25,7 @@
 package io.questdb.cutlass.line.tcp;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -2032,6 +2033,84 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
         });
     }
 
+    @Test
+    public void testWalApplyLagBackpressure() throws Exception {
+        String table = "lagging";
+        configOverrideDefaultTableWriteMode(SqlWalMode.WAL_ENABLED);
+        configOverrideWalApplyLagSoftTxnCount(2);
+        configOverrideWalApplyLagHardTxnCount(4);
+        runInContext(() -> {
+            final WalMetrics walMetrics = metrics.getWalMetrics();
+            final long backpressureCount = walMetrics.getBackpressureCount();
+            milliSecondTicks = 1_000;
+
+            // each line is committed as a separate WAL transaction, nothing is applied
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.NEEDS_READ, sendWalLine(table, 0));
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.NEEDS_READ, sendWalLine(table, 1));
+            Assert.assertEquals(backpressureCount, walMetrics.getBackpressureCount());
+
+            // lag reaches the soft threshold, the line is accepted and the next read is scheduled
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.NEEDS_READ, sendWalLine(table, 2));
+            Assert.assertEquals(backpressureCount + 1, walMetrics.getBackpressureCount());
+
+            // reads are paused until the clock moves
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.QUEUE_FULL, sendWalLine(table, 3));
+            Assert.assertTrue(recvBuffer.length() > 0);
+            Assert.assertEquals(backpressureCount + 1, walMetrics.getBackpressureCount());
+
+            // the pause is over, the line is accepted and the pause grows with the lag
+            milliSecondTicks = 1_001;
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.QUEUE_FULL, handleWalIO());
+            Assert.assertEquals(0, recvBuffer.length());
+            Assert.assertEquals(backpressureCount + 2, walMetrics.getBackpressureCount());
+
+            // lag reaches the hard threshold, the measurement is held
+            milliSecondTicks = 2_000;
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.QUEUE_FULL, sendWalLine(table, 4));
+            Assert.assertEquals(backpressureCount + 4, walMetrics.getBackpressureCount());
+            milliSecondTicks = 2_050;
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.QUEUE_FULL, handleWalIO());
+            Assert.assertEquals(backpressureCount + 4, walMetrics.getBackpressureCount());
+
+            final TableToken tableToken = engine.getTableToken(table);
+            Assert.assertEquals(4, engine.getTableSequencerAPI().getTxnTracker(tableToken).getLag());
+            drainWalQueue();
+            assertTableCount(table, 4, 1465839830100400200L + 3_000L);
+
+            // apply caught up, the held measurement goes through and reads resume
+            Assert.assertEquals(LineTcpConnectionContext.IOContextResult.NEEDS_READ, handleWalIO());
+            Assert.assertEquals(backpressureCount + 4, walMetrics.getBackpressureCount());
+            drainWalQueue();
+            assertTableCount(table, 5, 1465839830100400200L + 4_000L);
+        });
+    }
+
+    @Test
+    public void testWriterLoadFollowsWindow() throws Exception {
+        netMsgBufferSize.set(4096);
+        nWriterThreads = 2;
+        runInContext(() -> {
+            sendLines("hot", 12_000);
+            sendLines("cold", 1_000);
+            final TableUpdateDetails hot = scheduler.getActiveTableUpdateDetails("hot");
+            final TableUpdateDetails cold = scheduler.getActiveTableUpdateDetails("cold");
+            Assert.assertEquals(12_000, hot.sampleEventsInWindow());
+            Assert.assertEquals(1_000, cold.sampleEventsInWindow());
+
+            // nothing is sent within the next window, the load drops
+            // even though the total since startup still dominates
+            Assert.assertEquals(0, hot.sampleEventsInWindow());
+            Assert.assertEquals(0, cold.sampleEventsInWindow());
+
+            sendLines("cold", 12_000);
+            sendLines("hot", 1_000);
+            Assert.assertEquals(1_000, hot.sampleEventsInWindow());
+            Assert.assertEquals(12_000, cold.sampleEventsInWindow());
+
+            waitForIOCompletion();
+        });
+    }
+
     private void addTable(String table) {
         try (
                 TableModel model = new TableModel(configuration, table, PartitionBy.NONE)
@@ -2061,6 +2140,12 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
     }
 
     @NotNull
+    private LineTcpConnectionContext.IOContextResult handleWalIO() {
+        final LineTcpConnectionContext.IOContextResult result = context.handleIO(noNetworkIOJob);
+        context.commitWalTables(Long.MAX_VALUE);
+        return result;
+    }
+
     private String makeMessages(String table) {
         return table + ",location=us-midwest temperature=82 1465839830100400200\n" +
                 table + ",location=us-midwest temperature=83 1465839830100500200\n" +
@@ -2071,6 +2156,25 @@ public class LineTcpConnectionContextTest extends BaseLineTcpContextTest {
                 table + ",location=us-westcost temperature=82 1465839830102500200\n";
     }
 
+    // sends the lines without running maintenance, so that tables stay active
+    private void sendLines(String table, int count) {
+        sink.clear();
+        for (int i = 0; i < count; i++) {
+            sink.put(table).put(",location=us-midwest temperature=").put(i).put(' ').put(1465839830100400200L + i * 1000L).put('\n');
+        }
+        recvBuffer = sink.toString();
+        do {
+            if (context.handleIO(noNetworkIOJob) == LineTcpConnectionContext.IOContextResult.QUEUE_FULL) {
+                Os.pause();
+            }
+        } while (recvBuffer.length() > 0);
+    }
+
+    private LineTcpConnectionContext.IOContextResult sendWalLine(String table, int i) {
+        recvBuffer = table + ",location=us-midwest temperature=" + i + ' ' + (1465839830100400200L + i * 1000L) + '\n';
+        return handleWalIO();
+    }
+
     private void testDefaultColumnType(short expectedType, String ilpValue, String tableValue, String emptyValue) throws Exception {
         String table = "addDefColType";
         addTable(table);
@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.line.tcp;
 
+import io.questdb.cutlass.line.LineProtoBinaryFormat;
 import io.questdb.std.Files;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Unsafe;
@@ -33,6 +34,90 @@ import org.junit.Test;
 
 public class LineTcpParserTest extends BaseLineTcpContextTest {
 
+    @Test
+    public void testBinaryFrames() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int size = 1024;
+            final long mem = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+            try (LineTcpParser parser = new LineTcpParser(false, false)) {
+                long p = mem;
+                // dictionary: 0 - "t", 1 - "x", 2 - "sym", 3 - "ß"
+                final long dictionaryFrame = p;
+                p += LineProtoBinaryFormat.FRAME_HEADER_SIZE;
+                p = putString(p, "t");
+                p = putString(p, "x");
+                p = putString(p, "sym");
+                p = putString(p, "ß");
+                putFrameHeader(dictionaryFrame, p, LineProtoBinaryFormat.FRAME_DICTIONARY);
+
+                final long row1 = p;
+                p = putRowHeader(p, 0, 1000, 3);
+                p = putEntity(p, 1, LineProtoBinaryFormat.TYPE_LONG);
+                Unsafe.getUnsafe().putLong(p, 42);
+                p += Long.BYTES;
+                p = putEntity(p, 2, LineProtoBinaryFormat.TYPE_SYMBOL);
+                Unsafe.getUnsafe().putInt(p, 3);
+                p += Integer.BYTES;
+                p = putEntity(p, 3, LineProtoBinaryFormat.TYPE_DOUBLE);
+                Unsafe.getUnsafe().putDouble(p, 2.5);
+                p += Double.BYTES;
+                putFrameHeader(row1, p, LineProtoBinaryFormat.FRAME_ROW);
+
+                // unknown column name id
+                final long row2 = p;
+                p = putRowHeader(p, 0, LineProtoBinaryFormat.NULL_TIMESTAMP, 1);
+                p = putEntity(p, 99, LineProtoBinaryFormat.TYPE_BOOLEAN);
+                Unsafe.getUnsafe().putByte(p++, (byte) 1);
+                putFrameHeader(row2, p, LineProtoBinaryFormat.FRAME_ROW);
+
+                final long row3 = p;
+                p = putRowHeader(p, 0, LineProtoBinaryFormat.NULL_TIMESTAMP, 1);
+                p = putEntity(p, 1, LineProtoBinaryFormat.TYPE_BOOLEAN);
+                Unsafe.getUnsafe().putByte(p++, (byte) 1);
+                putFrameHeader(row3, p, LineProtoBinaryFormat.FRAME_ROW);
+
+                parser.ofBinary(mem);
+                // incomplete frame
+                Assert.assertEquals(LineTcpParser.ParseResult.BUFFER_UNDERFLOW, parser.parseMeasurement(row1 + 10));
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.parseMeasurement(p));
+                TestUtils.assertEquals("t", parser.getMeasurementName());
+                Assert.assertEquals(1000, parser.getTimestamp());
+                Assert.assertTrue(parser.hasNonAsciiChars());
+                Assert.assertEquals(3, parser.getEntityCount());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_INTEGER, parser.getEntity(0).getType());
+                Assert.assertEquals(42, parser.getEntity(0).getLongValue());
+                TestUtils.assertEquals("42", parser.getEntity(0).getValue());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_TAG, parser.getEntity(1).getType());
+                TestUtils.assertEquals("sym", parser.getEntity(1).getName());
+                Assert.assertEquals(LineTcpParser.ENTITY_TYPE_FLOAT, parser.getEntity(2).getType());
+                Assert.assertEquals(2.5, parser.getEntity(2).getFloatValue(), 0);
+                TestUtils.assertEquals("2.5", parser.getEntity(2).getValue());
+
+                parser.startNextMeasurement();
+                Assert.assertEquals(LineTcpParser.ParseResult.ERROR, parser.parseMeasurement(p));
+                Assert.assertEquals(LineTcpParser.ErrorCode.INVALID_COLUMN_NAME, parser.getErrorCode());
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.skipMeasurement(p));
+
+                parser.startNextMeasurement();
+                Assert.assertEquals(LineTcpParser.ParseResult.MEASUREMENT_COMPLETE, parser.parseMeasurement(p));
+                Assert.assertFalse(parser.hasTimestamp());
+                Assert.assertFalse(parser.hasNonAsciiChars());
+                Assert.assertTrue(parser.getEntity(0).getBooleanValue());
+
+                parser.startNextMeasurement();
+                Assert.assertEquals(LineTcpParser.ParseResult.BUFFER_UNDERFLOW, parser.parseMeasurement(p));
+
+                // frame size is too small
+                Unsafe.getUnsafe().putInt(row1, 0);
+                parser.ofBinary(row1);
+                Assert.assertEquals(LineTcpParser.ParseResult.ERROR, parser.parseMeasurement(p));
+                Assert.assertEquals(LineTcpParser.ErrorCode.INVALID_BINARY_FRAME, parser.getErrorCode());
+            } finally {
+                Unsafe.free(mem, size, MemoryTag.NATIVE_DEFAULT);
+            }
+        });
+    }
+
     @Test
     public void testGetValueType() throws Exception {
         assertType(LineTcpParser.ENTITY_TYPE_TAG, "null");
@@ -156,4 +241,33 @@ public class LineTcpParserTest extends BaseLineTcpContextTest {
             }
         });
     }
+
+    private static long putEntity(long p, int nameId, byte type) {
+        Unsafe.getUnsafe().putInt(p, nameId);
+        Unsafe.getUnsafe().putByte(p + Integer.BYTES, type);
+        return p + Integer.BYTES + Byte.BYTES;
+    }
+
+    private static void putFrameHeader(long frameLo, long frameHi, byte frameType) {
+        Unsafe.getUnsafe().putInt(frameLo, (int) (frameHi - frameLo - Integer.BYTES));
+        Unsafe.getUnsafe().putByte(frameLo + Integer.BYTES, frameType);
+    }
+
+    private static long putRowHeader(long p, int tableId, long timestamp, int entityCount) {
+        p += LineProtoBinaryFormat.FRAME_HEADER_SIZE;
+        Unsafe.getUnsafe().putInt(p, tableId);
+        Unsafe.getUnsafe().putLong(p + Integer.BYTES, timestamp);
+        Unsafe.getUnsafe().putShort(p + Integer.BYTES + Long.BYTES, (short) entityCount);
+        return p + Integer.BYTES + Long.BYTES + Short.BYTES;
+    }
+
+    private static long putString(long p, String value) {
+        final byte[] bytes = value.getBytes(Files.UTF_8);
+        Unsafe.getUnsafe().putInt(p, bytes.length);
+        p += Integer.BYTES;
+        for (byte b : bytes) {
+            Unsafe.getUnsafe().putByte(p++, b);
+        }
+        return p;
+    }
 }
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoTestUtils;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.PartitionBy;
+import io.questdb.cairo.TableModel;
+import io.questdb.cairo.TableReader;
+import io.questdb.cutlass.line.LineUdpSender;
+import io.questdb.cutlass.line.udp.DefaultLineUdpReceiverConfiguration;
+import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
+import io.questdb.network.Net;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.Os;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LineTcpReceiverUdpTest extends AbstractLineTcpReceiverTest {
+    private static final int ROWS_PER_SENDER = 50;
+    private static final int SENDER_COUNT = 4;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        udpConfiguration = new DefaultLineUdpReceiverConfiguration() {
+            @Override
+            public int getBindIPv4Address() {
+                return Net.parseIPv4("127.0.0.1");
+            }
+
+            @Override
+            public int getMsgBufferSize() {
+                return 1024;
+            }
+
+            @Override
+            public int getMsgCount() {
+                return 16;
+            }
+
+            @Override
+            public int getPort() {
+                return bindPort;
+            }
+
+            @Override
+            public boolean isParallelEnabled() {
+                return true;
+            }
+
+            @Override
+            public boolean isUnicast() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void testUdpAndTcpIntoSameTable() throws Exception {
+        runInContext((receiver) -> {
+            send("mixed", WAIT_ENGINE_TABLE_RELEASE, () -> {
+                sendUdp("mixed");
+                sendToSocket("mixed,source=tcp value=1i 1000000000\n");
+            });
+            assertRowCount("mixed", SENDER_COUNT * ROWS_PER_SENDER + 1);
+        });
+    }
+
+    @Test
+    public void testUdpFloodDoesNotStarveTcp() throws Exception {
+        final AtomicBoolean flood = new AtomicBoolean();
+        final byte[] datagram = "flood value=1i\n".getBytes(StandardCharsets.UTF_8);
+        final LineUdpReceiverConfiguration parallelConfiguration = udpConfiguration;
+        // plain recv() that never runs out of datagrams while flooding
+        udpConfiguration = new DefaultLineUdpReceiverConfiguration() {
+            @Override
+            public int getBindIPv4Address() {
+                return parallelConfiguration.getBindIPv4Address();
+            }
+
+            @Override
+            public int getMsgBufferSize() {
+                return parallelConfiguration.getMsgBufferSize();
+            }
+
+            @Override
+            public int getMsgCount() {
+                return 1;
+            }
+
+            @Override
+            public NetworkFacade getNetworkFacade() {
+                return new NetworkFacadeImpl() {
+                    @Override
+                    public int recv(int fd, long buffer, int bufferLen) {
+                        if (flood.get()) {
+                            for (int i = 0; i < datagram.length; i++) {
+                                Unsafe.getUnsafe().putByte(buffer + i, datagram[i]);
+                            }
+                            return datagram.length;
+                        }
+                        return super.recv(fd, buffer, bufferLen);
+                    }
+                };
+            }
+
+            @Override
+            public int getPort() {
+                return bindPort;
+            }
+
+            @Override
+            public boolean isParallelEnabled() {
+                return true;
+            }
+
+            @Override
+            public boolean isUnicast() {
+                return true;
+            }
+        };
+
+        runInContext((receiver) -> {
+            flood.set(true);
+            try {
+                // TCP connection and table maintenance are served by the same IO jobs that receive UDP
+                send("tcp", WAIT_ENGINE_TABLE_RELEASE, () -> sendToSocket("tcp,source=tcp value=1i 1000000000\n"));
+            } finally {
+                flood.set(false);
+            }
+            assertRowCount("tcp", 1);
+        });
+    }
+
+    @Test
+    public void testUdpIntoNewTable() throws Exception {
+        runInContext((receiver) -> {
+            send("udp", WAIT_ENGINE_TABLE_RELEASE, () -> sendUdp("udp"));
+            assertRowCount("udp", SENDER_COUNT * ROWS_PER_SENDER);
+        });
+    }
+
+    @Test
+    public void testUdpIntoWalTable() throws Exception {
+        runInContext((receiver) -> {
+            try (TableModel m = new TableModel(configuration, "wal_udp", PartitionBy.DAY)) {
+                m.col("source", ColumnType.SYMBOL).col("value", ColumnType.LONG).timestamp().wal();
+                CairoTestUtils.create(m);
+            }
+            send("wal_udp", WAIT_ENGINE_TABLE_RELEASE, () -> sendUdp("wal_udp"));
+            drainWalQueue();
+            assertRowCount("wal_udp", SENDER_COUNT * ROWS_PER_SENDER);
+        });
+    }
+
+    @Override
+    protected int getWorkerCount() {
+        return 2;
+    }
+
+    private void assertRowCount(String tableName, int expected) {
+        try (TableReader reader = getReader(tableName)) {
+            Assert.assertEquals(expected, reader.size());
+        }
+    }
+
+    private void sendUdp(String tableName) {
+        // each sender has own source port, which lets the kernel spread datagrams across worker sockets
+        for (int s = 0; s < SENDER_COUNT; s++) {
+            try (LineUdpSender sender = new LineUdpSender(NetworkFacadeImpl.INSTANCE, 0, Net.parseIPv4("127.0.0.1"), bindPort, 512, 1)) {
+                for (int i = 0; i < ROWS_PER_SENDER; i++) {
+                    sender.metric(tableName)
+                            .tag("source", "udp" + s)
+                            .field("value", i)
+                            .$((s * ROWS_PER_SENDER + i) * 1_000_000_000L);
+                }
+                sender.flush();
+            }
+            Os.sleep(1);
+        }
+    }
+}
@@ -1295,6 +1295,79 @@ if __name__ == "__main__":
         });
     }
 
+    @Test
+    public void testBatchInsertCommittedOnSync() throws Exception {
+        final int modes = CONN_AWARE_EXTENDED_BINARY | CONN_AWARE_EXTENDED_TEXT | CONN_AWARE_EXTENDED_PREPARED_BINARY;
+        assertWithPgServer(modes, (connection, binary) -> {
+            compiler.compile("drop table if exists test_batch", sqlExecutionContext);
+            compiler.compile("create table test_batch (id long, ts timestamp) timestamp(ts) partition by DAY WAL", sqlExecutionContext);
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test_batch(id, ts) values(?, ?)")) {
+                for (int i = 0; i < 100; i++) {
+                    batchInsert.setLong(1, i);
+                    batchInsert.setTimestamp(2, new Timestamp(i * 1000L));
+                    batchInsert.addBatch();
+                }
+                int[] a = batchInsert.executeBatch();
+                Assert.assertEquals(100, a.length);
+                Assert.assertEquals(1, a[99]);
+            }
+
+            // all rows of the batch are appended in one WAL transaction
+            Assert.assertEquals(1, engine.getTableSequencerAPI().lastTxn(engine.getTableToken("test_batch")));
+            drainWalQueue();
+
+            StringSink sink = new StringSink();
+            try (
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("select count(), sum(id) from test_batch")
+            ) {
+                assertResultSet("count[BIGINT],sum[BIGINT]\n100,4950\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testBatchInsertRolledBackOnError() throws Exception {
+        final int modes = CONN_AWARE_EXTENDED_BINARY | CONN_AWARE_EXTENDED_TEXT | CONN_AWARE_EXTENDED_PREPARED_BINARY;
+        assertWithPgServer(modes, (connection, binary) -> {
+            compiler.compile("drop table if exists test_batch", sqlExecutionContext);
+            compiler.compile("create table test_batch (id long, ts timestamp) timestamp(ts) partition by DAY WAL", sqlExecutionContext);
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test_batch(id, ts) values(?, ?)")) {
+                for (int i = 0; i < 10; i++) {
+                    batchInsert.setLong(1, i);
+                    batchInsert.setTimestamp(2, new Timestamp(i * 1000L));
+                    batchInsert.addBatch();
+                }
+                batchInsert.setLong(1, 10);
+                batchInsert.setTimestamp(2, new Timestamp(-1000L));
+                batchInsert.addBatch();
+                try {
+                    batchInsert.executeBatch();
+                    Assert.fail();
+                } catch (SQLException e) {
+                    TestUtils.assertContains(e.getMessage(), "timestamp before 1970-01-01 is not allowed");
+                }
+
+                // the connection is usable, and the next batch is not affected by the failed one
+                batchInsert.setLong(1, 11);
+                batchInsert.setTimestamp(2, new Timestamp(11_000L));
+                batchInsert.addBatch();
+                batchInsert.executeBatch();
+            }
+            drainWalQueue();
+
+            StringSink sink = new StringSink();
+            try (
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("select id from test_batch")
+            ) {
+                assertResultSet("id[BIGINT]\n11\n", sink, rs);
+            }
+        });
+    }
+
     @Test
     public void testBatchInsertWithTransaction() throws Exception {
         skipOnWalRun(); // Non-partitioned
@@ -3346,6 +3419,34 @@ nodejs code:
         );
     }
 
+    @Test
+    public void testInsertNotCommittedOnFlush() throws Exception {
+        skipOnWalRun(); // non-partitioned table
+        // the client flushes the insert and disconnects without Sync, the implicit transaction is rolled back
+        final String script = ">0000006900030000757365720078797a006461746162617365006e6162755f61707000636c69656e745f656e636f64696e67005554463800446174655374796c650049534f0054696d655a6f6e6500474d540065787472615f666c6f61745f64696769747300320000\n" +
+                "<520000000800000003\n" +
+                ">70000000076f6800\n" +
+                "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005300000019636c69656e745f656e636f64696e670055544638005a0000000549\n" +
+                ">510000002f435245415445205441424c4520746573742028696420737472696e672c206e756d62657220696e74293b00\n" +
+                "<43000000074f4b005a0000000549\n" +
+                ">500000002800494e5345525420494e544f20746573742056414c5545532824312c202432293b000000420000001a00000000000200000003616263000000033132330000\n" +
+                ">44000000065000450000000900000000004800000004\n" +
+                "<310000000432000000046e00000004430000000f494e534552542030203100\n" +
+                ">5800000004\n";
+        assertHexScript(
+                NetworkFacadeImpl.INSTANCE,
+                script,
+                getHexPgWireConfig()
+        );
+        TestUtils.assertSql(
+                compiler,
+                sqlExecutionContext,
+                "select count() from test",
+                sink,
+                "count\n0\n"
+        );
+    }
+
     @Test
     public void testInsertPreparedRenameInsert() throws Exception {
         assertMemoryLeak(() -> {
@@ -353,6 +353,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getO3ColumnMemorySize();
     }
 
+    @Override
+    public long getO3CopyPartSize() {
+        return conf.getO3CopyPartSize();
+    }
+
     @Override
     public int getO3CopyQueueCapacity() {
         return conf.getO3CopyQueueCapacity();
@@ -413,11 +418,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getParallelIndexThreshold();
     }
 
+    @Override
+    public int getPartitionCompressionQueueCapacity() {
+        return conf.getPartitionCompressionQueueCapacity();
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return conf.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public int getPartitionZoneMapQueueCapacity() {
+        return conf.getPartitionZoneMapQueueCapacity();
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return conf.getQueryCacheEventQueueCapacity();
@@ -693,6 +708,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlPageFramePrefetchBufferCount() {
+        return conf.getSqlPageFramePrefetchBufferCount();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchBufferSize() {
+        return conf.getSqlPageFramePrefetchBufferSize();
+    }
+
+    @Override
+    public int getSqlPageFramePrefetchFrames() {
+        return conf.getSqlPageFramePrefetchFrames();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return conf.getSqlSmallMapKeyCapacity();
@@ -733,6 +763,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlSortValuePageSize();
     }
 
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return conf.getSqlSpillRoot();
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return conf.getStrFunctionMaxBufferLength();
@@ -778,6 +813,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getVolumeDefinitions();
     }
 
+    @Override
+    public long getWalApplyLagHardTxnCount() {
+        return conf.getWalApplyLagHardTxnCount();
+    }
+
+    @Override
+    public long getWalApplyLagSoftTxnCount() {
+        return conf.getWalApplyLagSoftTxnCount();
+    }
+
     @Override
     public int getWalApplyLookAheadTransactionCount() {
         return conf.getWalApplyLookAheadTransactionCount();
@@ -803,6 +848,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getWalRecreateDistressedSequencerAttempts();
     }
 
+    @Override
+    public int getWalSegmentCompressionQueueCapacity() {
+        return conf.getWalSegmentCompressionQueueCapacity();
+    }
+
     @Override
     public long getWalSegmentRolloverRowCount() {
         return conf.getWalSegmentRolloverRowCount();
@@ -858,6 +908,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isIOURingEnabled();
     }
 
+    @Override
+    public boolean isLatestByMaterializationEnabled() {
+        return conf.isLatestByMaterializationEnabled();
+    }
+
     @Override
     public boolean isO3QuickSortEnabled() {
         return conf.isO3QuickSortEnabled();
@@ -868,6 +923,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionBloomFilterEnabled() {
+        return conf.isPartitionBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return conf.isPartitionCompressionEnabled();
+    }
+
+    @Override
+    public boolean isPartitionZoneMapEnabled() {
+        return conf.isPartitionZoneMapEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return conf.isReadOnlyInstance();
@@ -893,11 +963,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return conf.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelOrderByEnabled() {
+        return conf.isSqlParallelOrderByEnabled();
+    }
+
     @Override
     public boolean isTableTypeConversionEnabled() {
         return conf.isTableTypeConversionEnabled();
     }
 
+    @Override
+    public boolean isWalSegmentCompressionEnabled() {
+        return conf.isWalSegmentCompressionEnabled();
+    }
+
     @Override
     public boolean isWalSupported() {
         return conf.isWalSupported();
@@ -58,6 +58,7 @@ public class AbstractO3Test {
     @ClassRule
     public static TemporaryFolder temp = new TemporaryFolder();
     protected static int dataAppendPageSize = -1;
+    protected static long o3CopyPartSize = -1;
     protected static CharSequence root;
     @Rule
     public Timeout timeout = Timeout.builder()
@@ -87,6 +88,7 @@ public class AbstractO3Test {
     public void tearDown() {
         TestUtils.removeTestPath(root);
         dataAppendPageSize = -1;
+        o3CopyPartSize = -1;
     }
 
     protected static void assertIndexConsistency(
@@ -336,6 +338,11 @@ public class AbstractO3Test {
                     public int getO3ColumnMemorySize() {
                         return dataAppendPageSize > 0 ? dataAppendPageSize : super.getO3ColumnMemorySize();
                     }
+
+                    @Override
+                    public long getO3CopyPartSize() {
+                        return o3CopyPartSize > 0 ? o3CopyPartSize : super.getO3CopyPartSize();
+                    }
                 };
 
                 TestUtils.execute(pool, runnable, configuration, LOG);
@@ -367,6 +374,11 @@ public class AbstractO3Test {
                         return dataAppendPageSize > 0 ? dataAppendPageSize : super.getO3ColumnMemorySize();
                     }
 
+                    @Override
+                    public long getO3CopyPartSize() {
+                        return o3CopyPartSize > 0 ? o3CopyPartSize : super.getO3CopyPartSize();
+                    }
+
                     @Override
                     public int getO3CopyQueueCapacity() {
                         return 0;
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.PartitionZoneMapJob;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.ZoneMapFilter;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+
+abstract class AbstractZoneMapFilterTest extends AbstractGriffinTest {
+
+    // expected string has a '1' for every partition that may match the filter and a '0' for pruned ones
+    static void assertMayMatch(String expected, ZoneMapFilter filter, TableReader reader) {
+        buildZoneMaps();
+        filter.of(reader);
+        final StringBuilder actual = new StringBuilder();
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            reader.openPartition(i);
+            actual.append(filter.mayMatch(reader, i) ? '1' : '0');
+        }
+        Assert.assertEquals(expected, actual.toString());
+    }
+
+    // pruned query must return the same rows as the query with a filter that cannot be pushed down
+    static void assertQuery(String filter, String unprunedFilter) throws SqlException {
+        buildZoneMaps();
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select * from x where " + unprunedFilter,
+                "select * from x where " + filter,
+                LOG
+        );
+    }
+
+    // zone maps and Bloom filters are built in the background, after the commit that sealed the partition
+    static void buildZoneMaps() {
+        final PartitionZoneMapJob job = new PartitionZoneMapJob(engine);
+        //noinspection StatementWithEmptyBody
+        while (job.run(0)) {
+        }
+    }
+}
@@ -64,6 +64,76 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         compiler.setEnableJitNullChecks(true);
     }
 
+    @Test
+    public void testAbs() throws Exception {
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_byte() i8," +
+                " rnd_int(-1000, 1000, 5) i32," +
+                " rnd_long(-1000, 1000, 5) i64," +
+                " cast(rnd_float(5) - 0.5 as float) f32," +
+                " rnd_double(5) - 0.5 f64" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        FilterGenerator gen = new FilterGenerator()
+                .withAnyOf("abs(i8) > 40", "abs(i32) >= 500", "abs(i64) < 500", "100 <= abs(i64)")
+                .withBooleanOperator()
+                .withAnyOf("abs(f32) < 0.25", "0.25 < abs(f64)", "abs(f64) <= 0");
+        assertGeneratedQueryNullable("select * from x", ddl, gen);
+    }
+
+    @Test
+    public void testBetweenDate() throws Exception {
+        final String query = "select * from x where d between '2020-06-01' and '2020-03-01T12:00:00.000Z' or d between 1598918400000000 and 1601510400000123";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_date(to_date('2020', 'yyyy'), to_date('2021', 'yyyy'), 5) d" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
+    @Test
+    public void testBetweenLong() throws Exception {
+        final String query = "select * from x where i64 between 500 and 0 or i64 between 900 and 901";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_long(-1000, 1000, 5) i64" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
+    @Test
+    public void testBetweenLongQuotedBounds() throws Exception {
+        // quoted bounds of a non-timestamp column are left to the Java filter
+        final String query = "select * from x where i64 between '1970-01-01T00:00:00.000100Z' and '1970-01-01T00:00:00.000500Z'";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_long(-1000, 1000, 5) i64" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertMemoryLeak(() -> {
+            compiler.compile(ddl, sqlExecutionContext);
+            Assert.assertTrue("query is expected to return rows", runQuery(query) > 0);
+
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse("JIT was enabled for query: " + query, factory.usesCompiledFilter());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, jitSink, printer);
+                }
+            }
+            TestUtils.assertEquals(sink, jitSink);
+        });
+    }
+
+    @Test
+    public void testBetweenTimestamp() throws Exception {
+        final String query = "select * from x where t between '2020-06-01' and '2020-03-01T12:00:00'";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_timestamp(to_timestamp('2020', 'yyyy'), to_timestamp('2021', 'yyyy'), 5) t" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
     @Test
     public void testBoolean() throws Exception {
         final String query = "select * from x where bool1 or bool2 = false";
@@ -388,6 +458,17 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertQueryNotNull(query, ddl);
     }
 
+    @Test
+    public void testIntervalNonDesignatedTimestamp() throws Exception {
+        Assume.assumeTrue(JitUtil.isPredicateOpcodesSupported());
+        final String query = "select * from x where t in '2020-03-01;5d;1M;4' or not t in '2020-02'";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_timestamp(to_timestamp('2020', 'yyyy'), to_timestamp('2021', 'yyyy'), 5) t" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
     @Test
     public void testNullComparison() throws Exception {
         final String ddl = "create table x as " +
@@ -490,6 +571,17 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         testOrderBy("order by ts desc");
     }
 
+    @Test
+    public void testStringEquality() throws Exception {
+        Assume.assumeTrue(JitUtil.isPredicateOpcodesSupported());
+        final String query = "select * from x where s = 'ABCD' or s <> 'ABCDEFGHIJK' and s = null or 'ABCDEFGHIJK' = s";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_str('ABCD','ABCE','ABCDEFGHIJK','ABCDEFGHIJL','',null) s" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
     @Test
     public void testSymbolKnownConstant() throws Exception {
         // The column order is important here, since we want
@@ -503,6 +595,18 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertQueryNotNull(query, ddl);
     }
 
+    @Test
+    public void testSymbolInList() throws Exception {
+        Assume.assumeTrue(JitUtil.isPredicateOpcodesSupported());
+        final String query = "select * from x where sym in ('HBC', 'DXR', 'XYZ', null) or not sym2 in ('ABB', 'DXR')";
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_symbol('ABB','HBC','DXR',null) sym," +
+                " rnd_symbol('ABB','HBC','DXR',null) sym2" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        assertQueryNullable(query, ddl);
+    }
+
     @Test
     public void testSymbolNull() throws Exception {
         final String query = "select * from x where sym <> null";
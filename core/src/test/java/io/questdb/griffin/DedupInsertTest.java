@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableToken;
+import io.questdb.griffin.model.CreateTableModel;
+import io.questdb.griffin.model.ExecutionModel;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DedupInsertTest extends AbstractGriffinTest {
+
+    @Test
+    public void testCreateTableLikeKeepsDedupKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            compile("create table y (like x)");
+            executeInsert("insert into y values ('2022-02-24T01', 'a', 1)");
+            executeInsert("insert into y values ('2022-02-24T01', 'a', 2)");
+            assertSql("y", "ts\tsym\tv\n" +
+                    "2022-02-24T01:00:00.000000Z\ta\t2\n");
+        });
+    }
+
+    @Test
+    public void testCreateTableModelToSink() throws Exception {
+        assertMemoryLeak(() -> {
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                ExecutionModel model = compiler.testCompileModel(
+                        "create table x (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)",
+                        sqlExecutionContext
+                );
+                sink.clear();
+                ((CreateTableModel) model).toSink(sink);
+                TestUtils.assertContains(sink, " dedup upsert keys(ts,sym)");
+            }
+        });
+    }
+
+    @Test
+    public void testDedupKeyMustBeFixedSize() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, s)",
+                null,
+                113,
+                "dedup key columns must be of fixed size type [column=s, type=STRING]"
+        );
+    }
+
+    @Test
+    public void testDedupKeyMustBeFixedSizeAsSelect() throws Exception {
+        assertFailure(
+                "create table x as (select timestamp_sequence(0, 1000000) ts, rnd_str() s from long_sequence(10)) timestamp(ts) partition by DAY dedup upsert keys(ts, s)",
+                null,
+                0,
+                "dedup key columns must be of fixed size type: s"
+        );
+    }
+
+    @Test
+    public void testDedupKeysDuplicateColumn() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, ts)",
+                null,
+                113,
+                "duplicate dedup key column"
+        );
+    }
+
+    @Test
+    public void testDedupKeysInvalidColumn() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, z)",
+                null,
+                113,
+                "Invalid column: z"
+        );
+    }
+
+    @Test
+    public void testDedupKeysMustIncludeTimestamp() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY dedup upsert keys(sym)",
+                null,
+                91,
+                "dedup keys must include the designated timestamp column"
+        );
+    }
+
+    @Test
+    public void testDedupRequiresPartitionedTable() throws Exception {
+        assertFailure(
+                "create table x (ts timestamp, sym symbol) timestamp(ts) dedup upsert keys(ts)",
+                null,
+                56,
+                "deduplication is possible only on partitioned tables with designated timestamps"
+        );
+    }
+
+    @Test
+    public void testInBatchDuplicates() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            // 20 rows, 10 distinct keys, the later row of each key wins
+            compile("insert into x select cast((x % 5) * 3600000000L as timestamp), 's' || (x % 2), 'v' || x, x from long_sequence(20)");
+            assertSql("select * from x order by ts, sym", "ts\tsym\ts\tv\n" +
+                    "1970-01-01T00:00:00.000000Z\ts0\tv20\t20\n" +
+                    "1970-01-01T00:00:00.000000Z\ts1\tv15\t15\n" +
+                    "1970-01-01T01:00:00.000000Z\ts0\tv16\t16\n" +
+                    "1970-01-01T01:00:00.000000Z\ts1\tv11\t11\n" +
+                    "1970-01-01T02:00:00.000000Z\ts0\tv12\t12\n" +
+                    "1970-01-01T02:00:00.000000Z\ts1\tv17\t17\n" +
+                    "1970-01-01T03:00:00.000000Z\ts0\tv18\t18\n" +
+                    "1970-01-01T03:00:00.000000Z\ts1\tv13\t13\n" +
+                    "1970-01-01T04:00:00.000000Z\ts0\tv14\t14\n" +
+                    "1970-01-01T04:00:00.000000Z\ts1\tv19\t19\n");
+            assertSql("select count() from x", "count\n10\n");
+        });
+    }
+
+    @Test
+    public void testLastPartitionMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol index, s string, v long) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            executeInsert("insert into x values ('2022-02-24T01', 'a', 'a1', 1)");
+            executeInsert("insert into x values ('2022-02-24T02', 'a', 'a2', 2)");
+            // equal to max timestamp
+            executeInsert("insert into x values ('2022-02-24T02', 'a', 'a20', 20)");
+            // new key on existing timestamp
+            executeInsert("insert into x values ('2022-02-24T01', 'b', 'b3', 3)");
+            // replaces the first row
+            executeInsert("insert into x values ('2022-02-24T01', 'a', 'a10', 10)");
+            // appending after the merges
+            executeInsert("insert into x values ('2022-02-24T03', 'a', 'a4', 4)");
+
+            final String expected = "ts\tsym\ts\tv\n" +
+                    "2022-02-24T01:00:00.000000Z\ta\ta10\t10\n" +
+                    "2022-02-24T01:00:00.000000Z\tb\tb3\t3\n" +
+                    "2022-02-24T02:00:00.000000Z\ta\ta20\t20\n" +
+                    "2022-02-24T03:00:00.000000Z\ta\ta4\t4\n";
+            assertSql("select * from x order by ts, sym", expected);
+            assertSql("select count() from x", "count\n4\n");
+            assertSql("select * from x where sym = 'a'", "ts\tsym\ts\tv\n" +
+                    "2022-02-24T01:00:00.000000Z\ta\ta10\t10\n" +
+                    "2022-02-24T02:00:00.000000Z\ta\ta20\t20\n" +
+                    "2022-02-24T03:00:00.000000Z\ta\ta4\t4\n");
+
+            // reopen writer and reader to check persisted row counts
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            assertSql("select * from x order by ts, sym", expected);
+        });
+    }
+
+    @Test
+    public void testMidPartitionMerge() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            executeInsert("insert into x select timestamp_sequence('2022-02-24', 3600000000L), 'a', 'a' || x, x from long_sequence(72)");
+
+            // hits the first timestamp of the first partition, O3 prefix is empty
+            executeInsert("insert into x values ('2022-02-24T00', 'a', 'first', 100)");
+            // hits the last timestamp of the first partition
+            executeInsert("insert into x values ('2022-02-24T23', 'a', 'last', 101)");
+            // middle of the second partition, with a new key
+            executeInsert("insert into x values ('2022-02-25T12', 'a', 'middle', 102), ('2022-02-25T12', 'b', 'new', 103)");
+
+            assertSql("select count() from x", "count\n73\n");
+            assertSql("select * from x where v > 99 or ts in ('2022-02-24T01', '2022-02-25T11', '2022-02-25T13') order by ts, sym", "ts\tsym\ts\tv\n" +
+                    "2022-02-24T00:00:00.000000Z\ta\tfirst\t100\n" +
+                    "2022-02-24T01:00:00.000000Z\ta\ta2\t2\n" +
+                    "2022-02-24T23:00:00.000000Z\ta\tlast\t101\n" +
+                    "2022-02-25T11:00:00.000000Z\ta\ta36\t36\n" +
+                    "2022-02-25T12:00:00.000000Z\ta\tmiddle\t102\n" +
+                    "2022-02-25T12:00:00.000000Z\tb\tnew\t103\n" +
+                    "2022-02-25T13:00:00.000000Z\ta\ta38\t38\n");
+            assertSql("select ts, count() from x sample by 1d", "ts\tcount\n" +
+                    "2022-02-24T00:00:00.000000Z\t24\n" +
+                    "2022-02-25T00:00:00.000000Z\t25\n" +
+                    "2022-02-26T00:00:00.000000Z\t24\n");
+
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            assertSql("select count() from x", "count\n73\n");
+        });
+    }
+
+    @Test
+    public void testTimestampOnlyKey() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, v long) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts)");
+            executeInsert("insert into x values ('2022-02-24T01', 1), ('2022-02-24T02', 2), ('2022-02-24T01', 3)");
+            executeInsert("insert into x values ('2022-02-24T02', 4)");
+            assertSql("x", "ts\tv\n" +
+                    "2022-02-24T01:00:00.000000Z\t3\n" +
+                    "2022-02-24T02:00:00.000000Z\t4\n");
+        });
+    }
+
+    @Test
+    public void testWalApply() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, s string, v long) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)");
+            executeInsert("insert into x values ('2022-02-24T01', 'a', 'a1', 1)");
+            executeInsert("insert into x values ('2022-02-24T02', 'a', 'a2', 2)");
+            drainWalQueue();
+
+            // ordered transaction with duplicates inside of it
+            executeInsert("insert into x values ('2022-02-24T02', 'a', 'a20', 20), ('2022-02-24T02', 'a', 'a21', 21), ('2022-02-24T03', 'b', 'b3', 3)");
+            // unordered transaction, duplicates data already in the table
+            executeInsert("insert into x values ('2022-02-24T03', 'b', 'b30', 30), ('2022-02-24T01', 'a', 'a10', 10)");
+            drainWalQueue();
+
+            // re-applying the same transaction is idempotent
+            executeInsert("insert into x values ('2022-02-24T03', 'b', 'b30', 30), ('2022-02-24T01', 'a', 'a10', 10)");
+            drainWalQueue();
+
+            final String expected = "ts\tsym\ts\tv\n" +
+                    "2022-02-24T01:00:00.000000Z\ta\ta10\t10\n" +
+                    "2022-02-24T02:00:00.000000Z\ta\ta21\t21\n" +
+                    "2022-02-24T03:00:00.000000Z\tb\tb30\t30\n";
+            assertSql("x", expected);
+
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+            assertSql("x", expected);
+        });
+    }
+
+    @Test
+    public void testWriterMetadata() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (ts timestamp, sym symbol, v long) timestamp(ts) partition by DAY dedup upsert keys(ts, sym)");
+            final TableToken tableToken = engine.getTableToken("x");
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), tableToken)) {
+                Assert.assertTrue(reader.getMetadata().getColumnMetadata(0).isDedupKey());
+                Assert.assertTrue(reader.getMetadata().getColumnMetadata(1).isDedupKey());
+                Assert.assertFalse(reader.getMetadata().getColumnMetadata(2).isDedupKey());
+            }
+        });
+    }
+}
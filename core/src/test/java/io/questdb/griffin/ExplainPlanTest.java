@@ -46,8 +46,11 @@ import io.questdb.griffin.engine.functions.conditional.SwitchFunctionFactory;
 import io.questdb.griffin.engine.functions.constants.*;
 import io.questdb.griffin.engine.functions.date.*;
 import io.questdb.griffin.engine.functions.eq.EqIntStrCFunctionFactory;
+import io.questdb.griffin.engine.functions.groupby.AbstractApproxCountDistinctGroupByFunction;
+import io.questdb.griffin.engine.functions.groupby.ApproxPercentileDoubleGroupByFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.LongSequenceFunctionFactory;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -1729,6 +1732,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                                 args.add(new CharConstant('s'));
                             } else if (factory instanceof EqIntStrCFunctionFactory && sigArgType == ColumnType.STRING) {
                                 args.add(new StrConstant("1"));
+                            } else if (factory instanceof ApproxPercentileDoubleGroupByFunctionFactory && p == 1) {
+                                args.add(new DoubleConstant(0.5));
+                            } else if (Chars.startsWith(factory.getSignature(), "approx_count_distinct") && p == 1) {
+                                args.add(new IntConstant(AbstractApproxCountDistinctGroupByFunction.DEFAULT_PRECISION));
                             } else if (!useConst) {
                                 args.add(colFuncs.get(sigArgType));
                             } else {
@@ -1742,8 +1749,18 @@ public class ExplainPlanTest extends AbstractGriffinTest {
 
                         argPositions.setAll(args.size(), 0);
 
-                        if (factory instanceof RowNumberFunctionFactory) {
-                            sqlExecutionContext.configureAnalyticContext(null, null, null, true, true);
+                        if (factory instanceof RowNumberFunctionFactory || factory.isAnalytic()) {
+                            sqlExecutionContext.configureAnalyticContext(
+                                    null,
+                                    null,
+                                    null,
+                                    true,
+                                    true,
+                                    AnalyticColumn.FRAMING_ROWS,
+                                    AnalyticColumn.FRAME_UNBOUNDED_PRECEDING,
+                                    AnalyticColumn.FRAME_CURRENT_ROW,
+                                    -1
+                            );
                         }
 
                         Function function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
@@ -1767,6 +1784,8 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                         }
                     } catch (Exception t) {
                         LOG.info().$(t).$();
+                    } finally {
+                        sqlExecutionContext.clearAnalyticContext();
                     }
                 }
 
@@ -4831,7 +4850,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectStaticTsInterval3() throws Exception {
         assertPlan("create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-03-01' or ts in '2020-03-10'",
-                "Async Filter\n" +
+                (JitUtil.isPredicateOpcodesSupported() ? "Async JIT Filter\n" : "Async Filter\n") +
                         "  filter: (ts in [1583020800000000,1583107199999999] or ts in [1583798400000000,1583884799999999])\n" +
                         "  workers: 1\n" +
                         "    DataFrame\n" +
@@ -4872,7 +4891,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectStaticTsInterval7() throws Exception {
         assertPlan("create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where (ts between '2020-03-01' and '2020-03-10') or (ts between '2020-04-01' and '2020-04-10') ",
-                "Async Filter\n" +
+                "Async JIT Filter\n" +
                         "  filter: (ts between 1583020800000000 and 1583798400000000 or ts between 1585699200000000 and 1586476800000000)\n" +
                         "  workers: 1\n" +
                         "    DataFrame\n" +
@@ -4942,7 +4961,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectWithJittedFilter10() throws Exception {
         assertPlan("create table tab ( s symbol, ts timestamp);",
                 "select * from tab where s in ( 'A', 'B' )",
-                "Async Filter\n" +
+                (JitUtil.isPredicateOpcodesSupported() ? "Async JIT Filter\n" : "Async Filter\n") +
                         "  filter: s in [A,B]\n" +
                         "  workers: 1\n" +
                         "    DataFrame\n" +
@@ -4978,7 +4997,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectWithJittedFilter13() throws Exception {
         assertPlan("create table tab ( s symbol, ts timestamp);",
                 "select * from tab where ts in ( '2020-01-01' ) and s = 'ABC'",
-                "Async Filter\n" +
+                (JitUtil.isPredicateOpcodesSupported() ? "Async JIT Filter\n" : "Async Filter\n") +
                         "  filter: (ts in [1577836800000000,1577923199999999] and s='ABC')\n" +
                         "  workers: 1\n" +
                         "    DataFrame\n" +
@@ -5588,7 +5607,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectWithNotOperator() throws Exception {
         assertPlan("CREATE TABLE tst ( timestamp TIMESTAMP );",
                 "select * from tst where timestamp not between '2021-01-01' and '2021-01-10' ",
-                "Async Filter\n" +
+                "Async JIT Filter\n" +
                         "  filter: not (timestamp between 1609459200000000 and 1610236800000000)\n" +
                         "  workers: 1\n" +
                         "    DataFrame\n" +
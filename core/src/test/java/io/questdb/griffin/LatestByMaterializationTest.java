@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.LatestByMaterialization;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatestByMaterializationTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideLatestByMaterializationEnabled(true);
+    }
+
+    @Test
+    public void testAddNonKeyColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            compile("alter table x add column k long", sqlExecutionContext);
+            // ALTER commits a txn the stored rows were not written for, queries scan the table until the next commit
+            assertMaterialized(false);
+            assertLatestBy("a");
+            insertRow("a1", "2022-01-12");
+            assertMaterialized(true);
+            assertAllLatestBy();
+
+            // update of a non-key column keeps the tuples, but the latest rows now return the new values
+            compile("update x set k = 42 where a = 'a2'", sqlExecutionContext);
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testAddSymbolColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            compile("alter table x add column d symbol", sqlExecutionContext);
+            // new column changes the stored tuples, they are rebuilt on the next commit
+            assertMaterialized(false);
+            compile("insert into x (a, b, d, l, ts) values ('x1', 'y1', 'z1', 1000, '2022-01-11T10:00'), ('x1', null, 'z2', 1001, '2022-01-11T11:00')");
+            assertMaterialized(true);
+            assertLatestBy("a, d");
+            assertLatestBy("a, b, c, d");
+        });
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertMaterialized(true);
+            assertAllLatestBy();
+
+            // rows added to the last partition and to the new ones are scanned incrementally
+            compile("insert into x select rnd_symbol('a1', 'a2', 'new'), rnd_symbol('b1', null), rnd_symbol('c1', 'c3', 'c4'), x + 1000, timestamp_sequence('2022-01-10T12:00', 30 * 60 * 1000000L) from long_sequence(200)");
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testAppendRecords() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            final long size = getFileSize();
+            try (TableReader reader = getReader("x")) {
+                // each commit appends record header and entry of its tuple: three keys, partition timestamp and row
+                insertRow("a1", "2022-01-12");
+                insertRow("new", "2022-01-12T01:00");
+                Assert.assertEquals(size + 2 * (4 + 5) * Long.BYTES, getFileSize());
+                assertMaterialized(true, false);
+                assertAllLatestBy();
+
+                // reader of the earlier txn keeps using the rows up to its record
+                try (LatestByMaterialization latestBy = new LatestByMaterialization()) {
+                    Assert.assertTrue(reader.readLatestByMaterialization(latestBy));
+                    Assert.assertTrue(latestBy.isCompacted());
+                }
+            }
+
+            // appended records are compacted once they outgrow the rows written in one go
+            for (int i = 0; i < 30; i++) {
+                insertRow("new", "2022-01-12T02:" + (10 + i));
+            }
+            Assert.assertTrue(getFileSize() < 2 * size);
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testDropPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            compile("alter table x drop partition list '2022-01-10', '2022-01-11'", sqlExecutionContext);
+            // stored rows are written for the previous txn, the query scans the table
+            assertMaterialized(false);
+            assertAllLatestBy();
+
+            compile("insert into x (a, b, c, l, ts) values ('a1', 'b1', 'c1', 1000, '2022-01-09T23:00')");
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            compile("insert into x (a, b, c, l, ts) values " +
+                    "('a1', 'b1', 'c1', 1000, '2022-01-02T05:01'), " +
+                    "('ooo', 'b1', 'c1', 1001, '2021-12-31'), " +
+                    "('ooo', 'ooo', null, 1002, '2022-01-05T10:17')"
+            );
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            assertPlan(
+                    "select * from x latest on ts partition by a, b",
+                    "LatestByMaterialized\n" +
+                            "    Latest rows scan\n" +
+                            "    Frame backward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            compile("update x set b = 'upd' where ts > '2022-01-04' and ts < '2022-01-06' and a = 'a1'", sqlExecutionContext);
+            // update commits new version of the column, stored rows are rebuilt
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable(" wal");
+            drainWalQueue();
+            assertMaterialized(true);
+            assertAllLatestBy();
+
+            compile("insert into x (a, b, c, l, ts) values ('a1', 'b1', 'c1', 1000, '2022-01-03'), ('wal', 'b1', 'c1', 1001, '2022-01-11')");
+            drainWalQueue();
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    @Test
+    public void testWriterReopen() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("");
+            insertRow("a2", "2022-01-12");
+            engine.releaseAllWriters();
+            // writer loads stored rows along with the appended records and carries on from the last scanned row
+            insertRow("new", "2022-01-12T01:00");
+            assertMaterialized(true, false);
+            assertAllLatestBy();
+
+            compile("insert into x (a, b, c, l, ts) values ('a1', 'b1', 'c1', 1000, '2022-01-11'), ('new', 'b1', 'c1', 1001, '2022-01-11T01:00')");
+            assertMaterialized(true);
+            assertAllLatestBy();
+        });
+    }
+
+    private static void assertAllLatestBy() throws SqlException {
+        assertLatestBy("a");
+        assertLatestBy("c");
+        assertLatestBy("a, b");
+        assertLatestBy("b, a");
+        assertLatestBy("c, a, b");
+    }
+
+    private static void assertLatestBy(String partitionBy) throws SqlException {
+        final String query = "select * from x latest on ts partition by " + partitionBy;
+        // the same query compiled with the latest rows disabled scans the table
+        configOverrideLatestByMaterializationEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        final String expected = sink.toString();
+        configOverrideLatestByMaterializationEnabled(true);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private static void assertMaterialized(boolean expected) {
+        try (LatestByMaterialization latestBy = new LatestByMaterialization(); TableReader reader = getReader("x")) {
+            Assert.assertEquals(expected, reader.readLatestByMaterialization(latestBy));
+        }
+    }
+
+    private static void assertMaterialized(boolean expected, boolean compacted) {
+        try (LatestByMaterialization latestBy = new LatestByMaterialization(); TableReader reader = getReader("x")) {
+            Assert.assertEquals(expected, reader.readLatestByMaterialization(latestBy));
+            Assert.assertEquals(compacted, latestBy.isCompacted());
+        }
+    }
+
+    private static void createTable(String walClause) throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('a1', 'a2', 'a3', 'a4') a," +
+                        " rnd_symbol('b1', 'b2', 'b3', null) b," +
+                        " rnd_symbol('c1', 'c2', 'c3') c," +
+                        " x l," +
+                        " timestamp_sequence('2022-01-01', 30 * 60 * 1000000L) ts" +
+                        " from long_sequence(500)" +
+                        ") timestamp(ts) partition by DAY" + walClause
+        );
+    }
+
+    private static long getFileSize() {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(engine.getTableToken("x").getDirName()).concat(TableUtils.LATEST_BY_FILE_NAME).$();
+            return configuration.getFilesFacade().length(path);
+        }
+    }
+
+    private static void insertRow(String a, String timestamp) throws SqlException {
+        compile("insert into x (a, b, c, l, ts) values ('" + a + "', 'b1', 'c1', 1000, '" + timestamp + "')");
+    }
+}
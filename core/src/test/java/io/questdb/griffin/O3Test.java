@@ -575,6 +575,18 @@ public class O3Test extends AbstractO3Test {
         executeWithPool(4, O3Test::testPartitionedDataAppendOOData0);
     }
 
+    @Test
+    public void testPartitionedDataAppendOODataSplitCopyContended() throws Exception {
+        o3CopyPartSize = 64;
+        executeWithPool(0, O3Test::testPartitionedDataAppendOOData0);
+    }
+
+    @Test
+    public void testPartitionedDataAppendOODataSplitCopyParallel() throws Exception {
+        o3CopyPartSize = 64;
+        executeWithPool(4, O3Test::testPartitionedDataAppendOOData0);
+    }
+
     @Test
     public void testPartitionedDataAppendOOPrependOOData() throws Exception {
         executeVanilla(O3Test::testPartitionedDataAppendOOPrependOOData0);
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.PartitionBloomFilter;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderMetadata;
+import io.questdb.cairo.ZoneMapFilter;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.griffin.model.CreateTableModel;
+import io.questdb.griffin.model.ExecutionModel;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionBloomFilterTest extends AbstractZoneMapFilterTest {
+    private static final int PROBE_COUNT = 10_000;
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverridePartitionBloomFilterEnabled(true);
+    }
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table x add column k string", sqlExecutionContext);
+            compile("insert into x (l, ts, k) values (1000, '2022-01-06', 'abc')");
+            // added columns are not flagged for Bloom filters, none of the partitions can be skipped
+            assertMayMatch("111111", "k", PartitionBloomFilter.hash("abc"));
+            assertQuery("k = 'abc'", "k || '' = 'abc'");
+        });
+    }
+
+    @Test
+    public void testBloomFilterColumnMustBeSupported() throws Exception {
+        assertFailure(
+                "create table x (l long, d double, ts timestamp) timestamp(ts) partition by DAY bloom filter(l, d)",
+                null,
+                95,
+                "Bloom filters are supported only for LONG, UUID, LONG256 and STRING columns [column=d, type=DOUBLE]"
+        );
+    }
+
+    @Test
+    public void testBloomFilterColumnMustBeSupportedAsSelect() throws Exception {
+        assertFailure(
+                "create table x as (select x l, rnd_double() d, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts) partition by DAY bloom filter(d)",
+                null,
+                0,
+                "Bloom filters are supported only for LONG, UUID, LONG256 and STRING columns: d"
+        );
+    }
+
+    @Test
+    public void testBloomFilterDuplicateColumn() throws Exception {
+        assertFailure(
+                "create table x (l long, ts timestamp) timestamp(ts) partition by DAY bloom filter(l, l)",
+                null,
+                85,
+                "duplicate Bloom filter column"
+        );
+    }
+
+    @Test
+    public void testBloomFilterRequiresPartitionedTable() throws Exception {
+        assertFailure(
+                "create table x (l long, ts timestamp) timestamp(ts) bloom filter(l)",
+                null,
+                52,
+                "Bloom filters are possible only on partitioned tables"
+        );
+    }
+
+    @Test
+    public void testCreateTableLikeKeepsBloomFilterColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("create table y (like x)");
+            try (TableReader reader = getReader("y")) {
+                final TableReaderMetadata metadata = reader.getMetadata();
+                Assert.assertTrue(metadata.getColumnMetadata(metadata.getColumnIndex("l")).isBloomFilter());
+                Assert.assertTrue(metadata.getColumnMetadata(metadata.getColumnIndex("h")).isBloomFilter());
+                Assert.assertFalse(metadata.getColumnMetadata(metadata.getColumnIndex("ts")).isBloomFilter());
+            }
+        });
+    }
+
+    @Test
+    public void testCreateTableModelToSink() throws Exception {
+        assertMemoryLeak(() -> {
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                ExecutionModel model = compiler.testCompileModel(
+                        "create table x (l long, s string, ts timestamp) timestamp(ts) partition by DAY bloom filter(l, s)",
+                        sqlExecutionContext
+                );
+                sink.clear();
+                ((CreateTableModel) model).toSink(sink);
+                TestUtils.assertContains(sink, " bloom filter(l,s)");
+            }
+        });
+    }
+
+    @Test
+    public void testEqualityPredicates() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            // the last partition is active and has no Bloom filter
+            assertMayMatch("01001", "l", PartitionBloomFilter.hash(30));
+            assertMayMatch("00001", "l", PartitionBloomFilter.hash(1001));
+            assertMayMatch("00101", "s", PartitionBloomFilter.hash("s60"));
+            assertMayMatch("00001", "s", PartitionBloomFilter.hash("s1000"));
+            assertMayMatch("00001", "s", PartitionBloomFilter.hash("x"));
+
+            assertQuery("l = 30", "l + 0 = 30");
+            assertQuery("s = 's60'", "s || '' = 's60'");
+            assertQuery("s = 's60' and l = 60", "s || '' = 's60' and l + 0 = 60");
+            assertQuery("s = 's60' or s = 's100'", "s || '' = 's60' or s || '' = 's100'");
+            assertQuery("s = 'x'", "s || '' = 'x'");
+            assertQuery("l = 1001", "l + 0 = 1001");
+        });
+    }
+
+    @Test
+    public void testFalsePositiveRate() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(
+                    "create table y as (" +
+                            "select x l, timestamp_sequence('2022-01-01', 10 * 1000000L) ts" +
+                            " from long_sequence(86400)" +
+                            ") timestamp(ts) partition by DAY bloom filter(l)"
+            );
+            buildZoneMaps();
+            try (PartitionBloomFilter bloomFilter = new PartitionBloomFilter(); TableReader reader = getReader("y")) {
+                final TableRecordMetadata metadata = reader.getMetadata();
+                final int writerIndex = metadata.getWriterIndex(metadata.getColumnIndex("l"));
+                long value = 1;
+                long falsePositiveCount = 0;
+                long probeCount = 0;
+                // the last partition is active and has no Bloom filter
+                for (int i = 0, n = reader.getPartitionCount() - 1; i < n; i++) {
+                    final long rowCount = reader.openPartition(i);
+                    Assert.assertTrue(reader.readBloomFilter(i, bloomFilter));
+                    Assert.assertTrue(bloomFilter.hasColumn(writerIndex, -1));
+                    for (long r = 0; r < rowCount; r++) {
+                        Assert.assertTrue(bloomFilter.mayContain(writerIndex, PartitionBloomFilter.hash(value++)));
+                    }
+                    // negative values are absent from the table
+                    for (long v = -1; v >= -PROBE_COUNT; v--) {
+                        if (bloomFilter.mayContain(writerIndex, PartitionBloomFilter.hash(v))) {
+                            falsePositiveCount++;
+                        }
+                        probeCount++;
+                    }
+                }
+                // filters are sized for about 1% false positive rate
+                Assert.assertTrue(probeCount > 0);
+                Assert.assertTrue("false positive count: " + falsePositiveCount, falsePositiveCount * 100 < probeCount * 2);
+            }
+        });
+    }
+
+    @Test
+    public void testNoFlaggedColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(
+                    "create table x as (" +
+                            "select x l, timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                            " from long_sequence(120)" +
+                            ") timestamp(ts) partition by DAY"
+            );
+            buildZoneMaps();
+            try (PartitionBloomFilter bloomFilter = new PartitionBloomFilter(); TableReader reader = getReader("x")) {
+                for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+                    reader.openPartition(i);
+                    Assert.assertFalse(reader.readBloomFilter(i, bloomFilter));
+                }
+            }
+            assertQuery("l = 30", "l + 0 = 30");
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile(
+                    "insert into x (l, s, u, h, ts) values " +
+                            "(1000, 'it''s', '11111111-2222-3333-4444-555555555555', 0x01, '2022-01-02T05:30')"
+            );
+            assertMayMatch("01001", "l", PartitionBloomFilter.hash(1000));
+            assertMayMatch("01001", "s", PartitionBloomFilter.hash("it's"));
+            assertMayMatch("01001", "u", PartitionBloomFilter.hash(0x4444555555555555L, 0x1111111122223333L));
+            assertMayMatch("01001", "h", PartitionBloomFilter.hash(1, 0, 0, 0));
+
+            assertQuery("l = 1000", "l + 0 = 1000");
+            assertQuery("s = 'it''s'", "s || '' = 'it''s'");
+            assertQuery("u = '11111111-2222-3333-4444-555555555555'", "cast(u as string) = '11111111-2222-3333-4444-555555555555'");
+            assertQuery("h = 0x01", "h = 0x01 or l < 0");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPlan(
+                    "select * from x where s = 's30' and u = '11111111-2222-3333-4444-555555555555' and h = 0x01 and l = 30",
+                    "Async Filter\n" +
+                            "  filter: (((s='s30' and u='11111111-2222-3333-4444-555555555555') and h=0x01) and l=30)\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          zone map filter: s='s30' and u='11111111-2222-3333-4444-555555555555' and h=0x01 and l=30\n"
+            );
+        });
+    }
+
+    @Test
+    public void testStringEscaping() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("insert into x (l, s, ts) values (1000, 'it''s', '2022-01-05T23:10'), (1001, '', '2022-01-05T23:20'), (1002, 'a\"b', '2022-01-05T23:30')");
+            compile("insert into x (l, ts) values (1003, '2022-01-06')");
+            // the filter holds unescaped values
+            assertMayMatch("000011", "s", PartitionBloomFilter.hash("it's"));
+            assertMayMatch("000001", "s", PartitionBloomFilter.hash("it''s"));
+            assertMayMatch("000011", "s", PartitionBloomFilter.hash("a\"b"));
+
+            // partition would be skipped if the constant was hashed differently from the stored value
+            assertQuery("s = 'it''s'", "s || '' = 'it''s'");
+            assertQuery("s = ''", "length(s) = 0");
+            assertQuery("s = 'a\"b'", "s || '' = 'a\"b'");
+            assertQuery("s = 'it''''s'", "s || '' = 'it''''s'");
+        });
+    }
+
+    @Test
+    public void testUnflaggedColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            compile(
+                    "create table x as (" +
+                            "select x l, 's' || x s, timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                            " from long_sequence(120)" +
+                            ") timestamp(ts) partition by DAY bloom filter(l)"
+            );
+            assertMayMatch("01001", "l", PartitionBloomFilter.hash(30));
+            assertMayMatch("11111", "s", PartitionBloomFilter.hash("x"));
+            assertQuery("s = 'x'", "s || '' = 'x'");
+            assertPlan(
+                    "select * from x where s = 's30'",
+                    "Async Filter\n" +
+                            "  filter: s='s30'\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUuidParsing() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("insert into x (l, u, ts) values (1000, 'aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee', '2022-01-05T23:30')");
+            compile("insert into x (l, ts) values (1001, '2022-01-06')");
+            assertMayMatch("000011", "u", PartitionBloomFilter.hash(0xddddeeeeeeeeeeeeL, 0xaaaaaaaabbbbccccL));
+
+            // hex digits are case-insensitive
+            assertQuery("u = 'AAAAAAAA-BBBB-CCCC-DDDD-EEEEEEEEEEEE'", "cast(u as string) = 'aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee'");
+            assertQuery("u = 'aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee' and l > 0", "cast(u as string) = 'aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee'");
+            assertPlan(
+                    "select * from x where u = 'AAAAAAAA-BBBB-CCCC-DDDD-EEEEEEEEEEEE'",
+                    "Async JIT Filter\n" +
+                            "  filter: u='aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee'\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          zone map filter: u='AAAAAAAA-BBBB-CCCC-DDDD-EEEEEEEEEEEE'\n"
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("update x set s = 'abc' where ts < '2022-01-01T05:00'", sqlExecutionContext);
+            // Bloom filter of the first partition describes previous version of the column
+            assertMayMatch("10001", "s", PartitionBloomFilter.hash("abc"));
+            assertMayMatch("01001", "l", PartitionBloomFilter.hash(30));
+            assertQuery("s = 'abc'", "s || '' = 'abc'");
+        });
+    }
+
+    private static void createTable() throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " x l," +
+                        " 's' || x s," +
+                        " rnd_uuid4() u," +
+                        " rnd_long256() h," +
+                        " timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                        " from long_sequence(120)" +
+                        ") timestamp(ts) partition by DAY bloom filter(l, s, u, h)"
+        );
+    }
+
+    private void assertMayMatch(String expected, String columnName, long hash) {
+        try (ZoneMapFilter filter = new ZoneMapFilter(); TableReader reader = getReader("x")) {
+            final TableRecordMetadata metadata = reader.getMetadata();
+            final int columnIndex = metadata.getColumnIndex(columnName);
+            filter.addHash(columnIndex, metadata.getWriterIndex(columnIndex), columnName, hash, "");
+            assertMayMatch(expected, filter, reader);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.IndexBuilder;
+import io.questdb.cairo.O3PartitionPurgeJob;
+import io.questdb.cairo.PartitionCompressionJob;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.TxReader;
+import io.questdb.std.Files;
+import io.questdb.std.Misc;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.*;
+
+public class PartitionCompressionTest extends AbstractGriffinTest {
+    private static O3PartitionPurgeJob purgeJob;
+    private PartitionCompressionJob compressionJob;
+
+    @BeforeClass
+    public static void begin() {
+        purgeJob = new O3PartitionPurgeJob(engine.getMessageBus(), 1);
+    }
+
+    @AfterClass
+    public static void end() {
+        purgeJob = Misc.free(purgeJob);
+    }
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverridePartitionCompressionEnabled(true);
+        compressionJob = new PartitionCompressionJob(engine);
+    }
+
+    @Test
+    public void testCompressInactivePartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+
+            try (TableReader reader = getReader("x")) {
+                final TxReader txFile = reader.getTxFile();
+                Assert.assertEquals(5, txFile.getPartitionCount());
+                // commit leaves compression to the job
+                for (int i = 0; i < 5; i++) {
+                    Assert.assertFalse(txFile.isPartitionCompressed(i));
+                }
+
+                // one partition per run
+                Assert.assertTrue(compressionJob.run(0));
+                Assert.assertTrue(reader.reload());
+                Assert.assertTrue(txFile.isPartitionCompressed(0));
+                Assert.assertFalse(txFile.isPartitionCompressed(1));
+
+                compressPartitions();
+                Assert.assertTrue(reader.reload());
+                for (int i = 0; i < 4; i++) {
+                    Assert.assertTrue(txFile.isPartitionCompressed(i));
+                }
+                Assert.assertFalse(txFile.isPartitionCompressed(4));
+            }
+            assertColumnFile("x", 0, "ts", true, false);
+            assertColumnFile("x", 0, "str", false, true);
+            assertTables();
+        });
+    }
+
+    @Test
+    public void testDropLastPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compressPartitions();
+            compile("alter table x drop partition list '2022-01-05'");
+            compile("create table z as (select * from y where ts < '2022-01-05')");
+            compile("drop table y");
+            compile("rename table z to y");
+            assertTables();
+
+            // previous partition becomes active and is appended to, compressed files that
+            // readers had open are removed after the commit
+            engine.releaseAllReaders();
+            insertBoth("'2022-01-04T23:59:59'");
+            assertTables();
+            assertColumnFile("x", 3, "ts", false, true);
+            assertColumnFile("x", 3, "i", false, true);
+        });
+    }
+
+    @Test
+    public void testDropIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("alter table x alter column sym add index");
+            compressPartitions();
+            assertColumnFile("x", 0, "sym", true, false);
+
+            compile("alter table x alter column sym drop index");
+            assertTables();
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select * from y where sym = 'b' order by ts",
+                    "select * from x where sym = 'b'",
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compressPartitions();
+            try (TableReader reader = getReader("x")) {
+                insertBoth("'2022-01-02T05:30'");
+                insertBoth("'2022-01-03T23:59:59.999999'");
+
+                Assert.assertTrue(reader.reload());
+                Assert.assertFalse(reader.getTxFile().isPartitionCompressed(1));
+                Assert.assertFalse(reader.getTxFile().isPartitionCompressed(2));
+                Assert.assertTrue(reader.getTxFile().isPartitionCompressed(3));
+            }
+            assertTables();
+            runPartitionPurgeJobs();
+            assertTables();
+        });
+    }
+
+    @Test
+    public void testRebuildIndex() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compile("alter table x alter column sym add index");
+            compressPartitions();
+            assertColumnFile("x", 0, "sym", true, false);
+
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+            try (IndexBuilder indexBuilder = new IndexBuilder()) {
+                indexBuilder.of(configuration.getRoot().toString() + Files.SEPARATOR + engine.getTableToken("x").getDirName(), configuration);
+                indexBuilder.reindexColumn("sym");
+            }
+            assertTables();
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select * from y where sym = 'b' order by ts",
+                    "select * from x where sym = 'b'",
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            compressPartitions();
+            compile("update x set i = 42, d = 0.5 where ts < '2022-01-03'");
+            compile("update y set i = 42, d = 0.5 where ts < '2022-01-03'");
+            assertTables();
+        });
+    }
+
+    private void assertColumnFile(String tableName, int partitionIndex, String columnName, boolean compressed, boolean raw) {
+        try (
+                TableReader reader = getReader(tableName);
+                Path path = new Path()
+        ) {
+            final TxReader txFile = reader.getTxFile();
+            TableUtils.setPathForPartition(
+                    path.of(configuration.getRoot()).concat(reader.getTableToken()),
+                    reader.getPartitionedBy(),
+                    txFile.getPartitionTimestamp(partitionIndex),
+                    false
+            );
+            TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(partitionIndex));
+            final int plen = path.length();
+            Assert.assertEquals(compressed, Files.exists(TableUtils.dzFile(path, columnName, -1)));
+            Assert.assertEquals(raw, Files.exists(TableUtils.dFile(path.trimTo(plen), columnName, -1)));
+        }
+    }
+
+    private void assertTables() throws SqlException {
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y order by ts", "x", LOG);
+        TestUtils.assertSqlCursors(
+                compiler,
+                sqlExecutionContext,
+                "select count(), min(ts), max(ts), sum(i), sum(l), sum(d) from y",
+                "select count(), min(ts), max(ts), sum(i), sum(l), sum(d) from x",
+                LOG
+        );
+    }
+
+    private void compressPartitions() {
+        //noinspection StatementWithEmptyBody
+        while (compressionJob.run(0)) {
+        }
+    }
+
+    private void createTables() throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_int() i," +
+                        " rnd_long(0, 1000000, 0) l," +
+                        " rnd_double(2) d," +
+                        " rnd_short() sh," +
+                        " rnd_symbol('a','b','c') sym," +
+                        " rnd_str(3, 5, 2) str," +
+                        " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                        " timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                        " from long_sequence(120)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+        // same data in a table that is never compressed, it is sorted on comparison
+        configOverridePartitionCompressionEnabled(false);
+        compile("create table y as (select i, l, d, sh, sym, str, dt, ts + 0 ts from x)");
+        configOverridePartitionCompressionEnabled(true);
+    }
+
+    private void insertBoth(String timestamp) throws SqlException {
+        compile("insert into x values (1, 2, 3.0, 4, 'a', 'abc', null, " + timestamp + ")");
+        compile("insert into y values (1, 2, 3.0, 4, 'a', 'abc', null, " + timestamp + ")");
+    }
+
+    private void runPartitionPurgeJobs() {
+        // when reader is returned to pool it remains in open state
+        // holding handles to partition files
+        engine.releaseAllReaders();
+        //noinspection StatementWithEmptyBody
+        while (purgeJob.run(0)) {
+        }
+    }
+}
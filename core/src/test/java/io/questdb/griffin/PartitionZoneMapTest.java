@@ -0,0 +1,295 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.PartitionCompressionJob;
+import io.questdb.cairo.PartitionZoneMap;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.ZoneMapFilter;
+import io.questdb.cairo.sql.TableRecordMetadata;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionZoneMapTest extends AbstractZoneMapFilterTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverridePartitionZoneMapEnabled(true);
+    }
+
+    @Test
+    public void testAddColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            compile("alter table x add column j long", sqlExecutionContext);
+            compile("insert into x (l, ts, j) values (1000, '2022-01-06', 42)");
+            // zone maps written before ALTER have no entry for j and cannot prune,
+            // the fifth partition is sealed by the insert with j entirely in column top
+            assertMayMatch("111101", "x", "j", ZoneMapFilter.OP_GT, 0);
+            assertMayMatch("000001", "x", "l", ZoneMapFilter.OP_GT, 500);
+            assertQuery("j > 0", "j + 0 > 0");
+        });
+    }
+
+    @Test
+    public void testBuiltInBackground() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            try (PartitionZoneMap zoneMap = new PartitionZoneMap(); TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                // commit only schedules the build
+                Assert.assertFalse(reader.readZoneMap(0, zoneMap));
+                buildZoneMaps();
+                Assert.assertTrue(reader.readZoneMap(0, zoneMap));
+            }
+        });
+    }
+
+    @Test
+    public void testCompressedPartitions() throws Exception {
+        configOverridePartitionCompressionEnabled(true);
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            // partitions are compressed before their zone maps are built
+            final PartitionCompressionJob compressionJob = new PartitionCompressionJob(engine);
+            //noinspection StatementWithEmptyBody
+            while (compressionJob.run(0)) {
+            }
+            try (TableReader reader = getReader("x")) {
+                Assert.assertTrue(reader.getTxFile().isPartitionCompressed(0));
+            }
+            assertMayMatch("00111", "x", "l", ZoneMapFilter.OP_GT, 60);
+            assertMayMatch("10001", "x", "d", ZoneMapFilter.OP_LT, 12L);
+            assertQuery("l > 60", "l + 0 > 60");
+        });
+    }
+
+    @Test
+    public void testDoubleConstantOnIntegerColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            // integer ranges are compared as doubles, fractional constants fall between partitions
+            assertMayMatch("10001", "x", "l", ZoneMapFilter.OP_LT, 24.5);
+            assertMayMatch("10001", "x", "l", ZoneMapFilter.OP_LE, 24.0);
+            assertMayMatch("01111", "x", "l", ZoneMapFilter.OP_GT, 24.0);
+            assertMayMatch("00001", "x", "l", ZoneMapFilter.OP_GE, 96.5);
+            assertMayMatch("00111", "x", "i", ZoneMapFilter.OP_GT, 48.5);
+
+            assertQuery("l < 24.5", "l + 0 < 24.5");
+            assertQuery("l >= 96.5", "l + 0 >= 96.5");
+            assertQuery("i > 48.5 and l <= 72.0", "i + 0 > 48.5 and l + 0 <= 72.0");
+        });
+    }
+
+    @Test
+    public void testLongConstantOnDoubleColumn() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            // integer constant is converted to double, equality is checked against the range as well
+            assertMayMatch("10001", "x", "d", ZoneMapFilter.OP_LT, 12L);
+            assertMayMatch("11001", "x", "d", ZoneMapFilter.OP_LE, 13L);
+            assertMayMatch("01001", "x", "d", ZoneMapFilter.OP_EQ, 24L);
+            assertMayMatch("00011", "x", "d", ZoneMapFilter.OP_GE, 48L);
+
+            assertQuery("d < 12", "d + 0 < 12");
+            assertQuery("d = 24", "d + 0 = 24");
+            assertQuery("d >= 48 and l > 0", "d + 0 >= 48 and l + 0 > 0");
+        });
+    }
+
+    @Test
+    public void testNullValues() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            compile("insert into x (ts) values ('2022-01-05T23:30')");
+            compile("insert into x (l, i, d, ts) values (1000, 1000, 1000.0, '2022-01-06')");
+            // integer null sentinel is the minimum of the type, so it widens the range of the fifth partition,
+            // NaN is left out of the double range
+            assertMayMatch("110011", "x", "l", ZoneMapFilter.OP_LT, 30);
+            assertMayMatch("100011", "x", "i", ZoneMapFilter.OP_LT, 25);
+            assertMayMatch("000011", "x", "i", ZoneMapFilter.OP_GT, 97);
+            assertMayMatch("100001", "x", "d", ZoneMapFilter.OP_LT, 10.0);
+            assertMayMatch("000011", "x", "d", ZoneMapFilter.OP_GE, 60.0);
+
+            assertQuery("l < 30", "l + 0 < 30");
+            assertQuery("i < 25", "i + 0 < 25");
+            assertQuery("d < 10.0", "d + 0 < 10.0");
+            assertQuery("d >= 60.0", "d + 0 >= 60.0");
+        });
+    }
+
+    @Test
+    public void testNumericPredicates() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            // the last partition is active and has no zone map
+            assertMayMatch("11001", "x", "l", ZoneMapFilter.OP_LT, 30);
+            assertMayMatch("11001", "x", "l", ZoneMapFilter.OP_LE, 25);
+            assertMayMatch("00101", "x", "l", ZoneMapFilter.OP_EQ, 50);
+            assertMayMatch("00111", "x", "l", ZoneMapFilter.OP_GT, 60);
+            assertMayMatch("00111", "x", "l", ZoneMapFilter.OP_GE, 72);
+            assertMayMatch("00011", "x", "l", ZoneMapFilter.OP_GE, 73);
+            assertMayMatch("10001", "x", "i", ZoneMapFilter.OP_LT, 25);
+            assertMayMatch("00001", "x", "i", ZoneMapFilter.OP_GT, 200);
+            assertMayMatch("00011", "x", "d", ZoneMapFilter.OP_GT, 36.0);
+            assertMayMatch("00011", "x", "d", ZoneMapFilter.OP_GT, 36L);
+
+            assertQuery("l < 30", "l + 0 < 30");
+            assertQuery("l >= 72 and d < 40.0", "l + 0 >= 72 and d + 0 < 40.0");
+            assertQuery("30 > l and i > 10", "30 > l + 0 and i + 0 > 10");
+            assertQuery("l > -1 and d > 10", "l + 0 > -1 and d + 0 > 10");
+            assertQuery("l = 50 or l = 100", "l + 0 = 50 or l + 0 = 100");
+            assertQuery("l < 30 and ts > '2022-01-01T12:00'", "l + 0 < 30 and ts > '2022-01-01T12:00'");
+        });
+    }
+
+    @Test
+    public void testOrderByDesc() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            TestUtils.assertSqlCursors(
+                    compiler,
+                    sqlExecutionContext,
+                    "select * from x where l + 0 < 30 order by ts desc",
+                    "select * from x where l < 30 order by ts desc",
+                    LOG
+            );
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            compile("insert into x (l, i, d, sym, ts) values (1000, 1000, 1000.0, 'c', '2022-01-02T05:30')");
+            assertMayMatch("01001", "x", "l", ZoneMapFilter.OP_GT, 500);
+            assertMayMatch("01001", "x", "d", ZoneMapFilter.OP_GE, 1000.0);
+            assertQuery("l > 500", "l + 0 > 500");
+            assertQuery("sym = 'c'", "sym || '' = 'c'");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            assertPlan(
+                    "select * from x where l < 30 and sym = 'a' and d > 1.5 and l + i > 3",
+                    "Async JIT Filter\n" +
+                            "  filter: (((l<30 and sym='a') and 1.5<d) and 3<l+i)\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          zone map filter: l<30 and sym='a' and d>1.5\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSymbolPredicates() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            assertMayMatchSymbol("11001", "a");
+            assertMayMatchSymbol("00111", "b");
+            // value is not in the symbol table
+            assertMayMatchSymbol("00001", "c");
+
+            assertQuery("sym = 'a'", "sym || '' = 'a'");
+            assertQuery("sym = 'a' and l > 10", "sym || '' = 'a' and l + 0 > 10");
+        });
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", "");
+            compile("update x set l = 1000 where ts < '2022-01-01T05:00'", sqlExecutionContext);
+            // zone map of the first partition describes previous version of the column
+            assertMayMatch("10001", "x", "l", ZoneMapFilter.OP_GT, 500);
+            assertMayMatch("10001", "x", "i", ZoneMapFilter.OP_LT, 10);
+            assertQuery("l > 500", "l + 0 > 500");
+        });
+    }
+
+    @Test
+    public void testWalTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable("x", " wal");
+            drainWalQueue();
+            assertMayMatch("11001", "x", "l", ZoneMapFilter.OP_LT, 30);
+
+            compile("insert into x (l, ts) values (1000, '2022-01-03T05:30')");
+            drainWalQueue();
+            assertMayMatch("00101", "x", "l", ZoneMapFilter.OP_GT, 500);
+            assertQuery("l > 500", "l + 0 > 500");
+        });
+    }
+
+    private static void createTable(String tableName, String suffix) throws SqlException {
+        compile(
+                "create table " + tableName + " as (" +
+                        "select" +
+                        " x l," +
+                        " cast(x as int) i," +
+                        " x * 0.5 d," +
+                        " cast(case when x <= 48 then 'a' else 'b' end as symbol) sym," +
+                        " timestamp_sequence('2022-01-01', 60 * 60 * 1000000L) ts" +
+                        " from long_sequence(120)" +
+                        ") timestamp(ts) partition by DAY" + suffix
+        );
+    }
+
+    private void assertMayMatch(String expected, String tableName, String columnName, int op, long value) {
+        try (ZoneMapFilter filter = new ZoneMapFilter(); TableReader reader = getReader(tableName)) {
+            final TableRecordMetadata metadata = reader.getMetadata();
+            final int columnIndex = metadata.getColumnIndex(columnName);
+            filter.add(columnIndex, metadata.getWriterIndex(columnIndex), columnName, op, value);
+            assertMayMatch(expected, filter, reader);
+        }
+    }
+
+    private void assertMayMatch(String expected, String tableName, String columnName, int op, double value) {
+        try (ZoneMapFilter filter = new ZoneMapFilter(); TableReader reader = getReader(tableName)) {
+            final TableRecordMetadata metadata = reader.getMetadata();
+            final int columnIndex = metadata.getColumnIndex(columnName);
+            filter.add(columnIndex, metadata.getWriterIndex(columnIndex), columnName, op, value);
+            assertMayMatch(expected, filter, reader);
+        }
+    }
+
+    private void assertMayMatchSymbol(String expected, String value) {
+        try (ZoneMapFilter filter = new ZoneMapFilter(); TableReader reader = getReader("x")) {
+            final TableRecordMetadata metadata = reader.getMetadata();
+            final int columnIndex = metadata.getColumnIndex("sym");
+            filter.addSymbol(columnIndex, metadata.getWriterIndex(columnIndex), "sym", value);
+            assertMayMatch(expected, filter, reader);
+        }
+    }
+}
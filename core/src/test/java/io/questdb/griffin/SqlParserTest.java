@@ -141,6 +141,32 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrame() throws Exception {
+        assertQuery(
+                "select-analytic a, avg(c) avg over (partition by b order by ts rows between 10 preceding and current row), sum(c) sum over (order by ts range between 60000000 preceding and current row), first_value(c) first_value over (order by ts rows between unbounded preceding and unbounded following) from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, avg(c) over (partition by b order by ts rows 10 preceding), sum(c) over (order by ts range between 1 minute preceding and current row), first_value(c) over (order by ts rows between unbounded preceding and unbounded following) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameFollowing() throws Exception {
+        assertSyntaxError(
+                "select a, avg(c) over (order by ts rows between 1 preceding and 1 following) from xyz",
+                66,
+                "'following' is only supported as 'unbounded following'",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticFunctionReferencesSameColumnAsVirtual() throws Exception {
         assertQuery(
@@ -5105,7 +5131,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonAnalyticFunctionInAnalyticContext() throws Exception {
         assertFailure(
-                "select avg(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
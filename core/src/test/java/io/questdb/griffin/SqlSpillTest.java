@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultTestCairoConfiguration;
+import io.questdb.cairo.SpillFile;
+import io.questdb.std.Misc;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.*;
+
+import java.io.File;
+
+public class SqlSpillTest extends AbstractGriffinTest {
+    private static String spillRoot;
+    private static SqlCompiler spillingCompiler;
+    private static CairoEngine spillingEngine;
+    private static SqlExecutionContext spillingExecutionContext;
+    private final StringSink actualSink = new StringSink();
+
+    @BeforeClass
+    public static void setUpStatic() {
+        AbstractGriffinTest.setUpStatic();
+        spillRoot = new File(temp.getRoot(), "spill").getAbsolutePath();
+        CairoConfiguration spillingConfiguration = new DefaultTestCairoConfiguration(root) {
+            @Override
+            public int getSqlHashJoinValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlHashJoinValuePageSize() {
+                return 1024;
+            }
+
+            @Override
+            public int getSqlMapMaxResizes() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlMapPageSize() {
+                return 64;
+            }
+
+            @Override
+            public int getSqlSmallMapPageSize() {
+                return 64;
+            }
+
+            @Override
+            public int getSqlSortKeyMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public long getSqlSortKeyPageSize() {
+                return 64;
+            }
+
+            @Override
+            public int getSqlSortLightValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public long getSqlSortLightValuePageSize() {
+                return 1024;
+            }
+
+            @Override
+            public int getSqlSortValueMaxPages() {
+                return 2;
+            }
+
+            @Override
+            public int getSqlSortValuePageSize() {
+                return 1024;
+            }
+
+            @Override
+            public CharSequence getSqlSpillRoot() {
+                return spillRoot;
+            }
+        };
+        spillingEngine = new CairoEngine(spillingConfiguration);
+        spillingExecutionContext = new SqlExecutionContextImpl(spillingEngine, 1);
+        spillingCompiler = new SqlCompiler(spillingEngine);
+    }
+
+    @AfterClass
+    public static void tearDownStatic() {
+        AbstractGriffinTest.tearDownStatic();
+        Misc.free(spillingCompiler);
+        Misc.free(spillingEngine);
+    }
+
+    @After
+    public void tearDown() {
+        spillingEngine.getTableIdGenerator().close();
+        spillingEngine.clear();
+        spillingEngine.getTableSequencerAPI().releaseInactive();
+        spillingEngine.closeNameRegistry();
+        super.tearDown();
+    }
+
+    @Test
+    public void testGroupBySpills() throws Exception {
+        assertSpilled("select s, count(), sum(d) from tb1 order by s");
+    }
+
+    @Test
+    public void testHashJoinSpills() throws Exception {
+        assertSpilled("select t1.s, t1.d, t2.d from tb1 t1 join tb2 t2 on (s)");
+    }
+
+    @Test
+    public void testHashOuterJoinSpills() throws Exception {
+        assertSpilled("select t1.s, t1.d, t2.d from tb1 t1 left join tb2 t2 on (s)");
+    }
+
+    @Test
+    public void testOrderBySpills() throws Exception {
+        assertSpilled("select * from tb1 order by d, s");
+    }
+
+    @Test
+    public void testOrderByWithoutRandomAccessSpills() throws Exception {
+        assertSpilled("select * from (select s, sum(d) d from tb1) order by d desc");
+    }
+
+    private void assertSpilled(String query) throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table tb1 as (select" +
+                    " rnd_str(4,4,0) s," +
+                    " rnd_double() d," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(2000)) timestamp(ts)", sqlExecutionContext);
+            compiler.compile("create table tb2 as (select" +
+                    " rnd_str(4,4,0) s," +
+                    " rnd_double() d," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(2000)) timestamp(ts)", sqlExecutionContext);
+            spillingEngine.reloadTableNames();
+
+            TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+
+            final long spilledBefore = SpillFile.getSpilledBytesTotal();
+            TestUtils.assertSql(spillingCompiler, spillingExecutionContext, query, actualSink, sink);
+            Assert.assertTrue(SpillFile.getSpilledBytesTotal() > spilledBefore);
+            spillingEngine.clear();
+
+            // spill files are removed once the query is done
+            final String[] files = new File(spillRoot).list();
+            Assert.assertNotNull(files);
+            Assert.assertEquals(0, files.length);
+            Assert.assertEquals(0, SpillFile.getSpilledBytes());
+        });
+    }
+}
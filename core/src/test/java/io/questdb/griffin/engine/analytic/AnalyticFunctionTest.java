@@ -33,6 +33,27 @@ import org.junit.Test;
 
 public class AnalyticFunctionTest extends AbstractGriffinTest {
 
+    @Test
+    public void testAnalyticAggregatesKeepGroupBySemantics() throws Exception {
+        assertQuery(
+                "avg\tsum\tmin\tmax\n" +
+                        "4.5\t36.0\t1.0\t8.0\n",
+                "select avg(price), sum(price), min(price), max(price) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
     @Test
     public void testAnalyticContextCleanup() throws Exception {
         assertMemoryLeak(() -> {
@@ -66,6 +87,219 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testAvgRowsFrameWithPartition() throws Exception {
+        assertQuery("price\tsymbol\tavg\n" +
+                        "1.0\tBB\t1.0\n" +
+                        "2.0\tAA\t2.0\n" +
+                        "3.0\tBB\t2.0\n" +
+                        "4.0\tAA\t3.0\n" +
+                        "5.0\tBB\t3.0\n" +
+                        "6.0\tAA\t4.0\n" +
+                        "7.0\tBB\t5.0\n" +
+                        "8.0\tAA\t6.0\n",
+                "select price, symbol, avg(price) over (partition by symbol order by ts rows between 2 preceding and current row) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testAvgWholePartition() throws Exception {
+        assertQuery("price\tsymbol\tavg\n" +
+                        "1.0\tBB\t4.0\n" +
+                        "2.0\tAA\t5.0\n" +
+                        "3.0\tBB\t4.0\n" +
+                        "4.0\tAA\t5.0\n" +
+                        "5.0\tBB\t4.0\n" +
+                        "6.0\tAA\t5.0\n" +
+                        "7.0\tBB\t4.0\n" +
+                        "8.0\tAA\t5.0\n",
+                "select price, symbol, avg(price) over (partition by symbol) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testFirstLastValueRowsFrame() throws Exception {
+        assertQuery("price\tfirst_value\tlast_value\n" +
+                        "1.0\t1.0\tNaN\n" +
+                        "2.0\t1.0\t1.0\n" +
+                        "3.0\t1.0\t2.0\n" +
+                        "4.0\t2.0\t3.0\n" +
+                        "5.0\t3.0\t4.0\n" +
+                        "6.0\t4.0\t5.0\n" +
+                        "7.0\t5.0\t6.0\n" +
+                        "8.0\t6.0\t7.0\n",
+                "select price, first_value(price) over (order by ts rows 2 preceding), last_value(price) over (order by ts rows between 3 preceding and 1 preceding) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testFrameFollowingNotSupported() throws Exception {
+        assertFailure(
+                "select avg(price) over (order by ts rows 2 following) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                43,
+                "'following' is only supported as 'unbounded following'"
+        );
+    }
+
+    @Test
+    public void testFrameStartAfterFrameEnd() throws Exception {
+        assertFailure(
+                "select avg(price) over (order by ts rows between current row and 2 preceding) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                36,
+                "frame start must not be after frame end"
+        );
+    }
+
+    @Test
+    public void testLagLead() throws Exception {
+        assertQuery("price\tsymbol\tlag\tlag1\tlead\tlead1\n" +
+                        "1.0\tBB\tNaN\tNaN\t3.0\t4.0\n" +
+                        "2.0\tAA\tNaN\tNaN\t4.0\t5.0\n" +
+                        "3.0\tBB\t1.0\t1.0\t5.0\t6.0\n" +
+                        "4.0\tAA\t2.0\t2.0\t6.0\t7.0\n" +
+                        "5.0\tBB\t3.0\t3.0\t7.0\t8.0\n" +
+                        "6.0\tAA\t4.0\t4.0\t8.0\tNaN\n" +
+                        "7.0\tBB\t5.0\t5.0\tNaN\tNaN\n" +
+                        "8.0\tAA\t6.0\t6.0\tNaN\tNaN\n",
+                "select price, symbol, lag(price) over (partition by symbol order by ts), lag(price, 2) over (order by ts), lead(price) over (partition by symbol order by ts), lead(price, 3) over (order by ts) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testMinMaxRowsFrame() throws Exception {
+        assertQuery("price\tmin\tmax\n" +
+                        "8.0\t8.0\t8.0\n" +
+                        "7.0\t7.0\t8.0\n" +
+                        "6.0\t6.0\t8.0\n" +
+                        "5.0\t5.0\t7.0\n" +
+                        "4.0\t4.0\t6.0\n" +
+                        "3.0\t3.0\t5.0\n" +
+                        "2.0\t2.0\t4.0\n" +
+                        "1.0\t1.0\t3.0\n",
+                "select price, min(price) over (order by ts desc rows 2 preceding), max(price) over (order by ts desc rows 2 preceding) from trades order by ts desc",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeFrameRequiresTimestampOrder() throws Exception {
+        assertFailure(
+                "select avg(price) over (order by price range 2 preceding) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                39,
+                "RANGE frame with offset requires ORDER BY on a single ascending timestamp column"
+        );
+    }
+
+    @Test
+    public void testRangeFrameWithTimeUnit() throws Exception {
+        assertQuery("ts\tprice\tavg\n" +
+                        "1970-01-01T00:00:00.000000Z\t1.0\t1.0\n" +
+                        "1970-01-01T00:00:01.000000Z\t2.0\t1.5\n" +
+                        "1970-01-01T00:00:02.000000Z\t3.0\t2.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t4.0\t3.0\n" +
+                        "1970-01-01T00:00:04.000000Z\t5.0\t4.0\n" +
+                        "1970-01-01T00:00:05.000000Z\t6.0\t5.0\n" +
+                        "1970-01-01T00:00:06.000000Z\t7.0\t6.0\n" +
+                        "1970-01-01T00:00:07.000000Z\t8.0\t7.0\n",
+                "select ts, price, avg(price) over (order by ts range between 2 seconds preceding and current row) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
     @Test
     @Ignore
     public void testRankFailsInNonAnalyticContext() throws Exception {
@@ -741,4 +975,88 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
                 false
         );
     }
+
+    @Test
+    public void testStreamingPlanForOrderedInput() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table trades as " +
+                    "(" +
+                    "select" +
+                    " x::double price," +
+                    " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(8)" +
+                    ") timestamp(ts) partition by day");
+            assertPlan(
+                    "select ts, avg(price) over (partition by symbol order by ts rows 10 preceding) from trades",
+                    "Analytic\n" +
+                            "  functions: [avg(price)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: trades\n"
+            );
+            assertPlan(
+                    "select ts, avg(price) over (partition by symbol) from trades",
+                    "CachedAnalytic\n" +
+                            "  functions: [avg(price)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: trades\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSumDefaultFrame() throws Exception {
+        assertQuery("price\tsymbol\tsum\tsum1\n" +
+                        "1.0\tBB\t1.0\t36.0\n" +
+                        "2.0\tAA\t2.0\t36.0\n" +
+                        "3.0\tBB\t4.0\t36.0\n" +
+                        "4.0\tAA\t6.0\t36.0\n" +
+                        "5.0\tBB\t9.0\t36.0\n" +
+                        "6.0\tAA\t12.0\t36.0\n" +
+                        "7.0\tBB\t16.0\t36.0\n" +
+                        "8.0\tAA\t20.0\t36.0\n",
+                "select price, symbol, sum(price) over (partition by symbol order by ts), sum(price) over () from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testSumOrderedByNonTimestamp() throws Exception {
+        assertQuery("price\tsum\n" +
+                        "1.0\t3.0\n" +
+                        "2.0\t5.0\n" +
+                        "3.0\t7.0\n" +
+                        "4.0\t9.0\n" +
+                        "5.0\t11.0\n" +
+                        "6.0\t13.0\n" +
+                        "7.0\t15.0\n" +
+                        "8.0\t8.0\n",
+                "select price, sum(price) over (order by price desc rows between 1 preceding and current row) from trades",
+                "create table trades as " +
+                        "(" +
+                        "select" +
+                        " x::double price," +
+                        " case when x % 2 = 0 then 'AA' else 'BB' end symbol," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(8)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
 }
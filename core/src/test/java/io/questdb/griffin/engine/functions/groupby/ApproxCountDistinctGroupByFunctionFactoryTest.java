@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "approx_count_distinct\n" +
+                        "0\n",
+                "select approx_count_distinct(s) from x",
+                "create table x (s long, ts timestamp) timestamp(ts)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tapprox_count_distinct\tcount_distinct\n" +
+                        "a\t15\t15\n" +
+                        "b\t13\t13\n" +
+                        "c\t15\t15\n" +
+                        "d\t16\t16\n" +
+                        "e\t14\t14\n" +
+                        "f\t14\t14\n",
+                "select a, approx_count_distinct(s), count_distinct(s) from x order by a",
+                "create table x as (select rnd_symbol('a','b','c','d','e','f') a, rnd_long(0, 16, 0) s, timestamp_sequence(0, 100000) ts from long_sequence(200)) timestamp(ts)",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupNotKeyedWithNulls() throws Exception {
+        assertQuery(
+                "approx_count_distinct\tapprox_count_distinct1\tapprox_count_distinct2\tapprox_count_distinct3\tapprox_count_distinct4\n" +
+                        "40\t40\t30\t30\t1002\n",
+                "select approx_count_distinct(i), approx_count_distinct(l), approx_count_distinct(s), approx_count_distinct(k), approx_count_distinct(u) from x",
+                "create table x as (" +
+                        "select rnd_int(1, 40, 2) i, rnd_long(1, 40, 2) l, rnd_str(30, 4, 4, 2) s, rnd_symbol(30, 4, 4, 2) k, rnd_uuid4() u " +
+                        "from long_sequence(1000))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testHighCardinality() throws Exception {
+        assertMemoryLeak(() -> {
+            assertEstimate("select approx_count_distinct(x) from long_sequence(200000)", 200_000, 0.05);
+            assertEstimate("select approx_count_distinct(x, 16) from long_sequence(200000)", 200_000, 0.02);
+            assertEstimate("select approx_count_distinct(x::string) from long_sequence(200000)", 200_000, 0.05);
+            assertEstimate("select approx_count_distinct(rnd_uuid4()) from long_sequence(200000)", 200_000, 0.05);
+        });
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        assertFailure(
+                "select approx_count_distinct(x, 3) from long_sequence(10)",
+                null,
+                32,
+                "precision must be between 4 and 16"
+        );
+        assertFailure(
+                "select approx_count_distinct(x::string, 17) from long_sequence(10)",
+                null,
+                40,
+                "precision must be between 4 and 16"
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (s symbol, l long)");
+            assertPlan(
+                    "select s, approx_count_distinct(l), approx_count_distinct(l, 14) from x",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [s]\n" +
+                            "  values: [approx_count_distinct(l),approx_count_distinct(l,14)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\tcount_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t102\t101\n" +
+                        "1970-01-01T01:00:00.000000Z\t102\t101\n" +
+                        "1970-01-01T02:00:00.000000Z\t102\t101\n",
+                "select ts, approx_count_distinct(s), count_distinct(s) from x sample by 1h",
+                "create table x as (select rnd_long(0, 100, 0) s, timestamp_sequence(0, 1000000) ts from long_sequence(10000)) timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testSampleByFillNull() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t1\n" +
+                        "1970-01-01T00:00:01.000000Z\t1\n" +
+                        "1970-01-01T00:00:02.000000Z\tNaN\n" +
+                        "1970-01-01T00:00:03.000000Z\t1\n" +
+                        "1970-01-01T00:00:04.000000Z\t1\n" +
+                        "1970-01-01T00:00:05.000000Z\tNaN\n" +
+                        "1970-01-01T00:00:06.000000Z\t1\n" +
+                        "1970-01-01T00:00:07.000000Z\t1\n",
+                "select ts, approx_count_distinct(s) from x sample by 1s fill(null)",
+                "create table x as (select rnd_long(0, 10, 0) s, timestamp_sequence(0, 1500000) ts from long_sequence(6)) timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    private void assertEstimate(String query, long expected, double relativeError) throws Exception {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                Assert.assertTrue(cursor.hasNext());
+                final long actual = cursor.getRecord().getLong(0);
+                Assert.assertEquals(query, expected, actual, expected * relativeError);
+            }
+        }
+    }
+}
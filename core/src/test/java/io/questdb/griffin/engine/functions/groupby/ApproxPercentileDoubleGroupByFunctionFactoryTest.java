@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAccuracy() throws Exception {
+        assertMemoryLeak(() -> {
+            assertPercentile("select approx_median(x) from long_sequence(100000)", 50_000);
+            assertPercentile("select approx_percentile(x, 0.95) from long_sequence(100000)", 95_000);
+            assertPercentile("select approx_percentile(x, 0.99) from long_sequence(100000)", 99_000);
+            assertPercentile("select approx_percentile(x, 1.0) from long_sequence(100000)", 100_000);
+            assertPercentile("select approx_percentile(-x, 0.01) from long_sequence(100000)", -99_000);
+            assertPercentile("select approx_percentile(x * 0.001, 0.5) from long_sequence(100000)", 50);
+        });
+    }
+
+    @Test
+    public void testCollapsedLowBuckets() throws Exception {
+        assertMemoryLeak(() -> {
+            // values span 40 orders of magnitude, more than the store covers,
+            // but the upper percentiles stay accurate
+            final String query = "select approx_percentile(power(10.0, (x % 41) - 20), 0.99) from long_sequence(4100)";
+            assertPercentile(query, 1e20);
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "approx_percentile\tapprox_median\n" +
+                        "NaN\tNaN\n",
+                "select approx_percentile(d, 0.9), approx_median(d) from x",
+                "create table x (d double, ts timestamp) timestamp(ts)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tapprox_median\tapprox_percentile\tmin\tmax\n" +
+                        "a\t49.41826461082342\t83.12865224585718\t0.31075670450616544\t98.495997854838\n" +
+                        "b\t53.534738131091935\t90.05315472364622\t0.7985454958725269\t98.56290845874263\n" +
+                        "c\t57.99410823780515\t90.05315472364622\t0.8134052047644613\t96.44183832564399\n",
+                "select a, approx_median(d), approx_percentile(d, 0.9), min(d), max(d) from x order by a",
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_double(2) * 100 d, timestamp_sequence(0, 100000) ts from long_sequence(300)) timestamp(ts)",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testInvalidPercentile() throws Exception {
+        assertFailure(
+                "select approx_percentile(x, 1.5) from long_sequence(10)",
+                null,
+                28,
+                "percentile must be between 0 and 1"
+        );
+        assertFailure(
+                "select approx_percentile(x, -0.1) from long_sequence(10)",
+                null,
+                28,
+                "percentile must be between 0 and 1"
+        );
+    }
+
+    @Test
+    public void testManyGroups() throws Exception {
+        assertMemoryLeak(() -> assertQuery(
+                "count\n" +
+                        "0\n",
+                "select count() from (" +
+                        "select k, approx_percentile(d, 1.0) p, approx_median(d) m, max(d) mx from (" +
+                        "select x % 20000 k, (x % 7 - 3) * power(10.0, x % 23) d from long_sequence(200000)" +
+                        ")) where abs(p - mx) > abs(mx) * 0.02 or m = null",
+                null,
+                false,
+                true
+        ));
+    }
+
+    @Test
+    public void testNegativesAndZeros() throws Exception {
+        assertQuery(
+                "approx_percentile\tapprox_percentile1\tapprox_median\tapprox_percentile2\tapprox_percentile3\n" +
+                        "-49.41826461082342\t-25.033862200382906\t0.0\t25.033862200382906\t49.41826461082342\n",
+                "select approx_percentile(x, 0), approx_percentile(x, 0.25), approx_median(x), approx_percentile(x, 0.75), approx_percentile(x, 1) from (select x - 51 x from long_sequence(101))",
+                null,
+                false,
+                true
+        );
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (s symbol, d double)");
+            assertPlan(
+                    "select s, approx_median(d), approx_percentile(d, 0.99) from x",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [s]\n" +
+                            "  values: [approx_median(d),approx_percentile(d,0.99)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testSampleBy() throws Exception {
+        assertQuery(
+                "ts\tapprox_percentile\tmax\n" +
+                        "1970-01-01T00:00:00.000000Z\t992.9895902441833\t999.7998069306392\n" +
+                        "1970-01-01T01:00:00.000000Z\t992.9895902441833\t999.745250828983\n" +
+                        "1970-01-01T02:00:00.000000Z\t992.9895902441833\t999.8120012952196\n",
+                "select ts, approx_percentile(d, 0.99), max(d) from x sample by 1h",
+                "create table x as (select rnd_double() * 1000 d, timestamp_sequence(0, 1000000) ts from long_sequence(10000)) timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    private void assertPercentile(String query, double expected) throws Exception {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                Assert.assertTrue(cursor.hasNext());
+                final double actual = cursor.getRecord().getDouble(0);
+                Assert.assertEquals(query, expected, actual, Math.abs(expected) * ApproxPercentileDoubleGroupByFunction.RELATIVE_ACCURACY);
+            }
+        }
+    }
+}
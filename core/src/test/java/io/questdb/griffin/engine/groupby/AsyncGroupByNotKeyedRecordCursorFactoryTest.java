@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncGroupByNotKeyedRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByNotKeyedRecordCursorFactoryTest.class);
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelGroupByEnabled(true);
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (l long, d double, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l * 2), min(d), max(ts), stddev_samp(d) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testExpressionArgumentsOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l * d), avg(d + 1), min(d), max(ts), ksum(d), nsum(d), round(stddev_samp(d), 6) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testExpressionArgumentsWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l * d), avg(d + 1), min(d), max(ts), ksum(d), nsum(d), round(stddev_samp(d), 6) from x"
+            );
+        });
+    }
+
+    @Test
+    public void testFilteredByIntervalWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l * 2), max(c), min(f) from x where ts in '1970-01-02'"
+            );
+        });
+    }
+
+    @Test
+    public void testFusedFilterBatchOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), count(d), count(l), sum(d), sum(l), min(d), min(l), max(d), max(l) from x where d > 100 and l < 30000"
+            );
+        });
+    }
+
+    @Test
+    public void testFusedFilterBatchWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), count(d), count(l), sum(d), sum(l), min(d), min(l), max(d), max(l) from x where d > 100 and l < 30000"
+            );
+        });
+    }
+
+    @Test
+    public void testFusedFilterColumnTopsWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            compile("alter table x add column l2 long", compiler, sqlExecutionContext);
+            compiler.compile(
+                    "insert into x select rnd_char(), rnd_long(0, 40000, 2), rnd_int(0, 1000, 2)::double, rnd_int(0, 1000, 2)::float," +
+                            " timestamp_sequence(" + ROW_COUNT + " * 10000000L, 10000000), rnd_long(0, 40000, 2)" +
+                            " from long_sequence(" + ROW_COUNT + ")",
+                    sqlExecutionContext
+            );
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l2), min(l2), max(d) from x where l2 > 100 or d < 500"
+            );
+        });
+    }
+
+    @Test
+    public void testFusedFilterNoMatchingRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(d), sum(l), min(d), max(l) from x where d > 1000000"
+            );
+        });
+    }
+
+    @Test
+    public void testFusedFilterRowByRowWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(l * d), avg(d), max(ts), round(stddev_samp(d), 6) from x where d > 100 and l < 30000"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x l, x::double d from long_sequence(10))", sqlExecutionContext);
+            assertPlan(
+                    "select sum(l * d), stddev_samp(d) from x",
+                    "Async Group By\n" +
+                            "  values: [sum(l*d),stddev_samp(d)]\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testPlanFusedFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x l, x::double d from long_sequence(10))", sqlExecutionContext);
+            assertPlan(
+                    "select sum(l), max(d) from x where d > 5",
+                    "Async Group By\n" +
+                            "  values: [sum(l),max(d)]\n" +
+                            "  workers: 1\n" +
+                            "    Async JIT Filter\n" +
+                            "      filter: 5<d\n" +
+                            "      workers: 1\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testProjectedArgumentsFusedFilterWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createQuotesTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(price * qty), sum((ask - bid) * mid), max(-hi * 2), sum(hi - lo) from q where ask > bid and lo < 500"
+            );
+        });
+    }
+
+    @Test
+    public void testProjectedArgumentsOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createQuotesTable(compiler, sqlExecutionContext);
+            // frames are aggregated in order, so double sums match the serial ones exactly
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(price * qty), sum((ask - bid) / mid), min(ask - bid), max(-hi * 2), sum(hi - lo), sum(hi / 3), count(ask * 2) from q"
+            );
+        });
+    }
+
+    @Test
+    public void testProjectedArgumentsWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createQuotesTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count(), sum(price * qty), sum((ask - bid) * mid), min(ask - bid), max(-hi * 2), sum(hi - lo), sum(hi / 3), count(ask * 2) from q"
+            );
+        });
+    }
+
+    private static void assertParallelQuery(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        configOverrideParallelGroupByEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+        configOverrideParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof AsyncGroupByNotKeyedRecordCursorFactory || factory.getBaseFactory() instanceof AsyncGroupByNotKeyedRecordCursorFactory);
+        }
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private static void createQuotesTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table q as (" +
+                        "select" +
+                        " rnd_int(0, 1000, 2)::double ask," +
+                        " rnd_int(0, 1000, 2)::double bid," +
+                        " rnd_int(1, 1000, 2)::double mid," +
+                        " rnd_int(0, 1000, 2)::double price," +
+                        " rnd_int(0, 100, 2)::double qty," +
+                        " rnd_long(0, 1000, 2) lo," +
+                        " rnd_long(0, 1000, 2) hi," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private static void createTestTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_char() c," +
+                        " rnd_long(0, 40000, 2) l," +
+                        " rnd_int(0, 1000, 2)::double d," +
+                        " rnd_int(0, 1000, 2)::float f," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(PoolRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> runnable.run(compiler, sqlExecutionContext),
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface PoolRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByRecordCursorFactoryTest.class);
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelGroupByEnabled(true);
+    }
+
+    @Test
+    public void testApproxCountDistinctWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select s, approx_count_distinct(l), approx_count_distinct(str), approx_count_distinct(i, 4) from x order by s"
+            );
+        });
+    }
+
+    @Test
+    public void testApproxPercentileWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select s, approx_median(d), approx_percentile(l, 0.99), approx_percentile(d - 500, 0.1) from x order by s"
+            );
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, l long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+            assertQuery(
+                    "s\tcount\tsum\n",
+                    "select s, count(), sum(l) from x order by s",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackOnUnsupportedFunction() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B') s, x l from long_sequence(10))", sqlExecutionContext);
+            assertPlan(
+                    "select s, count_distinct(l) from x",
+                    "GroupBy vectorized: false\n" +
+                            "  keys: [s]\n" +
+                            "  values: [count_distinct(l)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedAggregatesOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select str, count(), sum(l), avg(d), ksum(d), nsum(d), min(l), max(l), min(ts), max(ts), sum(f) " +
+                            "from x order by str"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedAggregatesWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select str, count(), sum(l), avg(d), ksum(d), nsum(d), min(l), max(l), min(ts), max(ts), sum(f) " +
+                            "from x order by str"
+            );
+        });
+    }
+
+    @Test
+    public void testMultipleKeysWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select s, i, count(), min(d), max(d), min(c), max(c) from x order by s, i"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_str('A','B') s, x l from long_sequence(10))", sqlExecutionContext);
+            assertPlan(
+                    "select s, count(), max(l) from x",
+                    "Async Group By\n" +
+                            "  keys: [s]\n" +
+                            "  values: [count(*),max(l)]\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testStringKeysWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select str, count(), sum(l), min(d) from x order by str"
+            );
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select str, count(), sum(l) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final StringSink expected = new StringSink();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, printer);
+                    cursor.toTop();
+                    TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                }
+            }
+        });
+    }
+
+    private static void assertParallelQuery(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        configOverrideParallelGroupByEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+        configOverrideParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getBaseFactory().getClass());
+        }
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private static void createTestTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C','D',null) s," +
+                        " rnd_int(0, 16, 0) i," +
+                        " rnd_str('foo','bar','baz',null) str," +
+                        " rnd_char() c," +
+                        " rnd_long(0, 40000, 2) l," +
+                        " rnd_int(0, 1000, 2)::double d," +
+                        " rnd_int(0, 1000, 2)::float f," +
+                        " timestamp_sequence(0, 100000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(PoolRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> runnable.run(compiler, sqlExecutionContext),
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface PoolRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
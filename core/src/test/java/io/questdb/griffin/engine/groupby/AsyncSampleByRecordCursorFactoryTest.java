@@ -0,0 +1,363 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSampleByRecordCursorFactoryTest.class);
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelGroupByEnabled(true);
+    }
+
+    @Test
+    public void testAlignToFirstObservationWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 17_000_000);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), min(d), max(d) from x sample by 7m order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testCalendarOffsetWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), avg(d) from x sample by 90m align to calendar with offset '00:42' order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (s symbol, l long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+            assertQuery(
+                    "ts\ts\tcount\tsum\n",
+                    "select ts, s, count(), sum(l) from x sample by 1h",
+                    "ts",
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackOnMonthSampler() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B') s, x l, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            assertPlan(
+                    "select ts, s, count() from x sample by 1M",
+                    "SampleBy\n" +
+                            "  keys: [ts,s]\n" +
+                            "  values: [count(*)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackOnTimezoneName() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B') s, x l, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            assertPlan(
+                    "select ts, s, count() from x sample by 1h align to calendar time zone 'Europe/Berlin'",
+                    "SampleBy\n" +
+                            "  keys: [ts,s]\n" +
+                            "  values: [count(*)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testFillNullKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), avg(d) from x sample by 1m fill(null) order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testFillPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B') s, x l, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            assertPlan(
+                    "select ts, s, count(), max(l) from x sample by 1h fill(null, 42)",
+                    "Async Sample By\n" +
+                            "  fill: value\n" +
+                            "  keys: [ts,s]\n" +
+                            "  values: [count(*),max(l)]\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+            // linear interpolation stays serial
+            assertPlan(
+                    "select ts, count(), max(l) from x sample by 1h fill(linear)",
+                    "SampleBy\n" +
+                            "  fill: linear\n" +
+                            "  keys: [ts]\n" +
+                            "  values: [count(*),max(l)]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testFillPrevKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, str, count(), sum(l), min(d), max(f) from x sample by 1m fill(prev) order by ts, s, str"
+            );
+        });
+    }
+
+    @Test
+    public void testFillPrevNotKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, count(), sum(l), avg(d) from x sample by 30s fill(prev)"
+            );
+        });
+    }
+
+    @Test
+    public void testFillToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, count(), sum(l) from x sample by 1m fill(prev, 0)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncSampleByRecordCursorFactory.class, factory.getClass());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final StringSink expected = new StringSink();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, printer);
+                    cursor.toTop();
+                    TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testFillValueKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 1_800_000_000L);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), avg(d) from x sample by 1m fill(0, prev, 42.5) align to calendar time zone '+01:00' order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), min(d), max(d), min(ts), max(ts), sum(f) from x sample by 1h order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, str, count(), sum(l), min(d), max(d), min(ts), max(ts), sum(f) from x sample by 1h order by ts, s, str"
+            );
+        });
+    }
+
+    @Test
+    public void testNotKeyedWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, count(), sum(l), avg(d), ksum(d), nsum(d), min(l), max(l) from x sample by 1h"
+            );
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select rnd_symbol('A','B') s, x l, timestamp_sequence(0, 1000000) ts from long_sequence(10)) timestamp(ts)", sqlExecutionContext);
+            assertPlan(
+                    "select ts, s, count(), max(l) from x sample by 1h",
+                    "Sort light\n" +
+                            "  keys: [ts]\n" +
+                            "    Async Sample By\n" +
+                            "      keys: [ts,s]\n" +
+                            "      values: [count(*),max(l)]\n" +
+                            "      workers: 1\n" +
+                            "        DataFrame\n" +
+                            "            Row forward scan\n" +
+                            "            Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testTimezoneOffsetWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            assertParallelQuery(
+                    compiler,
+                    sqlExecutionContext,
+                    "select ts, s, count(), sum(l), avg(d) from x sample by 1d align to calendar time zone '+03:00' with offset '00:15' order by ts, s"
+            );
+        });
+    }
+
+    @Test
+    public void testToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext, 0);
+            try (RecordCursorFactory factory = compiler.compile("select ts, s, count(), sum(l) from x sample by 1h", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncSampleByRecordCursorFactory.class, factory.getBaseFactory().getClass());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final StringSink expected = new StringSink();
+                    TestUtils.printCursor(cursor, factory.getMetadata(), true, expected, printer);
+                    cursor.toTop();
+                    TestUtils.assertCursor(expected, cursor, factory.getMetadata(), true, sink);
+                }
+            }
+        });
+    }
+
+    private static void assertParallelQuery(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        configOverrideParallelGroupByEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+        configOverrideParallelGroupByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            RecordCursorFactory base = factory;
+            while (base != null && base.getClass() != AsyncSampleByRecordCursorFactory.class) {
+                base = base.getBaseFactory();
+            }
+            Assert.assertNotNull("parallel sample by is expected", base);
+        }
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private static void createTestTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, long start) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_symbol('A','B','C','D',null) s," +
+                        " rnd_str('foo','bar','baz',null) str," +
+                        " rnd_long(0, 40000, 2) l," +
+                        " rnd_int(0, 1000, 2)::double d," +
+                        " rnd_int(0, 1000, 2)::float f," +
+                        " timestamp_sequence(" + start + ", 100000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(PoolRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> runnable.run(compiler, sqlExecutionContext),
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface PoolRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
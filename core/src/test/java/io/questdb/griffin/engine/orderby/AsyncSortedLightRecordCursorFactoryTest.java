@@ -0,0 +1,228 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.LongList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class AsyncSortedLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final Log LOG = LogFactory.getLog(AsyncSortedLightRecordCursorFactoryTest.class);
+    private static final int PAGE_FRAME_COUNT = 4; // also used to set queue size, so must be a power of 2
+    private static final int PAGE_FRAME_MAX_ROWS = 1000;
+    private static final int ROW_COUNT = 10 * PAGE_FRAME_COUNT * PAGE_FRAME_MAX_ROWS;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        // We intentionally use small values for shard count and reduce
+        // queue capacity to exhibit various edge cases.
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = PAGE_FRAME_MAX_ROWS;
+        pageFrameReduceShardCount = 2;
+        pageFrameReduceQueueCapacity = PAGE_FRAME_COUNT;
+        super.setUp();
+        configOverrideParallelOrderByEnabled(true);
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x (l long, ts timestamp) timestamp(ts) partition by day", sqlExecutionContext);
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by l");
+        });
+    }
+
+    @Test
+    public void testFilteredByIntervalWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(compiler, sqlExecutionContext, "x where ts in '1970-01-02' order by i desc");
+        });
+    }
+
+    @Test
+    public void testOwnerThreadOnly() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by l");
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by l desc");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x l, x::double d from long_sequence(10))", sqlExecutionContext);
+            assertPlan(
+                    "x order by l desc",
+                    "Async Sort light\n" +
+                            "  keys: [l desc]\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("x order by l", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof AsyncSortedLightRecordCursorFactory);
+                Assert.assertTrue(factory.recordCursorSupportsRandomAccess());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    Assert.assertEquals(ROW_COUNT, cursor.size());
+
+                    final Record record = cursor.getRecord();
+                    final LongList rowIds = new LongList();
+                    final LongList values = new LongList();
+                    while (cursor.hasNext()) {
+                        rowIds.add(record.getRowId());
+                        values.add(record.getLong(1));
+                    }
+                    Assert.assertEquals(ROW_COUNT, rowIds.size());
+
+                    final Record recordB = cursor.getRecordB();
+                    for (int i = rowIds.size() - 1; i > -1; i--) {
+                        cursor.recordAt(recordB, rowIds.getQuick(i));
+                        Assert.assertEquals(values.getQuick(i), recordB.getLong(1));
+                    }
+
+                    // The runs are kept sorted, so the second pass only merges them again.
+                    cursor.toTop();
+                    int i = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(rowIds.getQuick(i++), record.getRowId());
+                    }
+                    Assert.assertEquals(ROW_COUNT, i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSortBySmallIntegerTypesWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by b");
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by s desc");
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by c");
+        });
+    }
+
+    @Test
+    public void testSortWithPool() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTestTable(compiler, sqlExecutionContext);
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by l");
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by l desc");
+            assertParallelQuery(compiler, sqlExecutionContext, "select i, l, ts from x order by i");
+            assertParallelQuery(compiler, sqlExecutionContext, "x order by i desc");
+        });
+    }
+
+    @Test
+    public void testUnsupportedKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTestTable(compiler, sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("x order by d", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof SortedLightRecordCursorFactory);
+            }
+            try (RecordCursorFactory factory = compiler.compile("x order by i, l", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof SortedLightRecordCursorFactory);
+            }
+        });
+    }
+
+    private static void assertParallelQuery(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext, String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        configOverrideParallelOrderByEnabled(false);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+        configOverrideParallelOrderByEnabled(true);
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof AsyncSortedLightRecordCursorFactory);
+        }
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private static void createTestTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " rnd_int(-1000, 1000, 2) i," +
+                        " rnd_long(-40000, 40000, 2) l," +
+                        " rnd_byte() b," +
+                        " rnd_short() s," +
+                        " rnd_char() c," +
+                        " rnd_double() d," +
+                        " timestamp_sequence(0, 10000000) ts" +
+                        " from long_sequence(" + ROW_COUNT + ")" +
+                        ") timestamp(ts) partition by day",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(PoolRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new WorkerPool(() -> 4);
+            TestUtils.execute(
+                    pool,
+                    (engine, compiler, sqlExecutionContext) -> runnable.run(compiler, sqlExecutionContext),
+                    configuration,
+                    LOG
+            );
+        });
+    }
+
+    @FunctionalInterface
+    private interface PoolRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
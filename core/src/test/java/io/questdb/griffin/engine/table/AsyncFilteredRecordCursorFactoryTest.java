@@ -33,8 +33,7 @@ import io.questdb.griffin.*;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.jit.JitUtil;
 import io.questdb.mp.*;
-import io.questdb.std.Misc;
-import io.questdb.std.Rnd;
+import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.hamcrest.MatcherAssert;
@@ -370,6 +369,45 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         testNoLimit(true, SqlJitMode.JIT_MODE_ENABLED, AsyncJitFilteredRecordCursorFactory.class);
     }
 
+    @Test
+    public void testPageFramePrefetch() throws Exception {
+        pageFrameMaxRows = 1000;
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            compiler.compile("create table x as (" +
+                    "  select rnd_double() a," +
+                    "  rnd_str(5, 16, 2) s," +
+                    "  timestamp_sequence(20000000, 100000) t from long_sequence(100000)" +
+                    ") timestamp(t) partition by hour", sqlExecutionContext);
+            final String sql = "x where a > 0.345747032 and a < 0.34585";
+
+            final StringSink expected = new StringSink();
+            TestUtils.printSql(compiler, sqlExecutionContext, sql, expected);
+
+            // The prefetcher only warms up the page cache, so the result must stay the same.
+            final ReadingIOURingFacade rf = new ReadingIOURingFacade();
+            configOverrideIOURingFacade(rf);
+            configOverridePageFramePrefetchFrames(2);
+            try (RecordCursorFactory f = compiler.compile(sql, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncFilteredRecordCursorFactory.class, f.getClass());
+                for (int i = 0; i < 2; i++) {
+                    final StringSink actual = new StringSink();
+                    try (RecordCursor cursor = f.getCursor(sqlExecutionContext)) {
+                        printer.print(cursor, f.getMetadata(), true, actual);
+                    }
+                    TestUtils.assertEquals(expected, actual);
+                }
+            }
+
+            // all column files of every partition are read: a, s data and index, t
+            try (TableReader reader = getReader("x")) {
+                Assert.assertEquals(4 * reader.getPartitionCount(), rf.fds.size());
+            }
+            Assert.assertTrue(rf.readCount > 0);
+            Assert.assertEquals(0, rf.shortReadCount);
+        });
+    }
+
     @Test
     public void testPageFrameSequenceJit() throws Exception {
         // Disable the test on ARM64.
@@ -809,9 +847,23 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
                 @Nullable RecordSink partitionBySink,
                 @Nullable ColumnTypes keyTypes,
                 boolean isOrdered,
-                boolean baseSupportsRandomAccess
+                boolean baseSupportsRandomAccess,
+                int framingMode,
+                long frameLo,
+                long frameHi,
+                int timestampIndex
         ) {
-            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, baseSupportsRandomAccess);
+            sqlExecutionContext.configureAnalyticContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    isOrdered,
+                    baseSupportsRandomAccess,
+                    framingMode,
+                    frameLo,
+                    frameHi,
+                    timestampIndex
+            );
         }
 
         @Override
@@ -949,4 +1001,79 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
             sqlExecutionContext.storeTelemetry(event, origin);
         }
     }
+
+    private static class ReadingIOURingFacade extends IOURingFacadeImpl {
+        private final IntHashSet fds = new IntHashSet();
+        private int readCount;
+        private int shortReadCount;
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public IOURing newInstance(int capacity) {
+            return new ReadingIOURing();
+        }
+
+        // reads synchronously, completions are available right away
+        private class ReadingIOURing implements IOURing {
+            private final LongList cqes = new LongList();
+            private int cqeIndex = -1;
+            private long idSeq;
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public long enqueueNop() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long enqueueRead(int fd, long offset, long bufPtr, int len) {
+                final long res = Files.read(fd, bufPtr, len, offset);
+                fds.add(fd);
+                readCount++;
+                if (res != len) {
+                    shortReadCount++;
+                }
+                final long id = idSeq++;
+                cqes.add(id, res);
+                return id;
+            }
+
+            @Override
+            public long getCqeId() {
+                return cqes.getQuick(2 * cqeIndex);
+            }
+
+            @Override
+            public int getCqeRes() {
+                return (int) cqes.getQuick(2 * cqeIndex + 1);
+            }
+
+            @Override
+            public boolean nextCqe() {
+                if (++cqeIndex < cqes.size() / 2) {
+                    return true;
+                }
+                cqes.clear();
+                cqeIndex = -1;
+                return false;
+            }
+
+            @Override
+            public int submit() {
+                return 0;
+            }
+
+            @Override
+            public int submitAndWait() {
+                return 0;
+            }
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.wal;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.cairo.wal.seq.SeqTxnTracker;
+import io.questdb.cairo.wal.seq.TableSequencerAPI;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplyLagTest extends AbstractGriffinTest {
+
+    @Test
+    public void testInsertRejectedOverHardLag() throws Exception {
+        configOverrideWalApplyLagHardTxnCount(3);
+        assertMemoryLeak(() -> {
+            createTable("x");
+            for (int i = 0; i < 3; i++) {
+                insert("x", i);
+            }
+            SeqTxnTracker tracker = engine.getTableSequencerAPI().getTxnTracker(engine.getTableToken("x"));
+            Assert.assertEquals(3, tracker.getLag());
+            Assert.assertEquals(3, tracker.getPendingRows());
+
+            try {
+                insert("x", 3);
+                Assert.fail();
+            } catch (CairoException ex) {
+                TestUtils.assertContains(ex.getFlyweightMessage(), "WAL apply lag is over the hard limit");
+            }
+
+            drainWalQueue();
+            Assert.assertEquals(0, tracker.getLag());
+            Assert.assertEquals(0, tracker.getPendingRows());
+
+            insert("x", 3);
+            drainWalQueue();
+            assertSql("select count() from x", "count\n4\n");
+        });
+    }
+
+    @Test
+    public void testMostLaggingTableAppliedFirst() throws Exception {
+        configOverrideWalApplyLagSoftTxnCount(3);
+        assertMemoryLeak(() -> {
+            createTable("quiet");
+            createTable("busy");
+            // notification of the quiet table is queued ahead of the busy table
+            insert("quiet", 0);
+            for (int i = 0; i < 5; i++) {
+                insert("busy", i);
+            }
+
+            final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+            final TableToken busyToken = engine.getTableToken("busy");
+            Assert.assertEquals(1, tableSequencerAPI.getLaggingTableCount());
+            Assert.assertEquals(busyToken.getDirName(), tableSequencerAPI.getMostLaggingTable().getTableToken().getDirName());
+
+            try (ApplyWal2TableJob job = createWalApplyJob()) {
+                // a single notification, the one of the quiet table
+                Assert.assertTrue(job.run(0));
+            }
+
+            Assert.assertEquals(0, tableSequencerAPI.getLaggingTableCount());
+            Assert.assertNull(tableSequencerAPI.getMostLaggingTable());
+            Assert.assertEquals(0, tableSequencerAPI.getTxnTracker(busyToken).getLag());
+            assertSql("select count() from busy", "count\n5\n");
+            assertSql("select count() from quiet", "count\n1\n");
+        });
+    }
+
+    @Test
+    public void testSuspendedTableIsNotLagging() throws Exception {
+        configOverrideWalApplyLagSoftTxnCount(2);
+        configOverrideWalApplyLagHardTxnCount(2);
+        assertMemoryLeak(() -> {
+            createTable("x");
+            final TableToken tableToken = engine.getTableToken("x");
+            final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+            tableSequencerAPI.suspendTable(tableToken);
+
+            for (int i = 0; i < 3; i++) {
+                insert("x", i);
+            }
+            Assert.assertEquals(3, tableSequencerAPI.getTxnTracker(tableToken).getLag());
+            Assert.assertEquals(0, tableSequencerAPI.getLaggingTableCount());
+
+            compile("alter table x resume wal");
+            Assert.assertEquals(1, tableSequencerAPI.getLaggingTableCount());
+            drainWalQueue();
+            Assert.assertEquals(0, tableSequencerAPI.getLaggingTableCount());
+            assertSql("select count() from x", "count\n3\n");
+        });
+    }
+
+    private static void createTable(String tableName) throws SqlException {
+        compile("create table " + tableName + " (i int, ts timestamp) timestamp(ts) partition by DAY WAL");
+    }
+
+    private static void insert(String tableName, int i) throws SqlException {
+        executeInsert("insert into " + tableName + " values (" + i + ", " + i * 1_000_000L + ")");
+    }
+}
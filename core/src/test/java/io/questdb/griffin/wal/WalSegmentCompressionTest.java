@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2023 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.wal.WalReader;
+import io.questdb.cairo.wal.WalSegmentCompressionJob;
+import io.questdb.cairo.wal.WalUtils;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.Chars;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.TestFilesFacadeImpl;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class WalSegmentCompressionTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideWalSegmentCompressionEnabled(true);
+        configOverrideWalSegmentRolloverRowCount(5_000);
+    }
+
+    @Test
+    public void testCompressOnWriterClose() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            insertBoth(0, 100);
+            assertSegment(0, false);
+
+            engine.releaseInactive();
+            assertSegment(0, false);
+            compressWalSegments();
+            assertSegment(0, true);
+
+            drainWalQueue();
+            assertTables();
+        });
+    }
+
+    @Test
+    public void testCompressRolledSegments() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            // transactions span the blocks of compressed columns and segments are rolled
+            // before WAL apply has a chance to read them
+            for (int i = 0; i < 4; i++) {
+                insertBoth(i * 3_000, 3_000);
+            }
+            // out of order transaction, timestamps do not collide with existing rows
+            insertBoth(1_500, 2_500, 500);
+            // ingestion leaves compression to the background job
+            assertSegment(0, false);
+            assertSegment(1, false);
+
+            compressWalSegments();
+            assertSegment(0, true);
+            assertSegment(1, true);
+            assertSegment(2, false);
+
+            drainWalQueue();
+            assertTables();
+
+            insertBoth(20_000, 10);
+            drainWalQueue();
+            assertTables();
+        });
+    }
+
+    @Test
+    public void testCompressedSegmentRead() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            insertBoth(0, 6_000);
+            insertBoth(6_000, 10);
+            compressWalSegments();
+            assertSegment(0, true);
+
+            drainWalQueue();
+            assertTables();
+            TestUtils.assertSql(
+                    compiler,
+                    sqlExecutionContext,
+                    "select count() from wal_segment_compression_x where ts in '1970-01-01T00:00:01'",
+                    sink,
+                    "count\n1000\n"
+            );
+        });
+    }
+
+    @Test
+    public void testCompressedSegmentWalReader() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            insertBoth(0, 6_000);
+            insertBoth(6_000, 10);
+            compressWalSegments();
+            assertSegment(0, true);
+
+            final TableToken tableToken = engine.getTableToken("wal_segment_compression_x");
+            try (WalReader reader = engine.getWalReader(sqlExecutionContext.getCairoSecurityContext(), tableToken, WalUtils.WAL_NAME_BASE + 1, 0, 6_000)) {
+                final RecordCursor cursor = reader.getDataCursor();
+                final Record record = cursor.getRecord();
+                long rows = 0;
+                while (cursor.hasNext()) {
+                    final long x = rows + 1;
+                    Assert.assertEquals(x % 1000, record.getInt(0));
+                    Assert.assertEquals(x * 31, record.getLong(1));
+                    Assert.assertEquals(x / 7.0, record.getDouble(2), 0.0000001);
+                    Assert.assertEquals(rows * 1000, record.getTimestamp(7));
+                    rows++;
+                }
+                Assert.assertEquals(6_000, rows);
+            }
+            drainWalQueue();
+            assertTables();
+        });
+    }
+
+    @Test
+    public void testRawFileKeptWhenNotRemovable() throws Exception {
+        // Windows does not remove files that are open or mapped, WAL apply may have the raw file mapped
+        final AtomicBoolean removable = new AtomicBoolean();
+        final FilesFacade ff = new TestFilesFacadeImpl() {
+            @Override
+            public boolean remove(LPSZ name) {
+                if (!removable.get() && Chars.endsWith(name, ".d")) {
+                    return false;
+                }
+                return super.remove(name);
+            }
+        };
+        assertMemoryLeak(ff, () -> {
+            createTables();
+            insertBoth(0, 6_000);
+            insertBoth(6_000, 10);
+            compressWalSegments();
+
+            final TableToken tableToken = engine.getTableToken("wal_segment_compression_x");
+            try (Path path = new Path()) {
+                path.of(configuration.getRoot()).concat(tableToken).concat(WalUtils.WAL_NAME_BASE).put(1).slash().put(0);
+                final int plen = path.length();
+                Assert.assertTrue(Files.exists(TableUtils.dzFile(path, "l", -1)));
+                Assert.assertTrue(Files.exists(TableUtils.dFile(path.trimTo(plen), "l", -1)));
+
+                drainWalQueue();
+                assertTables();
+
+                // raw file goes away with the segment
+                removable.set(true);
+                engine.releaseInactive();
+                runWalPurgeJob();
+                Assert.assertFalse(Files.exists(path.trimTo(plen).$()));
+            }
+        });
+    }
+
+    private static void compressWalSegments() {
+        try (WalSegmentCompressionJob job = new WalSegmentCompressionJob(engine)) {
+            job.drain(0);
+        }
+    }
+
+    private void assertSegment(int segmentId, boolean compressed) {
+        final TableToken tableToken = engine.getTableToken("wal_segment_compression_x");
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(tableToken).concat(WalUtils.WAL_NAME_BASE).put(1).slash().put(segmentId);
+            final int plen = path.length();
+            Assert.assertEquals(compressed, Files.exists(TableUtils.dzFile(path, "ts", -1)));
+            Assert.assertEquals(compressed, Files.exists(TableUtils.dzFile(path.trimTo(plen), "l", -1)));
+            Assert.assertEquals(compressed, Files.exists(TableUtils.dzFile(path.trimTo(plen), "sym", -1)));
+            Assert.assertEquals(!compressed, Files.exists(TableUtils.dFile(path.trimTo(plen), "ts", -1)));
+            // var-size columns are never compressed
+            Assert.assertFalse(Files.exists(TableUtils.dzFile(path.trimTo(plen), "str", -1)));
+            Assert.assertTrue(Files.exists(TableUtils.dFile(path.trimTo(plen), "str", -1)));
+        }
+    }
+
+    private void assertTables() throws SqlException {
+        TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "wal_segment_compression_y order by ts", "wal_segment_compression_x", LOG);
+    }
+
+    private void createTables() throws SqlException {
+        final String columns = "(i int, l long, d double, sh short, sym symbol, str string, b boolean, ts timestamp) timestamp(ts) partition by DAY";
+        compile("create table wal_segment_compression_x " + columns + " wal");
+        compile("create table wal_segment_compression_y " + columns + " bypass wal");
+    }
+
+    private void insertBoth(long lo, long count) throws SqlException {
+        insertBoth(lo, count, 0);
+    }
+
+    private void insertBoth(long lo, long count, long shift) throws SqlException {
+        // one row per millisecond starting from lo
+        final String select = "select" +
+                " cast(x % 1000 as int) i," +
+                " x * 31 l," +
+                " x / 7.0 d," +
+                " cast(x % 100 as short) sh," +
+                " cast(x % 3 as symbol) sym," +
+                " case when x % 6 = 0 then null else cast(x as string) end str," +
+                " x % 2 = 0 b," +
+                " timestamp_sequence(" + (lo * 1000 + shift) + "L, 1000L) ts" +
+                " from long_sequence(" + count + ")";
+        compile("insert into wal_segment_compression_x " + select);
+        compile("insert into wal_segment_compression_y " + select);
+    }
+}
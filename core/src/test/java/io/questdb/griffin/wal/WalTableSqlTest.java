@@ -34,9 +34,12 @@ import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.griffin.model.IntervalUtils;
 import io.questdb.mp.Job;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
 import io.questdb.std.*;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
@@ -45,6 +48,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static io.questdb.cairo.TableUtils.COLUMN_VERSION_FILE_NAME;
@@ -236,6 +240,91 @@ public class WalTableSqlTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testApplyWalWithO3CopySplitIntoParts() throws Exception {
+        // 256 bytes per part splits the copy of every fixed-size column into many parts
+        configOverrideO3CopyPartSize(256);
+        assertMemoryLeak(() -> {
+            final WorkerPool walApplyPool = new TestWorkerPool("wal-apply", 3, metrics);
+            O3Utils.setupO3CopyJobs(walApplyPool, engine.getMessageBus());
+            walApplyPool.start(LOG);
+            try {
+                String tableName = testName.getMethodName();
+                compile("create table " + tableName + " (x long, sym symbol index, d double, s string, ts timestamp) timestamp(ts) partition by HOUR WAL");
+
+                // batches overlap each other, the last one is appended past the end of the table
+                final long day = IntervalUtils.parseFloorPartialTimestamp("2022-02-24");
+                final int[] starts = {0, 2, 1, 3, 30};
+                final StringSink expected = new StringSink();
+                for (int i = 0; i < starts.length; i++) {
+                    final String select = "select x, cast('s' || (x % 5) as symbol) sym, x * 0.5 d, 'v' || x s, " +
+                            "cast(" + (day + starts[i] * 600_000_000L + i) + " + x * 1000000L as timestamp) ts " +
+                            "from long_sequence(2000)";
+                    compile("insert into " + tableName + " " + select);
+                    drainWalQueue();
+                    if (i > 0) {
+                        expected.put(" union all ");
+                    }
+                    expected.put(select);
+                }
+
+                TestUtils.assertSqlCursors(
+                        compiler,
+                        sqlExecutionContext,
+                        "(" + expected + ") order by ts",
+                        tableName,
+                        LOG,
+                        true
+                );
+                assertSql("select count() from " + tableName + " where sym = 's3'", "count\n2000\n");
+            } finally {
+                walApplyPool.halt();
+            }
+        });
+    }
+
+    @Test
+    public void testApplyWalWithO3JobsOnSeparatePool() throws Exception {
+        assertMemoryLeak(() -> {
+            // counts O3 tasks picked up by the pool workers rather than by the applying thread
+            final AtomicInteger helpedTasks = new AtomicInteger();
+            final WorkerPool walApplyPool = new TestWorkerPool("wal-apply", 3, metrics) {
+                @Override
+                public void assign(Job job) {
+                    super.assign((workerId, runStatus) -> {
+                        final boolean useful = job.run(workerId, runStatus);
+                        if (useful) {
+                            helpedTasks.incrementAndGet();
+                        }
+                        return useful;
+                    });
+                }
+            };
+            O3Utils.setupO3CopyJobs(walApplyPool, engine.getMessageBus());
+            walApplyPool.start(LOG);
+            try {
+                String tableName = testName.getMethodName();
+                compile("create table " + tableName + " (x long, sym symbol, s string, ts timestamp) timestamp(ts) partition by HOUR WAL");
+                compile("create table " + tableName + "_nonwal as (select * from " + tableName + ") timestamp(ts) partition by HOUR BYPASS WAL");
+
+                // a single table is applied by the test thread, keep committing out-of-order data
+                // until the pool workers have taken part in the partition merges
+                for (int i = 0; i < 50 && (i < 3 || helpedTasks.get() == 0); i++) {
+                    final String select = "select x, cast('s' || (x % 3) as symbol), 'v' || (x * " + i + "), " +
+                            "timestamp_sequence('2022-02-24T0" + (i % 10) + "', 7 * 60 * 1000000L) ts from long_sequence(500)";
+                    compile("insert into " + tableName + " " + select);
+                    compile("insert into " + tableName + "_nonwal " + select);
+                    drainWalQueue();
+                }
+
+                Assert.assertTrue(helpedTasks.get() > 0);
+                TestUtils.assertSqlCursors(compiler, sqlExecutionContext, tableName + "_nonwal", tableName, LOG);
+            } finally {
+                walApplyPool.halt();
+            }
+        });
+    }
+
     @Test
     public void testCreateDropCreate() throws Exception {
         assertMemoryLeak(() -> {
@@ -38,10 +38,12 @@ import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 import org.junit.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.LongConsumer;
 
 import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
 import static io.questdb.jit.CompiledFilterIRSerializer.*;
@@ -63,7 +65,7 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
     public static void setUpStatic2() {
         bindVarFunctions = new ObjList<>();
         irMemory = Vm.getCARWInstance(2048, 1, MemoryTag.NATIVE_JIT);
-        serializer = new CompiledFilterIRSerializer();
+        serializer = new CompiledFilterIRSerializer(PROJECTION_IR_VERSION);
     }
 
     @AfterClass
@@ -124,6 +126,36 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testAbsGreaterThan() throws Exception {
+        serialize("abs(along) > 10");
+        assertIR("(i64 -10L)(i64 along)(<)(i64 10L)(i64 along)(>)(||)(ret)");
+    }
+
+    @Test
+    public void testAbsLessThanOrEqualReversed() throws Exception {
+        serialize("2.5 >= abs(adouble)");
+        assertIR("(f64 -2.5D)(f64 adouble)(>=)(f64 2.5D)(f64 adouble)(<=)(&&)(ret)");
+    }
+
+    @Test
+    public void testBetweenDate() throws Exception {
+        serialize("adate between '2023-01-02' and 1672531200000001");
+        assertIR("(i64 1672617600000L)(i64 adate)(<=)(i64 1672531200001L)(i64 adate)(>=)(&&)(ret)");
+    }
+
+    @Test
+    public void testBetweenLong() throws Exception {
+        serialize("along between 10 and 1");
+        assertIR("(i64 10L)(i64 along)(<=)(i64 1L)(i64 along)(>=)(&&)(ret)");
+    }
+
+    @Test
+    public void testBetweenTimestamp() throws Exception {
+        serialize("atimestamp between '2023-01-02' and '2023-01-01T00:00:00.000001Z'");
+        assertIR("(i64 1672617600000000L)(i64 atimestamp)(<=)(i64 1672531200000001L)(i64 atimestamp)(>=)(&&)(ret)");
+    }
+
     @Test
     public void testBindVariables() throws Exception {
         bindVariableService.clear();
@@ -281,6 +313,63 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testInSymbolList() throws Exception {
+        serialize("asymbol in ('" + KNOWN_SYMBOL_1 + "', null, '" + UNKNOWN_SYMBOL + "')");
+        assertIR("(in_set i32 asymbol :0)(ret)");
+        // known symbol key is 0, unknown symbols are skipped
+        assertInitializedBindVariable(0, address -> {
+            Assert.assertEquals(1, Unsafe.getUnsafe().getInt(address));
+            Assert.assertEquals(1, Unsafe.getUnsafe().getInt(address + Integer.BYTES));
+            Assert.assertEquals(1L, Unsafe.getUnsafe().getLong(address + 2 * Integer.BYTES));
+        });
+    }
+
+    @Test
+    public void testInSymbolListBindVariables() throws Exception {
+        bindVariableService.clear();
+        bindVariableService.setStr(0, KNOWN_SYMBOL_1);
+        bindVariableService.setStr(1, UNKNOWN_SYMBOL);
+        serialize("not asymbol in ($1, $2)");
+        assertIR("(in_set i32 asymbol :0)(!)(ret)");
+    }
+
+    @Test
+    public void testInSymbolListManyValues() throws Exception {
+        final StringBuilder sb = new StringBuilder("asymbol in ('" + KNOWN_SYMBOL_1 + "'");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(", 'sym").append(i).append('\'');
+        }
+        sb.append(')');
+        serialize(sb);
+        assertIR("(in_set i32 asymbol :0)(ret)");
+    }
+
+    @Test
+    public void testInTimestampInterval() throws Exception {
+        serialize("atimestamp in '2023-01-01' or along = 0");
+        assertIR("(i64 0L)(i64 along)(=)(in_intervals i64 atimestamp :0)(||)(ret)");
+    }
+
+    @Test
+    public void testInTimestampIntervalForcesScalarMode() throws Exception {
+        int options = serialize("atimestamp in '2023-01-01'", false, false, false);
+        assertOptionsHint(options, OptionsHint.SCALAR);
+    }
+
+    @Test
+    public void testInTimestampIntervalWithPeriods() throws Exception {
+        serialize("atimestamp in '2023-01-01T10:00:00;1s;1d;2'");
+        assertIR("(in_intervals i64 atimestamp :0)(ret)");
+        assertInitializedBindVariable(0, address -> {
+            Assert.assertEquals(2L, Unsafe.getUnsafe().getLong(address));
+            Assert.assertEquals(1672567200000000L, Unsafe.getUnsafe().getLong(address + Long.BYTES));
+            Assert.assertEquals(1672567201999999L, Unsafe.getUnsafe().getLong(address + 2 * Long.BYTES));
+            Assert.assertEquals(1672653600000000L, Unsafe.getUnsafe().getLong(address + 3 * Long.BYTES));
+            Assert.assertEquals(1672653601999999L, Unsafe.getUnsafe().getLong(address + 4 * Long.BYTES));
+        });
+    }
+
     @Test(expected = SqlException.class)
     public void testInvalidUuidConstant() throws Exception {
         serialize("auuid = '111111110111101111011110111111111111'");
@@ -476,12 +565,71 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testProjectionDouble() throws Exception {
+        serializeProjection("adouble * 0.5 - adouble", ColumnType.DOUBLE);
+        assertIR("(f64 adouble)(f64 0.5D)(f64 adouble)(*)(-)(ret)");
+
+        serializeProjection("(adouble - adouble) / 2", ColumnType.DOUBLE);
+        assertIR("(i64 2L)(f64 adouble)(f64 adouble)(-)(/)(ret)");
+    }
+
+    @Test
+    public void testProjectionLong() throws Exception {
+        serializeProjection("-along * 3", ColumnType.LONG);
+        assertIR("(i64 3L)(i64 along)(*)(neg)(ret)");
+
+        serializeProjection("along - -5", ColumnType.LONG);
+        assertIR("(i64 -5L)(i64 along)(-)(ret)");
+    }
+
+    @Test
+    public void testProjectionOptions() throws Exception {
+        int options = serializeProjection("along + along", ColumnType.LONG, true, true);
+        assertOptionsDebug(options, true);
+        assertOptionsNullChecks(options, true);
+        assertOptionsSize(null, options, 8);
+        assertOptionsHint(options, OptionsHint.SCALAR);
+
+        options = serializeProjection("adouble + adouble", ColumnType.DOUBLE, false, false);
+        assertOptionsDebug(options, false);
+        assertOptionsNullChecks(options, false);
+        assertOptionsSize(null, options, 8);
+    }
+
     @Test
     public void testSingleBooleanColumn() throws Exception {
         serialize("aboolean or not aboolean");
         assertIR("(i8 1L)(i8 aboolean)(=)(!)(i8 1L)(i8 aboolean)(=)(||)(ret)");
     }
 
+    @Test
+    public void testStrEquals() throws Exception {
+        serialize("astring = 'abc'");
+        assertIR("(str_eq " + (metadata.getColumnCount() + metadata.getColumnIndex("astring")) + " astring :0)(ret)");
+        assertInitializedBindVariable(0, address -> {
+            Assert.assertEquals(3, Unsafe.getUnsafe().getInt(address));
+            Assert.assertEquals('a', Unsafe.getUnsafe().getChar(address + Integer.BYTES));
+            Assert.assertEquals('c', Unsafe.getUnsafe().getChar(address + Integer.BYTES + 2 * Character.BYTES));
+        });
+    }
+
+    @Test
+    public void testStrEqualsBindVariable() throws Exception {
+        bindVariableService.clear();
+        bindVariableService.setStr("astring", "foobar");
+        int options = serialize(":astring = astring", false, false, false);
+        assertIR("(str_eq " + (metadata.getColumnCount() + metadata.getColumnIndex("astring")) + " astring :0)(ret)");
+        assertOptionsHint(options, OptionsHint.SCALAR);
+    }
+
+    @Test
+    public void testStrNotEqualsNull() throws Exception {
+        serialize("astring <> null and along = 0");
+        assertIR("(i64 0L)(i64 along)(=)(str_eq " + (metadata.getColumnCount() + metadata.getColumnIndex("astring")) + " astring :0)(!)(&&)(ret)");
+        assertInitializedBindVariable(0, address -> Assert.assertEquals(TableUtils.NULL_LEN, Unsafe.getUnsafe().getInt(address)));
+    }
+
     @Test
     public void testUnknownSymbolConstant() throws Exception {
         serialize("asymbol = '" + UNKNOWN_SYMBOL + "'");
@@ -492,10 +640,44 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         Assert.assertEquals(UNKNOWN_SYMBOL, bindVarFunctions.get(0).getStr(null));
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsBindVariable() throws Exception {
+        bindVariableService.clear();
+        bindVariableService.setLong(0, 42);
+        serialize("abs(along) > $1");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsNegativeConstant() throws Exception {
+        serialize("abs(anint) < -1");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedAbsShortColumn() throws Exception {
+        serialize("abs(ashort) > 1");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedBetweenBindVariable() throws Exception {
+        bindVariableService.clear();
+        bindVariableService.setLong(0, 42);
+        serialize("along between $1 and 100");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedBetweenColumnType() throws Exception {
+        serialize("adouble between 1 and 2");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedBetweenQuotedLongBound() throws Exception {
+        serialize("along between '2020-01-01' and '2021-01-01'");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedBindVariableType() throws Exception {
         bindVariableService.clear();
-        bindVariableService.setStr("astring", "foobar");
+        bindVariableService.setLong("astring", 42);
         serialize("astring = :astring");
     }
 
@@ -526,7 +708,7 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
 
     @Test(expected = SqlException.class)
     public void testUnsupportedColumnType() throws Exception {
-        serialize("astring = 'a'");
+        serialize("astring > 'a'");
     }
 
     @Test(expected = SqlException.class)
@@ -574,6 +756,23 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("ageolong = #sp052w92p1p8889");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedIRVersion() throws Exception {
+        irMemory.truncate();
+        bindVarFunctions.clear();
+        ExpressionNode node = expr("asymbol in ('" + KNOWN_SYMBOL_1 + "', '" + KNOWN_SYMBOL_2 + "')");
+        try (PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC)) {
+            new CompiledFilterIRSerializer(PREDICATE_OPCODES_IR_VERSION - 1)
+                    .of(irMemory, sqlExecutionContext, metadata, cursor, bindVarFunctions)
+                    .serialize(node, false, false, false);
+        }
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListColumnType() throws Exception {
+        serialize("achar in ('a', 'b')");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedInvalidGeoHashConstant() throws Exception {
         serialize("ageolong = ##11211");
@@ -616,7 +815,7 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
 
     @Test(expected = SqlException.class)
     public void testUnsupportedNullType() throws Exception {
-        serialize("astring <> null");
+        serialize("astring > null");
     }
 
     @Test(expected = SqlException.class)
@@ -624,6 +823,39 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("asymbol in (select rnd_symbol('A','B','C') from long_sequence(10))");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionConstantsOnly() throws Exception {
+        serializeProjection("1 + 2", ColumnType.LONG);
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionFunction() throws Exception {
+        serializeProjection("abs(along) + 1", ColumnType.LONG);
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionIRVersion() throws Exception {
+        irMemory.truncate();
+        new CompiledFilterIRSerializer(PROJECTION_IR_VERSION - 1)
+                .of(irMemory, sqlExecutionContext, metadata, null, bindVarFunctions)
+                .serializeProjection(expr("along + 1"), ColumnType.LONG, false, true);
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionMixedColumnTypes() throws Exception {
+        serializeProjection("along * anint", ColumnType.LONG);
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionNullConstant() throws Exception {
+        serializeProjection("along + null", ColumnType.LONG);
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedProjectionType() throws Exception {
+        serializeProjection("anint * anint", ColumnType.INT);
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedShortNullConstant() throws Exception {
         serialize("ashort = null");
@@ -639,6 +871,11 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("anint");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedStringColumnsComparison() throws Exception {
+        serialize("astring = astring");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedStringConstant() throws Exception {
         serialize("achar = 'abc'");
@@ -675,6 +912,16 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         assertIR(null, expectedIR);
     }
 
+    private void assertInitializedBindVariable(int index, LongConsumer addressAssertion) throws SqlException {
+        final Function function = bindVarFunctions.getQuick(index);
+        try (PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC)) {
+            function.init(cursor, sqlExecutionContext);
+            addressAssertion.accept(function.getLong(null));
+        } finally {
+            function.close();
+        }
+    }
+
     private void assertOptionsDebug(int options, boolean expectedFlag) {
         int f = options & 1;
         Assert.assertEquals(expectedFlag ? 1 : 0, f);
@@ -715,6 +962,20 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize(seq, false, false, true);
     }
 
+    private int serializeProjection(CharSequence seq, int columnType, boolean debug, boolean nullChecks) throws SqlException {
+        irMemory.truncate();
+        serializer.clear();
+        bindVarFunctions.clear();
+
+        ExpressionNode node = expr(seq);
+        return serializer.of(irMemory, sqlExecutionContext, metadata, null, bindVarFunctions)
+                .serializeProjection(node, columnType, debug, nullChecks);
+    }
+
+    private void serializeProjection(CharSequence seq, int columnType) throws SqlException {
+        serializeProjection(seq, columnType, false, true);
+    }
+
     private enum OptionsHint {
         SCALAR(0), SINGLE_SIZE(1), MIXED_SIZES(2);
 
@@ -770,6 +1031,12 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
                         }
                     }
                     break;
+                    // Predicates
+                    case IN_SET:
+                    case IN_INTERVALS:
+                    case STR_EQ:
+                        appendPredicate(opcode, type);
+                        break;
                     // Operators
                     default:
                         appendOperator(opcode);
@@ -841,6 +1108,30 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
             sb.append(")");
         }
 
+        private void appendPredicate(int opcode, int options) {
+            long columnIndex = irMem.getLong(offset);
+            offset += Long.BYTES;
+            long varIndex = irMem.getLong(offset);
+            offset += Long.BYTES;
+            sb.append("(");
+            switch (opcode) {
+                case IN_SET:
+                    sb.append("in_set ").append(typeName(options));
+                    break;
+                case IN_INTERVALS:
+                    sb.append("in_intervals ").append(typeName(options));
+                    break;
+                default:
+                    sb.append("str_eq ").append(options);
+                    break;
+            }
+            sb.append(" ");
+            sb.append(metadata.getColumnName((int) columnIndex));
+            sb.append(" :");
+            sb.append(varIndex);
+            sb.append(")");
+        }
+
         private String operatorName(int operator) {
             switch (operator) {
                 case NEG: